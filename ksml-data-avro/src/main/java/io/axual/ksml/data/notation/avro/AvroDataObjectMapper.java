@@ -64,6 +64,7 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * DataObjectMapper implementation for AVRO native values.
@@ -91,7 +92,21 @@ public class AvroDataObjectMapper implements DataObjectMapper<Object> {
      */
     @Override
     public DataObject toDataObject(DataType expected, Object value) {
-        return toDataObject(expected, value, null);
+        return toDataObject(expected, value, (Schema) null);
+    }
+
+    /**
+     * Convert an AVRO-native value into a KSML DataObject, converting only the given fields of a top-level record.
+     *
+     * @param expected   the expected target DataType used for null handling and numeric coercion
+     * @param value      the AVRO-native value to convert (maybe null)
+     * @param fieldNames the names of the record fields to convert
+     * @return the corresponding KSML DataObject
+     */
+    @Override
+    public DataObject toDataObject(DataType expected, Object value, Set<String> fieldNames) {
+        if (value instanceof GenericRecord genericRecord) return convertRecordToDataStruct(expected, genericRecord, fieldNames);
+        return toDataObject(expected, value, (Schema) null);
     }
 
     /**
@@ -136,7 +151,7 @@ public class AvroDataObjectMapper implements DataObjectMapper<Object> {
             case CharSequence val -> new DataString(val.toString());
             case GenericData.EnumSymbol val -> new DataString(val.toString());
             case GenericFixed val -> new DataBytes(val.bytes());
-            case GenericRecord val -> convertRecordToDataStruct(expected, val);
+            case GenericRecord val -> convertRecordToDataStruct(expected, val, null);
             case List<?> val -> convertArrayToDataList(expected, val, schema != null ? elementSchemaOf(schema) : null);
             case Map<?, ?> val -> convertMapToDataMap(expected, val, schema != null ? mapValueSchemaOf(schema) : null);
             default -> throw new DataException("Unsupported primitive type: " + value.getClass().getSimpleName());
@@ -181,13 +196,15 @@ public class AvroDataObjectMapper implements DataObjectMapper<Object> {
 
     // ========================= TO DATAOBJECT HELPERS =========================
 
-    private DataObject convertRecordToDataStruct(DataType expected, GenericRecord genericRecord) {
+    private DataObject convertRecordToDataStruct(DataType expected, GenericRecord genericRecord, Set<String> fieldNames) {
         final var avroSchema = genericRecord.getSchema();
         final var structSchema = (StructSchema) SCHEMA_MAPPER.toDataSchema(avroSchema.getNamespace(), avroSchema.getName(), avroSchema);
         final var result = new DataStruct(structSchema);
 
         for (var field : avroSchema.getFields()) {
             final var name = field.name();
+            // Skip fields outside the projection, if one was given
+            if (fieldNames != null && !fieldNames.contains(name)) continue;
             final var raw = genericRecord.get(name);
 
             if (raw != null) {
@@ -357,7 +374,9 @@ public class AvroDataObjectMapper implements DataObjectMapper<Object> {
     @Nullable
     private Map<String, Object> convertDataStructToPlainMap(DataStruct struct) {
         if (struct.isNull()) return null;
-        return new Struct<>(struct.contents(), this::fromDataObject);
+        final var result = new Struct<Object>();
+        struct.forEach((key, value) -> result.put(key, fromDataObject(value)));
+        return result;
     }
 
     // ========================= FROM DATAOBJECT HELPERS =========================
@@ -523,9 +542,9 @@ public class AvroDataObjectMapper implements DataObjectMapper<Object> {
     @Nullable
     private Map<String, Object> convertDataMapToAvroMap(DataMap map, Schema valueSchema) {
         if (map.isNull()) return null;
-        return new Struct<>(
-                map.contents(),
-                v -> valueSchema != null ? convertDataObjectToAvroBySchema(v, valueSchema) : fromDataObject(v));
+        final var result = new Struct<Object>();
+        map.forEach((key, value) -> result.put(key, valueSchema != null ? convertDataObjectToAvroBySchema(value, valueSchema) : fromDataObject(value)));
+        return result;
     }
 
     private Object convertDataStructToAvroRecord(DataStruct struct) {
@@ -86,6 +86,11 @@ public class JsonNotation extends BaseNotation {
         return ".json";
     }
 
+    @Override
+    public boolean writesText() {
+        return true;
+    }
+
     @Override
     public SchemaUsage schemaUsage() {
         return SchemaUsage.SCHEMALESS_ONLY;
@@ -21,8 +21,11 @@ package io.axual.ksml.data.mapper;
  */
 
 import io.axual.ksml.data.object.DataObject;
+import io.axual.ksml.data.object.DataStruct;
 import io.axual.ksml.data.type.DataType;
 
+import java.util.Set;
+
 /**
  * Maps between native Java values of type T and the KSML DataObject model.
  * Implementations convert to and from the neutral DataObject representation,
@@ -51,6 +54,21 @@ public interface DataObjectMapper<T> {
      */
     DataObject toDataObject(DataType expected, T value);
 
+    /**
+     * Converts a native value to a DataObject, keeping only the given fields when the result is a struct.
+     * The default implementation converts the complete value and projects the result afterwards.
+     * Implementations may override this to skip the conversion of fields that are not needed.
+     *
+     * @param expected   the expected DataType of the result, or null if unknown
+     * @param value      the native value to convert
+     * @param fieldNames the names of the top-level struct fields to keep
+     * @return the DataObject representation of the value
+     */
+    default DataObject toDataObject(DataType expected, T value, Set<String> fieldNames) {
+        final var result = toDataObject(expected, value);
+        return result instanceof DataStruct struct ? struct.project(fieldNames) : result;
+    }
+
     /**
      * Converts a DataObject back to its native representation.
      *
@@ -506,7 +506,9 @@ public class NativeDataObjectMapper implements DataObjectMapper<Object> {
     @Nullable
     public Map<String, Object> convertDataMapToMap(DataMap map) {
         if (map.isNull()) return null;
-        return new Struct<>(map.contents(), this::fromDataObject);
+        final var result = new Struct<Object>();
+        map.forEach((key, value) -> result.put(key, fromDataObject(value)));
+        return result;
     }
 
     /**
@@ -69,6 +69,16 @@ public interface Notation {
      */
     String filenameExtension();
 
+    /**
+     * Indicates whether all data serialized by this notation is UTF-8 text. Such data can be told apart from
+     * binary formats that start with a byte that never occurs in UTF-8.
+     *
+     * @return true if the serialized data is always UTF-8 text
+     */
+    default boolean writesText() {
+        return false;
+    }
+
     /**
      * Creates a Kafka Serde for the given data type and key/value role.
      *
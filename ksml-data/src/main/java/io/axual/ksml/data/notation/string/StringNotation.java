@@ -43,6 +43,11 @@ public abstract class StringNotation extends BaseNotation {
      */
     protected abstract DataObjectMapper<String> stringMapper();
 
+    @Override
+    public boolean writesText() {
+        return true;
+    }
+
     /**
      * Creates a StringSerde configured for the requested data type and key/value role.
      *
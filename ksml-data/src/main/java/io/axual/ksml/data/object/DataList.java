@@ -70,6 +70,13 @@ public class DataList implements DataObject, Iterable<DataObject> {
     @JsonIgnore
     private final ListType type;
 
+    /**
+     * Set when elements are added to the list.
+     */
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    private boolean modified;
+
     /**
      * Returns a new {@code DataList} of an unknown value type and add all elements to the list.
      */
@@ -174,6 +181,7 @@ public class DataList implements DataObject, Iterable<DataObject> {
      * @throws IllegalArgumentException if the value type is invalid.
      */
     public boolean add(DataObject... values) {
+        modified = true;
         return contents.addAll(Arrays.stream(values).map(this::assignableValue).toList());
     }
 
@@ -186,7 +194,7 @@ public class DataList implements DataObject, Iterable<DataObject> {
     @Override
     public Iterator<DataObject> iterator() {
         if (contents == null) return Collections.emptyIterator();
-        return contents.iterator();
+        return Collections.unmodifiableList(contents).iterator();
     }
 
     /**
@@ -218,6 +226,14 @@ public class DataList implements DataObject, Iterable<DataObject> {
         return contents.isEmpty();
     }
 
+    boolean modified() {
+        return modified;
+    }
+
+    void resetModified() {
+        modified = false;
+    }
+
     @Override
     public String toString() {
         return toString(Printer.INTERNAL);
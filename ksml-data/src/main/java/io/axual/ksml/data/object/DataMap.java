@@ -30,6 +30,7 @@ import io.axual.ksml.data.util.EqualUtil;
 import io.axual.ksml.data.util.JavaValuePrinter;
 import io.axual.ksml.data.util.ValuePrinter;
 import io.axual.ksml.data.value.Struct;
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 
@@ -58,7 +59,7 @@ import static io.axual.ksml.data.util.EqualUtil.typeNotEqual;
  * @see DataObject
  * @see MapType
  */
-@EqualsAndHashCode
+@EqualsAndHashCode(doNotUseGetters = true)
 @Getter
 public class DataMap implements DataObject {
     private static final ValuePrinter VALUE_PRINTER = new JavaValuePrinter();
@@ -82,6 +83,14 @@ public class DataMap implements DataObject {
     @JsonIgnore
     private final MapType type;
 
+    /**
+     * Set when the map is modified, or when its {@link #contents()} are handed out for direct changes.
+     */
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @Getter(AccessLevel.NONE)
+    private boolean modified;
+
     /**
      * Constructs an empty {@code DataMap} with an unknown value type.
      */
@@ -157,7 +166,7 @@ public class DataMap implements DataObject {
      * @return A set of {@link Map.Entry} objects representing the key-value pairs.
      */
     public Set<Map.Entry<String, DataObject>> entrySet() {
-        return contents != null ? contents.entrySet() : Collections.emptySet();
+        return contents != null ? Collections.unmodifiableSet(contents.entrySet()) : Collections.emptySet();
     }
 
     /**
@@ -207,6 +216,7 @@ public class DataMap implements DataObject {
         if (contents == null)
             throw new DataException("Can not add item to a NULL Map: (" + (key != null ? key : "null") + ", " + (value != null ? value : "null") + ")");
         contents.put(key, assignableValue(value));
+        modified = true;
         return value;
     }
 
@@ -221,9 +231,29 @@ public class DataMap implements DataObject {
     public DataObject putIfAbsent(String key, DataObject value) {
         if (contents == null)
             throw new DataException("Can not add item to a NULL Map: (" + (key != null ? key : "null") + ", " + (value != null ? value : "null") + ")");
+        modified = true;
         return contents.computeIfAbsent(key, k -> assignableValue(value));
     }
 
+    /**
+     * Returns the contents of this map for direct access. Since the contents can be changed through the
+     * returned map, the map is considered modified afterwards.
+     *
+     * @return The contents, or {@code null} if the map is null.
+     */
+    public Struct<DataObject> contents() {
+        modified = true;
+        return contents;
+    }
+
+    boolean modified() {
+        return modified;
+    }
+
+    void resetModified() {
+        modified = false;
+    }
+
     /**
      * Retrieves the number of key-value pairs in this {@code DataMap}.
      *
@@ -30,6 +30,7 @@ import io.axual.ksml.data.util.EqualUtil;
 import io.axual.ksml.data.util.JavaValuePrinter;
 import io.axual.ksml.data.util.ValuePrinter;
 import io.axual.ksml.data.value.Struct;
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 
@@ -60,7 +61,7 @@ import static io.axual.ksml.data.util.EqualUtil.typeNotEqual;
  *
  * <p>This implementation ensures consistent ordering of keys and maintains safety through its encapsulated operations.</p>
  */
-@EqualsAndHashCode
+@EqualsAndHashCode(doNotUseGetters = true)
 @Getter
 public class DataStruct implements DataObject {
     private static final ValuePrinter VALUE_PRINTER = new JavaValuePrinter();
@@ -80,6 +81,23 @@ public class DataStruct implements DataObject {
     @JsonIgnore
     private final StructType type;
 
+    /**
+     * The serialized form this struct was deserialized from, or {@code null} if the struct was created in
+     * memory or modified after deserialization.
+     */
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @Getter(AccessLevel.NONE)
+    private SerializedOrigin origin;
+
+    /**
+     * Set when the struct is modified, or when its {@link #contents()} are handed out for direct changes.
+     */
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @Getter(AccessLevel.NONE)
+    private boolean modified;
+
     /**
      * Functional interface for applying custom operations on certain struct values of a specific type.
      *
@@ -148,7 +166,7 @@ public class DataStruct implements DataObject {
      * @return A set of {@link Map.Entry} objects representing the key-value pairs.
      */
     public Set<Map.Entry<String, DataObject>> entrySet() {
-        return contents != null ? contents.entrySet() : Collections.emptySet();
+        return contents != null ? Collections.unmodifiableSet(contents.entrySet()) : Collections.emptySet();
     }
 
     /**
@@ -246,6 +264,7 @@ public class DataStruct implements DataObject {
     public DataObject put(String key, DataObject value) {
         if (contents == null)
             throw new DataException("Can not add item to a NULL Struct: (" + (key != null ? key : "null") + ", " + (value != null ? value : "null") + ")");
+        modified = true;
         contents.put(key, value);
         return value;
     }
@@ -261,6 +280,7 @@ public class DataStruct implements DataObject {
     public DataObject putIfAbsent(String key, DataObject value) {
         if (contents == null)
             throw new DataException("Can not add item to a NULL Struct: (" + (key != null ? key : "null") + ", " + (value != null ? value : "null") + ")");
+        modified = true;
         return contents.computeIfAbsent(key, k -> value);
     }
 
@@ -274,6 +294,47 @@ public class DataStruct implements DataObject {
         if (value != null) put(key, value);
     }
 
+    /**
+     * Returns the contents of this struct for direct access. Since the contents can be changed through the
+     * returned map, the struct is considered modified afterwards.
+     *
+     * @return The contents, or {@code null} if the struct is null.
+     */
+    public Struct<DataObject> contents() {
+        modified = true;
+        return contents;
+    }
+
+    /**
+     * Returns the serialized form this struct was deserialized from. The origin is cleared as soon as the
+     * struct, or any struct, list or map nested inside it, is modified.
+     *
+     * @return The serialized form, or {@code null} if the struct was created in memory or modified.
+     */
+    public SerializedOrigin origin() {
+        if (origin != null && Modifications.isModified(this)) origin = null;
+        return origin;
+    }
+
+    /**
+     * Records the serialized form this struct was deserialized from. Changes made after this call, also to
+     * nested structs, lists and maps, clear the origin.
+     *
+     * @param origin The serialized form, or {@code null} to clear it.
+     */
+    public void origin(SerializedOrigin origin) {
+        this.origin = origin;
+        if (origin != null) Modifications.reset(this);
+    }
+
+    boolean modified() {
+        return modified;
+    }
+
+    void resetModified() {
+        modified = false;
+    }
+
     /**
      * Retrieves the number of key-value pairs in this {@code DataStruct}.
      *
@@ -283,6 +344,23 @@ public class DataStruct implements DataObject {
         return contents != null ? contents.size() : 0;
     }
 
+    /**
+     * Returns a copy of this {@code DataStruct} with the same type, that only contains the given fields.
+     * Fields that are not present in this struct are not added.
+     *
+     * @param fieldNames The names of the fields to keep.
+     * @return The projected {@code DataStruct}, or this struct if it is null.
+     */
+    public DataStruct project(Set<String> fieldNames) {
+        if (contents == null) return this;
+        final var result = new DataStruct(type.schema());
+        for (final var fieldName : fieldNames) {
+            final var value = contents.get(fieldName);
+            if (value != null) result.contents.put(fieldName, value);
+        }
+        return result;
+    }
+
 
     /**
      * Retrieves a string representation of this {@code DataStruct}.
@@ -0,0 +1,68 @@
+package io.axual.ksml.data.object;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Walks nested structs, lists, maps and tuples to reset or check their modification state. Used to find out
+ * whether a deserialized value still matches the bytes it was read from.
+ */
+final class Modifications {
+    private Modifications() {
+    }
+
+    static void reset(DataObject value) {
+        switch (value) {
+            case DataStruct struct -> {
+                struct.resetModified();
+                struct.forEach((_, field) -> reset(field));
+            }
+            case DataList list -> {
+                list.resetModified();
+                list.forEach(Modifications::reset);
+            }
+            case DataMap map -> {
+                map.resetModified();
+                map.forEach((_, entry) -> reset(entry));
+            }
+            case DataTuple tuple -> tuple.elements().forEach(Modifications::reset);
+            case null, default -> {
+            }
+        }
+    }
+
+    static boolean isModified(DataObject value) {
+        return switch (value) {
+            case DataStruct struct -> struct.modified() || anyModified(struct.entrySet().stream().map(Map.Entry::getValue));
+            case DataList list -> list.modified() || anyModified(StreamSupport.stream(list.spliterator(), false));
+            case DataMap map -> map.modified() || anyModified(map.entrySet().stream().map(Map.Entry::getValue));
+            case DataTuple tuple -> anyModified(tuple.elements().stream());
+            case null, default -> false;
+        };
+    }
+
+    private static boolean anyModified(Stream<DataObject> values) {
+        return values.anyMatch(Modifications::isModified);
+    }
+}
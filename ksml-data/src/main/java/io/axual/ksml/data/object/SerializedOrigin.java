@@ -0,0 +1,89 @@
+package io.axual.ksml.data.object;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.type.DataType;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The serialized bytes a {@link DataObject} was deserialized from, together with the encoding and the topic
+ * they were read with.
+ * <p>
+ * As long as the value is not modified, serializing it with the same encoding gives an equivalent result, since
+ * the notation, data type and serializer configuration are the same. The original bytes can then be written
+ * instead, also to another topic than the one they were read from. Only encodings that use a schema registry
+ * embed an id in the bytes that the registry looks up under a subject derived from the topic, so for those the
+ * topic has to be the same as well.
+ *
+ * @param encoding the encoding that deserialized the bytes
+ * @param topic    the topic the bytes were read from
+ * @param bytes    the serialized bytes
+ */
+public record SerializedOrigin(Encoding encoding, String topic, byte[] bytes) {
+    /**
+     * The notation, data type and serde configuration bytes are read and written with. Equal encodings are
+     * interned, so they can be compared by identity for every record.
+     *
+     * @param notation the name of the notation
+     * @param type     the data type the bytes are deserialized into
+     * @param isKey    whether the serde is used for keys, or {@code null} if it was not configured
+     * @param configs  the serde configuration, or an empty map if it was not configured
+     * @param usesRegistry whether the configuration points to a schema registry, which makes the bytes depend on
+     *                 the topic they are written to
+     */
+    public record Encoding(String notation, DataType type, Boolean isKey, Map<String, ?> configs, boolean usesRegistry) {
+        // Matches both "schema.registry.url" and "apicurio.registry.url"
+        private static final String REGISTRY_URL_SUFFIX = "registry.url";
+        private static final Map<Encoding, Encoding> INTERNED = new ConcurrentHashMap<>();
+
+        /**
+         * Returns the interned encoding for the given notation, data type and configuration.
+         *
+         * @param notation the name of the notation
+         * @param type     the data type the bytes are deserialized into
+         * @param isKey    whether the serde is used for keys, or {@code null} if it was not configured
+         * @param configs  the serde configuration, or {@code null} if it was not configured
+         * @return the interned encoding
+         */
+        public static Encoding of(String notation, DataType type, Boolean isKey, Map<String, ?> configs) {
+            final var copy = configs != null ? Collections.unmodifiableMap(new HashMap<>(configs)) : Map.<String, Object>of();
+            final var usesRegistry = copy.keySet().stream().anyMatch(key -> key.endsWith(REGISTRY_URL_SUFFIX));
+            return INTERNED.computeIfAbsent(new Encoding(notation, type, isKey, copy, usesRegistry), encoding -> encoding);
+        }
+    }
+
+    /**
+     * Checks if a value with this origin would be serialized the same way by the given encoding for the given topic.
+     * The topic is only compared for encodings that use a schema registry.
+     *
+     * @param encoding the interned encoding to serialize with
+     * @param topic    the topic to serialize for
+     * @return {@code true} if the original bytes can be written instead
+     */
+    public boolean matches(Encoding encoding, String topic) {
+        return this.encoding == encoding && (!encoding.usesRegistry() || Objects.equals(this.topic, topic));
+    }
+}
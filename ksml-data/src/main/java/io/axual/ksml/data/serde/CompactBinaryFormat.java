@@ -0,0 +1,145 @@
+package io.axual.ksml.data.serde;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML Data Library
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.mapper.DataTypeDataSchemaMapper;
+import io.axual.ksml.data.schema.DataSchema;
+import io.axual.ksml.data.schema.ListSchema;
+import io.axual.ksml.data.schema.MapSchema;
+import io.axual.ksml.data.schema.StructSchema;
+import io.axual.ksml.data.schema.UnionSchema;
+import io.axual.ksml.data.type.ComplexType;
+import io.axual.ksml.data.type.DataType;
+import io.axual.ksml.data.type.StructType;
+import io.axual.ksml.data.type.UnionType;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Constants and schema bookkeeping shared by the {@link CompactBinaryWriter} and the {@link CompactBinaryReader}.
+ * <p>
+ * Every encoded value starts with a two byte header, followed by a tree of tagged values. Integral numbers and
+ * lengths are written as (zigzag) varints. Field names, map keys and schema names are written once per value and
+ * referred to by index afterwards. A struct with a schema is written as the layout of that schema, which is its name
+ * and field names and is also written once per value, followed by its field values in layout order. Schemas
+ * themselves are never part of the bytes.
+ * <p>
+ * The format is meant to be read back by the same application, and only keeps its values readable across
+ * restarts and schema changes within these limits:
+ * <ul>
+ *   <li>Schemas are resolved by name among the schemas of the expected data type of the reading serde. Structs
+ *   whose schema is not found there are read as structs without a schema.</li>
+ *   <li>Fields are matched by name, so fields can be added, removed or reordered. Fields that are no longer part of
+ *   the schema are read as additional fields. New fields are absent in values written before they were added.</li>
+ *   <li>Values keep the type they were written with, so changing the type of a field, for example from int to
+ *   long, requires resetting the stores and topics that use this format.</li>
+ * </ul>
+ */
+final class CompactBinaryFormat {
+    // 0xFF never occurs in UTF-8, so data of text based notations is never mistaken for this format
+    static final byte MAGIC = (byte) 0xFF;
+    static final byte VERSION = 1;
+
+    static final byte ABSENT = 0;
+    static final byte NULL = 1;
+    static final byte FALSE = 2;
+    static final byte TRUE = 3;
+    static final byte BYTE = 4;
+    static final byte SHORT = 5;
+    static final byte INTEGER = 6;
+    static final byte LONG = 7;
+    static final byte FLOAT = 8;
+    static final byte DOUBLE = 9;
+    static final byte BYTES = 10;
+    static final byte STRING = 11;
+    static final byte LIST = 12;
+    static final byte MAP = 13;
+    static final byte STRUCT = 14;
+    static final byte SCHEMA_STRUCT = 15;
+    static final byte TUPLE = 16;
+
+    private static final DataTypeDataSchemaMapper SCHEMA_MAPPER = new DataTypeDataSchemaMapper();
+
+    /**
+     * A struct schema with the data types of its fields by name.
+     */
+    record SchemaEntry(StructSchema schema, Map<String, DataType> fieldTypes) {
+    }
+
+    private CompactBinaryFormat() {
+    }
+
+    /**
+     * Returns the struct schemas that are part of a data type by their full name, so values written with these
+     * schemas can be read back with the current version of each schema.
+     */
+    static Map<String, SchemaEntry> schemasOf(DataType type) {
+        final var result = new HashMap<String, SchemaEntry>();
+        collect(type, result, Collections.newSetFromMap(new IdentityHashMap<>()));
+        return Map.copyOf(result);
+    }
+
+    private static void collect(DataType type, Map<String, SchemaEntry> result, Set<Object> visited) {
+        if (type == null || !visited.add(type)) return;
+        switch (type) {
+            case StructType structType when structType.schema() != null -> collect(structType.schema(), result, visited);
+            case UnionType unionType -> {
+                for (final var member : unionType.members()) collect(member.type(), result, visited);
+            }
+            case ComplexType complexType -> {
+                for (int index = 0; index < complexType.subTypeCount(); index++)
+                    collect(complexType.subType(index), result, visited);
+            }
+            default -> {
+                // Simple types contain no schemas
+            }
+        }
+    }
+
+    private static void collect(DataSchema schema, Map<String, SchemaEntry> result, Set<Object> visited) {
+        if (schema == null || !visited.add(schema)) return;
+        switch (schema) {
+            case StructSchema structSchema -> {
+                result.putIfAbsent(structSchema.fullName(), newEntry(structSchema));
+                for (final var field : structSchema.fields()) collect(field.schema(), result, visited);
+            }
+            case ListSchema listSchema -> collect(listSchema.valueSchema(), result, visited);
+            case MapSchema mapSchema -> collect(mapSchema.valueSchema(), result, visited);
+            case UnionSchema unionSchema -> {
+                for (final var member : unionSchema.members()) collect(member.schema(), result, visited);
+            }
+            default -> {
+                // Other schemas contain no struct schemas
+            }
+        }
+    }
+
+    private static SchemaEntry newEntry(StructSchema schema) {
+        final var fieldTypes = new HashMap<String, DataType>();
+        for (final var field : schema.fields())
+            fieldTypes.put(field.name(), SCHEMA_MAPPER.fromDataSchema(field.schema()));
+        return new SchemaEntry(schema, fieldTypes);
+    }
+}
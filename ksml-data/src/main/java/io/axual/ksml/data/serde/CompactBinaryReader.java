@@ -0,0 +1,288 @@
+package io.axual.ksml.data.serde;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML Data Library
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.exception.DataException;
+import io.axual.ksml.data.object.DataBoolean;
+import io.axual.ksml.data.object.DataByte;
+import io.axual.ksml.data.object.DataBytes;
+import io.axual.ksml.data.object.DataDouble;
+import io.axual.ksml.data.object.DataEnum;
+import io.axual.ksml.data.object.DataFloat;
+import io.axual.ksml.data.object.DataInteger;
+import io.axual.ksml.data.object.DataList;
+import io.axual.ksml.data.object.DataLong;
+import io.axual.ksml.data.object.DataMap;
+import io.axual.ksml.data.object.DataObject;
+import io.axual.ksml.data.object.DataShort;
+import io.axual.ksml.data.object.DataString;
+import io.axual.ksml.data.object.DataStruct;
+import io.axual.ksml.data.object.DataTuple;
+import io.axual.ksml.data.schema.StructSchema;
+import io.axual.ksml.data.type.DataType;
+import io.axual.ksml.data.type.EnumType;
+import io.axual.ksml.data.type.ListType;
+import io.axual.ksml.data.type.MapType;
+import io.axual.ksml.data.type.TupleType;
+import io.axual.ksml.data.util.ConvertUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static io.axual.ksml.data.serde.CompactBinaryFormat.ABSENT;
+import static io.axual.ksml.data.serde.CompactBinaryFormat.BYTE;
+import static io.axual.ksml.data.serde.CompactBinaryFormat.BYTES;
+import static io.axual.ksml.data.serde.CompactBinaryFormat.DOUBLE;
+import static io.axual.ksml.data.serde.CompactBinaryFormat.FALSE;
+import static io.axual.ksml.data.serde.CompactBinaryFormat.FLOAT;
+import static io.axual.ksml.data.serde.CompactBinaryFormat.INTEGER;
+import static io.axual.ksml.data.serde.CompactBinaryFormat.LIST;
+import static io.axual.ksml.data.serde.CompactBinaryFormat.LONG;
+import static io.axual.ksml.data.serde.CompactBinaryFormat.MAGIC;
+import static io.axual.ksml.data.serde.CompactBinaryFormat.MAP;
+import static io.axual.ksml.data.serde.CompactBinaryFormat.NULL;
+import static io.axual.ksml.data.serde.CompactBinaryFormat.SCHEMA_STRUCT;
+import static io.axual.ksml.data.serde.CompactBinaryFormat.SHORT;
+import static io.axual.ksml.data.serde.CompactBinaryFormat.STRING;
+import static io.axual.ksml.data.serde.CompactBinaryFormat.STRUCT;
+import static io.axual.ksml.data.serde.CompactBinaryFormat.TRUE;
+import static io.axual.ksml.data.serde.CompactBinaryFormat.TUPLE;
+import static io.axual.ksml.data.serde.CompactBinaryFormat.VERSION;
+
+/**
+ * Decodes data objects from the compact binary format described in {@link CompactBinaryFormat}.
+ * <p>
+ * The reader works directly on the array it is given, without copying it first. Strings are decoded from their
+ * position in the array and only byte fields are copied, since the decoded objects may outlive the array.
+ */
+final class CompactBinaryReader {
+    private final byte[] bytes;
+    private final int end;
+    private final Map<String, CompactBinaryFormat.SchemaEntry> schemas;
+    private int position;
+    private final List<String> names = new ArrayList<>();
+    private final List<Layout> layouts = new ArrayList<>();
+
+    // The fields of a struct as written, with the schema and field types they are read with
+    private record Layout(StructSchema schema, String[] fieldNames, DataType[] fieldTypes) {
+    }
+
+    /**
+     * Creates a reader for a part of an array.
+     *
+     * @param bytes   the array to read from
+     * @param offset  the position of the header in the array
+     * @param length  the number of bytes of the encoded value
+     * @param schemas the schemas to read structs with, by full name
+     */
+    CompactBinaryReader(byte[] bytes, int offset, int length, Map<String, CompactBinaryFormat.SchemaEntry> schemas) {
+        this.bytes = bytes;
+        this.position = offset;
+        this.end = offset + length;
+        this.schemas = schemas;
+    }
+
+    /**
+     * Returns whether the given part of an array starts with the header of this format.
+     */
+    static boolean hasHeader(byte[] bytes, int offset, int length) {
+        return length >= 2 && bytes[offset] == MAGIC && bytes[offset + 1] == VERSION;
+    }
+
+    /**
+     * Decodes the value, which must take up the whole part of the array given to this reader.
+     *
+     * @param expected the expected type of the value, used to restore enums, element types and typed nulls
+     * @return the decoded value
+     */
+    DataObject read(DataType expected) {
+        if (!hasHeader(bytes, position, end - position))
+            throw new DataException("Data does not start with the compact binary format header");
+        position += 2;
+        final var result = readValue(expected);
+        if (position != end)
+            throw new DataException("Compact binary data contains " + (end - position) + " trailing bytes");
+        return result;
+    }
+
+    private DataObject readValue(DataType expected) {
+        final var tag = readByte();
+        return switch (tag) {
+            case NULL -> ConvertUtil.convertNullToDataObject(expected);
+            case FALSE -> new DataBoolean(false);
+            case TRUE -> new DataBoolean(true);
+            case BYTE -> new DataByte(readByte());
+            case SHORT -> new DataShort((short) readZigzag());
+            case INTEGER -> new DataInteger((int) readZigzag());
+            case LONG -> new DataLong(readZigzag());
+            case FLOAT -> new DataFloat(Float.intBitsToFloat((int) readFixed(4)));
+            case DOUBLE -> new DataDouble(Double.longBitsToDouble(readFixed(8)));
+            case BYTES -> {
+                final var length = readLength();
+                final var value = Arrays.copyOfRange(bytes, position, position + length);
+                position += length;
+                yield new DataBytes(value);
+            }
+            case STRING -> expected instanceof EnumType enumType
+                    ? new DataEnum(enumType, readString())
+                    : new DataString(readString());
+            case LIST -> readList(expected);
+            case MAP -> readMap(expected);
+            case STRUCT -> readStruct();
+            case SCHEMA_STRUCT -> readSchemaStruct();
+            case TUPLE -> readTuple(expected);
+            default -> throw new DataException("Unknown tag " + tag + " in compact binary data");
+        };
+    }
+
+    private DataList readList(DataType expected) {
+        final var valueType = expected instanceof ListType listType ? listType.valueType() : DataType.UNKNOWN;
+        final var result = new DataList(valueType);
+        final var size = readLength();
+        for (int index = 0; index < size; index++) result.add(readValue(valueType));
+        return result;
+    }
+
+    private DataMap readMap(DataType expected) {
+        final var valueType = expected instanceof MapType mapType ? mapType.valueType() : DataType.UNKNOWN;
+        final var result = new DataMap(valueType);
+        final var size = readLength();
+        for (int index = 0; index < size; index++) {
+            final var key = readName();
+            result.put(key, readValue(valueType));
+        }
+        return result;
+    }
+
+    private DataStruct readStruct() {
+        final var result = new DataStruct();
+        final var size = readLength();
+        for (int index = 0; index < size; index++) {
+            final var name = readName();
+            result.put(name, readValue(DataType.UNKNOWN));
+        }
+        return result;
+    }
+
+    private DataStruct readSchemaStruct() {
+        final var layout = readLayout();
+        final var result = new DataStruct(layout.schema());
+        for (int index = 0; index < layout.fieldNames().length; index++) {
+            if (position < end && bytes[position] == ABSENT) {
+                position++;
+            } else {
+                result.put(layout.fieldNames()[index], readValue(layout.fieldTypes()[index]));
+            }
+        }
+        final var additional = readLength();
+        for (int index = 0; index < additional; index++) {
+            final var name = readName();
+            result.put(name, readValue(DataType.UNKNOWN));
+        }
+        return result;
+    }
+
+    // Matches the written fields by name to the current version of the schema, if it is known
+    private Layout readLayout() {
+        final var reference = readLength();
+        if (reference > 0) {
+            if (reference > layouts.size())
+                throw new DataException("Compact binary data refers to unknown schema layout " + reference);
+            return layouts.get(reference - 1);
+        }
+        final var entry = schemas.get(readName());
+        final var size = readLength();
+        final var fieldNames = new String[size];
+        final var fieldTypes = new DataType[size];
+        for (int index = 0; index < size; index++) {
+            fieldNames[index] = readName();
+            final var fieldType = entry != null ? entry.fieldTypes().get(fieldNames[index]) : null;
+            fieldTypes[index] = fieldType != null ? fieldType : DataType.UNKNOWN;
+        }
+        final var layout = new Layout(entry != null ? entry.schema() : null, fieldNames, fieldTypes);
+        layouts.add(layout);
+        return layout;
+    }
+
+    private DataTuple readTuple(DataType expected) {
+        final var size = readLength();
+        final var tupleType = expected instanceof TupleType type && type.subTypeCount() == size ? type : null;
+        final var elements = new DataObject[size];
+        for (int index = 0; index < size; index++)
+            elements[index] = readValue(tupleType != null ? tupleType.subType(index) : DataType.UNKNOWN);
+        return new DataTuple(elements);
+    }
+
+    private String readName() {
+        final var reference = readLength();
+        if (reference > 0) {
+            if (reference > names.size())
+                throw new DataException("Compact binary data refers to unknown name " + reference);
+            return names.get(reference - 1);
+        }
+        final var name = readString();
+        names.add(name);
+        return name;
+    }
+
+    private String readString() {
+        final var length = readLength();
+        final var result = new String(bytes, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return result;
+    }
+
+    private int readLength() {
+        final var length = readVarLong();
+        if (length < 0 || length > end - position)
+            throw new DataException("Invalid length " + length + " in compact binary data");
+        return (int) length;
+    }
+
+    private long readZigzag() {
+        final var value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private long readVarLong() {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final var b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return result;
+        }
+        throw new DataException("Invalid varint in compact binary data");
+    }
+
+    private long readFixed(int length) {
+        long result = 0;
+        for (int index = 0; index < length; index++) result = (result << 8) | (readByte() & 0xFF);
+        return result;
+    }
+
+    private byte readByte() {
+        if (position >= end) throw new DataException("Unexpected end of compact binary data");
+        return bytes[position++];
+    }
+}
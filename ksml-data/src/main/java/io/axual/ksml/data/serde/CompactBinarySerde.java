@@ -0,0 +1,202 @@
+package io.axual.ksml.data.serde;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML Data Library
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.exception.DataException;
+import io.axual.ksml.data.mapper.DataObjectMapper;
+import io.axual.ksml.data.object.DataList;
+import io.axual.ksml.data.object.DataMap;
+import io.axual.ksml.data.object.DataObject;
+import io.axual.ksml.data.object.DataPrimitive;
+import io.axual.ksml.data.object.DataStruct;
+import io.axual.ksml.data.type.DataType;
+import io.axual.ksml.data.util.ConvertUtil;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * A Serde that writes DataObjects in a compact binary format, which is only meant to be read back by KSML.
+ * <p>
+ * The format needs no schema registry and no inline schemas: structs with a schema are written as the schema name
+ * and field names followed by their field values, numbers and lengths are written as varints and names are written
+ * once per value. Values are read directly from the serialized bytes, without intermediate native objects. Structs
+ * are read with the schemas of the expected data type, see {@link CompactBinaryFormat} for the compatibility limits.
+ * <p>
+ * A serde can be created with a fallback deserializer for data that was not written in the compact format, such as
+ * the contents of a state store that was written before the compact format was enabled. Data in the compact format
+ * always starts with a header, so the fallback deserializer is used for all data without it. The header can not
+ * occur in UTF-8 text, so only deserializers of text based notations can be used as fallback.
+ * <p>
+ * Exceptions during (de)serialization are wrapped in DataException with a readable context.
+ */
+public class CompactBinarySerde implements Serde<Object>, Serializer<Object>, Deserializer<Object> {
+    private static final String DESERIALIZATION_ERROR_MSG = "COMPACT message could not be deserialized from topic ";
+    private static final String SERIALIZATION_ERROR_MSG = "COMPACT message could not be serialized to topic ";
+    private static final ThreadLocal<CompactBinaryWriter> WRITERS = ThreadLocal.withInitial(CompactBinaryWriter::new);
+    private final DataType expectedDataType;
+    private final DataObjectMapper<Object> nativeMapper;
+    private final Deserializer<Object> fallback;
+    private final Map<String, CompactBinaryFormat.SchemaEntry> schemas;
+
+    /**
+     * Creates a CompactBinarySerde.
+     *
+     * @param expectedDataType the expected DataType of values
+     * @param nativeMapper     mapper between user-provided native types and DataObjects
+     * @param fallback         the deserializer for data that is not in the compact format, may be null. Its data
+     *                         must be UTF-8 text, so it is never mistaken for the compact format.
+     */
+    public CompactBinarySerde(DataType expectedDataType, DataObjectMapper<Object> nativeMapper, Deserializer<Object> fallback) {
+        this.expectedDataType = expectedDataType;
+        this.nativeMapper = nativeMapper;
+        this.fallback = fallback;
+        this.schemas = CompactBinaryFormat.schemasOf(expectedDataType);
+    }
+
+    /**
+     * Returns this instance as a Serializer to participate in Kafka's Serde contract.
+     *
+     * @return this instance as Serializer
+     */
+    public Serializer<Object> serializer() {
+        return this;
+    }
+
+    /**
+     * Returns this instance as a Deserializer to participate in Kafka's Serde contract.
+     *
+     * @return this instance as Deserializer
+     */
+    public Deserializer<Object> deserializer() {
+        return this;
+    }
+
+    /**
+     * Configures the fallback deserializer, if any.
+     *
+     * @param configs configuration map
+     * @param isKey   whether this Serde is used for record keys
+     */
+    @Override
+    public void configure(final Map<String, ?> configs, final boolean isKey) {
+        if (fallback != null) fallback.configure(configs, isKey);
+    }
+
+    /**
+     * Maps the provided value from native form to a DataObject and writes it in compact form.
+     *
+     * @param topic the topic name
+     * @param data  the value to serialize (can be null)
+     * @return the serialized bytes, or null for null values
+     * @throws io.axual.ksml.data.exception.DataException if mapping or serialization fails
+     */
+    @Override
+    public byte[] serialize(final String topic, final Object data) {
+        try {
+            final var dataObject = nativeMapper.toDataObject(expectedDataType, data);
+            if (isNull(dataObject)) return null;
+            return WRITERS.get().write(dataObject);
+        } catch (Exception e) {
+            throw new DataException(SERIALIZATION_ERROR_MSG + topic, e);
+        }
+    }
+
+    // Null values of any type are written as null, so they remain tombstones
+    private static boolean isNull(DataObject value) {
+        return switch (value) {
+            case DataPrimitive<?> primitive -> primitive.value() == null;
+            case DataStruct struct -> struct.isNull();
+            case DataList list -> list.isNull();
+            case DataMap map -> map.isNull();
+            case null, default -> value == null;
+        };
+    }
+
+    /**
+     * Deserializes bytes into a DataObject of the expected type.
+     *
+     * @param topic the topic name
+     * @param data  serialized bytes, may be null
+     * @return the deserialized value as DataObject
+     * @throws io.axual.ksml.data.exception.DataException if deserialization fails
+     */
+    @Override
+    public Object deserialize(final String topic, final byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    /**
+     * Deserializes bytes with headers into a DataObject of the expected type.
+     *
+     * @param topic   the topic name
+     * @param headers the record headers, passed to the fallback deserializer
+     * @param data    serialized bytes, may be null
+     * @return the deserialized value as DataObject
+     * @throws io.axual.ksml.data.exception.DataException if deserialization fails
+     */
+    @Override
+    public Object deserialize(final String topic, final Headers headers, final byte[] data) {
+        try {
+            if (data == null) return ConvertUtil.convertNullToDataObject(expectedDataType);
+            if (fallback != null && !CompactBinaryReader.hasHeader(data, 0, data.length))
+                return headers != null ? fallback.deserialize(topic, headers, data) : fallback.deserialize(topic, data);
+            return new CompactBinaryReader(data, 0, data.length, schemas).read(expectedDataType);
+        } catch (Exception e) {
+            throw new DataException(DESERIALIZATION_ERROR_MSG + topic, e);
+        }
+    }
+
+    /**
+     * Deserializes from a ByteBuffer into a DataObject of the expected type. The contents of array backed buffers
+     * are read in place.
+     *
+     * @param topic   the topic name
+     * @param headers the record headers, passed to the fallback deserializer
+     * @param data    ByteBuffer containing serialized bytes
+     * @return the deserialized value as DataObject
+     * @throws io.axual.ksml.data.exception.DataException if deserialization fails
+     */
+    @Override
+    public Object deserialize(final String topic, final Headers headers, final ByteBuffer data) {
+        if (data == null || !data.hasArray()) return Deserializer.super.deserialize(topic, headers, data);
+        try {
+            final var offset = data.arrayOffset() + data.position();
+            if (fallback != null && !CompactBinaryReader.hasHeader(data.array(), offset, data.remaining()))
+                return fallback.deserialize(topic, headers, data);
+            return new CompactBinaryReader(data.array(), offset, data.remaining(), schemas).read(expectedDataType);
+        } catch (Exception e) {
+            throw new DataException(DESERIALIZATION_ERROR_MSG + topic, e);
+        }
+    }
+
+    /**
+     * Closes the fallback deserializer, if any.
+     */
+    @Override
+    public void close() {
+        if (fallback != null) fallback.close();
+    }
+}
@@ -0,0 +1,293 @@
+package io.axual.ksml.data.serde;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML Data Library
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.exception.DataException;
+import io.axual.ksml.data.object.DataBoolean;
+import io.axual.ksml.data.object.DataByte;
+import io.axual.ksml.data.object.DataBytes;
+import io.axual.ksml.data.object.DataDouble;
+import io.axual.ksml.data.object.DataEnum;
+import io.axual.ksml.data.object.DataFloat;
+import io.axual.ksml.data.object.DataInteger;
+import io.axual.ksml.data.object.DataList;
+import io.axual.ksml.data.object.DataLong;
+import io.axual.ksml.data.object.DataMap;
+import io.axual.ksml.data.object.DataObject;
+import io.axual.ksml.data.object.DataPrimitive;
+import io.axual.ksml.data.object.DataShort;
+import io.axual.ksml.data.object.DataString;
+import io.axual.ksml.data.object.DataStruct;
+import io.axual.ksml.data.object.DataTuple;
+import io.axual.ksml.data.schema.StructSchema;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import static io.axual.ksml.data.serde.CompactBinaryFormat.ABSENT;
+import static io.axual.ksml.data.serde.CompactBinaryFormat.BYTE;
+import static io.axual.ksml.data.serde.CompactBinaryFormat.BYTES;
+import static io.axual.ksml.data.serde.CompactBinaryFormat.DOUBLE;
+import static io.axual.ksml.data.serde.CompactBinaryFormat.FALSE;
+import static io.axual.ksml.data.serde.CompactBinaryFormat.FLOAT;
+import static io.axual.ksml.data.serde.CompactBinaryFormat.INTEGER;
+import static io.axual.ksml.data.serde.CompactBinaryFormat.LIST;
+import static io.axual.ksml.data.serde.CompactBinaryFormat.LONG;
+import static io.axual.ksml.data.serde.CompactBinaryFormat.MAGIC;
+import static io.axual.ksml.data.serde.CompactBinaryFormat.MAP;
+import static io.axual.ksml.data.serde.CompactBinaryFormat.NULL;
+import static io.axual.ksml.data.serde.CompactBinaryFormat.SCHEMA_STRUCT;
+import static io.axual.ksml.data.serde.CompactBinaryFormat.SHORT;
+import static io.axual.ksml.data.serde.CompactBinaryFormat.STRING;
+import static io.axual.ksml.data.serde.CompactBinaryFormat.STRUCT;
+import static io.axual.ksml.data.serde.CompactBinaryFormat.TRUE;
+import static io.axual.ksml.data.serde.CompactBinaryFormat.TUPLE;
+import static io.axual.ksml.data.serde.CompactBinaryFormat.VERSION;
+
+/**
+ * Encodes data objects in the compact binary format described in {@link CompactBinaryFormat}. A writer reuses its
+ * buffer between values and must only be used by one thread at a time.
+ */
+final class CompactBinaryWriter {
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int MAX_RETAINED_CAPACITY = 1 << 20;
+    private byte[] buffer = new byte[INITIAL_CAPACITY];
+    private int size;
+    private final Map<String, Integer> names = new HashMap<>();
+    private final Map<StructSchema, Integer> layouts = new IdentityHashMap<>();
+
+    /**
+     * Encodes a value, including the format header.
+     *
+     * @param value the value to encode
+     * @return the encoded bytes
+     */
+    byte[] write(DataObject value) {
+        size = 0;
+        names.clear();
+        layouts.clear();
+        try {
+            writeByte(MAGIC);
+            writeByte(VERSION);
+            writeValue(value);
+            return Arrays.copyOf(buffer, size);
+        } finally {
+            if (buffer.length > MAX_RETAINED_CAPACITY) buffer = new byte[INITIAL_CAPACITY];
+        }
+    }
+
+    private void writeValue(DataObject value) {
+        if (value == null || value instanceof DataPrimitive<?> primitive && primitive.value() == null) {
+            writeByte(NULL);
+            return;
+        }
+        switch (value) {
+            case DataBoolean b -> writeByte(b.value() ? TRUE : FALSE);
+            case DataByte b -> {
+                writeByte(BYTE);
+                writeByte(b.value());
+            }
+            case DataShort s -> {
+                writeByte(SHORT);
+                writeVarLong(zigzag(s.value()));
+            }
+            case DataInteger i -> {
+                writeByte(INTEGER);
+                writeVarLong(zigzag(i.value()));
+            }
+            case DataLong l -> {
+                writeByte(LONG);
+                writeVarLong(zigzag(l.value()));
+            }
+            case DataFloat f -> {
+                writeByte(FLOAT);
+                writeFixed(Float.floatToIntBits(f.value()), 4);
+            }
+            case DataDouble d -> {
+                writeByte(DOUBLE);
+                writeFixed(Double.doubleToLongBits(d.value()), 8);
+            }
+            case DataBytes b -> {
+                writeByte(BYTES);
+                writeVarLong(b.value().length);
+                writeBytes(b.value(), b.value().length);
+            }
+            case DataString s -> {
+                writeByte(STRING);
+                writeString(s.value());
+            }
+            case DataEnum e -> {
+                writeByte(STRING);
+                writeString(e.value());
+            }
+            case DataList list -> writeList(list);
+            case DataMap map -> writeMap(map);
+            case DataStruct struct -> writeStruct(struct);
+            case DataTuple tuple -> {
+                writeByte(TUPLE);
+                writeVarLong(tuple.elements().size());
+                for (final var element : tuple.elements()) writeValue(element);
+            }
+            default -> throw new DataException("Can not encode value of type " + value.type() + " in compact binary format");
+        }
+    }
+
+    private void writeList(DataList list) {
+        if (list.isNull()) {
+            writeByte(NULL);
+            return;
+        }
+        writeByte(LIST);
+        writeVarLong(list.size());
+        for (final var element : list) writeValue(element);
+    }
+
+    private void writeMap(DataMap map) {
+        if (map.isNull()) {
+            writeByte(NULL);
+            return;
+        }
+        writeByte(MAP);
+        writeVarLong(map.size());
+        for (final var entry : map.entrySet()) {
+            writeName(entry.getKey());
+            writeValue(entry.getValue());
+        }
+    }
+
+    private void writeStruct(DataStruct struct) {
+        if (struct.isNull()) {
+            writeByte(NULL);
+            return;
+        }
+        final var schema = struct.type().schema();
+        if (schema == null) {
+            writeByte(STRUCT);
+            writeVarLong(struct.size());
+            for (final var entry : struct.entrySet()) {
+                writeName(entry.getKey());
+                writeValue(entry.getValue());
+            }
+            return;
+        }
+
+        writeByte(SCHEMA_STRUCT);
+        writeLayout(schema);
+        var known = 0;
+        for (final var field : schema.fields()) {
+            final var fieldValue = struct.get(field.name());
+            if (fieldValue != null) {
+                writeValue(fieldValue);
+                known++;
+            } else {
+                writeByte(ABSENT);
+            }
+        }
+
+        // Write fields that are not part of the schema by name
+        writeVarLong(struct.size() - known);
+        if (struct.size() > known) {
+            for (final var field : struct.entrySet()) {
+                if (schema.field(field.getKey()) != null) continue;
+                writeName(field.getKey());
+                writeValue(field.getValue());
+            }
+        }
+    }
+
+    // The schema name and field names are written once per value, and referred to by index afterwards
+    private void writeLayout(StructSchema schema) {
+        final var index = layouts.get(schema);
+        if (index != null) {
+            writeVarLong(index + 1L);
+            return;
+        }
+        writeVarLong(0);
+        writeName(schema.fullName());
+        writeVarLong(schema.fields().size());
+        for (final var field : schema.fields()) writeName(field.name());
+        layouts.put(schema, layouts.size());
+    }
+
+    // Names are written once per value, and referred to by index afterwards
+    private void writeName(String name) {
+        final var index = names.get(name);
+        if (index != null) {
+            writeVarLong(index + 1L);
+            return;
+        }
+        writeVarLong(0);
+        writeString(name);
+        names.put(name, names.size());
+    }
+
+    private void writeString(String value) {
+        final var length = value.length();
+        var ascii = true;
+        for (int index = 0; index < length && ascii; index++) ascii = value.charAt(index) < 0x80;
+        if (ascii) {
+            writeVarLong(length);
+            ensureCapacity(length);
+            for (int index = 0; index < length; index++) buffer[size++] = (byte) value.charAt(index);
+        } else {
+            final var bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            writeBytes(bytes, bytes.length);
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[size++] = (byte) value;
+    }
+
+    private void writeFixed(long value, int length) {
+        ensureCapacity(length);
+        for (int shift = (length - 1) * 8; shift >= 0; shift -= 8) buffer[size++] = (byte) (value >>> shift);
+    }
+
+    private void writeByte(byte value) {
+        ensureCapacity(1);
+        buffer[size++] = value;
+    }
+
+    private void writeBytes(byte[] bytes, int length) {
+        ensureCapacity(length);
+        System.arraycopy(bytes, 0, buffer, size, length);
+        size += length;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > buffer.length)
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+    }
+}
@@ -23,6 +23,8 @@ package io.axual.ksml.data.serde;
 import io.axual.ksml.data.exception.DataException;
 import io.axual.ksml.data.mapper.DataObjectMapper;
 import io.axual.ksml.data.object.DataNull;
+import io.axual.ksml.data.object.DataStruct;
+import io.axual.ksml.data.object.SerializedOrigin;
 import io.axual.ksml.data.type.DataType;
 import org.apache.kafka.common.header.Headers;
 import org.apache.kafka.common.serialization.Deserializer;
@@ -30,7 +32,10 @@ import org.apache.kafka.common.serialization.Serde;
 import org.apache.kafka.common.serialization.Serializer;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 
 /**
  * A Serde that maps between native Java objects and KSML DataObjects during serialization/deserialization.
@@ -41,6 +46,19 @@ import java.util.Map;
  * - one for mapping - potentially native - objects coming from Kafka Streams topologies to DataObject representations
  *   (nativeMapper), used only during serialization.
  * <p>
+ * A serde can be created with a projection, in which case only the projected top-level fields of deserialized
+ * structs are mapped. Mappers that support it skip the conversion of all other fields.
+ * <p>
+ * Deserialized structs remember the bytes they were read from. When such a struct is serialized again
+ * without modification by a serde with the same notation, data type and configuration, the original bytes are
+ * returned instead of serializing the struct. This includes copying to another topic, unless the configuration
+ * points to a schema registry, whose subjects depend on the topic. Since that skips the serializer, it is
+ * only done when serializing with headers once the serde has seen that its serializer does not write any.
+ * <p>
+ * A serde can also be created with a {@link DecodedValueCache}. It remembers the serde values that were
+ * recently written or read, by their bytes, so reading the same bytes again skips the underlying
+ * deserializer. State stores use this to avoid decoding the values of frequently updated keys.
+ * <p>
  * Exceptions during (de)serialization are wrapped in DataException with a readable context.
  */
 public class DataObjectSerde implements Serde<Object>, Serializer<Object>, Deserializer<Object> {
@@ -52,6 +70,11 @@ public class DataObjectSerde implements Serde<Object>, Serializer<Object>, Deser
     private final DataType expectedDataType;
     private final DataObjectMapper<Object> serdeMapper;
     private final DataObjectMapper<Object> nativeMapper;
+    private final Set<String> projection;
+    private final DecodedValueCache decodedCache;
+    private SerializedOrigin.Encoding encoding;
+    // Null until the serializer was called with headers, then whether it ever added or replaced any
+    private volatile Boolean serializerWritesHeaders;
 
     /**
      * Creates a DataObjectSerde.
@@ -64,12 +87,42 @@ public class DataObjectSerde implements Serde<Object>, Serializer<Object>, Deser
      * @param nativeMapper      mapper between user-provided native types and DataObjects
      */
     public DataObjectSerde(String name, Serializer<Object> serializer, Deserializer<Object> deserializer, DataType expectedDataType, DataObjectMapper<Object> serdeMapper, DataObjectMapper<Object> nativeMapper) {
+        this(name, serializer, deserializer, expectedDataType, serdeMapper, nativeMapper, null, null);
+    }
+
+    private DataObjectSerde(String name, Serializer<Object> serializer, Deserializer<Object> deserializer, DataType expectedDataType, DataObjectMapper<Object> serdeMapper, DataObjectMapper<Object> nativeMapper, Set<String> projection, DecodedValueCache decodedCache) {
         this.name = name.toUpperCase();
         this.serializer = serializer;
         this.deserializer = deserializer;
         this.expectedDataType = expectedDataType;
         this.serdeMapper = serdeMapper;
         this.nativeMapper = nativeMapper;
+        this.projection = projection;
+        this.decodedCache = decodedCache;
+        this.encoding = SerializedOrigin.Encoding.of(this.name, expectedDataType, null, null);
+    }
+
+    /**
+     * Returns a serde sharing this serde's serializer and deserializer, which only maps the given top-level
+     * fields of deserialized structs. Serialization is not affected.
+     *
+     * @param fieldNames the names of the fields to keep
+     * @return the projecting serde
+     */
+    public DataObjectSerde withProjection(Set<String> fieldNames) {
+        return new DataObjectSerde(name, serializer, deserializer, expectedDataType, serdeMapper, nativeMapper, Set.copyOf(fieldNames), decodedCache);
+    }
+
+    /**
+     * Returns a serde sharing this serde's serializer and deserializer, which remembers the serde values of
+     * the most recently written and read bytes. When the same bytes are deserialized again, the remembered
+     * value is mapped instead of calling the deserializer.
+     *
+     * @param maxEntries the maximum number of values remembered per thread
+     * @return the caching serde
+     */
+    public DataObjectSerde withDecodedCache(int maxEntries) {
+        return new DataObjectSerde(name, serializer, deserializer, expectedDataType, serdeMapper, nativeMapper, projection, new DecodedValueCache(maxEntries));
     }
 
     /**
@@ -100,6 +153,7 @@ public class DataObjectSerde implements Serde<Object>, Serializer<Object>, Deser
     public void configure(final Map<String, ?> configs, final boolean isKey) {
         serializer.configure(configs, isKey);
         deserializer.configure(configs, isKey);
+        encoding = SerializedOrigin.Encoding.of(name, expectedDataType, isKey, configs);
     }
 
     /**
@@ -113,7 +167,7 @@ public class DataObjectSerde implements Serde<Object>, Serializer<Object>, Deser
     @Override
     public Object deserialize(final String topic, final byte[] data) {
         try {
-            return serdeMapper.toDataObject(expectedDataType, deserializer.deserialize(topic, data));
+            return withOrigin(toDataObject(decode(data, () -> deserializer.deserialize(topic, data))), topic, data);
         } catch (Exception e) {
             throw new DataException(name + DESERIALIZATION_ERROR_MSG + topic, e);
         }
@@ -131,7 +185,7 @@ public class DataObjectSerde implements Serde<Object>, Serializer<Object>, Deser
     @Override
     public Object deserialize(final String topic, final Headers headers, final byte[] data) {
         try {
-            return serdeMapper.toDataObject(expectedDataType, deserializer.deserialize(topic, headers, data));
+            return withOrigin(toDataObject(decode(data, () -> deserializer.deserialize(topic, headers, data))), topic, data);
         } catch (Exception e) {
             throw new DataException(name + DESERIALIZATION_ERROR_MSG + topic, e);
         }
@@ -149,12 +203,53 @@ public class DataObjectSerde implements Serde<Object>, Serializer<Object>, Deser
     @Override
     public Object deserialize(final String topic, final Headers headers, final ByteBuffer data) {
         try {
-            return serdeMapper.toDataObject(expectedDataType, deserializer.deserialize(topic, headers, data));
+            return toDataObject(deserializer.deserialize(topic, headers, data));
         } catch (Exception e) {
             throw new DataException(name + DESERIALIZATION_ERROR_MSG + topic, e);
         }
     }
 
+    private Object decode(byte[] data, Supplier<Object> deserialize) {
+        if (decodedCache == null || data == null) return deserialize.get();
+        final var cached = decodedCache.get(data);
+        if (cached != null) return cached;
+        final var result = deserialize.get();
+        decodedCache.put(data, result);
+        return result;
+    }
+
+    private byte[] encoded(byte[] data, Object serdeObject) {
+        if (decodedCache != null) decodedCache.put(data, serdeObject);
+        return data;
+    }
+
+    private Object toDataObject(Object value) {
+        return projection != null
+                ? serdeMapper.toDataObject(expectedDataType, value, projection)
+                : serdeMapper.toDataObject(expectedDataType, value);
+    }
+
+    private Object withOrigin(Object value, String topic, byte[] data) {
+        if (data != null && value instanceof DataStruct struct && !struct.isNull())
+            struct.origin(new SerializedOrigin(encoding, topic, data));
+        return value;
+    }
+
+    // Returns the bytes an unmodified struct was deserialized from, if this serde would serialize it the same way
+    private byte[] originalBytes(String topic, Object data) {
+        if (!(data instanceof DataStruct struct)) return null;
+        final var origin = struct.origin();
+        return origin != null && origin.matches(encoding, topic) ? origin.bytes() : null;
+    }
+
+    private byte[] serializeWithHeaders(String topic, Headers headers, Object serdeObject) {
+        if (Boolean.TRUE.equals(serializerWritesHeaders)) return serializer.serialize(topic, headers, serdeObject);
+        final var before = headers.toArray();
+        final var result = serializer.serialize(topic, headers, serdeObject);
+        serializerWritesHeaders = !Arrays.equals(before, headers.toArray(), (left, right) -> left == right ? 0 : 1);
+        return result;
+    }
+
     /**
      * Maps the provided value from native form to a DataObject and delegates to the underlying serializer.
      *
@@ -166,10 +261,12 @@ public class DataObjectSerde implements Serde<Object>, Serializer<Object>, Deser
     @Override
     public byte[] serialize(final String topic, final Object data) {
         try {
+            final var original = originalBytes(topic, data);
+            if (original != null) return original;
             final var dataObject = nativeMapper.toDataObject(expectedDataType, data);
             if (dataObject == DataNull.INSTANCE) return serializer.serialize(topic, null);
             final var serdeObject = serdeMapper.fromDataObject(dataObject);
-            return serializer.serialize(topic, serdeObject);
+            return encoded(serializer.serialize(topic, serdeObject), serdeObject);
         } catch (Exception e) {
             throw new DataException(name + SERIALIZATION_ERROR_MSG + topic, e);
         }
@@ -187,11 +284,15 @@ public class DataObjectSerde implements Serde<Object>, Serializer<Object>, Deser
      */
     @Override
     public byte[] serialize(final String topic, final Headers headers, final Object data) {
+        if (headers == null) return serialize(topic, data);
         try {
+            // The original bytes come without the headers a serializer would write, so only use them when it writes none
+            final var original = Boolean.FALSE.equals(serializerWritesHeaders) ? originalBytes(topic, data) : null;
+            if (original != null) return original;
             final var dataObject = nativeMapper.toDataObject(expectedDataType, data);
             if (dataObject == DataNull.INSTANCE) return serializer.serialize(topic, null);
             final var serdeObject = serdeMapper.fromDataObject(dataObject);
-            return serializer.serialize(topic, headers, serdeObject);
+            return encoded(serializeWithHeaders(topic, headers, serdeObject), serdeObject);
         } catch (Exception e) {
             throw new DataException(name + SERIALIZATION_ERROR_MSG + topic, e);
         }
@@ -0,0 +1,103 @@
+package io.axual.ksml.data.serde;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML Data Library
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A least-recently-used cache from serialized bytes to the value they decode to.
+ * <p>
+ * Entries are looked up by the content of the bytes, so a value that was written to a state store is
+ * found again when the store returns a copy of the same bytes. Every thread has its own cache, since
+ * Kafka Streams processes a task, and therefore every key, on a single thread. This keeps the cache
+ * free of locks.
+ */
+public class DecodedValueCache {
+    private final int maxEntries;
+    private final ThreadLocal<Map<Key, Object>> entries;
+
+    /**
+     * Creates a cache that keeps up to the given number of values per thread.
+     *
+     * @param maxEntries the maximum number of values kept per thread
+     */
+    public DecodedValueCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = ThreadLocal.withInitial(() -> new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+                return size() > DecodedValueCache.this.maxEntries;
+            }
+        });
+    }
+
+    /**
+     * Returns the maximum number of values kept per thread.
+     *
+     * @return the maximum number of entries
+     */
+    public int maxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * Returns the value that the given bytes decode to, if it is cached.
+     *
+     * @param bytes the serialized bytes
+     * @return the cached value, or {@code null} if the bytes are not in the cache
+     */
+    public Object get(byte[] bytes) {
+        return bytes != null ? entries.get().get(new Key(bytes)) : null;
+    }
+
+    /**
+     * Remembers the value that the given bytes decode to. The value must not be modified afterwards.
+     *
+     * @param bytes the serialized bytes
+     * @param value the decoded value
+     */
+    public void put(byte[] bytes, Object value) {
+        if (bytes != null && value != null) entries.get().put(new Key(bytes), value);
+    }
+
+    private record Key(byte[] bytes, int hash) {
+        private Key(byte[] bytes) {
+            this(bytes, Arrays.hashCode(bytes));
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key && hash == key.hash && Arrays.equals(bytes, key.bytes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return "Key[" + bytes.length + " bytes]";
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package io.axual.ksml.data.serde;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML Data Library
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.object.DataStruct;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Serde wrapper that only keeps the given top-level fields of deserialized structs. Serialization is
+ * delegated unchanged.
+ * <p>
+ * Use {@link #of(Serde, Set)} to create one: a {@link DataObjectSerde} is asked to project during
+ * mapping, so unused fields are never converted. Other serdes are wrapped, and project their results
+ * after deserialization.
+ */
+public class ProjectingSerde implements Serde<Object>, Deserializer<Object> {
+    private final Serde<Object> delegate;
+    private final Set<String> fieldNames;
+
+    private ProjectingSerde(Serde<Object> delegate, Set<String> fieldNames) {
+        this.delegate = delegate;
+        this.fieldNames = Set.copyOf(fieldNames);
+    }
+
+    /**
+     * Returns a serde that only keeps the given top-level fields of deserialized structs.
+     *
+     * @param serde      the serde to project
+     * @param fieldNames the names of the fields to keep
+     * @return the projecting serde
+     */
+    public static Serde<Object> of(Serde<Object> serde, Set<String> fieldNames) {
+        if (serde instanceof DataObjectSerde dataObjectSerde) return dataObjectSerde.withProjection(fieldNames);
+        return new ProjectingSerde(serde, fieldNames);
+    }
+
+    @Override
+    public Serializer<Object> serializer() {
+        return delegate.serializer();
+    }
+
+    @Override
+    public Deserializer<Object> deserializer() {
+        return this;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        delegate.configure(configs, isKey);
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return project(delegate.deserializer().deserialize(topic, data));
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        return project(delegate.deserializer().deserialize(topic, headers, data));
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, ByteBuffer data) {
+        return project(delegate.deserializer().deserialize(topic, headers, data));
+    }
+
+    private Object project(Object value) {
+        return value instanceof DataStruct struct ? struct.project(fieldNames) : value;
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
@@ -49,6 +49,9 @@ import io.axual.ksml.data.type.TupleType;
 import io.axual.ksml.data.type.UnionType;
 
 import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
 import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 
@@ -177,6 +180,41 @@ public class ConvertUtil {
         throw new DataException("Can not convert value to " + targetType);
     }
 
+    /**
+     * A conversion to a fixed target type, prepared once by {@link #compile} and applied to many values.
+     */
+    @FunctionalInterface
+    public interface Conversion {
+        /**
+         * Convert a value to the target type of this conversion.
+         *
+         * @param value the input value as DataObject
+         * @return the converted DataObject, or the value itself if it already matches the target type
+         * @throws io.axual.ksml.data.exception.DataException if the conversion fails
+         */
+        DataObject convert(DataObject value);
+    }
+
+    /**
+     * Prepare the conversion of values to the given target type, using the provided source and target
+     * notations.
+     *
+     * <p>The returned conversion gives the same results as
+     * {@link #convert(Notation, Notation, DataType, DataObject, boolean)} with {@code allowFail} set to
+     * false, but does all work that only depends on the target type up front: union members and struct
+     * field types are resolved once. Values that already match the target type, including all their list
+     * elements, map values, struct fields and tuple elements, are returned as is instead of being copied.
+     *
+     * @param sourceNotation the notation of the input values; may be null if unknown
+     * @param targetNotation the desired target notation; may be null to skip notation conversion
+     * @param targetType     the desired target DataType; may be null to skip conversion altogether
+     * @return the prepared conversion
+     */
+    public Conversion compile(Notation sourceNotation, Notation targetNotation, DataType targetType) {
+        if (targetType == null) return value -> value;
+        return new CompiledConversion(sourceNotation, targetNotation, targetType, false);
+    }
+
     private DataObject applyNotationConverters(Notation sourceNotation, Notation targetNotation, DataType targetType, DataObject value) {
         // First we see if the target notation is able to interpret the source value
         if (targetNotation != null && targetNotation.converter() != null) {
@@ -492,6 +530,126 @@ public class ConvertUtil {
         return new DataTuple(convertedDataObjects);
     }
 
+    private final class CompiledConversion implements Conversion {
+        private final Notation sourceNotation;
+        private final Notation targetNotation;
+        private final DataType targetType;
+        private final boolean allowFail;
+        private final CompiledConversion[] memberConversions;
+        private final Map<String, DataType> fieldTypes;
+
+        private CompiledConversion(Notation sourceNotation, Notation targetNotation, DataType targetType, boolean allowFail) {
+            this.sourceNotation = sourceNotation;
+            this.targetNotation = targetNotation;
+            this.targetType = targetType;
+            this.allowFail = allowFail;
+            if (targetType instanceof UnionType unionType) {
+                memberConversions = new CompiledConversion[unionType.members().length];
+                for (int index = 0; index < memberConversions.length; index++) {
+                    memberConversions[index] = new CompiledConversion(sourceNotation, targetNotation, unionType.members()[index].type(), true);
+                }
+            } else {
+                memberConversions = null;
+            }
+            fieldTypes = new HashMap<>();
+            if (targetType instanceof StructType structType && structType.schema() != null) {
+                for (final var field : structType.schema().fields()) {
+                    final var fieldType = dataSchemaMapper.fromDataSchema(field.schema());
+                    if (fieldType != null) fieldTypes.put(field.name(), fieldType);
+                }
+            }
+        }
+
+        @Override
+        public DataObject convert(DataObject value) {
+            // Follows the same steps as convert(sourceNotation, targetNotation, targetType, value, allowFail)
+            if (value == null) return null;
+            if (value == DataNull.INSTANCE) return convertNullToDataObject(targetType);
+
+            if (memberConversions != null) {
+                if (targetType.isAssignableFrom(value).isAssignable()) return value;
+                for (final var memberConversion : memberConversions) {
+                    final var convertedValue = memberConversion.convert(value);
+                    if (convertedValue != null) return convertedValue;
+                }
+            }
+
+            if (targetType instanceof ListType targetListType && value instanceof DataList valueList) {
+                return matches(targetListType, valueList) ? valueList : convertList(targetListType, valueList, allowFail);
+            }
+            if (targetType instanceof MapType targetMapType && value instanceof DataMap valueMap) {
+                return matches(targetMapType, valueMap) ? valueMap : convertMap(targetMapType, valueMap, allowFail);
+            }
+            if (targetType instanceof StructType targetStructType && value instanceof DataStruct valueStruct) {
+                return matches(targetStructType, valueStruct) ? valueStruct : convertStruct(targetStructType, valueStruct);
+            }
+            if (targetType instanceof TupleType targetTupleType
+                    && value instanceof DataTuple valueTuple
+                    && targetTupleType.subTypeCount() == valueTuple.elements().size()) {
+                return matches(targetTupleType, valueTuple) ? valueTuple : convertTuple(targetTupleType, valueTuple, allowFail);
+            }
+
+            // Notation converters only translate between structured values and their string form, so they
+            // leave values that are already compatible with a non-structured target type alone
+            if (!isStructured(targetType) && targetType.isAssignableFrom(value).isAssignable()) return value;
+
+            var convertedValue = applyNotationConverters(sourceNotation, targetNotation, targetType, value);
+            if (targetType.isAssignableFrom(convertedValue).isAssignable()) return convertedValue;
+            convertedValue = convertDataObject(targetType, convertedValue, allowFail);
+            if (convertedValue != null) return convertedValue;
+            if (allowFail) return null;
+            throw new DataException("Can not convert value to " + targetType);
+        }
+
+        private static boolean isStructured(DataType type) {
+            return type instanceof ListType || type instanceof MapType || type instanceof StructType || type instanceof UnionType;
+        }
+
+        private static boolean matches(ListType expected, DataList value) {
+            if (!Objects.equals(expected.valueType(), value.valueType())) return false;
+            for (final var element : value) {
+                if (expected.valueType().isAssignableFrom(element).isNotAssignable()) return false;
+            }
+            return true;
+        }
+
+        private static boolean matches(MapType expected, DataMap value) {
+            if (!Objects.equals(expected.valueType(), value.valueType())) return false;
+            for (final var entry : value.entrySet()) {
+                if (expected.valueType().isAssignableFrom(entry.getValue()).isNotAssignable()) return false;
+            }
+            return true;
+        }
+
+        private boolean matches(StructType expected, DataStruct value) {
+            final var schema = value.type().schema();
+            if (schema != expected.schema() && !Objects.equals(schema, expected.schema())) return false;
+            for (final var entry : value.entrySet()) {
+                final var fieldType = fieldTypes.get(entry.getKey());
+                if (fieldType != null && fieldType.isAssignableFrom(entry.getValue()).isNotAssignable()) return false;
+            }
+            return true;
+        }
+
+        private static boolean matches(TupleType expected, DataTuple value) {
+            for (int index = 0; index < expected.subTypeCount(); index++) {
+                if (expected.subType(index).isAssignableFrom(value.elements().get(index)).isNotAssignable()) return false;
+            }
+            return true;
+        }
+
+        // Same as the outer convertStruct, but with field types that were resolved up front
+        private DataStruct convertStruct(StructType expected, DataStruct value) {
+            final var result = new DataStruct(expected.schema(), value.isNull());
+            value.forEach((key, fieldValue) -> {
+                final var fieldType = fieldTypes.get(key);
+                final var dataObject = dataObjectMapper.toDataObject(fieldValue);
+                result.put(key, fieldType != null ? convertDataObject(fieldType, dataObject, allowFail) : dataObject);
+            });
+            return result;
+        }
+    }
+
     private DataException convertError(DataType sourceType, DataType targetType, DataObject value) {
         final var sourceTypeStr = sourceType != null ? sourceType.toString() : "null type";
         final var targetTypeStr = targetType != null ? targetType.toString() : "null type";
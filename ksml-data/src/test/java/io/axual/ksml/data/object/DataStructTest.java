@@ -23,10 +23,13 @@ package io.axual.ksml.data.object;
 import io.axual.ksml.data.compare.Equality;
 import io.axual.ksml.data.compare.EqualityFlags;
 import io.axual.ksml.data.schema.StructSchema;
+import io.axual.ksml.data.type.DataType;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static io.axual.ksml.data.object.DataObject.Printer.EXTERNAL_ALL_SCHEMA;
@@ -164,4 +167,82 @@ class DataStructTest {
                 .as("Structs with different keys should NOT be equal")
                 .isTrue();
     }
+
+    @Test
+    @DisplayName("Projection keeps the type and only the requested fields that are present")
+    void projectionKeepsRequestedFields() {
+        var schema = new StructSchema("io.axual.ksml", "User", null, List.of());
+        var st = new DataStruct(schema);
+        st.put("name", new DataString("Alice"));
+        st.put("age", new DataInteger(30));
+        st.put("city", new DataString("Utrecht"));
+
+        var projected = st.project(Set.of("name", "city", "missing"));
+        assertThat(projected.type()).isEqualTo(st.type());
+        assertThat(projected.size()).isEqualTo(2);
+        assertThat(projected.get("name")).isEqualTo(new DataString("Alice"));
+        assertThat(projected.containsKey("age")).isFalse();
+        assertThat(projected.containsKey("missing")).isFalse();
+        // The original struct is left untouched
+        assertThat(st.size()).isEqualTo(3);
+
+        var nul = new DataStruct(schema, true);
+        assertThat(nul.project(Set.of("name"))).isSameAs(nul);
+    }
+
+    @Test
+    @DisplayName("origin is ignored by equality and cleared when the struct is modified")
+    void originIsClearedOnModification() {
+        var st = new DataStruct();
+        st.put("name", new DataString("Alice"));
+        var other = new DataStruct();
+        other.put("name", new DataString("Alice"));
+
+        var json = SerializedOrigin.Encoding.of("json", st.type(), false, Map.of());
+        st.origin(new SerializedOrigin(json, "topic", new byte[]{1}));
+        assertThat(st).isEqualTo(other);
+        assertThat(st.origin().matches(SerializedOrigin.Encoding.of("json", other.type(), false, Map.of()), "topic")).isTrue();
+        assertThat(st.origin().matches(SerializedOrigin.Encoding.of("json", other.type(), true, Map.of()), "topic")).isFalse();
+        assertThat(st.origin().matches(SerializedOrigin.Encoding.of("avro", other.type(), false, Map.of()), "topic")).isFalse();
+        assertThat(st.origin().matches(json, "other-topic")).isTrue();
+
+        var registry = SerializedOrigin.Encoding.of("avro", st.type(), false, Map.of("schema.registry.url", "http://registry"));
+        st.origin(new SerializedOrigin(registry, "topic", new byte[]{1}));
+        assertThat(st.origin().matches(registry, "topic")).isTrue();
+        assertThat(st.origin().matches(registry, "other-topic")).isFalse();
+        st.origin(new SerializedOrigin(json, "topic", new byte[]{1}));
+
+        st.putIfAbsent("age", new DataInteger(30));
+        assertThat(st.origin()).isNull();
+    }
+
+    @Test
+    @DisplayName("origin is cleared when nested values or the contents are modified")
+    void originIsClearedOnNestedModification() {
+        var encoding = SerializedOrigin.Encoding.of("json", DataType.UNKNOWN, false, Map.of());
+        var nested = new DataStruct();
+        var list = new DataList();
+        var map = new DataMap();
+        var st = new DataStruct();
+        st.put("nested", nested);
+        st.put("list", list);
+        st.put("map", map);
+
+        st.origin(new SerializedOrigin(encoding, "topic", new byte[]{1}));
+        assertThat(st.origin()).isNotNull();
+        nested.put("name", new DataString("Alice"));
+        assertThat(st.origin()).isNull();
+
+        st.origin(new SerializedOrigin(encoding, "topic", new byte[]{1}));
+        list.add(new DataString("Alice"));
+        assertThat(st.origin()).isNull();
+
+        st.origin(new SerializedOrigin(encoding, "topic", new byte[]{1}));
+        map.put("name", new DataString("Alice"));
+        assertThat(st.origin()).isNull();
+
+        st.origin(new SerializedOrigin(encoding, "topic", new byte[]{1}));
+        st.contents();
+        assertThat(st.origin()).isNull();
+    }
 }
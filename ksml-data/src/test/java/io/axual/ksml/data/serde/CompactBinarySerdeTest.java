@@ -0,0 +1,204 @@
+package io.axual.ksml.data.serde;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML Data Library
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.exception.DataException;
+import io.axual.ksml.data.mapper.NativeDataObjectMapper;
+import io.axual.ksml.data.object.DataBytes;
+import io.axual.ksml.data.object.DataDouble;
+import io.axual.ksml.data.object.DataInteger;
+import io.axual.ksml.data.object.DataList;
+import io.axual.ksml.data.object.DataLong;
+import io.axual.ksml.data.object.DataMap;
+import io.axual.ksml.data.object.DataNull;
+import io.axual.ksml.data.object.DataString;
+import io.axual.ksml.data.object.DataStruct;
+import io.axual.ksml.data.schema.DataSchema;
+import io.axual.ksml.data.schema.ListSchema;
+import io.axual.ksml.data.schema.MapSchema;
+import io.axual.ksml.data.schema.StructSchema;
+import io.axual.ksml.data.type.DataType;
+import io.axual.ksml.data.type.ListType;
+import io.axual.ksml.data.type.StructType;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SuppressWarnings("java:S2095")
+class CompactBinarySerdeTest {
+    private static final String TOPIC = "myTopic";
+    private static final NativeDataObjectMapper NATIVE_MAPPER = new NativeDataObjectMapper();
+    private static final StructSchema ORDER_SCHEMA = new StructSchema("io.axual.test", "Order", "An order", List.of(
+            new StructSchema.Field("id", DataSchema.STRING_SCHEMA),
+            new StructSchema.Field("amount", DataSchema.LONG_SCHEMA),
+            new StructSchema.Field("price", DataSchema.DOUBLE_SCHEMA),
+            new StructSchema.Field("note", DataSchema.STRING_SCHEMA),
+            new StructSchema.Field("tags", new ListSchema(DataSchema.STRING_SCHEMA)),
+            new StructSchema.Field("attributes", new MapSchema(DataSchema.INTEGER_SCHEMA)),
+            new StructSchema.Field("payload", DataSchema.BYTES_SCHEMA),
+            new StructSchema.Field("discount", DataSchema.DOUBLE_SCHEMA, null, 0, false)));
+
+    private static DataStruct order() {
+        final var tags = new DataList(DataString.DATATYPE);
+        tags.add(new DataString("new"), new DataString("priority"));
+        final var attributes = new DataMap(DataInteger.DATATYPE);
+        attributes.put("weight", new DataInteger(-12));
+        attributes.put("height", new DataInteger(300));
+        final var result = new DataStruct(ORDER_SCHEMA);
+        result.put("id", new DataString("order-1"));
+        result.put("amount", new DataLong(Long.MIN_VALUE));
+        result.put("price", new DataDouble(12.5));
+        result.put("note", new DataString());
+        result.put("tags", tags);
+        result.put("attributes", attributes);
+        result.put("payload", new DataBytes(new byte[]{1, 2, 3}));
+        // The optional discount field is left out
+        return result;
+    }
+
+    private static CompactBinarySerde serde(DataType expected, Deserializer<Object> fallback) {
+        return new CompactBinarySerde(expected, NATIVE_MAPPER, fallback);
+    }
+
+    @Test
+    @DisplayName("structs with a schema are read back equal")
+    void structWithSchemaRoundTrips() {
+        final var serde = serde(new StructType(ORDER_SCHEMA), null);
+        final var order = order();
+
+        final var result = serde.deserialize(TOPIC, serde.serialize(TOPIC, order));
+        assertThat(result).isEqualTo(order);
+        assertThat(((DataStruct) result).containsKey("discount")).isFalse();
+    }
+
+    @Test
+    @DisplayName("the schema name and field names are written once per value")
+    void schemaLayoutIsWrittenOnce() {
+        final var serde = serde(new ListType(new StructType(ORDER_SCHEMA)), null);
+        final var orders = new DataList(new StructType(ORDER_SCHEMA));
+        orders.add(order(), order(), order());
+
+        final var bytes = serde.serialize(TOPIC, orders);
+        final var text = new String(bytes, StandardCharsets.ISO_8859_1);
+        assertThat(text.indexOf("amount")).isEqualTo(text.lastIndexOf("amount"));
+        assertThat(text.indexOf("Order")).isEqualTo(text.lastIndexOf("Order"));
+
+        assertThat(serde.deserialize(TOPIC, bytes)).isEqualTo(orders);
+    }
+
+    @Test
+    @DisplayName("fields are matched by name when the schema changed after writing")
+    void evolvedSchemaMatchesFieldsByName() {
+        final var evolved = new StructSchema("io.axual.test", "Order", "An order", List.of(
+                new StructSchema.Field("price", DataSchema.DOUBLE_SCHEMA),
+                new StructSchema.Field("id", DataSchema.STRING_SCHEMA),
+                new StructSchema.Field("tags", new ListSchema(DataSchema.STRING_SCHEMA)),
+                new StructSchema.Field("currency", DataSchema.STRING_SCHEMA, null, 0, false)));
+        final var bytes = serde(new StructType(ORDER_SCHEMA), null).serialize(TOPIC, order());
+
+        final var result = (DataStruct) serde(new StructType(evolved), null).deserialize(TOPIC, bytes);
+        assertThat(result.type().schema()).isSameAs(evolved);
+        assertThat(result.get("id")).isEqualTo(new DataString("order-1"));
+        assertThat(result.get("price")).isEqualTo(new DataDouble(12.5));
+        assertThat(result.get("amount")).isEqualTo(new DataLong(Long.MIN_VALUE));
+        assertThat(result.get("tags")).isEqualTo(order().get("tags"));
+        assertThat(result.containsKey("currency")).isFalse();
+    }
+
+    @Test
+    @DisplayName("structs with a schema that the reader does not know are read without schema")
+    void unknownSchemaIsReadWithoutSchema() {
+        final var bytes = serde(new StructType(ORDER_SCHEMA), null).serialize(TOPIC, order());
+
+        final var result = (DataStruct) serde(DataType.UNKNOWN, null).deserialize(TOPIC, bytes);
+        assertThat(result.type().schema()).isNull();
+        assertThat(result.get("id")).isEqualTo(new DataString("order-1"));
+        assertThat(result.get("amount")).isEqualTo(new DataLong(Long.MIN_VALUE));
+    }
+
+    @Test
+    @DisplayName("schemaless values write every field name only once")
+    void schemalessNamesAreWrittenOnce() {
+        final var serde = serde(DataType.UNKNOWN, null);
+        final var list = new DataList();
+        for (int index = 0; index < 3; index++) {
+            final var element = new DataStruct();
+            element.put("sensor", new DataString("sensor-" + index));
+            element.put("reading", new DataInteger(index));
+            list.add(element);
+        }
+
+        final var bytes = serde.serialize(TOPIC, list);
+        final var text = new String(bytes, StandardCharsets.ISO_8859_1);
+        assertThat(text.indexOf("reading")).isEqualTo(text.lastIndexOf("reading"));
+
+        assertThat(serde.deserialize(TOPIC, bytes)).isEqualTo(list);
+    }
+
+    @Test
+    @DisplayName("array backed buffers are read in place")
+    void byteBuffersAreReadInPlace() {
+        final var serde = serde(new StructType(ORDER_SCHEMA), null);
+        final var bytes = serde.serialize(TOPIC, order());
+        final var padded = new byte[bytes.length + 8];
+        System.arraycopy(bytes, 0, padded, 4, bytes.length);
+
+        final var buffer = ByteBuffer.wrap(padded, 4, bytes.length).slice();
+        assertThat(serde.deserialize(TOPIC, new RecordHeaders(), buffer)).isEqualTo(order());
+    }
+
+    @Test
+    @DisplayName("data without the compact header is read by the fallback deserializer")
+    void fallbackReadsOtherData() {
+        final var fallback = (Deserializer<Object>) (Deserializer<?>) new StringDeserializer();
+        final var serde = serde(DataString.DATATYPE, fallback);
+
+        assertThat(serde.deserialize(TOPIC, "legacy".getBytes(StandardCharsets.UTF_8))).isEqualTo("legacy");
+        assertThat(serde.deserialize(TOPIC, serde.serialize(TOPIC, "compact"))).isEqualTo(new DataString("compact"));
+        assertThat(serde.serialize(TOPIC, null)).isNull();
+        assertThat(serde.deserialize(TOPIC, (byte[]) null)).isEqualTo(new DataString());
+    }
+
+    @Test
+    @DisplayName("unknown schema layouts and malformed data are reported")
+    void invalidDataIsReported() {
+        final var serde = serde(DataType.UNKNOWN, null);
+        final var unknownSchema = new byte[]{CompactBinaryFormat.MAGIC, CompactBinaryFormat.VERSION, CompactBinaryFormat.SCHEMA_STRUCT, 1, 0};
+        final var truncated = new byte[]{CompactBinaryFormat.MAGIC, CompactBinaryFormat.VERSION, CompactBinaryFormat.STRING, 10, 'a'};
+
+        assertThatThrownBy(() -> serde.deserialize(TOPIC, unknownSchema))
+                .isInstanceOf(DataException.class)
+                .hasRootCauseMessage("Compact binary data refers to unknown schema layout 1");
+        assertThatThrownBy(() -> serde.deserialize(TOPIC, truncated))
+                .isInstanceOf(DataException.class)
+                .hasMessageContaining("COMPACT message could not be deserialized from topic myTopic");
+        assertThat(serde.deserialize(TOPIC, serde.serialize(TOPIC, DataNull.INSTANCE))).isEqualTo(DataNull.INSTANCE);
+    }
+}
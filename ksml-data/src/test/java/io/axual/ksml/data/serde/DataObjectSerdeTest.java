@@ -27,7 +27,10 @@ import io.axual.ksml.data.mapper.StringDataObjectMapper;
 import io.axual.ksml.data.object.DataNull;
 import io.axual.ksml.data.object.DataObject;
 import io.axual.ksml.data.object.DataString;
+import io.axual.ksml.data.object.DataStruct;
 import io.axual.ksml.data.type.DataType;
+import io.axual.ksml.data.type.StructType;
+import org.apache.kafka.common.header.Headers;
 import org.apache.kafka.common.header.internals.RecordHeaders;
 import org.apache.kafka.common.serialization.Deserializer;
 import org.apache.kafka.common.serialization.Serializer;
@@ -37,6 +40,9 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -96,6 +102,182 @@ class DataObjectSerdeTest {
         assertThat(out3).isInstanceOf(DataString.class).extracting(o -> ((DataString) o).value()).isEqualTo("hello");
     }
 
+    @Test
+    @DisplayName("a projecting serde only keeps the projected struct fields and serializes as before")
+    void projectionKeepsOnlyProjectedFields() {
+        var delegateSerializer = (Serializer<Object>) (Serializer<?>) new StringSerializer();
+        Deserializer<Object> delegateDeserializer = (topic, data) -> Map.of("name", "Alice", "age", 30, "city", "Utrecht");
+        var nativeMapper = (DataObjectMapper<Object>) (DataObjectMapper<?>) new NativeDataObjectMapper();
+        DataObjectMapper<Object> serdeMapper = new DataObjectMapper<>() {
+            @Override
+            public DataObject toDataObject(DataType expected, Object value) {
+                return nativeMapper.toDataObject(expected, value);
+            }
+
+            @Override
+            public Object fromDataObject(DataObject value) {
+                return value.toString();
+            }
+        };
+
+        var serde = new DataObjectSerde("test", delegateSerializer, delegateDeserializer, new StructType(), serdeMapper, nativeMapper);
+        var projected = serde.withProjection(Set.of("name", "city"));
+
+        assertThat(serde.deserialize(TOPIC, new byte[0])).isInstanceOf(DataStruct.class)
+                .extracting(o -> ((DataStruct) o).size()).isEqualTo(3);
+        var out = projected.deserialize(TOPIC, new byte[0]);
+        assertThat(out).isInstanceOf(DataStruct.class);
+        assertThat(((DataStruct) out).size()).isEqualTo(2);
+        assertThat(((DataStruct) out).containsKey("age")).isFalse();
+        assertThat(ProjectingSerde.of(serde, Set.of("name"))).isInstanceOf(DataObjectSerde.class);
+
+        assertThat(projected.serialize(TOPIC, Map.of("name", "Bob"))).isEqualTo(serde.serialize(TOPIC, Map.of("name", "Bob")));
+    }
+
+    @Test
+    @DisplayName("unmodified structs are serialized as the bytes they were deserialized from")
+    void unmodifiedStructsPassOriginalBytes() {
+        var delegateSerializer = (Serializer<Object>) (Serializer<?>) new StringSerializer();
+        Deserializer<Object> delegateDeserializer = (topic, data) -> Map.of("name", "Alice");
+        var nativeMapper = (DataObjectMapper<Object>) (DataObjectMapper<?>) new NativeDataObjectMapper();
+        DataObjectMapper<Object> serdeMapper = new DataObjectMapper<>() {
+            @Override
+            public DataObject toDataObject(DataType expected, Object value) {
+                return nativeMapper.toDataObject(expected, value);
+            }
+
+            @Override
+            public Object fromDataObject(DataObject value) {
+                return value.toString();
+            }
+        };
+
+        var serde = new DataObjectSerde("test", delegateSerializer, delegateDeserializer, new StructType(), serdeMapper, nativeMapper);
+        var otherNotation = new DataObjectSerde("other", delegateSerializer, delegateDeserializer, new StructType(), serdeMapper, nativeMapper);
+        var original = "original".getBytes();
+
+        var unmodified = (DataStruct) serde.deserialize(TOPIC, original);
+        assertThat(serde.serialize(TOPIC, unmodified)).isSameAs(original);
+        assertThat(otherNotation.serialize(TOPIC, unmodified)).isNotSameAs(original);
+
+        // With headers, the original bytes are only used once the serializer was seen not to write any
+        assertThat(serde.serialize(TOPIC, new RecordHeaders(), unmodified)).isNotSameAs(original);
+        assertThat(serde.serialize(TOPIC, new RecordHeaders(), unmodified)).isSameAs(original);
+
+        serde.configure(Map.of("some.config", "value"), false);
+        assertThat(serde.serialize(TOPIC, unmodified)).isNotSameAs(original);
+        assertThat(serde.serialize(TOPIC, serde.deserialize(TOPIC, original))).isSameAs(original);
+
+        var modified = (DataStruct) serde.deserialize(TOPIC, new RecordHeaders(), original);
+        modified.put("name", new DataString("Bob"));
+        assertThat(modified.origin()).isNull();
+        assertThat(serde.serialize(TOPIC, modified)).isNotEqualTo(original);
+    }
+
+    @Test
+    @DisplayName("unmodified structs are copied to another topic as their original bytes, unless a schema registry is used")
+    void copiedStructsPassOriginalBytes() {
+        var delegateSerializer = (Serializer<Object>) (Serializer<?>) new StringSerializer();
+        Deserializer<Object> delegateDeserializer = (topic, data) -> Map.of("name", "Alice");
+        var nativeMapper = (DataObjectMapper<Object>) (DataObjectMapper<?>) new NativeDataObjectMapper();
+        DataObjectMapper<Object> serdeMapper = new DataObjectMapper<>() {
+            @Override
+            public DataObject toDataObject(DataType expected, Object value) {
+                return nativeMapper.toDataObject(expected, value);
+            }
+
+            @Override
+            public Object fromDataObject(DataObject value) {
+                return value.toString();
+            }
+        };
+
+        // Source and target topic each get their own serde, configured the same way
+        var source = new DataObjectSerde("test", delegateSerializer, delegateDeserializer, new StructType(), serdeMapper, nativeMapper);
+        var target = new DataObjectSerde("test", delegateSerializer, delegateDeserializer, new StructType(), serdeMapper, nativeMapper);
+        source.configure(Map.of("some.config", "value"), false);
+        target.configure(Map.of("some.config", "value"), false);
+        var original = "original".getBytes();
+        assertThat(target.serialize("topic-b", source.deserialize("topic-a", original))).isSameAs(original);
+
+        // With a schema registry, the bytes refer to a schema registered for the source topic's subject
+        var registryConfig = Map.of("schema.registry.url", "http://registry");
+        source.configure(registryConfig, false);
+        target.configure(registryConfig, false);
+        assertThat(target.serialize("topic-b", source.deserialize("topic-a", original))).isNotSameAs(original);
+        assertThat(target.serialize("topic-a", source.deserialize("topic-a", original))).isSameAs(original);
+    }
+
+    @Test
+    @DisplayName("structs are always serialized when the serializer writes headers")
+    void headerWritingSerializerSkipsOriginalBytes() {
+        Serializer<Object> delegateSerializer = new Serializer<>() {
+            @Override
+            public byte[] serialize(String topic, Object data) {
+                return data.toString().getBytes();
+            }
+
+            @Override
+            public byte[] serialize(String topic, Headers headers, Object data) {
+                headers.add("schema-id", new byte[]{1});
+                return serialize(topic, data);
+            }
+        };
+        Deserializer<Object> delegateDeserializer = (topic, data) -> Map.of("name", "Alice");
+        var nativeMapper = (DataObjectMapper<Object>) (DataObjectMapper<?>) new NativeDataObjectMapper();
+        DataObjectMapper<Object> serdeMapper = new DataObjectMapper<>() {
+            @Override
+            public DataObject toDataObject(DataType expected, Object value) {
+                return nativeMapper.toDataObject(expected, value);
+            }
+
+            @Override
+            public Object fromDataObject(DataObject value) {
+                return value.toString();
+            }
+        };
+
+        var serde = new DataObjectSerde("test", delegateSerializer, delegateDeserializer, new StructType(), serdeMapper, nativeMapper);
+        var original = "original".getBytes();
+        var unmodified = serde.deserialize(TOPIC, original);
+
+        for (int i = 0; i < 2; i++) {
+            var headers = new RecordHeaders();
+            assertThat(serde.serialize(TOPIC, headers, unmodified)).isNotSameAs(original);
+            assertThat(headers.lastHeader("schema-id")).isNotNull();
+        }
+    }
+
+    @Test
+    @DisplayName("with a decoded cache, recently written or read bytes are not deserialized again")
+    void decodedCacheSkipsDeserializer() {
+        Serializer<Object> delegateSerializer = (topic, data) -> ((Map<?, ?>) data).get("name").toString().getBytes();
+        var deserializations = new AtomicInteger();
+        Deserializer<Object> delegateDeserializer = (topic, data) -> {
+            deserializations.incrementAndGet();
+            return Map.of("name", new String(data));
+        };
+        var mapper = (DataObjectMapper<Object>) (DataObjectMapper<?>) new NativeDataObjectMapper();
+        var serde = new DataObjectSerde("test", delegateSerializer, delegateDeserializer, new StructType(), mapper, mapper)
+                .withDecodedCache(1);
+
+        // Bytes that were just written are mapped from the written value, also when the bytes are a copy
+        var written = serde.serialize(TOPIC, Map.of("name", "Alice"));
+        var read = (DataStruct) serde.deserialize(TOPIC, written.clone());
+        assertThat(read.getAsString("name").value()).isEqualTo("Alice");
+        assertThat(deserializations).hasValue(0);
+
+        // Bytes that were read before are not deserialized again
+        var other = "Bob".getBytes();
+        serde.deserialize(TOPIC, other);
+        serde.deserialize(TOPIC, new RecordHeaders(), other);
+        assertThat(deserializations).hasValue(1);
+
+        // The least recently used bytes are evicted
+        serde.deserialize(TOPIC, written);
+        assertThat(deserializations).hasValue(2);
+    }
+
     @Test
     @DisplayName("exceptions are wrapped with readable messages on de/serialization")
     void exceptionsAreWrapped() {
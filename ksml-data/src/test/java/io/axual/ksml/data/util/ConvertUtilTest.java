@@ -41,6 +41,7 @@ import io.axual.ksml.data.object.DataStruct;
 import io.axual.ksml.data.object.DataTuple;
 import io.axual.ksml.data.schema.DataSchema;
 import io.axual.ksml.data.schema.StructSchema;
+import io.axual.ksml.data.type.DataType;
 import io.axual.ksml.data.type.ListType;
 import io.axual.ksml.data.type.MapType;
 import io.axual.ksml.data.type.StructType;
@@ -481,4 +482,52 @@ class ConvertUtilTest {
         assertThat(converter.convert(DataInteger.DATATYPE, new DataDouble(6.0))).isEqualTo(new DataInteger(6));
         assertThat(converter.convert(DataLong.DATATYPE, new DataDouble(6.0))).isEqualTo(new DataLong(6L));
     }
+
+    @Test
+    @DisplayName("compile: prepared conversions give the same results as convert and return matching values as is")
+    void compiledConversionsMatchConvert() {
+        final var structType = new StructType(personSchema());
+        final var union = new UnionType(new UnionType.Member(DataLong.DATATYPE), new UnionType.Member(DataString.DATATYPE));
+        final var tupleType = new TupleType(DataInteger.DATATYPE, DataString.DATATYPE);
+
+        final var matchingStruct = new DataStruct(personSchema());
+        matchingStruct.put("id", new DataInteger(1));
+        final var schemalessStruct = new DataStruct();
+        schemalessStruct.put("id", new DataLong(2L));
+        schemalessStruct.put("extra", new DataString("x"));
+        final var matchingList = new DataList(DataInteger.DATATYPE);
+        matchingList.add(new DataInteger(3));
+        final var untypedList = new DataList();
+        untypedList.add(new DataLong(4L));
+        final var matchingTuple = new DataTuple(new DataInteger(5), new DataString("y"));
+
+        final List<Object[]> cases = List.of(
+                new Object[]{DataLong.DATATYPE, new DataInteger(6)},
+                new Object[]{DataString.DATATYPE, new DataLong(7L)},
+                new Object[]{DataString.DATATYPE, new DataString("z")},
+                new Object[]{DataInteger.DATATYPE, DataNull.INSTANCE},
+                new Object[]{union, new DataInteger(8)},
+                new Object[]{union, new DataString("w")},
+                new Object[]{structType, matchingStruct},
+                new Object[]{structType, schemalessStruct},
+                new Object[]{new ListType(DataLong.DATATYPE), matchingList},
+                new Object[]{new ListType(DataInteger.DATATYPE), matchingList},
+                new Object[]{new ListType(DataInteger.DATATYPE), untypedList},
+                new Object[]{tupleType, matchingTuple},
+                new Object[]{new TupleType(DataLong.DATATYPE, DataString.DATATYPE), matchingTuple});
+        for (final var testCase : cases) {
+            final var targetType = (DataType) testCase[0];
+            final var value = (DataObject) testCase[1];
+            assertThat(converter.compile(null, null, targetType).convert(value))
+                    .as("conversion of %s to %s", value, targetType)
+                    .isEqualTo(converter.convert(null, null, targetType, value, false));
+        }
+
+        assertThat(converter.compile(null, null, structType).convert(matchingStruct)).isSameAs(matchingStruct);
+        assertThat(converter.compile(null, null, new ListType(DataInteger.DATATYPE)).convert(matchingList)).isSameAs(matchingList);
+        assertThat(converter.compile(null, null, tupleType).convert(matchingTuple)).isSameAs(matchingTuple);
+        assertThat(converter.compile(null, null, null).convert(matchingStruct)).isSameAs(matchingStruct);
+        assertThatThrownBy(() -> converter.compile(null, null, DataInteger.DATATYPE).convert(new DataString("not-a-number")))
+                .isInstanceOf(DataException.class);
+    }
 }
@@ -26,7 +26,6 @@ import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import lombok.extern.slf4j.Slf4j;
 
-import java.time.Duration;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
 
@@ -42,16 +41,13 @@ public class CachedPatternResolver extends PatternResolver {
 
     public CachedPatternResolver(String pattern, String defaultField, Map<String, String> defaultValues, int cacheSize) {
         super(pattern, defaultField, defaultValues);
-        // Specify the cache loading implementation. It contains the logic for topic unresolving
+        // Specify the cache loading implementation. It contains the logic for topic unresolving. Resolved names
+        // never change for a given pattern, so entries are only evicted when the cache is full.
         resolveCache = CacheBuilder.newBuilder()
                 .maximumSize(cacheSize)
-                .expireAfterAccess(Duration.ZERO)
-                .expireAfterWrite(Duration.ZERO)
                 .build(new ResolveCacheLoader());
         unresolveCache = CacheBuilder.newBuilder()
                 .maximumSize(cacheSize)
-                .expireAfterAccess(Duration.ZERO)
-                .expireAfterWrite(Duration.ZERO)
                 .build(new UnresolveCacheLoader());
     }
 
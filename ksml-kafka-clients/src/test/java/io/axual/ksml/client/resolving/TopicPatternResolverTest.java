@@ -31,6 +31,7 @@ import org.junit.jupiter.params.provider.ValueSource;
 
 import java.util.Map;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 
 class TopicPatternResolverTest {
@@ -92,4 +93,12 @@ class TopicPatternResolverTest {
                 .isInstanceOf(InvalidPatternException.class);
     }
 
+    @Test
+    @DisplayName("Resolved topic names are cached")
+    void resolvedNamesAreCached() {
+        var resolver = new TopicPatternResolver(PATTERN_WITH_DEFAULT_PLACEHOLDER, BASE_CONFIG);
+        assertThat(resolver.resolve(TOPIC_NAME)).isSameAs(resolver.resolve(TOPIC_NAME));
+        assertThat(resolver.unresolveContext(RESOLVED_TOPIC_NAME)).isSameAs(resolver.unresolveContext(RESOLVED_TOPIC_NAME));
+    }
+
 }
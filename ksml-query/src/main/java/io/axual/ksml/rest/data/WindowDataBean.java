@@ -23,6 +23,8 @@ package io.axual.ksml.rest.data;
 import lombok.Getter;
 import org.apache.kafka.streams.kstream.Window;
 
+import java.time.Instant;
+
 @Getter
 public class WindowDataBean {
     public final long start;
@@ -31,9 +33,13 @@ public class WindowDataBean {
     public final String endTime;
 
     public WindowDataBean(Window window) {
-        this.start = window.start();
-        this.end = window.end();
-        this.startTime = window.startTime().toString();
-        this.endTime = window.endTime().toString();
+        this(window.start(), window.end());
+    }
+
+    public WindowDataBean(long start, long end) {
+        this.start = start;
+        this.end = end;
+        this.startTime = Instant.ofEpochMilli(start).toString();
+        this.endTime = Instant.ofEpochMilli(end).toString();
     }
 }
@@ -28,6 +28,8 @@ public enum GlobalState {
 
     private KsmlQuerier ksmlQuerier;
     private HostInfo hostInfo;
+    private RemoteQuerySettings remoteQuerySettings = RemoteQuerySettings.DEFAULT;
+    private QueryCache queryCache = new QueryCache(QueryCacheSettings.DISABLED);
 
     public synchronized void set(KsmlQuerier ksmlQuerier, HostInfo hostInfo) {
         this.ksmlQuerier = ksmlQuerier;
@@ -41,4 +43,20 @@ public enum GlobalState {
     public HostInfo hostInfo() {
         return hostInfo;
     }
+
+    public synchronized void remoteQuerySettings(RemoteQuerySettings remoteQuerySettings) {
+        this.remoteQuerySettings = remoteQuerySettings != null ? remoteQuerySettings : RemoteQuerySettings.DEFAULT;
+    }
+
+    public synchronized RemoteQuerySettings remoteQuerySettings() {
+        return remoteQuerySettings;
+    }
+
+    public synchronized void queryCache(QueryCache queryCache) {
+        this.queryCache = queryCache != null ? queryCache : new QueryCache(QueryCacheSettings.DISABLED);
+    }
+
+    public synchronized QueryCache queryCache() {
+        return queryCache;
+    }
 }
@@ -20,33 +20,64 @@ package io.axual.ksml.rest.server;
  * =========================LICENSE_END==================================
  */
 
+import io.axual.ksml.data.object.DataString;
+import io.axual.ksml.data.type.DataType;
 import io.axual.ksml.rest.data.KeyValueBean;
+import io.axual.ksml.rest.data.KeyValueBeans;
+import io.axual.ksml.rest.server.PartitionStreamMerger.PartitionRead;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.apache.kafka.streams.KeyQueryMetadata;
 import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.query.RangeQuery;
 import org.apache.kafka.streams.state.QueryableStoreTypes;
 import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
 
 import java.util.List;
+import java.util.function.Predicate;
 
 @Slf4j
 @Path("state/keyValue")
 public class KeyValueStoreResource extends StoreResource {
+    private static final String STATE_SUB_PATH = "keyValue";
+
     @GET()
     @Path("/{storeName}/all")
     @Produces(MediaType.APPLICATION_JSON)
     public List<KeyValueBean> getAll(@PathParam("storeName") final String storeName) {
         var result = getAllLocal(storeName);
-        result.addAll(getAllRemote(storeName, "keyValue"));
+        result.addAll(getAllRemote(storeName, STATE_SUB_PATH));
         return result;
     }
 
+    /**
+     * Stream the key-value pairs of a store across all instances as NDJSON, one entry per line. Entries are
+     * ordered by partition and by key within a partition, so the key of the last line can be passed as
+     * {@code after} to fetch the next page.
+     *
+     * @param storeName store to query
+     * @param limit     the maximum number of entries to return, unlimited when omitted
+     * @param after     the (string) key of the last entry of the previous page
+     * @return a streaming NDJSON response
+     */
+    @GET()
+    @Path("/{storeName}/all")
+    @Produces(APPLICATION_NDJSON_LOW_QUALITY)
+    public Response streamAll(@PathParam("storeName") final String storeName,
+                              @QueryParam("limit") final Long limit,
+                              @QueryParam("after") final String after) {
+        return streamAll(storeName, STATE_SUB_PATH, limit, after, (read, sink) -> readLocalPartition(storeName, read, sink));
+    }
+
     /**
      * Get all the local key-value pairs available in a store
      *
@@ -61,6 +92,114 @@ public class KeyValueStoreResource extends StoreResource {
         return getLocalRange(storeName, QueryableStoreTypes.keyValueStore(), ReadOnlyKeyValueStore::all).elements();
     }
 
+    /**
+     * Stream the local key-value pairs of a store as NDJSON, one entry per line.
+     *
+     * @param storeName store to query
+     * @param partition the single partition to read, all local partitions when omitted
+     * @param limit     the maximum number of entries to return, unlimited when omitted
+     * @param after     the (string) key of the last entry of the previous page
+     * @return a streaming NDJSON response
+     */
+    @GET()
+    @Path("/{storeName}/local/all")
+    @Produces(APPLICATION_NDJSON_LOW_QUALITY)
+    public Response streamAllLocal(@PathParam("storeName") final String storeName,
+                                   @QueryParam("partition") final Integer partition,
+                                   @QueryParam("limit") final Long limit,
+                                   @QueryParam("after") final String after) {
+        return streamLocal(storeName, partition, limit, after, (read, sink) -> readLocalPartition(storeName, read, sink));
+    }
+
+    /**
+     * Get the key-value pairs with keys between {@code from} and {@code to} (both inclusive) across all
+     * instances. Keys are converted to the store's key type before querying. Results are ordered by key
+     * within each partition, not across partitions.
+     *
+     * @param storeName store to query
+     * @param from      the lowest key to return, unbounded when omitted
+     * @param to        the highest key to return, unbounded when omitted
+     * @param reverse   whether to return keys in descending order within each partition
+     * @return A List of {@link KeyValueBean}s in the given key range
+     */
+    @GET()
+    @Path("/{storeName}/range")
+    @Produces(MediaType.APPLICATION_JSON)
+    public List<KeyValueBean> getRange(@PathParam("storeName") final String storeName,
+                                       @QueryParam("from") final String from,
+                                       @QueryParam("to") final String to,
+                                       @QueryParam("reverse") @DefaultValue("false") final boolean reverse) {
+        var result = getRangeLocal(storeName, from, to, reverse);
+        result.addAll(getAllRemote(storeName, STATE_SUB_PATH, "range" + queryString("from", from, "to", to, "reverse", reverse)));
+        return result;
+    }
+
+    /**
+     * Get the local key-value pairs with keys between {@code from} and {@code to} (both inclusive).
+     *
+     * @param storeName store to query
+     * @param from      the lowest key to return, unbounded when omitted
+     * @param to        the highest key to return, unbounded when omitted
+     * @param reverse   whether to return keys in descending order within each partition
+     * @return A List of {@link KeyValueBean}s in the given key range
+     */
+    @GET()
+    @Path("/{storeName}/local/range")
+    @Produces(MediaType.APPLICATION_JSON)
+    public List<KeyValueBean> getRangeLocal(@PathParam("storeName") final String storeName,
+                                            @QueryParam("from") final String from,
+                                            @QueryParam("to") final String to,
+                                            @QueryParam("reverse") @DefaultValue("false") final boolean reverse) {
+        final var lower = from != null ? typedKey(storeName, from) : null;
+        final var upper = to != null ? typedKey(storeName, to) : null;
+        var query = RangeQuery.<Object, Object>withRange(lower, upper);
+        if (reverse) query = query.withDescendingKeys();
+        final var result = new KeyValueBeans();
+        queryLocal(storeName, query, null, iterator -> collect(iterator, result));
+        return result.elements();
+    }
+
+    /**
+     * Get the key-value pairs whose key starts with a given prefix across all instances. Only stores with
+     * string keys support prefix scans.
+     *
+     * @param storeName store to query
+     * @param prefix    the key prefix
+     * @return A List of {@link KeyValueBean}s with keys starting with the prefix
+     */
+    @GET()
+    @Path("/{storeName}/prefix/{prefix}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public List<KeyValueBean> getPrefix(@PathParam("storeName") final String storeName,
+                                        @PathParam("prefix") final String prefix) {
+        var result = getPrefixLocal(storeName, prefix);
+        result.addAll(getAllRemote(storeName, STATE_SUB_PATH, "prefix/" + encodePathSegment(prefix)));
+        return result;
+    }
+
+    /**
+     * Get the local key-value pairs whose key starts with a given prefix. Only stores with string keys
+     * support prefix scans.
+     *
+     * @param storeName store to query
+     * @param prefix    the key prefix
+     * @return A List of {@link KeyValueBean}s with keys starting with the prefix
+     */
+    @GET()
+    @Path("/{storeName}/local/prefix/{prefix}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public List<KeyValueBean> getPrefixLocal(@PathParam("storeName") final String storeName,
+                                             @PathParam("prefix") final String prefix) {
+        final var definition = querier().storeDefinition(storeName);
+        final var keyType = definition != null && definition.keyType() != null ? definition.keyType().dataType() : DataType.UNKNOWN;
+        if (keyType != DataType.UNKNOWN && !DataString.DATATYPE.equals(keyType)) {
+            throw new BadRequestException("Prefix scans are only supported on stores with string keys, store " + storeName + " has key type " + keyType);
+        }
+        // IQv2 has no prefix query, so the scan goes through the store's read-only interface
+        return getLocalRange(storeName, QueryableStoreTypes.<Object, Object>keyValueStore(),
+                store -> store.prefixScan(prefix, new StringSerializer())).elements();
+    }
+
     /**
      * Interface for fetching all store data
      *
@@ -71,18 +210,22 @@ public class KeyValueStoreResource extends StoreResource {
     @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML})
     public KeyValueBean getKey(@PathParam("storeName") final String storeName,
                                @PathParam("key") final String key) {
+        return GlobalState.INSTANCE.queryCache().get(storeName, key, () -> getKeyUncached(storeName, key));
+    }
+
+    private KeyValueBean getKeyUncached(final String storeName, final String key) {
         KeyQueryMetadata metadataForKey = querier().queryMetadataForKey(storeName, key, new StringSerializer());
 
         if (metadataForKey.activeHost().host().equals(thisInstance.host()) && metadataForKey.activeHost().port() == thisInstance.port()) {
-            log.info("Querying local store {} for key {}", storeName, key);
+            log.debug("Querying local store {} for key {}", storeName, key);
             var result = getKeyLocal(storeName, key);
-            log.info("Store data from local store {}", result);
+            log.debug("Store data from local store {}", result);
             return result;
         } else {
-            log.info("Querying remote store {} for key {}", storeName, key);
-            String url = "http://" + metadataForKey.activeHost().host() + ":" + metadataForKey.activeHost().port() + "/state/keyValue/" + storeName + "/local/get/" + key;
-            var result = restClient.getRemoteKeyValueBean(url, KeyValueBean.class);
-            log.info("Store data from remote store at {} == {}", url, result);
+            log.debug("Querying remote store {} for key {}", storeName, key);
+            String url = "http://" + metadataForKey.activeHost().host() + ":" + metadataForKey.activeHost().port() + "/state/" + STATE_SUB_PATH + "/" + storeName + "/local/get/" + key;
+            var result = ScatterGather.timed(metadataForKey.activeHost(), () -> restClient.getRemoteKeyValueBean(url, KeyValueBean.class));
+            log.debug("Store data from remote store at {} == {}", url, result);
             return result;
         }
     }
@@ -97,11 +240,18 @@ public class KeyValueStoreResource extends StoreResource {
     @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML})
     public KeyValueBean getKeyLocal(@PathParam("storeName") final String storeName,
                                     @PathParam("key") final String key) {
-        log.info("Querying local store {} for key {}", storeName, key);
+        log.debug("Querying local store {} for key {}", storeName, key);
         var stateStore = getStore(
                 StoreQueryParameters.fromNameAndType(storeName, QueryableStoreTypes.keyValueStore()));
         Object value = stateStore.get(key);
-        log.info("Found value {}", value);
+        log.debug("Found value {}", value);
         return new KeyValueBean(NATIVE_MAPPER.toDataObject(key), NATIVE_MAPPER.toDataObject(value));
     }
+
+    private void readLocalPartition(final String storeName, final PartitionRead read, final Predicate<String> sink) {
+        readLocalPartition(storeName, QueryableStoreTypes.<Object, Object>keyValueStore(), read,
+                (store, after) -> after != null ? store.range(after, null) : store.all(),
+                element -> new KeyValueBean(NATIVE_MAPPER.toDataObject(element.key), NATIVE_MAPPER.toDataObject(element.value)),
+                sink);
+    }
 }
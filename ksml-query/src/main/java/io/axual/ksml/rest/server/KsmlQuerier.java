@@ -20,10 +20,13 @@ package io.axual.ksml.rest.server;
  * =========================LICENSE_END==================================
  */
 
+import io.axual.ksml.definition.StateStoreDefinition;
 import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.streams.KeyQueryMetadata;
 import org.apache.kafka.streams.StoreQueryParameters;
 import org.apache.kafka.streams.StreamsMetadata;
+import org.apache.kafka.streams.query.StateQueryRequest;
+import org.apache.kafka.streams.query.StateQueryResult;
 
 import java.util.Collection;
 
@@ -61,6 +64,23 @@ public interface KsmlQuerier {
      */
     <T> T store(StoreQueryParameters<T> storeQueryParameters);
 
+    /**
+     * Run an interactive query (IQv2) against the local instance
+     *
+     * @param request the query request, including the store name and the partitions to query
+     * @param <R>     the type of the query result
+     * @return the query result per queried partition
+     */
+    <R> StateQueryResult<R> query(StateQueryRequest<R> request);
+
+    /**
+     * Get the KSML definition of a store, which holds its declared key and value types
+     *
+     * @param storeName the name of the store
+     * @return the store definition, or null if the store is not known to KSML
+     */
+    StateStoreDefinition storeDefinition(String storeName);
+
     /**
      * Get the {@link ComponentState} for the Kafka Streams component of KSML
      *
@@ -0,0 +1,50 @@
+package io.axual.ksml.rest.server;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML Queryable State Store
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.ext.Provider;
+
+import java.util.stream.Collectors;
+
+/**
+ * Marks responses that are missing the data of one or more remote instances, by listing the instances
+ * that could not be queried in the {@value #UNAVAILABLE_HOSTS_HEADER} header.
+ */
+@Provider
+public class PartialResultFilter implements ContainerResponseFilter {
+    public static final String UNAVAILABLE_HOSTS_HEADER = "X-KSML-Unavailable-Hosts";
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        for (final var resource : requestContext.getUriInfo().getMatchedResources()) {
+            if (resource instanceof StoreResource storeResource && !storeResource.unavailableHosts().isEmpty()) {
+                final var hosts = storeResource.unavailableHosts().stream()
+                        .map(host -> host.host() + ":" + host.port())
+                        .sorted()
+                        .collect(Collectors.joining(","));
+                responseContext.getHeaders().putSingle(UNAVAILABLE_HOSTS_HEADER, hosts);
+            }
+        }
+    }
+}
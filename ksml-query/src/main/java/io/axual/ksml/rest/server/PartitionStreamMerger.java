@@ -0,0 +1,213 @@
+package io.axual.ksml.rest.server;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML Queryable State Store
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.streams.state.HostInfo;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Streams NDJSON lines from a list of store partitions to an output stream, in partition order.
+ * Up to {@code parallelism} partitions are read ahead concurrently, each into a bounded buffer, so
+ * remote instances are queried in parallel while memory use stays fixed regardless of store size.
+ * <p>
+ * When a partition can not be read completely, a final error line is written after the entries, for
+ * example {@code {"error":"Partial result","partitions":[1]}}, so callers can tell the result is
+ * incomplete. An error line received from a remote instance marks the partition it was read for as
+ * failed, instead of being passed on as an entry.
+ */
+@Slf4j
+public class PartitionStreamMerger {
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+    // Lines are JSON objects, so an empty string can never be a regular line
+    private static final String END_OF_PARTITION = "";
+    private static final byte[] NEWLINE = "\n".getBytes(StandardCharsets.UTF_8);
+    // Entry lines start with a "key" or "window" field, so this prefix only matches error lines
+    public static final String ERROR_LINE_PREFIX = "{\"error\":";
+
+    /**
+     * Reads the lines of a single partition and hands them to a sink. Reading stops as soon as the
+     * sink returns {@code false}.
+     */
+    @FunctionalInterface
+    public interface PartitionReader {
+        void read(PartitionRead read, Predicate<String> sink) throws Exception;
+    }
+
+    /**
+     * A single partition to read from a given instance, optionally continuing after a given key.
+     *
+     * @param host             the instance to read the partition from
+     * @param partition        the store partition
+     * @param after            the key after which reading continues, or {@code null} to read from the start
+     * @param afterWindowStart for windowed stores, the start of the window of the {@code after} key after which
+     *                         reading continues, or {@code null} to continue after all windows of that key
+     */
+    public record PartitionRead(HostInfo host, int partition, String after, Long afterWindowStart) {
+        public PartitionRead(HostInfo host, int partition, String after) {
+            this(host, partition, after, null);
+        }
+    }
+
+    private final int parallelism;
+    private final int bufferSize;
+
+    public PartitionStreamMerger(int parallelism, int bufferSize) {
+        this.parallelism = Math.max(1, parallelism);
+        this.bufferSize = Math.max(1, bufferSize);
+    }
+
+    /**
+     * Write the lines of all given partitions to the output, one line per entry.
+     *
+     * @param reads  the partitions to read, in the order they should appear in the output
+     * @param reader the reader used to fetch the lines of a partition
+     * @param limit  the maximum number of lines to write
+     * @param output the stream to write to
+     * @return the number of entry lines written, not counting a final error line
+     * @throws IOException when writing to the output fails
+     */
+    public long stream(List<PartitionRead> reads, PartitionReader reader, long limit, OutputStream output) throws IOException {
+        final var pending = new ArrayDeque<PartitionBuffer>();
+        final var remaining = reads.iterator();
+        final var failed = new TreeSet<Integer>();
+        long written = 0;
+        try {
+            while (written < limit && (remaining.hasNext() || !pending.isEmpty())) {
+                // Keep reading ahead on the next partitions while the head partition is being written
+                while (pending.size() < parallelism && remaining.hasNext()) {
+                    pending.add(new PartitionBuffer(remaining.next(), reader));
+                }
+                try (final var head = pending.poll()) {
+                    var line = head.take();
+                    while (written < limit && !line.isEmpty()) {
+                        writeLine(output, line);
+                        written++;
+                        line = head.take();
+                    }
+                    if (line.isEmpty() && head.failed()) failed.add(head.read.partition());
+                }
+                output.flush();
+            }
+            if (!failed.isEmpty()) {
+                writeLine(output, errorLine(failed));
+                output.flush();
+            }
+        } finally {
+            pending.forEach(PartitionBuffer::close);
+        }
+        return written;
+    }
+
+    /**
+     * Write a single line of NDJSON output.
+     *
+     * @param output the stream to write to
+     * @param line   the line, without the trailing newline
+     * @throws IOException when writing fails
+     */
+    public static void writeLine(OutputStream output, String line) throws IOException {
+        output.write(line.getBytes(StandardCharsets.UTF_8));
+        output.write(NEWLINE);
+    }
+
+    private static String errorLine(Collection<Integer> partitions) {
+        return ERROR_LINE_PREFIX + "\"Partial result\",\"partitions\":" + partitions.stream().map(String::valueOf).collect(Collectors.joining(",", "[", "]")) + "}";
+    }
+
+    private class PartitionBuffer implements AutoCloseable {
+        private final BlockingQueue<String> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final PartitionRead read;
+        private final Future<?> task;
+        // Written before the end marker is queued, so it is visible once the end marker is taken
+        private volatile boolean failed = false;
+
+        PartitionBuffer(PartitionRead read, PartitionReader reader) {
+            this.read = read;
+            task = EXECUTOR.submit(() -> fill(reader));
+        }
+
+        private void fill(PartitionReader reader) {
+            try {
+                reader.read(read, line -> {
+                    if (line.startsWith(ERROR_LINE_PREFIX)) {
+                        log.warn("Reading partition {} from {}:{} returned an error: {}", read.partition(), read.host().host(), read.host().port(), line);
+                        failed = true;
+                        return false;
+                    }
+                    try {
+                        queue.put(line);
+                        return true;
+                    } catch (InterruptedException _) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                });
+            } catch (Exception e) {
+                // The response is already streaming, so a failing partition is reported in the final error line
+                failed = true;
+                log.warn("Reading partition {} from {}:{} failed, its entries are missing from the result", read.partition(), read.host().host(), read.host().port(), e);
+            } finally {
+                if (!Thread.currentThread().isInterrupted()) {
+                    try {
+                        queue.put(END_OF_PARTITION);
+                    } catch (InterruptedException _) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        }
+
+        boolean failed() {
+            return failed;
+        }
+
+        String take() throws InterruptedIOException {
+            try {
+                return queue.take();
+            } catch (InterruptedException _) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while streaming store entries");
+            }
+        }
+
+        @Override
+        public void close() {
+            // Interrupts a reader that is blocked on a full buffer, which closes its store iterator
+            task.cancel(true);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package io.axual.ksml.rest.server;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML Queryable State Store
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import com.codahale.metrics.Counter;
+import io.axual.ksml.metric.MetricName;
+import io.axual.ksml.metric.MetricTags;
+import io.axual.ksml.metric.Metrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache for single-key store queries, shared by all requests. Every store gets its own
+ * bounded cache, which evicts the least recently used keys first. Cached values are only invalidated by
+ * their time to live: writes to the store, restores and rebalances do not clear them, so a cached value may
+ * be at most that long behind the store. Hits and misses are counted in the {@code query-cache-hits} and
+ * {@code query-cache-misses} metrics per store.
+ */
+@Slf4j
+public class QueryCache {
+    private final QueryCacheSettings settings;
+    private final LongSupplier nanoClock;
+    private final Map<String, StoreCache> storeCaches = new ConcurrentHashMap<>();
+
+    public QueryCache(QueryCacheSettings settings) {
+        this(settings, System::nanoTime);
+    }
+
+    // For testing
+    QueryCache(QueryCacheSettings settings, LongSupplier nanoClock) {
+        this.settings = settings != null ? settings : QueryCacheSettings.DISABLED;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Get the value of a key from the cache, or load it and cache the result when the key is missing or
+     * expired. Lookups in stores that are not cached always go to the loader. A {@code null} result is
+     * not cached.
+     *
+     * @param storeName the store name
+     * @param key       the key as passed in the request
+     * @param loader    looks up the key in the store
+     * @return the cached or loaded value
+     */
+    public <V> V get(String storeName, String key, Supplier<V> loader) {
+        if (!settings.appliesTo(storeName)) return loader.get();
+        return storeCaches.computeIfAbsent(storeName, StoreCache::new).get(key, loader);
+    }
+
+    private record Entry(Object value, long expiresAt) {
+    }
+
+    private class StoreCache {
+        private final Map<String, Entry> entries;
+        private final Counter hits;
+        private final Counter misses;
+
+        StoreCache(String storeName) {
+            entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    return size() > settings.maxEntries();
+                }
+            };
+            final var tags = new MetricTags().append("store-name", storeName);
+            hits = counter(new MetricName("query-cache-hits", tags));
+            misses = counter(new MetricName("query-cache-misses", tags));
+        }
+
+        @SuppressWarnings("unchecked")
+        <V> V get(String key, Supplier<V> loader) {
+            final var now = nanoClock.getAsLong();
+            synchronized (entries) {
+                final var entry = entries.get(key);
+                if (entry != null && entry.expiresAt() - now > 0) {
+                    hits.inc();
+                    return (V) entry.value();
+                }
+            }
+            misses.inc();
+            // The store is read outside the lock, so concurrent misses on the same key may both load it
+            final var value = loader.get();
+            if (value != null) {
+                synchronized (entries) {
+                    entries.put(key, new Entry(value, now + settings.ttl().toNanos()));
+                }
+            }
+            return value;
+        }
+    }
+
+    private static synchronized Counter counter(MetricName metricName) {
+        final var counter = Metrics.registry().getCounter(metricName);
+        return counter != null ? counter : Metrics.registry().registerCounter(metricName);
+    }
+}
@@ -0,0 +1,49 @@
+package io.axual.ksml.rest.server;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML Queryable State Store
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Controls the read-through cache for single-key store queries.
+ *
+ * @param enabled    whether key lookups are cached
+ * @param maxEntries the maximum number of cached keys per store, the least recently used keys are evicted first
+ * @param ttl        how long a cached value may be served before it is looked up again
+ * @param stores     the stores to cache, all stores when empty
+ */
+public record QueryCacheSettings(boolean enabled, int maxEntries, Duration ttl, Set<String> stores) {
+    public static final QueryCacheSettings DISABLED = new QueryCacheSettings(false, 0, Duration.ZERO, Set.of());
+
+    public QueryCacheSettings {
+        stores = stores != null ? Set.copyOf(stores) : Set.of();
+        ttl = ttl != null ? ttl : Duration.ZERO;
+    }
+
+    /**
+     * @param storeName the store name
+     * @return whether lookups in the store are cached
+     */
+    public boolean appliesTo(String storeName) {
+        return enabled && maxEntries > 0 && ttl.isPositive() && (stores.isEmpty() || stores.contains(storeName));
+    }
+}
@@ -0,0 +1,37 @@
+package io.axual.ksml.rest.server;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML Queryable State Store
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import java.time.Duration;
+
+/**
+ * Controls how store queries are fanned out to the other instances of the application.
+ *
+ * @param parallel whether remote instances are queried concurrently instead of one after the other
+ * @param timeout  how long to wait for a single remote instance before leaving it out of the result
+ */
+public record RemoteQuerySettings(boolean parallel, Duration timeout) {
+    public static final RemoteQuerySettings DEFAULT = new RemoteQuerySettings(true, RestClient.DEFAULT_TIMEOUT);
+
+    public RemoteQuerySettings {
+        if (timeout == null || timeout.isNegative() || timeout.isZero()) timeout = RestClient.DEFAULT_TIMEOUT;
+    }
+}
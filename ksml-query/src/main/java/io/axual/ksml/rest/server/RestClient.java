@@ -27,27 +27,77 @@ import jakarta.ws.rs.ServiceUnavailableException;
 import jakarta.ws.rs.client.Client;
 import jakarta.ws.rs.client.ClientBuilder;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
 import lombok.extern.slf4j.Slf4j;
+import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.ClientProperties;
+import org.glassfish.jersey.client.filter.EncodingFilter;
+import org.glassfish.jersey.jnh.connector.JavaNetHttpConnectorProvider;
+import org.glassfish.jersey.message.GZipEncoder;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
 
+/**
+ * Client for the REST API of other KSML instances. Unless a client is passed in, all instances share a
+ * single JAX-RS client, backed by the JDK HTTP client, which keeps a pool of keep-alive connections to
+ * every remote instance and accepts gzip encoded responses.
+ */
 @Slf4j
 public class RestClient implements AutoCloseable {
-    private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(4);
+    static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(4);
     private static final String INTERRUPTED_MESSAGE = "Store data fetch from {} was interrupted";
     private static final String FAILED_MESSAGE = "Store data fetch from {} failed";
     private static final String TIMEOUT_MESSAGE = "Store data fetch from {} timed out";
-    private Client client = null;
+    private static Client sharedClient = null;
+    private final Client client;
+
+    public RestClient() {
+        this(null);
+    }
+
+    RestClient(Client client) {
+        this.client = client;
+    }
 
     private Client getRESTClient() {
-        if (client == null) {
-            client = ClientBuilder.newClient();
+        return client != null ? client : sharedClient();
+    }
+
+    private static synchronized Client sharedClient() {
+        if (sharedClient == null) {
+            final var config = new ClientConfig()
+                    .connectorProvider(new JavaNetHttpConnectorProvider())
+                    .property(ClientProperties.CONNECT_TIMEOUT, (int) DEFAULT_TIMEOUT.toMillis())
+                    .register(EncodingFilter.class)
+                    .register(GZipEncoder.class);
+            sharedClient = ClientBuilder.newBuilder()
+                    .withConfig(config)
+                    .executorService(Executors.newVirtualThreadPerTaskExecutor())
+                    .build();
+        }
+        return sharedClient;
+    }
+
+    /**
+     * Close the client shared by all instances, which closes its pooled connections. A new shared client
+     * is created when a remote instance is queried again.
+     */
+    public static synchronized void closeSharedClient() {
+        if (sharedClient != null) {
+            sharedClient.close();
+            sharedClient = null;
         }
-        return client;
     }
     /**
      * Fetch a page of key-value entries from a remote instance over REST, using the default timeout.
@@ -120,6 +170,30 @@ public class RestClient implements AutoCloseable {
         return new WindowedKeyValueBeans();
     }
 
+    /**
+     * Fetch a page of key-value entries from a remote instance over REST, reporting failures to the caller.
+     *
+     * @param url      remote key-value store endpoint URL
+     * @param duration how long to wait for the response before giving up
+     * @return the entries
+     * @throws ServiceUnavailableException if the remote call fails, times out or is interrupted
+     */
+    public KeyValueBeans fetchRemoteKeyValueBeans(String url, Duration duration) {
+        return getRemote(url, KeyValueBeans.class, duration);
+    }
+
+    /**
+     * Fetch a page of windowed key-value entries from a remote instance over REST, reporting failures to the caller.
+     *
+     * @param url      remote windowed-store endpoint URL
+     * @param duration how long to wait for the response before giving up
+     * @return the windowed entries
+     * @throws ServiceUnavailableException if the remote call fails, times out or is interrupted
+     */
+    public WindowedKeyValueBeans fetchRemoteWindowedKeyValueBeans(String url, Duration duration) {
+        return getRemote(url, WindowedKeyValueBeans.class, duration);
+    }
+
     /**
      * Fetch a single key-value entry from a remote instance over REST, using the default timeout.
      *
@@ -142,6 +216,10 @@ public class RestClient implements AutoCloseable {
      * @throws ServiceUnavailableException if the remote call fails, times out or is interrupted
      */
     public <T extends KeyValueBean> T getRemoteKeyValueBean(String url, Class<T> resultClass, Duration duration) {
+        return getRemote(url, resultClass, duration);
+    }
+
+    private <T> T getRemote(String url, Class<T> resultClass, Duration duration) {
         try {
             Future<T> storeDataFuture = getRESTClient().target(url)
                     .request(MediaType.APPLICATION_JSON)
@@ -161,6 +239,36 @@ public class RestClient implements AutoCloseable {
         }
     }
 
+    /**
+     * Stream NDJSON lines from a remote instance over REST, handing each line to the consumer as soon as
+     * it is read. The default timeout applies to connecting and to the wait for each next chunk of data,
+     * not to the stream as a whole.
+     *
+     * @param url          remote streaming endpoint URL
+     * @param lineConsumer receives every non-blank line, returns {@code false} to stop reading
+     * @throws IOException                 if reading the response fails
+     * @throws ServiceUnavailableException if the remote instance does not answer successfully
+     */
+    public void streamRemoteLines(String url, Predicate<String> lineConsumer) throws IOException {
+        try (final var response = getRESTClient().target(url)
+                .property(ClientProperties.CONNECT_TIMEOUT, (int) DEFAULT_TIMEOUT.toMillis())
+                .property(ClientProperties.READ_TIMEOUT, (int) DEFAULT_TIMEOUT.toMillis())
+                .request(StoreResource.APPLICATION_NDJSON)
+                .get()) {
+            if (response.getStatusInfo().getFamily() != Response.Status.Family.SUCCESSFUL) {
+                log.warn(FAILED_MESSAGE, url);
+                throw new ServiceUnavailableException("Remote store query failed with status " + response.getStatus());
+            }
+            try (final var reader = new BufferedReader(new InputStreamReader(response.readEntity(InputStream.class), StandardCharsets.UTF_8))) {
+                var line = reader.readLine();
+                while (line != null) {
+                    if (!line.isBlank() && !lineConsumer.test(line)) return;
+                    line = reader.readLine();
+                }
+            }
+        }
+    }
+
     @Override
     public void close() {
         if (client != null) {
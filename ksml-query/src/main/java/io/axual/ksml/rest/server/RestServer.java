@@ -28,7 +28,9 @@ import org.glassfish.grizzly.http.server.ServerConfiguration;
 import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpContainer;
 import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
 import org.glassfish.jersey.server.ContainerFactory;
+import org.glassfish.jersey.message.GZipEncoder;
 import org.glassfish.jersey.server.ResourceConfig;
+import org.glassfish.jersey.server.filter.EncodingFilter;
 import tools.jackson.databind.DeserializationFeature;
 import tools.jackson.databind.SerializationFeature;
 import tools.jackson.databind.json.JsonMapper;
@@ -42,7 +44,17 @@ public class RestServer implements AutoCloseable {
     private final HttpServer server;
 
     public RestServer(HostInfo hostInfo) {
+        this(hostInfo, RemoteQuerySettings.DEFAULT);
+    }
+
+    public RestServer(HostInfo hostInfo, RemoteQuerySettings remoteQuerySettings) {
+        this(hostInfo, remoteQuerySettings, QueryCacheSettings.DISABLED);
+    }
+
+    public RestServer(HostInfo hostInfo, RemoteQuerySettings remoteQuerySettings, QueryCacheSettings queryCacheSettings) {
         this.hostInfo = hostInfo;
+        GlobalState.INSTANCE.remoteQuerySettings(remoteQuerySettings);
+        GlobalState.INSTANCE.queryCache(new QueryCache(queryCacheSettings));
 
         // create JsonProvider to provide custom ObjectMapper
         var mapper = JsonMapper.builder()
@@ -59,8 +71,12 @@ public class RestServer implements AutoCloseable {
         rc.register(ReadyResource.class);
         rc.register(KeyValueStoreResource.class);
         rc.register(WindowedKeyValueStoreResource.class);
+        rc.register(SessionStoreResource.class);
         rc.register(RestServerExceptionMapper.class);
+        rc.register(PartialResultFilter.class);
         rc.register(provider);
+        // compress responses for clients that accept gzip, such as the other instances
+        EncodingFilter.enableFor(rc, GZipEncoder.class);
 
         // create Grizzly instance and add handler
         HttpHandler handler = ContainerFactory.createContainer(
@@ -95,5 +111,6 @@ public class RestServer implements AutoCloseable {
     @Override
     public void close() {
         server.shutdownNow();
+        RestClient.closeSharedClient();
     }
 }
@@ -0,0 +1,144 @@
+package io.axual.ksml.rest.server;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML Queryable State Store
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import com.codahale.metrics.Timer;
+import io.axual.ksml.metric.MetricName;
+import io.axual.ksml.metric.MetricTags;
+import io.axual.ksml.metric.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.streams.state.HostInfo;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Sends a query to a set of remote instances and collects their answers. Depending on the
+ * {@link RemoteQuerySettings}, instances are queried concurrently or one after the other. An instance
+ * that fails or does not answer within the timeout is left out of the result and reported as unavailable,
+ * so callers can return the partial result of the instances that did answer.
+ */
+@Slf4j
+public class ScatterGather {
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+    private static final String LATENCY_METRIC_NAME = "remote-query-time";
+    private static final Map<HostInfo, Timer> LATENCY_TIMERS = new ConcurrentHashMap<>();
+
+    /**
+     * The answers of the instances that were queried successfully, and the instances that were not.
+     *
+     * @param results          the answers, in the order of the queried instances
+     * @param unavailableHosts the instances that failed or timed out
+     */
+    public record Result<T>(List<T> results, List<HostInfo> unavailableHosts) {
+    }
+
+    private final RemoteQuerySettings settings;
+
+    public ScatterGather(RemoteQuerySettings settings) {
+        this.settings = settings != null ? settings : RemoteQuerySettings.DEFAULT;
+    }
+
+    /**
+     * Query all given instances.
+     *
+     * @param hosts the remote instances to query
+     * @param call  the query of a single instance, which receives the instance and the timeout to apply
+     * @return the collected answers and the instances that did not answer
+     */
+    public <T> Result<T> gather(Collection<HostInfo> hosts, BiFunction<HostInfo, Duration, T> call) {
+        return settings.parallel() && hosts.size() > 1 ? gatherParallel(hosts, call) : gatherSequential(hosts, call);
+    }
+
+    private <T> Result<T> gatherSequential(Collection<HostInfo> hosts, BiFunction<HostInfo, Duration, T> call) {
+        final var results = new ArrayList<T>();
+        final var unavailable = new ArrayList<HostInfo>();
+        for (final var host : hosts) {
+            try {
+                results.add(timed(host, () -> call.apply(host, settings.timeout())));
+            } catch (RuntimeException e) {
+                log.warn("Query of remote instance {}:{} failed: {}", host.host(), host.port(), e.getMessage());
+                unavailable.add(host);
+            }
+        }
+        return new Result<>(results, unavailable);
+    }
+
+    private <T> Result<T> gatherParallel(Collection<HostInfo> hosts, BiFunction<HostInfo, Duration, T> call) {
+        final var futures = new LinkedHashMap<HostInfo, Future<T>>();
+        for (final var host : hosts) {
+            futures.put(host, EXECUTOR.submit(() -> timed(host, () -> call.apply(host, settings.timeout()))));
+        }
+
+        // All instances are queried at the same time, so they share one deadline
+        final var deadline = System.nanoTime() + settings.timeout().toNanos();
+        final var results = new ArrayList<T>();
+        final var unavailable = new ArrayList<HostInfo>();
+        for (final var entry : futures.entrySet()) {
+            final var host = entry.getKey();
+            try {
+                results.add(entry.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException _) {
+                log.warn("Query of remote instance {}:{} timed out", host.host(), host.port());
+                entry.getValue().cancel(true);
+                unavailable.add(host);
+            } catch (ExecutionException e) {
+                log.warn("Query of remote instance {}:{} failed: {}", host.host(), host.port(), e.getCause().getMessage());
+                unavailable.add(host);
+            } catch (InterruptedException _) {
+                Thread.currentThread().interrupt();
+                futures.values().forEach(future -> future.cancel(true));
+                unavailable.add(host);
+            }
+        }
+        return new Result<>(results, unavailable);
+    }
+
+    /**
+     * Run a call to a remote instance and record its latency in the per-instance latency metric.
+     *
+     * @param host the remote instance
+     * @param call the call to time
+     * @return the result of the call
+     */
+    public static <T> T timed(HostInfo host, Supplier<T> call) {
+        return LATENCY_TIMERS.computeIfAbsent(host, ScatterGather::registerLatencyTimer).timeSupplier(call);
+    }
+
+    private static Timer registerLatencyTimer(HostInfo host) {
+        final var metricName = new MetricName(LATENCY_METRIC_NAME, new MetricTags().append("remote-host", host.host() + ":" + host.port()));
+        final var timer = Metrics.registry().getTimer(metricName);
+        return timer != null ? timer : Metrics.registry().registerTimer(metricName);
+    }
+}
@@ -0,0 +1,103 @@
+package io.axual.ksml.rest.server;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML Queryable State Store
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.rest.data.WindowedKeyValueBean;
+import io.axual.ksml.rest.data.WindowedKeyValueBeans;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.streams.query.WindowRangeQuery;
+
+import java.util.List;
+
+@Slf4j
+@Path("state/session")
+public class SessionStoreResource extends StoreResource {
+    private static final String STATE_SUB_PATH = "session";
+
+    /**
+     * Get the sessions of a key that overlap with a time range. The query is sent only to the instance
+     * that owns the key's partition.
+     *
+     * @param storeName store to query
+     * @param key       the key to fetch
+     * @param from      the earliest session end in epoch milliseconds, unbounded when omitted
+     * @param to        the latest session start in epoch milliseconds, unbounded when omitted
+     * @return A List of {@link WindowedKeyValueBean}s with one entry per session
+     */
+    @GET
+    @Path("/{storeName}/sessions/{key}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public List<WindowedKeyValueBean> getSessions(@PathParam("storeName") final String storeName,
+                                                  @PathParam("key") final String key,
+                                                  @QueryParam("from") final Long from,
+                                                  @QueryParam("to") final Long to) {
+        final var metadata = metadataForKey(storeName, typedKey(storeName, key));
+        if (metadata == null || metadata.activeHost().equals(thisInstance)) {
+            return getSessionsLocal(storeName, key, from, to);
+        }
+        final var url = "http://" + metadata.activeHost().host() + ":" + metadata.activeHost().port() + "/state/" + STATE_SUB_PATH + "/" + storeName + "/local/sessions/" + encodePathSegment(key)
+                + queryString("from", from, "to", to);
+        log.debug("Fetching sessions of key {} from remote store at {}", key, url);
+        return ScatterGather.timed(metadata.activeHost(), () -> restClient.getRemoteWindowedKeyValueBeans(url)).elements();
+    }
+
+    /**
+     * Get the local sessions of a key that overlap with a time range.
+     *
+     * @param storeName store to query
+     * @param key       the key to fetch
+     * @param from      the earliest session end in epoch milliseconds, unbounded when omitted
+     * @param to        the latest session start in epoch milliseconds, unbounded when omitted
+     * @return A List of {@link WindowedKeyValueBean}s with one entry per session
+     */
+    @GET
+    @Path("/{storeName}/local/sessions/{key}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public List<WindowedKeyValueBean> getSessionsLocal(@PathParam("storeName") final String storeName,
+                                                       @PathParam("key") final String key,
+                                                       @QueryParam("from") final Long from,
+                                                       @QueryParam("to") final Long to) {
+        final var typedKey = typedKey(storeName, key);
+        final var metadata = metadataForKey(storeName, typedKey);
+        final var earliest = from != null ? from : Long.MIN_VALUE;
+        final var latest = to != null ? to : Long.MAX_VALUE;
+        final var result = new WindowedKeyValueBeans();
+        // Session stores only support fetching all sessions of a key, so the time range is applied here
+        queryLocal(storeName, WindowRangeQuery.<Object, Object>withKey(typedKey), metadata != null ? metadata.partition() : null, iterator -> {
+            try (iterator) {
+                while (iterator.hasNext()) {
+                    final var element = iterator.next();
+                    final var session = element.key.window();
+                    if (session.end() >= earliest && session.start() <= latest) {
+                        result.add(session, NATIVE_MAPPER.toDataObject(element.key.key()), NATIVE_MAPPER.toDataObject(unwrap(element.value)));
+                    }
+                }
+            }
+        });
+        return result.elements();
+    }
+}
@@ -20,34 +20,77 @@ package io.axual.ksml.rest.server;
  * =========================LICENSE_END==================================
  */
 
+import io.axual.ksml.data.exception.DataException;
+import io.axual.ksml.data.mapper.DataObjectConverter;
 import io.axual.ksml.data.mapper.DataObjectFlattener;
 import io.axual.ksml.data.mapper.NativeDataObjectMapper;
+import io.axual.ksml.data.object.DataString;
+import io.axual.ksml.definition.WindowStateStoreDefinition;
+import io.axual.ksml.generator.StreamDataType;
 import io.axual.ksml.rest.data.KeyValueBean;
 import io.axual.ksml.rest.data.KeyValueBeans;
 import io.axual.ksml.rest.data.WindowedKeyValueBean;
 import io.axual.ksml.rest.data.WindowedKeyValueBeans;
+import io.axual.ksml.rest.server.PartitionStreamMerger.PartitionRead;
+import io.axual.ksml.rest.server.PartitionStreamMerger.PartitionReader;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.InternalServerErrorException;
 import jakarta.ws.rs.NotFoundException;
 import jakarta.ws.rs.ServiceUnavailableException;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.KeyQueryMetadata;
 import org.apache.kafka.streams.KeyValue;
 import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.errors.InvalidStateStorePartitionException;
 import org.apache.kafka.streams.errors.UnknownStateStoreException;
 import org.apache.kafka.streams.kstream.Windowed;
+import org.apache.kafka.streams.query.Query;
+import org.apache.kafka.streams.query.QueryResult;
+import org.apache.kafka.streams.query.StateQueryRequest;
 import org.apache.kafka.streams.state.HostInfo;
 import org.apache.kafka.streams.state.KeyValueIterator;
 import org.apache.kafka.streams.state.QueryableStoreType;
+import org.apache.kafka.streams.state.ValueAndTimestamp;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 @Slf4j
 public class StoreResource implements AutoCloseable {
     private static final String QUERYING_MESSAGE = "Querying remote stores....";
     private static final String COMPLETE_STORE_STATE_MESSAGE = "Complete store state {}";
     protected static final NativeDataObjectMapper NATIVE_MAPPER = new DataObjectFlattener();
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+    // Lower server-side quality, so clients that accept anything keep getting the JSON list response
+    protected static final String APPLICATION_NDJSON_LOW_QUALITY = APPLICATION_NDJSON + ";qs=0.5";
+    private static final JsonMapper LINE_MAPPER = JsonMapper.builder().build();
+    private static final DataObjectConverter KEY_CONVERTER = new DataObjectConverter();
+    private static final int STREAM_PARALLELISM = 8;
+    private static final int STREAM_BUFFER_SIZE = 256;
     protected final HostInfo thisInstance = GlobalState.INSTANCE.hostInfo();
     protected final RestClient restClient = new RestClient();
+    protected final PartitionStreamMerger merger = new PartitionStreamMerger(STREAM_PARALLELISM, STREAM_BUFFER_SIZE);
+    protected final ScatterGather scatterGather = new ScatterGather(GlobalState.INSTANCE.remoteQuerySettings());
+    // Resources are created per request, so this only holds the instances missing from the current response
+    private final Set<HostInfo> unavailableHosts = ConcurrentHashMap.newKeySet();
 
     protected KsmlQuerier querier() {
         return Optional.ofNullable(GlobalState.INSTANCE.querier()).orElseThrow(ServiceUnavailableException::new);
@@ -106,21 +149,411 @@ public class StoreResource implements AutoCloseable {
     }
 
     protected List<KeyValueBean> getAllRemote(String storeName, String stateSubPath) {
+        return getAllRemote(storeName, stateSubPath, "all");
+    }
+
+    /**
+     * Run a local query on every remote instance that hosts the store and combine the results.
+     *
+     * @param storeName    store to query
+     * @param stateSubPath the resource path of the store type
+     * @param localQuery   the path of the query below the remote instance's {@code local} endpoint, including query parameters
+     * @return the combined results of all remote instances
+     */
+    protected List<KeyValueBean> getAllRemote(String storeName, String stateSubPath, String localQuery) {
+        return gatherRemote(storeName, stateSubPath, localQuery, (url, timeout) -> restClient.fetchRemoteKeyValueBeans(url, timeout).elements());
+    }
+
+    /**
+     * Run a local query on every remote instance that hosts the store and combine the results. Instances
+     * that fail or time out are left out and reported through {@link #unavailableHosts()}.
+     *
+     * @param storeName    store to query
+     * @param stateSubPath the resource path of the store type
+     * @param localQuery   the path of the query below the remote instance's {@code local} endpoint, including query parameters
+     * @param fetch        fetches the result from a remote URL, applying the given timeout
+     * @return the combined results of the remote instances that answered
+     */
+    protected <B> List<B> gatherRemote(String storeName, String stateSubPath, String localQuery, BiFunction<String, Duration, List<B>> fetch) {
         log.debug(QUERYING_MESSAGE);
-        var result = new KeyValueBeans();
-        querier().allMetadataForStore(storeName)
-                .stream()
-                .filter(sm -> !(sm.host().equals(thisInstance.host()) && sm.port() == thisInstance.port())) //only query remote node stores
-                .forEach(remoteInstance -> {
-                    String url = "http://" + remoteInstance.host() + ":" + remoteInstance.port() + "/state/" + stateSubPath + "/" + storeName + "/local/all";
-                    log.debug("Fetching remote store at {}:{}", remoteInstance.host(), remoteInstance.port());
-                    KeyValueBeans remoteResult = restClient.getRemoteKeyValueBeans(url);
-                    log.debug("Data from remote store at {}:{} == {}", remoteInstance.host(), remoteInstance.port(), remoteResult);
-                    result.add(remoteResult);
-                });
+        final var remoteInstances = querier().allMetadataForStore(storeName).stream()
+                .map(sm -> new HostInfo(sm.host(), sm.port()))
+                .filter(host -> !isThisInstance(host)) //only query remote node stores
+                .toList();
+        final var gathered = scatterGather.gather(remoteInstances, (remoteInstance, timeout) -> {
+            String url = "http://" + remoteInstance.host() + ":" + remoteInstance.port() + "/state/" + stateSubPath + "/" + storeName + "/local/" + localQuery;
+            log.debug("Fetching remote store at {}:{}", remoteInstance.host(), remoteInstance.port());
+            final var remoteResult = fetch.apply(url, timeout);
+            log.debug("Data from remote store at {}:{} == {}", remoteInstance.host(), remoteInstance.port(), remoteResult);
+            return remoteResult;
+        });
+        unavailableHosts.addAll(gathered.unavailableHosts());
 
+        final var result = new ArrayList<B>();
+        gathered.results().forEach(result::addAll);
         log.debug(COMPLETE_STORE_STATE_MESSAGE, result);
-        return result.elements();
+        return result;
+    }
+
+    /**
+     * @return the remote instances that could not be queried while handling the current request
+     */
+    public Set<HostInfo> unavailableHosts() {
+        return unavailableHosts;
+    }
+
+    /**
+     * Convert a key from a request into the key type the store was declared with, using the converter of
+     * the key type's notation. Stores unknown to KSML keep using plain string keys.
+     *
+     * @param storeName the store name
+     * @param key       the key as passed in the request
+     * @return the typed key
+     * @throws BadRequestException if the key can not be converted to the store's key type
+     */
+    protected Object typedKey(final String storeName, final String key) {
+        final var definition = querier().storeDefinition(storeName);
+        if (definition == null || definition.keyType() == null) return key;
+        try {
+            final var result = KEY_CONVERTER.convert(definition.keyType().notation(), new DataString(key), definition.keyType());
+            if (result == null) throw new DataException("No conversion result");
+            return NATIVE_MAPPER.fromDataObject(result);
+        } catch (DataException e) {
+            throw new BadRequestException("Key \"" + key + "\" does not match key type " + definition.keyType() + " of store " + storeName, e);
+        }
+    }
+
+    /**
+     * Look up which instance and partition hold a key, serializing the key the same way the store does.
+     *
+     * @param storeName the store name
+     * @param key       the key, typed through {@link #typedKey(String, String)}
+     * @return the key's metadata, or {@code null} if it is not available
+     */
+    protected KeyQueryMetadata metadataForKey(final String storeName, final Object key) {
+        final var definition = querier().storeDefinition(storeName);
+        final var metadata = definition != null && definition.keyType() != null
+                ? querier().queryMetadataForKey(storeName, key, new StreamDataType(definition.keyType(), true).serde().serializer())
+                : querier().queryMetadataForKey(storeName, key.toString(), new StringSerializer());
+        if (metadata == null || metadata.activeHost() == null || metadata.partition() < 0) return null;
+        return metadata;
+    }
+
+    /**
+     * Run an interactive query (IQv2) against the active local partitions of a store. Partitions that
+     * are not active on this instance are skipped.
+     *
+     * @param storeName      the store name
+     * @param query          the query to run
+     * @param partition      the only partition to query, or {@code null} to query all local partitions
+     * @param resultConsumer receives the successful result of every queried partition
+     * @throws NotFoundException   if the store does not exist
+     * @throws BadRequestException if the store does not support the query
+     */
+    protected <R> void queryLocal(final String storeName, final Query<R> query, final Integer partition, final Consumer<R> resultConsumer) {
+        var request = StateQueryRequest.inStore(storeName).withQuery(query).requireActive();
+        request = partition != null ? request.withPartitions(Set.of(partition)) : request.withAllPartitions();
+        final var result = Optional.ofNullable(querier().query(request)).orElseThrow(ServiceUnavailableException::new);
+        if (result.getGlobalResult() != null) {
+            handleQueryResult(storeName, -1, result.getGlobalResult(), resultConsumer);
+        }
+        result.getPartitionResults().forEach((p, partitionResult) -> handleQueryResult(storeName, p, partitionResult, resultConsumer));
+    }
+
+    private static <R> void handleQueryResult(final String storeName, final int partition, final QueryResult<R> result, final Consumer<R> resultConsumer) {
+        if (result.isSuccess()) {
+            resultConsumer.accept(result.getResult());
+            return;
+        }
+        switch (result.getFailureReason()) {
+            case NOT_ACTIVE, NOT_PRESENT ->
+                    log.debug("Partition {} of store {} is not active on this instance", partition, storeName);
+            case UNKNOWN_QUERY_TYPE ->
+                    throw new BadRequestException("Store " + storeName + " does not support this query: " + result.getFailureMessage());
+            case DOES_NOT_EXIST -> throw new NotFoundException("Could not find store " + storeName);
+            default ->
+                    throw new InternalServerErrorException("Query on partition " + partition + " of store " + storeName + " failed: " + result.getFailureMessage());
+        }
+    }
+
+    /**
+     * Collect the entries of a key-value iterator from an interactive query, closing the iterator afterwards.
+     *
+     * @param iterator the iterator to read
+     * @param result   the beans to add the entries to
+     */
+    protected static <K, V> void collect(final KeyValueIterator<K, V> iterator, final KeyValueBeans result) {
+        try (iterator) {
+            while (iterator.hasNext()) {
+                final var element = iterator.next();
+                result.add(NATIVE_MAPPER.toDataObject(element.key), NATIVE_MAPPER.toDataObject(unwrap(element.value)));
+            }
+        }
+    }
+
+    /**
+     * Stores materialized by the DSL keep a timestamp next to each value, which is left out of query results.
+     *
+     * @param value a store value
+     * @return the value without its timestamp
+     */
+    protected static Object unwrap(final Object value) {
+        return value instanceof ValueAndTimestamp<?> valueAndTimestamp ? valueAndTimestamp.value() : value;
+    }
+
+    /**
+     * @param storeName the store name
+     * @return the declared window size of a window store in milliseconds, or 0 when unknown
+     */
+    protected long windowSizeMs(final String storeName) {
+        return querier().storeDefinition(storeName) instanceof WindowStateStoreDefinition windowStore
+                ? windowStore.windowSize().toMillis()
+                : 0;
+    }
+
+    protected static String encode(final String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    protected static String encodePathSegment(final String value) {
+        // URLEncoder targets form data, where spaces become plus signs, which are literal in a path
+        return encode(value).replace("+", "%20");
+    }
+
+    /**
+     * Build a query string from the parameters that have a value.
+     *
+     * @param parameters alternating parameter names and values, values may be {@code null}
+     * @return the encoded query string including the leading {@code ?}, or an empty string
+     */
+    protected static String queryString(final Object... parameters) {
+        final var result = new StringBuilder();
+        for (int index = 0; index + 1 < parameters.length; index += 2) {
+            if (parameters[index + 1] == null) continue;
+            result.append(result.isEmpty() ? "?" : "&").append(parameters[index]).append("=").append(encode(parameters[index + 1].toString()));
+        }
+        return result.toString();
+    }
+
+    /**
+     * Stream the entries of a store across all instances as NDJSON, in partition order. Partitions are
+     * read ahead in parallel and each remote partition is streamed from its owning instance, so the
+     * store is never held in memory as a whole.
+     *
+     * @param storeName    store to query
+     * @param stateSubPath the resource path of the store type, used to build remote URLs
+     * @param limit        the maximum number of entries to return, or {@code null} for no limit
+     * @param after        the key of the last entry of the previous page, or {@code null} to start at the beginning
+     * @param localReader  the reader for partitions owned by this instance
+     * @return a streaming NDJSON response
+     */
+    protected Response streamAll(final String storeName,
+                                 final String stateSubPath,
+                                 final Long limit,
+                                 final String after,
+                                 final PartitionReader localReader) {
+        return streamAll(storeName, stateSubPath, limit, after, null, localReader);
+    }
+
+    /**
+     * Stream the entries of a windowed store across all instances as NDJSON, in partition order, continuing
+     * after a window of a key.
+     *
+     * @param storeName        store to query
+     * @param stateSubPath     the resource path of the store type, used to build remote URLs
+     * @param limit            the maximum number of entries to return, or {@code null} for no limit
+     * @param after            the key of the last entry of the previous page, or {@code null} to start at the beginning
+     * @param afterWindowStart the window start of the last entry of the previous page, or {@code null}
+     * @param localReader      the reader for partitions owned by this instance
+     * @return a streaming NDJSON response
+     */
+    protected Response streamAll(final String storeName,
+                                 final String stateSubPath,
+                                 final Long limit,
+                                 final String after,
+                                 final Long afterWindowStart,
+                                 final PartitionReader localReader) {
+        final var maxEntries = maxEntries(limit);
+        final var reads = planReads(storeName, partitionHosts(storeName), after, afterWindowStart);
+        final PartitionReader reader = (read, sink) -> {
+            if (isThisInstance(read.host())) {
+                localReader.read(read, sink);
+            } else {
+                log.debug("Streaming partition {} from remote store at {}:{}", read.partition(), read.host().host(), read.host().port());
+                restClient.streamRemoteLines(remotePartitionUrl(storeName, stateSubPath, read, maxEntries), sink);
+            }
+        };
+        final StreamingOutput output = stream -> merger.stream(reads, reader, maxEntries, stream);
+        return Response.ok(output, APPLICATION_NDJSON).build();
+    }
+
+    /**
+     * Stream the local entries of a store as NDJSON, in partition order.
+     *
+     * @param storeName   store to query
+     * @param partition   the single partition to read, or {@code null} for all local partitions
+     * @param limit       the maximum number of entries to return, or {@code null} for no limit
+     * @param after       the key of the last entry of the previous page, or {@code null} to start at the beginning
+     * @param localReader the reader for local partitions
+     * @return a streaming NDJSON response
+     */
+    protected Response streamLocal(final String storeName,
+                                   final Integer partition,
+                                   final Long limit,
+                                   final String after,
+                                   final PartitionReader localReader) {
+        return streamLocal(storeName, partition, limit, after, null, localReader);
+    }
+
+    /**
+     * Stream the local entries of a windowed store as NDJSON, in partition order, continuing after a window of
+     * a key.
+     *
+     * @param storeName        store to query
+     * @param partition        the single partition to read, or {@code null} for all local partitions
+     * @param limit            the maximum number of entries to return, or {@code null} for no limit
+     * @param after            the key of the last entry of the previous page, or {@code null} to start at the beginning
+     * @param afterWindowStart the window start of the last entry of the previous page, or {@code null}
+     * @param localReader      the reader for local partitions
+     * @return a streaming NDJSON response
+     */
+    protected Response streamLocal(final String storeName,
+                                   final Integer partition,
+                                   final Long limit,
+                                   final String after,
+                                   final Long afterWindowStart,
+                                   final PartitionReader localReader) {
+        final var maxEntries = maxEntries(limit);
+        final List<PartitionRead> reads;
+        if (partition != null) {
+            reads = List.of(new PartitionRead(thisInstance, partition, after, afterWindowStart));
+        } else {
+            final var localPartitions = new TreeMap<Integer, Set<HostInfo>>();
+            partitionHosts(storeName).forEach((p, hosts) -> {
+                if (hosts.stream().anyMatch(this::isThisInstance)) localPartitions.put(p, Set.of(thisInstance));
+            });
+            reads = planReads(storeName, localPartitions, after, afterWindowStart);
+        }
+        final StreamingOutput output = stream -> merger.stream(reads, localReader, maxEntries, stream);
+        return Response.ok(output, APPLICATION_NDJSON).build();
+    }
+
+    /**
+     * Read a single local partition of a store and hand every entry to the sink as a JSON line. When the
+     * read continues after a key, that key is typed like the range endpoints do and entries with that key
+     * are skipped. A partition that is not hosted by this instance for the given store is treated as empty.
+     *
+     * @param storeName     store to query
+     * @param storeType     the queryable store type
+     * @param read          the partition to read
+     * @param rangeFunction queries the store, receiving the typed key to start at or {@code null} for all entries
+     * @param converter     converts a store entry into a bean
+     * @param sink          receives the JSON lines, returns {@code false} to stop reading
+     */
+    protected <T, K, V> void readLocalPartition(final String storeName,
+                                                final QueryableStoreType<T> storeType,
+                                                final PartitionRead read,
+                                                final BiFunction<T, Object, KeyValueIterator<K, V>> rangeFunction,
+                                                final Function<KeyValue<K, V>, KeyValueBean> converter,
+                                                final Predicate<String> sink) {
+        final var store = getStore(StoreQueryParameters.fromNameAndType(storeName, storeType).withPartition(read.partition()));
+        final var typedAfter = read.after() != null ? typedKey(storeName, read.after()) : null;
+        final var afterKey = typedAfter != null ? NATIVE_MAPPER.toDataObject(typedAfter) : null;
+        try (final var range = rangeFunction.apply(store, typedAfter)) {
+            while (range.hasNext()) {
+                final var bean = converter.apply(range.next());
+                if (afterKey != null && afterKey.equals(bean.key())) continue;
+                if (!sink.test(toJsonLine(bean))) return;
+            }
+        } catch (InvalidStateStorePartitionException _) {
+            log.debug("Partition {} of store {} is not hosted locally", read.partition(), storeName);
+        }
+    }
+
+    /**
+     * Collect all candidate hosts per partition for a store. Streams metadata lists all partitions a host
+     * owns, not only those of the store, so a partition can have more than one candidate. Instances that
+     * do not host a partition for the store return no entries for it.
+     *
+     * @param storeName the store name
+     * @return the candidate hosts per partition, ordered by partition
+     */
+    protected SortedMap<Integer, Set<HostInfo>> partitionHosts(final String storeName) {
+        final var result = new TreeMap<Integer, Set<HostInfo>>();
+        for (final var metadata : querier().allMetadataForStore(storeName)) {
+            final var host = new HostInfo(metadata.host(), metadata.port());
+            metadata.topicPartitions().forEach(tp -> result.computeIfAbsent(tp.partition(), _ -> new LinkedHashSet<>()).add(host));
+        }
+        return result;
+    }
+
+    /**
+     * Plan the partition reads for a page. Entries are ordered by partition first and by key within a
+     * partition, so the partition of the {@code after} key determines where the page starts. The key is
+     * typed and serialized the same way the store does, so it maps to the partition the store put it in.
+     *
+     * @param storeName      the store name
+     * @param partitionHosts the candidate hosts per partition
+     * @param after          the key of the last entry of the previous page, or {@code null}
+     * @return the partition reads in output order
+     * @throws ServiceUnavailableException if the partition of the {@code after} key is not known yet
+     */
+    protected List<PartitionRead> planReads(final String storeName, final SortedMap<Integer, Set<HostInfo>> partitionHosts, final String after) {
+        return planReads(storeName, partitionHosts, after, null);
+    }
+
+    /**
+     * Plan the partition reads for a page of a windowed store, which continues after a window of the
+     * {@code after} key.
+     *
+     * @param storeName        the store name
+     * @param partitionHosts   the candidate hosts per partition
+     * @param after            the key of the last entry of the previous page, or {@code null}
+     * @param afterWindowStart the window start of the last entry of the previous page, or {@code null}
+     * @return the partition reads in output order
+     * @throws ServiceUnavailableException if the partition of the {@code after} key is not known yet
+     */
+    protected List<PartitionRead> planReads(final String storeName, final SortedMap<Integer, Set<HostInfo>> partitionHosts, final String after, final Long afterWindowStart) {
+        var afterPartition = -1;
+        if (after != null) {
+            final var metadata = metadataForKey(storeName, typedKey(storeName, after));
+            if (metadata == null) throw new ServiceUnavailableException("Partition of key \"" + after + "\" in store " + storeName + " is not available");
+            afterPartition = metadata.partition();
+        }
+        final var startPartition = afterPartition;
+        final var result = new ArrayList<PartitionRead>();
+        partitionHosts.tailMap(Math.max(startPartition, 0)).forEach((partition, hosts) ->
+                hosts.forEach(host -> result.add(partition == startPartition
+                        ? new PartitionRead(host, partition, after, afterWindowStart)
+                        : new PartitionRead(host, partition, null))));
+        return result;
+    }
+
+    protected boolean isThisInstance(final HostInfo host) {
+        return host.host().equals(thisInstance.host()) && host.port() == thisInstance.port();
+    }
+
+    protected static String toJsonLine(final KeyValueBean bean) {
+        final var line = new LinkedHashMap<String, Object>();
+        if (bean instanceof WindowedKeyValueBean windowed) line.put("window", windowed.window());
+        line.put("key", NATIVE_MAPPER.fromDataObject(bean.key()));
+        line.put("value", NATIVE_MAPPER.fromDataObject(bean.value()));
+        return LINE_MAPPER.writeValueAsString(line);
+    }
+
+    private static long maxEntries(final Long limit) {
+        if (limit == null) return Long.MAX_VALUE;
+        if (limit < 0) throw new BadRequestException("Limit must not be negative");
+        return limit;
+    }
+
+    private static String remotePartitionUrl(final String storeName, final String stateSubPath, final PartitionRead read, final long limit) {
+        final var url = new StringBuilder("http://" + read.host().host() + ":" + read.host().port() + "/state/" + stateSubPath + "/" + storeName + "/local/all")
+                .append("?partition=").append(read.partition());
+        if (limit != Long.MAX_VALUE) url.append("&limit=").append(limit);
+        if (read.after() != null) url.append("&after=").append(encode(read.after()));
+        if (read.afterWindowStart() != null) url.append("&afterWindowStart=").append(read.afterWindowStart());
+        return url.toString();
     }
 
     @Override
@@ -20,49 +20,79 @@ package io.axual.ksml.rest.server;
  * =========================LICENSE_END==================================
  */
 
+import io.axual.ksml.data.object.DataObject;
 import io.axual.ksml.rest.data.KeyValueBean;
+import io.axual.ksml.rest.data.WindowDataBean;
 import io.axual.ksml.rest.data.WindowedKeyValueBean;
+import io.axual.ksml.rest.data.WindowedKeyValueBeans;
+import io.axual.ksml.rest.server.PartitionStreamMerger.PartitionRead;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.apache.kafka.streams.KeyQueryMetadata;
 import org.apache.kafka.streams.KeyValue;
 import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.errors.InvalidStateStorePartitionException;
 import org.apache.kafka.streams.kstream.Windowed;
+import org.apache.kafka.streams.query.WindowKeyQuery;
 import org.apache.kafka.streams.state.QueryableStoreTypes;
 import org.apache.kafka.streams.state.ReadOnlyWindowStore;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
 
 @Slf4j
 @Path("state/windowed")
 public class WindowedKeyValueStoreResource extends StoreResource {
+    private static final String STATE_SUB_PATH = "windowed";
+    private static final Instant EARLIEST = Instant.ofEpochMilli(0);
+    private static final Instant LATEST = Instant.ofEpochMilli(Long.MAX_VALUE);
+    private static final Comparator<WindowedKeyValueBean> PAGE_ORDER = Comparator
+            .comparing((WindowedKeyValueBean bean) -> keyText(bean.key()))
+            .thenComparingLong(bean -> bean.window().start());
+
     @GET()
     @Path("/{storeName}/all")
     @Produces(MediaType.APPLICATION_JSON)
     public List<WindowedKeyValueBean> getAll(@PathParam("storeName") final String storeName) {
         var result = getAllLocal(storeName);
-        log.info("Querying remote stores....");
-        querier().allMetadataForStore(storeName)
-                .stream()
-                .filter(sm -> !(sm.host().equals(thisInstance.host()) && sm.port() == thisInstance.port())) //only query remote node stores
-                .forEach(remoteInstance -> {
-                    String url = "http://" + remoteInstance.host() + ":" + remoteInstance.port() + "/state/windowed/" + storeName + "/local/all";
-                    log.info("Fetching remote store at {}:{}", remoteInstance.host(), remoteInstance.port());
-                    List<WindowedKeyValueBean> remoteResult = restClient.getRemoteWindowedKeyValueBeans(url).elements();
-                    log.info("Data from remote store at {}:{} == {}", remoteInstance.host(), remoteInstance.port(), remoteResult);
-                    result.addAll(remoteResult);
-                });
-
-        log.info("Complete store state {}", result);
+        result.addAll(gatherRemote(storeName, STATE_SUB_PATH, "all", (url, timeout) -> restClient.fetchRemoteWindowedKeyValueBeans(url, timeout).elements()));
         return result;
     }
 
+    /**
+     * Stream the windowed key-value pairs of a store across all instances as NDJSON, one entry per line.
+     * With a limit, entries are ordered by partition, and by key and window start within a partition, so the
+     * key and window start of the last line can be passed as {@code after} and {@code afterWindowStart} to
+     * fetch the next page. Every page reads the whole partition, since window stores are not ordered by key.
+     *
+     * @param storeName        store to query
+     * @param limit            the maximum number of entries to return, unlimited when omitted
+     * @param after            the (string) key of the last entry of the previous page
+     * @param afterWindowStart the window start of the last entry of the previous page, all windows of the
+     *                         {@code after} key are skipped when omitted
+     * @return a streaming NDJSON response
+     */
+    @GET()
+    @Path("/{storeName}/all")
+    @Produces(APPLICATION_NDJSON_LOW_QUALITY)
+    public Response streamAll(@PathParam("storeName") final String storeName,
+                              @QueryParam("limit") final Long limit,
+                              @QueryParam("after") final String after,
+                              @QueryParam("afterWindowStart") final Long afterWindowStart) {
+        return streamAll(storeName, STATE_SUB_PATH, limit, after, afterWindowStart, (read, sink) -> readLocalPartition(storeName, read, limit, sink));
+    }
+
     /**
      * Get all the local key-value pairs available in a store
      *
@@ -77,6 +107,27 @@ public class WindowedKeyValueStoreResource extends StoreResource {
         return getLocalWindowRange(storeName, QueryableStoreTypes.windowStore(), ReadOnlyWindowStore::all).elements();
     }
 
+    /**
+     * Stream the local windowed key-value pairs of a store as NDJSON, one entry per line.
+     *
+     * @param storeName        store to query
+     * @param partition        the single partition to read, all local partitions when omitted
+     * @param limit            the maximum number of entries to return, unlimited when omitted
+     * @param after            the (string) key of the last entry of the previous page
+     * @param afterWindowStart the window start of the last entry of the previous page
+     * @return a streaming NDJSON response
+     */
+    @GET()
+    @Path("/{storeName}/local/all")
+    @Produces(APPLICATION_NDJSON_LOW_QUALITY)
+    public Response streamAllLocal(@PathParam("storeName") final String storeName,
+                                   @QueryParam("partition") final Integer partition,
+                                   @QueryParam("limit") final Long limit,
+                                   @QueryParam("after") final String after,
+                                   @QueryParam("afterWindowStart") final Long afterWindowStart) {
+        return streamLocal(storeName, partition, limit, after, afterWindowStart, (read, sink) -> readLocalPartition(storeName, read, limit, sink));
+    }
+
     /**
      * Interface for fetching all store data
      *
@@ -97,8 +148,8 @@ public class WindowedKeyValueStoreResource extends StoreResource {
             return result;
         } else {
             log.info("Querying remote store {} for key {}", storeName, key);
-            String url = "http://" + metadataForKey.activeHost().host() + ":" + metadataForKey.activeHost().port() + "/state/windowed/" + storeName + "/local/get/" + key + "/" + timestamp;
-            var result = restClient.getRemoteKeyValueBean(url, WindowedKeyValueBean.class);
+            String url = "http://" + metadataForKey.activeHost().host() + ":" + metadataForKey.activeHost().port() + "/state/" + STATE_SUB_PATH + "/" + storeName + "/local/get/" + key + "/" + timestamp;
+            var result = ScatterGather.timed(metadataForKey.activeHost(), () -> restClient.getRemoteKeyValueBean(url, WindowedKeyValueBean.class));
             log.info("Store data from remote store at {} == {}", url, result);
             return result;
         }
@@ -129,4 +180,111 @@ public class WindowedKeyValueStoreResource extends StoreResource {
         log.info("Found value {}", result);
         return result;
     }
+
+    /**
+     * Get all windows of a key that start within a time range. The query is sent only to the instance
+     * that owns the key's partition.
+     *
+     * @param storeName store to query
+     * @param key       the key to fetch
+     * @param from      the earliest window start in epoch milliseconds, unbounded when omitted
+     * @param to        the latest window start in epoch milliseconds, unbounded when omitted
+     * @return A List of {@link WindowedKeyValueBean}s for the key, ordered by window start
+     */
+    @GET
+    @Path("/{storeName}/fetch/{key}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public List<WindowedKeyValueBean> fetchKey(@PathParam("storeName") final String storeName,
+                                               @PathParam("key") final String key,
+                                               @QueryParam("from") final Long from,
+                                               @QueryParam("to") final Long to) {
+        final var metadata = metadataForKey(storeName, typedKey(storeName, key));
+        if (metadata == null || metadata.activeHost().equals(thisInstance)) {
+            return fetchKeyLocal(storeName, key, from, to);
+        }
+        final var url = "http://" + metadata.activeHost().host() + ":" + metadata.activeHost().port() + "/state/" + STATE_SUB_PATH + "/" + storeName + "/local/fetch/" + encodePathSegment(key)
+                + queryString("from", from, "to", to);
+        log.debug("Fetching windows of key {} from remote store at {}", key, url);
+        return ScatterGather.timed(metadata.activeHost(), () -> restClient.getRemoteWindowedKeyValueBeans(url)).elements();
+    }
+
+    /**
+     * Get all local windows of a key that start within a time range.
+     *
+     * @param storeName store to query
+     * @param key       the key to fetch
+     * @param from      the earliest window start in epoch milliseconds, unbounded when omitted
+     * @param to        the latest window start in epoch milliseconds, unbounded when omitted
+     * @return A List of {@link WindowedKeyValueBean}s for the key, ordered by window start
+     */
+    @GET
+    @Path("/{storeName}/local/fetch/{key}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public List<WindowedKeyValueBean> fetchKeyLocal(@PathParam("storeName") final String storeName,
+                                                    @PathParam("key") final String key,
+                                                    @QueryParam("from") final Long from,
+                                                    @QueryParam("to") final Long to) {
+        final var typedKey = typedKey(storeName, key);
+        final var metadata = metadataForKey(storeName, typedKey);
+        final var windowSize = windowSizeMs(storeName);
+        final var query = WindowKeyQuery.<Object, Object>withKeyAndWindowStartRange(typedKey,
+                from != null ? Instant.ofEpochMilli(from) : EARLIEST,
+                to != null ? Instant.ofEpochMilli(to) : LATEST);
+        final var result = new WindowedKeyValueBeans();
+        // Only the partition that holds the key needs to be queried
+        queryLocal(storeName, query, metadata != null ? metadata.partition() : null, iterator -> {
+            try (iterator) {
+                while (iterator.hasNext()) {
+                    final var element = iterator.next();
+                    final var window = new WindowDataBean(element.key, element.key + windowSize);
+                    result.add(new WindowedKeyValueBean(window, NATIVE_MAPPER.toDataObject(typedKey), NATIVE_MAPPER.toDataObject(unwrap(element.value))));
+                }
+            }
+        });
+        return result.elements();
+    }
+
+    // Window stores iterate segment by segment or window by window, not in key order, so a page can not continue
+    // where the store iteration of the previous page stopped. Every page therefore reads the whole partition with the
+    // same fetch, and keeps the first entries after the cursor in key and window start order. With a limit, at most
+    // that many entries are held in memory while reading. Without a limit there is no next page, so all entries after
+    // the cursor are streamed in the order of the store.
+    private void readLocalPartition(final String storeName, final PartitionRead read, final Long limit, final Predicate<String> sink) {
+        final var store = getStore(StoreQueryParameters.fromNameAndType(storeName, QueryableStoreTypes.<Object, Object>windowStore()).withPartition(read.partition()));
+        final var cursorKey = read.after() != null ? keyText(NATIVE_MAPPER.toDataObject(typedKey(storeName, read.after()))) : null;
+        // Without a window start, the page continues after all windows of the cursor key
+        final long cursorWindowStart = read.afterWindowStart() != null ? read.afterWindowStart() : Long.MAX_VALUE;
+        // The largest entry of the page is on top, so it is dropped first when the page is full
+        final var page = new PriorityQueue<>(PAGE_ORDER.reversed());
+        try (final var range = store.fetch(null, null, EARLIEST, LATEST)) {
+            while (range.hasNext()) {
+                final var element = range.next();
+                final var bean = new WindowedKeyValueBean(element.key.window(), NATIVE_MAPPER.toDataObject(element.key.key()), NATIVE_MAPPER.toDataObject(element.value));
+                if (cursorKey != null && isNotAfter(bean, cursorKey, cursorWindowStart)) continue;
+                if (limit == null) {
+                    if (!sink.test(toJsonLine(bean))) return;
+                    continue;
+                }
+                page.add(bean);
+                if (page.size() > limit) page.poll();
+            }
+        } catch (InvalidStateStorePartitionException _) {
+            log.debug("Partition {} of store {} is not hosted locally", read.partition(), storeName);
+            return;
+        }
+        final var sorted = new ArrayList<>(page);
+        sorted.sort(PAGE_ORDER);
+        for (final var bean : sorted) {
+            if (!sink.test(toJsonLine(bean))) return;
+        }
+    }
+
+    private static boolean isNotAfter(final WindowedKeyValueBean bean, final String cursorKey, final long cursorWindowStart) {
+        final var byKey = keyText(bean.key()).compareTo(cursorKey);
+        return byKey < 0 || (byKey == 0 && bean.window().start() <= cursorWindowStart);
+    }
+
+    private static String keyText(final DataObject key) {
+        return String.valueOf(NATIVE_MAPPER.fromDataObject(key));
+    }
 }
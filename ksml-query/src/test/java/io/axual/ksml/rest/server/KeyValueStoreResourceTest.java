@@ -20,15 +20,25 @@ package io.axual.ksml.rest.server;
  * =========================LICENSE_END==================================
  */
 
+import io.axual.ksml.data.object.DataInteger;
 import io.axual.ksml.data.object.DataString;
+import io.axual.ksml.definition.StateStoreDefinition;
 import io.axual.ksml.rest.data.KeyValueBean;
 import io.axual.ksml.rest.data.KeyValueBeans;
+import io.axual.ksml.type.UserType;
+import jakarta.ws.rs.BadRequestException;
 import jakarta.ws.rs.NotFoundException;
 import jakarta.ws.rs.ServiceUnavailableException;
+import jakarta.ws.rs.core.StreamingOutput;
 import org.apache.kafka.streams.KeyValue;
 import org.apache.kafka.streams.KeyQueryMetadata;
 import org.apache.kafka.streams.StreamsMetadata;
 import org.apache.kafka.streams.errors.UnknownStateStoreException;
+import org.apache.kafka.streams.query.FailureReason;
+import org.apache.kafka.streams.query.QueryResult;
+import org.apache.kafka.streams.query.RangeQuery;
+import org.apache.kafka.streams.query.StateQueryRequest;
+import org.apache.kafka.streams.query.StateQueryResult;
 import org.apache.kafka.streams.state.HostInfo;
 import org.apache.kafka.streams.state.KeyValueIterator;
 import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
@@ -41,13 +51,20 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockConstruction;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -74,6 +91,7 @@ class KeyValueStoreResourceTest {
     @AfterEach
     void clearGlobalState() {
         GlobalState.INSTANCE.set(null, null);
+        GlobalState.INSTANCE.queryCache(null);
     }
 
     @Test
@@ -116,6 +134,22 @@ class KeyValueStoreResourceTest {
         assertThat(result.value()).isEqualTo(new DataString("v1"));
     }
 
+    @Test
+    @DisplayName("getKey serves repeated lookups of a key from the query cache when it is enabled")
+    void getKeyUsesQueryCache() {
+        GlobalState.INSTANCE.queryCache(new QueryCache(new QueryCacheSettings(true, 10, Duration.ofMinutes(1), Set.of(STORE))));
+        when(querier.queryMetadataForKey(any(), any(), any())).thenReturn(metadataOnHost(LOCAL));
+        when(querier.store(any())).thenReturn(store);
+        when(store.get("k1")).thenReturn("v1");
+
+        final var resource = new KeyValueStoreResource();
+        resource.getKey(STORE, "k1");
+        final var result = resource.getKey(STORE, "k1");
+
+        assertThat(result.value()).isEqualTo(new DataString("v1"));
+        verify(store, times(1)).get("k1");
+    }
+
     @Test
     @DisplayName("getKey delegates to the remote REST client, hitting the key's local endpoint on the owning instance")
     void getKeyRoutesToRemoteInstance() {
@@ -163,7 +197,7 @@ class KeyValueStoreResourceTest {
         final var url = ArgumentCaptor.forClass(String.class);
 
         try (var _ = mockConstruction(RestClient.class,
-                (mock, ctx) -> when(mock.getRemoteKeyValueBeans(url.capture())).thenReturn(remoteBeans))) {
+                (mock, ctx) -> when(mock.fetchRemoteKeyValueBeans(url.capture(), any())).thenReturn(remoteBeans))) {
             final var result = new KeyValueStoreResource().getAll(STORE);
 
             assertThat(result).hasSize(2);
@@ -171,6 +205,154 @@ class KeyValueStoreResourceTest {
         }
     }
 
+    @Test
+    @DisplayName("getAll returns the local entries and reports a failing remote instance as unavailable")
+    void getAllReportsUnavailableRemoteInstance() {
+        when(querier.store(any())).thenReturn(store);
+        when(store.all()).thenReturn(iterator);
+        when(iterator.hasNext()).thenReturn(true, false);
+        when(iterator.next()).thenReturn(KeyValue.pair("k1", "v1"));
+        when(streamsMetadata.host()).thenReturn(REMOTE.host());
+        when(streamsMetadata.port()).thenReturn(REMOTE.port());
+        when(querier.allMetadataForStore(STORE)).thenReturn(List.of(streamsMetadata));
+
+        try (var _ = mockConstruction(RestClient.class,
+                (mock, ctx) -> when(mock.fetchRemoteKeyValueBeans(any(), any())).thenThrow(new ServiceUnavailableException("down")))) {
+            final var resource = new KeyValueStoreResource();
+            final var result = resource.getAll(STORE);
+
+            assertThat(result).hasSize(1);
+            assertThat(resource.unavailableHosts()).containsExactly(REMOTE);
+        }
+    }
+
+    @Test
+    @DisplayName("streamAllLocal writes one JSON line per entry of the requested partition")
+    void streamAllLocalWritesLines() throws Exception {
+        when(querier.store(any())).thenReturn(store);
+        when(store.all()).thenReturn(iterator);
+        when(iterator.hasNext()).thenReturn(true, true, false);
+        when(iterator.next()).thenReturn(KeyValue.pair("k1", "v1"), KeyValue.pair("k2", "v2"));
+
+        final var response = new KeyValueStoreResource().streamAllLocal(STORE, 0, null, null);
+
+        assertThat(response.getMediaType()).hasToString(StoreResource.APPLICATION_NDJSON);
+        assertThat(streamedLines(response.getEntity()))
+                .containsExactly("{\"key\":\"k1\",\"value\":\"v1\"}", "{\"key\":\"k2\",\"value\":\"v2\"}");
+    }
+
+    @Test
+    @DisplayName("streamAllLocal continues after the cursor key and honours the limit")
+    void streamAllLocalContinuesAfterCursor() throws Exception {
+        when(querier.store(any())).thenReturn(store);
+        when(store.range("k1", null)).thenReturn(iterator);
+        when(iterator.hasNext()).thenReturn(true, true, true, false);
+        when(iterator.next()).thenReturn(KeyValue.pair("k1", "v1"), KeyValue.pair("k2", "v2"), KeyValue.pair("k3", "v3"));
+
+        final var response = new KeyValueStoreResource().streamAllLocal(STORE, 0, 1L, "k1");
+
+        assertThat(streamedLines(response.getEntity())).containsExactly("{\"key\":\"k2\",\"value\":\"v2\"}");
+    }
+
+    @Test
+    @DisplayName("streamAllLocal converts the cursor key to the store's declared key type")
+    void streamAllLocalConvertsCursorKeyType() throws Exception {
+        final var definition = mock(StateStoreDefinition.class);
+        when(definition.keyType()).thenReturn(new UserType(UserType.DEFAULT_NOTATION, DataInteger.DATATYPE));
+        when(querier.storeDefinition(STORE)).thenReturn(definition);
+        when(querier.store(any())).thenReturn(store);
+        when(store.range(10, null)).thenReturn(iterator);
+        when(iterator.hasNext()).thenReturn(true, true, false);
+        when(iterator.next()).thenReturn(KeyValue.pair(10, "v10"), KeyValue.pair(11, "v11"));
+
+        final var response = new KeyValueStoreResource().streamAllLocal(STORE, 0, null, "10");
+
+        assertThat(streamedLines(response.getEntity())).containsExactly("{\"key\":11,\"value\":\"v11\"}");
+    }
+
+    @Test
+    @DisplayName("getRangeLocal runs a range query on the active local partitions and skips inactive ones")
+    void getRangeLocalQueriesActivePartitions() {
+        final var result = new StateQueryResult<KeyValueIterator<Object, Object>>();
+        result.addResult(0, QueryResult.forResult(iterator));
+        result.addResult(1, QueryResult.forFailure(FailureReason.NOT_ACTIVE, "standby"));
+        final var request = ArgumentCaptor.forClass(StateQueryRequest.class);
+        doReturn(result).when(querier).query(request.capture());
+        when(iterator.hasNext()).thenReturn(true, false);
+        when(iterator.next()).thenReturn(KeyValue.pair("k2", "v2"));
+
+        final var beans = new KeyValueStoreResource().getRangeLocal(STORE, "k1", "k3", true);
+
+        assertThat(beans).extracting(KeyValueBean::key).containsExactly(new DataString("k2"));
+        final var query = (RangeQuery<?, ?>) request.getValue().getQuery();
+        assertThat(query.getLowerBound()).contains("k1");
+        assertThat(query.getUpperBound()).contains("k3");
+        assertThat(query.isDescending()).isTrue();
+        assertThat(request.getValue().isRequireActive()).isTrue();
+    }
+
+    @Test
+    @DisplayName("getRangeLocal converts the bounds to the store's declared key type")
+    void getRangeLocalConvertsKeyType() {
+        final var definition = mock(StateStoreDefinition.class);
+        when(definition.keyType()).thenReturn(new UserType(UserType.DEFAULT_NOTATION, DataInteger.DATATYPE));
+        when(querier.storeDefinition(STORE)).thenReturn(definition);
+        final var request = ArgumentCaptor.forClass(StateQueryRequest.class);
+        doReturn(new StateQueryResult<>()).when(querier).query(request.capture());
+
+        new KeyValueStoreResource().getRangeLocal(STORE, "10", null, false);
+
+        final var query = (RangeQuery<?, ?>) request.getValue().getQuery();
+        assertThat(query.getLowerBound()).contains(10);
+        assertThat(query.getUpperBound()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("A key that does not match the store's key type is reported as a 400 BadRequestException")
+    void invalidTypedKeyBecomesBadRequest() {
+        final var definition = mock(StateStoreDefinition.class);
+        when(definition.keyType()).thenReturn(new UserType(UserType.DEFAULT_NOTATION, DataInteger.DATATYPE));
+        when(querier.storeDefinition(STORE)).thenReturn(definition);
+
+        final var resource = new KeyValueStoreResource();
+        assertThatThrownBy(() -> resource.getRangeLocal(STORE, "not a number", null, false)).isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    @DisplayName("A store that does not support the query is reported as a 400 BadRequestException")
+    void unknownQueryTypeBecomesBadRequest() {
+        final var result = new StateQueryResult<KeyValueIterator<Object, Object>>();
+        result.addResult(0, QueryResult.forFailure(FailureReason.UNKNOWN_QUERY_TYPE, "unsupported"));
+        doReturn(result).when(querier).query(any());
+
+        final var resource = new KeyValueStoreResource();
+        assertThatThrownBy(() -> resource.getRangeLocal(STORE, null, null, false)).isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    @DisplayName("getPrefixLocal scans the local store by string prefix")
+    void getPrefixLocalScansByPrefix() {
+        when(querier.store(any())).thenReturn(store);
+        when(store.prefixScan(any(), any())).thenReturn(iterator);
+        when(iterator.hasNext()).thenReturn(true, false);
+        when(iterator.next()).thenReturn(KeyValue.pair("user-1", "v1"));
+
+        final var result = new KeyValueStoreResource().getPrefixLocal(STORE, "user-");
+
+        assertThat(result).extracting(KeyValueBean::key).containsExactly(new DataString("user-1"));
+    }
+
+    @Test
+    @DisplayName("getPrefixLocal rejects stores with non-string keys")
+    void getPrefixLocalRejectsNonStringKeys() {
+        final var definition = mock(StateStoreDefinition.class);
+        when(definition.keyType()).thenReturn(new UserType(UserType.DEFAULT_NOTATION, DataInteger.DATATYPE));
+        when(querier.storeDefinition(STORE)).thenReturn(definition);
+
+        final var resource = new KeyValueStoreResource();
+        assertThatThrownBy(() -> resource.getPrefixLocal(STORE, "1")).isInstanceOf(BadRequestException.class);
+    }
+
     @Test
     @DisplayName("A missing store is reported as a 404 NotFoundException")
     void unknownStoreBecomesNotFound() {
@@ -189,6 +371,12 @@ class KeyValueStoreResourceTest {
         assertThatThrownBy(() -> resource.getAllLocal(STORE)).isInstanceOf(ServiceUnavailableException.class);
     }
 
+    private static List<String> streamedLines(Object entity) throws Exception {
+        final var output = new ByteArrayOutputStream();
+        ((StreamingOutput) entity).write(output);
+        return output.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+
     private static KeyQueryMetadata metadataOnHost(HostInfo host) {
         return new KeyQueryMetadata(host, Set.of(), 0);
     }
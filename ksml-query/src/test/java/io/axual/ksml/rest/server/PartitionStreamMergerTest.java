@@ -0,0 +1,114 @@
+package io.axual.ksml.rest.server;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML Queryable State Store
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.rest.server.PartitionStreamMerger.PartitionRead;
+import org.apache.kafka.streams.state.HostInfo;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PartitionStreamMergerTest {
+
+    private static final HostInfo HOST = new HostInfo("localhost", 8080);
+
+    private static List<PartitionRead> partitions(int count) {
+        return IntStream.range(0, count).mapToObj(p -> new PartitionRead(HOST, p, null)).toList();
+    }
+
+    @Test
+    @DisplayName("Lines are written in partition order, even when later partitions are read ahead")
+    void writesInPartitionOrder() throws Exception {
+        final var merger = new PartitionStreamMerger(3, 2);
+        final var output = new ByteArrayOutputStream();
+
+        final var written = merger.stream(partitions(4), (read, sink) -> {
+            for (int i = 0; i < 5; i++) {
+                if (!sink.test("{\"p\":" + read.partition() + ",\"i\":" + i + "}")) return;
+            }
+        }, Long.MAX_VALUE, output);
+
+        assertThat(written).isEqualTo(20);
+        final var lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines).hasSize(20);
+        assertThat(lines.get(0)).isEqualTo("{\"p\":0,\"i\":0}");
+        assertThat(lines.get(5)).isEqualTo("{\"p\":1,\"i\":0}");
+        assertThat(lines.get(19)).isEqualTo("{\"p\":3,\"i\":4}");
+    }
+
+    @Test
+    @DisplayName("The limit stops the output and the remaining partition readers")
+    void stopsAtLimit() throws Exception {
+        final var merger = new PartitionStreamMerger(2, 1);
+        final var output = new ByteArrayOutputStream();
+
+        final var written = merger.stream(partitions(3), (read, sink) -> {
+            for (int i = 0; i < 1000; i++) {
+                if (!sink.test("{\"i\":" + i + "}")) return;
+            }
+        }, 3, output);
+
+        assertThat(written).isEqualTo(3);
+        assertThat(output.toString(StandardCharsets.UTF_8).lines()).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("A failing partition is skipped, the other partitions are still written and a final error line lists it")
+    void skipsFailingPartition() throws Exception {
+        final var merger = new PartitionStreamMerger(2, 4);
+        final var output = new ByteArrayOutputStream();
+        final var reads = new AtomicInteger();
+
+        final var written = merger.stream(partitions(3), (read, sink) -> {
+            reads.incrementAndGet();
+            if (read.partition() == 1) throw new IllegalStateException("boom");
+            sink.test("{\"p\":" + read.partition() + "}");
+        }, Long.MAX_VALUE, output);
+
+        assertThat(written).isEqualTo(2);
+        assertThat(reads).hasValue(3);
+        assertThat(output.toString(StandardCharsets.UTF_8).lines())
+                .containsExactly("{\"p\":0}", "{\"p\":2}", "{\"error\":\"Partial result\",\"partitions\":[1]}");
+    }
+
+    @Test
+    @DisplayName("An error line from a remote instance marks the partition as failed instead of being written as an entry")
+    void reportsRemoteErrorLine() throws Exception {
+        final var merger = new PartitionStreamMerger(2, 4);
+        final var output = new ByteArrayOutputStream();
+
+        final var written = merger.stream(partitions(2), (read, sink) -> {
+            sink.test("{\"p\":" + read.partition() + "}");
+            if (read.partition() == 0) sink.test("{\"error\":\"Partial result\",\"partitions\":[0]}");
+        }, Long.MAX_VALUE, output);
+
+        assertThat(written).isEqualTo(2);
+        assertThat(output.toString(StandardCharsets.UTF_8).lines())
+                .containsExactly("{\"p\":0}", "{\"p\":1}", "{\"error\":\"Partial result\",\"partitions\":[0]}");
+    }
+}
@@ -0,0 +1,108 @@
+package io.axual.ksml.rest.server;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML Queryable State Store
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.metric.MetricName;
+import io.axual.ksml.metric.MetricTags;
+import io.axual.ksml.metric.Metrics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private String load(String key) {
+        loads.incrementAndGet();
+        return key + "-" + loads.get();
+    }
+
+    @Test
+    @DisplayName("A cached value is served until its time to live expires")
+    void servesUntilExpired() {
+        final var cache = new QueryCache(new QueryCacheSettings(true, 10, Duration.ofNanos(100), Set.of()), clock::get);
+
+        assertThat(cache.get("ttlStore", "k", () -> load("k"))).isEqualTo("k-1");
+        clock.set(99);
+        assertThat(cache.get("ttlStore", "k", () -> load("k"))).isEqualTo("k-1");
+        clock.set(100);
+        assertThat(cache.get("ttlStore", "k", () -> load("k"))).isEqualTo("k-2");
+    }
+
+    @Test
+    @DisplayName("The least recently used key is evicted when a store cache is full")
+    void evictsLeastRecentlyUsed() {
+        final var cache = new QueryCache(new QueryCacheSettings(true, 2, Duration.ofSeconds(10), Set.of()), clock::get);
+
+        cache.get("lruStore", "a", () -> load("a"));
+        cache.get("lruStore", "b", () -> load("b"));
+        cache.get("lruStore", "a", () -> load("a"));
+        cache.get("lruStore", "c", () -> load("c"));
+
+        assertThat(loads).hasValue(3);
+        cache.get("lruStore", "a", () -> load("a"));
+        assertThat(loads).hasValue(3);
+        cache.get("lruStore", "b", () -> load("b"));
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    @DisplayName("Only the configured stores are cached, and null results are never cached")
+    void cachesConfiguredStoresOnly() {
+        final var cache = new QueryCache(new QueryCacheSettings(true, 10, Duration.ofSeconds(10), Set.of("cached")), clock::get);
+
+        cache.get("other", "k", () -> load("k"));
+        cache.get("other", "k", () -> load("k"));
+        assertThat(loads).hasValue(2);
+
+        cache.get("cached", "missing", () -> {
+            loads.incrementAndGet();
+            return null;
+        });
+        cache.get("cached", "missing", () -> {
+            loads.incrementAndGet();
+            return null;
+        });
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    @DisplayName("Hits and misses are counted per store")
+    void countsHitsAndMisses() {
+        final var cache = new QueryCache(new QueryCacheSettings(true, 10, Duration.ofSeconds(10), Set.of()), clock::get);
+
+        cache.get("metricStore", "k", () -> load("k"));
+        cache.get("metricStore", "k", () -> load("k"));
+        cache.get("metricStore", "k", () -> load("k"));
+
+        final var tags = new MetricTags().append("store-name", "metricStore");
+        assertThat(Metrics.registry().getCounter(new MetricName("query-cache-hits", tags)).getCount()).isEqualTo(2);
+        assertThat(Metrics.registry().getCounter(new MetricName("query-cache-misses", tags)).getCount()).isEqualTo(1);
+    }
+}
@@ -26,7 +26,6 @@ import io.axual.ksml.rest.data.KeyValueBeans;
 import io.axual.ksml.rest.data.WindowedKeyValueBeans;
 import jakarta.ws.rs.client.AsyncInvoker;
 import jakarta.ws.rs.client.Client;
-import jakarta.ws.rs.client.ClientBuilder;
 import jakarta.ws.rs.client.Invocation;
 import jakarta.ws.rs.client.WebTarget;
 import jakarta.ws.rs.core.MediaType;
@@ -36,9 +35,9 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
-import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -53,7 +52,6 @@ import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -72,19 +70,15 @@ class RestClientTest {
     @Mock
     private AsyncInvoker asyncInvoker;
 
-    private MockedStatic<ClientBuilder> clientBuilder;
     private RestClient restClient;
 
     @BeforeEach
     void setup() {
-        clientBuilder = mockStatic(ClientBuilder.class);
-        clientBuilder.when(ClientBuilder::newClient).thenReturn(client);
-        restClient = new RestClient();
+        restClient = new RestClient(client);
     }
 
     @AfterEach
     void tearDown() {
-        clientBuilder.close();
         Thread.interrupted(); // reset the flag so a test never leaks its interrupt state to the next one
     }
 
@@ -207,11 +201,35 @@ class RestClientTest {
     }
 
     @Test
-    @DisplayName("close closes the underlying REST client once it has been created")
-    void closeClosesClient() throws Exception {
-        stubChainReturning(mockFutureReturning(new KeyValueBeans()));
-        restClient.getRemoteKeyValueBeans(LIST_URL); // forces lazy creation of the JAX-RS client
+    @DisplayName("fetchRemoteKeyValueBeans returns the fetched beans on success")
+    void fetchKeyValueBeansSuccess() throws Exception {
+        final var beans = new KeyValueBeans();
+        stubChainReturning(mockFutureReturning(beans));
 
+        assertThat(restClient.fetchRemoteKeyValueBeans(LIST_URL, Duration.ofSeconds(1))).isSameAs(beans);
+    }
+
+    @Test
+    @DisplayName("fetchRemoteKeyValueBeans reports a timeout to the caller instead of returning empty beans")
+    void fetchKeyValueBeansTimeout() throws Exception {
+        stubChainReturning(mockFutureThrowing(new TimeoutException()));
+
+        assertThatThrownBy(() -> restClient.fetchRemoteKeyValueBeans(LIST_URL, Duration.ofSeconds(1)))
+                .isInstanceOf(ServiceUnavailableException.class);
+    }
+
+    @Test
+    @DisplayName("fetchRemoteWindowedKeyValueBeans reports a failure to the caller instead of returning empty beans")
+    void fetchWindowedBeansExecutionError() throws Exception {
+        stubChainReturning(mockFutureThrowing(new ExecutionException(new RuntimeException("boom"))));
+
+        assertThatThrownBy(() -> restClient.fetchRemoteWindowedKeyValueBeans(LIST_URL, Duration.ofSeconds(1)))
+                .isInstanceOf(ServiceUnavailableException.class);
+    }
+
+    @Test
+    @DisplayName("close closes the REST client that was passed in")
+    void closeClosesClient() {
         restClient.close();
 
         verify(client).close();
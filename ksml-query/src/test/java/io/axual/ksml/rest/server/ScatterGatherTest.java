@@ -0,0 +1,98 @@
+package io.axual.ksml.rest.server;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML Queryable State Store
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import org.apache.kafka.streams.state.HostInfo;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScatterGatherTest {
+
+    private static final HostInfo FIRST = new HostInfo("first", 8080);
+    private static final HostInfo FAILING = new HostInfo("failing", 8080);
+    private static final HostInfo SLOW = new HostInfo("slow", 8080);
+    private static final HostInfo LAST = new HostInfo("last", 8080);
+
+    private static String answer(HostInfo host, CountDownLatch neverReleased) {
+        if (host.equals(FAILING)) throw new IllegalStateException("boom");
+        if (host.equals(SLOW)) {
+            try {
+                neverReleased.await();
+            } catch (InterruptedException _) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return host.host();
+    }
+
+    @Test
+    @DisplayName("Parallel fan-out returns the answers in host order and reports failing and slow hosts as unavailable")
+    void parallelReturnsPartialResult() {
+        final var neverReleased = new CountDownLatch(1);
+        final var scatterGather = new ScatterGather(new RemoteQuerySettings(true, Duration.ofMillis(200)));
+
+        final var result = scatterGather.gather(List.of(FIRST, FAILING, SLOW, LAST), (host, _) -> answer(host, neverReleased));
+
+        assertThat(result.results()).containsExactly("first", "last");
+        assertThat(result.unavailableHosts()).containsExactly(FAILING, SLOW);
+    }
+
+    @Test
+    @DisplayName("Parallel fan-out waits for all hosts together, not for each host in turn")
+    void parallelSharesOneDeadline() {
+        final var scatterGather = new ScatterGather(new RemoteQuerySettings(true, Duration.ofMillis(500)));
+        final var hosts = List.of(new HostInfo("a", 1), new HostInfo("b", 2), new HostInfo("c", 3), new HostInfo("d", 4));
+
+        final var start = System.nanoTime();
+        final var result = scatterGather.gather(hosts, (host, _) -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException _) {
+                Thread.currentThread().interrupt();
+            }
+            return host.port();
+        });
+
+        assertThat(result.results()).containsExactly(1, 2, 3, 4);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(800));
+    }
+
+    @Test
+    @DisplayName("Sequential fan-out skips a failing host and passes the configured timeout to every call")
+    void sequentialSkipsFailingHost() {
+        final var timeout = Duration.ofMillis(1234);
+        final var scatterGather = new ScatterGather(new RemoteQuerySettings(false, timeout));
+
+        final var result = scatterGather.gather(List.of(FIRST, FAILING, LAST), (host, hostTimeout) -> {
+            assertThat(hostTimeout).isEqualTo(timeout);
+            return answer(host, new CountDownLatch(0));
+        });
+
+        assertThat(result.results()).containsExactly("first", "last");
+        assertThat(result.unavailableHosts()).containsExactly(FAILING);
+    }
+}
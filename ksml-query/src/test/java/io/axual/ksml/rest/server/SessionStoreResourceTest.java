@@ -0,0 +1,107 @@
+package io.axual.ksml.rest.server;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML Queryable State Store
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.object.DataString;
+import io.axual.ksml.rest.data.WindowedKeyValueBean;
+import io.axual.ksml.rest.data.WindowedKeyValueBeans;
+import org.apache.kafka.streams.KeyQueryMetadata;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.kstream.Windowed;
+import org.apache.kafka.streams.kstream.internals.SessionWindow;
+import org.apache.kafka.streams.query.QueryResult;
+import org.apache.kafka.streams.query.StateQueryResult;
+import org.apache.kafka.streams.state.HostInfo;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mockConstruction;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SessionStoreResourceTest {
+
+    private static final HostInfo LOCAL = new HostInfo("localhost", 8080);
+    private static final HostInfo REMOTE = new HostInfo("other", 9090);
+    private static final String STORE = "sessionStore";
+
+    @Mock
+    private KsmlQuerier querier;
+    @Mock
+    private KeyValueIterator<Windowed<Object>, Object> iterator;
+
+    @BeforeEach
+    void setup() {
+        GlobalState.INSTANCE.set(querier, LOCAL);
+    }
+
+    @AfterEach
+    void clearGlobalState() {
+        GlobalState.INSTANCE.set(null, null);
+    }
+
+    @Test
+    @DisplayName("getSessionsLocal returns only the sessions that overlap with the requested time range")
+    void getSessionsLocalFiltersOnTimeRange() {
+        when(querier.queryMetadataForKey(any(), any(), any())).thenReturn(new KeyQueryMetadata(LOCAL, Set.of(), 1));
+        final var result = new StateQueryResult<KeyValueIterator<Windowed<Object>, Object>>();
+        result.addResult(1, QueryResult.forResult(iterator));
+        doReturn(result).when(querier).query(any());
+        when(iterator.hasNext()).thenReturn(true, true, true, false);
+        when(iterator.next()).thenReturn(
+                KeyValue.pair(new Windowed<>("k1", new SessionWindow(0L, 50L)), "early"),
+                KeyValue.pair(new Windowed<>("k1", new SessionWindow(80L, 150L)), "overlapping"),
+                KeyValue.pair(new Windowed<>("k1", new SessionWindow(300L, 400L)), "late"));
+
+        final var sessions = new SessionStoreResource().getSessionsLocal(STORE, "k1", 100L, 200L);
+
+        assertThat(sessions).extracting(WindowedKeyValueBean::value).containsExactly(new DataString("overlapping"));
+        assertThat(sessions.getFirst().window().end()).isEqualTo(150L);
+    }
+
+    @Test
+    @DisplayName("getSessions delegates to the instance that owns the key")
+    void getSessionsRoutesToRemoteInstance() {
+        final var remoteBeans = new WindowedKeyValueBeans().add(new SessionWindow(0L, 10L), new DataString("k 1"), new DataString("remote"));
+        final var url = ArgumentCaptor.forClass(String.class);
+        when(querier.queryMetadataForKey(any(), any(), any())).thenReturn(new KeyQueryMetadata(REMOTE, Set.of(), 0));
+
+        try (var _ = mockConstruction(RestClient.class,
+                (mock, ctx) -> when(mock.getRemoteWindowedKeyValueBeans(url.capture())).thenReturn(remoteBeans))) {
+            final var result = new SessionStoreResource().getSessions(STORE, "k 1", null, 20L);
+
+            assertThat(result).hasSize(1);
+            assertThat(url.getValue()).isEqualTo("http://other:9090/state/session/" + STORE + "/local/sessions/k%201?to=20");
+        }
+    }
+}
@@ -23,14 +23,20 @@ package io.axual.ksml.rest.server;
 import io.axual.ksml.data.object.DataString;
 import io.axual.ksml.rest.data.WindowedKeyValueBean;
 import io.axual.ksml.rest.data.WindowedKeyValueBeans;
+import jakarta.ws.rs.core.StreamingOutput;
 import org.apache.kafka.streams.KeyValue;
 import org.apache.kafka.streams.KeyQueryMetadata;
 import org.apache.kafka.streams.StreamsMetadata;
 import org.apache.kafka.streams.kstream.Windowed;
 import org.apache.kafka.streams.kstream.internals.TimeWindow;
+import org.apache.kafka.streams.query.QueryResult;
+import org.apache.kafka.streams.query.StateQueryRequest;
+import org.apache.kafka.streams.query.StateQueryResult;
+import org.apache.kafka.streams.query.WindowKeyQuery;
 import org.apache.kafka.streams.state.HostInfo;
 import org.apache.kafka.streams.state.KeyValueIterator;
 import org.apache.kafka.streams.state.ReadOnlyWindowStore;
+import org.apache.kafka.streams.state.WindowStoreIterator;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -40,12 +46,19 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.regex.Pattern;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mockConstruction;
 import static org.mockito.Mockito.when;
 
@@ -55,6 +68,7 @@ class WindowedKeyValueStoreResourceTest {
     private static final HostInfo LOCAL = new HostInfo("localhost", 8080);
     private static final HostInfo REMOTE = new HostInfo("other", 9090);
     private static final String STORE = "windowStore";
+    private static final Pattern KEY_AND_START = Pattern.compile("\"start\":(\\d+).*\"key\":\"([^\"]+)\"");
 
     @Mock
     private KsmlQuerier querier;
@@ -168,7 +182,7 @@ class WindowedKeyValueStoreResourceTest {
         final var url = ArgumentCaptor.forClass(String.class);
 
         try (var _ = mockConstruction(RestClient.class,
-                (mock, ctx) -> when(mock.getRemoteWindowedKeyValueBeans(url.capture())).thenReturn(remoteBeans))) {
+                (mock, ctx) -> when(mock.fetchRemoteWindowedKeyValueBeans(url.capture(), any())).thenReturn(remoteBeans))) {
             final var result = new WindowedKeyValueStoreResource().getAll(STORE);
 
             assertThat(result).hasSize(2);
@@ -191,4 +205,108 @@ class WindowedKeyValueStoreResourceTest {
             assertThat(url.getValue()).isEqualTo("http://other:9090/state/windowed/" + STORE + "/local/get/k1/50");
         }
     }
+
+    @Test
+    @DisplayName("fetchKeyLocal queries only the key's partition for windows starting in the time range")
+    void fetchKeyLocalQueriesKeyPartition(@Mock WindowStoreIterator<Object> windows) {
+        when(querier.queryMetadataForKey(any(), any(), any())).thenReturn(new KeyQueryMetadata(LOCAL, Set.of(), 3));
+        final var result = new StateQueryResult<WindowStoreIterator<Object>>();
+        result.addResult(3, QueryResult.forResult(windows));
+        final var request = ArgumentCaptor.forClass(StateQueryRequest.class);
+        doReturn(result).when(querier).query(request.capture());
+        when(windows.hasNext()).thenReturn(true, false);
+        when(windows.next()).thenReturn(KeyValue.pair(100L, "v1"));
+
+        final var beans = new WindowedKeyValueStoreResource().fetchKeyLocal(STORE, "k1", 0L, 200L);
+
+        assertThat(beans).hasSize(1);
+        assertThat(beans.getFirst().key()).isEqualTo(new DataString("k1"));
+        assertThat(beans.getFirst().window().start()).isEqualTo(100L);
+        assertThat(request.getValue().getPartitions()).containsExactly(3);
+        final var query = (WindowKeyQuery<?, ?>) request.getValue().getQuery();
+        assertThat(query.getTimeFrom()).contains(Instant.ofEpochMilli(0L));
+        assertThat(query.getTimeTo()).contains(Instant.ofEpochMilli(200L));
+    }
+
+    @Test
+    @DisplayName("fetchKey delegates to the instance that owns the key")
+    void fetchKeyRoutesToRemoteInstance() {
+        final var remoteBeans = new WindowedKeyValueBeans().add(new TimeWindow(0L, 100L), new DataString("k1"), new DataString("remote"));
+        final var url = ArgumentCaptor.forClass(String.class);
+        when(querier.queryMetadataForKey(any(), any(), any())).thenReturn(metadataOnHost(REMOTE));
+
+        try (var _ = mockConstruction(RestClient.class,
+                (mock, ctx) -> when(mock.getRemoteWindowedKeyValueBeans(url.capture())).thenReturn(remoteBeans))) {
+            final var result = new WindowedKeyValueStoreResource().fetchKey(STORE, "k1", 10L, null);
+
+            assertThat(result).hasSize(1);
+            assertThat(url.getValue()).isEqualTo("http://other:9090/state/windowed/" + STORE + "/local/fetch/k1?from=10");
+        }
+    }
+
+    private static KeyValueIterator<Windowed<Object>, Object> iteratorOf(List<KeyValue<Windowed<Object>, Object>> entries) {
+        final Iterator<KeyValue<Windowed<Object>, Object>> entryIterator = entries.iterator();
+        return new KeyValueIterator<>() {
+            @Override
+            public boolean hasNext() {
+                return entryIterator.hasNext();
+            }
+
+            @Override
+            public KeyValue<Windowed<Object>, Object> next() {
+                return entryIterator.next();
+            }
+
+            @Override
+            public Windowed<Object> peekNextKey() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void close() {
+                // Nothing to close
+            }
+        };
+    }
+
+    private static KeyValue<Windowed<Object>, Object> window(String key, long start) {
+        return KeyValue.pair(new Windowed<>(key, new TimeWindow(start, start + 100L)), key + "@" + start);
+    }
+
+    // Returns the key and window start of every streamed line, as "key@start"
+    private static List<String> streamedWindows(Object entity) throws Exception {
+        final var output = new ByteArrayOutputStream();
+        ((StreamingOutput) entity).write(output);
+        return output.toString(StandardCharsets.UTF_8).lines().map(line -> {
+            final var matcher = KEY_AND_START.matcher(line);
+            assertThat(matcher.find()).as(line).isTrue();
+            return matcher.group(2) + "@" + matcher.group(1);
+        }).toList();
+    }
+
+    @Test
+    @DisplayName("streamAllLocal pages through all windows of all keys without losing or repeating entries")
+    void streamAllLocalPagesThroughWindows() throws Exception {
+        when(querier.store(any())).thenReturn(store);
+        // Window stores iterate window by window, not key by key
+        final var entries = List.of(window("k1", 0L), window("k2", 0L), window("k1", 100L), window("k2", 100L), window("k1", 200L), window("k2", 200L));
+        when(store.fetch(isNull(), isNull(), any(Instant.class), any(Instant.class))).thenAnswer(_ -> iteratorOf(entries));
+
+        final var pages = new ArrayList<List<String>>();
+        String after = null;
+        Long afterWindowStart = null;
+        while (true) {
+            final var page = streamedWindows(new WindowedKeyValueStoreResource().streamAllLocal(STORE, 0, 2L, after, afterWindowStart).getEntity());
+            if (page.isEmpty()) break;
+            pages.add(page);
+            final var last = page.getLast().split("@");
+            after = last[0];
+            afterWindowStart = Long.parseLong(last[1]);
+        }
+
+        assertThat(pages).containsExactly(
+                List.of("k1@0", "k1@100"),
+                List.of("k1@200", "k2@0"),
+                List.of("k2@100", "k2@200"));
+    }
 }
@@ -39,6 +39,7 @@ import io.axual.ksml.data.notation.NotationContext;
 import io.axual.ksml.data.notation.avro.AvroNotation;
 import io.axual.ksml.data.notation.avro.confluent.ConfluentAvroNotationProvider;
 import io.axual.ksml.data.notation.json.JsonSchemaMapper;
+import io.axual.ksml.definition.StateStoreDefinition;
 import io.axual.ksml.definition.parser.TopologyDefinitionParser;
 import io.axual.ksml.execution.ErrorHandler;
 import io.axual.ksml.execution.ExecutionContext;
@@ -47,11 +48,14 @@ import io.axual.ksml.generator.TopologyDefinition;
 import io.axual.ksml.parser.ParseNode;
 import io.axual.ksml.rest.server.ComponentState;
 import io.axual.ksml.rest.server.KsmlQuerier;
+import io.axual.ksml.rest.server.QueryCacheSettings;
+import io.axual.ksml.rest.server.RemoteQuerySettings;
 import io.axual.ksml.rest.server.RestServer;
 import io.axual.ksml.runner.backend.KafkaProducerRunner;
 import io.axual.ksml.runner.backend.KafkaStreamsRunner;
 import io.axual.ksml.runner.backend.Runner;
 import io.axual.ksml.runner.config.ApplicationServerConfig;
+import io.axual.ksml.runner.config.QueryCacheConfig;
 import io.axual.ksml.runner.config.ErrorHandlingConfig;
 import io.axual.ksml.runner.config.KSMLConfig;
 import io.axual.ksml.runner.config.KSMLRunnerConfig;
@@ -65,6 +69,7 @@ import io.axual.ksml.runner.config.internal.StringMapDefinitionPropertiesResolve
 import io.axual.ksml.runner.exception.ConfigException;
 import io.axual.ksml.runner.notation.NotationFactories;
 import io.axual.ksml.runner.prometheus.PrometheusExport;
+import io.axual.ksml.util.ParallelUtil;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -76,6 +81,8 @@ import org.apache.kafka.common.utils.Utils;
 import org.apache.kafka.streams.KeyQueryMetadata;
 import org.apache.kafka.streams.StoreQueryParameters;
 import org.apache.kafka.streams.StreamsMetadata;
+import org.apache.kafka.streams.query.StateQueryRequest;
+import org.apache.kafka.streams.query.StateQueryResult;
 import org.apache.kafka.streams.state.HostInfo;
 import picocli.CommandLine;
 import tools.jackson.core.JacksonException;
@@ -83,10 +90,13 @@ import tools.jackson.databind.JsonNode;
 
 import java.io.File;
 import java.io.PrintWriter;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -192,6 +202,7 @@ public class KSMLRunner {
 
             setupErrorHandling(ksmlConfig.errorHandlingConfig());
             ExecutionContext.INSTANCE.serdeWrapper(serde -> wrapSerde(serde, config.getKafkaConfigMap()));
+            ExecutionContext.INSTANCE.compactInternalFormat(ksmlConfig.compactInternalFormat());
 
             final var parsedDefinitions = parseDefinitions(definitions);
             final var definitionSplit = splitDefinitions(parsedDefinitions, ksmlConfig.enableProducers(), ksmlConfig.enablePipelines());
@@ -222,7 +233,11 @@ public class KSMLRunner {
             return null;
         }
         final var hostInfo = new HostInfo(appServer.getHost(), appServer.getPort());
-        final var restServer = new RestServer(hostInfo);
+        final var remoteQuerySettings = new RemoteQuerySettings(appServer.parallelRemoteQueries(), appServer.getRemoteQueryTimeout());
+        final var cacheConfig = Optional.ofNullable(appServer.queryCache()).orElseGet(QueryCacheConfig::new);
+        final var queryCacheSettings = new QueryCacheSettings(cacheConfig.enabled(), cacheConfig.maxEntries(), Duration.ofMillis(cacheConfig.ttlMs()),
+                cacheConfig.stores() != null ? Set.copyOf(cacheConfig.stores()) : Set.of());
+        final var restServer = new RestServer(hostInfo, remoteQuerySettings, queryCacheSettings);
         restServer.start();
         return restServer;
     }
@@ -343,18 +358,21 @@ public class KSMLRunner {
     }
 
     /**
-     * Parses each raw KSML definition into a {@link TopologyDefinition}. Extracted from {@code main}
-     * for testability.
+     * Parses each raw KSML definition into a {@link TopologyDefinition}. Definitions are parsed in parallel, and
+     * added to the result in the order of the raw definitions. Extracted from {@code main} for testability.
      *
      * @param definitions the raw definitions keyed by namespace
      * @return the parsed topology definitions keyed by namespace
      */
     static Map<String, TopologyDefinition> parseDefinitions(Map<String, JsonNode> definitions) {
+        final var startTime = System.nanoTime();
+        final var parsed = ParallelUtil.mapInParallel(definitions,
+                (name, definition) -> new TopologyDefinitionParser(name).parse(ParseNode.fromRoot(definition, name)),
+                "ksml-parser-");
         final Map<String, TopologyDefinition> parsedDefinitions = new HashMap<>();
-        definitions.forEach((name, definition) -> {
-            final var parser = new TopologyDefinitionParser(name);
-            parsedDefinitions.put(name, parser.parse(ParseNode.fromRoot(definition, name)));
-        });
+        // Add the definitions one by one, so they are iterated in the same order as when they were parsed one by one
+        parsed.forEach(parsedDefinitions::put);
+        log.info("Parsed {} definition(s) in {} ms", parsedDefinitions.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
         return parsedDefinitions;
     }
 
@@ -592,6 +610,22 @@ public class KSMLRunner {
                 return streamsRunner.kafkaStreams().store(storeQueryParameters);
             }
 
+            @Override
+            public <R> StateQueryResult<R> query(StateQueryRequest<R> request) {
+                if (streamsRunner == null) {
+                    return null;
+                }
+                return streamsRunner.kafkaStreams().query(request);
+            }
+
+            @Override
+            public StateStoreDefinition storeDefinition(String storeName) {
+                if (streamsRunner == null) {
+                    return null;
+                }
+                return streamsRunner.stateStores().get(storeName);
+            }
+
             @Override
             public ComponentState getStreamRunnerState() {
                 if (streamsRunner == null) {
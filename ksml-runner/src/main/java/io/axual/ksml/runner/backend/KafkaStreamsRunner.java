@@ -22,6 +22,7 @@ package io.axual.ksml.runner.backend;
 
 
 import io.axual.ksml.TopologyGenerator;
+import io.axual.ksml.definition.StateStoreDefinition;
 import io.axual.ksml.client.resolving.ResolvingClientConfig;
 import io.axual.ksml.execution.ExecutionContext;
 import io.axual.ksml.execution.ExecutionErrorHandler;
@@ -32,6 +33,7 @@ import io.axual.ksml.python.PythonContextConfig;
 import io.axual.ksml.runner.config.ApplicationServerConfig;
 import io.axual.ksml.runner.exception.RunnerException;
 import io.axual.ksml.runner.streams.KSMLClientSupplier;
+import io.axual.ksml.store.KsmlRocksDBConfigSetter;
 import io.axual.utils.headers.cleaning.AxualHeaderCleaningInterceptor;
 import lombok.Builder;
 import lombok.Getter;
@@ -73,6 +75,8 @@ import java.util.function.BiFunction;
 public class KafkaStreamsRunner implements Runner {
     @Getter
     private final KafkaStreams kafkaStreams;
+    @Getter
+    private final Map<String, StateStoreDefinition> stateStores;
     private final AtomicBoolean stopRunning = new AtomicBoolean(false);
     // Default sleep durations that can be overridden in tests
     private long startupSleepMs = 1000;
@@ -143,6 +147,7 @@ public class KafkaStreamsRunner implements Runner {
         var optimize = streamsProps.getOrDefault(StreamsConfig.TOPOLOGY_OPTIMIZATION_CONFIG, StreamsConfig.OPTIMIZE);
         final var topologyGenerator = new TopologyGenerator(applicationId, (String) optimize, config.pythonContextConfig());
         final var topology = topologyGenerator.create(streamsBuilder, config.definitions);
+        stateStores = topologyGenerator.stateStores();
         final var topologyDesc = topology.describe();
         final var ksmlTagEnricher = KsmlTagEnricher.from(topologyDesc);
 
@@ -250,7 +255,7 @@ public class KafkaStreamsRunner implements Runner {
      * <p>The method:</p>
      * <ul>
      *     <li>Copies the initial configuration if provided</li>
-     *     <li>Sets default values for optimization if not explicitly configured</li>
+     *     <li>Sets default values for optimization and the RocksDB config setter if not explicitly configured</li>
      *     <li>Sets exception handlers for production and deserialization errors</li>
      *     <li>Adds cleanup interceptors to all consumer configurations</li>
      *     <li>Sets the state directory for Kafka Streams</li>
@@ -266,6 +271,8 @@ public class KafkaStreamsRunner implements Runner {
         final Map<String, Object> result = initialConfigs != null ? new HashMap<>(initialConfigs) : new HashMap<>();
         // Set default value if not explicitly configured
         result.putIfAbsent(StreamsConfig.TOPOLOGY_OPTIMIZATION_CONFIG, StreamsConfig.OPTIMIZE);
+        // Apply the RocksDB settings of store definitions, unless a config setter was configured explicitly
+        result.putIfAbsent(StreamsConfig.ROCKSDB_CONFIG_SETTER_CLASS_CONFIG, KsmlRocksDBConfigSetter.class);
 
         // Explicit configs can overwrite those from the map
         result.put(StreamsConfig.PRODUCTION_EXCEPTION_HANDLER_CLASS_CONFIG, ExecutionErrorHandler.class);
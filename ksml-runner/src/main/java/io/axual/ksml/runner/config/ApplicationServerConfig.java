@@ -32,6 +32,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import java.time.Duration;
 import java.util.Optional;
 
 @Slf4j
@@ -42,6 +43,7 @@ import java.util.Optional;
 public class ApplicationServerConfig {
     private static final String DEFAULT_HOSTNAME = "0.0.0.0";
     private static final Integer DEFAULT_PORT = 8080;
+    private static final Integer DEFAULT_REMOTE_QUERY_TIMEOUT_MS = 4000;
 
     @JsonProperty(value = "enabled", required = true, defaultValue = "false")
     @JsonPropertyDescription("Toggle to activate the creation of the application server. Default is false")
@@ -54,6 +56,16 @@ public class ApplicationServerConfig {
     @Min(1)
     @Max(65535)
     private Integer port = DEFAULT_PORT;
+    @JsonProperty(value = "parallelRemoteQueries", required = false, defaultValue = "true")
+    @JsonPropertyDescription("Toggle to query the state stores of other instances concurrently instead of one after the other. Default is true")
+    private boolean parallelRemoteQueries = true;
+    @JsonProperty(value = "remoteQueryTimeoutMs", required = false, defaultValue = "4000")
+    @JsonPropertyDescription("How long to wait in milliseconds for another instance to answer a state store query before leaving it out of the result. Default is 4000")
+    @Min(1)
+    private Integer remoteQueryTimeoutMs = DEFAULT_REMOTE_QUERY_TIMEOUT_MS;
+    @JsonProperty(value = "queryCache", required = false)
+    @JsonPropertyDescription("Configures the cache for single key state store queries")
+    private QueryCacheConfig queryCache = new QueryCacheConfig();
 
     @JsonIgnore
     public String getApplicationServer() {
@@ -70,4 +82,9 @@ public class ApplicationServerConfig {
         if (!enabled) return null;
         return Optional.ofNullable(port).orElse(DEFAULT_PORT);
     }
+
+    @JsonIgnore
+    public Duration getRemoteQueryTimeout() {
+        return Duration.ofMillis(Optional.ofNullable(remoteQueryTimeoutMs).orElse(DEFAULT_REMOTE_QUERY_TIMEOUT_MS));
+    }
 }
@@ -94,6 +94,10 @@ public class KSMLConfig {
     @JsonPropertyDescription("Toggle to enable or disable the creation of pipelines in the KSML definitions. Default value is true")
     private boolean enablePipelines = true;
 
+    @JsonProperty(value = "compactInternalFormat", required = false, defaultValue = "false")
+    @JsonPropertyDescription("Write the values of state stores and repartition topics in a compact binary format that only KSML reads. Default value is false")
+    private boolean compactInternalFormat = false;
+
     @JsonProperty(value = "errorHandling", required = false)
     @JsonPropertyDescription("Configures how different types of errors are handled")
     private ErrorHandlingConfig errorHandlingConfig = new ErrorHandlingConfig();
@@ -67,6 +67,8 @@ public class PrometheusConfig {
         this.host = config.host;
         this.port = config.port;
         this.configFile = config.configFile;
+        this.jmxFallback = config.jmxFallback;
+        this.snapshotCacheMs = config.snapshotCacheMs;
     }
 
     @JsonProperty(value = "enabled", required = true, defaultValue = "false")
@@ -89,6 +91,15 @@ public class PrometheusConfig {
     @JsonPropertyDescription("Path to a Prometheus JMX Exporter configuration file, containing metrics exposure and naming rules. If not set an internal definition is used.")
     private String configFile;
 
+    @JsonProperty(value = "jmxFallback", required = false, defaultValue = "false")
+    @JsonPropertyDescription("Expose the KSML metrics as JMX MBeans and export them through the JMX exporter rules, instead of reading them directly from the KSML metrics registry. Default is false")
+    private boolean jmxFallback = false;
+
+    @Min(0)
+    @JsonProperty(value = "snapshotCacheMs", required = false, defaultValue = "0")
+    @JsonPropertyDescription("Time in milliseconds during which scrapes reuse the previously collected KSML metrics. Default is 0, which collects the metrics on every scrape")
+    private long snapshotCacheMs = 0;
+
     /**
      * Resolve the bind host. Returns null when the exporter is disabled so callers can interpret
      * "disabled" without extra flags.
@@ -0,0 +1,53 @@
+package io.axual.ksml.runner.config;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML Runner
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import com.fasterxml.jackson.annotation.JsonClassDescription;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@JsonIgnoreProperties(ignoreUnknown = false)
+@JsonClassDescription("Controls the cache for single key state store queries")
+@NoArgsConstructor
+public class QueryCacheConfig {
+    @JsonProperty(value = "enabled", required = false, defaultValue = "false")
+    @JsonPropertyDescription("Toggle to cache the results of single key state store queries. Default is false")
+    private boolean enabled = false;
+    @JsonProperty(value = "maxEntries", required = false, defaultValue = "10000")
+    @JsonPropertyDescription("The maximum number of cached keys per state store. Default is 10000")
+    @Min(1)
+    private int maxEntries = 10000;
+    @JsonProperty(value = "ttlMs", required = false, defaultValue = "1000")
+    @JsonPropertyDescription("How long in milliseconds a cached value is served before the key is looked up again. Default is 1000")
+    @Min(1)
+    private long ttlMs = 1000;
+    @JsonProperty(value = "stores", required = false)
+    @JsonPropertyDescription("The names of the state stores to cache. All state stores are cached when empty")
+    private List<String> stores = new ArrayList<>();
+}
@@ -116,7 +116,8 @@ public final class HelpEnrichingCollector implements MultiCollector {
         return snapshot;
     }
 
-    private String helpFor(String metricName) {
+    // Package-private so the native KSML metrics collector exposes the same descriptions
+    static String helpFor(String metricName) {
         for (final var entry : HELP_BY_NAME_PREFIX.entrySet()) {
             if (metricName.startsWith(entry.getKey())) {
                 return entry.getValue();
@@ -0,0 +1,241 @@
+package io.axual.ksml.runner.prometheus;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML Runner
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Metered;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+import io.axual.ksml.metric.MetricName;
+import io.axual.ksml.metric.Metrics;
+import io.axual.ksml.metric.MetricsRegistry;
+import io.prometheus.metrics.model.registry.MultiCollector;
+import io.prometheus.metrics.model.snapshots.CounterSnapshot;
+import io.prometheus.metrics.model.snapshots.GaugeSnapshot;
+import io.prometheus.metrics.model.snapshots.Labels;
+import io.prometheus.metrics.model.snapshots.MetricSnapshots;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+/**
+ * Exposes the metrics of a KSML {@link MetricsRegistry} to Prometheus by reading the registry directly,
+ * instead of registering every metric as a JMX MBean and having the JMX exporter scrape and pattern
+ * match them again on every request.
+ * <p>
+ * The output mirrors what the JMX exporter produces with the shipped default configuration: a metric
+ * named {@code execution-time} is exported as {@code ksml_execution_time_count},
+ * {@code ksml_execution_time_mean}, {@code ksml_execution_time_99thpercentile} and so on, with its tags
+ * as labels. Timer durations are in milliseconds and rates are per second. Like the JMX exporter rules, only
+ * user-defined counters are exported as Prometheus counters, all other metrics are exported as gauges.
+ * <p>
+ * The Prometheus name and labels of a metric are derived once and reused on every scrape. When a
+ * snapshot cache duration is set, scrapes within that duration share the same collected snapshots.
+ */
+@Slf4j
+public final class KsmlMetricsCollector implements MultiCollector {
+    private static final String NAME_PREFIX = Metrics.DOMAIN + "_";
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final Pattern UNSAFE_CHARACTERS = Pattern.compile("[^a-zA-Z0-9:_]");
+    private static final Pattern MULTIPLE_UNDERSCORES = Pattern.compile("__+");
+    // The only metric the JMX exporter rules type as COUNTER
+    private static final String COUNTER_METRIC = "user_defined_counter";
+
+    private final MetricsRegistry registry;
+    private final long snapshotCacheMs;
+    private final LongSupplier clock;
+    // Prometheus name prefix and labels per registered metric, so they are not rebuilt on every scrape
+    private final Map<MetricName, Series> seriesCache = new ConcurrentHashMap<>();
+    private volatile CachedSnapshots cachedSnapshots;
+
+    private record Series(String namePrefix, Labels labels, boolean counter) {
+    }
+
+    private record CachedSnapshots(long collectedAt, MetricSnapshots snapshots) {
+    }
+
+    public KsmlMetricsCollector(MetricsRegistry registry, Duration snapshotCacheDuration) {
+        this(registry, snapshotCacheDuration, System::currentTimeMillis);
+    }
+
+    // For testing
+    KsmlMetricsCollector(MetricsRegistry registry, Duration snapshotCacheDuration, LongSupplier clock) {
+        this.registry = registry;
+        this.snapshotCacheMs = snapshotCacheDuration != null ? snapshotCacheDuration.toMillis() : 0;
+        this.clock = clock;
+    }
+
+    @Override
+    public MetricSnapshots collect() {
+        if (snapshotCacheMs <= 0) {
+            return collectFromRegistry();
+        }
+        final var now = clock.getAsLong();
+        final var cached = cachedSnapshots;
+        if (cached != null && now - cached.collectedAt() < snapshotCacheMs) {
+            return cached.snapshots();
+        }
+        final var snapshots = collectFromRegistry();
+        cachedSnapshots = new CachedSnapshots(now, snapshots);
+        return snapshots;
+    }
+
+    private MetricSnapshots collectFromRegistry() {
+        // Sorted by name, so the output is stable between scrapes
+        final var gauges = new TreeMap<String, GaugeSnapshot.Builder>();
+        final var counters = new TreeMap<String, CounterSnapshot.Builder>();
+
+        final var metrics = registry.metrics();
+        for (final var entry : metrics.entrySet()) {
+            final var series = seriesCache.computeIfAbsent(entry.getKey(), KsmlMetricsCollector::toSeries);
+            switch (entry.getValue()) {
+                case Counter counter when series.counter() -> addCounter(counters, series, "count", counter.getCount());
+                case Counter counter -> addGauge(gauges, series, "count", counter.getCount());
+                case Gauge<?> gauge -> addGaugeValue(gauges, series, entry.getKey(), gauge);
+                case Timer timer -> {
+                    addMetered(gauges, series, timer);
+                    addSnapshot(gauges, series, timer.getSnapshot(), 1 / NANOS_PER_MILLI);
+                }
+                case Metered meter -> addMetered(gauges, series, meter);
+                case Histogram histogram -> {
+                    addGauge(gauges, series, "count", histogram.getCount());
+                    addSnapshot(gauges, series, histogram.getSnapshot(), 1);
+                }
+                default -> log.trace("Skipping metric {} of unsupported type {}", entry.getKey(), entry.getValue().getClass().getSimpleName());
+            }
+        }
+
+        // Forget the names and labels of metrics that were removed from the registry
+        if (seriesCache.size() > metrics.size()) {
+            seriesCache.keySet().retainAll(metrics.keySet());
+        }
+
+        final var result = MetricSnapshots.builder();
+        gauges.forEach((name, builder) -> {
+            try {
+                result.metricSnapshot(builder.build());
+            } catch (IllegalArgumentException e) {
+                log.warn("Could not export metric {}: {}", name, e.getMessage());
+            }
+        });
+        counters.forEach((name, builder) -> {
+            try {
+                result.metricSnapshot(builder.build());
+            } catch (IllegalArgumentException e) {
+                log.warn("Could not export metric {}: {}", name, e.getMessage());
+            }
+        });
+        return result.build();
+    }
+
+    private static void addGaugeValue(Map<String, GaugeSnapshot.Builder> gauges, Series series, MetricName metricName, Gauge<?> gauge) {
+        final Object value;
+        try {
+            value = gauge.getValue();
+        } catch (RuntimeException e) {
+            log.debug("Could not read gauge {}: {}", metricName, e.getMessage());
+            return;
+        }
+        switch (value) {
+            case Number number -> addGauge(gauges, series, "value", number.doubleValue());
+            case Boolean bool -> addGauge(gauges, series, "value", bool ? 1 : 0);
+            case null, default -> {
+                // Only numeric gauges can be exported
+            }
+        }
+    }
+
+    private static void addMetered(Map<String, GaugeSnapshot.Builder> gauges, Series series, Metered metered) {
+        addGauge(gauges, series, "count", metered.getCount());
+        addGauge(gauges, series, "meanrate", metered.getMeanRate());
+        addGauge(gauges, series, "oneminuterate", metered.getOneMinuteRate());
+        addGauge(gauges, series, "fiveminuterate", metered.getFiveMinuteRate());
+        addGauge(gauges, series, "fifteenminuterate", metered.getFifteenMinuteRate());
+    }
+
+    private static void addSnapshot(Map<String, GaugeSnapshot.Builder> gauges, Series series, Snapshot snapshot, double factor) {
+        addGauge(gauges, series, "min", snapshot.getMin() * factor);
+        addGauge(gauges, series, "max", snapshot.getMax() * factor);
+        addGauge(gauges, series, "mean", snapshot.getMean() * factor);
+        addGauge(gauges, series, "stddev", snapshot.getStdDev() * factor);
+        addGauge(gauges, series, "50thpercentile", snapshot.getMedian() * factor);
+        addGauge(gauges, series, "75thpercentile", snapshot.get75thPercentile() * factor);
+        addGauge(gauges, series, "95thpercentile", snapshot.get95thPercentile() * factor);
+        addGauge(gauges, series, "98thpercentile", snapshot.get98thPercentile() * factor);
+        addGauge(gauges, series, "99thpercentile", snapshot.get99thPercentile() * factor);
+        addGauge(gauges, series, "999thpercentile", snapshot.get999thPercentile() * factor);
+    }
+
+    private static void addGauge(Map<String, GaugeSnapshot.Builder> gauges, Series series, String attribute, double value) {
+        final var name = series.namePrefix() + attribute;
+        gauges.computeIfAbsent(name, n -> GaugeSnapshot.builder().name(n).help(HelpEnrichingCollector.helpFor(n)))
+                .dataPoint(GaugeSnapshot.GaugeDataPointSnapshot.builder()
+                        .labels(series.labels())
+                        .value(value)
+                        .build());
+    }
+
+    private static void addCounter(Map<String, CounterSnapshot.Builder> counters, Series series, String attribute, double value) {
+        final var name = series.namePrefix() + attribute;
+        counters.computeIfAbsent(name, n -> CounterSnapshot.builder().name(n).help(HelpEnrichingCollector.helpFor(n)))
+                .dataPoint(CounterSnapshot.CounterDataPointSnapshot.builder()
+                        .labels(series.labels())
+                        .value(value)
+                        .build());
+    }
+
+    private static Series toSeries(MetricName metricName) {
+        final var labelNames = new LinkedHashSet<String>();
+        final var names = new ArrayList<String>();
+        final var values = new ArrayList<String>();
+        for (final var tag : metricName.tags()) {
+            final var labelName = safeName(tag.key());
+            // Two tag keys can sanitize to the same label name, keep the first one
+            if (labelNames.add(labelName) && tag.value() != null) {
+                names.add(labelName);
+                values.add(tag.value());
+            }
+        }
+        final var labels = Labels.of(names.toArray(String[]::new), values.toArray(String[]::new));
+        return new Series(safeName(NAME_PREFIX + metricName.name() + "_"), labels, safeName(metricName.name()).equals(COUNTER_METRIC));
+    }
+
+    /**
+     * Sanitizes a name the way the Prometheus JMX exporter does, so both exporters produce the same
+     * metric and label names: unsupported characters become underscores, repeated underscores are
+     * collapsed and the result is lowercased.
+     */
+    static String safeName(String name) {
+        final var replaced = UNSAFE_CHARACTERS.matcher(name).replaceAll("_");
+        return MULTIPLE_UNDERSCORES.matcher(replaced).replaceAll("_").toLowerCase(Locale.ROOT);
+    }
+}
@@ -36,10 +36,15 @@ import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.net.InetAddress;
+import java.time.Duration;
 import java.util.Optional;
 
 /**
- * Exposes the JMX metrics, based on the Prometheus JMX exporter agent
+ * Exposes the KSML, Kafka and JVM metrics, based on the Prometheus JMX exporter agent.
+ * <p>
+ * KSML metrics are read directly from the KSML metrics registry by a {@link KsmlMetricsCollector}. They
+ * are only exposed as JMX MBeans, and scraped by the JMX exporter, when the JMX fallback is configured
+ * or the Prometheus export is disabled.
  */
 @Slf4j
 public class PrometheusExport implements Closeable {
@@ -55,21 +60,29 @@ public class PrometheusExport implements Closeable {
 
     @Synchronized
     public void start() throws Exception {
-        Metrics.init();
         if (!config.enabled()) {
+            Metrics.init();
             log.info("Prometheus export is disabled");
             return;
         }
         final var configFile = config.getConfigFile();
         if (configFile == null) {
+            Metrics.init();
             log.info("No Prometheus export config file found, export disabled");
             return;
         }
         log.info("Loading Prometheus export config from {}", configFile);
+        Metrics.init(config.jmxFallback());
 
         new BuildInfoMetrics().register(PrometheusRegistry.defaultRegistry);
         JvmMetrics.builder().register(PrometheusRegistry.defaultRegistry);
+        // The JMX exporter remains in place for the Kafka client, operating system and app-info metrics
         registerJmxCollectorWithHelpText(PrometheusRegistry.defaultRegistry, configFile);
+        if (!config.jmxFallback()) {
+            log.info("Exporting KSML metrics directly from the metrics registry");
+            PrometheusRegistry.defaultRegistry.register(
+                    new KsmlMetricsCollector(Metrics.registry(), Duration.ofMillis(config.snapshotCacheMs())));
+        }
 
         httpServer = new HTTPServerFactory()
                 .createHTTPServer(
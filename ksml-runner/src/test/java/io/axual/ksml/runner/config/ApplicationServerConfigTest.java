@@ -23,6 +23,8 @@ package io.axual.ksml.runner.config;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
@@ -74,4 +76,16 @@ class ApplicationServerConfigTest {
         assertThat(config.getHost()).isEqualTo("0.0.0.0");
         assertThat(config.getPort()).isEqualTo(8080);
     }
+
+    @Test
+    @DisplayName("Remote queries run in parallel with a four second timeout by default, falling back to it for null values")
+    void remoteQueryDefaults() {
+        final var config = new ApplicationServerConfig();
+
+        assertThat(config.parallelRemoteQueries()).isTrue();
+        assertThat(config.getRemoteQueryTimeout()).isEqualTo(Duration.ofSeconds(4));
+
+        config.remoteQueryTimeoutMs(null);
+        assertThat(config.getRemoteQueryTimeout()).isEqualTo(Duration.ofSeconds(4));
+    }
 }
@@ -83,11 +83,15 @@ class PrometheusConfigTest {
         original.host("127.0.0.1");
         original.port(1234);
         original.configFile("/tmp/x.yaml");
+        original.jmxFallback(true);
+        original.snapshotCacheMs(500);
 
         final var copy = new PrometheusConfig(original);
 
         assertThat(copy.getHost()).isEqualTo("127.0.0.1");
         assertThat(copy.getPort()).isEqualTo(1234);
         assertThat(copy.getConfigFile()).isEqualTo(new File("/tmp/x.yaml"));
+        assertThat(copy.jmxFallback()).isTrue();
+        assertThat(copy.snapshotCacheMs()).isEqualTo(500);
     }
 }
@@ -0,0 +1,201 @@
+package io.axual.ksml.runner.prometheus;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML Runner
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.metric.MetricName;
+import io.axual.ksml.metric.MetricTag;
+import io.axual.ksml.metric.MetricTags;
+import io.axual.ksml.metric.MetricsRegistry;
+import io.axual.ksml.runner.config.PrometheusConfig;
+import io.prometheus.jmx.JmxCollector;
+import io.prometheus.metrics.expositionformats.PrometheusTextFormatWriter;
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
+import io.prometheus.metrics.model.snapshots.CounterSnapshot;
+import io.prometheus.metrics.model.snapshots.GaugeSnapshot;
+import io.prometheus.metrics.model.snapshots.MetricSnapshot;
+import io.prometheus.metrics.model.snapshots.MetricSnapshots;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KsmlMetricsCollectorTest {
+    private MetricsRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new MetricsRegistry();
+    }
+
+    @AfterEach
+    void cleanup() {
+        registry.removeAll();
+        registry.disableJmx();
+    }
+
+    private static MetricName executionTime() {
+        return new MetricName("execution-time", new MetricTags()
+                .append("function-type", "forEach")
+                .append("function-name", "pipelines_consume_avro_forEach"));
+    }
+
+    private static MetricSnapshot byName(MetricSnapshots snapshots, String name) {
+        return snapshots.stream()
+                .filter(s -> s.getMetadata().getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No metric named " + name));
+    }
+
+    // The names of the series as they appear in a scrape, where counters get a _total suffix
+    private static Set<String> exposedNames(MetricSnapshots snapshots) throws IOException {
+        final var out = new ByteArrayOutputStream();
+        new PrometheusTextFormatWriter(false).write(out, snapshots);
+        return out.toString(StandardCharsets.UTF_8).lines()
+                .filter(line -> !line.startsWith("#") && !line.isBlank())
+                .map(line -> line.split("[{ ]", 2)[0])
+                .collect(Collectors.toSet());
+    }
+
+    private static double gaugeValue(MetricSnapshots snapshots, String name) {
+        return ((GaugeSnapshot) byName(snapshots, name)).getDataPoints().getFirst().getValue();
+    }
+
+    @Test
+    @DisplayName("Timers are exported with counts, rates and millisecond statistics, using the tags as labels")
+    void exportsTimer() {
+        registry.registerTimer(executionTime()).update(5, TimeUnit.MILLISECONDS);
+
+        final var snapshots = new KsmlMetricsCollector(registry, Duration.ZERO).collect();
+
+        assertThat(gaugeValue(snapshots, "ksml_execution_time_count")).isEqualTo(1.0);
+        assertThat(gaugeValue(snapshots, "ksml_execution_time_max")).isEqualTo(5.0);
+        assertThat(gaugeValue(snapshots, "ksml_execution_time_99thpercentile")).isEqualTo(5.0);
+        assertThat(byName(snapshots, "ksml_execution_time_oneminuterate")).isInstanceOf(GaugeSnapshot.class);
+
+        final var count = byName(snapshots, "ksml_execution_time_count");
+        assertThat(count.getMetadata().getHelp()).startsWith("Execution time statistics");
+        final var labels = count.getDataPoints().getFirst().getLabels();
+        assertThat(labels.get("function_type")).isEqualTo("forEach");
+        assertThat(labels.get("function_name")).isEqualTo("pipelines_consume_avro_forEach");
+    }
+
+    @Test
+    @DisplayName("User-defined counters are exported as counters, other counters and gauges as gauges")
+    void exportsCounterAndGauge() {
+        registry.registerCounter(new MetricName("user-defined-counter", new MetricTags().append("custom-name", "my_counter"))).inc(3);
+        registry.registerCounter(new MetricName("store-evictions", new MetricTags().append("store-name", "s"))).inc(2);
+        registry.registerGauge(new MetricName("record_e2e_latency_avg_ms", new MetricTags().append("pipeline", "p")), () -> 12.5);
+
+        final var snapshots = new KsmlMetricsCollector(registry, Duration.ZERO).collect();
+
+        final var counter = byName(snapshots, "ksml_user_defined_counter_count");
+        assertThat(counter).isInstanceOf(CounterSnapshot.class);
+        assertThat(((CounterSnapshot) counter).getDataPoints().getFirst().getValue()).isEqualTo(3.0);
+        assertThat(counter.getDataPoints().getFirst().getLabels().get("custom_name")).isEqualTo("my_counter");
+        assertThat(gaugeValue(snapshots, "ksml_store_evictions_count")).isEqualTo(2.0);
+        assertThat(gaugeValue(snapshots, "ksml_record_e2e_latency_avg_ms_value")).isEqualTo(12.5);
+    }
+
+    @Test
+    @DisplayName("Metrics sharing a name are exported as one metric with a data point per tag set")
+    void groupsMetricsByName() {
+        registry.registerTimer(executionTime());
+        registry.registerTimer(new MetricName("execution-time", new MetricTags()
+                .append("function-type", "forEach")
+                .append("function-name", "other")));
+
+        final var snapshots = new KsmlMetricsCollector(registry, Duration.ZERO).collect();
+
+        assertThat(byName(snapshots, "ksml_execution_time_count").getDataPoints()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Removed metrics disappear from the next scrape")
+    void dropsRemovedMetrics() {
+        registry.registerTimer(executionTime());
+        final var collector = new KsmlMetricsCollector(registry, Duration.ZERO);
+        assertThat(collector.collect().stream().map(s -> s.getMetadata().getName())).contains("ksml_execution_time_count");
+
+        registry.remove(executionTime());
+
+        assertThat(collector.collect()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Scrapes within the snapshot cache duration reuse the collected snapshots")
+    void reusesSnapshotsWithinCacheDuration() {
+        final var now = new AtomicLong(1000);
+        final var counter = registry.registerCounter(new MetricName("user-defined-counter", new MetricTags().append("custom-name", "c")));
+        final var collector = new KsmlMetricsCollector(registry, Duration.ofMillis(100), now::get);
+
+        final var first = collector.collect();
+        counter.inc();
+        now.addAndGet(50);
+        assertThat(collector.collect()).isSameAs(first);
+
+        now.addAndGet(50);
+        final var refreshed = collector.collect();
+        assertThat(refreshed).isNotSameAs(first);
+        assertThat(((CounterSnapshot) byName(refreshed, "ksml_user_defined_counter_count")).getDataPoints().getFirst().getValue()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Metric types, names and labels match those of the JMX exporter with the shipped default configuration")
+    void matchesJmxExporterNames() throws Exception {
+        registry.enableJmx("ksml", List.<MetricTag>of());
+        registry.registerTimer(executionTime());
+        registry.registerMeter(new MetricName("user-defined-meter", new MetricTags().append("custom-name", "my_meter")));
+        registry.registerCounter(new MetricName("user-defined-counter", new MetricTags().append("custom-name", "my_counter")));
+        registry.registerCounter(new MetricName("store-evictions", new MetricTags().append("store-name", "my_store")));
+        registry.registerGauge(new MetricName("record_e2e_latency_max_ms", new MetricTags().append("namespace", "inspect")), () -> 1.0);
+
+        final var prometheusConfig = new PrometheusConfig();
+        prometheusConfig.enabled(true);
+        final var jmxSnapshots = new JmxCollector(prometheusConfig.getConfigFile()).register(new PrometheusRegistry()).collect();
+        final var nativeSnapshots = new KsmlMetricsCollector(registry, Duration.ZERO).collect();
+
+        for (final var snapshot : nativeSnapshots) {
+            final var name = snapshot.getMetadata().getName();
+            final var jmxSnapshot = byName(jmxSnapshots, name);
+            assertThat(snapshot.getClass()).as("type of %s", name).isEqualTo(jmxSnapshot.getClass());
+            assertThat(snapshot.getDataPoints().getFirst().getLabels())
+                    .as("labels of %s", name)
+                    .isEqualTo(jmxSnapshot.getDataPoints().getFirst().getLabels());
+        }
+
+        final var nativeNames = exposedNames(nativeSnapshots);
+        assertThat(exposedNames(jmxSnapshots)).containsAll(nativeNames);
+        assertThat(nativeNames).contains("ksml_user_defined_counter_count_total", "ksml_store_evictions_count")
+                .doesNotContain("ksml_store_evictions_count_total");
+    }
+}
@@ -21,28 +21,35 @@ package io.axual.ksml;
  */
 
 
+import io.axual.ksml.definition.AggregatorDefinition;
 import io.axual.ksml.definition.GlobalTableDefinition;
 import io.axual.ksml.definition.StateStoreDefinition;
 import io.axual.ksml.definition.TableDefinition;
+import io.axual.ksml.definition.TimestampExtractorDefinition;
+import io.axual.ksml.definition.TopicNameExtractorDefinition;
 import io.axual.ksml.exception.TopologyException;
 import io.axual.ksml.generator.TopologyAnalyzer;
 import io.axual.ksml.generator.TopologyBuildContext;
 import io.axual.ksml.generator.TopologyDefinition;
+import io.axual.ksml.generator.ValueProjectionAnalyzer;
 import io.axual.ksml.operation.DualStoreOperation;
 import io.axual.ksml.operation.StoreOperation;
 import io.axual.ksml.operation.StreamOperation;
 import io.axual.ksml.python.PythonContextConfig;
 import io.axual.ksml.stream.StreamWrapper;
+import io.axual.ksml.util.ParallelUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.streams.StreamsBuilder;
 import org.apache.kafka.streams.StreamsConfig;
 import org.apache.kafka.streams.Topology;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 public class TopologyGenerator {
@@ -50,6 +57,8 @@ public class TopologyGenerator {
     private final String applicationId;
     private final Properties optimization;
     private final PythonContextConfig pythonContextConfig;
+    // All state stores of the generated topology, including the ones created by operations
+    private final Map<String, StateStoreDefinition> stateStores = new TreeMap<>();
 
     public TopologyGenerator(String applicationId) {
         this(applicationId, null, PythonContextConfig.builder().build());
@@ -70,8 +79,19 @@ public class TopologyGenerator {
     public Topology create(StreamsBuilder streamsBuilder, Map<String, TopologyDefinition> definitions) {
         if (definitions.isEmpty()) return null;
 
-        final var stores = new TreeMap<String, StateStoreDefinition>();
+        stateStores.clear();
 
+        // Set up the Python context of every definition and compile its functions in parallel
+        var startTime = System.nanoTime();
+        final var contexts = ParallelUtil.mapInParallel(definitions, (name, definition) -> {
+            final var context = new TopologyBuildContext(streamsBuilder, definition, pythonContextConfig);
+            preloadFunctions(definition, context);
+            return context;
+        }, "ksml-compiler-");
+        log.info("Compiled functions of {} definition(s) in {} ms", definitions.size(), elapsedMillis(startTime));
+
+        // Generate the topology from all definitions in a fixed order
+        startTime = System.nanoTime();
         definitions.forEach((name, definition) -> {
             // Log the start of the processor
             log.info("Starting processor definition: name={}, version={}, namespace={}",
@@ -79,12 +99,14 @@ public class TopologyGenerator {
                     definition.version() != null ? definition.version() : UNDEFINED,
                     definition.namespace() != null ? definition.namespace() : UNDEFINED);
 
-            final var context = new TopologyBuildContext(streamsBuilder, definition, pythonContextConfig);
-            generate(definition, context);
-            stores.putAll(definition.stateStores());
+            generate(definition, contexts.get(name));
+            stateStores.putAll(definition.stateStores());
         });
+        log.info("Generated topology of {} definition(s) in {} ms", definitions.size(), elapsedMillis(startTime));
 
+        startTime = System.nanoTime();
         final var topology = streamsBuilder.build(optimization);
+        log.info("Built topology in {} ms", elapsedMillis(startTime));
         final var analysis = TopologyAnalyzer.analyze(topology, applicationId);
 
         StringBuilder summary = new StringBuilder("\n\n");
@@ -96,13 +118,20 @@ public class TopologyGenerator {
         appendTopics(summary, "Output topics", analysis.outputTopics());
         appendTopics(summary, "Internal topics", analysis.internalTopics());
 
-        appendStores(summary, "Registered state stores", stores);
+        appendStores(summary, "Registered state stores", stateStores);
 
         log.info("\n{}", summary);
 
         return topology;
     }
 
+    /**
+     * @return the state stores of the last created topology, keyed by store name
+     */
+    public Map<String, StateStoreDefinition> stateStores() {
+        return Collections.unmodifiableMap(stateStores);
+    }
+
     public void appendTopics(StringBuilder builder, String description, Set<String> topics) {
         if (!topics.isEmpty()) {
             builder.append(description).append(":\n  ");
@@ -138,9 +167,26 @@ public class TopologyGenerator {
         }
     }
 
+    private static long elapsedMillis(long startTime) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+    }
+
+    private static void preloadFunctions(TopologyDefinition definition, TopologyBuildContext context) {
+        // Preload the function into the Python context, except for declarative extractors without code. The Python
+        // context keeps the evaluated code, so generating the topology does not evaluate the same function again.
+        definition.functions().forEach((name, func) -> {
+            if (func instanceof TimestampExtractorDefinition tsExtractor && tsExtractor.source() != null) return;
+            if (func instanceof TopicNameExtractorDefinition tnExtractor && tnExtractor.route() != null) return;
+            if (func instanceof AggregatorDefinition aggregator && aggregator.builtin() != null) return;
+            context.createUserFunction(func);
+        });
+    }
+
     private void generate(TopologyDefinition definition, TopologyBuildContext context) {
-        // Preload the function into the Python context
-        definition.functions().forEach((name, func) -> context.createUserFunction(func));
+        // Deserialize only the value fields that pipelines read from their source streams
+        final var valueProjections = ValueProjectionAnalyzer.analyze(definition);
+        valueProjections.forEach((topic, fields) -> log.info("Deserializing only fields {} of values from topic {}", fields, topic));
+        context.registerValueProjections(valueProjections);
 
         // Figure out which state stores to create manually. Mechanism:
         // 1. run through all pipelines and scan for StoreOperations, don't create the stores referenced
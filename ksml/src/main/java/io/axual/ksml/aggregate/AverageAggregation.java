@@ -0,0 +1,78 @@
+package io.axual.ksml.aggregate;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.object.DataDouble;
+import io.axual.ksml.data.object.DataLong;
+import io.axual.ksml.data.object.DataObject;
+import io.axual.ksml.data.object.DataStruct;
+import io.axual.ksml.data.schema.DataSchema;
+import io.axual.ksml.data.schema.DataSchemaConstants;
+import io.axual.ksml.data.schema.StructSchema;
+import io.axual.ksml.data.type.DataType;
+import io.axual.ksml.data.type.StructType;
+
+import java.util.List;
+
+/**
+ * Averages numbers. The aggregate keeps the count and sum of the numbers next to their average, so averages can
+ * be updated and merged exactly. Values that are not numbers are ignored.
+ */
+class AverageAggregation extends NativeAggregation {
+    private static final String SUM_FIELD = "sum";
+    private static final String AVERAGE_FIELD = "avg";
+    static final StructSchema AVERAGE_SCHEMA = new StructSchema(DataSchemaConstants.DATA_SCHEMA_KSML_NAMESPACE, "Average", "The average of a set of numbers", List.of(
+            new StructSchema.Field(COUNT_FIELD, DataSchema.LONG_SCHEMA, "The number of averaged numbers"),
+            new StructSchema.Field(SUM_FIELD, DataSchema.DOUBLE_SCHEMA, "The sum of the numbers"),
+            new StructSchema.Field(AVERAGE_FIELD, DataSchema.DOUBLE_SCHEMA, "The average of the numbers, or null if there are none", DataSchemaConstants.NO_TAG, false)));
+    private static final DataType RESULT_TYPE = new StructType(AVERAGE_SCHEMA);
+
+    @Override
+    public DataType resultType() {
+        return RESULT_TYPE;
+    }
+
+    @Override
+    public DataObject initial() {
+        return average(0, 0.0);
+    }
+
+    @Override
+    public DataObject add(DataObject aggregate, DataObject value) {
+        final var number = numberOf(value);
+        if (number == null) return aggregate;
+        return average(longField(aggregate, COUNT_FIELD) + 1, doubleField(aggregate, SUM_FIELD) + number);
+    }
+
+    @Override
+    public DataObject merge(DataObject aggregate1, DataObject aggregate2) {
+        return average(longField(aggregate1, COUNT_FIELD) + longField(aggregate2, COUNT_FIELD),
+                doubleField(aggregate1, SUM_FIELD) + doubleField(aggregate2, SUM_FIELD));
+    }
+
+    private static DataStruct average(long count, double sum) {
+        final var result = new DataStruct(AVERAGE_SCHEMA);
+        result.put(COUNT_FIELD, new DataLong(count));
+        result.put(SUM_FIELD, new DataDouble(sum));
+        result.put(AVERAGE_FIELD, new DataDouble(count > 0 ? sum / count : null));
+        return result;
+    }
+}
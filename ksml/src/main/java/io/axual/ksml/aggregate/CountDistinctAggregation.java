@@ -0,0 +1,86 @@
+package io.axual.ksml.aggregate;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.object.DataBytes;
+import io.axual.ksml.data.object.DataLong;
+import io.axual.ksml.data.object.DataObject;
+import io.axual.ksml.data.object.DataStruct;
+import io.axual.ksml.data.schema.DataSchema;
+import io.axual.ksml.data.schema.DataSchemaConstants;
+import io.axual.ksml.data.schema.StructSchema;
+import io.axual.ksml.data.type.DataType;
+import io.axual.ksml.data.type.StructType;
+
+import java.util.List;
+
+/**
+ * Estimates the number of distinct values with a {@link HyperLogLog} sketch.
+ */
+class CountDistinctAggregation extends NativeAggregation {
+    static final int DEFAULT_PRECISION = 12;
+    static final StructSchema DISTINCT_COUNT_SCHEMA = new StructSchema(DataSchemaConstants.DATA_SCHEMA_KSML_NAMESPACE, "DistinctCount", "The estimated number of distinct values", List.of(
+            new StructSchema.Field(COUNT_FIELD, DataSchema.LONG_SCHEMA, "The estimated number of distinct values"),
+            new StructSchema.Field(SKETCH_FIELD, DataSchema.BYTES_SCHEMA, "The HyperLogLog sketch of the values")));
+    private static final DataType RESULT_TYPE = new StructType(DISTINCT_COUNT_SCHEMA);
+    private final int precision;
+
+    CountDistinctAggregation(int precision) {
+        // Fail on invalid settings when the topology is built
+        this.precision = HyperLogLog.checkPrecision(precision);
+    }
+
+    @Override
+    public DataType resultType() {
+        return RESULT_TYPE;
+    }
+
+    @Override
+    public DataObject initial() {
+        return result(new HyperLogLog(precision));
+    }
+
+    @Override
+    public DataObject add(DataObject aggregate, DataObject value) {
+        final var sketch = sketchOf(aggregate, precision);
+        sketch.add(SketchEncoding.hash(textOf(value)));
+        return result(sketch);
+    }
+
+    @Override
+    public DataObject merge(DataObject aggregate1, DataObject aggregate2) {
+        final var sketch = sketchOf(aggregate1, precision);
+        sketch.merge(sketchOf(aggregate2, precision));
+        return result(sketch);
+    }
+
+    private static HyperLogLog sketchOf(DataObject aggregate, int precision) {
+        final var bytes = sketchOf(aggregate);
+        return bytes != null ? HyperLogLog.fromBytes(bytes) : new HyperLogLog(precision);
+    }
+
+    private static DataStruct result(HyperLogLog sketch) {
+        final var result = new DataStruct(DISTINCT_COUNT_SCHEMA);
+        result.put(COUNT_FIELD, new DataLong(sketch.estimate()));
+        result.put(SKETCH_FIELD, new DataBytes(sketch.toBytes()));
+        return result;
+    }
+}
@@ -0,0 +1,114 @@
+package io.axual.ksml.aggregate;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.exception.DataException;
+import io.axual.ksml.data.object.DataDouble;
+import io.axual.ksml.data.object.DataList;
+import io.axual.ksml.data.object.DataLong;
+import io.axual.ksml.data.object.DataObject;
+import io.axual.ksml.data.object.DataStruct;
+import io.axual.ksml.data.schema.DataSchema;
+import io.axual.ksml.data.schema.DataSchemaConstants;
+import io.axual.ksml.data.schema.ListSchema;
+import io.axual.ksml.data.schema.StructSchema;
+import io.axual.ksml.data.type.DataType;
+import io.axual.ksml.data.type.StructType;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Counts numbers per bucket. Every bucket counts the numbers up to and including its upper bound, that are above
+ * the bound of the previous bucket. A last bucket counts the numbers above the highest bound. Values that are not
+ * numbers are ignored.
+ */
+class HistogramAggregation extends NativeAggregation {
+    private static final String SUM_FIELD = "sum";
+    private static final String BOUNDARIES_FIELD = "boundaries";
+    private static final String COUNTS_FIELD = "counts";
+    static final StructSchema HISTOGRAM_SCHEMA = new StructSchema(DataSchemaConstants.DATA_SCHEMA_KSML_NAMESPACE, "Histogram", "The distribution of a set of numbers over buckets", List.of(
+            new StructSchema.Field(COUNT_FIELD, DataSchema.LONG_SCHEMA, "The number of numbers"),
+            new StructSchema.Field(SUM_FIELD, DataSchema.DOUBLE_SCHEMA, "The sum of the numbers"),
+            new StructSchema.Field(BOUNDARIES_FIELD, new ListSchema(DataSchema.DOUBLE_SCHEMA), "The upper bounds of the buckets"),
+            new StructSchema.Field(COUNTS_FIELD, new ListSchema(DataSchema.LONG_SCHEMA), "The number of numbers in every bucket, with one more bucket than there are bounds")));
+    private static final DataType RESULT_TYPE = new StructType(HISTOGRAM_SCHEMA);
+    private final double[] boundaries;
+
+    HistogramAggregation(List<Double> boundaries) {
+        if (boundaries == null || boundaries.isEmpty())
+            throw new DataException("A histogram requires bucket boundaries");
+        this.boundaries = boundaries.stream().mapToDouble(Double::doubleValue).sorted().distinct().toArray();
+    }
+
+    @Override
+    public DataType resultType() {
+        return RESULT_TYPE;
+    }
+
+    @Override
+    public DataObject initial() {
+        return result(0, 0.0, new long[boundaries.length + 1]);
+    }
+
+    @Override
+    public DataObject add(DataObject aggregate, DataObject value) {
+        final var number = numberOf(value);
+        if (number == null || number.isNaN()) return aggregate;
+        final var counts = countsOf(aggregate);
+        final var position = Arrays.binarySearch(boundaries, number);
+        counts[position >= 0 ? position : -position - 1]++;
+        return result(longField(aggregate, COUNT_FIELD) + 1, doubleField(aggregate, SUM_FIELD) + number, counts);
+    }
+
+    @Override
+    public DataObject merge(DataObject aggregate1, DataObject aggregate2) {
+        final var counts = countsOf(aggregate1);
+        final var other = countsOf(aggregate2);
+        for (int index = 0; index < counts.length; index++) counts[index] += other[index];
+        return result(longField(aggregate1, COUNT_FIELD) + longField(aggregate2, COUNT_FIELD),
+                doubleField(aggregate1, SUM_FIELD) + doubleField(aggregate2, SUM_FIELD), counts);
+    }
+
+    private long[] countsOf(DataObject aggregate) {
+        final var result = new long[boundaries.length + 1];
+        if (aggregate instanceof DataStruct struct && struct.get(COUNTS_FIELD) instanceof DataList list) {
+            for (int index = 0; index < Math.min(list.size(), result.length); index++) {
+                final var count = numberOf(list.get(index));
+                if (count != null) result[index] = count.longValue();
+            }
+        }
+        return result;
+    }
+
+    private DataStruct result(long count, double sum, long[] counts) {
+        final var boundaryList = new DataList(DataDouble.DATATYPE);
+        for (final var boundary : boundaries) boundaryList.add(new DataDouble(boundary));
+        final var countList = new DataList(DataLong.DATATYPE);
+        for (final var bucketCount : counts) countList.add(new DataLong(bucketCount));
+        final var result = new DataStruct(HISTOGRAM_SCHEMA);
+        result.put(COUNT_FIELD, new DataLong(count));
+        result.put(SUM_FIELD, new DataDouble(sum));
+        result.put(BOUNDARIES_FIELD, boundaryList);
+        result.put(COUNTS_FIELD, countList);
+        return result;
+    }
+}
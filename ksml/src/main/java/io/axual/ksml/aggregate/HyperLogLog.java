@@ -0,0 +1,127 @@
+package io.axual.ksml.aggregate;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.exception.DataException;
+
+/**
+ * A HyperLogLog sketch, which estimates the number of distinct values with a relative error of about
+ * {@code 1.04 / sqrt(2^precision)}, using one byte per register.
+ * <p>
+ * Sketches with few values are encoded sparsely, as the registers that are set. Larger sketches are encoded as all
+ * their registers.
+ */
+final class HyperLogLog {
+    static final int MIN_PRECISION = 4;
+    static final int MAX_PRECISION = 16;
+    private static final int SPARSE = 0;
+    private static final int DENSE = 1;
+    private final int precision;
+    private final byte[] registers;
+
+    HyperLogLog(int precision) {
+        this.precision = checkPrecision(precision);
+        this.registers = new byte[1 << precision];
+    }
+
+    static int checkPrecision(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION)
+            throw new DataException("HyperLogLog precision must be between " + MIN_PRECISION + " and " + MAX_PRECISION + ": " + precision);
+        return precision;
+    }
+
+    void add(long hash) {
+        final var index = (int) (hash >>> (64 - precision));
+        // The guard bit limits the rank when all remaining bits are zero
+        final var rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        if (rank > registers[index]) registers[index] = (byte) rank;
+    }
+
+    void merge(HyperLogLog other) {
+        if (other.precision != precision)
+            throw new DataException("Can not merge HyperLogLog sketches with precision " + precision + " and " + other.precision);
+        for (int index = 0; index < registers.length; index++)
+            if (other.registers[index] > registers[index]) registers[index] = other.registers[index];
+    }
+
+    long estimate() {
+        final var m = registers.length;
+        var sum = 0.0;
+        var zeros = 0;
+        for (final var register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) zeros++;
+        }
+        final var estimate = alpha(m) * m * m / sum;
+        // Linear counting is more accurate for small cardinalities
+        if (estimate <= 2.5 * m && zeros > 0) return Math.round(m * Math.log((double) m / zeros));
+        return Math.round(estimate);
+    }
+
+    private static double alpha(int m) {
+        return switch (m) {
+            case 16 -> 0.673;
+            case 32 -> 0.697;
+            case 64 -> 0.709;
+            default -> 0.7213 / (1 + 1.079 / m);
+        };
+    }
+
+    byte[] toBytes() {
+        var used = 0;
+        for (final var register : registers) if (register != 0) used++;
+        final var writer = new SketchEncoding.Writer().writeByte(precision);
+        // A sparse register takes at least two bytes, so sparse encoding only pays off below half the registers
+        if (used * 2 < registers.length) {
+            writer.writeByte(SPARSE).writeVarLong(used);
+            var previous = 0;
+            for (int index = 0; index < registers.length; index++) {
+                if (registers[index] == 0) continue;
+                writer.writeVarLong(index - previous).writeByte(registers[index]);
+                previous = index;
+            }
+        } else {
+            writer.writeByte(DENSE);
+            for (final var register : registers) writer.writeByte(register);
+        }
+        return writer.toBytes();
+    }
+
+    static HyperLogLog fromBytes(byte[] bytes) {
+        final var reader = new SketchEncoding.Reader(bytes);
+        final var result = new HyperLogLog(reader.readByte());
+        final var format = reader.readByte();
+        if (format == SPARSE) {
+            final var used = reader.readLength(result.registers.length);
+            var index = 0;
+            for (int count = 0; count < used; count++) {
+                index += reader.readLength(result.registers.length - 1 - index);
+                result.registers[index] = (byte) reader.readByte();
+            }
+        } else if (format == DENSE) {
+            for (int index = 0; index < result.registers.length; index++)
+                result.registers[index] = (byte) reader.readByte();
+        } else {
+            throw new DataException("Unknown HyperLogLog encoding " + format);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,134 @@
+package io.axual.ksml.aggregate;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.exception.DataException;
+import io.axual.ksml.data.object.DataBytes;
+import io.axual.ksml.data.object.DataObject;
+import io.axual.ksml.data.object.DataPrimitive;
+import io.axual.ksml.data.object.DataStruct;
+import io.axual.ksml.data.type.DataType;
+import io.axual.ksml.definition.BuiltinAggregationDefinition;
+import io.axual.ksml.exception.TopologyException;
+
+import static io.axual.ksml.dsl.KSMLDSL.Aggregators;
+
+/**
+ * An aggregation that is implemented in Java, so records are aggregated without calling Python. Aggregations
+ * create the initial aggregate, add values to an aggregate and merge two aggregates, for example when session
+ * windows are merged.
+ * <p>
+ * Aggregations only receive values that are present. Aggregates are returned as new objects, so aggregates that
+ * are kept in a store or cache are never changed in place.
+ */
+public abstract class NativeAggregation {
+    protected static final String COUNT_FIELD = "count";
+    protected static final String SKETCH_FIELD = "sketch";
+
+    /**
+     * Creates the aggregation described by a definition.
+     *
+     * @param definition the built-in aggregation definition
+     * @param valueType  the type of the aggregated values
+     * @return the aggregation
+     */
+    public static NativeAggregation of(BuiltinAggregationDefinition definition, DataType valueType) {
+        try {
+            return create(definition, valueType);
+        } catch (DataException e) {
+            throw new TopologyException("Invalid settings for built-in aggregation " + definition.function() + ": " + e.getMessage());
+        }
+    }
+
+    private static NativeAggregation create(BuiltinAggregationDefinition definition, DataType valueType) {
+        final var precision = definition.precision();
+        return switch (definition.function()) {
+            case Aggregators.SUM, Aggregators.MIN, Aggregators.MAX -> new NumericAggregation(definition.function(), valueType);
+            case Aggregators.AVG -> new AverageAggregation();
+            case Aggregators.FIRST -> new SelectAggregation(valueType, true);
+            case Aggregators.LAST -> new SelectAggregation(valueType, false);
+            case Aggregators.COUNT_DISTINCT ->
+                    new CountDistinctAggregation(precision != null ? precision : CountDistinctAggregation.DEFAULT_PRECISION);
+            case Aggregators.QUANTILES ->
+                    new QuantilesAggregation(precision != null ? precision : TDigest.DEFAULT_COMPRESSION, definition.quantiles());
+            case Aggregators.TOP_K ->
+                    new TopKAggregation(precision != null ? precision : TopKSketch.DEFAULT_WIDTH, definition.k() != null ? definition.k() : TopKSketch.DEFAULT_K);
+            case Aggregators.HISTOGRAM -> new HistogramAggregation(definition.boundaries());
+            default -> throw new TopologyException("Unknown built-in aggregation: " + definition.function());
+        };
+    }
+
+    /**
+     * Returns the type of the aggregates.
+     */
+    public abstract DataType resultType();
+
+    /**
+     * Returns the aggregate of no values.
+     */
+    public abstract DataObject initial();
+
+    /**
+     * Returns the aggregate with a value added.
+     *
+     * @param aggregate the aggregate so far
+     * @param value     the value to add, never {@code null}
+     * @return the new aggregate
+     */
+    public abstract DataObject add(DataObject aggregate, DataObject value);
+
+    /**
+     * Returns the aggregate of the values of two aggregates.
+     *
+     * @param aggregate1 the first aggregate
+     * @param aggregate2 the second aggregate
+     * @return the merged aggregate
+     */
+    public abstract DataObject merge(DataObject aggregate1, DataObject aggregate2);
+
+    // Returns the number held by a value, or null if the value is not a number
+    protected static Double numberOf(DataObject value) {
+        return value instanceof DataPrimitive<?> primitive && primitive.value() instanceof Number number
+                ? number.doubleValue()
+                : null;
+    }
+
+    // Returns the text by which values are counted, so equal values of any type are counted as one
+    protected static String textOf(DataObject value) {
+        return value instanceof DataPrimitive<?> primitive ? String.valueOf(primitive.value()) : value.toString();
+    }
+
+    protected static long longField(DataObject aggregate, String field) {
+        return aggregate instanceof DataStruct struct && struct.get(field) instanceof DataPrimitive<?> primitive && primitive.value() instanceof Number number
+                ? number.longValue()
+                : 0L;
+    }
+
+    protected static double doubleField(DataObject aggregate, String field) {
+        final var number = aggregate instanceof DataStruct struct ? numberOf(struct.get(field)) : null;
+        return number != null ? number : 0.0;
+    }
+
+    // Returns the encoded sketch of an aggregate, or null if the aggregate has no sketch yet
+    protected static byte[] sketchOf(DataObject aggregate) {
+        return aggregate instanceof DataStruct struct && struct.get(SKETCH_FIELD) instanceof DataBytes bytes ? bytes.value() : null;
+    }
+}
@@ -0,0 +1,104 @@
+package io.axual.ksml.aggregate;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.object.DataByte;
+import io.axual.ksml.data.object.DataDouble;
+import io.axual.ksml.data.object.DataInteger;
+import io.axual.ksml.data.object.DataLong;
+import io.axual.ksml.data.object.DataObject;
+import io.axual.ksml.data.object.DataPrimitive;
+import io.axual.ksml.data.object.DataShort;
+import io.axual.ksml.data.type.DataType;
+
+import java.util.Set;
+
+import static io.axual.ksml.dsl.KSMLDSL.Aggregators;
+
+/**
+ * Sums numbers, or keeps the lowest or highest number. Values that are not numbers are ignored. The sum of no
+ * values is zero, the lowest and highest of no values are {@code null}.
+ * <p>
+ * Integral values are aggregated as longs, so sums and extremes of large integers stay exact. Values of other or
+ * unknown types are aggregated as doubles.
+ */
+class NumericAggregation extends NativeAggregation {
+    private static final Set<DataType> INTEGRAL_TYPES = Set.of(DataByte.DATATYPE, DataShort.DATATYPE, DataInteger.DATATYPE, DataLong.DATATYPE);
+    private final String function;
+    private final boolean integral;
+
+    NumericAggregation(String function, DataType valueType) {
+        this.function = function;
+        this.integral = INTEGRAL_TYPES.contains(valueType);
+    }
+
+    @Override
+    public DataType resultType() {
+        return integral ? DataLong.DATATYPE : DataDouble.DATATYPE;
+    }
+
+    @Override
+    public DataObject initial() {
+        final var sum = Aggregators.SUM.equals(function);
+        if (integral) return sum ? new DataLong(0L) : new DataLong();
+        return sum ? new DataDouble(0.0) : new DataDouble();
+    }
+
+    @Override
+    public DataObject add(DataObject aggregate, DataObject value) {
+        return combine(aggregate, value);
+    }
+
+    @Override
+    public DataObject merge(DataObject aggregate1, DataObject aggregate2) {
+        return combine(aggregate1, aggregate2);
+    }
+
+    private DataObject combine(DataObject left, DataObject right) {
+        if (integral) return combineLongs(longOf(left), longOf(right));
+        return combineDoubles(numberOf(left), numberOf(right));
+    }
+
+    private DataLong combineLongs(Long left, Long right) {
+        if (left == null || right == null) return new DataLong(left != null ? left : right);
+        return new DataLong(switch (function) {
+            case Aggregators.MIN -> Math.min(left, right);
+            case Aggregators.MAX -> Math.max(left, right);
+            default -> left + right;
+        });
+    }
+
+    private DataDouble combineDoubles(Double left, Double right) {
+        if (left == null || right == null) return new DataDouble(left != null ? left : right);
+        return new DataDouble(switch (function) {
+            case Aggregators.MIN -> Math.min(left, right);
+            case Aggregators.MAX -> Math.max(left, right);
+            default -> left + right;
+        });
+    }
+
+    // Returns the integral number held by a value, or null if the value is not a number
+    private static Long longOf(DataObject value) {
+        return value instanceof DataPrimitive<?> primitive && primitive.value() instanceof Number number
+                ? number.longValue()
+                : null;
+    }
+}
@@ -0,0 +1,102 @@
+package io.axual.ksml.aggregate;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.exception.DataException;
+import io.axual.ksml.data.object.DataBytes;
+import io.axual.ksml.data.object.DataDouble;
+import io.axual.ksml.data.object.DataLong;
+import io.axual.ksml.data.object.DataMap;
+import io.axual.ksml.data.object.DataObject;
+import io.axual.ksml.data.object.DataStruct;
+import io.axual.ksml.data.schema.DataSchema;
+import io.axual.ksml.data.schema.DataSchemaConstants;
+import io.axual.ksml.data.schema.MapSchema;
+import io.axual.ksml.data.schema.StructSchema;
+import io.axual.ksml.data.type.DataType;
+import io.axual.ksml.data.type.StructType;
+
+import java.util.List;
+
+/**
+ * Estimates quantiles of numbers with a {@link TDigest}. Values that are not numbers are ignored.
+ */
+class QuantilesAggregation extends NativeAggregation {
+    private static final String QUANTILES_FIELD = "quantiles";
+    static final List<Double> DEFAULT_QUANTILES = List.of(0.5, 0.9, 0.99);
+    static final StructSchema QUANTILES_SCHEMA = new StructSchema(DataSchemaConstants.DATA_SCHEMA_KSML_NAMESPACE, "Quantiles", "Estimated quantiles of a set of numbers", List.of(
+            new StructSchema.Field(COUNT_FIELD, DataSchema.LONG_SCHEMA, "The number of numbers"),
+            new StructSchema.Field(QUANTILES_FIELD, new MapSchema(DataSchema.DOUBLE_SCHEMA), "The estimated value of every quantile, by quantile"),
+            new StructSchema.Field(SKETCH_FIELD, DataSchema.BYTES_SCHEMA, "The t-digest of the numbers")));
+    private static final DataType RESULT_TYPE = new StructType(QUANTILES_SCHEMA);
+    private final int compression;
+    private final List<Double> quantiles;
+
+    QuantilesAggregation(int compression, List<Double> quantiles) {
+        this.compression = TDigest.checkCompression(compression);
+        this.quantiles = quantiles != null && !quantiles.isEmpty() ? List.copyOf(quantiles) : DEFAULT_QUANTILES;
+        for (final var quantile : this.quantiles) {
+            if (quantile < 0.0 || quantile > 1.0)
+                throw new DataException("Quantiles must be between 0 and 1: " + quantile);
+        }
+    }
+
+    @Override
+    public DataType resultType() {
+        return RESULT_TYPE;
+    }
+
+    @Override
+    public DataObject initial() {
+        return result(new TDigest(compression));
+    }
+
+    @Override
+    public DataObject add(DataObject aggregate, DataObject value) {
+        final var number = numberOf(value);
+        if (number == null) return aggregate;
+        final var digest = digestOf(aggregate);
+        digest.add(number);
+        return result(digest);
+    }
+
+    @Override
+    public DataObject merge(DataObject aggregate1, DataObject aggregate2) {
+        final var digest = digestOf(aggregate1);
+        digest.merge(digestOf(aggregate2));
+        return result(digest);
+    }
+
+    private TDigest digestOf(DataObject aggregate) {
+        final var bytes = sketchOf(aggregate);
+        return bytes != null ? TDigest.fromBytes(bytes) : new TDigest(compression);
+    }
+
+    private DataStruct result(TDigest digest) {
+        final var values = new DataMap(DataDouble.DATATYPE);
+        for (final var quantile : quantiles) values.put(quantile.toString(), new DataDouble(digest.quantile(quantile)));
+        final var result = new DataStruct(QUANTILES_SCHEMA);
+        result.put(COUNT_FIELD, new DataLong(digest.count()));
+        result.put(QUANTILES_FIELD, values);
+        result.put(SKETCH_FIELD, new DataBytes(digest.toBytes()));
+        return result;
+    }
+}
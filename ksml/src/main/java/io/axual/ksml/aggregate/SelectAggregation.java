@@ -0,0 +1,75 @@
+package io.axual.ksml.aggregate;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.object.DataList;
+import io.axual.ksml.data.object.DataMap;
+import io.axual.ksml.data.object.DataObject;
+import io.axual.ksml.data.object.DataPrimitive;
+import io.axual.ksml.data.object.DataStruct;
+import io.axual.ksml.data.type.DataType;
+import io.axual.ksml.data.util.ConvertUtil;
+
+/**
+ * Keeps the first or the last value.
+ */
+class SelectAggregation extends NativeAggregation {
+    private final DataType valueType;
+    private final boolean first;
+
+    SelectAggregation(DataType valueType, boolean first) {
+        this.valueType = valueType;
+        this.first = first;
+    }
+
+    @Override
+    public DataType resultType() {
+        return valueType;
+    }
+
+    @Override
+    public DataObject initial() {
+        return ConvertUtil.convertNullToDataObject(valueType);
+    }
+
+    @Override
+    public DataObject add(DataObject aggregate, DataObject value) {
+        return first && !isNull(aggregate) ? aggregate : value;
+    }
+
+    @Override
+    public DataObject merge(DataObject aggregate1, DataObject aggregate2) {
+        // The first aggregate holds the older values
+        if (isNull(aggregate1)) return aggregate2;
+        if (isNull(aggregate2)) return aggregate1;
+        return first ? aggregate1 : aggregate2;
+    }
+
+    private static boolean isNull(DataObject value) {
+        return switch (value) {
+            case DataPrimitive<?> primitive -> primitive.value() == null;
+            case DataStruct struct -> struct.isNull();
+            case DataList list -> list.isNull();
+            case DataMap map -> map.isNull();
+            case null, default -> value == null;
+        };
+    }
+}
@@ -0,0 +1,147 @@
+package io.axual.ksml.aggregate;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.exception.DataException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads and writes the binary state of sketches. Integers are written as varints and doubles as eight bytes, so
+ * sketches that are mostly empty take little space in their store.
+ */
+final class SketchEncoding {
+    private SketchEncoding() {
+    }
+
+    /**
+     * Hashes a text to 64 bits, using FNV-1a followed by the MurmurHash3 finalizer to spread the bits.
+     */
+    static long hash(String text) {
+        var hash = 0xcbf29ce484222325L;
+        for (final var b : text.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Collects the encoded bytes of a sketch.
+     */
+    static final class Writer {
+        private byte[] buffer = new byte[64];
+        private int size;
+
+        Writer writeByte(int value) {
+            ensureCapacity(1);
+            buffer[size++] = (byte) value;
+            return this;
+        }
+
+        Writer writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+            return this;
+        }
+
+        Writer writeDouble(double value) {
+            ensureCapacity(8);
+            final var bits = Double.doubleToLongBits(value);
+            for (int shift = 56; shift >= 0; shift -= 8) buffer[size++] = (byte) (bits >>> shift);
+            return this;
+        }
+
+        Writer writeString(String value) {
+            final var bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+            return this;
+        }
+
+        byte[] toBytes() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (size + extra > buffer.length)
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+        }
+    }
+
+    /**
+     * Reads the encoded bytes of a sketch.
+     */
+    static final class Reader {
+        private final byte[] bytes;
+        private int position;
+
+        Reader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        int readByte() {
+            if (position >= bytes.length) throw new DataException("Unexpected end of sketch data");
+            return bytes[position++] & 0xFF;
+        }
+
+        long readVarLong() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                final var b = readByte();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return result;
+            }
+            throw new DataException("Invalid varint in sketch data");
+        }
+
+        int readLength(int max) {
+            final var result = readVarLong();
+            if (result < 0 || result > max) throw new DataException("Invalid length " + result + " in sketch data");
+            return (int) result;
+        }
+
+        double readDouble() {
+            long bits = 0;
+            for (int index = 0; index < 8; index++) bits = (bits << 8) | readByte();
+            return Double.longBitsToDouble(bits);
+        }
+
+        String readString() {
+            final var length = readLength(bytes.length - position);
+            final var result = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return result;
+        }
+    }
+}
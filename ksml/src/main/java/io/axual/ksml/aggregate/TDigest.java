@@ -0,0 +1,170 @@
+package io.axual.ksml.aggregate;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.exception.DataException;
+
+import java.util.Arrays;
+
+/**
+ * A merging t-digest, which estimates quantiles of a stream of numbers. Values are kept in clusters whose size is
+ * bounded by {@code 4 * n * q * (1 - q) / compression}, so quantiles close to 0 and 1 are more accurate than the
+ * median. The digest keeps at most a few times {@code compression} clusters.
+ */
+final class TDigest {
+    static final int DEFAULT_COMPRESSION = 100;
+    static final int MIN_COMPRESSION = 10;
+    static final int MAX_COMPRESSION = 10000;
+    private final int compression;
+    private double[] means;
+    private long[] weights;
+    private int size;
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    TDigest(int compression) {
+        this.compression = checkCompression(compression);
+        this.means = new double[compression * 6];
+        this.weights = new long[compression * 6];
+    }
+
+    static int checkCompression(int compression) {
+        if (compression < MIN_COMPRESSION || compression > MAX_COMPRESSION)
+            throw new DataException("T-digest compression must be between " + MIN_COMPRESSION + " and " + MAX_COMPRESSION + ": " + compression);
+        return compression;
+    }
+
+    long count() {
+        return count;
+    }
+
+    void add(double value) {
+        add(value, 1);
+    }
+
+    private void add(double value, long weight) {
+        if (Double.isNaN(value)) return;
+        if (size == means.length) {
+            compress();
+            if (size == means.length) {
+                means = Arrays.copyOf(means, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+        }
+        means[size] = value;
+        weights[size] = weight;
+        size++;
+        count += weight;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    void merge(TDigest other) {
+        other.compress();
+        for (int index = 0; index < other.size; index++) add(other.means[index], other.weights[index]);
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Merges neighbouring clusters as far as their size bound allows.
+     */
+    private void compress() {
+        if (size <= 1) return;
+        final var order = new Integer[size];
+        for (int index = 0; index < size; index++) order[index] = index;
+        Arrays.sort(order, (a, b) -> Double.compare(means[a], means[b]));
+        final var newMeans = new double[means.length];
+        final var newWeights = new long[weights.length];
+        var newSize = 0;
+        var weightSoFar = 0L;
+        newMeans[0] = means[order[0]];
+        newWeights[0] = weights[order[0]];
+        for (int index = 1; index < size; index++) {
+            final var mean = means[order[index]];
+            final var weight = weights[order[index]];
+            final var proposed = newWeights[newSize] + weight;
+            final var q = (weightSoFar + proposed / 2.0) / count;
+            if (proposed <= Math.max(1.0, 4.0 * count * q * (1 - q) / compression)) {
+                newMeans[newSize] += (mean - newMeans[newSize]) * weight / proposed;
+                newWeights[newSize] = proposed;
+            } else {
+                weightSoFar += newWeights[newSize];
+                newSize++;
+                newMeans[newSize] = mean;
+                newWeights[newSize] = weight;
+            }
+        }
+        means = newMeans;
+        weights = newWeights;
+        size = newSize + 1;
+    }
+
+    /**
+     * Returns the estimated value at quantile {@code q}, or {@code null} when the digest is empty.
+     */
+    Double quantile(double q) {
+        if (count == 0) return null;
+        compress();
+        if (size == 1) return means[0];
+        final var target = Math.clamp(q, 0.0, 1.0) * count;
+        var cumulative = 0.0;
+        var previousCenter = 0.0;
+        var previousMean = min;
+        for (int index = 0; index < size; index++) {
+            final var center = cumulative + weights[index] / 2.0;
+            if (target < center) return interpolate(previousCenter, previousMean, center, means[index], target);
+            previousCenter = center;
+            previousMean = means[index];
+            cumulative += weights[index];
+        }
+        return interpolate(previousCenter, previousMean, count, max, target);
+    }
+
+    private static double interpolate(double x0, double y0, double x1, double y1, double x) {
+        if (x1 <= x0) return y1;
+        return y0 + (y1 - y0) * (x - x0) / (x1 - x0);
+    }
+
+    byte[] toBytes() {
+        compress();
+        final var writer = new SketchEncoding.Writer()
+                .writeVarLong(compression)
+                .writeDouble(min)
+                .writeDouble(max)
+                .writeVarLong(size);
+        for (int index = 0; index < size; index++) writer.writeDouble(means[index]).writeVarLong(weights[index]);
+        return writer.toBytes();
+    }
+
+    static TDigest fromBytes(byte[] bytes) {
+        final var reader = new SketchEncoding.Reader(bytes);
+        final var result = new TDigest(reader.readLength(MAX_COMPRESSION));
+        final var min = reader.readDouble();
+        final var max = reader.readDouble();
+        final var size = reader.readLength(bytes.length);
+        for (int index = 0; index < size; index++) result.add(reader.readDouble(), reader.readVarLong());
+        result.min = min;
+        result.max = max;
+        return result;
+    }
+}
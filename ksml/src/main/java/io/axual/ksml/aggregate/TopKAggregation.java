@@ -0,0 +1,104 @@
+package io.axual.ksml.aggregate;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.object.DataBytes;
+import io.axual.ksml.data.object.DataList;
+import io.axual.ksml.data.object.DataLong;
+import io.axual.ksml.data.object.DataObject;
+import io.axual.ksml.data.object.DataString;
+import io.axual.ksml.data.object.DataStruct;
+import io.axual.ksml.data.schema.DataSchema;
+import io.axual.ksml.data.schema.DataSchemaConstants;
+import io.axual.ksml.data.schema.ListSchema;
+import io.axual.ksml.data.schema.StructSchema;
+import io.axual.ksml.data.type.DataType;
+import io.axual.ksml.data.type.StructType;
+
+import java.util.List;
+
+/**
+ * Estimates the most frequent values with a {@link TopKSketch}.
+ */
+class TopKAggregation extends NativeAggregation {
+    private static final String TOP_FIELD = "top";
+    private static final String ITEM_FIELD = "item";
+    static final StructSchema TOP_K_ENTRY_SCHEMA = new StructSchema(DataSchemaConstants.DATA_SCHEMA_KSML_NAMESPACE, "TopKEntry", "A frequent value with its estimated frequency", List.of(
+            new StructSchema.Field(ITEM_FIELD, DataSchema.STRING_SCHEMA, "The value"),
+            new StructSchema.Field(COUNT_FIELD, DataSchema.LONG_SCHEMA, "The estimated number of times the value was seen")));
+    static final StructSchema TOP_K_SCHEMA = new StructSchema(DataSchemaConstants.DATA_SCHEMA_KSML_NAMESPACE, "TopK", "The most frequent values of a set of values", List.of(
+            new StructSchema.Field(COUNT_FIELD, DataSchema.LONG_SCHEMA, "The number of values"),
+            new StructSchema.Field(TOP_FIELD, new ListSchema(TOP_K_ENTRY_SCHEMA), "The most frequent values, most frequent first"),
+            new StructSchema.Field(SKETCH_FIELD, DataSchema.BYTES_SCHEMA, "The count-min sketch and candidates of the values")));
+    private static final DataType RESULT_TYPE = new StructType(TOP_K_SCHEMA);
+    private static final DataType ENTRY_TYPE = new StructType(TOP_K_ENTRY_SCHEMA);
+    private final int width;
+    private final int k;
+
+    TopKAggregation(int width, int k) {
+        this.width = TopKSketch.checkPositive("width", width);
+        this.k = TopKSketch.checkPositive("k", k);
+    }
+
+    @Override
+    public DataType resultType() {
+        return RESULT_TYPE;
+    }
+
+    @Override
+    public DataObject initial() {
+        return result(new TopKSketch(width, k));
+    }
+
+    @Override
+    public DataObject add(DataObject aggregate, DataObject value) {
+        final var sketch = sketchOf(aggregate, width, k);
+        sketch.add(textOf(value));
+        return result(sketch);
+    }
+
+    @Override
+    public DataObject merge(DataObject aggregate1, DataObject aggregate2) {
+        final var sketch = sketchOf(aggregate1, width, k);
+        sketch.merge(sketchOf(aggregate2, width, k));
+        return result(sketch);
+    }
+
+    private static TopKSketch sketchOf(DataObject aggregate, int width, int k) {
+        final var bytes = sketchOf(aggregate);
+        return bytes != null ? TopKSketch.fromBytes(bytes) : new TopKSketch(width, k);
+    }
+
+    private static DataStruct result(TopKSketch sketch) {
+        final var top = new DataList(ENTRY_TYPE);
+        for (final var entry : sketch.top()) {
+            final var item = new DataStruct(TOP_K_ENTRY_SCHEMA);
+            item.put(ITEM_FIELD, new DataString(entry.item()));
+            item.put(COUNT_FIELD, new DataLong(entry.count()));
+            top.add(item);
+        }
+        final var result = new DataStruct(TOP_K_SCHEMA);
+        result.put(COUNT_FIELD, new DataLong(sketch.count()));
+        result.put(TOP_FIELD, top);
+        result.put(SKETCH_FIELD, new DataBytes(sketch.toBytes()));
+        return result;
+    }
+}
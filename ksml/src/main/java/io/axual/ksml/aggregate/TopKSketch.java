@@ -0,0 +1,153 @@
+package io.axual.ksml.aggregate;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.exception.DataException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracks the most frequent values of a stream. Frequencies are estimated with a count-min sketch of
+ * {@code DEPTH} rows of {@code width} counters, which never underestimates and overestimates by at most
+ * {@code e * n / width} with high probability. The {@code k} values with the highest estimates are kept as
+ * candidates.
+ */
+final class TopKSketch {
+    static final int DEFAULT_WIDTH = 1024;
+    static final int DEFAULT_K = 10;
+    private static final int DEPTH = 4;
+    private final int width;
+    private final int k;
+    private final long[] counters;
+    private final Map<String, Long> candidates = new HashMap<>();
+    private long count;
+
+    /**
+     * A value with its estimated frequency.
+     */
+    record Entry(String item, long count) {
+    }
+
+    TopKSketch(int width, int k) {
+        this.width = checkPositive("width", width);
+        this.k = checkPositive("k", k);
+        this.counters = new long[DEPTH * width];
+    }
+
+    static int checkPositive(String setting, int value) {
+        if (value < 1) throw new DataException("Top-k sketch " + setting + " must be positive: " + value);
+        return value;
+    }
+
+    long count() {
+        return count;
+    }
+
+    void add(String item) {
+        final var hash = SketchEncoding.hash(item);
+        var estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            final var index = row * width + column(hash, row);
+            counters[index]++;
+            estimate = Math.min(estimate, counters[index]);
+        }
+        count++;
+        offer(item, estimate);
+    }
+
+    // Rows use independent columns, derived from the two halves of the hash
+    private int column(long hash, int row) {
+        final var combined = (int) hash + row * (int) (hash >>> 32);
+        return Math.floorMod(combined, width);
+    }
+
+    private long estimate(String item) {
+        final var hash = SketchEncoding.hash(item);
+        var estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) estimate = Math.min(estimate, counters[row * width + column(hash, row)]);
+        return estimate;
+    }
+
+    private void offer(String item, long estimate) {
+        if (candidates.containsKey(item) || candidates.size() < k) {
+            candidates.put(item, estimate);
+            return;
+        }
+        String smallest = null;
+        var smallestCount = Long.MAX_VALUE;
+        for (final var candidate : candidates.entrySet()) {
+            if (candidate.getValue() < smallestCount) {
+                smallest = candidate.getKey();
+                smallestCount = candidate.getValue();
+            }
+        }
+        if (estimate > smallestCount) {
+            candidates.remove(smallest);
+            candidates.put(item, estimate);
+        }
+    }
+
+    void merge(TopKSketch other) {
+        if (other.width != width)
+            throw new DataException("Can not merge top-k sketches with width " + width + " and " + other.width);
+        for (int index = 0; index < counters.length; index++) counters[index] += other.counters[index];
+        count += other.count;
+        // Estimates of all candidates change, so they are offered again against the merged counters
+        final var items = new ArrayList<>(candidates.keySet());
+        items.addAll(other.candidates.keySet());
+        candidates.clear();
+        for (final var item : items) offer(item, estimate(item));
+    }
+
+    /**
+     * Returns the candidates, most frequent first.
+     */
+    List<Entry> top() {
+        final var result = new ArrayList<Entry>(candidates.size());
+        candidates.forEach((item, estimate) -> result.add(new Entry(item, estimate)));
+        result.sort((a, b) -> a.count() != b.count() ? Long.compare(b.count(), a.count()) : a.item().compareTo(b.item()));
+        return result;
+    }
+
+    byte[] toBytes() {
+        final var writer = new SketchEncoding.Writer()
+                .writeVarLong(width)
+                .writeVarLong(k)
+                .writeVarLong(count);
+        for (final var counter : counters) writer.writeVarLong(counter);
+        writer.writeVarLong(candidates.size());
+        candidates.forEach((item, estimate) -> writer.writeString(item).writeVarLong(estimate));
+        return writer.toBytes();
+    }
+
+    static TopKSketch fromBytes(byte[] bytes) {
+        final var reader = new SketchEncoding.Reader(bytes);
+        final var result = new TopKSketch(reader.readLength(bytes.length), reader.readLength(Integer.MAX_VALUE));
+        result.count = reader.readVarLong();
+        for (int index = 0; index < result.counters.length; index++) result.counters[index] = reader.readVarLong();
+        final var size = reader.readLength(bytes.length);
+        for (int index = 0; index < size; index++) result.candidates.put(reader.readString(), reader.readVarLong());
+        return result;
+    }
+}
@@ -48,4 +48,14 @@ public class DataObjectConverter {
                 value,
                 false);
     }
+
+    // Prepares the conversion of many values to the same target type. The notations are looked up once
+    // and the returned conversion gives the same results as convert(), but returns values that already
+    // match the target type as is.
+    public ConvertUtil.Conversion compile(String sourceNotation, UserType targetType) {
+        return convertUtil.compile(
+                ExecutionContext.INSTANCE.notationLibrary().getIfExists(sourceNotation),
+                ExecutionContext.INSTANCE.notationLibrary().getIfExists(targetType.notation()),
+                targetType.dataType());
+    }
 }
@@ -24,11 +24,16 @@ import io.axual.ksml.data.object.DataLong;
 import io.axual.ksml.data.object.DataObject;
 import io.axual.ksml.data.object.DataString;
 import io.axual.ksml.data.object.DataStruct;
+import io.axual.ksml.data.schema.StructSchema;
 import io.axual.ksml.data.type.DataType;
 import io.axual.ksml.data.type.WindowedType;
 import org.apache.kafka.streams.kstream.Windowed;
 import org.apache.kafka.streams.kstream.internals.TimeWindow;
 
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import static io.axual.ksml.dsl.WindowedSchema.WINDOWED_SCHEMA_END_FIELD;
 import static io.axual.ksml.dsl.WindowedSchema.WINDOWED_SCHEMA_END_TIME_FIELD;
 import static io.axual.ksml.dsl.WindowedSchema.WINDOWED_SCHEMA_KEY_FIELD;
@@ -49,6 +54,15 @@ import static io.axual.ksml.dsl.WindowedSchema.generateWindowedSchema;
 // DataObject to this method.
 public class DataObjectFlattener extends NativeDataObjectMapper {
     private static final DataTypeFlattener FLATTENER = new DataTypeFlattener();
+    // Windowed schemas are cached per key type, since the same windowed schema is needed for every record
+    private static final int MAX_CACHED_SCHEMAS = 256;
+    private static final Map<DataType, StructSchema> WINDOWED_SCHEMAS = new ConcurrentHashMap<>();
+    // Window boundaries are shared by all keys in a window, so their time strings are cached per boundary
+    private static final int TIME_CACHE_SIZE = 1024;
+    private static final TimeString[] TIME_STRINGS = new TimeString[TIME_CACHE_SIZE];
+
+    private record TimeString(long timestamp, DataString value) {
+    }
 
     @Override
     public DataObject toDataObject(Object value) {
@@ -60,26 +74,43 @@ public class DataObjectFlattener extends NativeDataObjectMapper {
         if (value instanceof Windowed<?> windowedObject) {
             // Convert a Windowed object into a struct with fields that contain the window fields.
             final var keyAsData = toDataObject(windowedObject.key());
-            final var schema = generateWindowedSchema(new WindowedType(keyAsData.type()), FLATTENER::toDataSchema);
-            final var result = new DataStruct(schema);
+            final var result = new DataStruct(windowedSchema(keyAsData.type()));
             result.put(WINDOWED_SCHEMA_START_FIELD, new DataLong(windowedObject.window().start()));
             result.put(WINDOWED_SCHEMA_END_FIELD, new DataLong(windowedObject.window().end()));
-            result.put(WINDOWED_SCHEMA_START_TIME_FIELD, new DataString(windowedObject.window().startTime().toString()));
-            result.put(WINDOWED_SCHEMA_END_TIME_FIELD, new DataString(windowedObject.window().endTime().toString()));
+            result.put(WINDOWED_SCHEMA_START_TIME_FIELD, timeString(windowedObject.window().start()));
+            result.put(WINDOWED_SCHEMA_END_TIME_FIELD, timeString(windowedObject.window().end()));
             result.put(WINDOWED_SCHEMA_KEY_FIELD, keyAsData);
             return result;
         }
         return super.toDataObject(expected, value);
     }
 
+    private static StructSchema windowedSchema(DataType keyType) {
+        final var result = WINDOWED_SCHEMAS.get(keyType);
+        if (result != null) return result;
+        final var schema = generateWindowedSchema(new WindowedType(keyType), FLATTENER::toDataSchema);
+        if (WINDOWED_SCHEMAS.size() < MAX_CACHED_SCHEMAS) WINDOWED_SCHEMAS.putIfAbsent(keyType, schema);
+        return schema;
+    }
+
+    private static DataString timeString(long timestamp) {
+        final var slot = (int) (timestamp ^ (timestamp >>> 32)) & (TIME_CACHE_SIZE - 1);
+        final var cached = TIME_STRINGS[slot];
+        if (cached != null && cached.timestamp() == timestamp) return cached.value();
+        final var result = new DataString(Instant.ofEpochMilli(timestamp).toString());
+        TIME_STRINGS[slot] = new TimeString(timestamp, result);
+        return result;
+    }
+
     public Object unflatten(DataType expected, DataObject value) {
         if (expected instanceof WindowedType && value instanceof DataStruct struct
-                && struct.containsKey(WINDOWED_SCHEMA_START_FIELD) && struct.containsKey(WINDOWED_SCHEMA_END_FIELD)
-                && struct.containsKey(WINDOWED_SCHEMA_KEY_FIELD)) {
-            final var start = fromDataObject(struct.get(WINDOWED_SCHEMA_START_FIELD));
-            final var end = fromDataObject(struct.get(WINDOWED_SCHEMA_END_FIELD));
-            final var key = fromDataObject(struct.get(WINDOWED_SCHEMA_KEY_FIELD));
-            if (start instanceof Long startTs && end instanceof Long endTs && key != null) {
+                && struct.get(WINDOWED_SCHEMA_START_FIELD) instanceof DataLong start && start.value() != null
+                && struct.get(WINDOWED_SCHEMA_END_FIELD) instanceof DataLong end && end.value() != null
+                && struct.get(WINDOWED_SCHEMA_KEY_FIELD) instanceof DataObject keyAsData) {
+            final var key = fromDataObject(keyAsData);
+            if (key != null) {
+                final long startTs = start.value();
+                final long endTs = end.value();
                 if (startTs >= endTs)
                     throw new IllegalArgumentException("Invalid window: startTs=" + startTs + " endTs=" + endTs + ", end needs to be greater than start");
                 return new Windowed<>(key, new TimeWindow(startTs, endTs));
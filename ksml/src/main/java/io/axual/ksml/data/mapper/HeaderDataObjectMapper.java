@@ -33,10 +33,13 @@ import io.axual.ksml.data.object.DataStruct;
 import io.axual.ksml.data.serde.StringSerde;
 import io.axual.ksml.data.type.DataType;
 import io.axual.ksml.data.util.NumericRangeChecker;
+import org.apache.kafka.common.header.Header;
 import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeader;
 import org.apache.kafka.common.header.internals.RecordHeaders;
 
 import java.awt.event.KeyEvent;
+import java.nio.charset.StandardCharsets;
 
 import static io.axual.ksml.dsl.HeaderSchema.HEADER_SCHEMA;
 import static io.axual.ksml.dsl.HeaderSchema.HEADER_SCHEMA_KEY_FIELD;
@@ -46,19 +49,24 @@ import static io.axual.ksml.dsl.HeaderSchema.HEADER_TYPE;
 public class HeaderDataObjectMapper implements DataObjectMapper<Headers> {
     private static final StringSerde STRING_SERDE = new StringSerde(new NativeDataObjectMapper());
 
+    /**
+     * Returns a {@link HeaderList} view on the headers, which decodes every header only when it is accessed.
+     */
     @Override
     public DataObject toDataObject(DataType expected, Headers value) {
-        final var result = new DataList(HEADER_TYPE);
-        value.forEach(header -> {
-            final var element = new DataStruct(HEADER_SCHEMA);
-            element.put(HEADER_SCHEMA_KEY_FIELD, new DataString(header.key()));
-            element.put(HEADER_SCHEMA_VALUE_FIELD, convertHeaderValue(header.value()));
-            result.add(element);
-        });
+        return new HeaderList(value);
+    }
+
+    static DataStruct decodeHeader(Header header) {
+        final var result = new DataStruct(HEADER_SCHEMA);
+        result.put(HEADER_SCHEMA_KEY_FIELD, new DataString(header.key()));
+        result.put(HEADER_SCHEMA_VALUE_FIELD, convertHeaderValue(header.value()));
         return result;
     }
 
-    private DataObject convertHeaderValue(byte[] value) {
+    private static DataObject convertHeaderValue(byte[] value) {
+        // Most header values are plain ASCII text, which is decoded without the deserializer
+        if (value != null && isPrintableAscii(value)) return new DataString(new String(value, StandardCharsets.ISO_8859_1));
         try {
             final var result = STRING_SERDE.deserializer().deserialize(null, value);
             if (result == null) return DataNull.INSTANCE;
@@ -68,7 +76,14 @@ public class HeaderDataObjectMapper implements DataObjectMapper<Headers> {
         }
     }
 
-    private byte[] convertHeaderValue(DataObject value) {
+    private static boolean isPrintableAscii(byte[] value) {
+        for (final var b : value) {
+            if (b < 0x20 || b > 0x7E) return false;
+        }
+        return true;
+    }
+
+    private static byte[] convertHeaderValue(DataObject value) {
         if (value instanceof DataString val) {
             return STRING_SERDE.serializer().serialize(null, val);
         }
@@ -95,7 +110,7 @@ public class HeaderDataObjectMapper implements DataObjectMapper<Headers> {
         throw new IllegalArgumentException("Unsupported Kafka Header value type: " + value.type());
     }
 
-    private boolean isRealString(String value) {
+    private static boolean isRealString(String value) {
         for (var index = 0; index < value.length(); index++) {
             final var ch = value.charAt(index);
             if (!isPrintableChar(ch)) return false;
@@ -109,7 +124,7 @@ public class HeaderDataObjectMapper implements DataObjectMapper<Headers> {
     }
 
     // From https://stackoverflow.com/questions/220547/printable-char-in-java
-    private boolean isPrintableChar(char c) {
+    private static boolean isPrintableChar(char c) {
         Character.UnicodeBlock block = Character.UnicodeBlock.of(c);
         return (!Character.isISOControl(c)) &&
                 c != KeyEvent.CHAR_UNDEFINED &&
@@ -117,26 +132,45 @@ public class HeaderDataObjectMapper implements DataObjectMapper<Headers> {
                 block != Character.UnicodeBlock.SPECIALS;
     }
 
+    /**
+     * Converts a list of headers to Kafka headers. A {@link HeaderList} without replacements returns its original
+     * headers, and its headers that were not replaced are added as the original header.
+     */
     @Override
     public Headers fromDataObject(DataObject value) {
+        if (value instanceof HeaderList headerList) return fromHeaderList(headerList);
         final var result = new RecordHeaders();
         if (!(value instanceof DataList headers)) {
             throw new IllegalArgumentException("Invalid Kafka Headers type: " + value.type());
         }
         for (final var element : headers) {
-            if (HEADER_TYPE.isAssignableFrom(element).isNotAssignable() || !(element instanceof DataStruct header)) {
-                throw new IllegalArgumentException("Invalid Kafka Header type: " + element.type());
-            }
-            if (header.size() != 2) {
-                throw new IllegalArgumentException("Invalid Kafka Header: " + header);
-            }
-            final var hKey = header.get(HEADER_SCHEMA_KEY_FIELD);
-            final var hValue = header.get(HEADER_SCHEMA_VALUE_FIELD);
-            if (!(hKey instanceof DataString headerKey)) {
-                throw new IllegalArgumentException("Invalid Kafka Header key type: " + hKey.type());
-            }
-            result.add(headerKey.value(), convertHeaderValue(hValue));
+            result.add(convertHeader(element));
         }
         return result;
     }
+
+    private Headers fromHeaderList(HeaderList headers) {
+        if (headers.isUnchanged()) return headers.headers();
+        final var result = new RecordHeaders();
+        for (var index = 0; index < headers.size(); index++) {
+            final var replacement = headers.replacement(index);
+            result.add(replacement != null ? convertHeader(replacement) : headers.original(index));
+        }
+        return result;
+    }
+
+    private static Header convertHeader(DataObject element) {
+        if (HEADER_TYPE.isAssignableFrom(element).isNotAssignable() || !(element instanceof DataStruct header)) {
+            throw new IllegalArgumentException("Invalid Kafka Header type: " + element.type());
+        }
+        if (header.size() != 2) {
+            throw new IllegalArgumentException("Invalid Kafka Header: " + header);
+        }
+        final var hKey = header.get(HEADER_SCHEMA_KEY_FIELD);
+        final var hValue = header.get(HEADER_SCHEMA_VALUE_FIELD);
+        if (!(hKey instanceof DataString headerKey)) {
+            throw new IllegalArgumentException("Invalid Kafka Header key type: " + hKey.type());
+        }
+        return new RecordHeader(headerKey.value(), convertHeaderValue(hValue));
+    }
 }
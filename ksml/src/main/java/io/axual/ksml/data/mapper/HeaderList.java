@@ -0,0 +1,167 @@
+package io.axual.ksml.data.mapper;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.object.DataList;
+import io.axual.ksml.data.object.DataObject;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import javax.annotation.Nonnull;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import static io.axual.ksml.dsl.HeaderSchema.HEADER_TYPE;
+
+/**
+ * A read-only view on the headers of a record, which decodes a header only when it is accessed.
+ * <p>
+ * Changed headers are applied with {@link #withReplacements(Map)}, which returns a new view. When a view is
+ * converted back by the {@link HeaderDataObjectMapper}, all headers that were not replaced are written as the original
+ * header, and a view without replacements returns the original {@link Headers} instance.
+ */
+public class HeaderList extends DataList {
+    private final Headers headers;
+    private final Header[] originals;
+    private final DataObject[] decoded;
+    private final DataObject[] replacements;
+    private boolean materialized = false;
+
+    HeaderList(Headers headers) {
+        this(headers, headers.toArray(), null);
+    }
+
+    private HeaderList(Headers headers, Header[] originals, DataObject[] replacements) {
+        super(HEADER_TYPE);
+        this.headers = headers;
+        this.originals = originals;
+        this.decoded = new DataObject[originals.length];
+        this.replacements = replacements;
+    }
+
+    /**
+     * Returns the headers this view was created for.
+     *
+     * @return the original headers
+     */
+    public Headers headers() {
+        return headers;
+    }
+
+    /**
+     * Returns a view with some headers replaced. Replacements that are equal to the decoded original header are
+     * ignored, so the original header is kept.
+     *
+     * @param replacements the replaced headers by index
+     * @return a view with the replacements, or this view if no header was changed
+     */
+    public HeaderList withReplacements(Map<Integer, DataObject> replacements) {
+        DataObject[] changed = null;
+        for (final var entry : replacements.entrySet()) {
+            final var index = entry.getKey();
+            if (entry.getValue().equals(get(index))) continue;
+            if (changed == null)
+                changed = this.replacements != null ? this.replacements.clone() : new DataObject[originals.length];
+            changed[index] = entry.getValue();
+        }
+        return changed != null ? new HeaderList(headers, originals, changed) : this;
+    }
+
+    boolean isUnchanged() {
+        return replacements == null;
+    }
+
+    Header original(int index) {
+        return originals[index];
+    }
+
+    DataObject replacement(int index) {
+        return replacements != null ? replacements[index] : null;
+    }
+
+    @Override
+    public int size() {
+        return originals.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return originals.length == 0;
+    }
+
+    @Override
+    public DataObject get(int index) {
+        final var replacement = replacement(index);
+        if (replacement != null) return replacement;
+        if (decoded[index] == null) decoded[index] = HeaderDataObjectMapper.decodeHeader(originals[index]);
+        return decoded[index];
+    }
+
+    @Nonnull
+    @Override
+    public Iterator<DataObject> iterator() {
+        return new Iterator<>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < originals.length;
+            }
+
+            @Override
+            public DataObject next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return get(index++);
+            }
+        };
+    }
+
+    @Override
+    public boolean add(DataObject... values) {
+        throw new UnsupportedOperationException("Can not add elements to a view on record headers");
+    }
+
+    // Equality of lists compares their contents directly, so all headers are decoded into the contents first
+    @Override
+    protected boolean canEqual(Object other) {
+        materialize();
+        return super.canEqual(other);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        materialize();
+        return super.equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+        materialize();
+        return super.hashCode();
+    }
+
+    private void materialize() {
+        if (materialized) return;
+        materialized = true;
+        for (int index = 0; index < originals.length; index++) super.add(get(index));
+    }
+}
@@ -22,16 +22,28 @@ package io.axual.ksml.definition;
 
 
 import io.axual.ksml.dsl.KSMLDSL;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 
 import static io.axual.ksml.definition.DefinitionConstants.KEY_VALUE_AGGREGATED_VALUE_PARAMETERS;
 import static io.axual.ksml.definition.DefinitionConstants.PARAM_AGGREGATED_VALUE;
 
+@Getter
+@EqualsAndHashCode
 public class AggregatorDefinition extends FunctionDefinition {
+    // The built-in aggregation, or null when records are aggregated by Python code
+    private final BuiltinAggregationDefinition builtin;
+
     public AggregatorDefinition(FunctionDefinition definition) {
+        this(definition, definition instanceof AggregatorDefinition aggregator ? aggregator.builtin : null);
+    }
+
+    public AggregatorDefinition(FunctionDefinition definition, BuiltinAggregationDefinition builtin) {
         super(definition
                 .withType(KSMLDSL.Functions.TYPE_AGGREGATOR)
                 .withParameters(mergeParameters(KEY_VALUE_AGGREGATED_VALUE_PARAMETERS, definition.parameters()))
                 .withDefaultExpression(PARAM_AGGREGATED_VALUE)
                 .validateResultTypeDefined());
+        this.builtin = builtin;
     }
 }
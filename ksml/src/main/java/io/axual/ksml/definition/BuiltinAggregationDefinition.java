@@ -0,0 +1,49 @@
+package io.axual.ksml.definition;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import java.util.List;
+
+/**
+ * Describes a built-in aggregation, which aggregates records in Java instead of calling Python functions.
+ *
+ * @param function   the name of the aggregation, for example {@code sum} or {@code countDistinct}
+ * @param field      the path of the value field to aggregate, with nested fields separated by dots, or {@code null}
+ *                   to aggregate the complete value
+ * @param quantiles  the quantiles reported by the {@code quantiles} aggregation
+ * @param k          the number of most frequent values reported by the {@code topK} aggregation
+ * @param boundaries the upper bounds of the buckets of the {@code histogram} aggregation
+ * @param precision  the accuracy of a sketch, or {@code null} for its default accuracy
+ */
+public record BuiltinAggregationDefinition(String function, String field, List<Double> quantiles, Integer k,
+                                           List<Double> boundaries, Integer precision) implements Definition {
+    private static final String FIELD_SEPARATOR = "\\.";
+
+    /**
+     * Returns the names of the nested fields that lead to the aggregated value, or an empty path when the complete
+     * value is aggregated.
+     *
+     * @return the field path
+     */
+    public String[] fieldPath() {
+        return field != null ? field.split(FIELD_SEPARATOR) : new String[0];
+    }
+}
@@ -30,9 +30,16 @@ import org.apache.kafka.streams.AutoOffsetReset;
 @EqualsAndHashCode
 public class GlobalTableDefinition extends TopicDefinition {
     private final KeyValueStateStoreDefinition store;
+    // The number of decoded values kept for joins, or null to read every joined value from the store
+    private final Integer nearCacheSize;
 
     public GlobalTableDefinition(String topic, UserType keyType, UserType valueType, AutoOffsetReset resetPolicy, FunctionDefinition tsExtractor, FunctionDefinition partitioner, KeyValueStateStoreDefinition store) {
+        this(topic, keyType, valueType, resetPolicy, tsExtractor, partitioner, store, null);
+    }
+
+    public GlobalTableDefinition(String topic, UserType keyType, UserType valueType, AutoOffsetReset resetPolicy, FunctionDefinition tsExtractor, FunctionDefinition partitioner, KeyValueStateStoreDefinition store, Integer nearCacheSize) {
         super(topic, keyType, valueType, resetPolicy, tsExtractor, partitioner);
         this.store = store;
+        this.nearCacheSize = nearCacheSize;
     }
 }
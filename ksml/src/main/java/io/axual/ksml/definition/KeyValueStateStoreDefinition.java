@@ -33,23 +33,63 @@ public class KeyValueStateStoreDefinition extends StateStoreDefinition {
     private final boolean versioned;
     private final Duration historyRetention;
     private final Duration segmentInterval;
+    // Bounds of in-memory stores: the maximum number of entries, the time to live of entries and off-heap values
+    private final int maxEntries;
+    private final Duration timeToLive;
+    private final boolean offHeap;
 
     public KeyValueStateStoreDefinition(String name, UserType keyType, UserType valueType) {
         this(name, false, false, false, null, null, keyType, valueType, false, false);
     }
 
     public KeyValueStateStoreDefinition(String name, Boolean persistent, Boolean timestamped, Boolean versioned, Duration historyRetention, Duration segmentInterval, UserType keyType, UserType valueType, Boolean caching, Boolean logging) {
-        super(StoreType.KEYVALUE_STORE, name, persistent, timestamped, keyType, valueType, caching, logging);
+        this(name, persistent, timestamped, versioned, historyRetention, segmentInterval, keyType, valueType, caching, logging, null);
+    }
+
+    public KeyValueStateStoreDefinition(String name, Boolean persistent, Boolean timestamped, Boolean versioned, Duration historyRetention, Duration segmentInterval, UserType keyType, UserType valueType, Boolean caching, Boolean logging, Integer objectCacheSize) {
+        this(name, persistent, timestamped, versioned, historyRetention, segmentInterval, keyType, valueType, caching, logging, objectCacheSize, null);
+    }
+
+    public KeyValueStateStoreDefinition(String name, Boolean persistent, Boolean timestamped, Boolean versioned, Duration historyRetention, Duration segmentInterval, UserType keyType, UserType valueType, Boolean caching, Boolean logging, Integer objectCacheSize, RocksDbDefinition rocksDb) {
+        this(name, persistent, timestamped, versioned, historyRetention, segmentInterval, keyType, valueType, caching, logging, objectCacheSize, rocksDb, null, null, null);
+    }
+
+    public KeyValueStateStoreDefinition(String name, Boolean persistent, Boolean timestamped, Boolean versioned, Duration historyRetention, Duration segmentInterval, UserType keyType, UserType valueType, Boolean caching, Boolean logging, Integer objectCacheSize, RocksDbDefinition rocksDb, Integer maxEntries, Duration timeToLive, Boolean offHeap) {
+        super(StoreType.KEYVALUE_STORE, name, persistent, timestamped, keyType, valueType, caching, logging, objectCacheSize, rocksDb);
         this.versioned = versioned != null && versioned;
         this.historyRetention = historyRetention != null ? historyRetention : Duration.ZERO;
         this.segmentInterval = segmentInterval != null ? segmentInterval : Duration.ZERO;
+        this.maxEntries = maxEntries != null ? Math.max(maxEntries, 0) : 0;
+        this.timeToLive = timeToLive != null ? timeToLive : Duration.ZERO;
+        this.offHeap = offHeap != null && offHeap;
+    }
+
+    /**
+     * Returns whether this store is an in-memory store with a maximum size, a time to live or off-heap values.
+     */
+    public boolean bounded() {
+        return maxEntries > 0 || timeToLive.isPositive() || offHeap;
     }
 
     public KeyValueStateStoreDefinition with(String name) {
-        return new KeyValueStateStoreDefinition(name, persistent(), timestamped(), versioned(), historyRetention(), segmentInterval(), keyType(), valueType(), caching(), logging());
+        return new KeyValueStateStoreDefinition(name, persistent(), timestamped(), versioned(), historyRetention(), segmentInterval(), keyType(), valueType(), caching(), logging(), objectCacheSize(), rocksDb(), maxEntries(), timeToLive(), offHeap());
     }
 
     public KeyValueStateStoreDefinition with(UserType keyType, UserType valueType) {
-        return new KeyValueStateStoreDefinition(name(), persistent(), timestamped(), versioned(), historyRetention(), segmentInterval(), keyType, valueType, caching(), logging());
+        return new KeyValueStateStoreDefinition(name(), persistent(), timestamped(), versioned(), historyRetention(), segmentInterval(), keyType, valueType, caching(), logging(), objectCacheSize(), rocksDb(), maxEntries(), timeToLive(), offHeap());
+    }
+
+    @Override
+    public KeyValueStateStoreDefinition withObjectCacheSize(Integer objectCacheSize) {
+        return new KeyValueStateStoreDefinition(name(), persistent(), timestamped(), versioned(), historyRetention(), segmentInterval(), keyType(), valueType(), caching(), logging(), objectCacheSize, rocksDb(), maxEntries(), timeToLive(), offHeap());
+    }
+
+    @Override
+    public KeyValueStateStoreDefinition withRocksDb(RocksDbDefinition rocksDb) {
+        return new KeyValueStateStoreDefinition(name(), persistent(), timestamped(), versioned(), historyRetention(), segmentInterval(), keyType(), valueType(), caching(), logging(), objectCacheSize(), rocksDb, maxEntries(), timeToLive(), offHeap());
+    }
+
+    public KeyValueStateStoreDefinition withBounds(Integer maxEntries, Duration timeToLive, Boolean offHeap) {
+        return new KeyValueStateStoreDefinition(name(), persistent(), timestamped(), versioned(), historyRetention(), segmentInterval(), keyType(), valueType(), caching(), logging(), objectCacheSize(), rocksDb(), maxEntries, timeToLive, offHeap);
     }
 }
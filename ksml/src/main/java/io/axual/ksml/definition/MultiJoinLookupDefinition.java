@@ -0,0 +1,33 @@
+package io.axual.ksml.definition;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+/**
+ * Describes one table lookup of a multi-way join.
+ *
+ * @param field  the name of the field that holds the looked up value
+ * @param target the table or global table to look up values in
+ * @param mapper the function that selects the key to look up in a global table, or {@code null} to look up the
+ *               record key
+ * @param left   {@code true} to keep records without a value in the table, {@code false} to drop them
+ */
+public record MultiJoinLookupDefinition(String field, TopicDefinition target, FunctionDefinition mapper, boolean left) implements Definition {
+}
@@ -0,0 +1,44 @@
+package io.axual.ksml.definition;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+/**
+ * RocksDB settings of a single persistent state store. Settings that are not specified keep the Kafka Streams
+ * defaults.
+ *
+ * @param blockCacheSize   the size in bytes of the block cache, or of the shared block cache if one is named
+ * @param sharedBlockCache the name of a block cache that is shared with all other stores using the same name
+ * @param bloomFilter      whether lookups use a bloom filter to skip files that do not contain a key
+ * @param compression      the compression of data files, one of none, snappy, lz4, lz4hc, zstd or zlib
+ * @param writeBufferSize  the size in bytes of a single memtable
+ * @param maxWriteBuffers  the maximum number of memtables that are kept in memory
+ * @param compactionStyle  the compaction style, one of level, universal or fifo
+ * @param statistics       whether RocksDB statistics of the store are exported as metrics
+ */
+public record RocksDbDefinition(Long blockCacheSize,
+                                String sharedBlockCache,
+                                Boolean bloomFilter,
+                                String compression,
+                                Long writeBufferSize,
+                                Integer maxWriteBuffers,
+                                String compactionStyle,
+                                Boolean statistics) implements Definition {
+}
@@ -33,7 +33,25 @@ public class SessionStateStoreDefinition extends StateStoreDefinition {
     private final Duration retention;
 
     public SessionStateStoreDefinition(String name, Boolean persistent, Boolean timestamped, Duration retention, UserType keyType, UserType valueType, Boolean caching, Boolean logging) {
-        super(StoreType.SESSION_STORE, name, persistent, timestamped, keyType, valueType, caching, logging);
+        this(name, persistent, timestamped, retention, keyType, valueType, caching, logging, null);
+    }
+
+    public SessionStateStoreDefinition(String name, Boolean persistent, Boolean timestamped, Duration retention, UserType keyType, UserType valueType, Boolean caching, Boolean logging, Integer objectCacheSize) {
+        this(name, persistent, timestamped, retention, keyType, valueType, caching, logging, objectCacheSize, null);
+    }
+
+    public SessionStateStoreDefinition(String name, Boolean persistent, Boolean timestamped, Duration retention, UserType keyType, UserType valueType, Boolean caching, Boolean logging, Integer objectCacheSize, RocksDbDefinition rocksDb) {
+        super(StoreType.SESSION_STORE, name, persistent, timestamped, keyType, valueType, caching, logging, objectCacheSize, rocksDb);
         this.retention = retention != null ? retention : Duration.ZERO;
     }
+
+    @Override
+    public SessionStateStoreDefinition withObjectCacheSize(Integer objectCacheSize) {
+        return new SessionStateStoreDefinition(name(), persistent(), timestamped(), retention(), keyType(), valueType(), caching(), logging(), objectCacheSize, rocksDb());
+    }
+
+    @Override
+    public SessionStateStoreDefinition withRocksDb(RocksDbDefinition rocksDb) {
+        return new SessionStateStoreDefinition(name(), persistent(), timestamped(), retention(), keyType(), valueType(), caching(), logging(), objectCacheSize(), rocksDb);
+    }
 }
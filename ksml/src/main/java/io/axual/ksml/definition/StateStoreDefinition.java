@@ -38,8 +38,20 @@ public abstract class StateStoreDefinition extends AbstractDefinition {
     private final UserType valueType;
     private final boolean caching;
     private final boolean logging;
+    // The number of decoded values per stream thread that are kept in memory, or 0 to decode all values
+    private final int objectCacheSize;
+    // The RocksDB settings of persistent stores, or null to use the Kafka Streams defaults
+    private final RocksDbDefinition rocksDb;
 
     protected StateStoreDefinition(StoreType type, String name, Boolean persistent, Boolean timestamped, UserType keyType, UserType valueType, Boolean caching, Boolean logging) {
+        this(type, name, persistent, timestamped, keyType, valueType, caching, logging, null);
+    }
+
+    protected StateStoreDefinition(StoreType type, String name, Boolean persistent, Boolean timestamped, UserType keyType, UserType valueType, Boolean caching, Boolean logging, Integer objectCacheSize) {
+        this(type, name, persistent, timestamped, keyType, valueType, caching, logging, objectCacheSize, null);
+    }
+
+    protected StateStoreDefinition(StoreType type, String name, Boolean persistent, Boolean timestamped, UserType keyType, UserType valueType, Boolean caching, Boolean logging, Integer objectCacheSize, RocksDbDefinition rocksDb) {
         Objects.requireNonNull(type, "State stores must have a defined type");
         Objects.requireNonNull(name, "State stores must have a defined name");
         this.type = type;
@@ -50,8 +62,14 @@ public abstract class StateStoreDefinition extends AbstractDefinition {
         this.valueType = valueType;
         this.caching = caching != null && caching;
         this.logging = logging != null && logging;
+        this.objectCacheSize = objectCacheSize != null ? Math.max(objectCacheSize, 0) : 0;
+        this.rocksDb = rocksDb;
     }
 
+    public abstract StateStoreDefinition withObjectCacheSize(Integer objectCacheSize);
+
+    public abstract StateStoreDefinition withRocksDb(RocksDbDefinition rocksDb);
+
     @Override
     public String toString() {
         return super.toString() + " [name=" + (name == null ? "Unnamed" : name) + "]";
@@ -23,14 +23,26 @@ package io.axual.ksml.definition;
 
 import io.axual.ksml.dsl.KSMLDSL;
 import io.axual.ksml.user.UserTimestampExtractor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 
 import static io.axual.ksml.definition.DefinitionConstants.TIMESTAMP_EXTRACTOR_PARAMETERS;
 
+@Getter
+@EqualsAndHashCode
 public class TimestampExtractorDefinition extends FunctionDefinition {
+    // The declarative source of the event time, or null when the event time is extracted by Python code
+    private final TimestampSourceDefinition source;
+
     public TimestampExtractorDefinition(FunctionDefinition definition) {
+        this(definition, null);
+    }
+
+    public TimestampExtractorDefinition(FunctionDefinition definition, TimestampSourceDefinition source) {
         super(definition
                 .withType(KSMLDSL.Functions.TYPE_TIMESTAMPEXTRACTOR)
                 .withParameters(mergeParameters(TIMESTAMP_EXTRACTOR_PARAMETERS, definition.parameters()))
                 .withDefaultResultType(UserTimestampExtractor.EXPECTED_RESULT_TYPE));
+        this.source = source;
     }
 }
@@ -0,0 +1,43 @@
+package io.axual.ksml.definition;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+/**
+ * Describes where a declarative timestamp extractor reads the event time of a record, without calling a
+ * Python function.
+ *
+ * @param field  the path of the value field holding the event time, with nested fields separated by dots
+ * @param header the name of the header holding the event time
+ * @param format the date-time pattern of string timestamps, or {@code null} for ISO-8601 or epoch numbers
+ * @param unit   the unit of epoch timestamps, or {@code null} for milliseconds
+ */
+public record TimestampSourceDefinition(String field, String header, String format, String unit) implements Definition {
+    private static final String FIELD_SEPARATOR = "\\.";
+
+    /**
+     * Returns the names of the nested fields that lead to the event time.
+     *
+     * @return the field path, or an empty array if the event time is read from a header
+     */
+    public String[] fieldPath() {
+        return field != null ? field.split(FIELD_SEPARATOR) : new String[0];
+    }
+}
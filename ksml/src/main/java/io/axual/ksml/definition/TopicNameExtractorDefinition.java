@@ -23,14 +23,31 @@ package io.axual.ksml.definition;
 
 import io.axual.ksml.dsl.KSMLDSL;
 import io.axual.ksml.user.UserTopicNameExtractor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 
 import static io.axual.ksml.definition.DefinitionConstants.TOPIC_NAME_EXTRACTOR_PARAMETERS;
 
+@Getter
+@EqualsAndHashCode
 public class TopicNameExtractorDefinition extends FunctionDefinition {
+    // The declarative routing table, or null when the topic name is extracted by Python code
+    private final TopicRouteDefinition route;
+    // Whether the topic name only depends on the key and value, so it can be reused for equal messages
+    private final boolean pure;
+
     public TopicNameExtractorDefinition(FunctionDefinition definition) {
+        this(definition,
+                definition instanceof TopicNameExtractorDefinition tne ? tne.route : null,
+                definition instanceof TopicNameExtractorDefinition tne && tne.pure);
+    }
+
+    public TopicNameExtractorDefinition(FunctionDefinition definition, TopicRouteDefinition route, boolean pure) {
         super(definition
                 .withType(KSMLDSL.Functions.TYPE_TOPICNAMEEXTRACTOR)
                 .withParameters(mergeParameters(TOPIC_NAME_EXTRACTOR_PARAMETERS, definition.parameters()))
                 .withDefaultResultType(UserTopicNameExtractor.EXPECTED_RESULT_TYPE));
+        this.route = route;
+        this.pure = pure;
     }
 }
@@ -0,0 +1,46 @@
+package io.axual.ksml.definition;
+
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import java.util.Map;
+
+/**
+ * Describes how a declarative topic name extractor picks the destination topic of a record, by looking up the
+ * value of a single field in a routing table instead of calling a Python function.
+ *
+ * @param field        the path of the value field to route on, with nested fields separated by dots
+ * @param topics       the destination topic for every routed field value
+ * @param defaultTopic the topic for records whose field is missing or has an unlisted value, or {@code null} to
+ *                     fail on such records
+ */
+public record TopicRouteDefinition(String field, Map<String, String> topics, String defaultTopic) implements Definition {
+    private static final String FIELD_SEPARATOR = "\\.";
+
+    /**
+     * Returns the names of the nested fields that lead to the routed value.
+     *
+     * @return the field path
+     */
+    public String[] fieldPath() {
+        return field.split(FIELD_SEPARATOR);
+    }
+}
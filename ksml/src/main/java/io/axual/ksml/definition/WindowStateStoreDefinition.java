@@ -35,9 +35,27 @@ public final class WindowStateStoreDefinition extends StateStoreDefinition {
     private final boolean retainDuplicates;
 
     public WindowStateStoreDefinition(String name, Boolean persistent, Boolean timestamped, Duration retention, Duration windowSize, Boolean retainDuplicates, UserType keyType, UserType valueType, Boolean caching, Boolean logging) {
-        super(StoreType.WINDOW_STORE, name, persistent, timestamped, keyType, valueType, caching, logging);
+        this(name, persistent, timestamped, retention, windowSize, retainDuplicates, keyType, valueType, caching, logging, null);
+    }
+
+    public WindowStateStoreDefinition(String name, Boolean persistent, Boolean timestamped, Duration retention, Duration windowSize, Boolean retainDuplicates, UserType keyType, UserType valueType, Boolean caching, Boolean logging, Integer objectCacheSize) {
+        this(name, persistent, timestamped, retention, windowSize, retainDuplicates, keyType, valueType, caching, logging, objectCacheSize, null);
+    }
+
+    public WindowStateStoreDefinition(String name, Boolean persistent, Boolean timestamped, Duration retention, Duration windowSize, Boolean retainDuplicates, UserType keyType, UserType valueType, Boolean caching, Boolean logging, Integer objectCacheSize, RocksDbDefinition rocksDb) {
+        super(StoreType.WINDOW_STORE, name, persistent, timestamped, keyType, valueType, caching, logging, objectCacheSize, rocksDb);
         this.retention = retention != null ? retention : Duration.ZERO;
         this.windowSize = windowSize != null ? windowSize : Duration.ZERO;
         this.retainDuplicates = retainDuplicates != null && retainDuplicates;
     }
+
+    @Override
+    public WindowStateStoreDefinition withObjectCacheSize(Integer objectCacheSize) {
+        return new WindowStateStoreDefinition(name(), persistent(), timestamped(), retention(), windowSize(), retainDuplicates(), keyType(), valueType(), caching(), logging(), objectCacheSize, rocksDb());
+    }
+
+    @Override
+    public WindowStateStoreDefinition withRocksDb(RocksDbDefinition rocksDb) {
+        return new WindowStateStoreDefinition(name(), persistent(), timestamped(), retention(), windowSize(), retainDuplicates(), keyType(), valueType(), caching(), logging(), objectCacheSize(), rocksDb);
+    }
 }
@@ -21,21 +21,89 @@ package io.axual.ksml.definition.parser;
  */
 
 
+import io.axual.ksml.data.schema.DataSchema;
+import io.axual.ksml.data.schema.EnumSchema;
 import io.axual.ksml.definition.AggregatorDefinition;
+import io.axual.ksml.definition.BuiltinAggregationDefinition;
+import io.axual.ksml.definition.FunctionDefinition;
+import io.axual.ksml.definition.ParameterDefinition;
+import io.axual.ksml.definition.PythonSource;
 import io.axual.ksml.dsl.KSMLDSL;
+import io.axual.ksml.parser.FieldParsers;
+import io.axual.ksml.parser.ParseNode;
+import io.axual.ksml.parser.ParserWithSchemas;
 import io.axual.ksml.parser.StructsParser;
+import io.axual.ksml.type.UserType;
+
+import java.util.List;
+
+import static io.axual.ksml.dsl.KSMLDSL.Aggregators;
 
 public class AggregatorDefinitionParser extends FunctionDefinitionParser<AggregatorDefinition> {
+    private static final String DESCRIPTION = "aggregator";
+    private static final EnumSchema BUILTIN_SCHEMA = new EnumSchema(
+            FieldParsers.SCHEMA_NAMESPACE,
+            "BuiltinAggregation",
+            "A built-in aggregation, which aggregates records without calling Python",
+            List.of(new EnumSchema.Symbol(Aggregators.SUM),
+                    new EnumSchema.Symbol(Aggregators.MIN),
+                    new EnumSchema.Symbol(Aggregators.MAX),
+                    new EnumSchema.Symbol(Aggregators.AVG),
+                    new EnumSchema.Symbol(Aggregators.FIRST),
+                    new EnumSchema.Symbol(Aggregators.LAST),
+                    new EnumSchema.Symbol(Aggregators.COUNT_DISTINCT),
+                    new EnumSchema.Symbol(Aggregators.QUANTILES),
+                    new EnumSchema.Symbol(Aggregators.TOP_K),
+                    new EnumSchema.Symbol(Aggregators.HISTOGRAM)));
+    private static final ParserWithSchemas<Double> NUMBER_PARSER = ParserWithSchemas.of(ParseNode::asDouble, DataSchema.DOUBLE_SCHEMA);
+    private final boolean requireType;
+
     public AggregatorDefinitionParser(boolean requireType) {
         super(requireType);
+        this.requireType = requireType;
     }
 
     @Override
     public StructsParser<AggregatorDefinition> parser() {
-        return parserWithoutStores(
+        final var functionParser = parserWithoutStores(
                 AggregatorDefinition.class,
                 KSMLDSL.Functions.TYPE_AGGREGATOR,
-                "aggregator",
+                DESCRIPTION,
                 (function, tags) -> new AggregatorDefinition(function));
+        final var parser = FieldParsers.structsParser(
+                AggregatorDefinition.class,
+                requireType ? "" : KSMLDSL.Types.WITH_IMPLICIT_STORE_TYPE_POSTFIX,
+                "Defines a " + DESCRIPTION + " function, that gets injected into the Kafka Streams topology",
+                functionParser,
+                FieldParsers.optional(FieldParsers.enumField(Aggregators.BUILTIN, BUILTIN_SCHEMA)),
+                FieldParsers.optional(FieldParsers.stringField(Aggregators.FIELD, "The path of the value field to aggregate with a built-in aggregation, with nested fields separated by dots. If not set, the complete value is aggregated.")),
+                FieldParsers.optional(FieldParsers.listField(Aggregators.QUANTILES, "quantile", "quantile", "The quantiles reported by the quantiles aggregation, between 0 and 1. Defaults to 0.5, 0.9 and 0.99.", NUMBER_PARSER)),
+                FieldParsers.optional(FieldParsers.integerField(Aggregators.K, "The number of most frequent values reported by the topK aggregation. Defaults to 10.")),
+                FieldParsers.optional(FieldParsers.listField(Aggregators.BOUNDARIES, "boundary", "boundary", "The upper bounds of the buckets of the histogram aggregation", NUMBER_PARSER)),
+                FieldParsers.optional(FieldParsers.integerField(Aggregators.PRECISION, "The accuracy of a sketch: the register bits of countDistinct (4-16, default 12), the compression of quantiles (default 100) or the width of topK (default 1024)")),
+                (definition, builtin, field, quantiles, k, boundaries, precision, tags) -> {
+                    if (builtin == null) {
+                        if (field != null || k != null || precision != null || !isEmpty(quantiles) || !isEmpty(boundaries))
+                            return FieldParsers.parseError("Settings of a built-in " + DESCRIPTION + " require a builtin aggregation");
+                        return definition;
+                    }
+                    if (definition != null)
+                        return FieldParsers.parseError("A " + DESCRIPTION + " can not have both code and a builtin aggregation");
+                    if (Aggregators.HISTOGRAM.equals(builtin) && isEmpty(boundaries))
+                        return FieldParsers.parseError("A histogram " + DESCRIPTION + " requires boundaries");
+                    final var noCode = FunctionDefinition.as(KSMLDSL.Functions.TYPE_AGGREGATOR, null, (List<ParameterDefinition>) null, PythonSource.of((String) null, null, null), UserType.UNKNOWN, null);
+                    return new AggregatorDefinition(noCode, new BuiltinAggregationDefinition(builtin, field, isEmpty(quantiles) ? null : quantiles, k, isEmpty(boundaries) ? null : boundaries, precision));
+                });
+        return StructsParser.of(node -> {
+            final var result = parser.parse(node);
+            // Built-in aggregators are named after their location, like inline functions
+            if (result != null && result.name() == null)
+                return new AggregatorDefinition(result.withName(node.longName()), result.builtin());
+            return result;
+        }, parser.schemas());
+    }
+
+    private static boolean isEmpty(List<Double> list) {
+        return list == null || list.isEmpty();
     }
 }
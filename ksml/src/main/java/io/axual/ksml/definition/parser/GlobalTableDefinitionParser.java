@@ -23,6 +23,7 @@ package io.axual.ksml.definition.parser;
 
 import io.axual.ksml.parser.FieldParsers;
 import io.axual.ksml.definition.GlobalTableDefinition;
+import io.axual.ksml.dsl.KSMLDSL;
 import io.axual.ksml.generator.TopologyBaseResources;
 import io.axual.ksml.parser.StructsParser;
 import io.axual.ksml.type.UserType;
@@ -45,11 +46,12 @@ public class GlobalTableDefinitionParser extends BaseTableDefinitionParser<Globa
                 timestampExtractorField(),
                 partitionerField(),
                 storeField(),
-                (topic, keyType, valueType, resetPolicy, tsExtractor, partitioner, store, tags) -> {
+                nearCacheSizeField(),
+                (topic, keyType, valueType, resetPolicy, tsExtractor, partitioner, store, nearCacheSize, tags) -> {
                     keyType = resolveUserType(keyType != null ? keyType : UserType.UNKNOWN, topic, true);
                     valueType = resolveUserType(valueType != null ? valueType : UserType.UNKNOWN, topic, false);
                     final var policy = OffsetResetPolicyParser.parseResetPolicy(resetPolicy);
-                    return new GlobalTableDefinition(topic, keyType, valueType, policy, tsExtractor, partitioner, store != null ? store.with(topic).with(keyType, valueType) : null);
+                    return new GlobalTableDefinition(topic, keyType, valueType, policy, tsExtractor, partitioner, store != null ? store.with(topic).with(keyType, valueType) : null, nearCacheSize);
                 });
 
         return FieldParsers.structsParser(
@@ -61,11 +63,16 @@ public class GlobalTableDefinitionParser extends BaseTableDefinitionParser<Globa
                 FieldParsers.optional(valueField()),
                 partitionerField(),
                 storeField(),
-                (topic, keyType, valueType, partitioner, store, tags) -> {
+                nearCacheSizeField(),
+                (topic, keyType, valueType, partitioner, store, nearCacheSize, tags) -> {
                     keyType = resolveUserType(keyType != null ? keyType : UserType.UNKNOWN, topic, true);
                     valueType = resolveUserType(valueType != null ? valueType : UserType.UNKNOWN, topic, false);
                     // If a backing store is used, then align its name, keyType and valueType to the topic
-                    return new GlobalTableDefinition(topic, keyType, valueType, null, null, partitioner, store != null ? store.with(topic).with(keyType, valueType) : null);
+                    return new GlobalTableDefinition(topic, keyType, valueType, null, null, partitioner, store != null ? store.with(topic).with(keyType, valueType) : null, nearCacheSize);
                 });
     }
+
+    private static StructsParser<Integer> nearCacheSizeField() {
+        return FieldParsers.optional(FieldParsers.integerField(KSMLDSL.Streams.NEAR_CACHE_SIZE, "The number of recently joined values to keep in decoded form, so joins do not read them from the state store again. Updates of the globalTable remove changed values."));
+    }
 }
@@ -28,6 +28,7 @@ import io.axual.ksml.parser.NamedObjectParser;
 import io.axual.ksml.parser.StructsParser;
 
 public class KeyValueStateStoreDefinitionParser extends DefinitionParser<KeyValueStateStoreDefinition> implements NamedObjectParser {
+    private static final String DOC = "Definition of a keyValue state store";
     private final boolean requireStoreType;
     private final boolean requireKeyValueType;
     private String defaultShortName;
@@ -55,11 +56,11 @@ public class KeyValueStateStoreDefinitionParser extends DefinitionParser<KeyValu
                 (requireStoreType ? "" : KSMLDSL.Types.WITH_IMPLICIT_STORE_TYPE_POSTFIX) +
                 (requireKeyValueType ? "" : KSMLDSL.Types.WITH_IMPLICIT_KEY_AND_VALUE_TYPE);
 
-        if (requireKeyValueType) return FieldParsers.structsParser(
+        if (requireKeyValueType) return withSettings(parserPostfix, FieldParsers.structsParser(
                 // Parse the state store including name, keyType and valueType
                 KeyValueStateStoreDefinition.class,
                 parserPostfix,
-                "Definition of a keyValue state store",
+                DOC,
                 nameField,
                 persistentField,
                 timestampField,
@@ -73,13 +74,13 @@ public class KeyValueStateStoreDefinitionParser extends DefinitionParser<KeyValu
                 (name, persistent, timestamped, versioned, history, segment, keyType, valueType, caching, logging, tags) -> {
                     name = FieldParsers.validateName("KeyValue state store", name, defaultShortName);
                     return new KeyValueStateStoreDefinition(name, persistent, timestamped, versioned, history, segment, keyType, valueType, caching, logging);
-                });
+                }));
 
         // Parse the state store without a name, keyType and valueType
-        return FieldParsers.structsParser(
+        return withSettings(parserPostfix, FieldParsers.structsParser(
                 KeyValueStateStoreDefinition.class,
                 parserPostfix,
-                "Definition of a keyValue state store",
+                DOC,
                 nameField,
                 persistentField,
                 timestampField,
@@ -91,7 +92,30 @@ public class KeyValueStateStoreDefinitionParser extends DefinitionParser<KeyValu
                 (name, persistent, timestamped, versioned, history, segment, caching, logging, tags) -> {
                     name = FieldParsers.validateName("KeyValue state store", name, defaultShortName);
                     return new KeyValueStateStoreDefinition(name, persistent, timestamped, versioned, history, segment, null, null, caching, logging);
+                }));
+    }
+
+    // Adds the bounds of in-memory stores and the settings that all store types share
+    private static StructsParser<KeyValueStateStoreDefinition> withSettings(String parserPostfix, StructsParser<KeyValueStateStoreDefinition> storeParser) {
+        final var boundedParser = FieldParsers.structsParser(
+                KeyValueStateStoreDefinition.class,
+                parserPostfix,
+                DOC,
+                storeParser,
+                FieldParsers.optional(FieldParsers.integerField(KSMLDSL.Stores.MAX_ENTRIES, "(In-memory only) The maximum number of entries per partition. When the store is full, the least recently used entry is evicted.")),
+                FieldParsers.optional(FieldParsers.durationField(KSMLDSL.Stores.TIME_TO_LIVE, "(In-memory only) The duration after which written entries expire")),
+                FieldParsers.optional(FieldParsers.booleanField(KSMLDSL.Stores.OFF_HEAP, "(In-memory only) \"true\" to keep values in direct memory instead of on the heap, \"false\" otherwise")),
+                (store, maxEntries, timeToLive, offHeap, tags) -> {
+                    if (store == null || (maxEntries == null && timeToLive == null && offHeap == null)) return store;
+                    if (store.persistent())
+                        return FieldParsers.parseError("A persistent keyValue store can not have a maximum number of entries, a time to live or off-heap values");
+                    if (maxEntries != null && maxEntries <= 0)
+                        return FieldParsers.parseError("The maximum number of entries of a keyValue store must be positive");
+                    if (timeToLive != null && !timeToLive.isPositive())
+                        return FieldParsers.parseError("The time to live of a keyValue store must be positive");
+                    return store.withBounds(maxEntries, timeToLive, offHeap);
                 });
+        return StateStoreDefinitionParser.withCommonSettings(KeyValueStateStoreDefinition.class, parserPostfix, DOC, boundedParser);
     }
 
     @Override
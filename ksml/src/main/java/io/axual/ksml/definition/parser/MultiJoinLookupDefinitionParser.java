@@ -0,0 +1,59 @@
+package io.axual.ksml.definition.parser;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.definition.MultiJoinLookupDefinition;
+import io.axual.ksml.dsl.KSMLDSL;
+import io.axual.ksml.generator.TopologyResources;
+import io.axual.ksml.parser.DefinitionParser;
+import io.axual.ksml.parser.FieldParsers;
+import io.axual.ksml.parser.StructsParser;
+import io.axual.ksml.parser.TopologyResourceFields;
+
+import static io.axual.ksml.dsl.KSMLDSL.Operations;
+
+public class MultiJoinLookupDefinitionParser extends DefinitionParser<MultiJoinLookupDefinition> {
+    private final TopologyResourceFields resourceFields;
+
+    public MultiJoinLookupDefinitionParser(TopologyResources resources) {
+        this.resourceFields = new TopologyResourceFields(resources);
+    }
+
+    @Override
+    public StructsParser<MultiJoinLookupDefinition> parser() {
+        return FieldParsers.structsParser(
+                MultiJoinLookupDefinition.class,
+                "",
+                "Defines a table lookup in a multi-way join",
+                FieldParsers.stringField(Operations.MultiJoin.FIELD, "The name of the field that holds the looked up value"),
+                FieldParsers.optional(resourceFields.topicField(Operations.Join.WITH_TABLE, "A reference to a table, or an inline definition of a table, which is co-partitioned with the stream", new TableDefinitionParser(resourceFields.resources(), true))),
+                FieldParsers.optional(resourceFields.topicField(Operations.Join.WITH_GLOBAL_TABLE, "A reference to a globalTable, or an inline definition of a globalTable", new GlobalTableDefinitionParser(resourceFields.resources(), true))),
+                FieldParsers.optional(resourceFields.functionField(Operations.MultiJoin.MAPPER, "(GlobalTable) A function that maps the key and value of the stream to the key to look up. If not set, the record key is looked up", new KeyValueMapperDefinitionParser(false))),
+                FieldParsers.optional(FieldParsers.booleanField(Operations.MultiJoin.LEFT, "\"true\" to keep records without a value in this table, \"false\" to drop them. Defaults to \"false\"")),
+                (field, table, globalTable, mapper, left, tags) -> {
+                    if ((table == null) == (globalTable == null))
+                        return FieldParsers.parseError("A lookup of " + KSMLDSL.Operations.MULTI_JOIN + " requires either a table or a globalTable");
+                    if (table != null && mapper != null)
+                        return FieldParsers.parseError("Lookups in a table use the record key, only lookups in a globalTable can have a mapper");
+                    return new MultiJoinLookupDefinition(field, table != null ? table : globalTable, mapper, Boolean.TRUE.equals(left));
+                });
+    }
+}
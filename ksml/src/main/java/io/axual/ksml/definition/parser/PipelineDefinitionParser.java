@@ -25,6 +25,7 @@ import io.axual.ksml.definition.PipelineDefinition;
 import io.axual.ksml.dsl.KSMLDSL;
 import io.axual.ksml.generator.TopologyResources;
 import io.axual.ksml.operation.AsOperation;
+import io.axual.ksml.operation.FusedOperation;
 import io.axual.ksml.operation.OperationConfig;
 import io.axual.ksml.operation.parser.AsOperationParser;
 import io.axual.ksml.operation.parser.BranchOperationParser;
@@ -79,16 +80,18 @@ public class PipelineDefinitionParser extends DefinitionParser<PipelineDefinitio
                 FieldParsers.optional(FieldParsers.stringField(KSMLDSL.Pipelines.NAME, true, "The name of the pipeline. If this field is not defined, then the name is derived from the context.")),
                 parseSource ? sourceField : new IgnoreParser<>(),
                 FieldParsers.optional(FieldParsers.listField(KSMLDSL.Pipelines.VIA, "step", "step", "A series of operations performed on the input stream", new PipelineOperationParser(resourceFields.resources()))),
+                FieldParsers.optional(FieldParsers.booleanField(KSMLDSL.Pipelines.FUSE, "\"true\" to run consecutive stateless operations on a stream (filter, filterNot, peek, transformKeyValue and transformValue) in a single processor, \"false\" otherwise")),
                 FieldParsers.optional(asParser),
                 FieldParsers.optional(branchParser),
                 FieldParsers.optional(forEachParser),
                 FieldParsers.optional(printParser),
                 FieldParsers.optional(toTopic),
                 FieldParsers.optional(toTne),
-                (name, from, via, as, branch, forEach, print, toTopic, toTne, tags) -> {
+                (name, from, via, fuse, as, branch, forEach, print, toTopic, toTne, tags) -> {
                     final var shortName = FieldParsers.validateName("Pipeline", name, defaultShortName, true);
                     final var longName = FieldParsers.validateName("Pipeline", name, defaultLongName, false);
                     via = via != null ? via : new ArrayList<>();
+                    if (Boolean.TRUE.equals(fuse)) via = FusedOperation.fuse(via);
                     if (as != null) return new PipelineDefinition(longName, from, via, as);
                     if (branch != null) return new PipelineDefinition(longName, from, via, branch);
                     if (forEach != null) return new PipelineDefinition(longName, from, via, forEach);
@@ -52,7 +52,7 @@ public class SessionStateStoreDefinitionParser extends DefinitionParser<SessionS
         final var parserPostfix = (requireStoreType ? "" : KSMLDSL.Types.WITH_IMPLICIT_STORE_TYPE_POSTFIX)
                 + (requireKeyValueType ? "" : KSMLDSL.Types.WITH_IMPLICIT_KEY_AND_VALUE_TYPE);
 
-        if (requireKeyValueType) return FieldParsers.structsParser(
+        if (requireKeyValueType) return StateStoreDefinitionParser.withCommonSettings(SessionStateStoreDefinition.class, parserPostfix, "Definition of a session state store", FieldParsers.structsParser(
                 SessionStateStoreDefinition.class,
                 parserPostfix,
                 "Definition of a session state store",
@@ -67,9 +67,9 @@ public class SessionStateStoreDefinitionParser extends DefinitionParser<SessionS
                 (name, persistent, timestamped, retention, keyType, valueType, caching, logging, tags) -> {
                     name = FieldParsers.validateName("Session state store", name, defaultShortName);
                     return new SessionStateStoreDefinition(name, persistent, timestamped, retention, keyType, valueType, caching, logging);
-                });
+                }));
 
-        return FieldParsers.structsParser(
+        return StateStoreDefinitionParser.withCommonSettings(SessionStateStoreDefinition.class, parserPostfix, "Definition of a session state store", FieldParsers.structsParser(
                 SessionStateStoreDefinition.class,
                 parserPostfix,
                 "Definition of a session state store",
@@ -82,7 +82,7 @@ public class SessionStateStoreDefinitionParser extends DefinitionParser<SessionS
                 (name, persistent, timestamped, retention, caching, logging, tags) -> {
                     name = FieldParsers.validateName("Session state store", name, defaultShortName);
                     return new SessionStateStoreDefinition(name, persistent, timestamped, retention, null, null, caching, logging);
-                });
+                }));
     }
 
     @Override
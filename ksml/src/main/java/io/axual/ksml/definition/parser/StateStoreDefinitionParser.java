@@ -21,12 +21,16 @@ package io.axual.ksml.definition.parser;
  */
 
 
+import io.axual.ksml.data.schema.EnumSchema;
+import io.axual.ksml.definition.RocksDbDefinition;
 import io.axual.ksml.definition.StateStoreDefinition;
 import io.axual.ksml.parser.ChoiceParser;
+import io.axual.ksml.parser.FieldParsers;
 import io.axual.ksml.parser.StructsParser;
 import io.axual.ksml.store.StoreType;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static io.axual.ksml.dsl.KSMLDSL.Stores;
@@ -53,4 +57,63 @@ public class StateStoreDefinitionParser extends ChoiceParser<StateStoreDefinitio
         }
         return result;
     }
+
+    private static final EnumSchema COMPRESSION_SCHEMA = new EnumSchema(
+            FieldParsers.SCHEMA_NAMESPACE,
+            "RocksDbCompression",
+            "The compression of RocksDB data files",
+            List.of(new EnumSchema.Symbol(Stores.RocksDb.COMPRESSION_NONE),
+                    new EnumSchema.Symbol(Stores.RocksDb.COMPRESSION_SNAPPY),
+                    new EnumSchema.Symbol(Stores.RocksDb.COMPRESSION_LZ4),
+                    new EnumSchema.Symbol(Stores.RocksDb.COMPRESSION_LZ4HC),
+                    new EnumSchema.Symbol(Stores.RocksDb.COMPRESSION_ZSTD),
+                    new EnumSchema.Symbol(Stores.RocksDb.COMPRESSION_ZLIB)));
+    private static final EnumSchema COMPACTION_STYLE_SCHEMA = new EnumSchema(
+            FieldParsers.SCHEMA_NAMESPACE,
+            "RocksDbCompactionStyle",
+            "The compaction style of RocksDB",
+            List.of(new EnumSchema.Symbol(Stores.RocksDb.COMPACTION_LEVEL),
+                    new EnumSchema.Symbol(Stores.RocksDb.COMPACTION_UNIVERSAL),
+                    new EnumSchema.Symbol(Stores.RocksDb.COMPACTION_FIFO)));
+
+    // Adds the settings that all store types share to the parser of a single store type
+    static <S extends StateStoreDefinition> StructsParser<S> withCommonSettings(Class<S> resultClass, String parserPostfix, String doc, StructsParser<S> storeParser) {
+        return FieldParsers.structsParser(
+                resultClass,
+                parserPostfix,
+                doc,
+                storeParser,
+                FieldParsers.optional(FieldParsers.integerField(Stores.OBJECT_CACHE_SIZE, "The number of recently written or read values that every stream thread keeps in decoded form, so frequently updated keys are not decoded again on every update. Defaults to 0, which decodes every value.")),
+                FieldParsers.optional(FieldParsers.customField(Stores.ROCKSDB, "RocksDB settings of the store, only used when the store is persistent", rocksDbParser())),
+                (store, objectCacheSize, rocksDb, tags) -> {
+                    var result = store;
+                    if (result != null && objectCacheSize != null) result = resultClass.cast(result.withObjectCacheSize(objectCacheSize));
+                    if (result != null && rocksDb != null) result = resultClass.cast(result.withRocksDb(rocksDb));
+                    return result;
+                });
+    }
+
+    private static StructsParser<RocksDbDefinition> rocksDbParser() {
+        return FieldParsers.structsParser(
+                RocksDbDefinition.class,
+                "",
+                "RocksDB settings of a persistent state store",
+                FieldParsers.optional(FieldParsers.longField(Stores.RocksDb.BLOCK_CACHE_SIZE, "The size of the block cache in bytes. When a shared block cache is named, the largest size of all stores sharing it is used.")),
+                FieldParsers.optional(FieldParsers.stringField(Stores.RocksDb.SHARED_BLOCK_CACHE, "The name of a block cache that is shared by all stores that use the same name")),
+                FieldParsers.optional(FieldParsers.booleanField(Stores.RocksDb.BLOOM_FILTER, "\"true\" to skip data files that do not contain a looked up key using a bloom filter, \"false\" to disable bloom filters")),
+                FieldParsers.optional(FieldParsers.enumField(Stores.RocksDb.COMPRESSION, COMPRESSION_SCHEMA)),
+                FieldParsers.optional(FieldParsers.longField(Stores.RocksDb.WRITE_BUFFER_SIZE, "The size of a single memtable in bytes")),
+                FieldParsers.optional(FieldParsers.integerField(Stores.RocksDb.MAX_WRITE_BUFFERS, "The maximum number of memtables that are kept in memory before they are flushed")),
+                FieldParsers.optional(FieldParsers.enumField(Stores.RocksDb.COMPACTION_STYLE, COMPACTION_STYLE_SCHEMA)),
+                FieldParsers.optional(FieldParsers.booleanField(Stores.RocksDb.STATISTICS, "\"true\" to export the RocksDB statistics of the store as metrics, \"false\" otherwise")),
+                (blockCacheSize, sharedBlockCache, bloomFilter, compression, writeBufferSize, maxWriteBuffers, compactionStyle, statistics, tags) -> {
+                    if (blockCacheSize != null && blockCacheSize <= 0)
+                        return FieldParsers.parseError("The RocksDB block cache size must be positive");
+                    if (writeBufferSize != null && writeBufferSize <= 0)
+                        return FieldParsers.parseError("The RocksDB write buffer size must be positive");
+                    if (maxWriteBuffers != null && maxWriteBuffers <= 0)
+                        return FieldParsers.parseError("The maximum number of RocksDB write buffers must be positive");
+                    return new RocksDbDefinition(blockCacheSize, sharedBlockCache, bloomFilter, compression, writeBufferSize, maxWriteBuffers, compactionStyle, statistics);
+                });
+    }
 }
@@ -21,21 +21,72 @@ package io.axual.ksml.definition.parser;
  */
 
 
+import io.axual.ksml.data.schema.EnumSchema;
+import io.axual.ksml.definition.FunctionDefinition;
+import io.axual.ksml.definition.ParameterDefinition;
+import io.axual.ksml.definition.PythonSource;
 import io.axual.ksml.definition.TimestampExtractorDefinition;
+import io.axual.ksml.definition.TimestampSourceDefinition;
 import io.axual.ksml.dsl.KSMLDSL;
+import io.axual.ksml.parser.FieldParsers;
 import io.axual.ksml.parser.StructsParser;
 
+import java.util.List;
+
+import static io.axual.ksml.dsl.KSMLDSL.TimestampExtractors;
+
 public class TimestampExtractorDefinitionParser extends FunctionDefinitionParser<TimestampExtractorDefinition> {
+    private static final String DESCRIPTION = "timestamp extractor";
+    private static final EnumSchema UNIT_SCHEMA = new EnumSchema(
+            FieldParsers.SCHEMA_NAMESPACE,
+            "TimestampUnit",
+            "The unit of numeric timestamps, defaults to milliseconds",
+            List.of(new EnumSchema.Symbol(TimestampExtractors.UNIT_SECONDS),
+                    new EnumSchema.Symbol(TimestampExtractors.UNIT_MILLISECONDS),
+                    new EnumSchema.Symbol(TimestampExtractors.UNIT_MICROSECONDS),
+                    new EnumSchema.Symbol(TimestampExtractors.UNIT_NANOSECONDS)));
+    private final boolean requireType;
+
     public TimestampExtractorDefinitionParser(boolean requireType) {
         super(requireType);
+        this.requireType = requireType;
     }
 
     @Override
     public StructsParser<TimestampExtractorDefinition> parser() {
-        return parserWithoutStores(
+        final var functionParser = parserWithoutStores(
                 TimestampExtractorDefinition.class,
                 KSMLDSL.Functions.TYPE_TIMESTAMPEXTRACTOR,
-                "timestamp extractor",
+                DESCRIPTION,
                 (function, tags) -> new TimestampExtractorDefinition(function));
+        final var parser = FieldParsers.structsParser(
+                TimestampExtractorDefinition.class,
+                requireType ? "" : KSMLDSL.Types.WITH_IMPLICIT_STORE_TYPE_POSTFIX,
+                "Defines a " + DESCRIPTION + " function, that gets injected into the Kafka Streams topology",
+                functionParser,
+                FieldParsers.optional(FieldParsers.stringField(TimestampExtractors.FIELD, "The path of the value field that contains the event time, with nested fields separated by dots. Replaces the function code.")),
+                FieldParsers.optional(FieldParsers.stringField(TimestampExtractors.HEADER, "The name of the header that contains the event time. Replaces the function code.")),
+                FieldParsers.optional(FieldParsers.stringField(TimestampExtractors.FORMAT, "The date-time pattern of a textual event time. If not set, text is read as an ISO-8601 date-time or an epoch number.")),
+                FieldParsers.optional(FieldParsers.enumField(TimestampExtractors.UNIT, UNIT_SCHEMA)),
+                (definition, field, header, format, unit, tags) -> {
+                    if (field == null && header == null) {
+                        if (format != null || unit != null)
+                            return FieldParsers.parseError("A " + DESCRIPTION + " with a format or unit requires a field or header");
+                        return definition;
+                    }
+                    if (definition != null)
+                        return FieldParsers.parseError("A " + DESCRIPTION + " can not have both code and a field or header");
+                    if (field != null && header != null)
+                        return FieldParsers.parseError("A " + DESCRIPTION + " can not read both a field and a header");
+                    final var noCode = FunctionDefinition.as(KSMLDSL.Functions.TYPE_TIMESTAMPEXTRACTOR, null, (List<ParameterDefinition>) null, PythonSource.of((String) null, null, null), null, null);
+                    return new TimestampExtractorDefinition(noCode, new TimestampSourceDefinition(field, header, format, unit));
+                });
+        return StructsParser.of(node -> {
+            final var result = parser.parse(node);
+            // Declarative extractors are named after their location, like inline functions
+            if (result != null && result.name() == null)
+                return new TimestampExtractorDefinition(result.withName(node.longName()), result.source());
+            return result;
+        }, parser.schemas());
     }
 }
@@ -21,21 +21,67 @@ package io.axual.ksml.definition.parser;
  */
 
 
+import io.axual.ksml.definition.FunctionDefinition;
+import io.axual.ksml.definition.ParameterDefinition;
+import io.axual.ksml.definition.PythonSource;
 import io.axual.ksml.definition.TopicNameExtractorDefinition;
+import io.axual.ksml.definition.TopicRouteDefinition;
 import io.axual.ksml.dsl.KSMLDSL;
+import io.axual.ksml.parser.FieldParsers;
+import io.axual.ksml.parser.StringValueParser;
 import io.axual.ksml.parser.StructsParser;
 
+import java.util.List;
+import java.util.Map;
+
+import static io.axual.ksml.dsl.KSMLDSL.TopicNameExtractors;
+
 public class TopicNameExtractorDefinitionParser extends FunctionDefinitionParser<TopicNameExtractorDefinition> {
+    private static final String DESCRIPTION = "topic name extractor";
+    private final boolean requireType;
+
     public TopicNameExtractorDefinitionParser(boolean requireType) {
         super(requireType);
+        this.requireType = requireType;
     }
 
     @Override
     public StructsParser<TopicNameExtractorDefinition> parser() {
-        return parserWithoutStores(
+        final var functionParser = parserWithoutStores(
                 TopicNameExtractorDefinition.class,
                 KSMLDSL.Functions.TYPE_TOPICNAMEEXTRACTOR,
-                "topic name extractor",
+                DESCRIPTION,
                 (function, tags) -> new TopicNameExtractorDefinition(function));
+        final var parser = FieldParsers.structsParser(
+                TopicNameExtractorDefinition.class,
+                requireType ? "" : KSMLDSL.Types.WITH_IMPLICIT_STORE_TYPE_POSTFIX,
+                "Defines a " + DESCRIPTION + " function, that gets injected into the Kafka Streams topology",
+                functionParser,
+                FieldParsers.optional(FieldParsers.stringField(TopicNameExtractors.FIELD, "The path of the value field to route on, with nested fields separated by dots. Replaces the function code.")),
+                FieldParsers.optional(FieldParsers.mapField(TopicNameExtractors.TOPICS, "fieldValue", "topic", "The destination topic for every value of the routed field", new StringValueParser())),
+                FieldParsers.optional(FieldParsers.stringField(TopicNameExtractors.DEFAULT_TOPIC, "The topic for messages whose routed field is missing or has an unlisted value. If not set, such messages fail.")),
+                FieldParsers.optional(FieldParsers.booleanField(TopicNameExtractors.PURE, "Whether the topic name only depends on the key and value, so it can be reused for messages with equal key and value fields read by the function")),
+                (definition, field, topics, defaultTopic, pure, tags) -> {
+                    final var hasTopics = topics != null && !topics.isEmpty();
+                    if (field == null) {
+                        if (hasTopics || defaultTopic != null)
+                            return FieldParsers.parseError("A " + DESCRIPTION + " with topics or a default topic requires a field");
+                        if (definition == null || !Boolean.TRUE.equals(pure)) return definition;
+                        return new TopicNameExtractorDefinition(definition, null, true);
+                    }
+                    if (definition != null)
+                        return FieldParsers.parseError("A " + DESCRIPTION + " can not have both code and a field");
+                    if (!hasTopics && defaultTopic == null)
+                        return FieldParsers.parseError("A " + DESCRIPTION + " with a field requires topics or a default topic");
+                    final var noCode = FunctionDefinition.as(KSMLDSL.Functions.TYPE_TOPICNAMEEXTRACTOR, null, (List<ParameterDefinition>) null, PythonSource.of((String) null, null, null), null, null);
+                    return new TopicNameExtractorDefinition(noCode, new TopicRouteDefinition(field, hasTopics ? topics : Map.of(), defaultTopic), false);
+                });
+        return StructsParser.of(node -> {
+            final var result = parser.parse(node);
+            // Declarative extractors are named after their location, like inline functions
+            if (result != null && result.name() == null)
+                return new TopicNameExtractorDefinition(result.withName(node.longName()), result.route(), result.pure());
+            return result;
+        }, parser.schemas());
     }
 }
@@ -54,7 +54,7 @@ public class WindowStateStoreDefinitionParser extends DefinitionParser<WindowSta
         final var parserPostfix = (requireStoreType ? "" : KSMLDSL.Types.WITH_IMPLICIT_STORE_TYPE_POSTFIX)
                 + (requireKeyValueType ? "" : KSMLDSL.Types.WITH_IMPLICIT_KEY_AND_VALUE_TYPE);
 
-        if (requireKeyValueType) return FieldParsers.structsParser(
+        if (requireKeyValueType) return StateStoreDefinitionParser.withCommonSettings(WindowStateStoreDefinition.class, parserPostfix, "Definition of a window state store", FieldParsers.structsParser(
                 WindowStateStoreDefinition.class,
                 parserPostfix,
                 "Definition of a window state store",
@@ -71,9 +71,9 @@ public class WindowStateStoreDefinitionParser extends DefinitionParser<WindowSta
                 (name, persistent, timestamped, retention, windowSize, retainDuplicates, keyType, valueType, caching, logging, tags) -> {
                     name = FieldParsers.validateName("Window state store", name, defaultShortName);
                     return new WindowStateStoreDefinition(name, persistent, timestamped, retention, windowSize, retainDuplicates, keyType, valueType, caching, logging);
-                });
+                }));
 
-        return FieldParsers.structsParser(
+        return StateStoreDefinitionParser.withCommonSettings(WindowStateStoreDefinition.class, parserPostfix, "Definition of a window state store", FieldParsers.structsParser(
                 WindowStateStoreDefinition.class,
                 parserPostfix,
                 "Definition of a window state store",
@@ -88,7 +88,7 @@ public class WindowStateStoreDefinitionParser extends DefinitionParser<WindowSta
                 (name, persistent, timestamped, retention, windowSize, retainDuplicates, caching, logging, tags) -> {
                     name = FieldParsers.validateName("Window state store", name, defaultShortName);
                     return new WindowStateStoreDefinition(name, persistent, timestamped, retention, windowSize, retainDuplicates, null, null, caching, logging);
-                });
+                }));
     }
 
     @Override
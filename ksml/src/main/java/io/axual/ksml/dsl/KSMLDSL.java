@@ -112,11 +112,23 @@ public class KSMLDSL {
         public static class As {
         }
 
+        public static final String ASYNC_TRANSFORM_VALUE = "asyncTransformValue";
+
+        @NoArgsConstructor(access = AccessLevel.PRIVATE)
+        public static class AsyncTransformValue {
+            public static final String MAPPER = "mapper";
+            public static final String MAX_IN_FLIGHT = "maxInFlight";
+            public static final String ORDERING = "ordering";
+            public static final String ORDERING_KEY = "key";
+            public static final String ORDERING_PARTITION = "partition";
+        }
+
         public static final String BRANCH = "branch";
 
         @NoArgsConstructor(access = AccessLevel.PRIVATE)
         public static class Branch {
             public static final String PREDICATE = "if";
+            public static final String ROUTE_ONCE = "routeOnce";
         }
 
         public static final String CONVERT_KEY = "convertKey";
@@ -140,6 +152,7 @@ public class KSMLDSL {
         @NoArgsConstructor(access = AccessLevel.PRIVATE)
         public static class Filter {
             public static final String PREDICATE = "if";
+            public static final String ROUTE_ONCE = "routeOnce";
         }
 
         public static final String FOR_EACH = "forEach";
@@ -165,6 +178,7 @@ public class KSMLDSL {
             public static final String FOREIGN_KEY_EXTRACTOR = "foreignKeyExtractor";
             public static final String VALUE_JOINER = "valueJoiner";
             public static final String MAPPER = "mapper";
+            public static final String KEY_FIELD = "keyField";
             public static final String TIME_DIFFERENCE = "timeDifference";
             public static final String GRACE = "grace";
             public static final String PARTITIONER = "partitioner";
@@ -175,6 +189,17 @@ public class KSMLDSL {
             public static final String WITH_GLOBAL_TABLE = "globalTable";
         }
 
+        public static final String MULTI_JOIN = "multiJoin";
+
+        @NoArgsConstructor(access = AccessLevel.PRIVATE)
+        public static class MultiJoin {
+            public static final String LOOKUPS = "lookups";
+            public static final String FIELD = "field";
+            public static final String LEFT = "left";
+            public static final String MAPPER = "mapper";
+            public static final String VALUE_JOINER = "valueJoiner";
+        }
+
         public static final String MERGE = "merge";
 
         @NoArgsConstructor(access = AccessLevel.PRIVATE)
@@ -289,6 +314,7 @@ public class KSMLDSL {
         public static final String NAME = "name";
         public static final String FROM = "from";
         public static final String VIA = "via";
+        public static final String FUSE = "fuse";
     }
 
     public static final String STORES = "stores";
@@ -307,11 +333,37 @@ public class KSMLDSL {
         public static final String RETENTION = "retention";
         public static final String CACHING = "caching";
         public static final String LOGGING = "logging";
+        public static final String OBJECT_CACHE_SIZE = "objectCacheSize";
+        public static final String MAX_ENTRIES = "maxEntries";
+        public static final String TIME_TO_LIVE = "timeToLive";
+        public static final String OFF_HEAP = "offHeap";
         public static final String TYPE_KEY_VALUE = "keyValue";
         public static final String TYPE_SESSION = "session";
         public static final String TYPE_WINDOW = "window";
         public static final String WINDOW_SIZE = "windowSize";
         public static final String RETAIN_DUPLICATES = "retainDuplicates";
+        public static final String ROCKSDB = "rocksdb";
+
+        @NoArgsConstructor(access = AccessLevel.PRIVATE)
+        public static class RocksDb {
+            public static final String BLOCK_CACHE_SIZE = "blockCacheSize";
+            public static final String SHARED_BLOCK_CACHE = "sharedBlockCache";
+            public static final String BLOOM_FILTER = "bloomFilter";
+            public static final String COMPRESSION = "compression";
+            public static final String WRITE_BUFFER_SIZE = "writeBufferSize";
+            public static final String MAX_WRITE_BUFFERS = "maxWriteBuffers";
+            public static final String COMPACTION_STYLE = "compactionStyle";
+            public static final String STATISTICS = "statistics";
+            public static final String COMPRESSION_NONE = "none";
+            public static final String COMPRESSION_SNAPPY = "snappy";
+            public static final String COMPRESSION_LZ4 = "lz4";
+            public static final String COMPRESSION_LZ4HC = "lz4hc";
+            public static final String COMPRESSION_ZSTD = "zstd";
+            public static final String COMPRESSION_ZLIB = "zlib";
+            public static final String COMPACTION_LEVEL = "level";
+            public static final String COMPACTION_UNIVERSAL = "universal";
+            public static final String COMPACTION_FIFO = "fifo";
+        }
     }
 
     public static final String STREAMS = "streams";
@@ -327,6 +379,46 @@ public class KSMLDSL {
         public static final String TIMESTAMP_EXTRACTOR = "timestampExtractor";
         public static final String OFFSET_RESET_POLICY = "offsetResetPolicy";
         public static final String PARTITIONER = "partitioner";
+        public static final String NEAR_CACHE_SIZE = "nearCacheSize";
+    }
+
+    @NoArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class Aggregators {
+        public static final String BUILTIN = "builtin";
+        public static final String FIELD = "field";
+        public static final String QUANTILES = "quantiles";
+        public static final String K = "k";
+        public static final String BOUNDARIES = "boundaries";
+        public static final String PRECISION = "precision";
+        public static final String SUM = "sum";
+        public static final String MIN = "min";
+        public static final String MAX = "max";
+        public static final String AVG = "avg";
+        public static final String FIRST = "first";
+        public static final String LAST = "last";
+        public static final String COUNT_DISTINCT = "countDistinct";
+        public static final String TOP_K = "topK";
+        public static final String HISTOGRAM = "histogram";
+    }
+
+    @NoArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class TimestampExtractors {
+        public static final String FIELD = "field";
+        public static final String HEADER = "header";
+        public static final String FORMAT = "format";
+        public static final String UNIT = "unit";
+        public static final String UNIT_SECONDS = "seconds";
+        public static final String UNIT_MILLISECONDS = "milliseconds";
+        public static final String UNIT_MICROSECONDS = "microseconds";
+        public static final String UNIT_NANOSECONDS = "nanoseconds";
+    }
+
+    @NoArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class TopicNameExtractors {
+        public static final String FIELD = "field";
+        public static final String TOPICS = "topics";
+        public static final String DEFAULT_TOPIC = "defaultTopic";
+        public static final String PURE = "pure";
     }
 
     @NoArgsConstructor(access = AccessLevel.PRIVATE)
@@ -345,6 +437,7 @@ public class KSMLDSL {
         public static final String DURATION = "duration";
         public static final String ADVANCE_BY = "advanceBy";
         public static final String GRACE = "grace";
+        public static final String PANES = "panes";
     }
 
     @NoArgsConstructor(access = AccessLevel.PRIVATE)
@@ -40,6 +40,11 @@ public class ExecutionContext {
     @Setter
     private SerdeWrapper<Object> serdeWrapper = null;
 
+    // Write the values of state stores and repartition topics in the compact internal format
+    @Getter
+    @Setter
+    private boolean compactInternalFormat = false;
+
     public Serde<Object> wrapSerde(Serde<Object> serde) {
         return serdeWrapper != null ? serdeWrapper.wrap(serde) : serde;
     }
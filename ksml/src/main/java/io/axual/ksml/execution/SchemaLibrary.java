@@ -30,11 +30,12 @@ import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 @Slf4j
 public class SchemaLibrary {
-    private final Map<String, Map<String, NamedSchema>> schemas = new TreeMap<>();
+    // Definitions are parsed in parallel, so schemas may be loaded from multiple threads
+    private final Map<String, Map<String, NamedSchema>> schemas = new ConcurrentSkipListMap<>();
     @Setter
     private String schemaDirectory = "";
 
@@ -68,11 +69,7 @@ public class SchemaLibrary {
         if (schemaStr != null) {
             final var schema = notation.schemaParser().parse(schemaName + notation.filenameExtension(), schemaName, schemaStr);
             if (schema instanceof NamedSchema ns) {
-                if (notationSchemas == null) {
-                    notationSchemas = new TreeMap<>();
-                    schemas.put(notation.name(), notationSchemas);
-                }
-                notationSchemas.put(schemaName, ns);
+                schemas.computeIfAbsent(notation.name(), _ -> new ConcurrentSkipListMap<>()).put(schemaName, ns);
             }
             if (schema != null) return schema;
         }
@@ -104,8 +101,7 @@ public class SchemaLibrary {
 
         final var schema = notation.fetchRemoteSchema(topic, isKey);
         if (schema instanceof NamedSchema ns) {
-            if (notationSchemas == null) schemas.put(notation.name(), new TreeMap<>());
-            schemas.get(notation.name()).put(subject, ns);
+            schemas.computeIfAbsent(notation.name(), _ -> new ConcurrentSkipListMap<>()).put(subject, ns);
         }
         return schema;
     }
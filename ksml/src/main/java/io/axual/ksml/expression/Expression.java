@@ -0,0 +1,42 @@
+package io.axual.ksml.expression;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.object.DataObject;
+
+/**
+ * A compiled expression, evaluated against the arguments of a function call.
+ * <p>
+ * Evaluation results are either {@link DataObject}s taken from the arguments, or native Java values
+ * ({@code null}, {@link Boolean}, {@link Long}, {@link Double}, {@link String}, {@link java.util.Map},
+ * {@link java.util.List} or {@link io.axual.ksml.data.value.Tuple}) computed by the expression.
+ */
+@FunctionalInterface
+public interface Expression {
+    /**
+     * Evaluate the expression.
+     *
+     * @param arguments the function arguments, in the order of the function's parameters; optional
+     *                  parameters that were not passed in may be missing from the end of the array
+     * @return the result of the expression
+     */
+    Object evaluate(DataObject[] arguments);
+}
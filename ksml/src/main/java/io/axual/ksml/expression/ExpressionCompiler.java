@@ -0,0 +1,603 @@
+package io.axual.ksml.expression;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.object.DataObject;
+import io.axual.ksml.data.value.Tuple;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compiles a Python expression into an {@link Expression}, without involving a Python interpreter.
+ * <p>
+ * Only a small, side-effect free subset of Python is supported: parameter names, {@code None},
+ * {@code True}, {@code False}, int, float and string literals, subscripts ({@code value["field"]},
+ * {@code values[0]}), arithmetic ({@code + - * / // % **}), comparisons (including chains,
+ * {@code in}, {@code not in}, {@code is None} and {@code is not None}), {@code and}, {@code or},
+ * {@code not}, conditional expressions and dict (with string literal keys), list and tuple literals.
+ * <p>
+ * Anything else, such as function or method calls, attribute access, f-strings, slices and
+ * comprehensions, makes {@link #compile(String, List)} throw an
+ * {@link UnsupportedExpressionException}, so the caller can fall back to the Python interpreter.
+ */
+final class ExpressionCompiler {
+    // Python keywords that can not be used as names in an expression of the supported subset
+    private static final Set<String> KEYWORDS = Set.of(
+            "and", "as", "assert", "async", "await", "break", "class", "continue", "def", "del", "elif",
+            "else", "except", "finally", "for", "from", "global", "if", "import", "in", "is", "lambda",
+            "nonlocal", "not", "or", "pass", "raise", "return", "try", "while", "with", "yield");
+    private static final Set<String> TWO_CHARACTER_OPERATORS = Set.of("**", "//", "==", "!=", "<=", ">=");
+    private static final String ONE_CHARACTER_OPERATORS = "()[]{},:+-*/%<>";
+
+    /**
+     * Thrown when an expression falls outside the subset that can be compiled natively.
+     */
+    static final class UnsupportedExpressionException extends RuntimeException {
+        UnsupportedExpressionException(String message) {
+            super(message);
+        }
+    }
+
+    private enum TokenType {NAME, NUMBER, STRING, OPERATOR, END}
+
+    private record Token(TokenType type, String text, Object value) {
+        boolean is(TokenType expectedType, String expectedText) {
+            return type == expectedType && text.equals(expectedText);
+        }
+    }
+
+    // A compiled node, remembering whether it is a literal or always evaluates to a number, so the parser can
+    // treat those specially
+    private record Node(Expression expression, boolean literal, Object value, boolean numeric) {
+        static Node of(Expression expression) {
+            return new Node(expression, false, null, false);
+        }
+
+        static Node numeric(Expression expression) {
+            return new Node(expression, false, null, true);
+        }
+
+        static Node literal(Object value) {
+            return new Node(_ -> value, true, value, value instanceof Number);
+        }
+    }
+
+    private final List<Token> tokens;
+    private final List<String> parameterNames;
+    private int position = 0;
+
+    private ExpressionCompiler(List<Token> tokens, List<String> parameterNames) {
+        this.tokens = tokens;
+        this.parameterNames = parameterNames;
+    }
+
+    /**
+     * Compile a Python expression.
+     *
+     * @param source         the expression source, which may span multiple lines inside brackets
+     * @param parameterNames the names of the function parameters, in the order they are passed in
+     * @return the compiled expression
+     * @throws UnsupportedExpressionException when the expression is not in the supported subset
+     */
+    static Expression compile(String source, List<String> parameterNames) {
+        final var compiler = new ExpressionCompiler(tokenize(source), parameterNames);
+        final var result = compiler.parseExpressionList(TokenType.END, null);
+        compiler.expect(TokenType.END, "");
+        return result.expression();
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Tokenizer
+    // ---------------------------------------------------------------------------------------------
+
+    private static List<Token> tokenize(String source) {
+        final var result = new ArrayList<Token>();
+        var depth = 0;
+        var index = 0;
+        while (index < source.length()) {
+            final var c = source.charAt(index);
+            if (c == '#') {
+                while (index < source.length() && source.charAt(index) != '\n') index++;
+            } else if (c == '\n' || c == '\r') {
+                // Outside brackets a line break ends the expression, so anything after it is not part of it
+                if (depth == 0 && !source.substring(index).replaceAll("#[^\\n]*", "").isBlank()) {
+                    throw unsupported("statements after the expression");
+                }
+                index++;
+            } else if (Character.isWhitespace(c)) {
+                index++;
+            } else if (Character.isDigit(c) || (c == '.' && index + 1 < source.length() && Character.isDigit(source.charAt(index + 1)))) {
+                index = readNumber(source, index, result);
+            } else if (Character.isLetter(c) || c == '_') {
+                final var start = index;
+                while (index < source.length() && (Character.isLetterOrDigit(source.charAt(index)) || source.charAt(index) == '_')) index++;
+                final var name = source.substring(start, index);
+                if (index < source.length() && (source.charAt(index) == '"' || source.charAt(index) == '\'')) {
+                    // A string prefix: only the (meaningless) u prefix keeps the string a plain literal
+                    if (!name.equalsIgnoreCase("u")) throw unsupported(name + "-prefixed strings");
+                    index = readString(source, index, result);
+                } else {
+                    result.add(new Token(TokenType.NAME, name, null));
+                }
+            } else if (c == '"' || c == '\'') {
+                index = readString(source, index, result);
+            } else if (index + 1 < source.length() && TWO_CHARACTER_OPERATORS.contains(source.substring(index, index + 2))) {
+                result.add(new Token(TokenType.OPERATOR, source.substring(index, index + 2), null));
+                index += 2;
+            } else if (ONE_CHARACTER_OPERATORS.indexOf(c) >= 0) {
+                if (c == '(' || c == '[' || c == '{') depth++;
+                if (c == ')' || c == ']' || c == '}') depth--;
+                result.add(new Token(TokenType.OPERATOR, String.valueOf(c), null));
+                index++;
+            } else {
+                throw unsupported("character '" + c + "'");
+            }
+        }
+        result.add(new Token(TokenType.END, "", null));
+        return result;
+    }
+
+    private static int readNumber(String source, int start, List<Token> result) {
+        var index = start;
+        if (source.charAt(index) == '0' && index + 1 < source.length() && "xXoObB".indexOf(source.charAt(index + 1)) >= 0) {
+            throw unsupported("non-decimal integer literals");
+        }
+        var isFloat = false;
+        while (index < source.length() && (Character.isDigit(source.charAt(index)) || source.charAt(index) == '_')) index++;
+        if (index < source.length() && source.charAt(index) == '.') {
+            isFloat = true;
+            index++;
+            while (index < source.length() && (Character.isDigit(source.charAt(index)) || source.charAt(index) == '_')) index++;
+        }
+        if (index < source.length() && (source.charAt(index) == 'e' || source.charAt(index) == 'E')) {
+            isFloat = true;
+            index++;
+            if (index < source.length() && (source.charAt(index) == '+' || source.charAt(index) == '-')) index++;
+            while (index < source.length() && Character.isDigit(source.charAt(index))) index++;
+        }
+        if (index < source.length() && (Character.isLetter(source.charAt(index)) || source.charAt(index) == '_')) {
+            throw unsupported("number literal " + source.substring(start, index + 1));
+        }
+        final var text = source.substring(start, index).replace("_", "");
+        try {
+            if (isFloat) {
+                result.add(new Token(TokenType.NUMBER, text, Double.parseDouble(text)));
+            } else {
+                if (text.length() > 1 && text.startsWith("0") && !text.chars().allMatch(ch -> ch == '0')) {
+                    throw unsupported("integer literal with leading zeros");
+                }
+                result.add(new Token(TokenType.NUMBER, text, Long.parseLong(text)));
+            }
+        } catch (NumberFormatException _) {
+            throw unsupported("number literal " + text);
+        }
+        return index;
+    }
+
+    private static int readString(String source, int start, List<Token> result) {
+        final var quote = source.charAt(start);
+        if (source.startsWith(String.valueOf(quote).repeat(3), start)) {
+            throw unsupported("triple-quoted strings");
+        }
+        final var builder = new StringBuilder();
+        var index = start + 1;
+        while (true) {
+            if (index >= source.length() || source.charAt(index) == '\n') {
+                throw unsupported("unterminated string");
+            }
+            final var c = source.charAt(index);
+            if (c == quote) break;
+            if (c == '\\') {
+                index = readEscape(source, index + 1, builder);
+            } else {
+                builder.append(c);
+                index++;
+            }
+        }
+        final var value = builder.toString();
+        result.add(new Token(TokenType.STRING, value, value));
+        return index + 1;
+    }
+
+    private static int readEscape(String source, int index, StringBuilder builder) {
+        if (index >= source.length()) throw unsupported("unterminated string");
+        final var c = source.charAt(index);
+        switch (c) {
+            case '\\', '\'', '"' -> builder.append(c);
+            case 'n' -> builder.append('\n');
+            case 't' -> builder.append('\t');
+            case 'r' -> builder.append('\r');
+            case 'a' -> builder.append('\u0007');
+            case 'b' -> builder.append('\b');
+            case 'f' -> builder.append('\f');
+            case 'v' -> builder.append('\u000b');
+            case 'x' -> {
+                return readCodePoint(source, index + 1, 2, builder);
+            }
+            case 'u' -> {
+                return readCodePoint(source, index + 1, 4, builder);
+            }
+            case 'U' -> {
+                return readCodePoint(source, index + 1, 8, builder);
+            }
+            default -> {
+                if (c == '\n' || c == 'N' || Character.isDigit(c)) throw unsupported("escape sequence \\" + c);
+                // Python keeps unrecognized escape sequences as they are
+                builder.append('\\').append(c);
+            }
+        }
+        return index + 1;
+    }
+
+    private static int readCodePoint(String source, int index, int length, StringBuilder builder) {
+        if (index + length > source.length()) throw unsupported("truncated escape sequence");
+        try {
+            builder.appendCodePoint(Integer.parseInt(source.substring(index, index + length), 16));
+        } catch (IllegalArgumentException _) {
+            throw unsupported("invalid escape sequence");
+        }
+        return index + length;
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Parser, following Python's operator precedence
+    // ---------------------------------------------------------------------------------------------
+
+    private Token peek() {
+        return tokens.get(position);
+    }
+
+    private Token next() {
+        return tokens.get(position++);
+    }
+
+    private boolean accept(TokenType type, String text) {
+        if (peek().is(type, text)) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(TokenType type, String text) {
+        if (!accept(type, text)) {
+            throw unsupported("'" + peek().text() + "' where " + (type == TokenType.END ? "the end of the expression" : "'" + text + "'") + " was expected");
+        }
+    }
+
+    // expression ("," expression)* [","], producing a tuple when there is a comma
+    private Node parseExpressionList(TokenType closingType, String closingText) {
+        if (closingText != null && peek().is(closingType, closingText)) {
+            return Node.of(_ -> new Tuple<>());
+        }
+        final var first = parseExpression();
+        if (!peek().is(TokenType.OPERATOR, ",")) return first;
+        final var elements = new ArrayList<Expression>();
+        elements.add(first.expression());
+        while (accept(TokenType.OPERATOR, ",")) {
+            if (peek().is(closingType, closingText != null ? closingText : "")) break;
+            elements.add(parseExpression().expression());
+        }
+        final var compiled = elements.toArray(Expression[]::new);
+        return Node.of(arguments -> new Tuple<>(evaluateAll(compiled, arguments)));
+    }
+
+    private static Object[] evaluateAll(Expression[] expressions, DataObject[] arguments) {
+        final var result = new Object[expressions.length];
+        for (int index = 0; index < expressions.length; index++) {
+            result[index] = expressions[index].evaluate(arguments);
+        }
+        return result;
+    }
+
+    // or_test ["if" or_test "else" expression]
+    private Node parseExpression() {
+        final var value = parseOr();
+        if (!accept(TokenType.NAME, "if")) return value;
+        final var condition = parseOr().expression();
+        expect(TokenType.NAME, "else");
+        final var otherwise = parseExpression().expression();
+        final var then = value.expression();
+        return Node.of(arguments -> ExpressionOperators.truthy(condition.evaluate(arguments))
+                ? then.evaluate(arguments)
+                : otherwise.evaluate(arguments));
+    }
+
+    private Node parseOr() {
+        var result = parseAnd();
+        while (accept(TokenType.NAME, "or")) {
+            final var left = result.expression();
+            final var right = parseAnd().expression();
+            result = Node.of(arguments -> {
+                final var value = left.evaluate(arguments);
+                return ExpressionOperators.truthy(value) ? value : right.evaluate(arguments);
+            });
+        }
+        return result;
+    }
+
+    private Node parseAnd() {
+        var result = parseNot();
+        while (accept(TokenType.NAME, "and")) {
+            final var left = result.expression();
+            final var right = parseNot().expression();
+            result = Node.of(arguments -> {
+                final var value = left.evaluate(arguments);
+                return ExpressionOperators.truthy(value) ? right.evaluate(arguments) : value;
+            });
+        }
+        return result;
+    }
+
+    private Node parseNot() {
+        if (accept(TokenType.NAME, "not")) {
+            final var operand = parseNot().expression();
+            return Node.of(arguments -> !ExpressionOperators.truthy(operand.evaluate(arguments)));
+        }
+        return parseComparison();
+    }
+
+    private interface Comparison {
+        boolean test(Object left, Object right);
+    }
+
+    private Node parseComparison() {
+        final var first = parseArithmetic();
+        final var operands = new ArrayList<Expression>();
+        final var comparisons = new ArrayList<Comparison>();
+        operands.add(first.expression());
+        while (true) {
+            final Comparison comparison;
+            final var token = peek();
+            if (token.type() == TokenType.OPERATOR && Set.of("<", "<=", ">", ">=").contains(token.text())) {
+                next();
+                final var operator = token.text();
+                comparison = (left, right) -> ExpressionOperators.compare(left, right, operator);
+            } else if (accept(TokenType.OPERATOR, "==")) {
+                comparison = ExpressionOperators::pyEquals;
+            } else if (accept(TokenType.OPERATOR, "!=")) {
+                comparison = (left, right) -> !ExpressionOperators.pyEquals(left, right);
+            } else if (accept(TokenType.NAME, "in")) {
+                comparison = (left, right) -> ExpressionOperators.contains(right, left);
+            } else if (token.is(TokenType.NAME, "not") && tokens.get(position + 1).is(TokenType.NAME, "in")) {
+                position += 2;
+                comparison = (left, right) -> !ExpressionOperators.contains(right, left);
+            } else if (accept(TokenType.NAME, "is")) {
+                final var negate = accept(TokenType.NAME, "not");
+                final var right = parseArithmetic();
+                // Identity is only meaningful for None, since values are copied into Python
+                if (!right.literal() || right.value() != null) throw unsupported("'is' with anything other than None");
+                operands.add(right.expression());
+                comparisons.add(negate
+                        ? (left, _) -> !ExpressionOperators.isNone(left)
+                        : (left, _) -> ExpressionOperators.isNone(left));
+                continue;
+            } else {
+                break;
+            }
+            operands.add(parseArithmetic().expression());
+            comparisons.add(comparison);
+        }
+        if (comparisons.isEmpty()) return first;
+
+        final var compiledOperands = operands.toArray(Expression[]::new);
+        final var compiledComparisons = comparisons.toArray(Comparison[]::new);
+        if (compiledComparisons.length == 1) {
+            final var left = compiledOperands[0];
+            final var right = compiledOperands[1];
+            final var comparison = compiledComparisons[0];
+            return Node.of(arguments -> comparison.test(left.evaluate(arguments), right.evaluate(arguments)));
+        }
+        // Chained comparisons evaluate every operand at most once and stop at the first false result
+        return Node.of(arguments -> {
+            var left = compiledOperands[0].evaluate(arguments);
+            for (int index = 0; index < compiledComparisons.length; index++) {
+                final var right = compiledOperands[index + 1].evaluate(arguments);
+                if (!compiledComparisons[index].test(left, right)) return false;
+                left = right;
+            }
+            return true;
+        });
+    }
+
+    private Node parseArithmetic() {
+        var result = parseTerm();
+        while (true) {
+            final var left = result.expression();
+            if (accept(TokenType.OPERATOR, "+")) {
+                final var rightNode = parseTerm();
+                final var right = rightNode.expression();
+                // Adding strings, lists or tuples concatenates them, so the sum is only a number for numbers
+                result = numericIf(result.numeric() && rightNode.numeric(), arguments -> ExpressionOperators.add(left.evaluate(arguments), right.evaluate(arguments)));
+            } else if (accept(TokenType.OPERATOR, "-")) {
+                final var right = parseTerm().expression();
+                result = Node.numeric(arguments -> ExpressionOperators.subtract(left.evaluate(arguments), right.evaluate(arguments)));
+            } else {
+                return result;
+            }
+        }
+    }
+
+    private Node parseTerm() {
+        var result = parseFactor();
+        while (true) {
+            final var left = result.expression();
+            if (accept(TokenType.OPERATOR, "*")) {
+                final var rightNode = parseFactor();
+                final var right = rightNode.expression();
+                // Multiplying a string, list or tuple repeats it, so the product is only a number for numbers
+                result = numericIf(result.numeric() && rightNode.numeric(), arguments -> ExpressionOperators.multiply(left.evaluate(arguments), right.evaluate(arguments)));
+            } else if (accept(TokenType.OPERATOR, "/")) {
+                final var right = parseFactor().expression();
+                result = Node.numeric(arguments -> ExpressionOperators.divide(left.evaluate(arguments), right.evaluate(arguments)));
+            } else if (accept(TokenType.OPERATOR, "//")) {
+                final var right = parseFactor().expression();
+                result = Node.numeric(arguments -> ExpressionOperators.floorDivide(left.evaluate(arguments), right.evaluate(arguments)));
+            } else if (accept(TokenType.OPERATOR, "%")) {
+                // With a string on the left, % formats the string, so it is only compiled when the left is a number
+                if (!result.numeric()) throw unsupported("'%' on an operand that may be a string");
+                final var right = parseFactor().expression();
+                result = Node.numeric(arguments -> ExpressionOperators.modulo(left.evaluate(arguments), right.evaluate(arguments)));
+            } else {
+                return result;
+            }
+        }
+    }
+
+    private Node parseFactor() {
+        if (accept(TokenType.OPERATOR, "-")) {
+            final var operand = parseFactor().expression();
+            return Node.numeric(arguments -> ExpressionOperators.negate(operand.evaluate(arguments)));
+        }
+        if (accept(TokenType.OPERATOR, "+")) {
+            final var operand = parseFactor().expression();
+            return Node.numeric(arguments -> ExpressionOperators.plus(operand.evaluate(arguments)));
+        }
+        return parsePower();
+    }
+
+    private Node parsePower() {
+        final var base = parsePrimary();
+        if (!accept(TokenType.OPERATOR, "**")) return base;
+        final var left = base.expression();
+        final var right = parseFactor().expression();
+        return Node.numeric(arguments -> ExpressionOperators.power(left.evaluate(arguments), right.evaluate(arguments)));
+    }
+
+    private Node parsePrimary() {
+        var result = parseAtom();
+        while (true) {
+            if (accept(TokenType.OPERATOR, "[")) {
+                final var container = result.expression();
+                final var key = parseExpression().expression();
+                if (peek().is(TokenType.OPERATOR, ":")) throw unsupported("slices");
+                expect(TokenType.OPERATOR, "]");
+                result = Node.of(arguments -> ExpressionOperators.getItem(container.evaluate(arguments), key.evaluate(arguments)));
+            } else if (peek().is(TokenType.OPERATOR, "(")) {
+                throw unsupported("function calls");
+            } else {
+                return result;
+            }
+        }
+    }
+
+    private Node parseAtom() {
+        final var token = next();
+        switch (token.type()) {
+            case NUMBER:
+                return Node.literal(token.value());
+            case STRING: {
+                // Adjacent string literals are concatenated
+                final var builder = new StringBuilder((String) token.value());
+                while (peek().type() == TokenType.STRING) builder.append((String) next().value());
+                return Node.literal(builder.toString());
+            }
+            case NAME:
+                return parseName(token.text());
+            case OPERATOR:
+                switch (token.text()) {
+                    case "(": {
+                        final var result = parseExpressionList(TokenType.OPERATOR, ")");
+                        expect(TokenType.OPERATOR, ")");
+                        return result;
+                    }
+                    case "[":
+                        return parseList();
+                    case "{":
+                        return parseDict();
+                    default:
+                        break;
+                }
+                break;
+            default:
+                break;
+        }
+        throw unsupported(token.type() == TokenType.END ? "incomplete expression" : "'" + token.text() + "'");
+    }
+
+    private Node parseName(String name) {
+        switch (name) {
+            case "None":
+                return Node.literal(null);
+            case "True":
+                return Node.literal(true);
+            case "False":
+                return Node.literal(false);
+            default:
+                break;
+        }
+        if (KEYWORDS.contains(name)) throw unsupported("keyword '" + name + "'");
+        final var index = parameterNames.indexOf(name);
+        if (index < 0) throw unsupported("name '" + name + "'");
+        // Optional parameters that were not passed in are None
+        return Node.of(arguments -> index < arguments.length ? arguments[index] : null);
+    }
+
+    private Node parseList() {
+        final var elements = new ArrayList<Expression>();
+        while (!accept(TokenType.OPERATOR, "]")) {
+            elements.add(parseExpression().expression());
+            if (!accept(TokenType.OPERATOR, ",")) {
+                expect(TokenType.OPERATOR, "]");
+                break;
+            }
+        }
+        final var compiled = elements.toArray(Expression[]::new);
+        return Node.of(arguments -> new ArrayList<>(Arrays.asList(evaluateAll(compiled, arguments))));
+    }
+
+    private Node parseDict() {
+        final var keys = new ArrayList<String>();
+        final var values = new ArrayList<Expression>();
+        while (!accept(TokenType.OPERATOR, "}")) {
+            final var key = parseExpression();
+            if (!key.literal() || !(key.value() instanceof String name)) throw unsupported("dict keys other than string literals");
+            if (!accept(TokenType.OPERATOR, ":")) throw unsupported("sets");
+            keys.add(name);
+            values.add(parseExpression().expression());
+            if (!accept(TokenType.OPERATOR, ",")) {
+                expect(TokenType.OPERATOR, "}");
+                break;
+            }
+        }
+        final var compiledKeys = keys.toArray(String[]::new);
+        final var compiledValues = values.toArray(Expression[]::new);
+        return Node.of(arguments -> {
+            final var result = new LinkedHashMap<String, Object>();
+            for (int index = 0; index < compiledKeys.length; index++) {
+                result.put(compiledKeys[index], compiledValues[index].evaluate(arguments));
+            }
+            return result;
+        });
+    }
+
+    private static Node numericIf(boolean numeric, Expression expression) {
+        return numeric ? Node.numeric(expression) : Node.of(expression);
+    }
+
+    private static UnsupportedExpressionException unsupported(String what) {
+        return new UnsupportedExpressionException("Unsupported in native expressions: " + what);
+    }
+}
@@ -0,0 +1,515 @@
+package io.axual.ksml.expression;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.object.DataBoolean;
+import io.axual.ksml.data.object.DataByte;
+import io.axual.ksml.data.object.DataBytes;
+import io.axual.ksml.data.object.DataDouble;
+import io.axual.ksml.data.object.DataEnum;
+import io.axual.ksml.data.object.DataFloat;
+import io.axual.ksml.data.object.DataInteger;
+import io.axual.ksml.data.object.DataList;
+import io.axual.ksml.data.object.DataLong;
+import io.axual.ksml.data.object.DataMap;
+import io.axual.ksml.data.object.DataNull;
+import io.axual.ksml.data.object.DataShort;
+import io.axual.ksml.data.object.DataString;
+import io.axual.ksml.data.object.DataStruct;
+import io.axual.ksml.data.schema.StructSchema;
+import io.axual.ksml.data.value.Tuple;
+import io.axual.ksml.exception.ExecutionException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Implements the Python semantics of the operators supported by native expressions. Values are
+ * resolved lazily: struct fields and list elements are only converted when an operator needs them.
+ * Python's {@code int} is represented as {@link Long} and {@code float} as {@link Double}.
+ * <p>
+ * Errors are raised as {@link ExecutionException}s with the message Python would give, so failing
+ * expressions report the same problem regardless of the engine that evaluates them.
+ */
+final class ExpressionOperators {
+    private ExpressionOperators() {
+    }
+
+    /**
+     * Resolve a value to its Python representation. Primitive data objects become native values,
+     * while structs, maps and lists stay data objects, so only the elements that are accessed get
+     * converted.
+     */
+    static Object resolve(Object value) {
+        return switch (value) {
+            case DataNull _ -> null;
+            case DataBoolean b -> b.value();
+            case DataByte b -> b.value() != null ? b.value().longValue() : null;
+            case DataShort s -> s.value() != null ? s.value().longValue() : null;
+            case DataInteger i -> i.value() != null ? i.value().longValue() : null;
+            case DataLong l -> l.value();
+            case DataFloat f -> f.value() != null ? f.value().doubleValue() : null;
+            case DataDouble d -> d.value();
+            case DataString s -> s.value();
+            case DataEnum e -> e.value();
+            case DataBytes b -> b.value();
+            case DataStruct s -> s.isNull() ? null : s;
+            case DataMap m -> m.isNull() ? null : m;
+            case DataList l -> l.isNull() ? null : l;
+            case Byte b -> b.longValue();
+            case Short s -> s.longValue();
+            case Integer i -> i.longValue();
+            case Float f -> f.doubleValue();
+            case null, default -> value;
+        };
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Truth and identity
+    // ---------------------------------------------------------------------------------------------
+
+    static boolean truthy(Object value) {
+        return switch (resolve(value)) {
+            case null -> false;
+            case Boolean b -> b;
+            case Long l -> l != 0;
+            case Double d -> d != 0.0;
+            case String s -> !s.isEmpty();
+            case byte[] b -> b.length > 0;
+            case Object o when isMapping(o) -> !asMapping(o).isEmpty();
+            case Object o when isSequence(o) -> !asSequence(o).isEmpty();
+            case Object _ -> true;
+        };
+    }
+
+    static boolean isNone(Object value) {
+        return resolve(value) == null;
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Containers
+    // ---------------------------------------------------------------------------------------------
+
+    private static boolean isMapping(Object value) {
+        return value instanceof DataStruct || value instanceof DataMap || value instanceof Map<?, ?>;
+    }
+
+    private static boolean isTuple(Object value) {
+        return value instanceof Tuple<?>;
+    }
+
+    private static boolean isSequence(Object value) {
+        return value instanceof DataList || value instanceof List<?> || value instanceof Tuple<?> || value instanceof byte[];
+    }
+
+    // A struct exposes the same keys as the dict Python receives for it: with a schema, the
+    // required fields and the optional fields that are set; without a schema, all set fields.
+    private static boolean structHasKey(DataStruct struct, String key) {
+        if (struct.type().schema() instanceof StructSchema schema) {
+            final var field = schema.field(key);
+            return field != null && (field.required() || struct.containsKey(key));
+        }
+        return struct.containsKey(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asMapping(Object value) {
+        return switch (value) {
+            case DataStruct struct -> {
+                final var result = new LinkedHashMap<String, Object>();
+                if (struct.type().schema() instanceof StructSchema schema) {
+                    for (final var field : schema.fields()) {
+                        if (field.required() || struct.containsKey(field.name()))
+                            result.put(field.name(), struct.get(field.name()));
+                    }
+                } else {
+                    struct.forEach(result::put);
+                }
+                yield result;
+            }
+            case DataMap map -> {
+                final var result = new LinkedHashMap<String, Object>();
+                map.forEach(result::put);
+                yield result;
+            }
+            case Map<?, ?> map -> (Map<String, Object>) map;
+            default -> throw typeError("'" + typeName(value) + "' object is not a mapping");
+        };
+    }
+
+    private static List<?> asSequence(Object value) {
+        return switch (value) {
+            case DataList list -> {
+                final var result = new ArrayList<>(list.size());
+                list.forEach(result::add);
+                yield result;
+            }
+            case Tuple<?> tuple -> tuple.elements();
+            case List<?> list -> list;
+            case byte[] bytes -> {
+                // Python receives bytes as a list of unsigned byte values
+                final var result = new ArrayList<Long>(bytes.length);
+                for (final var b : bytes) result.add((long) (b & 0xff));
+                yield result;
+            }
+            default -> throw typeError("'" + typeName(value) + "' object is not a sequence");
+        };
+    }
+
+    /**
+     * Python's {@code container[key]}.
+     */
+    static Object getItem(Object container, Object key) {
+        final var target = resolve(container);
+        final var index = resolve(key);
+        return switch (target) {
+            case DataStruct struct -> {
+                if (!(index instanceof String name) || !structHasKey(struct, name)) throw keyError(index);
+                yield struct.get(name);
+            }
+            case DataMap map -> {
+                if (!(index instanceof String name) || !map.containsKey(name)) throw keyError(index);
+                yield map.get(name);
+            }
+            case Map<?, ?> map -> {
+                if (!map.containsKey(index)) throw keyError(index);
+                yield map.get(index);
+            }
+            case DataList list -> list.get(sequenceIndex(list.size(), index, "list"));
+            case Tuple<?> tuple -> tuple.elements().get(sequenceIndex(tuple.elements().size(), index, "tuple"));
+            case List<?> list -> list.get(sequenceIndex(list.size(), index, "list"));
+            case byte[] bytes -> (long) (bytes[sequenceIndex(bytes.length, index, "list")] & 0xff);
+            case String string -> {
+                final var codePoints = string.codePoints().toArray();
+                yield new String(codePoints, sequenceIndex(codePoints.length, index, "string"), 1);
+            }
+            case null, default -> throw typeError("'" + typeName(target) + "' object is not subscriptable");
+        };
+    }
+
+    private static int sequenceIndex(int size, Object index, String typeName) {
+        if (!isInt(index)) {
+            throw typeError(typeName + " indices must be integers, not " + typeName(index));
+        }
+        final var position = asLong(index);
+        final var result = position < 0 ? position + size : position;
+        if (result < 0 || result >= size) {
+            throw new ExecutionException("IndexError: " + typeName + " index out of range");
+        }
+        return (int) result;
+    }
+
+    /**
+     * Python's {@code needle in container}.
+     */
+    static boolean contains(Object container, Object needle) {
+        final var target = resolve(container);
+        final var value = resolve(needle);
+        if (target instanceof String string) {
+            if (!(value instanceof String substring)) {
+                throw typeError("'in <string>' requires string as left operand, not " + typeName(value));
+            }
+            return string.contains(substring);
+        }
+        if (target instanceof DataStruct struct) return value instanceof String name && structHasKey(struct, name);
+        if (target instanceof DataMap map) return value instanceof String name && map.containsKey(name);
+        if (target instanceof Map<?, ?> map) return map.containsKey(value);
+        if (target != null && isSequence(target)) {
+            for (final var element : asSequence(target)) {
+                if (pyEquals(element, value)) return true;
+            }
+            return false;
+        }
+        throw typeError("argument of type '" + typeName(target) + "' is not iterable");
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Comparison
+    // ---------------------------------------------------------------------------------------------
+
+    static boolean pyEquals(Object left, Object right) {
+        final var a = resolve(left);
+        final var b = resolve(right);
+        if (a == null || b == null) return a == b;
+        if (isNumber(a) && isNumber(b)) {
+            if (isInt(a) && isInt(b)) return asLong(a) == asLong(b);
+            return asDouble(a) == asDouble(b);
+        }
+        if (a instanceof String || b instanceof String) return a.equals(b);
+        if (isMapping(a) && isMapping(b)) {
+            final var mapA = asMapping(a);
+            final var mapB = asMapping(b);
+            if (!mapA.keySet().equals(mapB.keySet())) return false;
+            for (final var entry : mapA.entrySet()) {
+                if (!pyEquals(entry.getValue(), mapB.get(entry.getKey()))) return false;
+            }
+            return true;
+        }
+        if (isSequence(a) && isSequence(b)) {
+            if (isTuple(a) != isTuple(b)) return false;
+            final var listA = asSequence(a);
+            final var listB = asSequence(b);
+            if (listA.size() != listB.size()) return false;
+            for (int index = 0; index < listA.size(); index++) {
+                if (!pyEquals(listA.get(index), listB.get(index))) return false;
+            }
+            return true;
+        }
+        return Objects.equals(a, b);
+    }
+
+    /**
+     * Python's ordering comparisons: {@code <}, {@code <=}, {@code >} and {@code >=}.
+     */
+    static boolean compare(Object left, Object right, String operator) {
+        final var a = resolve(left);
+        final var b = resolve(right);
+        if (a != null && b != null) {
+            if (isNumber(a) && isNumber(b)) {
+                if (isInt(a) && isInt(b)) return ordered(Long.compare(asLong(a), asLong(b)), operator);
+                final var x = asDouble(a);
+                final var y = asDouble(b);
+                // Any ordering comparison involving NaN is false in Python
+                if (Double.isNaN(x) || Double.isNaN(y)) return false;
+                return ordered(x < y ? -1 : (x > y ? 1 : 0), operator);
+            }
+            if (a instanceof String x && b instanceof String y) {
+                return ordered(compareCodePoints(x, y), operator);
+            }
+        }
+        throw typeError("'" + operator + "' not supported between instances of '" + typeName(a) + "' and '" + typeName(b) + "'");
+    }
+
+    private static boolean ordered(int comparison, String operator) {
+        return switch (operator) {
+            case "<" -> comparison < 0;
+            case "<=" -> comparison <= 0;
+            case ">" -> comparison > 0;
+            case ">=" -> comparison >= 0;
+            default -> throw new IllegalArgumentException("Not an ordering operator: " + operator);
+        };
+    }
+
+    private static int compareCodePoints(String a, String b) {
+        final var ia = a.codePoints().iterator();
+        final var ib = b.codePoints().iterator();
+        while (ia.hasNext() && ib.hasNext()) {
+            final var result = Integer.compare(ia.nextInt(), ib.nextInt());
+            if (result != 0) return result;
+        }
+        return Boolean.compare(ia.hasNext(), ib.hasNext());
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Arithmetic
+    // ---------------------------------------------------------------------------------------------
+
+    static Object add(Object left, Object right) {
+        final var a = resolve(left);
+        final var b = resolve(right);
+        if (isNumber(a) && isNumber(b)) {
+            if (isInt(a) && isInt(b)) return exact(() -> Math.addExact(asLong(a), asLong(b)));
+            return asDouble(a) + asDouble(b);
+        }
+        if (a instanceof String x && b instanceof String y) return x + y;
+        if (a != null && b != null && isSequence(a) && isSequence(b) && isTuple(a) == isTuple(b)) {
+            final var result = new ArrayList<Object>(asSequence(a));
+            result.addAll(asSequence(b));
+            return isTuple(a) ? new Tuple<>(result.toArray()) : result;
+        }
+        throw unsupportedOperands("+", a, b);
+    }
+
+    static Object subtract(Object left, Object right) {
+        final var a = resolve(left);
+        final var b = resolve(right);
+        if (isNumber(a) && isNumber(b)) {
+            if (isInt(a) && isInt(b)) return exact(() -> Math.subtractExact(asLong(a), asLong(b)));
+            return asDouble(a) - asDouble(b);
+        }
+        throw unsupportedOperands("-", a, b);
+    }
+
+    static Object multiply(Object left, Object right) {
+        final var a = resolve(left);
+        final var b = resolve(right);
+        if (isNumber(a) && isNumber(b)) {
+            if (isInt(a) && isInt(b)) return exact(() -> Math.multiplyExact(asLong(a), asLong(b)));
+            return asDouble(a) * asDouble(b);
+        }
+        if (a instanceof String s && isInt(b)) return s.repeat((int) Math.max(0, asLong(b)));
+        if (isInt(a) && b instanceof String s) return s.repeat((int) Math.max(0, asLong(a)));
+        throw unsupportedOperands("*", a, b);
+    }
+
+    static Object divide(Object left, Object right) {
+        final var a = resolve(left);
+        final var b = resolve(right);
+        if (isNumber(a) && isNumber(b)) {
+            final var divisor = asDouble(b);
+            if (divisor == 0.0) throw zeroDivision("division by zero");
+            return asDouble(a) / divisor;
+        }
+        throw unsupportedOperands("/", a, b);
+    }
+
+    static Object floorDivide(Object left, Object right) {
+        final var a = resolve(left);
+        final var b = resolve(right);
+        if (isNumber(a) && isNumber(b)) {
+            if (isInt(a) && isInt(b)) {
+                if (asLong(b) == 0) throw zeroDivision("integer division or modulo by zero");
+                return exact(() -> Math.floorDiv(asLong(a), asLong(b)));
+            }
+            final var divisor = asDouble(b);
+            if (divisor == 0.0) throw zeroDivision("float floor division by zero");
+            return Math.floor(asDouble(a) / divisor);
+        }
+        throw unsupportedOperands("//", a, b);
+    }
+
+    static Object modulo(Object left, Object right) {
+        final var a = resolve(left);
+        final var b = resolve(right);
+        if (isNumber(a) && isNumber(b)) {
+            if (isInt(a) && isInt(b)) {
+                if (asLong(b) == 0) throw zeroDivision("integer division or modulo by zero");
+                return Math.floorMod(asLong(a), asLong(b));
+            }
+            final var divisor = asDouble(b);
+            if (divisor == 0.0) throw zeroDivision("float modulo");
+            // Python's float modulo takes the sign of the divisor
+            var result = asDouble(a) % divisor;
+            if (result != 0.0 && (result < 0) != (divisor < 0)) result += divisor;
+            return result;
+        }
+        if (a instanceof String) {
+            throw new ExecutionException("TypeError: string formatting is not supported in native expressions");
+        }
+        throw unsupportedOperands("%", a, b);
+    }
+
+    static Object power(Object left, Object right) {
+        final var a = resolve(left);
+        final var b = resolve(right);
+        if (isNumber(a) && isNumber(b)) {
+            if (isInt(a) && isInt(b) && asLong(b) >= 0) {
+                final var base = asLong(a);
+                final var exponent = asLong(b);
+                return exact(() -> {
+                    long result = 1;
+                    for (long index = 0; index < exponent; index++) {
+                        result = Math.multiplyExact(result, base);
+                    }
+                    return result;
+                });
+            }
+            final var base = asDouble(a);
+            final var exponent = asDouble(b);
+            if (base == 0.0 && exponent < 0) {
+                throw zeroDivision("0.0 cannot be raised to a negative power");
+            }
+            return Math.pow(base, exponent);
+        }
+        throw unsupportedOperands("** or pow()", a, b);
+    }
+
+    static Object negate(Object operand) {
+        final var a = resolve(operand);
+        if (isInt(a)) return exact(() -> Math.negateExact(asLong(a)));
+        if (a instanceof Double d) return -d;
+        throw typeError("bad operand type for unary -: '" + typeName(a) + "'");
+    }
+
+    static Object plus(Object operand) {
+        final var a = resolve(operand);
+        if (isInt(a)) return asLong(a);
+        if (a instanceof Double) return a;
+        throw typeError("bad operand type for unary +: '" + typeName(a) + "'");
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Helpers
+    // ---------------------------------------------------------------------------------------------
+
+    private static boolean isInt(Object value) {
+        return value instanceof Long || value instanceof Boolean;
+    }
+
+    private static boolean isNumber(Object value) {
+        return isInt(value) || value instanceof Double;
+    }
+
+    private static long asLong(Object value) {
+        return value instanceof Boolean b ? (b ? 1 : 0) : (Long) value;
+    }
+
+    private static double asDouble(Object value) {
+        return value instanceof Double d ? d : asLong(value);
+    }
+
+    private interface LongOperation {
+        long apply();
+    }
+
+    // Python integers do not overflow. Results beyond the long range can not be returned to KSML
+    // either, so report them instead of silently wrapping around.
+    private static long exact(LongOperation operation) {
+        try {
+            return operation.apply();
+        } catch (ArithmeticException _) {
+            throw new ExecutionException("OverflowError: integer result does not fit in 64 bits");
+        }
+    }
+
+    static String typeName(Object value) {
+        return switch (resolve(value)) {
+            case null -> "NoneType";
+            case Boolean _ -> "bool";
+            case Long _ -> "int";
+            case Double _ -> "float";
+            case String _ -> "str";
+            case Object o when isMapping(o) -> "dict";
+            case Object o when isTuple(o) -> "tuple";
+            case Object o when isSequence(o) -> "list";
+            case Object o -> o.getClass().getSimpleName();
+        };
+    }
+
+    private static ExecutionException typeError(String message) {
+        return new ExecutionException("TypeError: " + message);
+    }
+
+    private static ExecutionException unsupportedOperands(String operator, Object left, Object right) {
+        return typeError("unsupported operand type(s) for " + operator + ": '" + typeName(left) + "' and '" + typeName(right) + "'");
+    }
+
+    private static ExecutionException zeroDivision(String message) {
+        return new ExecutionException("ZeroDivisionError: " + message);
+    }
+
+    private static ExecutionException keyError(Object key) {
+        return new ExecutionException("KeyError: " + (key instanceof String s ? "'" + s + "'" : String.valueOf(key)));
+    }
+}
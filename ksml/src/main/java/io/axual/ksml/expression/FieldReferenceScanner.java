@@ -0,0 +1,200 @@
+package io.axual.ksml.expression;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * Scans Python code for the fields of a function parameter that the code reads.
+ * <p>
+ * The scan is conservative. Reads of the form {@code value['field']}, {@code value.get('field')} and
+ * {@code 'field' in value} are collected, and comparisons with {@code None} are allowed. Any other use
+ * of the parameter, such as passing it to a function, iterating over it, returning it or reading a
+ * field by a computed name, means the code may need the complete value. The scan then returns
+ * {@code null}.
+ */
+public final class FieldReferenceScanner {
+    // Builtins that give code access to its local variables by name
+    private static final Set<String> REFLECTIVE_NAMES = Set.of("locals", "globals", "vars", "eval", "exec");
+    private static final String TWO_CHARACTER_PREFIXES = "=!<>+-*/%&|^@:";
+
+    private enum TokenType {NAME, STRING, OTHER}
+
+    // Text holds the name, the operator, or the contents of a plain string literal (null for other strings)
+    private record Token(TokenType type, String text) {
+        boolean is(TokenType type, String text) {
+            return this.type == type && text.equals(this.text);
+        }
+    }
+
+    private FieldReferenceScanner() {
+    }
+
+    /**
+     * Returns the fields of the given parameter that the code reads.
+     *
+     * @param parameterName the name of the parameter
+     * @param source        the Python code, may be null
+     * @return the names of the fields read, or {@code null} when the code may use the parameter as a whole
+     */
+    public static Set<String> scan(String parameterName, String source) {
+        final var result = new TreeSet<String>();
+        if (source == null) return result;
+        final var tokens = tokenize(source, parameterName);
+        if (tokens == null) return null;
+        for (int index = 0; index < tokens.size(); index++) {
+            final var token = tokens.get(index);
+            if (token.type() != TokenType.NAME) continue;
+            if (REFLECTIVE_NAMES.contains(token.text())) return null;
+            if (!token.text().equals(parameterName)) continue;
+            // An attribute with the same name belongs to another object
+            if (index > 0 && tokens.get(index - 1).is(TokenType.OTHER, ".")) continue;
+            if (!scanUse(tokens, index, result)) return null;
+        }
+        return result;
+    }
+
+    private static boolean scanUse(List<Token> tokens, int index, Set<String> result) {
+        // value['field']
+        final var subscript = plainString(tokens, index + 2);
+        if (at(tokens, index + 1, TokenType.OTHER, "[") && subscript != null && at(tokens, index + 3, TokenType.OTHER, "]")) {
+            result.add(subscript);
+            return true;
+        }
+        // value.get('field') and value.get('field', default)
+        final var getArgument = plainString(tokens, index + 4);
+        if (at(tokens, index + 1, TokenType.OTHER, ".") && at(tokens, index + 2, TokenType.NAME, "get") && at(tokens, index + 3, TokenType.OTHER, "(")
+                && getArgument != null && (at(tokens, index + 5, TokenType.OTHER, ")") || at(tokens, index + 5, TokenType.OTHER, ","))) {
+            result.add(getArgument);
+            return true;
+        }
+        // value is None, value is not None, value == None and value != None
+        if (at(tokens, index + 1, TokenType.NAME, "is")) {
+            final var next = at(tokens, index + 2, TokenType.NAME, "not") ? index + 3 : index + 2;
+            return at(tokens, next, TokenType.NAME, "None");
+        }
+        if (at(tokens, index + 1, TokenType.OTHER, "==") || at(tokens, index + 1, TokenType.OTHER, "!=")) {
+            return at(tokens, index + 2, TokenType.NAME, "None");
+        }
+        // Assigning a new value to the name, or passing a keyword argument with the same name, does not use the parameter
+        if (at(tokens, index + 1, TokenType.OTHER, "=")) return true;
+        // 'field' in value and 'field' not in value
+        var before = index - 1;
+        if (at(tokens, before, TokenType.NAME, "in")) {
+            before--;
+            if (at(tokens, before, TokenType.NAME, "not")) before--;
+            final var field = plainString(tokens, before);
+            if (field != null && !at(tokens, before - 1, TokenType.STRING, null)) {
+                result.add(field);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean at(List<Token> tokens, int index, TokenType type, String text) {
+        if (index < 0 || index >= tokens.size()) return false;
+        final var token = tokens.get(index);
+        return token.type() == type && (text == null || text.equals(token.text()));
+    }
+
+    // Returns the contents of a plain string literal that is not part of an implicit concatenation
+    private static String plainString(List<Token> tokens, int index) {
+        if (!at(tokens, index, TokenType.STRING, null) || at(tokens, index + 1, TokenType.STRING, null)) return null;
+        return tokens.get(index).text();
+    }
+
+    private static List<Token> tokenize(String source, String parameterName) {
+        final var parameterPattern = Pattern.compile("(?<![\\w.])" + Pattern.quote(parameterName) + "(?!\\w)");
+        final var result = new ArrayList<Token>();
+        final var length = source.length();
+        var index = 0;
+        while (index < length) {
+            final var c = source.charAt(index);
+            if (Character.isWhitespace(c) || c == '\\') {
+                index++;
+            } else if (c == '#') {
+                while (index < length && source.charAt(index) != '\n') index++;
+            } else if (c == '\'' || c == '"' || isStringPrefix(source, index)) {
+                final var start = index;
+                while (source.charAt(index) != '\'' && source.charAt(index) != '"') index++;
+                final var prefix = source.substring(start, index).toLowerCase();
+                final var end = readString(source, index);
+                final var body = source.substring(index, end);
+                // Code inside f-strings can use the parameter in any way
+                if (prefix.contains("f") && parameterPattern.matcher(body).find()) return null;
+                final var plain = prefix.isEmpty() || prefix.equals("u");
+                final var quoteLength = body.startsWith("\"\"\"") || body.startsWith("'''") ? 3 : 1;
+                final var contents = body.length() >= 2 * quoteLength ? body.substring(quoteLength, body.length() - quoteLength) : null;
+                result.add(new Token(TokenType.STRING, plain && contents != null && contents.indexOf('\\') < 0 ? contents : null));
+                index = end;
+            } else if (Character.isLetter(c) || c == '_') {
+                final var start = index;
+                while (index < length && (Character.isLetterOrDigit(source.charAt(index)) || source.charAt(index) == '_')) index++;
+                result.add(new Token(TokenType.NAME, source.substring(start, index)));
+            } else if (Character.isDigit(c)) {
+                while (index < length && (Character.isLetterOrDigit(source.charAt(index)) || source.charAt(index) == '_' || source.charAt(index) == '.')) index++;
+                result.add(new Token(TokenType.OTHER, "0"));
+            } else if (index + 1 < length && source.charAt(index + 1) == '=' && TWO_CHARACTER_PREFIXES.indexOf(c) >= 0) {
+                result.add(new Token(TokenType.OTHER, source.substring(index, index + 2)));
+                index += 2;
+            } else {
+                result.add(new Token(TokenType.OTHER, String.valueOf(c)));
+                index++;
+            }
+        }
+        return result;
+    }
+
+    private static boolean isStringPrefix(String source, int index) {
+        var end = index;
+        while (end < source.length() && end - index < 2 && "rRbBuUfF".indexOf(source.charAt(end)) >= 0) end++;
+        if (end == index || end >= source.length()) return false;
+        if (source.charAt(end) != '\'' && source.charAt(end) != '"') return false;
+        // The prefix must not be the end of a longer name
+        return index == 0 || !(Character.isLetterOrDigit(source.charAt(index - 1)) || source.charAt(index - 1) == '_');
+    }
+
+    // Returns the index just after the string literal starting with a quote at the given index
+    private static int readString(String source, int start) {
+        final var quote = source.charAt(start);
+        final var triple = source.startsWith(String.valueOf(quote).repeat(3), start);
+        final var delimiter = triple ? String.valueOf(quote).repeat(3) : String.valueOf(quote);
+        var index = start + delimiter.length();
+        while (index < source.length()) {
+            final var c = source.charAt(index);
+            if (c == '\\') {
+                index += 2;
+            } else if (source.startsWith(delimiter, index)) {
+                return index + delimiter.length();
+            } else if (c == '\n' && !triple) {
+                return index;
+            } else {
+                index++;
+            }
+        }
+        return source.length();
+    }
+}
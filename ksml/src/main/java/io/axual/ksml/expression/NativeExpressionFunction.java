@@ -0,0 +1,218 @@
+package io.axual.ksml.expression;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.mapper.DataObjectConverter;
+import io.axual.ksml.data.object.DataNull;
+import io.axual.ksml.data.object.DataObject;
+import io.axual.ksml.data.util.MapUtil;
+import io.axual.ksml.data.value.Tuple;
+import io.axual.ksml.definition.FunctionDefinition;
+import io.axual.ksml.definition.ParameterDefinition;
+import io.axual.ksml.exception.TopologyException;
+import io.axual.ksml.execution.FatalError;
+import io.axual.ksml.python.NativeDataObjectMapperWithSchema;
+import io.axual.ksml.python.PythonDataObjectMapper;
+import io.axual.ksml.store.StateStores;
+import io.axual.ksml.user.UserFunction;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.axual.ksml.type.UserType.DEFAULT_NOTATION;
+
+/**
+ * A user function consisting of a single Python expression, evaluated natively in Java instead of in
+ * the Python interpreter.
+ * <p>
+ * Only functions without code, global code, state stores or parameter defaults, whose expression
+ * falls in the subset supported by {@link ExpressionCompiler}, can be evaluated this way. For all
+ * other functions {@link #forFunction} returns {@code null}, so the caller can use a
+ * {@link io.axual.ksml.python.PythonFunction} instead.
+ * <p>
+ * Results are converted to data objects the same way Python results are, so both engines return
+ * the same data for the same expression.
+ */
+@Slf4j
+public class NativeExpressionFunction extends UserFunction {
+    private static final NativeDataObjectMapperWithSchema NESTED_MAPPER = new NativeDataObjectMapperWithSchema(false, null);
+    private static final NativeDataObjectMapperWithSchema ARGUMENT_MAPPER = new NativeDataObjectMapperWithSchema(true, NESTED_MAPPER);
+    private static final PythonDataObjectMapper DATA_OBJECT_MAPPER = new PythonDataObjectMapper(true);
+    private final DataObjectConverter converter;
+    private final Expression expression;
+
+    /**
+     * Create a native function for the given definition, if its expression can be evaluated natively.
+     *
+     * @return the native function, or {@code null} when the function needs the Python interpreter
+     */
+    public static NativeExpressionFunction forFunction(String namespace, String name, FunctionDefinition definition, DataObjectConverter converter) {
+        if (!isExpressionOnly(definition)) return null;
+        final var parameterNames = Arrays.stream(definition.parameters()).map(ParameterDefinition::name).toList();
+        try {
+            final var expression = ExpressionCompiler.compile(String.join("\n", definition.expression()), parameterNames);
+            return new NativeExpressionFunction(namespace, name, definition, converter, expression);
+        } catch (ExpressionCompiler.UnsupportedExpressionException e) {
+            log.debug("Function {}.{} is evaluated in Python: {}", namespace, name, e.getMessage());
+            return null;
+        }
+    }
+
+    private static boolean isExpressionOnly(FunctionDefinition definition) {
+        if (definition.resultType() == null || definition.resultType().dataType() == DataNull.DATATYPE) return false;
+        if (!isBlank(definition.globalCode()) || !isBlank(definition.code())) return false;
+        if (definition.expression() == null || String.join("", definition.expression()).isBlank()) return false;
+        if (!definition.storeNames().isEmpty()) return false;
+        return Arrays.stream(definition.parameters()).noneMatch(p -> p.isOptional() && p.defaultValue() != null);
+    }
+
+    private static boolean isBlank(String[] code) {
+        if (code == null) return true;
+        for (final var line : code) {
+            final var trimmed = line.strip();
+            if (!trimmed.isEmpty() && !trimmed.startsWith("#")) return false;
+        }
+        return true;
+    }
+
+    private NativeExpressionFunction(String namespace, String name, FunctionDefinition definition, DataObjectConverter converter, Expression expression) {
+        super(namespace, name, definition.parameters(), definition.resultType(), definition.storeNames());
+        this.converter = converter;
+        this.expression = expression;
+    }
+
+    @Override
+    public DataObject call(StateStores stores, DataObject... parameters) {
+        checkParameters(parameters);
+        try {
+            final var value = expression.evaluate(parameters);
+            DataObject result = DATA_OBJECT_MAPPER.toDataObject(resultType.dataType(), toResult(materialize(value, parameters)));
+            logCall(parameters, result);
+            if (converter != null)
+                result = convertResult(converter, DEFAULT_NOTATION, result);
+            checkType(resultType.dataType(), result);
+            return result;
+        } catch (Exception e) {
+            logCall(parameters, null);
+            throw FatalError.report(new TopologyException("Error while executing function %s.%s : %s".formatted(namespace, name, e.getMessage()), e));
+        }
+    }
+
+    // Replace all data objects in the result by their native representation, the way they are passed into Python
+    private static Object materialize(Object value, DataObject[] arguments) {
+        switch (value) {
+            case DataObject dataObject -> {
+                for (final var argument : arguments) {
+                    // Top-level arguments carry their schema, like they do in Python
+                    if (argument == dataObject) return ARGUMENT_MAPPER.fromDataObject(dataObject);
+                }
+                return NESTED_MAPPER.fromDataObject(dataObject);
+            }
+            case Map<?, ?> map -> {
+                final var result = new LinkedHashMap<Object, Object>();
+                map.forEach((k, v) -> result.put(k, materialize(v, arguments)));
+                return result;
+            }
+            case List<?> list -> {
+                final var result = new ArrayList<>(list.size());
+                list.forEach(element -> result.add(materialize(element, arguments)));
+                return result;
+            }
+            case Tuple<?> tuple -> {
+                final var result = new ArrayList<>(tuple.elements().size());
+                tuple.elements().forEach(element -> result.add(materialize(element, arguments)));
+                return result;
+            }
+            case null, default -> {
+                return value;
+            }
+        }
+    }
+
+    // Convert a returned value the way a value returned from Python is converted: integral numbers become
+    // longs, sequences become lists and dicts become maps with nested values following host conversion rules
+    private static Object toResult(Object value) {
+        return switch (value) {
+            case Number number -> isIntegral(number) ? (Object) number.longValue() : (Object) number.doubleValue();
+            case byte[] bytes -> {
+                final var result = new ArrayList<>(bytes.length);
+                for (final var b : bytes) result.add((long) (b & 0xFF));
+                yield result;
+            }
+            case List<?> list -> {
+                final var result = new ArrayList<>(list.size());
+                list.forEach(element -> result.add(toResult(element)));
+                yield result;
+            }
+            case Map<?, ?> map -> MapUtil.stringKeys(toHost(map));
+            case null, default -> value;
+        };
+    }
+
+    private static Object toHost(Object value) {
+        return switch (value) {
+            case Number number -> toHostNumber(number);
+            case byte[] bytes -> {
+                final var result = new ArrayList<>(bytes.length);
+                for (final var b : bytes) result.add(toHostNumber(b & 0xFF));
+                yield result;
+            }
+            case List<?> list -> {
+                final var result = new ArrayList<>(list.size());
+                list.forEach(element -> result.add(toHost(element)));
+                yield result;
+            }
+            case Map<?, ?> map -> {
+                final var result = new LinkedHashMap<Object, Object>();
+                map.forEach((k, v) -> result.put(k, toHost(v)));
+                yield result;
+            }
+            case null, default -> value;
+        };
+    }
+
+    // Python numbers inside dicts become the smallest Java number type that holds their value
+    private static Number toHostNumber(Number number) {
+        if (isIntegral(number)) {
+            final var value = number.longValue();
+            if (value == (byte) value) return (byte) value;
+            if (value == (short) value) return (short) value;
+            if (value == (int) value) return (int) value;
+            return value;
+        }
+        final var value = number.doubleValue();
+        if (!Double.isNaN(value) && (double) (float) value == value) return (float) value;
+        return value;
+    }
+
+    private static boolean isIntegral(Number number) {
+        if (number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte)
+            return true;
+        final var value = number.doubleValue();
+        return value == Math.rint(value) && !Double.isInfinite(value)
+                && value >= Long.MIN_VALUE && value < 0x1p63
+                && !(value == 0 && Double.doubleToRawLongBits(value) != 0);
+    }
+}
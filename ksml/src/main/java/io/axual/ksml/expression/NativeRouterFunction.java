@@ -0,0 +1,66 @@
+package io.axual.ksml.expression;
+
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.object.DataBoolean;
+import io.axual.ksml.data.object.DataInteger;
+import io.axual.ksml.data.object.DataObject;
+import io.axual.ksml.definition.ParameterDefinition;
+import io.axual.ksml.store.StateStores;
+import io.axual.ksml.type.UserType;
+import io.axual.ksml.user.UserFunction;
+
+import java.util.List;
+
+/**
+ * A function that evaluates a list of natively evaluated conditions in order and returns the index of the first
+ * condition that holds, or -1 if none does. A {@code null} condition always holds.
+ * <p>
+ * All conditions receive the same arguments, so callers convert their input only once for all conditions. This is
+ * the native counterpart of {@link io.axual.ksml.python.PythonFunction#forRouter}.
+ */
+public class NativeRouterFunction extends UserFunction {
+    private static final DataInteger NO_MATCH = new DataInteger(-1);
+    private final UserFunction[] conditions;
+    private final DataInteger[] indices;
+
+    public NativeRouterFunction(String namespace, String name, ParameterDefinition[] parameters, List<NativeExpressionFunction> conditions) {
+        super(namespace, name, parameters, new UserType(DataInteger.DATATYPE), List.of());
+        this.conditions = conditions.toArray(UserFunction[]::new);
+        this.indices = new DataInteger[this.conditions.length];
+        for (int index = 0; index < indices.length; index++) indices[index] = new DataInteger(index);
+    }
+
+    @Override
+    public DataObject call(StateStores stores, DataObject... parameters) {
+        checkParameters(parameters);
+        for (int index = 0; index < conditions.length; index++) {
+            final var condition = conditions[index];
+            if (condition == null || condition.call(stores, parameters) instanceof DataBoolean result && result.value()) {
+                logCall(parameters, indices[index]);
+                return indices[index];
+            }
+        }
+        logCall(parameters, NO_MATCH);
+        return NO_MATCH;
+    }
+}
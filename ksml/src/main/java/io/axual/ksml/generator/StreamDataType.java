@@ -21,7 +21,11 @@ package io.axual.ksml.generator;
  */
 
 
+import io.axual.ksml.data.mapper.DataObjectFlattener;
 import io.axual.ksml.data.mapper.DataTypeFlattener;
+import io.axual.ksml.data.serde.CompactBinarySerde;
+import io.axual.ksml.data.serde.DataObjectSerde;
+import io.axual.ksml.data.serde.ProjectingSerde;
 import io.axual.ksml.data.serde.UnionSerde;
 import io.axual.ksml.data.type.UnionType;
 import io.axual.ksml.execution.ExecutionContext;
@@ -29,8 +33,11 @@ import io.axual.ksml.type.UserType;
 import org.apache.kafka.common.serialization.Serde;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Set;
+
 public record StreamDataType(UserType userType, boolean isKey) {
     private static final DataTypeFlattener FLATTENER = new DataTypeFlattener();
+    private static final DataObjectFlattener NATIVE_MAPPER = new DataObjectFlattener();
 
     public StreamDataType flatten() {
         return isKey ? FLATTENER.flatten(this) : this;
@@ -44,10 +51,49 @@ public record StreamDataType(UserType userType, boolean isKey) {
     }
 
     public Serde<Object> serde() {
+        return ExecutionContext.INSTANCE.wrapSerde(notationSerde(0));
+    }
+
+    /**
+     * Returns a serde that only deserializes the given fields of struct values. Union types are not
+     * projected.
+     */
+    public Serde<Object> serde(Set<String> projectedFields) {
+        if (userType.dataType() instanceof UnionType) return serde();
+        final var notation = ExecutionContext.INSTANCE.notationLibrary().get(userType.notation());
+        final var serde = ProjectingSerde.of(notation.serde(FLATTENER.flatten(userType.dataType()), isKey), projectedFields);
+        return ExecutionContext.INSTANCE.wrapSerde(serde);
+    }
+
+    /**
+     * Returns a serde that keeps up to the given number of recently written or read values per stream
+     * thread in decoded form. Union types and notations that do not use a {@link DataObjectSerde} decode
+     * every value.
+     */
+    public Serde<Object> serdeWithObjectCache(int objectCacheSize) {
+        return ExecutionContext.INSTANCE.wrapSerde(notationSerde(objectCacheSize));
+    }
+
+    /**
+     * Returns the serde for data that only KSML reads back, like state stores and repartition topics. When the
+     * compact internal format is enabled, values are written in compact binary form. Data written in the notation
+     * of this type can still be read if the notation writes text, which never starts like compact data. Keys
+     * always use the notation, since Kafka partitions records by their serialized key.
+     */
+    public Serde<Object> internalSerde(int objectCacheSize) {
+        if (isKey || !ExecutionContext.INSTANCE.compactInternalFormat()) return serdeWithObjectCache(objectCacheSize);
+        final var notation = ExecutionContext.INSTANCE.notationLibrary().get(userType.notation());
+        final var fallback = notation.writesText() ? notationSerde(objectCacheSize).deserializer() : null;
+        return ExecutionContext.INSTANCE.wrapSerde(new CompactBinarySerde(FLATTENER.flatten(userType.dataType()), NATIVE_MAPPER, fallback));
+    }
+
+    private Serde<Object> notationSerde(int objectCacheSize) {
         final var notation = ExecutionContext.INSTANCE.notationLibrary().get(userType.notation());
         if (userType.dataType() instanceof UnionType unionType)
             return new UnionSerde(FLATTENER.flatten(unionType), isKey, notation::serde);
-        var serde = notation.serde(FLATTENER.flatten(userType.dataType()), isKey);
-        return ExecutionContext.INSTANCE.wrapSerde(serde);
+        final var serde = notation.serde(FLATTENER.flatten(userType.dataType()), isKey);
+        return objectCacheSize > 0 && serde instanceof DataObjectSerde dataObjectSerde
+                ? dataObjectSerde.withDecodedCache(objectCacheSize)
+                : serde;
     }
 }
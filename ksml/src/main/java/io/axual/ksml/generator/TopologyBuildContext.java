@@ -24,25 +24,33 @@ import io.axual.ksml.data.mapper.DataObjectConverter;
 import io.axual.ksml.definition.FunctionDefinition;
 import io.axual.ksml.definition.GlobalTableDefinition;
 import io.axual.ksml.definition.KeyValueStateStoreDefinition;
+import io.axual.ksml.definition.ParameterDefinition;
 import io.axual.ksml.definition.SessionStateStoreDefinition;
 import io.axual.ksml.definition.StateStoreDefinition;
 import io.axual.ksml.definition.StreamDefinition;
 import io.axual.ksml.definition.TableDefinition;
+import io.axual.ksml.definition.TimestampExtractorDefinition;
 import io.axual.ksml.definition.TopicDefinition;
 import io.axual.ksml.definition.TopologyResource;
 import io.axual.ksml.definition.WindowStateStoreDefinition;
 import io.axual.ksml.exception.TopologyException;
+import io.axual.ksml.expression.NativeExpressionFunction;
+import io.axual.ksml.expression.NativeRouterFunction;
 import io.axual.ksml.metric.MetricTags;
 import io.axual.ksml.python.PythonContext;
 import io.axual.ksml.python.PythonContextConfig;
 import io.axual.ksml.python.PythonFunction;
+import io.axual.ksml.python.PythonFunctionChain;
+import io.axual.ksml.store.GlobalTableNearCache;
 import io.axual.ksml.store.StoreUtil;
 import io.axual.ksml.stream.BaseStreamWrapper;
 import io.axual.ksml.stream.GlobalKTableWrapper;
 import io.axual.ksml.stream.KStreamWrapper;
 import io.axual.ksml.stream.KTableWrapper;
 import io.axual.ksml.stream.StreamWrapper;
+import io.axual.ksml.type.UserType;
 import io.axual.ksml.user.UserFunction;
+import io.axual.ksml.user.DeclarativeTimestampExtractor;
 import io.axual.ksml.user.UserTimestampExtractor;
 import lombok.Getter;
 import org.apache.kafka.common.serialization.Serde;
@@ -56,8 +64,11 @@ import org.apache.kafka.streams.state.SessionStore;
 import org.apache.kafka.streams.state.WindowStore;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 // This is a supporting class during topology building/generation. It contains the main reference to Kafka Streams'
 // StreamsBuilder and serves as the lookup point for topology resources. It also contains the Python context in which
@@ -67,6 +78,7 @@ public class TopologyBuildContext {
     private final StreamsBuilder builder;
     private final TopologyResources resources;
     private final PythonContext pythonContext;
+    private final boolean nativeExpressions;
     @Getter
     private final DataObjectConverter converter = new DataObjectConverter();
 
@@ -74,6 +86,9 @@ public class TopologyBuildContext {
     private final Map<String, StreamWrapper> streamWrappersByName = new HashMap<>();
     private final Map<String, StreamWrapper> streamWrappersByTopic = new HashMap<>();
 
+    // Value fields to deserialize for streams whose pipelines only read some fields, by topic name
+    private final Map<String, Set<String>> valueProjections = new HashMap<>();
+
     public TopologyBuildContext(StreamsBuilder builder, TopologyResources resources) {
         this(builder, resources, PythonContextConfig.builder().build());
     }
@@ -84,12 +99,18 @@ public class TopologyBuildContext {
         this.builder = builder;
         this.resources = resources;
         this.pythonContext = new PythonContext(pcConfig);
+        this.nativeExpressions = !pcConfig.disableNativeExpressions();
     }
 
     public String namespace() {
         return resources.namespace();
     }
 
+    // Register the value fields to deserialize for stream topics. This needs to happen before the streams are built.
+    public void registerValueProjections(Map<String, Set<String>> projections) {
+        valueProjections.putAll(projections);
+    }
+
     public <V> Materialized<Object, V, KeyValueStore<Bytes, byte[]>> materialize(KeyValueStateStoreDefinition store) {
         resources.register(store.name(), store);
         return StoreUtil.<V>materialize(store).materialized();
@@ -196,7 +217,9 @@ public class TopologyBuildContext {
         var result = Consumed.<K, V>as(name);
         if (keySerde != null) result = result.withKeySerde(keySerde);
         if (valueSerde != null) result = result.withValueSerde(valueSerde);
-        if (tsExtractor != null) {
+        if (tsExtractor instanceof TimestampExtractorDefinition definition && definition.source() != null) {
+            result = result.withTimestampExtractor(new DeclarativeTimestampExtractor(definition.source()));
+        } else if (tsExtractor != null) {
             final var tags = defaultMetricTags();
             result = result.withTimestampExtractor(new UserTimestampExtractor(createUserFunction(tsExtractor), tags.append("topic", name)));
         }
@@ -208,7 +231,9 @@ public class TopologyBuildContext {
         if (def instanceof StreamDefinition streamDefinition) {
             final var streamKey = new StreamDataType(streamDefinition.keyType(), true);
             final var streamValue = new StreamDataType(streamDefinition.valueType(), false);
-            final var consumed = consumedOf(name, streamKey.serde(), streamValue.serde(), def.tsExtractor(), def.resetPolicy());
+            final var projection = valueProjections.get(streamDefinition.topic());
+            final var valueSerde = projection != null ? streamValue.serde(projection) : streamValue.serde();
+            final var consumed = consumedOf(name, streamKey.serde(), valueSerde, def.tsExtractor(), def.resetPolicy());
             return new KStreamWrapper(builder.stream(streamDefinition.topic(), consumed), streamKey, streamValue);
         }
 
@@ -219,7 +244,7 @@ public class TopologyBuildContext {
                     ? tableDefinition.store().with(tableDefinition.keyType(), tableDefinition.valueType())
                     // Set up a store for tables, mapping to the topic itself, so we don't require an extra state store topic
                     : new KeyValueStateStoreDefinition(tableDefinition.topic(), false, false, false, Duration.ofSeconds(900), Duration.ofSeconds(60), streamKey.userType(), streamValue.userType(), false, false);
-            final var mat = StoreUtil.materialize(store);
+            final var mat = StoreUtil.materializeSource(store);
             final var consumed = consumedOf(name, mat.keySerde(), mat.valueSerde(), def.tsExtractor(), def.resetPolicy());
             return new KTableWrapper(builder.table(tableDefinition.topic(), consumed, mat.materialized()), streamKey, streamValue);
         }
@@ -231,9 +256,12 @@ public class TopologyBuildContext {
                     ? globalTableDefinition.store().with(globalTableDefinition.keyType(), globalTableDefinition.valueType())
                     // Set up a store for globalTables, mapping to the topic itself, so we don't require an extra state store topic
                     : new KeyValueStateStoreDefinition(globalTableDefinition.topic(), false, false, false, Duration.ofSeconds(900), Duration.ofSeconds(60), streamKey.userType(), streamValue.userType(), false, false);
-            final var mat = StoreUtil.materialize(store);
+            final var nearCache = globalTableDefinition.nearCacheSize() != null && globalTableDefinition.nearCacheSize() > 0
+                    ? new GlobalTableNearCache(store.name(), globalTableDefinition.topic(), globalTableDefinition.nearCacheSize(), streamKey.serde().serializer())
+                    : null;
+            final var mat = nearCache != null ? StoreUtil.materializeSource(store, nearCache) : StoreUtil.materializeSource(store);
             final var consumed = consumedOf(name, mat.keySerde(), mat.valueSerde(), def.tsExtractor(), def.resetPolicy());
-            return new GlobalKTableWrapper(builder.globalTable(globalTableDefinition.topic(), consumed, mat.materialized()), streamKey, streamValue);
+            return new GlobalKTableWrapper(builder.globalTable(globalTableDefinition.topic(), consumed, mat.materialized()), streamKey, streamValue, nearCache);
         }
 
         throw new TopologyException("Unknown stream type: " + def.getClass().getSimpleName());
@@ -279,6 +307,35 @@ public class TopologyBuildContext {
 
     // Create a new function in the Python context, using the definition in the parameter
     public UserFunction createUserFunction(FunctionDefinition definition) {
+        // Simple expressions are evaluated in Java, everything else runs in Python
+        if (nativeExpressions) {
+            final var result = NativeExpressionFunction.forFunction(resources.namespace(), definition.name(), definition, pythonContext.converter());
+            if (result != null) return result;
+        }
         return PythonFunction.forFunction(pythonContext, resources.namespace(), definition.name(), definition);
     }
+
+    // Create a single function that returns the index of the first of the given conditions that holds, or -1 if none
+    // does. A null condition always holds.
+    public UserFunction createRouterFunction(String name, ParameterDefinition[] parameters, List<FunctionDefinition> conditions) {
+        // When all conditions are simple expressions, they are evaluated in Java, otherwise they all run in Python
+        if (nativeExpressions) {
+            final var nativeConditions = new ArrayList<NativeExpressionFunction>(conditions.size());
+            for (final var condition : conditions) {
+                final var nativeCondition = condition != null
+                        ? NativeExpressionFunction.forFunction(resources.namespace(), condition.name(), condition, pythonContext.converter())
+                        : null;
+                if (condition != null && nativeCondition == null) break;
+                nativeConditions.add(nativeCondition);
+            }
+            if (nativeConditions.size() == conditions.size())
+                return new NativeRouterFunction(resources.namespace(), name, parameters, nativeConditions);
+        }
+        return PythonFunction.forRouter(pythonContext, resources.namespace(), name, parameters, conditions);
+    }
+
+    // Create a single Python call that applies the functions of consecutive fused steps, see FusedOperation
+    public PythonFunctionChain createFunctionChain(List<PythonFunctionChain.Step> steps, UserType keyType, UserType valueType) {
+        return new PythonFunctionChain(pythonContext, resources.namespace(), steps, keyType, valueType);
+    }
 }
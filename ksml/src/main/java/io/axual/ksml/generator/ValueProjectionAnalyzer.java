@@ -0,0 +1,153 @@
+package io.axual.ksml.generator;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.definition.FunctionDefinition;
+import io.axual.ksml.definition.GlobalTableDefinition;
+import io.axual.ksml.definition.PipelineDefinition;
+import io.axual.ksml.definition.TableDefinition;
+import io.axual.ksml.definition.TimestampExtractorDefinition;
+import io.axual.ksml.expression.FieldReferenceScanner;
+import io.axual.ksml.operation.BranchOperation;
+import io.axual.ksml.operation.JoinWithStreamOperation;
+import io.axual.ksml.operation.LeftJoinWithStreamOperation;
+import io.axual.ksml.operation.MergeOperation;
+import io.axual.ksml.operation.OuterJoinWithStreamOperation;
+import io.axual.ksml.operation.ProjectableOperation;
+import io.axual.ksml.operation.StreamOperation;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Finds the value fields that pipelines read from their source streams, so those streams can be
+ * deserialized with only these fields.
+ * <p>
+ * A stream is projected only when its values reach nothing but user functions that read fields by
+ * name, until an operation replaces the value. Streams whose values may be used as a whole, for
+ * example by a sink, a join, a Python timestamp extractor or an unknown operation, are not projected.
+ * Tables and global tables are never projected, since they materialize their values in a store.
+ */
+public class ValueProjectionAnalyzer {
+    private ValueProjectionAnalyzer() {
+    }
+
+    /**
+     * Returns the fields to deserialize for every stream topic that can be projected.
+     *
+     * @param definition the topology definition
+     * @return the value fields read by the pipelines, by topic name
+     */
+    public static Map<String, Set<String>> analyze(TopologyDefinition definition) {
+        final var fieldsByTopic = new HashMap<String, Set<String>>();
+        final var completeValueTopics = new HashSet<String>();
+        for (final var pipeline : definition.pipelines().values()) {
+            collectStreamReferences(pipeline, completeValueTopics);
+            final var source = pipeline.source() != null ? pipeline.source().definition() : null;
+            if (source == null || source.topic() == null || source instanceof TableDefinition || source instanceof GlobalTableDefinition)
+                continue;
+            final var fields = fieldsRead(pipeline);
+            if (fields == null || !addTimestampField(source.tsExtractor(), fields)) {
+                completeValueTopics.add(source.topic());
+            } else {
+                fieldsByTopic.computeIfAbsent(source.topic(), _ -> new TreeSet<>()).addAll(fields);
+            }
+        }
+
+        final var result = new TreeMap<String, Set<String>>();
+        fieldsByTopic.forEach((topic, fields) -> {
+            if (!completeValueTopics.contains(topic)) result.put(topic, fields);
+        });
+        return result;
+    }
+
+    // Returns the value fields read by a pipeline, or null if it may use its values as a whole
+    private static Set<String> fieldsRead(PipelineDefinition pipeline) {
+        final var result = new TreeSet<String>();
+        for (final var operation : pipeline.chain()) {
+            if (!(operation instanceof ProjectableOperation projectable)) return null;
+            if (!addFieldsRead(projectable.valueFunctions(), result)) return null;
+            if (!projectable.forwardsValue()) return result;
+        }
+
+        final var sink = pipeline.sink();
+        if (sink == null) return result;
+        if (sink instanceof BranchOperation branchOperation) {
+            for (final var branch : branchOperation.branches()) {
+                if (branch.predicate() != null && !addFieldsRead(List.of(branch.predicate()), result)) return null;
+                final var branchFields = fieldsRead(branch.pipeline());
+                if (branchFields == null) return null;
+                result.addAll(branchFields);
+            }
+            return result;
+        }
+        if (sink instanceof ProjectableOperation projectable && addFieldsRead(projectable.valueFunctions(), result))
+            return result;
+        return null;
+    }
+
+    // Declarative timestamp extractors read a single field, Python timestamp extractors may use the complete value
+    private static boolean addTimestampField(FunctionDefinition tsExtractor, Set<String> result) {
+        if (tsExtractor == null) return true;
+        if (!(tsExtractor instanceof TimestampExtractorDefinition definition) || definition.source() == null) return false;
+        if (definition.source().field() != null) result.add(definition.source().fieldPath()[0]);
+        return true;
+    }
+
+    private static boolean addFieldsRead(Collection<FunctionDefinition> functions, Set<String> result) {
+        for (final var function : functions) {
+            // Functions without a value parameter can not read the value
+            if (function == null || function.parameters() == null || function.parameters().length < 2) continue;
+            final var parameterName = function.parameters()[1].name();
+            for (final var source : new String[][]{function.code(), function.expression()}) {
+                final var fields = FieldReferenceScanner.scan(parameterName, source != null ? String.join("\n", source) : null);
+                if (fields == null) return false;
+                result.addAll(fields);
+            }
+        }
+        return true;
+    }
+
+    // Streams joined with or merged into a pipeline need their complete values
+    private static void collectStreamReferences(PipelineDefinition pipeline, Set<String> result) {
+        for (final var operation : pipeline.chain()) collectStreamReferences(operation, result);
+        if (pipeline.sink() != null) collectStreamReferences(pipeline.sink(), result);
+    }
+
+    private static void collectStreamReferences(StreamOperation operation, Set<String> result) {
+        switch (operation) {
+            case JoinWithStreamOperation join -> result.add(join.joinStream().topic());
+            case LeftJoinWithStreamOperation join -> result.add(join.joinStream().topic());
+            case OuterJoinWithStreamOperation join -> result.add(join.joinStream().topic());
+            case MergeOperation merge -> result.add(merge.mergeStream().topic());
+            case BranchOperation branch -> branch.branches().forEach(b -> collectStreamReferences(b.pipeline(), result));
+            default -> {
+                // Other operations do not refer to streams
+            }
+        }
+    }
+}
@@ -35,6 +35,19 @@ public class Metrics {
     }
 
     public static synchronized void init() {
-        registry().enableJmx(DOMAIN, Collections.emptyList());
+        init(true);
+    }
+
+    /**
+     * Initialize the metrics, optionally exposing them as JMX MBeans.
+     *
+     * @param exposeAsJmx when false, the metrics are only available from the registry itself
+     */
+    public static synchronized void init(boolean exposeAsJmx) {
+        if (exposeAsJmx) {
+            registry().enableJmx(DOMAIN, Collections.emptyList());
+        } else {
+            registry().disableJmx();
+        }
     }
 }
@@ -32,6 +32,7 @@ import com.codahale.metrics.jmx.JmxReporter;
 import io.axual.ksml.exception.MetricRegistrationException;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -203,6 +204,17 @@ public class MetricsRegistry {
         registeredMetrics.clear();
     }
 
+    /**
+     * Get a read-only view of all metrics in this registry, keyed by their name. The view reflects
+     * later registrations and removals, which allows exporters to read the metrics directly instead of
+     * going through JMX.
+     *
+     * @return an unmodifiable view of the registered metrics
+     */
+    public Map<MetricName, Metric> metrics() {
+        return Collections.unmodifiableMap(registeredMetrics);
+    }
+
     private String encodeName(MetricName metricName) {
         return MetricObjectNaming.stringFromMetricName(metricName);
     }
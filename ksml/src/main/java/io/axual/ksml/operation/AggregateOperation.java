@@ -21,7 +21,9 @@ package io.axual.ksml.operation;
  */
 
 
+import io.axual.ksml.definition.AggregatorDefinition;
 import io.axual.ksml.definition.FunctionDefinition;
+import io.axual.ksml.generator.StreamDataType;
 import io.axual.ksml.generator.TopologyBuildContext;
 import io.axual.ksml.stream.CogroupedKStreamWrapper;
 import io.axual.ksml.stream.KGroupedStreamWrapper;
@@ -32,10 +34,14 @@ import io.axual.ksml.stream.SessionWindowedKStreamWrapper;
 import io.axual.ksml.stream.StreamWrapper;
 import io.axual.ksml.stream.TimeWindowedCogroupedKStreamWrapper;
 import io.axual.ksml.stream.TimeWindowedKStreamWrapper;
+import io.axual.ksml.user.NativeAggregator;
 import io.axual.ksml.user.UserAggregator;
 import io.axual.ksml.user.UserInitializer;
 import io.axual.ksml.user.UserMerger;
+import org.apache.kafka.streams.kstream.Aggregator;
+import org.apache.kafka.streams.kstream.Initializer;
 import org.apache.kafka.streams.kstream.KTable;
+import org.apache.kafka.streams.kstream.Merger;
 import org.apache.kafka.streams.kstream.Windowed;
 
 public class AggregateOperation extends StoreOperation {
@@ -69,15 +75,13 @@ public class AggregateOperation extends StoreOperation {
          *          final Materialized<K, VR, KeyValueStore<Bytes, byte[]>> materialized)
          */
 
-        checkNotNull(initializer, INITIALIZER_NAME.toLowerCase());
         checkNotNull(aggregator, AGGREGATOR_NAME.toLowerCase());
         final var k = input.keyType();
         final var v = input.valueType();
-        final var vr = streamDataTypeOf(firstSpecificType(initializer, aggregator), false);
-        final var init = userFunctionOf(context, INITIALIZER_NAME, initializer, vr);
-        final var userInit = new UserInitializer(init, tags);
-        final var aggr = userFunctionOf(context, AGGREGATOR_NAME, aggregator, vr, superOf(k), superOf(v), superOf(vr));
-        final var userAggr = new UserAggregator(aggr, tags);
+        final var builtin = builtinAggregatorOf(aggregator, v);
+        final var vr = builtin != null ? streamDataTypeOf(builtin.resultType(), false) : streamDataTypeOf(firstSpecificType(initializer, aggregator), false);
+        final var userInit = initializerOf(context, builtin, vr);
+        final var userAggr = aggregatorOf(context, builtin, k, v, vr);
         final var kvStore = validateKeyValueStore(store(), k, vr);
         final var mat = materializedOf(context, kvStore);
         final var named = namedOf();
@@ -106,6 +110,8 @@ public class AggregateOperation extends StoreOperation {
         checkNotNull(initializer, INITIALIZER_NAME.toLowerCase());
         checkNotNull(adder, ADDER_NAME.toLowerCase());
         checkNotNull(subtractor, SUBTRACTOR_NAME.toLowerCase());
+        if (isBuiltin(adder) || isBuiltin(subtractor))
+            throw topologyError("built-in aggregations can not be used as adder or subtractor");
         final var k = input.keyType();
         final var v = input.valueType();
         final var vr = streamDataTypeOf(firstSpecificType(initializer, adder, subtractor), false);
@@ -142,18 +148,15 @@ public class AggregateOperation extends StoreOperation {
          *          final Materialized<K, VR, SessionStore<Bytes, byte[]>> materialized)
          */
 
-        checkNotNull(initializer, INITIALIZER_NAME.toLowerCase());
         checkNotNull(aggregator, AGGREGATOR_NAME.toLowerCase());
-        checkNotNull(merger, MERGER_NAME.toLowerCase());
         final var k = input.keyType();
         final var v = input.valueType();
-        final var vr = streamDataTypeOf(firstSpecificType(initializer, aggregator, merger), false);
-        final var init = userFunctionOf(context, INITIALIZER_NAME, initializer, vr);
-        final var userInit = new UserInitializer(init, tags);
-        final var aggr = userFunctionOf(context, AGGREGATOR_NAME, aggregator, vr, superOf(k), superOf(v), superOf(vr));
-        final var userAggr = new UserAggregator(aggr, tags);
-        final var merg = userFunctionOf(context, MERGER_NAME, merger, vr, superOf(k), equalTo(vr), superOf(vr));
-        final var userMerg = new UserMerger(merg, tags);
+        final var builtin = builtinAggregatorOf(aggregator, v);
+        if (builtin == null) checkNotNull(merger, MERGER_NAME.toLowerCase());
+        final var vr = builtin != null ? streamDataTypeOf(builtin.resultType(), false) : streamDataTypeOf(firstSpecificType(initializer, aggregator, merger), false);
+        final var userInit = initializerOf(context, builtin, vr);
+        final var userAggr = aggregatorOf(context, builtin, k, v, vr);
+        final var userMerg = mergerOf(context, builtin, k, vr);
         final var sessionStore = validateSessionStore(store(), k, vr);
         final var mat = materializedOf(context, sessionStore);
         final var named = namedOf();
@@ -181,15 +184,25 @@ public class AggregateOperation extends StoreOperation {
          *          final Materialized<K, VR, WindowStore<Bytes, byte[]>> materialized)
          */
 
-        checkNotNull(initializer, INITIALIZER_NAME.toLowerCase());
         checkNotNull(aggregator, AGGREGATOR_NAME.toLowerCase());
         final var k = input.keyType();
         final var v = input.valueType();
-        final var vr = streamDataTypeOf(firstSpecificType(initializer, aggregator), false);
-        final var init = userFunctionOf(context, INITIALIZER_NAME, initializer, vr);
-        final var userInit = new UserInitializer(init, tags);
-        final var aggr = userFunctionOf(context, AGGREGATOR_NAME, aggregator, vr, superOf(k), superOf(v), superOf(vr));
-        final var userAggr = new UserAggregator(aggr, tags);
+        final var builtin = builtinAggregatorOf(aggregator, v);
+        final var vr = builtin != null ? streamDataTypeOf(builtin.resultType(), false) : streamDataTypeOf(firstSpecificType(initializer, aggregator), false);
+        final var userInit = initializerOf(context, builtin, vr);
+        final var userAggr = aggregatorOf(context, builtin, k, v, vr);
+        if (input.paneWindows != null) {
+            // Records are aggregated in panes, which are combined into windows by the merger or the built-in aggregation
+            if (builtin == null && merger == null)
+                throw topologyError("windows with panes can only be aggregated with a merger or a built-in aggregation");
+            final var paneStore = paneStoreOf(input.paneWindows, k, vr);
+            final var mat = materializedOf(context, paneStore);
+            final var named = namedOf();
+            final var panes = named != null
+                    ? input.timeWindowedKStream.aggregate(userInit, userAggr, named, mat)
+                    : input.timeWindowedKStream.aggregate(userInit, userAggr, mat);
+            return combinePanes(panes, paneStore, input.paneWindows, mergerOf(context, builtin, k, vr), k, vr);
+        }
         final var windowStore = validateWindowStore(store(), k, vr);
         final var mat = materializedOf(context, windowStore);
         final var named = namedOf();
@@ -302,4 +315,38 @@ public class AggregateOperation extends StoreOperation {
         }
         return new KTableWrapper((KTable) output, windowed(k), v);
     }
+
+    // Built-in aggregations merge aggregates themselves, unless a merger function is given
+    private Merger<Object, Object> mergerOf(TopologyBuildContext context, NativeAggregator builtin, StreamDataType k, StreamDataType vr) {
+        if (merger == null) return builtin.merger();
+        final var merg = userFunctionOf(context, MERGER_NAME, merger, vr, superOf(k), equalTo(vr), superOf(vr));
+        return new UserMerger(merg, tags);
+    }
+
+    private static boolean isBuiltin(FunctionDefinition function) {
+        return function instanceof AggregatorDefinition definition && definition.builtin() != null;
+    }
+
+    // Returns the built-in aggregator of the aggregator function, or null if records are aggregated by Python code
+    private NativeAggregator builtinAggregatorOf(FunctionDefinition function, StreamDataType valueType) {
+        if (!isBuiltin(function)) {
+            checkNotNull(initializer, INITIALIZER_NAME.toLowerCase());
+            return null;
+        }
+        if (initializer != null)
+            throw topologyError("built-in aggregations do not use an initializer");
+        return new NativeAggregator(((AggregatorDefinition) function).builtin(), valueType.userType().dataType());
+    }
+
+    private Initializer<Object> initializerOf(TopologyBuildContext context, NativeAggregator builtin, StreamDataType vr) {
+        if (builtin != null) return builtin;
+        final var init = userFunctionOf(context, INITIALIZER_NAME, initializer, vr);
+        return new UserInitializer(init, tags);
+    }
+
+    private Aggregator<Object, Object, Object> aggregatorOf(TopologyBuildContext context, NativeAggregator builtin, StreamDataType k, StreamDataType v, StreamDataType vr) {
+        if (builtin != null) return builtin;
+        final var aggr = userFunctionOf(context, AGGREGATOR_NAME, aggregator, vr, superOf(k), superOf(v), superOf(vr));
+        return new UserAggregator(aggr, tags);
+    }
 }
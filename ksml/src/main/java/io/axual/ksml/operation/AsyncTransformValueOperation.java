@@ -0,0 +1,111 @@
+package io.axual.ksml.operation;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.definition.FunctionDefinition;
+import io.axual.ksml.generator.TopologyBuildContext;
+import io.axual.ksml.operation.processor.AsyncTransformValueProcessor;
+import io.axual.ksml.stream.KStreamWrapper;
+import io.axual.ksml.stream.StreamWrapper;
+import io.axual.ksml.user.UserValueTransformer;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorSupplier;
+import org.apache.kafka.streams.state.StoreBuilder;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Transforms the value of every record outside the stream thread, with a bounded number of records in flight.
+ * The mapper can not use state stores, since state stores may only be accessed from the stream thread. Records
+ * that were not forwarded yet are kept in a pending store, which is named after the operation.
+ */
+public class AsyncTransformValueOperation extends BaseOperation implements ProjectableOperation {
+    private static final String MAPPER_NAME = "Mapper";
+    private static final String STORE_SUFFIX = "-in-flight";
+    private final FunctionDefinition mapper;
+    private final int maxInFlight;
+    private final AsyncTransformValueProcessor.Ordering ordering;
+
+    public AsyncTransformValueOperation(OperationConfig config, FunctionDefinition mapper, int maxInFlight, AsyncTransformValueProcessor.Ordering ordering) {
+        super(config);
+        this.mapper = mapper;
+        this.maxInFlight = maxInFlight;
+        this.ordering = ordering;
+    }
+
+    @Override
+    public StreamWrapper apply(KStreamWrapper input, TopologyBuildContext context) {
+        /*    Kafka Streams method signature:
+         *     <KOut, VOut> KStream<KOut, VOut> process(
+         *          final ProcessorSupplier<? super K, ? super V, KOut, VOut> processorSupplier,
+         *          final Named named,
+         *          final String... stateStoreNames
+         */
+
+        checkNotNull(mapper, MAPPER_NAME.toLowerCase());
+        if (!mapper.storeNames().isEmpty())
+            throw topologyError("The mapper of asyncTransformValue can not use state stores, since it is called outside the stream thread");
+        if (name == null) throw topologyError("asyncTransformValue requires a valid operation name");
+        final var k = input.keyType();
+        final var v = input.valueType().flatten();
+        final var vr = streamDataTypeOf(firstSpecificType(mapper, v.userType()), false);
+        final var map = userFunctionOf(context, MAPPER_NAME, mapper, vr, superOf(k.flatten()), superOf(v));
+        final var userMap = new UserValueTransformer(map, tags);
+        final var storeName = name + STORE_SUFFIX;
+        final var supplier = new ProcessorSupplier<Object, Object, Object, Object>() {
+            @Override
+            public Processor<Object, Object, Object, Object> get() {
+                return new AsyncTransformValueProcessor(
+                        name,
+                        storeName,
+                        (key, value) -> userMap.apply(flattenValue(key), flattenValue(value)),
+                        maxInFlight,
+                        ordering,
+                        k.serde(),
+                        v.internalSerde(0));
+            }
+
+            @Override
+            public Set<StoreBuilder<?>> stores() {
+                return Collections.singleton(AsyncTransformValueProcessor.pendingStoreBuilder(storeName));
+            }
+        };
+        final var named = namedOf();
+        // Records read back from the pending store are forwarded as new records, so a fixed key processor can not be used
+        final KStream<Object, Object> output = named != null
+                ? input.stream.process(supplier, named)
+                : input.stream.process(supplier);
+        return new KStreamWrapper(output, k, vr, input.keyChanged);
+    }
+
+    @Override
+    public List<FunctionDefinition> valueFunctions() {
+        return Collections.singletonList(mapper);
+    }
+
+    @Override
+    public boolean forwardsValue() {
+        return false;
+    }
+}
@@ -282,6 +282,12 @@ public abstract class BaseOperation implements StreamOperation {
     protected UserFunction userFunctionOf(TopologyBuildContext context, String functionType, FunctionDefinition function, DataType expectedResultType, TypeComparator... parameters) {
         // Check if the function is defined
         if (function == null) return null;
+        return context.createUserFunction(checkedFunctionOf(functionType, function, expectedResultType, parameters));
+    }
+
+    // Check a function definition against the expected result and parameter types, and return it with the parameter
+    // and result types filled in
+    protected FunctionDefinition checkedFunctionOf(String functionType, FunctionDefinition function, DataType expectedResultType, TypeComparator... parameters) {
 
         // Check if the resultType of the function can be assigned to the expectedResult
         final var functionResultType = function.resultType() != null ? function.resultType() : new UserType(expectedResultType);
@@ -312,7 +318,7 @@ public abstract class BaseOperation implements StreamOperation {
         // Copy the remainder of the parameters into the new array
         System.arraycopy(function.parameters(), parameters.length, newParams, parameters.length, function.parameters().length - parameters.length);
         // Update the function with its new parameter types
-        return context.createUserFunction(function.withResultType(functionResultType).withParameters(newParams));
+        return function.withResultType(functionResultType).withParameters(newParams);
     }
 
     protected void checkTuple(String faultDescription, UserType type, DataType... elements) {
@@ -359,7 +365,7 @@ public abstract class BaseOperation implements StreamOperation {
     }
 
     protected Grouped<Object, Object> groupedOf(StreamDataType k, StreamDataType v, KeyValueStateStoreDefinition store) {
-        var grouped = Grouped.with(k.serde(), v.serde());
+        var grouped = Grouped.with(k.serde(), v.internalSerde(0));
         if (name != null) grouped = grouped.withName(name);
         if (store != null) grouped = grouped.withName(store.name());
         return grouped;
@@ -395,7 +401,7 @@ public abstract class BaseOperation implements StreamOperation {
 
     protected Repartitioned<Object, Object> repartitionedOf(StreamDataType k, StreamDataType v, Integer numberOfPartitions, StreamPartitioner<Object, Object> partitioner) {
         if (partitioner == null && numberOfPartitions == null) return null;
-        var repartitioned = Repartitioned.with(k.serde(), v.serde());
+        var repartitioned = Repartitioned.with(k.serde(), v.internalSerde(0));
         if (numberOfPartitions != null) repartitioned = repartitioned.withNumberOfPartitions(numberOfPartitions);
         if (partitioner != null) repartitioned = repartitioned.withStreamPartitioner(partitioner);
         if (name != null) repartitioned = repartitioned.withName(name);
@@ -418,7 +424,7 @@ public abstract class BaseOperation implements StreamOperation {
     }
 
     protected StreamJoined<Object, Object, Object> streamJoinedOf(WindowStateStoreDefinition thisStore, WindowStateStoreDefinition otherStore, StreamDataType k, StreamDataType v, StreamDataType vo, JoinWindows joinWindows) {
-        var result = StreamJoined.with(k.serde(), v.serde(), vo.serde()).withLoggingDisabled();
+        var result = StreamJoined.with(k.serde(), v.internalSerde(0), vo.internalSerde(0)).withLoggingDisabled();
         if (name != null) result = result.withName(name);
         if (thisStore != null) {
             if (thisStore.name() != null) result = result.withStoreName(thisStore.name());
@@ -470,17 +476,7 @@ public abstract class BaseOperation implements StreamOperation {
             validateStore(store, keyType, valueType);
             final var storeKeyType = keyValueStore.keyType() != null ? keyValueStore.keyType() : keyType;
             final var storeValueType = keyValueStore.valueType() != null ? keyValueStore.valueType() : valueType;
-            return new KeyValueStateStoreDefinition(
-                    keyValueStore.name(),
-                    keyValueStore.persistent(),
-                    keyValueStore.timestamped(),
-                    keyValueStore.versioned(),
-                    keyValueStore.historyRetention(),
-                    keyValueStore.segmentInterval(),
-                    storeKeyType,
-                    storeValueType,
-                    keyValueStore.caching(),
-                    keyValueStore.logging());
+            return keyValueStore.with(storeKeyType, storeValueType);
         }
         throw new ExecutionException(this + " requires a  state store of type 'keyValue'");
     }
@@ -503,7 +499,9 @@ public abstract class BaseOperation implements StreamOperation {
                     storeKeyType,
                     storeValueType,
                     sessionStore.caching(),
-                    sessionStore.logging());
+                    sessionStore.logging(),
+                    sessionStore.objectCacheSize(),
+                    sessionStore.rocksDb());
         }
         throw new ExecutionException(this + " requires a  state store of type 'session'");
     }
@@ -528,7 +526,9 @@ public abstract class BaseOperation implements StreamOperation {
                     storeKeyType,
                     storeValueType,
                     windowStore.caching(),
-                    windowStore.logging());
+                    windowStore.logging(),
+                    windowStore.objectCacheSize(),
+                    windowStore.rocksDb());
         }
         throw new ExecutionException(this + " requires a  state store of type 'window'");
     }
@@ -22,12 +22,20 @@ package io.axual.ksml.operation;
 
 
 import io.axual.ksml.definition.BranchDefinition;
+import io.axual.ksml.definition.FunctionDefinition;
+import io.axual.ksml.definition.ParameterDefinition;
 import io.axual.ksml.generator.TopologyBuildContext;
+import io.axual.ksml.operation.processor.BranchRouterProcessor;
+import io.axual.ksml.operation.processor.PassThroughProcessor;
+import io.axual.ksml.python.PythonFunction;
 import io.axual.ksml.stream.KStreamWrapper;
 import io.axual.ksml.stream.StreamWrapper;
+import io.axual.ksml.user.UserBranchRouter;
 import io.axual.ksml.user.UserPredicate;
+import lombok.Getter;
 import org.apache.kafka.streams.kstream.Branched;
 import org.apache.kafka.streams.kstream.BranchedKStream;
+import org.apache.kafka.streams.kstream.KStream;
 import org.apache.kafka.streams.kstream.Named;
 import org.apache.kafka.streams.kstream.Predicate;
 
@@ -36,11 +44,18 @@ import java.util.List;
 
 public class BranchOperation extends BaseOperation {
     private static final String PREDICATE_NAME = "Predicate";
+    @Getter
     private final List<BranchDefinition> branches;
+    private final boolean routeOnce;
 
     public BranchOperation(OperationConfig config, List<BranchDefinition> branches) {
+        this(config, branches, false);
+    }
+
+    public BranchOperation(OperationConfig config, List<BranchDefinition> branches, boolean routeOnce) {
         super(config);
         this.branches = branches;
+        this.routeOnce = routeOnce;
     }
 
     @Override
@@ -48,6 +63,33 @@ public class BranchOperation extends BaseOperation {
         final var k = input.keyType();
         final var v = input.valueType();
 
+        // Route every message with a single function call, which evaluates all branch conditions in order. The branch
+        // nodes need a name to be addressable by the router, so unnamed operations fall back to KStream.split(). All
+        // conditions of the router share one Python module, so conditions with global code also fall back, and so do
+        // conditions with state stores, which the router does not pass on.
+        if (routeOnce && name != null && branches.stream().allMatch(BranchOperation::isRoutable)) {
+            final var conditions = new ArrayList<FunctionDefinition>(branches.size());
+            for (final BranchDefinition branch : branches) {
+                conditions.add(branch.predicate() != null
+                        ? checkedFunctionOf(PREDICATE_NAME, branch.predicate(), UserPredicate.EXPECTED_RESULT_TYPE, superOf(k), superOf(v))
+                        : null);
+            }
+            final var parameters = new ParameterDefinition[]{
+                    new ParameterDefinition("key", k.userType().dataType()),
+                    new ParameterDefinition("value", v.userType().dataType())};
+            final var routerName = name.replaceAll("\\W", "_") + "_router";
+            final var router = new UserBranchRouter(context.createRouterFunction(routerName, parameters, conditions), tags);
+
+            final var childNames = new String[branches.size()];
+            for (var index = 0; index < childNames.length; index++) childNames[index] = name + index;
+            final var routed = input.stream.processValues(() -> new BranchRouterProcessor(router, childNames), Named.as(name));
+            for (var index = 0; index < childNames.length; index++) {
+                final KStream<Object, Object> branchStream = routed.processValues(PassThroughProcessor::new, Named.as(childNames[index]));
+                applyPipeline(new KStreamWrapper(branchStream, k, v, input.keyChanged), branches.get(index), context);
+            }
+            return null;
+        }
+
         // Prepare the branch predicates to pass into the KStream
         final var predicates = new ArrayList<Predicate<Object, Object>>(branches.size());
         for (final BranchDefinition branch : branches) {
@@ -70,15 +112,23 @@ public class BranchOperation extends BaseOperation {
 
         // For every branch, generate a separate pipeline
         for (var index = 0; index < predicates.size(); index++) {
-            StreamWrapper branchCursor = new KStreamWrapper(output.get(name + index), k, v);
-            for (StreamOperation operation : branches.get(index).pipeline().chain()) {
-                branchCursor = branchCursor.apply(operation, context);
-            }
-            if (branches.get(index).pipeline().sink() != null) {
-                branchCursor.apply(branches.get(index).pipeline().sink(), context);
-            }
+            applyPipeline(new KStreamWrapper(output.get(name + index), k, v, input.keyChanged), branches.get(index), context);
         }
 
         return null;
     }
+
+    private static boolean isRoutable(BranchDefinition branch) {
+        return branch.predicate() == null
+                || (!PythonFunction.hasGlobalCode(branch.predicate()) && branch.predicate().storeNames().isEmpty());
+    }
+
+    private static void applyPipeline(StreamWrapper branchCursor, BranchDefinition branch, TopologyBuildContext context) {
+        for (StreamOperation operation : branch.pipeline().chain()) {
+            branchCursor = branchCursor.apply(operation, context);
+        }
+        if (branch.pipeline().sink() != null) {
+            branchCursor.apply(branch.pipeline().sink(), context);
+        }
+    }
 }
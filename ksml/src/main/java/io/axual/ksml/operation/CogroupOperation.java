@@ -21,6 +21,7 @@ package io.axual.ksml.operation;
  */
 
 
+import io.axual.ksml.definition.AggregatorDefinition;
 import io.axual.ksml.definition.FunctionDefinition;
 import io.axual.ksml.exception.TopologyException;
 import io.axual.ksml.generator.TopologyBuildContext;
@@ -47,6 +48,8 @@ public class CogroupOperation extends BaseOperation {
          */
 
         checkNotNull(aggregator, AGGREGATOR_NAME.toLowerCase());
+        if (aggregator instanceof AggregatorDefinition definition && definition.builtin() != null)
+            throw topologyError("built-in aggregations can not be used in cogroup operations");
         final var k = input.keyType();
         final var v = input.valueType();
         final var vOut = streamDataTypeOf(aggregator.resultType(), false);
@@ -53,6 +53,6 @@ public class ConvertKeyOperation extends BaseOperation {
                 ? input.stream.selectKey(converter, Named.as(name))
                 : input.stream.selectKey(converter);
 
-        return new KStreamWrapper(output, kr, v);
+        return new KStreamWrapper(output, kr, v, true);
     }
 }
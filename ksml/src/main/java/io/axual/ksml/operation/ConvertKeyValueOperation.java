@@ -62,6 +62,6 @@ public class ConvertKeyValueOperation extends BaseOperation {
                 ? input.stream.map(converter, Named.as(name))
                 : input.stream.map(converter);
 
-        return new KStreamWrapper(output, kr, vr);
+        return new KStreamWrapper(output, kr, vr, true);
     }
 }
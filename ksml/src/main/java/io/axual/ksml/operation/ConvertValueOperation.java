@@ -53,6 +53,6 @@ public class ConvertValueOperation extends BaseOperation {
                 ? input.stream.mapValues(converter, Named.as(name))
                 : input.stream.mapValues(converter);
 
-        return new KStreamWrapper(output, k, vr);
+        return new KStreamWrapper(output, k, vr, input.keyChanged);
     }
 }
@@ -33,12 +33,16 @@ import io.axual.ksml.type.UserType;
 import org.apache.kafka.common.utils.Bytes;
 import org.apache.kafka.streams.kstream.KTable;
 import org.apache.kafka.streams.kstream.Materialized;
+import org.apache.kafka.streams.kstream.Merger;
 import org.apache.kafka.streams.kstream.Windowed;
 import org.apache.kafka.streams.state.KeyValueStore;
 import org.apache.kafka.streams.state.SessionStore;
 import org.apache.kafka.streams.state.WindowStore;
 
 public class CountOperation extends StoreOperation {
+    // Counts of panes are added up, whether they are read as DataLong from a store or as Long from Kafka Streams
+    private static final Merger<Object, Object> COUNT_MERGER = (_, count1, count2) -> new DataLong(countOf(count1) + countOf(count2));
+
     public CountOperation(StoreOperationConfig config) {
         super(config);
     }
@@ -131,6 +135,15 @@ public class CountOperation extends StoreOperation {
 
         final var k = input.keyType();
         final var vr = streamDataTypeOf(new UserType(DataLong.DATATYPE), false);
+        if (input.paneWindows != null) {
+            final var paneStore = paneStoreOf(input.paneWindows, k, vr);
+            final Materialized<Object, Long, WindowStore<Bytes, byte[]>> mat = materializedOf(context, paneStore);
+            final var named = namedOf();
+            final var panes = named != null
+                    ? input.timeWindowedKStream.count(named, mat)
+                    : input.timeWindowedKStream.count(mat);
+            return combinePanes((KTable) panes, paneStore, input.paneWindows, COUNT_MERGER, k, vr);
+        }
         final var windowStore = validateWindowStore(store(), k, vr);
         final Materialized<Object, Long, WindowStore<Bytes, byte[]>> mat = materializedOf(context, windowStore);
         final var named = namedOf();
@@ -146,4 +159,8 @@ public class CountOperation extends StoreOperation {
         }
         return new KTableWrapper((KTable) output, windowed(k), vr);
     }
+
+    private static long countOf(Object count) {
+        return count instanceof DataLong dataLong ? dataLong.value() : ((Number) count).longValue();
+    }
 }
@@ -23,16 +23,21 @@ package io.axual.ksml.operation;
 
 import io.axual.ksml.data.object.DataBoolean;
 import io.axual.ksml.definition.FunctionDefinition;
+import io.axual.ksml.generator.StreamDataType;
 import io.axual.ksml.generator.TopologyBuildContext;
 import io.axual.ksml.operation.processor.FilterNotProcessor;
 import io.axual.ksml.operation.processor.FixedKeyOperationProcessorSupplier;
+import io.axual.ksml.python.PythonFunctionChain;
 import io.axual.ksml.stream.KStreamWrapper;
 import io.axual.ksml.stream.KTableWrapper;
 import io.axual.ksml.stream.StreamWrapper;
 import io.axual.ksml.user.UserPredicate;
 import org.apache.kafka.streams.kstream.KTable;
 
-public class FilterNotOperation extends StoreOperation {
+import java.util.Collections;
+import java.util.List;
+
+public class FilterNotOperation extends StoreOperation implements FusibleOperation {
     private static final String PREDICATE_NAME = "Predicate";
     private final FunctionDefinition predicate;
 
@@ -63,7 +68,24 @@ public class FilterNotOperation extends StoreOperation {
         final var output = named != null
                 ? input.stream.processValues(supplier, named, storeNames)
                 : input.stream.processValues(supplier, storeNames);
-        return new KStreamWrapper(output, k, v);
+        return new KStreamWrapper(output, k, v, input.keyChanged);
+    }
+
+    @Override
+    public boolean isFusible() {
+        // Operations that materialize their result in a state store need their own processor
+        return store() == null;
+    }
+
+    @Override
+    public FusedStep fuse(StreamDataType k, StreamDataType v, TopologyBuildContext context) {
+        checkNotNull(predicate, PREDICATE_NAME.toLowerCase());
+        final var definition = checkedFunctionOf(PREDICATE_NAME, predicate, DataBoolean.DATATYPE, superOf(k.flatten()), superOf(v.flatten()));
+        final var pred = context.createUserFunction(definition);
+        final var userPred = new UserPredicate(pred, tags);
+        return new FusedStep(k, v, predicate.storeNames(), false,
+                (stores, entry) -> !userPred.test(stores, flattenValue(entry.key), flattenValue(entry.value)),
+                PythonFunctionChain.stepOf(PythonFunctionChain.StepType.FILTER_NOT, definition, pred, userPred));
     }
 
     @Override
@@ -94,4 +116,14 @@ public class FilterNotOperation extends StoreOperation {
         }
         return new KTableWrapper(output, k, v);
     }
+
+    @Override
+    public List<FunctionDefinition> valueFunctions() {
+        return Collections.singletonList(predicate);
+    }
+
+    @Override
+    public boolean forwardsValue() {
+        return true;
+    }
 }
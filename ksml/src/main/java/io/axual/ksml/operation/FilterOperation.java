@@ -23,9 +23,11 @@ package io.axual.ksml.operation;
 
 import io.axual.ksml.data.object.DataBoolean;
 import io.axual.ksml.definition.FunctionDefinition;
+import io.axual.ksml.generator.StreamDataType;
 import io.axual.ksml.generator.TopologyBuildContext;
 import io.axual.ksml.operation.processor.FilterProcessor;
 import io.axual.ksml.operation.processor.FixedKeyOperationProcessorSupplier;
+import io.axual.ksml.python.PythonFunctionChain;
 import io.axual.ksml.stream.KStreamWrapper;
 import io.axual.ksml.stream.KTableWrapper;
 import io.axual.ksml.stream.StreamWrapper;
@@ -33,7 +35,10 @@ import io.axual.ksml.user.UserPredicate;
 import org.apache.kafka.streams.kstream.KTable;
 import org.apache.kafka.streams.kstream.Named;
 
-public class FilterOperation extends StoreOperation {
+import java.util.Collections;
+import java.util.List;
+
+public class FilterOperation extends StoreOperation implements FusibleOperation {
     private static final String PREDICATE_NAME = "Predicate";
     private final FunctionDefinition predicate;
 
@@ -63,7 +68,24 @@ public class FilterOperation extends StoreOperation {
         final var output = name != null
                 ? input.stream.processValues(supplier, Named.as(name), storeNames)
                 : input.stream.processValues(supplier, storeNames);
-        return new KStreamWrapper(output, k, v);
+        return new KStreamWrapper(output, k, v, input.keyChanged);
+    }
+
+    @Override
+    public boolean isFusible() {
+        // Operations that materialize their result in a state store need their own processor
+        return store() == null;
+    }
+
+    @Override
+    public FusedStep fuse(StreamDataType k, StreamDataType v, TopologyBuildContext context) {
+        checkNotNull(predicate, PREDICATE_NAME.toLowerCase());
+        final var definition = checkedFunctionOf(PREDICATE_NAME, predicate, DataBoolean.DATATYPE, superOf(k.flatten()), superOf(v.flatten()));
+        final var pred = context.createUserFunction(definition);
+        final var userPred = new UserPredicate(pred, tags);
+        return new FusedStep(k, v, predicate.storeNames(), false,
+                (stores, entry) -> userPred.test(stores, flattenValue(entry.key), flattenValue(entry.value)),
+                PythonFunctionChain.stepOf(PythonFunctionChain.StepType.FILTER, definition, pred, userPred));
     }
 
     @Override
@@ -93,4 +115,14 @@ public class FilterOperation extends StoreOperation {
         }
         return new KTableWrapper(output, k, v);
     }
+
+    @Override
+    public List<FunctionDefinition> valueFunctions() {
+        return Collections.singletonList(predicate);
+    }
+
+    @Override
+    public boolean forwardsValue() {
+        return true;
+    }
 }
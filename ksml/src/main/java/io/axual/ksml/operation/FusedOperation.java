@@ -0,0 +1,188 @@
+package io.axual.ksml.operation;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.definition.FunctionDefinition;
+import io.axual.ksml.generator.TopologyBuildContext;
+import io.axual.ksml.operation.processor.FixedKeyOperationProcessorSupplier;
+import io.axual.ksml.operation.processor.FusedFixedKeyProcessor;
+import io.axual.ksml.operation.processor.FusedProcessor;
+import io.axual.ksml.operation.processor.FusedStepAction;
+import io.axual.ksml.operation.processor.OperationProcessorSupplier;
+import io.axual.ksml.stream.KStreamWrapper;
+import io.axual.ksml.stream.KTableWrapper;
+import io.axual.ksml.stream.StreamWrapper;
+import lombok.Getter;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.Named;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Runs a series of consecutive stateless operations on a KStream in a single Kafka Streams processor,
+ * instead of one processor per operation. Records are passed from step to step without being
+ * forwarded through the topology in between.
+ * <p>
+ * Consecutive operations whose functions run in Python are called together in a single Python call,
+ * see {@link io.axual.ksml.python.PythonFunctionChain}. Every function still reports its own execution
+ * time and errors name the function that failed. Functions evaluated natively in Java are called one
+ * by one. The processor is named after the first operation in the series. When applied to a KTable,
+ * the operations are applied one by one as if they were not fused.
+ */
+@Getter
+public class FusedOperation implements ProjectableOperation {
+    private final List<FusibleOperation> operations;
+    private final String name;
+
+    public FusedOperation(List<FusibleOperation> operations) {
+        this.operations = List.copyOf(operations);
+        this.name = operations.getFirst() instanceof BaseOperation first ? first.name : null;
+    }
+
+    /**
+     * Replaces every run of two or more consecutive fusible operations in a pipeline by a single
+     * {@link FusedOperation}.
+     *
+     * @param chain the operations of a pipeline
+     * @return the operations with fusible runs replaced
+     */
+    public static List<StreamOperation> fuse(List<StreamOperation> chain) {
+        final var result = new ArrayList<StreamOperation>(chain.size());
+        final var run = new ArrayList<FusibleOperation>();
+        for (final var operation : chain) {
+            if (operation instanceof FusibleOperation fusible && fusible.isFusible()) {
+                run.add(fusible);
+            } else {
+                flush(run, result);
+                result.add(operation);
+            }
+        }
+        flush(run, result);
+        return result;
+    }
+
+    private static void flush(List<FusibleOperation> run, List<StreamOperation> result) {
+        if (run.size() > 1) {
+            result.add(new FusedOperation(run));
+        } else {
+            result.addAll(run);
+        }
+        run.clear();
+    }
+
+    @Override
+    public StreamWrapper apply(KStreamWrapper input, TopologyBuildContext context) {
+        var k = input.keyType();
+        var v = input.valueType();
+        final var fusedSteps = new ArrayList<FusedStep>(operations.size());
+        final var storeNameSet = new LinkedHashSet<String>();
+        var changesKey = false;
+        for (final var operation : operations) {
+            final var step = operation.fuse(k, v, context);
+            fusedSteps.add(step);
+            storeNameSet.addAll(step.storeNames());
+            changesKey |= step.changesKey();
+            k = step.keyType();
+            v = step.valueType();
+        }
+
+        final var steps = chainPythonSteps(fusedSteps, context);
+        final var storeNames = storeNameSet.toArray(String[]::new);
+        final var named = name != null ? Named.as(name) : null;
+        final KStream<Object, Object> output;
+        if (changesKey) {
+            final var supplier = new OperationProcessorSupplier<>(name, FusedProcessor::new, steps, storeNames);
+            output = named != null
+                    ? input.stream.process(supplier, named, storeNames)
+                    : input.stream.process(supplier, storeNames);
+        } else {
+            final var supplier = new FixedKeyOperationProcessorSupplier<>(name, FusedFixedKeyProcessor::new, steps, storeNames);
+            output = named != null
+                    ? input.stream.processValues(supplier, named, storeNames)
+                    : input.stream.processValues(supplier, storeNames);
+        }
+        return new KStreamWrapper(output, k, v, input.keyChanged || changesKey);
+    }
+
+    // Replaces every run of two or more steps that call Python functions by a single step that calls all of
+    // them in one Python call
+    private static FusedStepAction[] chainPythonSteps(List<FusedStep> steps, TopologyBuildContext context) {
+        final var result = new ArrayList<FusedStepAction>(steps.size());
+        var start = 0;
+        while (start < steps.size()) {
+            var end = start;
+            while (end < steps.size() && steps.get(end).chainStep() != null) end++;
+            if (end - start > 1) {
+                final var run = steps.subList(start, end);
+                final var last = run.getLast();
+                final var chain = context.createFunctionChain(
+                        run.stream().map(FusedStep::chainStep).toList(),
+                        last.keyType().userType(),
+                        last.valueType().userType());
+                result.add((stores, entry) -> {
+                    final var kv = chain.apply(stores, entry.key, entry.value);
+                    if (kv == null) return false;
+                    entry.key = kv.key;
+                    entry.value = kv.value;
+                    return true;
+                });
+                start = end;
+            } else {
+                result.add(steps.get(start).action());
+                start++;
+            }
+        }
+        return result.toArray(FusedStepAction[]::new);
+    }
+
+    @Override
+    public StreamWrapper apply(KTableWrapper input, TopologyBuildContext context) {
+        StreamWrapper cursor = input;
+        for (final var operation : operations) {
+            cursor = cursor.apply(operation, context);
+        }
+        return cursor;
+    }
+
+    @Override
+    public List<FunctionDefinition> valueFunctions() {
+        final var result = new ArrayList<FunctionDefinition>();
+        for (final var operation : operations) {
+            result.addAll(operation.valueFunctions());
+            // Operations after this one receive the replaced value
+            if (!operation.forwardsValue()) break;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean forwardsValue() {
+        return operations.stream().allMatch(ProjectableOperation::forwardsValue);
+    }
+
+    @Override
+    public String toString() {
+        return "Fused operation [" + operations.stream().map(Object::toString).collect(Collectors.joining(", ")) + "]";
+    }
+}
@@ -0,0 +1,46 @@
+package io.axual.ksml.operation;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.generator.StreamDataType;
+import io.axual.ksml.operation.processor.FusedStepAction;
+import io.axual.ksml.python.PythonFunctionChain;
+
+import java.util.List;
+
+/**
+ * The step a {@link FusibleOperation} performs on every record, with the key and value types it produces.
+ *
+ * @param keyType    the key type of the records after this step
+ * @param valueType  the value type of the records after this step
+ * @param storeNames the state stores the step uses
+ * @param changesKey whether the step can change the record key
+ * @param action     the step itself
+ * @param chainStep  the step as part of a single Python call with its neighbours, or {@code null} if it can not be
+ *                   chained
+ */
+public record FusedStep(StreamDataType keyType, StreamDataType valueType, List<String> storeNames, boolean changesKey,
+                        FusedStepAction action, PythonFunctionChain.Step chainStep) {
+    public FusedStep(StreamDataType keyType, StreamDataType valueType, List<String> storeNames, boolean changesKey,
+                     FusedStepAction action) {
+        this(keyType, valueType, storeNames, changesKey, action, null);
+    }
+}
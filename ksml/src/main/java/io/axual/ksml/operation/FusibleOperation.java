@@ -0,0 +1,48 @@
+package io.axual.ksml.operation;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.generator.StreamDataType;
+import io.axual.ksml.generator.TopologyBuildContext;
+
+/**
+ * A stateless operation on a KStream that can run together with neighbouring fusible operations in a
+ * single Kafka Streams processor. See {@link FusedOperation}.
+ */
+public interface FusibleOperation extends ProjectableOperation {
+    /**
+     * Returns whether this operation can be fused. Operations that materialize their result in a
+     * state store can not.
+     */
+    default boolean isFusible() {
+        return true;
+    }
+
+    /**
+     * Creates the step that this operation performs on every record of a stream.
+     *
+     * @param keyType   the key type of the stream
+     * @param valueType the value type of the stream
+     * @param context   the topology build context
+     * @return the step, including the key and value types of its output
+     */
+    FusedStep fuse(StreamDataType keyType, StreamDataType valueType, TopologyBuildContext context);
+}
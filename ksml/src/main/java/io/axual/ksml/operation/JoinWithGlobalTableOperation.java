@@ -23,22 +23,33 @@ package io.axual.ksml.operation;
 import io.axual.ksml.definition.FunctionDefinition;
 import io.axual.ksml.definition.GlobalTableDefinition;
 import io.axual.ksml.generator.TopologyBuildContext;
+import io.axual.ksml.operation.processor.GlobalTableJoinProcessor;
 import io.axual.ksml.stream.KStreamWrapper;
 import io.axual.ksml.stream.StreamWrapper;
+import io.axual.ksml.user.DeclarativeKeyValueMapper;
 import io.axual.ksml.user.UserKeyTransformer;
 import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.KeyValueMapper;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorSupplier;
 
 public class JoinWithGlobalTableOperation extends BaseOperation {
     private static final String KEYSELECTOR_NAME = "Mapper";
     private static final String VALUEJOINER_NAME = "ValueJoiner";
     private final GlobalTableDefinition joinGlobalTable;
     private final FunctionDefinition keySelector;
+    // The path of the value field that holds the key to look up, used instead of the key selector function
+    private final String keyField;
     private final FunctionDefinition valueJoiner;
 
     public JoinWithGlobalTableOperation(OperationConfig config, GlobalTableDefinition joinGlobalTable, FunctionDefinition keySelector, FunctionDefinition valueJoiner) {
+        this(config, joinGlobalTable, keySelector, null, valueJoiner);
+    }
+
+    public JoinWithGlobalTableOperation(OperationConfig config, GlobalTableDefinition joinGlobalTable, FunctionDefinition keySelector, String keyField, FunctionDefinition valueJoiner) {
         super(config);
         this.joinGlobalTable = joinGlobalTable;
         this.keySelector = keySelector;
+        this.keyField = keyField;
         this.valueJoiner = valueJoiner;
     }
 
@@ -56,19 +67,30 @@ public class JoinWithGlobalTableOperation extends BaseOperation {
         final var k = input.keyType();
         final var v = input.valueType();
         final var otherGlobalKTable = context.getStreamWrapper(joinGlobalTable);
-        checkNotNull(keySelector, KEYSELECTOR_NAME.toLowerCase());
+        if (keyField == null) checkNotNull(keySelector, KEYSELECTOR_NAME.toLowerCase());
         final var gk = otherGlobalKTable.keyType();
         final var gv = otherGlobalKTable.valueType();
         final var rv = streamDataTypeOf(firstSpecificType(valueJoiner, gv, v), false);
         checkType("Join globalKTable keyType", gk, equalTo(k));
-        final var sel = userFunctionOf(context, KEYSELECTOR_NAME, keySelector, gk, superOf(k), superOf(v));
+        final KeyValueMapper<Object, Object, Object> userSel = keyField != null
+                ? new DeclarativeKeyValueMapper(keyField, gk.userType())
+                : new UserKeyTransformer(userFunctionOf(context, KEYSELECTOR_NAME, keySelector, gk, superOf(k), superOf(v)), tags);
         final var joiner = userFunctionOf(context, VALUEJOINER_NAME, valueJoiner, rv, superOf(k), superOf(v), superOf(gv));
-        final var userSel = new UserKeyTransformer(sel, tags);
         final var userJoiner = valueJoinerWithKey(joiner, tags);
         final var named = namedOf();
+        if (otherGlobalKTable.nearCache != null) {
+            // Look up values through the near-cache of the global table, instead of through Kafka Streams
+            final var storeName = otherGlobalKTable.globalTable.queryableStoreName();
+            final var nearCache = otherGlobalKTable.nearCache;
+            final FixedKeyProcessorSupplier<Object, Object, Object> supplier = () -> new GlobalTableJoinProcessor(name, storeName, userSel, userJoiner, false, nearCache);
+            final KStream<Object, Object> output = named != null
+                    ? input.stream.processValues(supplier, named)
+                    : input.stream.processValues(supplier);
+            return new KStreamWrapper(output, k, rv, input.keyChanged);
+        }
         final KStream<Object, Object> output = named != null
                 ? input.stream.join(otherGlobalKTable.globalTable, userSel, userJoiner, named)
                 : input.stream.join(otherGlobalKTable.globalTable, userSel, userJoiner);
-        return new KStreamWrapper(output, k, rv);
+        return new KStreamWrapper(output, k, rv, input.keyChanged);
     }
 }
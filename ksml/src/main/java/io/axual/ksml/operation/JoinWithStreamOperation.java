@@ -25,6 +25,7 @@ import io.axual.ksml.definition.StreamDefinition;
 import io.axual.ksml.generator.TopologyBuildContext;
 import io.axual.ksml.stream.KStreamWrapper;
 import io.axual.ksml.stream.StreamWrapper;
+import lombok.Getter;
 import org.apache.kafka.streams.kstream.JoinWindows;
 import org.apache.kafka.streams.kstream.KStream;
 
@@ -32,6 +33,7 @@ import java.time.Duration;
 
 public class JoinWithStreamOperation extends DualStoreOperation {
     private static final String VALUEJOINER_NAME = "ValueJoiner";
+    @Getter
     private final StreamDefinition joinStream;
     private final FunctionDefinition valueJoiner;
     private final JoinWindows joinWindows;
@@ -25,8 +25,10 @@ import io.axual.ksml.definition.StreamDefinition;
 import io.axual.ksml.generator.TopologyBuildContext;
 import io.axual.ksml.stream.KStreamWrapper;
 import io.axual.ksml.stream.StreamWrapper;
+import lombok.Getter;
 
 public class MergeOperation extends BaseOperation {
+    @Getter
     private final StreamDefinition mergeStream;
 
     public MergeOperation(OperationConfig config, StreamDefinition mergeStream) {
@@ -51,6 +53,6 @@ public class MergeOperation extends BaseOperation {
         final var output = named != null
                 ? input.stream.merge(otherStream.stream, named)
                 : input.stream.merge(otherStream.stream);
-        return new KStreamWrapper(output, k, v);
+        return new KStreamWrapper(output, k, v, input.keyChanged || otherStream.keyChanged);
     }
 }
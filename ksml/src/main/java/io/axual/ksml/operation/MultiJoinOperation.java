@@ -0,0 +1,116 @@
+package io.axual.ksml.operation;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.type.StructType;
+import io.axual.ksml.definition.FunctionDefinition;
+import io.axual.ksml.definition.GlobalTableDefinition;
+import io.axual.ksml.definition.MultiJoinLookupDefinition;
+import io.axual.ksml.definition.TableDefinition;
+import io.axual.ksml.generator.TopologyBuildContext;
+import io.axual.ksml.operation.processor.MultiJoinProcessor;
+import io.axual.ksml.stream.KStreamWrapper;
+import io.axual.ksml.stream.StreamWrapper;
+import io.axual.ksml.user.UserKeyTransformer;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorSupplier;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Joins a stream with several tables and global tables in a single processor. Tables are looked up by the record
+ * key and must be co-partitioned with the stream, global tables are looked up by the record key or by the result
+ * of a mapper function.
+ * <p>
+ * Unlike the joins of Kafka Streams, the processor does not repartition the stream or check that the stream and
+ * tables have the same number of partitions. Tables can therefore not be looked up after the key of the stream was
+ * changed. Such streams must be repartitioned to the number of partitions of the tables first.
+ */
+public class MultiJoinOperation extends BaseOperation {
+    private static final String MAPPER_NAME = "Mapper";
+    private static final String VALUEJOINER_NAME = "ValueJoiner";
+    private final List<MultiJoinLookupDefinition> lookups;
+    private final FunctionDefinition valueJoiner;
+
+    public MultiJoinOperation(OperationConfig config, List<MultiJoinLookupDefinition> lookups, FunctionDefinition valueJoiner) {
+        super(config);
+        this.lookups = lookups;
+        this.valueJoiner = valueJoiner;
+    }
+
+    @Override
+    public StreamWrapper apply(KStreamWrapper input, TopologyBuildContext context) {
+        /*    Kafka Streams method signature:
+         *     <VOut> KStream<K, VOut> processValues(
+         *          final FixedKeyProcessorSupplier<? super K, ? super V, VOut> processorSupplier,
+         *          final Named named,
+         *          final String... stateStoreNames
+         */
+
+        if (lookups == null || lookups.isEmpty()) throw topologyError("multiJoin requires at least one lookup");
+        final var k = input.keyType();
+        final var v = input.valueType();
+        final var processorLookups = new MultiJoinProcessor.Lookup[lookups.size()];
+        // Only the stores of tables are connected, global stores are available to every processor
+        final var tableStoreNames = new ArrayList<String>();
+        for (int index = 0; index < lookups.size(); index++) {
+            final var lookup = lookups.get(index);
+            final String storeName;
+            UserKeyTransformer keySelector = null;
+            if (lookup.target() instanceof TableDefinition tableDefinition) {
+                if (input.keyChanged)
+                    throw topologyError("multiJoin can not look up table " + lookup.field() + " after the stream key was changed, repartition the stream to the number of partitions of the table first");
+                final var table = context.getStreamWrapper(tableDefinition);
+                checkType("Join table keyType", table.keyType(), equalTo(k));
+                storeName = table.table.queryableStoreName();
+                if (storeName != null) tableStoreNames.add(storeName);
+            } else if (lookup.target() instanceof GlobalTableDefinition globalTableDefinition) {
+                final var globalTable = context.getStreamWrapper(globalTableDefinition);
+                if (lookup.mapper() != null) {
+                    final var sel = userFunctionOf(context, MAPPER_NAME, lookup.mapper(), globalTable.keyType(), superOf(k), superOf(v));
+                    keySelector = new UserKeyTransformer(sel, tags);
+                } else {
+                    checkType("Join globalKTable keyType", globalTable.keyType(), equalTo(k));
+                }
+                storeName = globalTable.globalTable.queryableStoreName();
+            } else {
+                throw topologyError("multiJoin lookup " + lookup.field() + " does not refer to a table or globalTable");
+            }
+            if (storeName == null) throw topologyError("multiJoin lookup " + lookup.field() + " refers to a table without state store");
+            processorLookups[index] = new MultiJoinProcessor.Lookup(storeName, lookup.field(), keySelector, lookup.left());
+        }
+
+        final var lookupsType = new StructType();
+        final var vr = valueJoiner != null
+                ? streamDataTypeOf(firstSpecificType(valueJoiner, v), false)
+                : streamDataTypeOf(lookupsType, false);
+        final var joiner = userFunctionOf(context, VALUEJOINER_NAME, valueJoiner, vr, superOf(k), superOf(v), superOf(lookupsType));
+        final var userJoiner = joiner != null ? valueJoinerWithKey(joiner, tags) : null;
+        final var storeNames = tableStoreNames.toArray(String[]::new);
+        final FixedKeyProcessorSupplier<Object, Object, Object> supplier = () -> new MultiJoinProcessor(name, processorLookups, userJoiner);
+        final var named = namedOf();
+        final KStream<Object, Object> output = named != null
+                ? input.stream.processValues(supplier, named, storeNames)
+                : input.stream.processValues(supplier, storeNames);
+        return new KStreamWrapper(output, k, vr, input.keyChanged);
+    }
+}
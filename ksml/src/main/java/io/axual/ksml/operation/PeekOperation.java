@@ -23,15 +23,20 @@ package io.axual.ksml.operation;
 
 import io.axual.ksml.data.object.DataNull;
 import io.axual.ksml.definition.FunctionDefinition;
+import io.axual.ksml.generator.StreamDataType;
 import io.axual.ksml.generator.TopologyBuildContext;
 import io.axual.ksml.operation.processor.FixedKeyOperationProcessorSupplier;
 import io.axual.ksml.operation.processor.PeekProcessor;
+import io.axual.ksml.python.PythonFunctionChain;
 import io.axual.ksml.stream.KStreamWrapper;
 import io.axual.ksml.stream.StreamWrapper;
 import io.axual.ksml.user.UserForeachAction;
 import org.apache.kafka.streams.kstream.Named;
 
-public class PeekOperation extends BaseOperation {
+import java.util.Collections;
+import java.util.List;
+
+public class PeekOperation extends BaseOperation implements FusibleOperation {
     private static final String FOREACHACTION_NAME = "ForEachAction";
     private final FunctionDefinition forEachAction;
 
@@ -55,6 +60,28 @@ public class PeekOperation extends BaseOperation {
         final var output = name != null
                 ? input.stream.processValues(supplier, Named.as(name), storeNames)
                 : input.stream.processValues(supplier, storeNames);
-        return new KStreamWrapper(output, k, v);
+        return new KStreamWrapper(output, k, v, input.keyChanged);
+    }
+
+    @Override
+    public FusedStep fuse(StreamDataType k, StreamDataType v, TopologyBuildContext context) {
+        checkNotNull(forEachAction, FOREACHACTION_NAME.toLowerCase());
+        final var definition = checkedFunctionOf(FOREACHACTION_NAME, forEachAction, DataNull.DATATYPE, superOf(k.flatten()), superOf(v.flatten()));
+        final var action = context.createUserFunction(definition);
+        final var userAction = new UserForeachAction(action, tags);
+        return new FusedStep(k, v, forEachAction.storeNames(), false, (stores, entry) -> {
+            userAction.apply(stores, flattenValue(entry.key), flattenValue(entry.value));
+            return true;
+        }, PythonFunctionChain.stepOf(PythonFunctionChain.StepType.PEEK, definition, action, userAction));
+    }
+
+    @Override
+    public List<FunctionDefinition> valueFunctions() {
+        return Collections.singletonList(forEachAction);
+    }
+
+    @Override
+    public boolean forwardsValue() {
+        return true;
     }
 }
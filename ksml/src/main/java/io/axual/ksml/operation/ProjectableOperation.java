@@ -0,0 +1,43 @@
+package io.axual.ksml.operation;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.definition.FunctionDefinition;
+
+import java.util.List;
+
+/**
+ * An operation on a stream that passes the record value only into its own user functions. The
+ * topology generator uses this to find out which value fields a pipeline reads, so its source stream
+ * can be deserialized with only those fields.
+ */
+public interface ProjectableOperation extends StreamOperation {
+    /**
+     * Returns the user functions that receive the record value, as their second parameter.
+     */
+    List<FunctionDefinition> valueFunctions();
+
+    /**
+     * Returns whether the record value is passed on unchanged to the next operation. Operations that
+     * replace the value return {@code false}.
+     */
+    boolean forwardsValue();
+}
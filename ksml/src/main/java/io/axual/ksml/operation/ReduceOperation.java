@@ -147,6 +147,16 @@ public class ReduceOperation extends StoreOperation {
         final var v = input.valueType();
         final var red = userFunctionOf(context, REDUCER_NAME, reducer, v, equalTo(v), equalTo(v));
         final var userRed = new UserReducer(red, tags);
+        if (input.paneWindows != null) {
+            // The reducer combines reduced panes the same way it combines records
+            final var paneStore = paneStoreOf(input.paneWindows, k, v);
+            final var mat = materializedOf(context, paneStore);
+            final var named = namedOf();
+            final var panes = named != null
+                    ? input.timeWindowedKStream.reduce(userRed, named, mat)
+                    : input.timeWindowedKStream.reduce(userRed, mat);
+            return combinePanes(panes, paneStore, input.paneWindows, (_, value1, value2) -> userRed.apply(value1, value2), k, v);
+        }
         final var windowStore = validateWindowStore(store(), k, v);
         final var mat = materializedOf(context, windowStore);
         final var named = namedOf();
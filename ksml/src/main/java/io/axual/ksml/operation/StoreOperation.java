@@ -22,10 +22,33 @@ package io.axual.ksml.operation;
 
 
 import io.axual.ksml.definition.StateStoreDefinition;
+import io.axual.ksml.definition.WindowStateStoreDefinition;
+import io.axual.ksml.generator.StreamDataType;
+import io.axual.ksml.operation.processor.PaneWindowProcessor;
+import io.axual.ksml.stream.KTableWrapper;
+import io.axual.ksml.stream.PaneWindows;
+import io.axual.ksml.stream.StreamWrapper;
 import lombok.Getter;
+import org.apache.kafka.streams.kstream.KTable;
+import org.apache.kafka.streams.kstream.Materialized;
+import org.apache.kafka.streams.kstream.Merger;
+import org.apache.kafka.streams.kstream.Named;
+import org.apache.kafka.streams.kstream.Windowed;
+import org.apache.kafka.streams.kstream.WindowedSerdes;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorSupplier;
+import org.apache.kafka.streams.state.StoreBuilder;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Set;
 
 @Getter
 public class StoreOperation extends BaseOperation {
+    private static final String PANE_STORE_SUFFIX = "-panes";
+    private static final String PROGRESS_STORE_SUFFIX = "-progress";
+    private static final String COMBINE_SUFFIX = "-combine";
+    private static final String TABLE_SUFFIX = "-table";
     private final StateStoreDefinition store;
 
     public StoreOperation(StoreOperationConfig config) {
@@ -33,6 +56,57 @@ public class StoreOperation extends BaseOperation {
         this.store = config.store;
     }
 
+    /**
+     * Returns the window store that holds the panes of a pane-windowed aggregation. The settings of the store of the
+     * operation are used where they apply, while the window size and retention follow from the panes.
+     */
+    protected WindowStateStoreDefinition paneStoreOf(PaneWindows windows, StreamDataType keyType, StreamDataType valueType) {
+        final var windowStore = validateWindowStore(store, keyType, valueType);
+        if (name == null && (windowStore == null || windowStore.name() == null))
+            throw topologyError("Pane-windowed aggregations require a valid operation name or store name");
+        final var storeName = windowStore != null && windowStore.name() != null ? windowStore.name() : name + PANE_STORE_SUFFIX;
+        // Panes are kept longer than the windows they are part of, so windows can still be emitted after a stream time jump
+        final var retention = Duration.ofMillis(2 * windows.size() + windows.grace());
+        return new WindowStateStoreDefinition(
+                storeName,
+                windowStore == null || windowStore.persistent(),
+                true,
+                retention,
+                Duration.ofMillis(windows.paneSize()),
+                false,
+                keyType.userType(),
+                valueType.userType(),
+                false,
+                windowStore == null || windowStore.logging(),
+                windowStore != null ? windowStore.objectCacheSize() : null,
+                windowStore != null ? windowStore.rocksDb() : null);
+    }
+
+    /**
+     * Combines the panes of a pane-windowed aggregation into a table with the final results of the hopping windows.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    protected StreamWrapper combinePanes(KTable<Windowed<Object>, Object> panes, WindowStateStoreDefinition paneStore, PaneWindows windows, Merger<Object, Object> merger, StreamDataType keyType, StreamDataType valueType) {
+        final var progressStoreName = paneStore.name() + PROGRESS_STORE_SUFFIX;
+        final var supplier = new ProcessorSupplier<Windowed<Object>, Object, Windowed<Object>, Object>() {
+            @Override
+            public Processor<Windowed<Object>, Object, Windowed<Object>, Object> get() {
+                return new PaneWindowProcessor(String.valueOf(name), paneStore.name(), progressStoreName, windows, merger);
+            }
+
+            @Override
+            public Set<StoreBuilder<?>> stores() {
+                return Collections.singleton(PaneWindowProcessor.progressStoreBuilder(progressStoreName));
+            }
+        };
+        final var combineName = (name != null ? name : paneStore.name()) + COMBINE_SUFFIX;
+        final var windowedSerde = new WindowedSerdes.TimeWindowedSerde<>(keyType.serde(), windows.size());
+        final var output = panes.toStream()
+                .process(supplier, Named.as(combineName), paneStore.name())
+                .toTable(Named.as(combineName + TABLE_SUFFIX), Materialized.with(windowedSerde, valueType.internalSerde(0)));
+        return new KTableWrapper((KTable) output, windowed(keyType), valueType);
+    }
+
     @Override
     public String toString() {
         return super.toString() + (store != null && store.name() != null ? " [storeName=\"" + store.name() + "\"]" : "");
@@ -25,12 +25,20 @@ import io.axual.ksml.data.object.DataInteger;
 import io.axual.ksml.data.object.DataString;
 import io.axual.ksml.data.type.StructType;
 import io.axual.ksml.definition.FunctionDefinition;
+import io.axual.ksml.definition.TopicNameExtractorDefinition;
+import io.axual.ksml.expression.FieldReferenceScanner;
+import io.axual.ksml.generator.StreamDataType;
 import io.axual.ksml.generator.TopologyBuildContext;
 import io.axual.ksml.stream.KStreamWrapper;
 import io.axual.ksml.stream.StreamWrapper;
 import io.axual.ksml.type.UserType;
+import io.axual.ksml.user.DeclarativeTopicNameExtractor;
 import io.axual.ksml.user.UserStreamPartitioner;
 import io.axual.ksml.user.UserTopicNameExtractor;
+import org.apache.kafka.streams.processor.TopicNameExtractor;
+
+import java.util.Set;
+import java.util.TreeSet;
 
 import static io.axual.ksml.dsl.RecordContextSchema.RECORD_CONTEXT_SCHEMA;
 
@@ -56,10 +64,7 @@ public class ToTopicNameExtractorOperation extends BaseOperation {
 
         final var k = input.keyType();
         final var v = input.valueType();
-        final var topicNameType = new UserType(DataString.DATATYPE);
-        final var recordContextType = new UserType(new StructType(RECORD_CONTEXT_SCHEMA));
-        final var extract = userFunctionOf(context, TOPIC_NAME_EXTRACTOR_NAME, topicNameExtractor, topicNameType, superOf(k), superOf(v), superOf(recordContextType));
-        final var userExtract = new UserTopicNameExtractor(extract, tags);
+        final var userExtract = topicNameExtractorOf(context, k, v);
         final var part = userFunctionOf(context, PARTITIONER_NAME, partitioner, UserStreamPartitioner.EXPECTED_RESULT_TYPE, equalTo(DataString.DATATYPE), superOf(k), superOf(v), equalTo(DataInteger.DATATYPE));
         final var userPart = part != null ? new UserStreamPartitioner(part, tags) : null;
         final var produced = producedOf(k, v, userPart);
@@ -69,4 +74,28 @@ public class ToTopicNameExtractorOperation extends BaseOperation {
             input.stream.to(userExtract);
         return null;
     }
+
+    private TopicNameExtractor<Object, Object> topicNameExtractorOf(TopologyBuildContext context, StreamDataType k, StreamDataType v) {
+        // Declarative routing tables are looked up directly, without calling a function
+        if (topicNameExtractor instanceof TopicNameExtractorDefinition definition && definition.route() != null)
+            return new DeclarativeTopicNameExtractor(definition.route(), tags);
+        final var topicNameType = new UserType(DataString.DATATYPE);
+        final var recordContextType = new UserType(new StructType(RECORD_CONTEXT_SCHEMA));
+        final var extract = userFunctionOf(context, TOPIC_NAME_EXTRACTOR_NAME, topicNameExtractor, topicNameType, superOf(k), superOf(v), superOf(recordContextType));
+        final var pure = topicNameExtractor instanceof TopicNameExtractorDefinition definition && definition.pure();
+        return new UserTopicNameExtractor(extract, tags, fieldsRead(topicNameExtractor, 0), fieldsRead(topicNameExtractor, 1), pure);
+    }
+
+    // Returns the fields of a parameter that the function reads, or null when it may use the parameter as a whole
+    private static Set<String> fieldsRead(FunctionDefinition function, int parameterIndex) {
+        if (function.parameters() == null || function.parameters().length <= parameterIndex) return null;
+        final var parameterName = function.parameters()[parameterIndex].name();
+        final var result = new TreeSet<String>();
+        for (final var source : new String[][]{function.code(), function.expression()}) {
+            final var fields = FieldReferenceScanner.scan(parameterName, source != null ? String.join("\n", source) : null);
+            if (fields == null) return null;
+            result.addAll(fields);
+        }
+        return result;
+    }
 }
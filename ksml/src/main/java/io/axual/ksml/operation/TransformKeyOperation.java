@@ -30,7 +30,10 @@ import io.axual.ksml.stream.StreamWrapper;
 import io.axual.ksml.user.UserKeyTransformer;
 import org.apache.kafka.streams.kstream.KStream;
 
-public class TransformKeyOperation extends BaseOperation {
+import java.util.Collections;
+import java.util.List;
+
+public class TransformKeyOperation extends BaseOperation implements ProjectableOperation {
     private static final String MAPPER_NAME = "Mapper";
     private final FunctionDefinition mapper;
 
@@ -63,6 +66,16 @@ public class TransformKeyOperation extends BaseOperation {
         final KStream<Object, Object> output = named != null
                 ? input.stream.process(supplier, named, storeNames)
                 : input.stream.process(supplier, storeNames);
-        return new KStreamWrapper(output, kr, v);
+        return new KStreamWrapper(output, kr, v, true);
+    }
+
+    @Override
+    public List<FunctionDefinition> valueFunctions() {
+        return Collections.singletonList(mapper);
+    }
+
+    @Override
+    public boolean forwardsValue() {
+        return true;
     }
 }
@@ -24,9 +24,11 @@ package io.axual.ksml.operation;
 import io.axual.ksml.data.type.DataType;
 import io.axual.ksml.definition.FunctionDefinition;
 import io.axual.ksml.exception.ExecutionException;
+import io.axual.ksml.generator.StreamDataType;
 import io.axual.ksml.generator.TopologyBuildContext;
 import io.axual.ksml.operation.processor.OperationProcessorSupplier;
 import io.axual.ksml.operation.processor.TransformKeyValueProcessor;
+import io.axual.ksml.python.PythonFunctionChain;
 import io.axual.ksml.stream.BaseStreamWrapper;
 import io.axual.ksml.stream.KStreamWrapper;
 import io.axual.ksml.type.UserTupleType;
@@ -34,7 +36,10 @@ import io.axual.ksml.type.UserType;
 import io.axual.ksml.user.UserKeyValueTransformer;
 import org.apache.kafka.streams.kstream.KStream;
 
-public class TransformKeyValueOperation extends BaseOperation {
+import java.util.Collections;
+import java.util.List;
+
+public class TransformKeyValueOperation extends BaseOperation implements FusibleOperation {
     private static final String MAPPER_NAME = "Mapper";
     private final FunctionDefinition mapper;
 
@@ -56,7 +61,8 @@ public class TransformKeyValueOperation extends BaseOperation {
         final var v = input.valueType().flatten();
         final var kvTuple = firstSpecificType(mapper, new UserType(new UserTupleType(k.userType(), v.userType())));
         checkTuple(MAPPER_NAME + " resultType", kvTuple, DataType.UNKNOWN, DataType.UNKNOWN);
-        final var map = userFunctionOf(context, MAPPER_NAME, mapper, kvTuple, superOf(k), superOf(v));
+        final var definition = checkedFunctionOf(MAPPER_NAME, mapper, kvTuple.dataType(), superOf(k), superOf(v));
+        final var map = context.createUserFunction(definition);
 
         if (kvTuple.dataType() instanceof UserTupleType userTupleType && userTupleType.subTypeCount() == 2) {
             final var kr = streamDataTypeOf(userTupleType.getUserType(0), true);
@@ -72,8 +78,43 @@ public class TransformKeyValueOperation extends BaseOperation {
             final KStream<Object, Object> output = named != null
                     ? input.stream.process(supplier, named, storeNames)
                     : input.stream.process(supplier, storeNames);
-            return new KStreamWrapper(output, kr, vr);
+            return new KStreamWrapper(output, kr, vr, true);
+        }
+        throw new ExecutionException("ResultType of keyValueTransformer not defined as a tuple of key and value");
+    }
+
+    @Override
+    public FusedStep fuse(StreamDataType keyType, StreamDataType valueType, TopologyBuildContext context) {
+        checkNotNull(mapper, MAPPER_NAME.toLowerCase());
+        final var k = keyType.flatten();
+        final var v = valueType.flatten();
+        final var kvTuple = firstSpecificType(mapper, new UserType(new UserTupleType(k.userType(), v.userType())));
+        checkTuple(MAPPER_NAME + " resultType", kvTuple, DataType.UNKNOWN, DataType.UNKNOWN);
+        final var definition = checkedFunctionOf(MAPPER_NAME, mapper, kvTuple.dataType(), superOf(k), superOf(v));
+        final var map = context.createUserFunction(definition);
+
+        if (kvTuple.dataType() instanceof UserTupleType userTupleType && userTupleType.subTypeCount() == 2) {
+            final var kr = streamDataTypeOf(userTupleType.getUserType(0), true);
+            final var vr = streamDataTypeOf(userTupleType.getUserType(1), false);
+            final var userMap = new UserKeyValueTransformer(map, tags);
+            return new FusedStep(kr, vr, mapper.storeNames(), true, (stores, entry) -> {
+                final var kv = userMap.apply(stores, entry.key, entry.value);
+                if (kv == null) return false;
+                entry.key = kv.key;
+                entry.value = kv.value;
+                return true;
+            }, PythonFunctionChain.stepOf(PythonFunctionChain.StepType.TRANSFORM_KEY_VALUE, definition, map, userMap));
         }
         throw new ExecutionException("ResultType of keyValueTransformer not defined as a tuple of key and value");
     }
+
+    @Override
+    public List<FunctionDefinition> valueFunctions() {
+        return Collections.singletonList(mapper);
+    }
+
+    @Override
+    public boolean forwardsValue() {
+        return false;
+    }
 }
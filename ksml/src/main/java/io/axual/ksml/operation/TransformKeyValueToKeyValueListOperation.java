@@ -35,7 +35,10 @@ import io.axual.ksml.type.UserTupleType;
 import io.axual.ksml.type.UserType;
 import io.axual.ksml.user.UserKeyValueToKeyValueListTransformer;
 
-public class TransformKeyValueToKeyValueListOperation extends BaseOperation {
+import java.util.Collections;
+import java.util.List;
+
+public class TransformKeyValueToKeyValueListOperation extends BaseOperation implements ProjectableOperation {
     private static final String MAPPER_NAME = "Mapper";
     private final FunctionDefinition mapper;
 
@@ -74,8 +77,18 @@ public class TransformKeyValueToKeyValueListOperation extends BaseOperation {
             final var output = named != null
                     ? input.stream.process(supplier, named, storeNames)
                     : input.stream.process(supplier, storeNames);
-            return new KStreamWrapper(output, kr, vr);
+            return new KStreamWrapper(output, kr, vr, true);
         }
         throw new ExecutionException("ResultType of keyValueToKeyValueListTransformer not correctly specified");
     }
+
+    @Override
+    public List<FunctionDefinition> valueFunctions() {
+        return Collections.singletonList(mapper);
+    }
+
+    @Override
+    public boolean forwardsValue() {
+        return false;
+    }
 }
@@ -33,7 +33,10 @@ import io.axual.ksml.stream.StreamWrapper;
 import io.axual.ksml.type.UserType;
 import io.axual.ksml.user.UserKeyValueToValueListTransformer;
 
-public class TransformKeyValueToValueListOperation extends BaseOperation {
+import java.util.Collections;
+import java.util.List;
+
+public class TransformKeyValueToValueListOperation extends BaseOperation implements ProjectableOperation {
     private static final String MAPPER_NAME = "Mapper";
     private final FunctionDefinition mapper;
 
@@ -70,6 +73,16 @@ public class TransformKeyValueToValueListOperation extends BaseOperation {
         final var output = named != null
                 ? input.stream.processValues(supplier, named, storeNames)
                 : input.stream.processValues(supplier, storeNames);
-        return new KStreamWrapper(output, k, vr);
+        return new KStreamWrapper(output, k, vr, input.keyChanged);
+    }
+
+    @Override
+    public List<FunctionDefinition> valueFunctions() {
+        return Collections.singletonList(mapper);
+    }
+
+    @Override
+    public boolean forwardsValue() {
+        return false;
     }
 }
@@ -31,7 +31,10 @@ import io.axual.ksml.stream.StreamWrapper;
 import io.axual.ksml.user.UserMetadataTransformer;
 import org.apache.kafka.streams.kstream.KStream;
 
-public class TransformMetadataOperation extends BaseOperation {
+import java.util.Collections;
+import java.util.List;
+
+public class TransformMetadataOperation extends BaseOperation implements ProjectableOperation {
     private static final String MAPPER_NAME = "Mapper";
     private final FunctionDefinition mapper;
 
@@ -64,6 +67,16 @@ public class TransformMetadataOperation extends BaseOperation {
         final KStream<Object, Object> output = named != null
                 ? input.stream.processValues(supplier, named, storeNames)
                 : input.stream.processValues(supplier, storeNames);
-        return new KStreamWrapper(output, k, v);
+        return new KStreamWrapper(output, k, v, input.keyChanged);
+    }
+
+    @Override
+    public List<FunctionDefinition> valueFunctions() {
+        return Collections.singletonList(mapper);
+    }
+
+    @Override
+    public boolean forwardsValue() {
+        return true;
     }
 }
@@ -22,9 +22,11 @@ package io.axual.ksml.operation;
 
 import io.axual.ksml.data.object.DataObject;
 import io.axual.ksml.definition.FunctionDefinition;
+import io.axual.ksml.generator.StreamDataType;
 import io.axual.ksml.generator.TopologyBuildContext;
 import io.axual.ksml.operation.processor.FixedKeyOperationProcessorSupplier;
 import io.axual.ksml.operation.processor.TransformValueProcessor;
+import io.axual.ksml.python.PythonFunctionChain;
 import io.axual.ksml.stream.KStreamWrapper;
 import io.axual.ksml.stream.KTableWrapper;
 import io.axual.ksml.stream.StreamWrapper;
@@ -34,7 +36,10 @@ import org.apache.kafka.streams.kstream.KStream;
 import org.apache.kafka.streams.kstream.KTable;
 import org.apache.kafka.streams.kstream.ValueTransformerWithKeySupplier;
 
-public class TransformValueOperation extends StoreOperation {
+import java.util.Collections;
+import java.util.List;
+
+public class TransformValueOperation extends StoreOperation implements FusibleOperation {
     private static final String MAPPER_NAME = "Mapper";
     private final FunctionDefinition mapper;
 
@@ -68,7 +73,27 @@ public class TransformValueOperation extends StoreOperation {
         final KStream<Object, Object> output = named != null
                 ? input.stream.processValues(supplier, named, storeNames)
                 : input.stream.processValues(supplier, storeNames);
-        return new KStreamWrapper(output, k, vr);
+        return new KStreamWrapper(output, k, vr, input.keyChanged);
+    }
+
+    @Override
+    public boolean isFusible() {
+        // Operations that materialize their result in a state store need their own processor
+        return store() == null;
+    }
+
+    @Override
+    public FusedStep fuse(StreamDataType k, StreamDataType valueType, TopologyBuildContext context) {
+        checkNotNull(mapper, MAPPER_NAME.toLowerCase());
+        final var v = valueType.flatten();
+        final var vr = streamDataTypeOf(firstSpecificType(mapper, v.userType()), false);
+        final var definition = checkedFunctionOf(MAPPER_NAME, mapper, vr.userType().dataType(), superOf(k.flatten()), superOf(v));
+        final var map = context.createUserFunction(definition);
+        final var userMap = new UserValueTransformer(map, tags);
+        return new FusedStep(k, vr, mapper.storeNames(), false, (stores, entry) -> {
+            entry.value = userMap.apply(stores, flattenValue(entry.key), flattenValue(entry.value));
+            return true;
+        }, PythonFunctionChain.stepOf(PythonFunctionChain.StepType.TRANSFORM_VALUE, definition, map, userMap));
     }
 
     @Override
@@ -103,4 +128,14 @@ public class TransformValueOperation extends StoreOperation {
         }
         return new KTableWrapper(output, k, vr);
     }
+
+    @Override
+    public List<FunctionDefinition> valueFunctions() {
+        return Collections.singletonList(mapper);
+    }
+
+    @Override
+    public boolean forwardsValue() {
+        return false;
+    }
 }
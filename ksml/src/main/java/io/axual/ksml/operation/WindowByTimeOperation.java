@@ -25,6 +25,7 @@ import io.axual.ksml.exception.TopologyException;
 import io.axual.ksml.generator.TopologyBuildContext;
 import io.axual.ksml.stream.CogroupedKStreamWrapper;
 import io.axual.ksml.stream.KGroupedStreamWrapper;
+import io.axual.ksml.stream.PaneWindows;
 import io.axual.ksml.stream.StreamWrapper;
 import io.axual.ksml.stream.TimeWindowedCogroupedKStreamWrapper;
 import io.axual.ksml.stream.TimeWindowedKStreamWrapper;
@@ -34,17 +35,25 @@ import org.apache.kafka.streams.kstream.TimeWindows;
 public class WindowByTimeOperation extends BaseOperation {
     private final SlidingWindows slidingWindows;
     private final TimeWindows timeWindows;
+    private final boolean panes;
 
     public WindowByTimeOperation(OperationConfig config, SlidingWindows slidingWindows) {
         super(config);
         this.slidingWindows = slidingWindows;
         this.timeWindows = null;
+        this.panes = false;
     }
 
     public WindowByTimeOperation(OperationConfig config, TimeWindows timeWindows) {
+        this(config, timeWindows, false);
+    }
+
+    public WindowByTimeOperation(OperationConfig config, TimeWindows timeWindows, boolean panes) {
         super(config);
         this.slidingWindows = null;
         this.timeWindows = timeWindows;
+        // Tumbling windows consist of a single pane, so they are always aggregated directly
+        this.panes = panes && timeWindows.advanceMs < timeWindows.size();
     }
 
     @Override
@@ -61,6 +70,12 @@ public class WindowByTimeOperation extends BaseOperation {
             return new TimeWindowedKStreamWrapper(input.groupedStream.windowedBy(slidingWindows), k, v);
         }
 
+        if (timeWindows != null && panes) {
+            // Records are aggregated in tumbling panes, which the aggregation combines into the hopping windows
+            final var paneWindows = PaneWindows.of(timeWindows);
+            return new TimeWindowedKStreamWrapper(input.groupedStream.windowedBy(paneWindows.paneWindows()), k, v, paneWindows);
+        }
+
         if (timeWindows != null) {
             /*    Kafka Streams method signature:
              *    <W extends Window > TimeWindowedKStream<K, V> windowedBy(
@@ -75,6 +90,7 @@ public class WindowByTimeOperation extends BaseOperation {
 
     @Override
     public StreamWrapper apply(CogroupedKStreamWrapper input, TopologyBuildContext context) {
+        if (panes) throw topologyError("cogrouped streams can not be windowed in panes");
         final var k = input.keyType();
         final var v = input.valueType();
 
@@ -41,9 +41,9 @@ public class AggregateOperationParser extends OperationParser<AggregateOperation
                 "",
                 "An aggregate operation",
                 operationNameField(),
-                functionField(KSMLDSL.Operations.Aggregate.INITIALIZER, "The initializer function, which generates an initial value for every set of aggregated records", new InitializerDefinitionParser(false)),
+                FieldParsers.optional(functionField(KSMLDSL.Operations.Aggregate.INITIALIZER, "The initializer function, which generates an initial value for every set of aggregated records. Not used with built-in aggregators", new InitializerDefinitionParser(false))),
                 FieldParsers.optional(functionField(KSMLDSL.Operations.Aggregate.AGGREGATOR, "(GroupedStream, SessionWindowedStream, TimeWindowedStream) The aggregator function, which combines a value with the previous aggregation result and outputs a new aggregation result", new AggregatorDefinitionParser(false))),
-                FieldParsers.optional(functionField(KSMLDSL.Operations.Aggregate.MERGER, "(SessionWindowedStream, SessionWindowedCogroupedStream) A function that combines two aggregation results", new MergerDefinitionParser(false))),
+                FieldParsers.optional(functionField(KSMLDSL.Operations.Aggregate.MERGER, "(SessionWindowedStream, SessionWindowedCogroupedStream, TimeWindowedStream with panes) A function that combines two aggregation results", new MergerDefinitionParser(false))),
                 FieldParsers.optional(functionField(KSMLDSL.Operations.Aggregate.ADDER, "(GroupedTable) A function that adds a record to the aggregation result", new AggregatorDefinitionParser(false))),
                 FieldParsers.optional(functionField(KSMLDSL.Operations.Aggregate.SUBTRACTOR, "(GroupedTable) A function that removes a record from the aggregation result", new AggregatorDefinitionParser(false))),
                 storeField(true, "Materialized view of the result aggregation", null),
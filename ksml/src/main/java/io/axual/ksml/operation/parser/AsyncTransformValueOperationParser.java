@@ -0,0 +1,71 @@
+package io.axual.ksml.operation.parser;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.schema.EnumSchema;
+import io.axual.ksml.definition.parser.ValueTransformerDefinitionParser;
+import io.axual.ksml.dsl.KSMLDSL;
+import io.axual.ksml.generator.TopologyResources;
+import io.axual.ksml.operation.AsyncTransformValueOperation;
+import io.axual.ksml.operation.processor.AsyncTransformValueProcessor;
+import io.axual.ksml.parser.FieldParsers;
+import io.axual.ksml.parser.StructsParser;
+
+import java.util.List;
+
+import static io.axual.ksml.dsl.KSMLDSL.Operations.AsyncTransformValue;
+
+public class AsyncTransformValueOperationParser extends OperationParser<AsyncTransformValueOperation> {
+    private static final int DEFAULT_MAX_IN_FLIGHT = 16;
+    private static final EnumSchema ORDERING_SCHEMA = new EnumSchema(
+            FieldParsers.SCHEMA_NAMESPACE,
+            "AsyncOrdering",
+            "The order in which transformed records are forwarded, defaults to partition",
+            List.of(new EnumSchema.Symbol(AsyncTransformValue.ORDERING_PARTITION),
+                    new EnumSchema.Symbol(AsyncTransformValue.ORDERING_KEY)));
+
+    public AsyncTransformValueOperationParser(TopologyResources resources) {
+        super(KSMLDSL.Operations.ASYNC_TRANSFORM_VALUE, resources);
+    }
+
+    @Override
+    protected StructsParser<AsyncTransformValueOperation> parser() {
+        return FieldParsers.structsParser(
+                AsyncTransformValueOperation.class,
+                "",
+                "Convert the value of every record in the stream to another value outside the stream thread, with a bounded number of records in flight",
+                operationNameField(),
+                functionField(AsyncTransformValue.MAPPER, "A function that converts the value of every record into another value. The function can not use state stores", new ValueTransformerDefinitionParser(false)),
+                FieldParsers.optional(FieldParsers.integerField(AsyncTransformValue.MAX_IN_FLIGHT, "The maximum number of records that are converted at the same time, defaults to " + DEFAULT_MAX_IN_FLIGHT)),
+                FieldParsers.optional(FieldParsers.enumField(AsyncTransformValue.ORDERING, ORDERING_SCHEMA)),
+                (name, mapper, maxInFlight, ordering, tags) -> {
+                    if (maxInFlight != null && maxInFlight < 1)
+                        return FieldParsers.parseError(KSMLDSL.Operations.ASYNC_TRANSFORM_VALUE + " requires a " + AsyncTransformValue.MAX_IN_FLIGHT + " of at least 1");
+                    return new AsyncTransformValueOperation(
+                            operationConfig(name, tags),
+                            mapper,
+                            maxInFlight != null ? maxInFlight : DEFAULT_MAX_IN_FLIGHT,
+                            AsyncTransformValue.ORDERING_KEY.equals(ordering)
+                                    ? AsyncTransformValueProcessor.Ordering.KEY
+                                    : AsyncTransformValueProcessor.Ordering.PARTITION);
+                });
+    }
+}
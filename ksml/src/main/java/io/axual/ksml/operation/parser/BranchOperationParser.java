@@ -48,6 +48,7 @@ public class BranchOperationParser extends OperationParser<BranchOperation> {
                         "branch",
                         "Defines a single branch, consisting of a condition and a pipeline to execute for messages that fulfil the predicate",
                         new BranchDefinitionParser(resources(), includePipelineSchema)),
-                (name, branches, tags) -> branches != null && !branches.isEmpty() ? new BranchOperation(operationConfig(name, tags), branches) : null);
+                FieldParsers.optional(FieldParsers.booleanField(KSMLDSL.Operations.Branch.ROUTE_ONCE, "\"true\" to evaluate all branch conditions in a single function call per message, \"false\" to evaluate every condition in its own call")),
+                (name, branches, routeOnce, tags) -> branches != null && !branches.isEmpty() ? new BranchOperation(operationConfig(name, tags), branches, Boolean.TRUE.equals(routeOnce)) : null);
     }
 }
@@ -143,12 +143,15 @@ public class LeftJoinOperationParser extends OperationParser<BaseOperation> {
                 "Operation to leftJoin with a globalTable",
                 operationNameField(),
                 topicField(Operations.Join.WITH_GLOBAL_TABLE, "A reference to the globalTable, or an inline definition of the globalTable to join with", new GlobalTableDefinitionParser(resources(), true)),
-                functionField(Operations.Join.MAPPER, "A function that maps the key value from the stream with the primary key of the globalTable", new KeyValueMapperDefinitionParser(false)),
+                FieldParsers.optional(functionField(Operations.Join.MAPPER, "A function that maps the key value from the stream with the primary key of the globalTable", new KeyValueMapperDefinitionParser(false))),
+                FieldParsers.optional(FieldParsers.stringField(Operations.Join.KEY_FIELD, "The path of the value field that holds the primary key of the globalTable, with nested fields separated by dots. Replaces the mapper.")),
                 valueJoinerField,
                 // GlobalTable joins do not use/require a state store
-                (name, globalTable, mapper, valueJoiner, tags) -> {
+                (name, globalTable, mapper, keyField, valueJoiner, tags) -> {
+                    if ((mapper == null) == (keyField == null))
+                        return FieldParsers.parseError("LeftJoin with a globalTable requires either a mapper or a keyField");
                     if (globalTable instanceof GlobalTableDefinition globalTableDef) {
-                        return new LeftJoinWithGlobalTableOperation(operationConfig(name, tags), globalTableDef, mapper, valueJoiner);
+                        return new LeftJoinWithGlobalTableOperation(operationConfig(name, tags), globalTableDef, mapper, keyField, valueJoiner);
                     }
                     throw new TopologyException("LeftJoin globalTable not correct, should be a defined globalTable");
                 });
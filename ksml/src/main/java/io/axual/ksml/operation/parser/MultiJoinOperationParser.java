@@ -0,0 +1,63 @@
+package io.axual.ksml.operation.parser;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.definition.parser.MultiJoinLookupDefinitionParser;
+import io.axual.ksml.definition.parser.ValueJoinerDefinitionParser;
+import io.axual.ksml.dsl.KSMLDSL;
+import io.axual.ksml.generator.TopologyResources;
+import io.axual.ksml.operation.MultiJoinOperation;
+import io.axual.ksml.parser.FieldParsers;
+import io.axual.ksml.parser.StructsParser;
+
+import java.util.HashSet;
+
+public class MultiJoinOperationParser extends OperationParser<MultiJoinOperation> {
+    public MultiJoinOperationParser(TopologyResources resources) {
+        super(KSMLDSL.Operations.MULTI_JOIN, resources);
+    }
+
+    @Override
+    protected StructsParser<MultiJoinOperation> parser() {
+        return FieldParsers.structsParser(
+                MultiJoinOperation.class,
+                "",
+                "Operation to join a stream with multiple tables and globalTables in a single processor",
+                operationNameField(),
+                FieldParsers.listField(
+                        KSMLDSL.Operations.MultiJoin.LOOKUPS,
+                        "lookup",
+                        "lookup",
+                        "The tables and globalTables to look up values in",
+                        new MultiJoinLookupDefinitionParser(resources())),
+                FieldParsers.optional(functionField(KSMLDSL.Operations.MultiJoin.VALUE_JOINER, "A function that joins the stream value with a struct of all looked up values. If not set, the looked up values are added to the stream value", new ValueJoinerDefinitionParser(false))),
+                (name, lookups, valueJoiner, tags) -> {
+                    if (lookups == null || lookups.isEmpty())
+                        return FieldParsers.parseError(KSMLDSL.Operations.MULTI_JOIN + " requires at least one lookup");
+                    final var fields = new HashSet<String>();
+                    for (final var lookup : lookups) {
+                        if (!fields.add(lookup.field()))
+                            return FieldParsers.parseError(KSMLDSL.Operations.MULTI_JOIN + " contains multiple lookups for field " + lookup.field());
+                    }
+                    return new MultiJoinOperation(operationConfig(name, tags), lookups, valueJoiner);
+                });
+    }
+}
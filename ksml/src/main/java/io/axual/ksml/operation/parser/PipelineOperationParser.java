@@ -38,6 +38,7 @@ public class PipelineOperationParser extends ChoiceParser<StreamOperation> {
     private static Map<String, StructsParser<? extends StreamOperation>> types(TopologyResources resources) {
         final var result = new HashMap<String, StructsParser<? extends StreamOperation>>();
         result.put(KSMLDSL.Operations.AGGREGATE, new AggregateOperationParser(resources));
+        result.put(KSMLDSL.Operations.ASYNC_TRANSFORM_VALUE, new AsyncTransformValueOperationParser(resources));
         result.put(KSMLDSL.Operations.COGROUP, new CogroupOperationParser(resources));
         result.put(KSMLDSL.Operations.CONVERT_KEY, new ConvertKeyOperationParser(resources));
         result.put(KSMLDSL.Operations.CONVERT_KEY_VALUE, new ConvertKeyValueOperationParser(resources));
@@ -63,6 +64,7 @@ public class PipelineOperationParser extends ChoiceParser<StreamOperation> {
         result.put(KSMLDSL.Operations.MAP_VALUES, new TransformValueOperationParser(resources));
         result.put(KSMLDSL.Operations.TRANSFORM_VALUE, new TransformValueOperationParser(resources));
         result.put(KSMLDSL.Operations.MERGE, new MergeOperationParser(resources));
+        result.put(KSMLDSL.Operations.MULTI_JOIN, new MultiJoinOperationParser(resources));
         result.put(KSMLDSL.Operations.OUTER_JOIN, new OuterJoinOperationParser(resources));
         result.put(KSMLDSL.Operations.PEEK, new PeekOperationParser(resources));
         result.put(KSMLDSL.Operations.REDUCE, new ReduceOperationParser(resources));
@@ -69,14 +69,15 @@ public class WindowByTimeOperationParser extends OperationParser<WindowByTimeOpe
                 durationParser,
                 advanceByParser,
                 FieldParsers.optional(graceParser),
-                (name, duration, advanceBy, grace, tags) -> {
+                FieldParsers.optional(FieldParsers.booleanField(KSMLDSL.TimeWindows.PANES, "\"true\" to aggregate records in panes that are combined into the windows when they close, \"false\" to aggregate every window separately. Defaults to \"false\"")),
+                (name, duration, advanceBy, grace, panes, tags) -> {
                     if (advanceBy.toMillis() > duration.toMillis()) {
                         throw new TopologyException("A hopping window can not advanceBy more than its duration");
                     }
                     final var timeWindows = (grace != null && grace.toMillis() > 0)
                             ? org.apache.kafka.streams.kstream.TimeWindows.ofSizeAndGrace(duration, grace).advanceBy(advanceBy)
                             : org.apache.kafka.streams.kstream.TimeWindows.ofSizeWithNoGrace(duration).advanceBy(advanceBy);
-                    return new WindowByTimeOperation(operationConfig(name, tags), timeWindows);
+                    return new WindowByTimeOperation(operationConfig(name, tags), timeWindows, panes != null && panes);
                 });
 
         slidingParser = FieldParsers.structsParser(
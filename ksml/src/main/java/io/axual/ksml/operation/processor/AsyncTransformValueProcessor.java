@@ -0,0 +1,284 @@
+package io.axual.ksml.operation.processor;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.exception.ExecutionException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.kstream.ValueMapperWithKey;
+import org.apache.kafka.streams.processor.Cancellable;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.StoreBuilder;
+import org.apache.kafka.streams.state.Stores;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Transforms the value of every record on a virtual thread, so the stream thread does not wait for slow
+ * transformations. At most a fixed number of records is transformed at the same time, after which the stream
+ * thread waits for the oldest record to finish.
+ * <p>
+ * Transformed records are forwarded on the stream thread, when the next record is processed or at the latest
+ * after a short interval. With partition ordering records are forwarded in the order in which they were received.
+ * With key ordering, the records of a key are transformed one after another and forwarded in order, but records
+ * with other keys may overtake them. Forwarded records keep their own timestamp and headers, but downstream
+ * processors see the topic, partition and offset of the record that was processed when they were forwarded.
+ * Records are forwarded as new records with the same key, since records read back from the pending store can not
+ * be forwarded by a fixed key processor.
+ * <p>
+ * Kafka Streams may commit the offset of a record before it was forwarded. Every record is therefore kept in a
+ * changelogged pending store until it is forwarded. After a restart, the records in the pending store are
+ * transformed and forwarded again, so no record is lost, but records may be forwarded twice.
+ */
+public class AsyncTransformValueProcessor implements Processor<Object, Object, Object, Object> {
+    public enum Ordering {
+        KEY,
+        PARTITION
+    }
+
+    private static final Duration FORWARD_INTERVAL = Duration.ofMillis(10);
+    private static final int NULL_LENGTH = -1;
+
+    private record InFlight(long sequence, Record<Object, Object> rec, CompletableFuture<Object> result) {
+    }
+
+    private final String name;
+    private final String storeName;
+    private final ValueMapperWithKey<Object, Object, Object> mapper;
+    private final int maxInFlight;
+    private final Ordering ordering;
+    private final Serde<Object> keySerde;
+    private final Serde<Object> valueSerde;
+    private final Deque<InFlight> inFlight = new ArrayDeque<>();
+    private final Map<Object, CompletableFuture<Object>> lastOfKey = new HashMap<>();
+    private ProcessorContext<Object, Object> context;
+    private KeyValueStore<Long, byte[]> pendingStore;
+    private Executor executor;
+    private Cancellable punctuator;
+    private long nextSequence;
+
+    /**
+     * Creates the processor.
+     *
+     * @param name        the name of the operation, used in error messages
+     * @param storeName   the name of the pending store of the operation
+     * @param mapper      the transformation, which is called outside the stream thread
+     * @param maxInFlight the maximum number of records that are transformed at the same time
+     * @param ordering    the order in which transformed records are forwarded
+     * @param keySerde    the serde of the record keys, used to keep records in the pending store
+     * @param valueSerde  the serde of the record values, used to keep records in the pending store
+     */
+    public AsyncTransformValueProcessor(String name, String storeName, ValueMapperWithKey<Object, Object, Object> mapper, int maxInFlight, Ordering ordering, Serde<Object> keySerde, Serde<Object> valueSerde) {
+        this(name, storeName, mapper, maxInFlight, ordering, keySerde, valueSerde, null);
+    }
+
+    // Transformations run on the given executor, or on virtual threads when no executor is given
+    AsyncTransformValueProcessor(String name, String storeName, ValueMapperWithKey<Object, Object, Object> mapper, int maxInFlight, Ordering ordering, Serde<Object> keySerde, Serde<Object> valueSerde, Executor executor) {
+        this.name = name;
+        this.storeName = storeName;
+        this.mapper = mapper;
+        this.maxInFlight = maxInFlight;
+        this.ordering = ordering;
+        this.keySerde = keySerde;
+        this.valueSerde = valueSerde;
+        this.executor = executor;
+    }
+
+    /**
+     * Returns a builder for the store that keeps the records that were not forwarded yet.
+     *
+     * @param storeName the name of the store
+     * @return the store builder
+     */
+    public static StoreBuilder<KeyValueStore<Long, byte[]>> pendingStoreBuilder(String storeName) {
+        return Stores.keyValueStoreBuilder(Stores.inMemoryKeyValueStore(storeName), Serdes.Long(), Serdes.ByteArray());
+    }
+
+    @Override
+    public void init(ProcessorContext<Object, Object> context) {
+        this.context = context;
+        if (!(context.getStateStore(storeName) instanceof KeyValueStore<?, ?>))
+            throw new ExecutionException("Could not connect processor '" + name + "' to state store '" + storeName + "'");
+        pendingStore = context.getStateStore(storeName);
+        if (executor == null) executor = Executors.newVirtualThreadPerTaskExecutor();
+        resubmitPending();
+        punctuator = context.schedule(FORWARD_INTERVAL, PunctuationType.WALL_CLOCK_TIME, _ -> forwardCompleted());
+    }
+
+    // Records that were not forwarded before a restart are transformed again
+    private void resubmitPending() {
+        try (final var pending = pendingStore.all()) {
+            while (pending.hasNext()) {
+                final var entry = pending.next();
+                submit(entry.key, decode(entry.value));
+                nextSequence = Math.max(nextSequence, entry.key + 1);
+            }
+        }
+    }
+
+    @Override
+    public void process(Record<Object, Object> rec) {
+        forwardCompleted();
+        while (inFlight.size() >= maxInFlight) {
+            awaitOldest();
+            forwardCompleted();
+        }
+
+        final var sequence = nextSequence++;
+        pendingStore.put(sequence, encode(rec));
+        submit(sequence, rec);
+    }
+
+    private void submit(long sequence, Record<Object, Object> rec) {
+        final var key = rec.key();
+        final var value = rec.value();
+        final var previous = ordering == Ordering.KEY ? lastOfKey.get(key) : null;
+        final var result = previous != null
+                ? previous.handle((_, _) -> null).thenApplyAsync(_ -> mapper.apply(key, value), executor)
+                : CompletableFuture.supplyAsync(() -> mapper.apply(key, value), executor);
+        if (ordering == Ordering.KEY) lastOfKey.put(key, result);
+        inFlight.add(new InFlight(sequence, rec, result));
+    }
+
+    private void awaitOldest() {
+        try {
+            inFlight.getFirst().result().join();
+        } catch (CompletionException | CancellationException e) {
+            // The error is raised when the record is forwarded
+        }
+    }
+
+    private void forwardCompleted() {
+        if (ordering == Ordering.PARTITION) {
+            while (!inFlight.isEmpty() && inFlight.getFirst().result().isDone()) forward(inFlight.removeFirst());
+            return;
+        }
+
+        // Records can only be forwarded when no earlier record with the same key is still in flight
+        final var blockedKeys = new HashSet<Object>();
+        final var iterator = inFlight.iterator();
+        while (iterator.hasNext()) {
+            final var entry = iterator.next();
+            final var key = entry.rec().key();
+            if (entry.result().isDone() && !blockedKeys.contains(key)) {
+                iterator.remove();
+                lastOfKey.remove(key, entry.result());
+                forward(entry);
+            } else {
+                blockedKeys.add(key);
+            }
+        }
+    }
+
+    private void forward(InFlight entry) {
+        final Object value;
+        try {
+            value = entry.result().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new ExecutionException("Error in operation '" + name + "'", e.getCause());
+        }
+        context.forward(entry.rec().withValue(value));
+        // Removed after forwarding, so a failure in between forwards the record again instead of losing it
+        pendingStore.delete(entry.sequence());
+    }
+
+    private byte[] encode(Record<Object, Object> rec) {
+        try (final var bytes = new ByteArrayOutputStream(); final var out = new DataOutputStream(bytes)) {
+            out.writeLong(rec.timestamp());
+            writeBytes(out, keySerde.serializer().serialize(storeName, rec.key()));
+            writeBytes(out, valueSerde.serializer().serialize(storeName, rec.value()));
+            final var headers = rec.headers().toArray();
+            out.writeInt(headers.length);
+            for (final var header : headers) {
+                writeBytes(out, header.key().getBytes(StandardCharsets.UTF_8));
+                writeBytes(out, header.value());
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Record<Object, Object> decode(byte[] data) {
+        try (final var in = new DataInputStream(new ByteArrayInputStream(data))) {
+            final var timestamp = in.readLong();
+            final var key = keySerde.deserializer().deserialize(storeName, readBytes(in));
+            final var value = valueSerde.deserializer().deserialize(storeName, readBytes(in));
+            final var headers = new RecordHeaders();
+            final var headerCount = in.readInt();
+            for (int index = 0; index < headerCount; index++) {
+                headers.add(new String(readBytes(in), StandardCharsets.UTF_8), readBytes(in));
+            }
+            return new Record<>(key, value, timestamp, headers);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        if (bytes == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        final var length = in.readInt();
+        return length != NULL_LENGTH ? in.readNBytes(length) : null;
+    }
+
+    @Override
+    public void close() {
+        if (punctuator != null) punctuator.cancel();
+        // Records still in flight stay in the pending store, so they are transformed again after a restart
+        inFlight.forEach(entry -> entry.result().cancel(true));
+        inFlight.clear();
+        lastOfKey.clear();
+        if (executor instanceof ExecutorService executorService) executorService.shutdownNow();
+    }
+}
@@ -0,0 +1,54 @@
+package io.axual.ksml.operation.processor;
+
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.user.UserBranchRouter;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+
+/**
+ * Forwards every record to the child node of the first branch it belongs to, or drops it when it belongs to none.
+ */
+public class BranchRouterProcessor implements FixedKeyProcessor<Object, Object, Object> {
+    private final UserBranchRouter router;
+    private final String[] childNames;
+    private FixedKeyProcessorContext<Object, Object> context;
+
+    public BranchRouterProcessor(UserBranchRouter router, String[] childNames) {
+        this.router = router;
+        this.childNames = childNames;
+    }
+
+    @Override
+    public void init(FixedKeyProcessorContext<Object, Object> context) {
+        this.context = context;
+    }
+
+    @Override
+    public void process(FixedKeyRecord<Object, Object> rec) {
+        final var index = router.route(rec.key(), rec.value());
+        if (index >= 0 && index < childNames.length) {
+            context.forward(rec, childNames[index]);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package io.axual.ksml.operation.processor;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import org.apache.kafka.streams.processor.api.Record;
+
+/**
+ * Runs a series of steps, of which at least one changes the record key, in a single processor.
+ */
+public class FusedProcessor extends OperationProcessor {
+    private final FusedStepAction[] steps;
+    private final FusedStepAction.Entry entry = new FusedStepAction.Entry();
+
+    public FusedProcessor(String name, FusedStepAction[] steps, String[] storeNames) {
+        super(name, storeNames);
+        this.steps = steps;
+    }
+
+    @Override
+    public void process(Record<Object, Object> rec) {
+        entry.key = rec.key();
+        entry.value = rec.value();
+        for (final var step : steps) {
+            if (!step.apply(stores, entry)) return;
+        }
+        context.forward(rec.withKey(entry.key).withValue(entry.value));
+    }
+}
@@ -0,0 +1,40 @@
+package io.axual.ksml.operation.processor;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.store.StateStores;
+
+/**
+ * A single step of a fused processor. The step reads and updates the key and value of the record
+ * in place, and returns false to drop the record.
+ */
+public interface FusedStepAction {
+    /**
+     * The key and value of the record passing through the fused steps. A fused processor reuses
+     * one instance for all the records it processes.
+     */
+    final class Entry {
+        public Object key;
+        public Object value;
+    }
+
+    boolean apply(StateStores stores, Entry entry);
+}
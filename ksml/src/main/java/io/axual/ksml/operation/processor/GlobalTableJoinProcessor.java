@@ -0,0 +1,90 @@
+package io.axual.ksml.operation.processor;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.object.DataNull;
+import io.axual.ksml.exception.ExecutionException;
+import io.axual.ksml.store.GlobalTableNearCache;
+import org.apache.kafka.streams.kstream.KeyValueMapper;
+import org.apache.kafka.streams.kstream.ValueJoinerWithKey;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
+import org.apache.kafka.streams.state.ValueAndTimestamp;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * Joins every record with the value of a global table, which is read through the near-cache of the global table.
+ * Records are joined like Kafka Streams joins streams with global tables: records without a selected key or
+ * without a value in the global table are dropped by inner joins, and joined with {@code null} by left joins.
+ */
+public class GlobalTableJoinProcessor implements FixedKeyProcessor<Object, Object, Object> {
+    private final String name;
+    private final String storeName;
+    private final KeyValueMapper<Object, Object, Object> keySelector;
+    private final ValueJoinerWithKey<Object, Object, Object, Object> joiner;
+    private final boolean left;
+    private final GlobalTableNearCache nearCache;
+    private FixedKeyProcessorContext<Object, Object> context;
+    private UnaryOperator<Object> reader;
+
+    /**
+     * Creates the processor.
+     *
+     * @param name        the name of the operation, used in error messages
+     * @param storeName   the name of the state store of the global table
+     * @param keySelector the function that selects the key to look up
+     * @param joiner      the joiner that combines the record value with the value of the global table
+     * @param left        {@code true} to keep records without a value in the global table
+     * @param nearCache   the near-cache of the global table
+     */
+    public GlobalTableJoinProcessor(String name, String storeName, KeyValueMapper<Object, Object, Object> keySelector, ValueJoinerWithKey<Object, Object, Object, Object> joiner, boolean left, GlobalTableNearCache nearCache) {
+        this.name = name;
+        this.storeName = storeName;
+        this.keySelector = keySelector;
+        this.joiner = joiner;
+        this.left = left;
+        this.nearCache = nearCache;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void init(FixedKeyProcessorContext<Object, Object> context) {
+        this.context = context;
+        if (!(context.getStateStore(storeName) instanceof ReadOnlyKeyValueStore<?, ?> keyValue))
+            throw new ExecutionException("Could not connect processor '" + name + "' to state store '" + storeName + "'");
+        final var store = (ReadOnlyKeyValueStore<Object, Object>) keyValue;
+        reader = key -> {
+            final var result = store.get(key);
+            return result instanceof ValueAndTimestamp<?> valueAndTimestamp ? valueAndTimestamp.value() : result;
+        };
+    }
+
+    @Override
+    public void process(FixedKeyRecord<Object, Object> rec) {
+        final var key = keySelector.apply(rec.key(), rec.value());
+        final var value = key != null && key != DataNull.INSTANCE ? nearCache.get(key, reader) : null;
+        if (value == null && !left) return;
+        context.forward(rec.withValue(joiner.apply(rec.key(), rec.value(), value)));
+    }
+}
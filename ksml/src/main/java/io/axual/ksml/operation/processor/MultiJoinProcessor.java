@@ -0,0 +1,138 @@
+package io.axual.ksml.operation.processor;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.object.DataNull;
+import io.axual.ksml.data.object.DataObject;
+import io.axual.ksml.data.object.DataStruct;
+import io.axual.ksml.exception.ExecutionException;
+import org.apache.kafka.streams.kstream.KeyValueMapper;
+import org.apache.kafka.streams.kstream.ValueJoinerWithKey;
+import org.apache.kafka.streams.processor.StateStore;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
+import org.apache.kafka.streams.state.ValueAndTimestamp;
+import org.apache.kafka.streams.state.VersionedKeyValueStore;
+
+/**
+ * Joins every record with the values of several tables and global tables, by reading their state stores directly.
+ * All lookups of a record take place in this processor, after which the looked up values are passed to a single
+ * value joiner, or added to a copy of the record value when no joiner is given.
+ * <p>
+ * Records that miss a value in a table whose lookup is not a left join are dropped.
+ */
+public class MultiJoinProcessor implements FixedKeyProcessor<Object, Object, Object> {
+    /**
+     * A lookup in the store of a table.
+     *
+     * @param storeName   the name of the state store of the table
+     * @param field       the name of the field that holds the looked up value
+     * @param keySelector the function that selects the key to look up, or {@code null} to look up the record key
+     * @param left        {@code true} to keep records without a value in the table
+     */
+    public record Lookup(String storeName, String field, KeyValueMapper<Object, Object, Object> keySelector, boolean left) {
+    }
+
+    // Reads the value of a key as of the timestamp of the record
+    private interface Reader {
+        Object read(Object key, long timestamp);
+    }
+
+    private static final String VALUE_FIELD = "value";
+    private final String name;
+    private final Lookup[] lookups;
+    private final ValueJoinerWithKey<Object, Object, Object, Object> joiner;
+    private final Reader[] readers;
+    private FixedKeyProcessorContext<Object, Object> context;
+
+    /**
+     * Creates the processor.
+     *
+     * @param name    the name of the operation, used in error messages
+     * @param lookups the lookups, in the order in which their fields are added
+     * @param joiner  the joiner that combines the record value with the struct of looked up values, or
+     *                {@code null} to add the looked up values to the record value
+     */
+    public MultiJoinProcessor(String name, Lookup[] lookups, ValueJoinerWithKey<Object, Object, Object, Object> joiner) {
+        this.name = name;
+        this.lookups = lookups;
+        this.joiner = joiner;
+        this.readers = new Reader[lookups.length];
+    }
+
+    @Override
+    public void init(FixedKeyProcessorContext<Object, Object> context) {
+        this.context = context;
+        for (int index = 0; index < lookups.length; index++) {
+            final StateStore store = context.getStateStore(lookups[index].storeName());
+            if (store == null)
+                throw new ExecutionException("Could not connect processor '" + name + "' to state store '" + lookups[index].storeName() + "'");
+            readers[index] = readerOf(store);
+        }
+    }
+
+    // Tables are materialized in timestamped or versioned stores, depending on their store definition. Versioned
+    // stores are read as of the record timestamp, like the stream-table joins of Kafka Streams do.
+    @SuppressWarnings("unchecked")
+    private static Reader readerOf(StateStore store) {
+        if (store instanceof VersionedKeyValueStore<?, ?> versioned) {
+            final var versionedStore = (VersionedKeyValueStore<Object, Object>) versioned;
+            return (key, timestamp) -> {
+                final var result = versionedStore.get(key, timestamp);
+                return result != null ? result.value() : null;
+            };
+        }
+        if (store instanceof ReadOnlyKeyValueStore<?, ?> keyValue) {
+            final var keyValueStore = (ReadOnlyKeyValueStore<Object, Object>) keyValue;
+            return (key, _) -> {
+                final var result = keyValueStore.get(key);
+                return result instanceof ValueAndTimestamp<?> valueAndTimestamp ? valueAndTimestamp.value() : result;
+            };
+        }
+        throw new ExecutionException("State store '" + store.name() + "' can not be used for table lookups");
+    }
+
+    @Override
+    public void process(FixedKeyRecord<Object, Object> rec) {
+        final var target = joiner == null ? copyOf(rec.value()) : new DataStruct();
+        for (int index = 0; index < lookups.length; index++) {
+            final var lookup = lookups[index];
+            final var key = lookup.keySelector() != null ? lookup.keySelector().apply(rec.key(), rec.value()) : rec.key();
+            final var value = key != null && key != DataNull.INSTANCE ? readers[index].read(key, rec.timestamp()) : null;
+            if (value == null && !lookup.left()) return;
+            target.put(lookup.field(), value instanceof DataObject dataObject ? dataObject : DataNull.INSTANCE);
+        }
+        context.forward(rec.withValue(joiner == null ? target : joiner.apply(rec.key(), rec.value(), target)));
+    }
+
+    // Struct values are enriched with the looked up fields, other values are kept in a value field
+    private static DataStruct copyOf(Object value) {
+        final var result = new DataStruct();
+        if (value instanceof DataStruct struct && !struct.isNull()) {
+            struct.forEach(result::put);
+        } else if (value instanceof DataObject dataObject) {
+            result.put(VALUE_FIELD, dataObject);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,153 @@
+package io.axual.ksml.operation.processor;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.exception.ExecutionException;
+import io.axual.ksml.stream.PaneWindows;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.kstream.Merger;
+import org.apache.kafka.streams.kstream.Windowed;
+import org.apache.kafka.streams.kstream.internals.TimeWindow;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.ReadOnlyWindowStore;
+import org.apache.kafka.streams.state.StoreBuilder;
+import org.apache.kafka.streams.state.Stores;
+import org.apache.kafka.streams.state.ValueAndTimestamp;
+
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Combines the panes of a pane-windowed aggregation into hopping windows. The processor receives every update of a
+ * pane, and emits the final result of every window that closed since the previous update, by combining the panes
+ * of that window from the pane store in time order. Since records only update a single pane, the cost of processing
+ * a record does not depend on the number of windows it falls in.
+ * <p>
+ * The start of the next window to emit is kept in a changelogged store, so windows are emitted once, also after a
+ * restart.
+ */
+public class PaneWindowProcessor implements Processor<Windowed<Object>, Object, Windowed<Object>, Object> {
+    private static final String NEXT_WINDOW_START = "nextWindowStart";
+    private final String name;
+    private final String paneStoreName;
+    private final String progressStoreName;
+    private final PaneWindows windows;
+    private final Merger<Object, Object> merger;
+    private ProcessorContext<Windowed<Object>, Object> context;
+    private ReadOnlyWindowStore<Object, Object> paneStore;
+    private KeyValueStore<String, Long> progressStore;
+
+    /**
+     * Creates the processor.
+     *
+     * @param name              the name of the operation, used in error messages
+     * @param paneStoreName     the name of the window store that holds the panes
+     * @param progressStoreName the name of the store that holds the start of the next window to emit
+     * @param windows           the hopping windows to combine the panes into
+     * @param merger            the merger that combines two aggregated values
+     */
+    public PaneWindowProcessor(String name, String paneStoreName, String progressStoreName, PaneWindows windows, Merger<Object, Object> merger) {
+        this.name = name;
+        this.paneStoreName = paneStoreName;
+        this.progressStoreName = progressStoreName;
+        this.windows = windows;
+        this.merger = merger;
+    }
+
+    /**
+     * Returns a builder for the store that holds the start of the next window to emit.
+     *
+     * @param storeName the name of the store
+     * @return the store builder
+     */
+    public static StoreBuilder<KeyValueStore<String, Long>> progressStoreBuilder(String storeName) {
+        return Stores.keyValueStoreBuilder(Stores.inMemoryKeyValueStore(storeName), Serdes.String(), Serdes.Long());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void init(ProcessorContext<Windowed<Object>, Object> context) {
+        this.context = context;
+        if (!(context.getStateStore(paneStoreName) instanceof ReadOnlyWindowStore<?, ?> windowStore))
+            throw new ExecutionException("Could not connect processor '" + name + "' to state store '" + paneStoreName + "'");
+        paneStore = (ReadOnlyWindowStore<Object, Object>) windowStore;
+        progressStore = context.getStateStore(progressStoreName);
+    }
+
+    @Override
+    public void process(Record<Windowed<Object>, Object> paneUpdate) {
+        final var lastClosed = windows.lastClosedWindowStart(context.currentStreamTimeMs());
+        final var stored = progressStore.get(NEXT_WINDOW_START);
+        // Without progress, all windows that are still open are emitted when they close
+        final long next = stored != null ? stored : Math.max(0, lastClosed + windows.advance());
+        if (lastClosed >= next) emit(next, lastClosed);
+        final var newNext = Math.max(next, lastClosed + windows.advance());
+        if (stored == null || newNext != stored) progressStore.put(NEXT_WINDOW_START, newNext);
+    }
+
+    // Emits the windows that start between the given bounds, for all keys with panes in these windows. Only the
+    // keys are collected up front, the panes are read and combined one key at a time.
+    private void emit(long firstStart, long lastStart) {
+        final var from = Instant.ofEpochMilli(firstStart);
+        final var to = Instant.ofEpochMilli(lastStart + windows.size() - windows.paneSize());
+        final var keys = new LinkedHashSet<>();
+        try (final var panes = paneStore.fetchAll(from, to)) {
+            while (panes.hasNext()) keys.add(panes.next().key.key());
+        }
+        for (final var key : keys) emit(key, firstStart, lastStart, from, to);
+    }
+
+    // Emits the windows of a single key that start between the given bounds
+    private void emit(Object key, long firstStart, long lastStart, Instant from, Instant to) {
+        final var panes = new TreeMap<Long, ValueAndTimestamp<?>>();
+        try (final var iterator = paneStore.fetch(key, from, to)) {
+            while (iterator.hasNext()) {
+                final var pane = iterator.next();
+                final var value = pane.value instanceof ValueAndTimestamp<?> valueAndTimestamp
+                        ? valueAndTimestamp
+                        : ValueAndTimestamp.make(pane.value, pane.key + windows.paneSize() - 1);
+                if (value != null) panes.put(pane.key, value);
+            }
+        }
+
+        final var windowStarts = new TreeSet<Long>();
+        for (final var paneStart : panes.keySet()) {
+            final var first = Math.max(firstStart, windows.firstWindowStart(paneStart));
+            final var last = Math.min(lastStart, windows.lastWindowStart(paneStart));
+            for (var windowStart = first; windowStart <= last; windowStart += windows.advance()) windowStarts.add(windowStart);
+        }
+        for (final var windowStart : windowStarts) {
+            Object result = null;
+            var timestamp = windowStart;
+            for (final var pane : panes.subMap(windowStart, windowStart + windows.size()).values()) {
+                result = result == null ? pane.value() : merger.apply(key, result, pane.value());
+                timestamp = Math.max(timestamp, pane.timestamp());
+            }
+            final var window = new Windowed<>(key, new TimeWindow(windowStart, windowStart + windows.size()));
+            context.forward(new Record<>(window, result, timestamp));
+        }
+    }
+}
@@ -33,6 +33,7 @@ import io.axual.ksml.user.UserFunction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 public abstract class Invoker {
@@ -47,18 +48,25 @@ public abstract class Invoker {
         this.function = function;
 
         final var metricTags = tags.append("function-type", functionType).append("function-name", this.function.name);
-        final var metricName = new MetricName("execution-time", metricTags);
-        if (Metrics.registry().getTimer(metricName) == null) {
-            timer = Metrics.registry().registerTimer(metricName);
-        } else {
-            timer = Metrics.registry().getTimer(metricName);
-        }
+        timer = timer(new MetricName("execution-time", metricTags));
+        // Time spent converting results to the declared result type, which is part of the execution time
+        this.function.conversionTimer(timer(new MetricName("conversion-time", metricTags)));
+    }
+
+    private static Timer timer(MetricName metricName) {
+        final var existing = Metrics.registry().getTimer(metricName);
+        return existing != null ? existing : Metrics.registry().registerTimer(metricName);
     }
 
     protected <V> V timeExecutionOf(Supplier<V> callback) {
         return timer.timeSupplier(callback);
     }
 
+    // Record an execution time that was measured elsewhere, like inside a chain of Python functions
+    void recordExecutionTime(long nanos) {
+        timer.update(nanos, TimeUnit.NANOSECONDS);
+    }
+
     protected void verify(boolean condition, String errorMessage) {
         if (!condition) {
             throw new TopologyException("This function can not be used as a " + getClass().getSimpleName() + ": " + errorMessage);
@@ -38,7 +38,9 @@ import org.graalvm.polyglot.io.FileSystem;
 import org.graalvm.polyglot.io.IOAccess;
 
 import java.nio.file.Path;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 public class PythonContext implements AutoCloseable {
@@ -66,6 +68,8 @@ public class PythonContext implements AutoCloseable {
     private final Context context;
     @Getter
     private final DataObjectConverter converter;
+    // Registered functions by their code, so the same code is only evaluated once
+    private final Map<String, Value> registeredFunctions = new HashMap<>();
 
     public PythonContext(PythonContextConfig config) {
         this.converter = new DataObjectConverter();
@@ -120,20 +124,26 @@ public class PythonContext implements AutoCloseable {
     }
 
     /**
-     * Register a function in the Python context.
+     * Register a function in the Python context. Code that was registered before is not evaluated again, so
+     * its global code only runs once and the previously registered function is returned.
      *
      * @param pyCode     the function source code.
      * @param callerName the name of the function to be registered.
      * @return a GraalVM {@link Value} object that can be used to call the registered function.
      */
-    public Value registerFunction(String pyCode, String callerName) {
+    public synchronized Value registerFunction(String pyCode, String callerName) {
+        final var registered = registeredFunctions.get(pyCode);
+        if (registered != null) return registered;
+
         Source script = Source.create(PYTHON, pyCode);
         try {
             context.eval(script);
         } catch (Exception e) {
             log.error("Error loading Python code", e);
         }
-        return context.getPolyglotBindings().getMember(callerName);
+        final var result = context.getPolyglotBindings().getMember(callerName);
+        if (result != null) registeredFunctions.put(pyCode, result);
+        return result;
     }
 
     /**
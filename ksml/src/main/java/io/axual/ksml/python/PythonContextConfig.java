@@ -55,6 +55,9 @@ public class PythonContextConfig {
     @JsonProperty(value = "modulePath", required = false)
     @JsonPropertyDescription("Path to additional Python modules to be loaded. Default is empty, meaning 'no user modules'.")
     private final String modulePath;
+    @JsonProperty(value = "disableNativeExpressions", required = false, defaultValue = "false")
+    @JsonPropertyDescription("Always run function expressions in Python, instead of evaluating simple expressions natively in Java. Default is false.")
+    private final boolean disableNativeExpressions;
 
     // Jackson 3 binds through this constructor. @Jacksonized cannot be used: it emits
     // @JsonDeserialize(builder = ...) from com.fasterxml.jackson.databind.annotation, which
@@ -73,7 +76,9 @@ public class PythonContextConfig {
             @JsonProperty(value = "inheritEnvironmentVariables")
             boolean inheritEnvironmentVariables,
             @JsonProperty(value = "modulePath")
-            String modulePath) {
+            String modulePath,
+            @JsonProperty(value = "disableNativeExpressions")
+            boolean disableNativeExpressions) {
         this.allowHostFileAccess = allowHostFileAccess;
         this.allowHostSocketAccess = allowHostSocketAccess;
         this.allowNativeAccess = allowNativeAccess;
@@ -81,5 +86,6 @@ public class PythonContextConfig {
         this.allowCreateThread = allowCreateThread;
         this.inheritEnvironmentVariables = inheritEnvironmentVariables;
         this.modulePath = modulePath;
+        this.disableNativeExpressions = disableNativeExpressions;
     }
 }
@@ -21,6 +21,7 @@ package io.axual.ksml.python;
  */
 
 import io.axual.ksml.data.exception.DataException;
+import io.axual.ksml.data.mapper.HeaderList;
 import io.axual.ksml.data.object.DataNull;
 import io.axual.ksml.data.object.DataObject;
 import io.axual.ksml.data.type.DataType;
@@ -40,6 +41,10 @@ public class PythonDataObjectMapper extends NativeDataObjectMapperWithSchema {
 
     @Override
     public DataObject toDataObject(DataType expected, Object object) {
+        // Headers that were passed in lazily are converted back without converting the headers that were not accessed
+        final var headers = headerListOf(object);
+        if (headers != null) return super.toDataObject(expected, headers.toDataObject());
+
         // If we got a polyglot Value object, then convert it below before letting the remainder be
         // handled by the superclass
         object = NATIVE_MAPPER.fromPython(object);
@@ -72,8 +77,16 @@ public class PythonDataObjectMapper extends NativeDataObjectMapperWithSchema {
         throw new DataException("Can not convert " + sourceType + " to " + unionType + ": value=" + sourceValueStr);
     }
 
+    private static PythonHeaderList headerListOf(Object object) {
+        if (object instanceof PythonHeaderList headers) return headers;
+        if (object instanceof Value value && value.isProxyObject() && value.asProxyObject() instanceof PythonHeaderList headers)
+            return headers;
+        return null;
+    }
+
     @Override
     public Value fromDataObject(DataObject object) {
+        if (object instanceof HeaderList headers) return Value.asValue(new PythonHeaderList(headers, this));
         final var result = NATIVE_MAPPER.toPython(super.fromDataObject(object));
         return result instanceof Value value ? value : null;
     }
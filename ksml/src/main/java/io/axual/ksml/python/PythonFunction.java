@@ -22,6 +22,7 @@ package io.axual.ksml.python;
 
 
 import io.axual.ksml.data.mapper.DataObjectConverter;
+import io.axual.ksml.data.object.DataInteger;
 import io.axual.ksml.data.object.DataNull;
 import io.axual.ksml.data.object.DataObject;
 import io.axual.ksml.data.object.DataString;
@@ -31,6 +32,7 @@ import io.axual.ksml.exception.ExecutionException;
 import io.axual.ksml.exception.TopologyException;
 import io.axual.ksml.execution.FatalError;
 import io.axual.ksml.store.StateStores;
+import io.axual.ksml.type.UserType;
 import io.axual.ksml.user.UserFunction;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.streams.processor.StateStore;
@@ -39,6 +41,7 @@ import org.graalvm.polyglot.Value;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -50,6 +53,25 @@ public class PythonFunction extends UserFunction {
     private static final PythonNativeMapper NATIVE_MAPPER = new PythonNativeMapper();
     private static final PythonDataObjectMapper DATA_OBJECT_MAPPER = new PythonDataObjectMapper(true);
     private static final String QUOTE = "\"";
+    // Code to copy / initialize all global variables
+    private static final String INCLUDE_GLOBALS = "  global stores\n";
+    // Python code template, Java-side PythonTypeConverter handles all collection conversion
+    static final String PYTHON_CODE_TEMPLATE =
+            """
+                    import polyglot
+                    
+                    stores = None
+                    
+                    # global Python code goes here (first argument)
+                    %1$s
+                    
+                    # function definition and expression go here (second argument)
+                    %2$s
+                    
+                    # caller definition goes here (third argument)
+                    @polyglot.export_value
+                    %3$s
+                    """;
     private final DataObjectConverter converter;
     private final Value function;
 
@@ -65,10 +87,52 @@ public class PythonFunction extends UserFunction {
         return new PythonFunction(context, namespace, "condition", name, definition);
     }
 
+    /**
+     * Creates a single function that evaluates a list of conditions in order and returns the index of the first
+     * condition that holds, or -1 if none does. A {@code null} condition always holds. All conditions are called
+     * with the arguments of the returned function, so the arguments are passed into Python only once.
+     * <p>
+     * All conditions are defined in the same Python module, so conditions can not have global code. Conditions
+     * that do not return a boolean raise an error.
+     */
+    public static PythonFunction forRouter(PythonContext context, String namespace, String name, ParameterDefinition[] parameters, List<FunctionDefinition> conditions) {
+        final var arguments = Arrays.stream(parameters).map(ParameterDefinition::name).collect(Collectors.joining(","));
+        final var checkName = name + "_check";
+        final var functionCode = new StringBuilder()
+                .append("def ").append(checkName).append("(result):\n")
+                .append("  if not isinstance(result, bool):\n")
+                .append("    raise TypeError(\"Expected a boolean back from the predicate function\")\n")
+                .append("  return result\n");
+        final var route = new StringBuilder("  return ");
+        var alwaysMatches = false;
+        for (int index = 0; index < conditions.size() && !alwaysMatches; index++) {
+            final var condition = conditions.get(index);
+            if (condition != null) {
+                if (hasGlobalCode(condition))
+                    throw new ExecutionException("Router condition %s.%s can not have global code".formatted(namespace, condition.name()));
+                // Every condition gets its own Python function, since conditions may share the same name
+                final var conditionName = name + "_" + index;
+                functionCode.append(functionCodeOf(loggerName(namespace, "condition", condition.name()), conditionName, condition));
+                route.append(index).append(" if ").append(checkName).append("(").append(conditionName).append("(").append(arguments).append(")) else ");
+            } else {
+                route.append(index);
+                alwaysMatches = true;
+            }
+        }
+        if (!alwaysMatches) route.append("-1");
+        functionCode.append("def ").append(name).append("(").append(arguments).append("):\n").append(route).append("\n");
+
+        final var pyCode = PYTHON_CODE_TEMPLATE.formatted("", functionCode, callerCodeOf(name, parameters));
+        return new PythonFunction(context, namespace, name, parameters, new UserType(DataInteger.DATATYPE), List.of(), pyCode);
+    }
+
     private PythonFunction(PythonContext context, String namespace, String type, String name, FunctionDefinition definition) {
-        super(namespace, name, definition.parameters(), definition.resultType(), definition.storeNames());
+        this(context, namespace, name, definition.parameters(), definition.resultType(), definition.storeNames(), generatePythonCode(namespace, type, name, definition));
+    }
+
+    private PythonFunction(PythonContext context, String namespace, String name, ParameterDefinition[] parameters, UserType resultType, List<String> storeNames, String pyCode) {
+        super(namespace, name, parameters, resultType, storeNames);
         converter = context.converter();
-        final var pyCode = generatePythonCode(namespace, type, name, definition);
         function = context.registerFunction(pyCode, name + "_caller");
         if (function == null) {
             final var pyCodeLines = pyCode.split("\n");
@@ -88,22 +152,7 @@ public class PythonFunction extends UserFunction {
 
     @Override
     public DataObject call(StateStores stores, DataObject... parameters) {
-        // Validate that the defined parameter list matches the amount of passed in parameters
-        if (this.fixedParameterCount > parameters.length) {
-            throw new TopologyException("Function %s.%s - parameter list does not match function spec: minimally expected %d, got %d".formatted(namespace, name, this.parameters.length, parameters.length));
-        }
-        if (this.parameters.length < parameters.length) {
-            throw new TopologyException("Function %s.%s - parameter list does not match function spec: maximally expected %d, got %d".formatted(namespace, name, this.parameters.length, parameters.length));
-        }
-        // Validate the parameter types
-        for (int index = 0; index < parameters.length; index++) {
-            final var declaredParameter = this.parameters[index];
-            final var actualParameter = parameters[index];
-            final var assignable = declaredParameter.type().isAssignableFrom(actualParameter);
-            if (assignable.isNotAssignable()) {
-                throw new TopologyException("Function %s.%s expects parameter #%d (\"%s\") to be %s but %s was passed in: %s".formatted(namespace, name, index + 1, declaredParameter.name(), declaredParameter.type(), actualParameter.type(), assignable));
-            }
-        }
+        checkParameters(parameters);
 
         // Check all parameters and copy them into the interpreter as prefixed globals
         var globalVars = new HashMap<String, Object>();
@@ -124,7 +173,7 @@ public class PythonFunction extends UserFunction {
                 DataObject result = DATA_OBJECT_MAPPER.toDataObject(resultType.dataType(), pyResult);
                 logCall(parameters, result);
                 if (converter != null)
-                    result = converter.convert(DEFAULT_NOTATION, result, resultType);
+                    result = convertResult(converter, DEFAULT_NOTATION, result);
                 checkType(resultType.dataType(), result);
                 return result;
             } else {
@@ -149,32 +198,42 @@ public class PythonFunction extends UserFunction {
         return result;
     }
 
-    private String generatePythonCode(String namespace, String type, String name, FunctionDefinition definition) {
+    private static String generatePythonCode(String namespace, String type, String name, FunctionDefinition definition) {
+        return PYTHON_CODE_TEMPLATE.formatted(
+                globalCodeOf(namespace, type, definition),
+                functionCodeOf(loggerName(namespace, type, name), name, definition),
+                callerCodeOf(name, definition.parameters()));
+    }
+
+    /**
+     * Returns whether a function definition has global code, which runs when the function is defined.
+     */
+    public static boolean hasGlobalCode(FunctionDefinition definition) {
+        if (definition.globalCode() == null) return false;
+        for (final var line : definition.globalCode()) {
+            if (!line.isBlank()) return true;
+        }
+        return false;
+    }
+
+    private static String globalCodeOf(String namespace, String type, FunctionDefinition definition) {
+        // prepare globalCode from the function definition
+        String[] globalCodeLines = getFunctionCode(definition.globalCode(), "");
+        return String.join("\n", injectFunctionLocalVariables(namespace, type, globalCodeLines)) + "\n";
+    }
+
+    static String functionCodeOf(String loggerName, String name, FunctionDefinition definition) {
         // Prepend two spaces of indentation before the function code
         String[] functionCode = getFunctionCode(definition.code(), "  ");
         String[] expressionCode = Arrays.stream(definition.expression()).map(line -> "    " + line).toArray(String[]::new);
 
         // Prepare a list of parameters for the function definition
         String[] defParams = Arrays.stream(definition.parameters()).map(p -> p.name() + (p.isOptional() ? "=None" : "")).toArray(String[]::new);
-        // Prepare a list of parameters for the function calling
-        String[] callParams = Arrays.stream(definition.parameters()).map(ParameterDefinition::name).toArray(String[]::new);
-
-        // prepare globalCode from the function definition
-        String[] globalCodeLines = getFunctionCode(definition.globalCode(), "");
-        final var globalCode = String.join("\n", injectFunctionLocalVariables(namespace, type, globalCodeLines)) + "\n";
 
         // Code to include all global variables
         final var assignStores = definition.storeNames().stream()
                 .map(storeName -> "  " + storeName + " = stores[\"" + storeName + "\"]\n")
                 .collect(Collectors.joining());
-        // Code to copy / initialize all global variables
-        final var includeGlobals = """
-                  global stores
-                """;
-        // globalVars is now pre-converted to Python dict by PythonTypeConverter in Java
-        final var initializeGlobals = """
-                  stores = globalVars["stores"]
-                """;
         // Code to initialize optional parameters with default values
         final var initializeOptionalParams = Arrays.stream(definition.parameters())
                 .filter(ParameterDefinition::isOptional)
@@ -190,53 +249,40 @@ public class PythonFunction extends UserFunction {
                 + "\n";
 
         // Compose the function (if any) and the return statement together
-        final var functionAndExpression = "def " + name + "(" + String.join(",", defParams) + "):\n" +
-                includeGlobals +
-                initFunctionLocalVariables(2, loggerName(namespace, type, name)) +
+        return "def " + name + "(" + String.join(",", defParams) + "):\n" +
+                INCLUDE_GLOBALS +
+                initFunctionLocalVariables(2, loggerName) +
                 assignStores +
                 initializeOptionalParams +
                 String.join("\n", functionCode) + "\n" +
                 "  " + returnStatement + "\n";
+    }
+
+    private static String callerCodeOf(String name, ParameterDefinition[] parameters) {
+        // Prepare a list of parameters for the function definition
+        String[] defParams = Arrays.stream(parameters).map(p -> p.name() + (p.isOptional() ? "=None" : "")).toArray(String[]::new);
+        // Prepare a list of parameters for the function calling
+        String[] callParams = Arrays.stream(parameters).map(ParameterDefinition::name).toArray(String[]::new);
 
         // Prepare the actual caller for the code
         // Parameters are now pre-converted to Python types by PythonTypeConverter in Java
         // Return value is passed as-is; PythonDataObjectMapper handles GraalVM Value conversion
-        final var pyCallerCode = "def " + name + "_caller(globalVars," + String.join(",", defParams) + "):\n" +
-                includeGlobals +
-                initializeGlobals +
+        // globalVars is now pre-converted to Python dict by PythonTypeConverter in Java
+        return "def " + name + "_caller(globalVars," + String.join(",", defParams) + "):\n" +
+                INCLUDE_GLOBALS +
+                "  stores = globalVars[\"stores\"]\n" +
                 "  return " + name + "(" + String.join(",", callParams) + ")\n";
-
-        // Python code template - no longer needs convert_to_python/convert_from_python
-        // as Java-side PythonTypeConverter handles all collection conversion
-        final var pythonCodeTemplate =
-                """
-                        import polyglot
-                        
-                        stores = None
-                        
-                        # global Python code goes here (first argument)
-                        %1$s
-                        
-                        # function definition and expression go here (second argument)
-                        %2$s
-                        
-                        # caller definition goes here (third argument)
-                        @polyglot.export_value
-                        %3$s
-                        """;
-
-        return pythonCodeTemplate.formatted(globalCode, functionAndExpression, pyCallerCode);
     }
 
     private static String[] getFunctionCode(String[] code, String spaces) {
         return Arrays.stream(code).map(line -> spaces + line).toArray(String[]::new);
     }
 
-    private String loggerName(String namespace, String type, String name) {
+    static String loggerName(String namespace, String type, String name) {
         return namespace + "." + type + "." + name;
     }
 
-    private String[] injectFunctionLocalVariables(String namespace, String type, String[] code) {
+    private static String[] injectFunctionLocalVariables(String namespace, String type, String[] code) {
         // Look for "def func():" statements and inject log variable code after all occurrences
         final var result = new ArrayList<String>();
         var injectCode = false;
@@ -262,7 +308,7 @@ public class PythonFunction extends UserFunction {
         return result.toArray(String[]::new);
     }
 
-    private String initFunctionLocalVariables(int indentCount, String loggerName) {
+    private static String initFunctionLocalVariables(int indentCount, String loggerName) {
         final var indent = " ".repeat(indentCount);
         return indent + "global loggerBridge\n" +
                 indent + "log = None\n" +
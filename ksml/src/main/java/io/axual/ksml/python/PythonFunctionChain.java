@@ -0,0 +1,268 @@
+package io.axual.ksml.python;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.exception.DataException;
+import io.axual.ksml.data.mapper.DataObjectConverter;
+import io.axual.ksml.data.mapper.DataObjectFlattener;
+import io.axual.ksml.data.mapper.NativeDataObjectMapper;
+import io.axual.ksml.data.object.DataNull;
+import io.axual.ksml.data.object.DataObject;
+import io.axual.ksml.data.object.DataTuple;
+import io.axual.ksml.data.type.DataType;
+import io.axual.ksml.data.util.ConvertUtil;
+import io.axual.ksml.definition.FunctionDefinition;
+import io.axual.ksml.exception.ExecutionException;
+import io.axual.ksml.exception.TopologyException;
+import io.axual.ksml.execution.FatalError;
+import io.axual.ksml.store.StateStores;
+import io.axual.ksml.type.UserType;
+import io.axual.ksml.user.UserFunction;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.processor.StateStore;
+import org.graalvm.polyglot.Value;
+import org.graalvm.polyglot.proxy.ProxyExecutable;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static io.axual.ksml.type.UserType.DEFAULT_NOTATION;
+
+/**
+ * Calls the functions of consecutive fused pipeline steps in a single Python call. The key and value
+ * are passed into Python once and are handed from step to step as Python values. The result of a
+ * transformation with a declared result type is converted to and checked against that type before the
+ * next step receives it, the same as when the steps are not fused. The final key and value are converted
+ * back and checked against their declared types. The generated code measures the time spent in every
+ * step, which is recorded on the execution time metric of that step.
+ */
+@Slf4j
+public class PythonFunctionChain {
+    private static final AtomicInteger CHAIN_COUNTER = new AtomicInteger();
+    private static final Map<String, StateStore> EMPTY_STORES = new HashMap<>();
+    private static final PythonNativeMapper NATIVE_MAPPER = new PythonNativeMapper();
+    private static final PythonDataObjectMapper DATA_OBJECT_MAPPER = new PythonDataObjectMapper(true);
+    private static final NativeDataObjectMapper FLATTENER = new DataObjectFlattener();
+
+    public enum StepType {
+        FILTER, FILTER_NOT, PEEK, TRANSFORM_VALUE, TRANSFORM_KEY_VALUE
+    }
+
+    /**
+     * A single step of a chain.
+     *
+     * @param type       what the step does with the result of its function
+     * @param definition the function definition, with the parameter and result types filled in
+     * @param invoker    the invoker of the step, which receives the time spent in the step
+     */
+    public record Step(StepType type, FunctionDefinition definition, Invoker invoker) {
+    }
+
+    private final String namespace;
+    private final String name;
+    private final Invoker[] invokers;
+    private final DataObjectConverter converter;
+    private final UserType keyType;
+    private final UserType valueType;
+    private final Value function;
+    // The result types of the steps whose results are converted before the next step, null for other steps
+    private final UserType[] stepResultTypes;
+    private final ConvertUtil.Conversion[] stepConversions;
+    private final ProxyExecutable stepConverter = this::convertStepResult;
+    private ConvertUtil.Conversion keyConversion;
+    private ConvertUtil.Conversion valueConversion;
+
+    /**
+     * Returns the chain step for a function, or {@code null} if the function can not be chained. Only
+     * Python functions without global code are chained, since the global code of all steps would
+     * otherwise end up in the same module.
+     */
+    public static Step stepOf(StepType type, FunctionDefinition definition, UserFunction function, Invoker invoker) {
+        if (!(function instanceof PythonFunction) || PythonFunction.hasGlobalCode(definition)) return null;
+        return new Step(type, definition, invoker);
+    }
+
+    /**
+     * Creates a chain of steps.
+     *
+     * @param context   the Python context to register the chain in
+     * @param namespace the namespace of the functions
+     * @param steps     the steps, in the order they are applied
+     * @param keyType   the key type after the last step
+     * @param valueType the value type after the last step
+     */
+    public PythonFunctionChain(PythonContext context, String namespace, List<Step> steps, UserType keyType, UserType valueType) {
+        this.namespace = namespace;
+        this.name = "fused_" + CHAIN_COUNTER.incrementAndGet();
+        this.invokers = steps.stream().map(Step::invoker).toArray(Invoker[]::new);
+        this.converter = context.converter();
+        // Keys and values that no step replaces are passed on as they are
+        final var changesKey = steps.stream().anyMatch(step -> step.type() == StepType.TRANSFORM_KEY_VALUE);
+        final var changesValue = changesKey || steps.stream().anyMatch(step -> step.type() == StepType.TRANSFORM_VALUE);
+        this.keyType = changesKey ? keyType : null;
+        this.valueType = changesValue ? valueType : null;
+        this.stepResultTypes = new UserType[steps.size()];
+        this.stepConversions = new ConvertUtil.Conversion[steps.size()];
+        // The result of the last step is converted in apply()
+        for (int index = 0; index < steps.size() - 1; index++) {
+            stepResultTypes[index] = convertedResultTypeOf(steps.get(index));
+        }
+
+        final var pyCode = PythonFunction.PYTHON_CODE_TEMPLATE.formatted("import time\n", stepCodeOf(namespace, name, steps), callerCodeOf(name, steps, stepResultTypes));
+        function = context.registerFunction(pyCode, name + "_caller");
+        if (function == null) {
+            log.error("""
+                    Fused functions {} {}
+                    Error in generated Python code:
+                    
+                    {}
+                    """, namespace, name, pyCode);
+            throw new ExecutionException("Error in fused functions: %s.%s".formatted(namespace, name));
+        }
+    }
+
+    /**
+     * Applies all steps to a record.
+     *
+     * @param stores the state stores available to the steps
+     * @param key    the record key
+     * @param value  the record value
+     * @return the resulting key and value, or {@code null} if a filter step dropped the record
+     */
+    public KeyValue<Object, Object> apply(StateStores stores, Object key, Object value) {
+        final var globalVars = new HashMap<String, Object>();
+        globalVars.put("stores", stores != null ? stores : EMPTY_STORES);
+        try {
+            log.debug("Calling fused Python functions: namespace={}, name={}", namespace, name);
+            final var result = function.execute(
+                    NATIVE_MAPPER.toPython(globalVars),
+                    DATA_OBJECT_MAPPER.fromDataObject(FLATTENER.toDataObject(key)),
+                    DATA_OBJECT_MAPPER.fromDataObject(FLATTENER.toDataObject(value)),
+                    stepConverter);
+
+            final var times = result.getArrayElement(3);
+            for (int index = 0; index < times.getArraySize(); index++) {
+                invokers[index].recordExecutionTime(times.getArrayElement(index).asLong());
+            }
+            if (!result.getArrayElement(0).asBoolean()) return null;
+
+            if (keyType != null && keyConversion == null && converter != null)
+                keyConversion = converter.compile(DEFAULT_NOTATION, keyType);
+            if (valueType != null && valueConversion == null && converter != null)
+                valueConversion = converter.compile(DEFAULT_NOTATION, valueType);
+            final Object resultKey = keyType != null ? convert(keyType, keyConversion, result.getArrayElement(1)) : key;
+            final Object resultValue = valueType != null ? convert(valueType, valueConversion, result.getArrayElement(2)) : value;
+            return new KeyValue<>(resultKey, resultValue);
+        } catch (Exception e) {
+            throw FatalError.report(new TopologyException("Error while executing fused functions %s.%s : %s".formatted(namespace, name, e.getMessage()), e));
+        }
+    }
+
+    // Transformations return a new key and/or value, which needs converting unless any result is accepted
+    private static UserType convertedResultTypeOf(Step step) {
+        if (step.type() != StepType.TRANSFORM_VALUE && step.type() != StepType.TRANSFORM_KEY_VALUE) return null;
+        final var resultType = step.definition().resultType();
+        return resultType != null && resultType.dataType() != DataType.UNKNOWN ? resultType : null;
+    }
+
+    // Called from the generated code with the index of a step and its result, returns the converted result
+    private Object convertStepResult(Value... arguments) {
+        final var index = arguments[0].asInt();
+        final var type = stepResultTypes[index];
+        if (stepConversions[index] == null && converter != null)
+            stepConversions[index] = converter.compile(DEFAULT_NOTATION, type);
+        final var result = convert(type, stepConversions[index], arguments[1]);
+        // A key and value are handed back as a list, which the generated code unpacks
+        if (result instanceof DataTuple tuple)
+            return NATIVE_MAPPER.toPython(tuple.elements().stream().map(DATA_OBJECT_MAPPER::fromDataObject).toList());
+        return DATA_OBJECT_MAPPER.fromDataObject(result);
+    }
+
+    private static DataObject convert(UserType type, ConvertUtil.Conversion conversion, Value pyValue) {
+        var result = DATA_OBJECT_MAPPER.toDataObject(type.dataType(), pyValue);
+        if (conversion != null) result = conversion.convert(result);
+        if (result != null && !(result instanceof DataNull)) {
+            final var assignable = type.dataType().isAssignableFrom(result.type());
+            if (assignable.isNotAssignable()) {
+                throw DataException.conversionFailed(type.dataType(), result.type(), assignable);
+            }
+        }
+        return result;
+    }
+
+    private static String stepCodeOf(String namespace, String name, List<Step> steps) {
+        final var code = new StringBuilder();
+        for (int index = 0; index < steps.size(); index++) {
+            final var definition = steps.get(index).definition();
+            code.append(PythonFunction.functionCodeOf(PythonFunction.loggerName(namespace, "function", definition.name()), name + "_" + index, definition));
+        }
+        // The names of the step functions, used to report which step failed
+        code.append(name).append("_names = [")
+                .append(steps.stream().map(step -> "\"" + namespace + "." + step.definition().name() + "\"").collect(Collectors.joining(",")))
+                .append("]\n");
+        return code.toString();
+    }
+
+    private static String callerCodeOf(String name, List<Step> steps, UserType[] stepResultTypes) {
+        final var code = new StringBuilder()
+                .append("def ").append(name).append("_caller(globalVars,key,value,convert):\n")
+                .append("  global stores\n")
+                .append("  stores = globalVars[\"stores\"]\n")
+                .append("  times = []\n")
+                .append("  step = 0\n")
+                .append("  try:\n")
+                .append("    start = time.perf_counter_ns()\n");
+        for (int index = 0; index < steps.size(); index++) {
+            final var type = steps.get(index).type();
+            final var call = name + "_" + index + "(key,value)";
+            code.append("    step = ").append(index).append("\n");
+            switch (type) {
+                case FILTER, FILTER_NOT -> code.append("    result = ").append(call).append("\n");
+                case PEEK -> code.append("    ").append(call).append("\n");
+                case TRANSFORM_VALUE -> code.append("    value = ").append(call).append("\n");
+                case TRANSFORM_KEY_VALUE -> code.append("    key, value = ").append(call).append("\n");
+            }
+            // Results with a declared type are converted before the next step receives them
+            if (stepResultTypes[index] != null) {
+                final var target = type == StepType.TRANSFORM_KEY_VALUE ? "key, value" : "value";
+                code.append("    ").append(target).append(" = convert(").append(index).append(", (").append(target).append("))\n");
+            }
+            // Every step reports its own execution time
+            code.append("    end = time.perf_counter_ns()\n")
+                    .append("    times.append(end - start)\n")
+                    .append("    start = end\n");
+            if (type == StepType.FILTER || type == StepType.FILTER_NOT) {
+                code.append("    if not isinstance(result, bool):\n")
+                        .append("      raise TypeError(\"Expected a boolean back from the predicate function\")\n")
+                        .append("    if ").append(type == StepType.FILTER ? "not result" : "result").append(":\n")
+                        .append("      return (False, key, value, times)\n");
+            }
+        }
+        return code.append("  except Exception as e:\n")
+                .append("    raise RuntimeError(").append(name).append("_names[step] + \": \" + str(e)) from e\n")
+                .append("  return (True, key, value, times)\n")
+                .toString();
+    }
+}
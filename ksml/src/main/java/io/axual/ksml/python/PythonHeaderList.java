@@ -0,0 +1,126 @@
+package io.axual.ksml.python;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.exception.DataException;
+import io.axual.ksml.data.mapper.HeaderList;
+import io.axual.ksml.data.object.DataList;
+import io.axual.ksml.data.object.DataObject;
+import io.axual.ksml.data.util.ValuePrinter;
+import org.graalvm.polyglot.Value;
+import org.graalvm.polyglot.proxy.ProxyArray;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.StringJoiner;
+
+import static io.axual.ksml.dsl.HeaderSchema.HEADER_TYPE;
+
+/**
+ * A {@link ProxyArray} on the headers of a record, which converts a header to Python only when it is accessed.
+ * When converted back, only the headers that were accessed are read back from Python, so all other headers are
+ * written as the original header. Replacing or removing elements turns the proxy into a plain list of headers.
+ */
+public class PythonHeaderList implements ProxyArray {
+    private static final ValuePrinter VALUE_PRINTER = new PythonValuePrinter();
+    private final HeaderList headers;
+    private final PythonDataObjectMapper mapper;
+    private final Object[] accessed;
+    private List<Object> elements;
+
+    public PythonHeaderList(HeaderList headers, PythonDataObjectMapper mapper) {
+        this.headers = headers;
+        this.mapper = mapper;
+        this.accessed = new Object[headers.size()];
+    }
+
+    @Override
+    public Object get(long index) {
+        final var intIndex = toIntIndex(index);
+        if (elements != null) return elements.get(intIndex);
+        if (accessed[intIndex] == null) accessed[intIndex] = mapper.fromDataObject(headers.get(intIndex));
+        return accessed[intIndex];
+    }
+
+    @Override
+    public void set(long index, Value value) {
+        materialize().set(toIntIndex(index), value);
+    }
+
+    @Override
+    public long getSize() {
+        return elements != null ? elements.size() : accessed.length;
+    }
+
+    @Override
+    public boolean remove(long index) {
+        materialize().remove(toIntIndex(index));
+        return true;
+    }
+
+    /**
+     * Converts the headers back to a DataObject. Headers that were not accessed in Python are not converted.
+     *
+     * @return the {@link HeaderList} with the accessed headers replaced, or a plain list of headers if the list was
+     * changed
+     */
+    public DataObject toDataObject() {
+        if (elements != null) {
+            final var result = new DataList(HEADER_TYPE);
+            elements.forEach(element -> result.add(mapper.toDataObject(HEADER_TYPE, element)));
+            return result;
+        }
+        final var replacements = new HashMap<Integer, DataObject>();
+        for (var index = 0; index < accessed.length; index++) {
+            if (accessed[index] != null) replacements.put(index, mapper.toDataObject(HEADER_TYPE, accessed[index]));
+        }
+        return headers.withReplacements(replacements);
+    }
+
+    private List<Object> materialize() {
+        if (elements == null) {
+            final var result = new ArrayList<>(accessed.length);
+            for (var index = 0; index < accessed.length; index++) result.add(get(index));
+            elements = result;
+        }
+        return elements;
+    }
+
+    private static int toIntIndex(long index) {
+        if (index < 0 || index > Integer.MAX_VALUE) {
+            throw new DataException("Python list index " + index + " is out of range for a Java List");
+        }
+        return (int) index;
+    }
+
+    /**
+     * Return a String representation of the headers, in Python format.
+     *
+     * @return String representation of the headers, in Python format
+     */
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        for (var index = 0; index < getSize(); index++) joiner.add(VALUE_PRINTER.print(get(index), true));
+        return joiner.toString();
+    }
+}
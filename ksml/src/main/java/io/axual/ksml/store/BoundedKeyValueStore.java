@@ -0,0 +1,384 @@
+package io.axual.ksml.store;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import com.codahale.metrics.Counter;
+import io.axual.ksml.metric.MetricName;
+import io.axual.ksml.metric.MetricTags;
+import io.axual.ksml.metric.Metrics;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.common.utils.Time;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.processor.StateStore;
+import org.apache.kafka.streams.processor.StateStoreContext;
+import org.apache.kafka.streams.query.Position;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.internals.ChangeLoggingKeyValueBytesStore;
+import org.apache.kafka.streams.state.internals.WrappedStateStore;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * An in-memory key value store that bounds its contents. The store can evict the least recently used entries
+ * when it holds more than a maximum number of entries, expire entries a fixed time after they were written, and
+ * keep values in direct memory instead of on the heap. These options can be combined. Off-heap values are kept in
+ * an {@link OffHeapArena}, which allocates direct memory in large slabs and reuses the blocks of removed values.
+ * <p>
+ * Expired entries are never returned. They are removed by an {@link ExpirationWheel} during writes, so expiring
+ * entries costs a constant amount of work per entry. Evictions are counted in the {@code store-evictions} metric,
+ * tagged with the store name and the eviction reason.
+ * <p>
+ * Like the LRU maps of Kafka Streams, evicted and expired entries are also removed from the changelog of the store.
+ * The keys are deleted through the change-logging layer that wraps the store, which writes a tombstone for every
+ * key, so a restore does not bring them back. Restored entries start a new time to live.
+ */
+public class BoundedKeyValueStore implements KeyValueStore<Bytes, byte[]> {
+    static final String EVICTION_METRIC = "store-evictions";
+    static final String REASON_SIZE = "size";
+    static final String REASON_EXPIRED = "expired";
+    private final String name;
+    private final int maxEntries;
+    private final Duration timeToLive;
+    private final OffHeapArena arena;
+    private final Time time;
+    private final Map<Bytes, Entry> entries;
+    private final ExpirationWheel<Bytes> wheel;
+    private final Counter sizeEvictions;
+    private final Counter expirations;
+    private final Position position = Position.emptyPosition();
+    // Keys that were evicted or expired by the current write, and still have to be removed from the changelog
+    private final List<Bytes> removed = new ArrayList<>();
+    private StateStoreContext context;
+    private KeyValueStore<Bytes, byte[]> changeLogger;
+    private volatile boolean open = false;
+
+    // A value with its expiry time. Values are kept as byte arrays, or as a block in the arena of off-heap stores.
+    private record Entry(byte[] value, long block, int length, long expiresAt) {
+    }
+
+    /**
+     * Creates a bounded store.
+     *
+     * @param name       the name of the store
+     * @param maxEntries the maximum number of entries, or 0 for no maximum
+     * @param timeToLive the time entries are kept after they are written, or {@link Duration#ZERO} to keep them
+     * @param offHeap    whether values are kept in direct memory
+     * @param time       the clock used to expire entries
+     */
+    public BoundedKeyValueStore(String name, int maxEntries, Duration timeToLive, boolean offHeap, Time time) {
+        this.name = name;
+        this.maxEntries = Math.max(maxEntries, 0);
+        this.timeToLive = timeToLive != null && timeToLive.isPositive() ? timeToLive : Duration.ZERO;
+        this.arena = offHeap ? new OffHeapArena() : null;
+        this.time = time;
+        this.sizeEvictions = counter(name, REASON_SIZE);
+        this.expirations = counter(name, REASON_EXPIRED);
+        // Entries are kept in insertion order. Reads and writes move an entry to the end, so the eldest entry is the
+        // least recently used one, while lookups to expire entries do not count as a use.
+        this.entries = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Bytes, Entry> eldest) {
+                if (BoundedKeyValueStore.this.maxEntries == 0 || size() <= BoundedKeyValueStore.this.maxEntries)
+                    return false;
+                release(eldest.getValue());
+                removed.add(eldest.getKey());
+                sizeEvictions.inc();
+                return true;
+            }
+        };
+        this.wheel = this.timeToLive.isPositive() ? new ExpirationWheel<>(this.timeToLive, time.milliseconds()) : null;
+    }
+
+    private static Counter counter(String storeName, String reason) {
+        final var metricName = new MetricName(EVICTION_METRIC, new MetricTags().append("store-name", storeName).append("reason", reason));
+        // All tasks share the counters of a store
+        synchronized (BoundedKeyValueStore.class) {
+            final var existing = Metrics.registry().getCounter(metricName);
+            return existing != null ? existing : Metrics.registry().registerCounter(metricName);
+        }
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public void init(StateStoreContext stateStoreContext, StateStore root) {
+        this.context = stateStoreContext;
+        this.changeLogger = changeLoggerOf(root);
+        if (root != null) {
+            stateStoreContext.register(root, (key, value) -> {
+                synchronized (this) {
+                    if (value == null) {
+                        release(entries.remove(Bytes.wrap(key)));
+                    } else {
+                        write(Bytes.wrap(key), value);
+                    }
+                    // Keys removed while restoring are already deleted later in the changelog, or are deleted
+                    // again when the restored store is written to
+                    removed.clear();
+                }
+            });
+        }
+        open = true;
+    }
+
+    // Finds the change-logging layer between the root store and this store, which is absent when logging is disabled
+    private static KeyValueStore<Bytes, byte[]> changeLoggerOf(StateStore root) {
+        var store = root;
+        while (store instanceof WrappedStateStore<?, ?, ?> wrapped) {
+            if (store instanceof ChangeLoggingKeyValueBytesStore changeLogging) return changeLogging;
+            store = wrapped.wrapped();
+        }
+        return null;
+    }
+
+    @Override
+    public boolean persistent() {
+        return false;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public Position getPosition() {
+        return position;
+    }
+
+    @Override
+    public synchronized byte[] get(Bytes key) {
+        final var entry = entries.get(key);
+        if (!isLive(entry, time.milliseconds())) return null;
+        if (maxEntries > 0) {
+            entries.remove(key);
+            entries.put(key, entry);
+        }
+        return valueOf(entry);
+    }
+
+    @Override
+    public synchronized void put(Bytes key, byte[] value) {
+        if (value == null) {
+            release(entries.remove(key));
+        } else {
+            write(key, value);
+        }
+        updatePosition();
+        logRemoved();
+    }
+
+    @Override
+    public synchronized byte[] putIfAbsent(Bytes key, byte[] value) {
+        final var existing = get(key);
+        if (existing == null) put(key, value);
+        return existing;
+    }
+
+    @Override
+    public synchronized void putAll(List<KeyValue<Bytes, byte[]>> keyValues) {
+        for (final var keyValue : keyValues) put(keyValue.key, keyValue.value);
+    }
+
+    @Override
+    public synchronized byte[] delete(Bytes key) {
+        final var entry = entries.remove(key);
+        updatePosition();
+        final var result = isLive(entry, time.milliseconds()) ? valueOf(entry) : null;
+        release(entry);
+        return result;
+    }
+
+    @Override
+    public synchronized KeyValueIterator<Bytes, byte[]> range(Bytes from, Bytes to) {
+        return snapshot(from, to, null, false);
+    }
+
+    @Override
+    public synchronized KeyValueIterator<Bytes, byte[]> reverseRange(Bytes from, Bytes to) {
+        return snapshot(from, to, null, true);
+    }
+
+    @Override
+    public synchronized KeyValueIterator<Bytes, byte[]> all() {
+        return snapshot(null, null, null, false);
+    }
+
+    @Override
+    public synchronized KeyValueIterator<Bytes, byte[]> reverseAll() {
+        return snapshot(null, null, null, true);
+    }
+
+    @Override
+    public synchronized <PS extends Serializer<P>, P> KeyValueIterator<Bytes, byte[]> prefixScan(P prefix, PS prefixKeySerializer) {
+        return snapshot(null, null, prefixKeySerializer.serialize(null, prefix), false);
+    }
+
+    @Override
+    public synchronized long approximateNumEntries() {
+        return entries.size();
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public void flush() {
+        // Nothing to flush, all entries are kept in memory
+    }
+
+    @Override
+    public synchronized void close() {
+        entries.clear();
+        if (arena != null) arena.clear();
+        if (wheel != null) wheel.clear();
+        open = false;
+    }
+
+    private void write(Bytes key, byte[] value) {
+        final var now = time.milliseconds();
+        expire(now);
+        final var expiresAt = wheel != null ? now + timeToLive.toMillis() : Long.MAX_VALUE;
+        // Removing the entry first moves the key to the end, since a write is a use
+        final var previous = entries.remove(key);
+        release(previous);
+        entries.put(key, newEntry(value, expiresAt));
+        // A key that is written again within the same tick is already scheduled
+        if (wheel != null && (previous == null || wheel.tickOf(previous.expiresAt()) != wheel.tickOf(expiresAt)))
+            wheel.schedule(key, expiresAt);
+    }
+
+    private void expire(long now) {
+        if (wheel == null) return;
+        wheel.advance(now, key -> {
+            // The map is in insertion order, so this lookup does not change the order of use
+            final var entry = entries.get(key);
+            // Keys that were written again after being scheduled have a later expiry time
+            if (entry != null && entry.expiresAt() <= now) {
+                release(entries.remove(key));
+                removed.add(key);
+                expirations.inc();
+            }
+        });
+    }
+
+    // Deleting the removed keys through the change-logging layer writes their tombstones. The layer deletes them from
+    // this store first, which finds nothing to delete.
+    private void logRemoved() {
+        if (removed.isEmpty()) return;
+        final var keys = List.copyOf(removed);
+        removed.clear();
+        if (changeLogger != null) keys.forEach(changeLogger::delete);
+    }
+
+    private void updatePosition() {
+        if (context == null) return;
+        context.recordMetadata().ifPresent(metadata -> {
+            if (metadata.topic() != null) position.withComponent(metadata.topic(), metadata.partition(), metadata.offset());
+        });
+    }
+
+    private static boolean isLive(Entry entry, long now) {
+        return entry != null && entry.expiresAt() > now;
+    }
+
+    private Entry newEntry(byte[] value, long expiresAt) {
+        if (arena == null || !OffHeapArena.fits(value.length)) return new Entry(value, 0, value.length, expiresAt);
+        return new Entry(null, arena.allocate(value), value.length, expiresAt);
+    }
+
+    private byte[] valueOf(Entry entry) {
+        return entry.value() != null ? entry.value() : arena.read(entry.block(), entry.length());
+    }
+
+    private void release(Entry entry) {
+        if (entry != null && entry.value() == null) arena.free(entry.block(), entry.length());
+    }
+
+    // Iterators work on a copy of the matching entries, so the store can be changed while iterating
+    private KeyValueIterator<Bytes, byte[]> snapshot(Bytes from, Bytes to, byte[] prefix, boolean reverse) {
+        final var now = time.milliseconds();
+        final var result = new ArrayList<KeyValue<Bytes, byte[]>>();
+        for (final var entry : entries.entrySet()) {
+            final var key = entry.getKey();
+            if (!isLive(entry.getValue(), now)) continue;
+            if (from != null && key.compareTo(from) < 0) continue;
+            if (to != null && key.compareTo(to) > 0) continue;
+            if (prefix != null && !hasPrefix(key.get(), prefix)) continue;
+            result.add(KeyValue.pair(key, valueOf(entry.getValue())));
+        }
+        result.sort((left, right) -> left.key.compareTo(right.key));
+        if (reverse) Collections.reverse(result);
+        return new SnapshotIterator(result.iterator());
+    }
+
+    private static boolean hasPrefix(byte[] key, byte[] prefix) {
+        return key.length >= prefix.length && Arrays.equals(key, 0, prefix.length, prefix, 0, prefix.length);
+    }
+
+    private static class SnapshotIterator implements KeyValueIterator<Bytes, byte[]> {
+        private final Iterator<KeyValue<Bytes, byte[]>> iterator;
+        private KeyValue<Bytes, byte[]> next;
+
+        private SnapshotIterator(Iterator<KeyValue<Bytes, byte[]>> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null || iterator.hasNext();
+        }
+
+        @Override
+        public KeyValue<Bytes, byte[]> next() {
+            if (next != null) {
+                final var result = next;
+                next = null;
+                return result;
+            }
+            if (!iterator.hasNext()) throw new NoSuchElementException();
+            return iterator.next();
+        }
+
+        @Override
+        public Bytes peekNextKey() {
+            if (next == null && iterator.hasNext()) next = iterator.next();
+            if (next == null) throw new NoSuchElementException();
+            return next.key;
+        }
+
+        @Override
+        public void close() {
+            // Nothing to release, the iterator works on a copy
+        }
+    }
+}
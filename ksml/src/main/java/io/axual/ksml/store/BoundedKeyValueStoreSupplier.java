@@ -0,0 +1,48 @@
+package io.axual.ksml.store;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.common.utils.Time;
+import org.apache.kafka.streams.state.KeyValueBytesStoreSupplier;
+import org.apache.kafka.streams.state.KeyValueStore;
+
+import java.time.Duration;
+
+/**
+ * Supplies {@link BoundedKeyValueStore} instances, one per task.
+ *
+ * @param name       the name of the store
+ * @param maxEntries the maximum number of entries per task, or 0 for no maximum
+ * @param timeToLive the time entries are kept after they are written, or {@link Duration#ZERO} to keep them
+ * @param offHeap    whether values are kept in direct memory
+ */
+public record BoundedKeyValueStoreSupplier(String name, int maxEntries, Duration timeToLive, boolean offHeap) implements KeyValueBytesStoreSupplier {
+    @Override
+    public KeyValueStore<Bytes, byte[]> get() {
+        return new BoundedKeyValueStore(name, maxEntries, timeToLive, offHeap, Time.SYSTEM);
+    }
+
+    @Override
+    public String metricsScope() {
+        return "in-memory-bounded";
+    }
+}
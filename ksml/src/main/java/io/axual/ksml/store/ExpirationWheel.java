@@ -0,0 +1,95 @@
+package io.axual.ksml.store;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.function.Consumer;
+
+/**
+ * A time wheel that finds the keys whose time to live has passed, without scanning all keys. Time is divided in
+ * ticks of a fixed length and every slot of the wheel holds the keys that expire during one tick. Advancing the
+ * wheel drains the slots of all ticks that have fully passed.
+ * <p>
+ * A key may be scheduled more than once when it is written again. The wheel reports every scheduled occurrence,
+ * so callers check the current expiry time of a reported key before removing it.
+ *
+ * @param <K> the key type
+ */
+final class ExpirationWheel<K> {
+    private static final int TICKS_PER_TIME_TO_LIVE = 64;
+    private final long tickMs;
+    private final ArrayDeque<K>[] slots;
+    private long nextTick;
+
+    @SuppressWarnings("unchecked")
+    ExpirationWheel(Duration timeToLive, long now) {
+        final var ttlMs = Math.max(timeToLive.toMillis(), 1);
+        tickMs = Math.max(ttlMs / TICKS_PER_TIME_TO_LIVE, 1);
+        // Keys expire at most one time to live ahead, so they never land in a slot that is about to be drained
+        slots = new ArrayDeque[(int) (ttlMs / tickMs) + 2];
+        for (int index = 0; index < slots.length; index++) slots[index] = new ArrayDeque<>();
+        nextTick = now / tickMs;
+    }
+
+    /**
+     * Returns the tick in which a point in time falls.
+     */
+    long tickOf(long time) {
+        return time / tickMs;
+    }
+
+    /**
+     * Schedules a key to be reported once its expiry time has passed.
+     *
+     * @param key       the key
+     * @param expiresAt the expiry time in milliseconds
+     */
+    void schedule(K key, long expiresAt) {
+        slots[Math.floorMod(tickOf(expiresAt), slots.length)].add(key);
+    }
+
+    /**
+     * Reports all keys that were scheduled to expire in ticks that have fully passed at the given time.
+     *
+     * @param now     the current time in milliseconds
+     * @param expired receives the reported keys
+     */
+    void advance(long now, Consumer<K> expired) {
+        final var currentTick = tickOf(now);
+        var drained = 0;
+        while (nextTick < currentTick && drained < slots.length) {
+            final var slot = slots[Math.floorMod(nextTick, slots.length)];
+            for (var key = slot.poll(); key != null; key = slot.poll()) expired.accept(key);
+            nextTick++;
+            drained++;
+        }
+        // After a long pause all slots are drained, so the wheel can continue at the current tick
+        if (nextTick < currentTick) nextTick = currentTick;
+    }
+
+    /**
+     * Removes all scheduled keys.
+     */
+    void clear() {
+        for (final var slot : slots) slot.clear();
+    }
+}
@@ -0,0 +1,157 @@
+package io.axual.ksml.store;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import com.codahale.metrics.Counter;
+import io.axual.ksml.metric.MetricName;
+import io.axual.ksml.metric.MetricTags;
+import io.axual.ksml.metric.Metrics;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.utils.Bytes;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * Keeps recently looked up values of a global table in decoded form, keyed by their serialized key, so joins with
+ * the global table do not read and deserialize the same values from its state store for every record.
+ * <p>
+ * The cache is shared by all stream threads of an application instance, like the global store itself. Its entries
+ * are spread over segments, which are LRU maps with their own lock. Updates of the global store remove the updated
+ * key from the cache through a {@link NearCacheInvalidatingKeyValueStore}. Every update also increments the
+ * generation of its segment, so a value that was read from the store before the update is not cached after it.
+ * Keys that are not in the global table are cached as well. Hits and misses are counted in the
+ * {@code near-cache-hits} and {@code near-cache-misses} metrics, tagged with the store name.
+ * <p>
+ * Cached values are shared between stream threads and must not be modified.
+ */
+public class GlobalTableNearCache {
+    static final String HITS_METRIC = "near-cache-hits";
+    static final String MISSES_METRIC = "near-cache-misses";
+    private static final int SEGMENT_COUNT = 16;
+    // Marks keys that are not in the global table
+    private static final Object ABSENT = new Object();
+    private final String topic;
+    private final Serializer<Object> keySerializer;
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+    private final Counter hits;
+    private final Counter misses;
+
+    private static final class Segment extends LinkedHashMap<Bytes, Object> {
+        private final int maxEntries;
+        private long generation;
+
+        private Segment(int maxEntries) {
+            // Entries are kept in access order, so the eldest entry is the least recently used one
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Bytes, Object> eldest) {
+            return size() > maxEntries;
+        }
+    }
+
+    /**
+     * Creates a near-cache.
+     *
+     * @param storeName     the name of the global store, used to tag the metrics
+     * @param topic         the topic of the global table, which its store uses to serialize keys
+     * @param maxEntries    the maximum number of cached values
+     * @param keySerializer the serializer of the keys of the global table
+     */
+    public GlobalTableNearCache(String storeName, String topic, int maxEntries, Serializer<Object> keySerializer) {
+        this.topic = topic;
+        this.keySerializer = keySerializer;
+        final var segmentSize = Math.max((maxEntries + SEGMENT_COUNT - 1) / SEGMENT_COUNT, 1);
+        for (int index = 0; index < SEGMENT_COUNT; index++) segments[index] = new Segment(segmentSize);
+        this.hits = counter(HITS_METRIC, storeName);
+        this.misses = counter(MISSES_METRIC, storeName);
+    }
+
+    private static Counter counter(String metric, String storeName) {
+        final var metricName = new MetricName(metric, new MetricTags().append("store-name", storeName));
+        synchronized (GlobalTableNearCache.class) {
+            final var existing = Metrics.registry().getCounter(metricName);
+            return existing != null ? existing : Metrics.registry().registerCounter(metricName);
+        }
+    }
+
+    /**
+     * Returns the value of a key, from the cache or else from the loader.
+     *
+     * @param key    the key to look up
+     * @param loader reads the value of a key from the global store, returning {@code null} for unknown keys
+     * @return the value, or {@code null} if the key is not in the global table
+     */
+    public Object get(Object key, UnaryOperator<Object> loader) {
+        final var serialized = keySerializer.serialize(topic, key);
+        if (serialized == null) return loader.apply(key);
+        final var bytes = Bytes.wrap(serialized);
+        final var segment = segmentOf(bytes);
+        final long generation;
+        synchronized (segment) {
+            final var cached = segment.get(bytes);
+            if (cached != null) {
+                hits.inc();
+                return cached != ABSENT ? cached : null;
+            }
+            generation = segment.generation;
+        }
+        misses.inc();
+        final var result = loader.apply(key);
+        synchronized (segment) {
+            if (segment.generation == generation) segment.put(bytes, result != null ? result : ABSENT);
+        }
+        return result;
+    }
+
+    /**
+     * Removes a key that was updated in the global store.
+     *
+     * @param key the serialized key
+     */
+    public void invalidate(Bytes key) {
+        final var segment = segmentOf(key);
+        synchronized (segment) {
+            segment.generation++;
+            segment.remove(key);
+        }
+    }
+
+    /**
+     * Removes all cached values, for instance when the global store is (re)initialized.
+     */
+    public void invalidateAll() {
+        for (final var segment : segments) {
+            synchronized (segment) {
+                segment.generation++;
+                segment.clear();
+            }
+        }
+    }
+
+    private Segment segmentOf(Bytes key) {
+        return segments[(key.hashCode() & 0x7FFFFFFF) % SEGMENT_COUNT];
+    }
+}
@@ -0,0 +1,259 @@
+package io.axual.ksml.store;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.definition.RocksDbDefinition;
+import io.axual.ksml.dsl.KSMLDSL;
+import io.axual.ksml.metric.MetricName;
+import io.axual.ksml.metric.MetricTags;
+import io.axual.ksml.metric.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.streams.state.RocksDBConfigSetter;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.BloomFilter;
+import org.rocksdb.Cache;
+import org.rocksdb.CompactionStyle;
+import org.rocksdb.CompressionType;
+import org.rocksdb.LRUCache;
+import org.rocksdb.Options;
+import org.rocksdb.RocksObject;
+import org.rocksdb.Statistics;
+import org.rocksdb.TickerType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Applies the RocksDB settings of KSML store definitions to the stores that Kafka Streams opens. Kafka Streams
+ * creates an instance of this class for every RocksDB instance it opens, so one per store, partition and segment.
+ * The settings are looked up by store name, in a table that is filled while the topology is built.
+ * <p>
+ * Block caches that are shared by name are reference counted and closed when the last store using them is closed.
+ * When statistics are enabled for a store, the tickers of all its open instances are summed and exported as
+ * gauges, tagged with the store name.
+ */
+@Slf4j
+public class KsmlRocksDBConfigSetter implements RocksDBConfigSetter {
+    // Kafka Streams uses a block cache of 50 MB per store by default
+    private static final long DEFAULT_BLOCK_CACHE_SIZE = 50L * 1024 * 1024;
+    private static final List<TickerType> EXPORTED_TICKERS = List.of(
+            TickerType.BLOCK_CACHE_HIT,
+            TickerType.BLOCK_CACHE_MISS,
+            TickerType.BLOOM_FILTER_USEFUL,
+            TickerType.MEMTABLE_HIT,
+            TickerType.MEMTABLE_MISS,
+            TickerType.BYTES_WRITTEN,
+            TickerType.BYTES_READ,
+            TickerType.COMPACT_READ_BYTES,
+            TickerType.COMPACT_WRITE_BYTES,
+            TickerType.STALL_MICROS);
+    private static final Map<String, RocksDbDefinition> SETTINGS = new ConcurrentHashMap<>();
+    private static final Map<String, SharedCache> SHARED_CACHES = new HashMap<>();
+    private static final Map<String, StoreStatistics> STATISTICS = new HashMap<>();
+
+    private final List<RocksObject> ownedObjects = new ArrayList<>();
+    private String sharedCacheName;
+    private String statisticsStoreName;
+    private Statistics statistics;
+
+    private static class SharedCache {
+        private final Cache cache;
+        private int users;
+
+        private SharedCache(long size) {
+            cache = new LRUCache(size);
+        }
+    }
+
+    private static class StoreStatistics {
+        private final Set<Statistics> open = new HashSet<>();
+        private final long[] closedCounts = new long[EXPORTED_TICKERS.size()];
+        private final List<MetricName> metricNames = new ArrayList<>();
+
+        private synchronized long count(int ticker) {
+            var result = closedCounts[ticker];
+            for (final var instance : open) result += instance.getTickerCount(EXPORTED_TICKERS.get(ticker));
+            return result;
+        }
+    }
+
+    /**
+     * Registers the RocksDB settings of a store. Settings of stores that are registered again are replaced.
+     *
+     * @param storeName the name of the store
+     * @param settings  the RocksDB settings of the store
+     */
+    public static void register(String storeName, RocksDbDefinition settings) {
+        SETTINGS.put(storeName, settings);
+    }
+
+    /**
+     * Returns the settings of a store. RocksDB instances of segmented stores are named after their store, followed
+     * by a dot and a segment identifier, so these names are looked up without their suffix.
+     *
+     * @param instanceName the name that Kafka Streams gives to the RocksDB instance
+     * @return the settings of the store, or {@code null} if the store has no settings
+     */
+    static RocksDbDefinition settingsOf(String instanceName) {
+        return SETTINGS.get(storeNameOf(instanceName));
+    }
+
+    @Override
+    public void setConfig(String storeName, Options options, Map<String, Object> configs) {
+        final var settings = settingsOf(storeName);
+        if (settings == null) return;
+
+        final var tableConfig = (BlockBasedTableConfig) options.tableFormatConfig();
+        if (settings.sharedBlockCache() != null) {
+            sharedCacheName = settings.sharedBlockCache();
+            tableConfig.setBlockCache(acquireSharedCache(sharedCacheName));
+        } else if (settings.blockCacheSize() != null) {
+            final var cache = new LRUCache(settings.blockCacheSize());
+            ownedObjects.add(cache);
+            tableConfig.setBlockCache(cache);
+        }
+        if (settings.bloomFilter() != null) {
+            if (settings.bloomFilter()) {
+                final var filter = new BloomFilter();
+                ownedObjects.add(filter);
+                tableConfig.setFilterPolicy(filter);
+            } else {
+                tableConfig.setFilterPolicy(null);
+            }
+        }
+        options.setTableFormatConfig(tableConfig);
+
+        if (settings.compression() != null) options.setCompressionType(compressionType(settings.compression()));
+        if (settings.writeBufferSize() != null) options.setWriteBufferSize(settings.writeBufferSize());
+        if (settings.maxWriteBuffers() != null) options.setMaxWriteBufferNumber(settings.maxWriteBuffers());
+        if (settings.compactionStyle() != null) options.setCompactionStyle(compactionStyle(settings.compactionStyle()));
+
+        if (Boolean.TRUE.equals(settings.statistics())) {
+            // Statistics set here replace the statistics based metrics that Kafka Streams records itself
+            statistics = new Statistics();
+            options.setStatistics(statistics);
+            statisticsStoreName = storeNameOf(storeName);
+            openStatistics(statisticsStoreName, statistics);
+        }
+        log.debug("Applied RocksDB settings to store instance {}: {}", storeName, settings);
+    }
+
+    @Override
+    public void close(String storeName, Options options) {
+        if (statistics != null) {
+            closeStatistics(statisticsStoreName, statistics);
+            statistics.close();
+            statistics = null;
+        }
+        if (sharedCacheName != null) {
+            releaseSharedCache(sharedCacheName);
+            sharedCacheName = null;
+        }
+        ownedObjects.forEach(RocksObject::close);
+        ownedObjects.clear();
+    }
+
+    private static String storeNameOf(String instanceName) {
+        var name = instanceName;
+        while (!SETTINGS.containsKey(name) && name.lastIndexOf('.') > 0) name = name.substring(0, name.lastIndexOf('.'));
+        return name;
+    }
+
+    private static synchronized Cache acquireSharedCache(String cacheName) {
+        final var shared = SHARED_CACHES.computeIfAbsent(cacheName, _ -> new SharedCache(sharedCacheSize(cacheName)));
+        shared.users++;
+        return shared.cache;
+    }
+
+    private static synchronized void releaseSharedCache(String cacheName) {
+        final var shared = SHARED_CACHES.get(cacheName);
+        if (shared == null || --shared.users > 0) return;
+        SHARED_CACHES.remove(cacheName);
+        shared.cache.close();
+    }
+
+    private static long sharedCacheSize(String cacheName) {
+        return SETTINGS.values().stream()
+                .filter(settings -> cacheName.equals(settings.sharedBlockCache()) && settings.blockCacheSize() != null)
+                .mapToLong(RocksDbDefinition::blockCacheSize)
+                .max()
+                .orElse(DEFAULT_BLOCK_CACHE_SIZE);
+    }
+
+    private static synchronized void openStatistics(String storeName, Statistics instance) {
+        var store = STATISTICS.get(storeName);
+        if (store == null) {
+            final var created = new StoreStatistics();
+            for (int index = 0; index < EXPORTED_TICKERS.size(); index++) {
+                final var ticker = index;
+                final var metricName = new MetricName(metricName(EXPORTED_TICKERS.get(index)), new MetricTags().append("store-name", storeName));
+                Metrics.registry().registerGauge(metricName, () -> (double) created.count(ticker));
+                created.metricNames.add(metricName);
+            }
+            STATISTICS.put(storeName, created);
+            store = created;
+        }
+        synchronized (store) {
+            store.open.add(instance);
+        }
+    }
+
+    private static synchronized void closeStatistics(String storeName, Statistics instance) {
+        final var store = STATISTICS.get(storeName);
+        if (store == null) return;
+        synchronized (store) {
+            if (!store.open.remove(instance)) return;
+            for (int index = 0; index < EXPORTED_TICKERS.size(); index++)
+                store.closedCounts[index] += instance.getTickerCount(EXPORTED_TICKERS.get(index));
+            if (!store.open.isEmpty()) return;
+        }
+        STATISTICS.remove(storeName);
+        store.metricNames.forEach(Metrics.registry()::remove);
+    }
+
+    private static String metricName(TickerType ticker) {
+        return "rocksdb-" + ticker.name().toLowerCase().replace('_', '-');
+    }
+
+    private static CompressionType compressionType(String compression) {
+        return switch (compression) {
+            case KSMLDSL.Stores.RocksDb.COMPRESSION_SNAPPY -> CompressionType.SNAPPY_COMPRESSION;
+            case KSMLDSL.Stores.RocksDb.COMPRESSION_LZ4 -> CompressionType.LZ4_COMPRESSION;
+            case KSMLDSL.Stores.RocksDb.COMPRESSION_LZ4HC -> CompressionType.LZ4HC_COMPRESSION;
+            case KSMLDSL.Stores.RocksDb.COMPRESSION_ZSTD -> CompressionType.ZSTD_COMPRESSION;
+            case KSMLDSL.Stores.RocksDb.COMPRESSION_ZLIB -> CompressionType.ZLIB_COMPRESSION;
+            default -> CompressionType.NO_COMPRESSION;
+        };
+    }
+
+    private static CompactionStyle compactionStyle(String compactionStyle) {
+        return switch (compactionStyle) {
+            case KSMLDSL.Stores.RocksDb.COMPACTION_UNIVERSAL -> CompactionStyle.UNIVERSAL;
+            case KSMLDSL.Stores.RocksDb.COMPACTION_FIFO -> CompactionStyle.FIFO;
+            default -> CompactionStyle.LEVEL;
+        };
+    }
+}
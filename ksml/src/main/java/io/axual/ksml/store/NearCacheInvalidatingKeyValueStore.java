@@ -0,0 +1,177 @@
+package io.axual.ksml.store;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.processor.StateStore;
+import org.apache.kafka.streams.processor.StateStoreContext;
+import org.apache.kafka.streams.query.Position;
+import org.apache.kafka.streams.query.PositionBound;
+import org.apache.kafka.streams.query.Query;
+import org.apache.kafka.streams.query.QueryConfig;
+import org.apache.kafka.streams.query.QueryResult;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.TimestampedBytesStore;
+
+import java.util.List;
+
+/**
+ * Wraps the store of a global table, to remove every key that is written to the store from a
+ * {@link GlobalTableNearCache}. All other calls are passed to the wrapped store unchanged.
+ */
+public class NearCacheInvalidatingKeyValueStore implements KeyValueStore<Bytes, byte[]> {
+    private final KeyValueStore<Bytes, byte[]> inner;
+    private final GlobalTableNearCache cache;
+
+    // Kafka Streams checks the marker interface to decide on the format of the stored values, so it is kept
+    private static final class Timestamped extends NearCacheInvalidatingKeyValueStore implements TimestampedBytesStore {
+        private Timestamped(KeyValueStore<Bytes, byte[]> inner, GlobalTableNearCache cache) {
+            super(inner, cache);
+        }
+    }
+
+    private NearCacheInvalidatingKeyValueStore(KeyValueStore<Bytes, byte[]> inner, GlobalTableNearCache cache) {
+        this.inner = inner;
+        this.cache = cache;
+    }
+
+    /**
+     * Wraps a store, keeping its timestamped format.
+     *
+     * @param inner the store to wrap
+     * @param cache the cache to remove written keys from
+     * @return the wrapped store
+     */
+    public static NearCacheInvalidatingKeyValueStore wrap(KeyValueStore<Bytes, byte[]> inner, GlobalTableNearCache cache) {
+        return inner instanceof TimestampedBytesStore
+                ? new Timestamped(inner, cache)
+                : new NearCacheInvalidatingKeyValueStore(inner, cache);
+    }
+
+    @Override
+    public String name() {
+        return inner.name();
+    }
+
+    @Override
+    public void init(StateStoreContext stateStoreContext, StateStore root) {
+        // Stores are restored without passing through this wrapper, so nothing cached before can be trusted
+        cache.invalidateAll();
+        inner.init(stateStoreContext, root);
+    }
+
+    @Override
+    public boolean persistent() {
+        return inner.persistent();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return inner.isOpen();
+    }
+
+    @Override
+    public Position getPosition() {
+        return inner.getPosition();
+    }
+
+    @Override
+    public <R> QueryResult<R> query(Query<R> query, PositionBound positionBound, QueryConfig config) {
+        return inner.query(query, positionBound, config);
+    }
+
+    @Override
+    public byte[] get(Bytes key) {
+        return inner.get(key);
+    }
+
+    // Keys are removed from the cache after they are written, see GlobalTableNearCache
+    @Override
+    public void put(Bytes key, byte[] value) {
+        inner.put(key, value);
+        cache.invalidate(key);
+    }
+
+    @Override
+    public byte[] putIfAbsent(Bytes key, byte[] value) {
+        final var result = inner.putIfAbsent(key, value);
+        cache.invalidate(key);
+        return result;
+    }
+
+    @Override
+    public void putAll(List<KeyValue<Bytes, byte[]>> entries) {
+        inner.putAll(entries);
+        for (final var entry : entries) cache.invalidate(entry.key);
+    }
+
+    @Override
+    public byte[] delete(Bytes key) {
+        final var result = inner.delete(key);
+        cache.invalidate(key);
+        return result;
+    }
+
+    @Override
+    public KeyValueIterator<Bytes, byte[]> range(Bytes from, Bytes to) {
+        return inner.range(from, to);
+    }
+
+    @Override
+    public KeyValueIterator<Bytes, byte[]> reverseRange(Bytes from, Bytes to) {
+        return inner.reverseRange(from, to);
+    }
+
+    @Override
+    public KeyValueIterator<Bytes, byte[]> all() {
+        return inner.all();
+    }
+
+    @Override
+    public KeyValueIterator<Bytes, byte[]> reverseAll() {
+        return inner.reverseAll();
+    }
+
+    @Override
+    public <PS extends Serializer<P>, P> KeyValueIterator<Bytes, byte[]> prefixScan(P prefix, PS prefixKeySerializer) {
+        return inner.prefixScan(prefix, prefixKeySerializer);
+    }
+
+    @Override
+    public long approximateNumEntries() {
+        return inner.approximateNumEntries();
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public void flush() {
+        inner.flush();
+    }
+
+    @Override
+    public void close() {
+        inner.close();
+        cache.invalidateAll();
+    }
+}
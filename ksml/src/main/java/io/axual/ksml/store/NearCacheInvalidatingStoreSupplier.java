@@ -0,0 +1,48 @@
+package io.axual.ksml.store;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.state.KeyValueBytesStoreSupplier;
+import org.apache.kafka.streams.state.KeyValueStore;
+
+/**
+ * Supplies the store of a global table wrapped in a {@link NearCacheInvalidatingKeyValueStore}.
+ *
+ * @param inner the supplier of the wrapped store
+ * @param cache the near-cache of the global table
+ */
+public record NearCacheInvalidatingStoreSupplier(KeyValueBytesStoreSupplier inner, GlobalTableNearCache cache) implements KeyValueBytesStoreSupplier {
+    @Override
+    public String name() {
+        return inner.name();
+    }
+
+    @Override
+    public KeyValueStore<Bytes, byte[]> get() {
+        return NearCacheInvalidatingKeyValueStore.wrap(inner.get(), cache);
+    }
+
+    @Override
+    public String metricsScope() {
+        return inner.metricsScope();
+    }
+}
@@ -0,0 +1,140 @@
+package io.axual.ksml.store;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps the values of an off-heap store in large direct buffers, called slabs. Slabs are split into blocks with a
+ * power of two size, and freed blocks are kept per size to be reused for later values. Direct memory is therefore
+ * allocated in large steps, instead of as a direct buffer per value that is only released by the garbage collector.
+ * <p>
+ * Slabs are only released when the arena is cleared, so the arena keeps the most memory its store ever needed,
+ * rounded up to the block sizes. Values that are empty or larger than a slab are not kept in the arena. An arena is
+ * not thread-safe.
+ */
+final class OffHeapArena {
+    static final int SLAB_SIZE = 1 << 20;
+    private static final int MIN_BLOCK_SHIFT = 4;
+    private static final int MAX_BLOCK_SHIFT = 20;
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+    private final long[][] freeBlocks = new long[MAX_BLOCK_SHIFT + 1][];
+    private final int[] freeCounts = new int[MAX_BLOCK_SHIFT + 1];
+    private int slabPosition = SLAB_SIZE;
+
+    /**
+     * Returns whether a value of the given length can be kept in the arena.
+     */
+    static boolean fits(int length) {
+        return length > 0 && length <= SLAB_SIZE;
+    }
+
+    /**
+     * Copies a value into a free block.
+     *
+     * @param value the value, which must fit in the arena
+     * @return the block the value was copied to
+     */
+    long allocate(byte[] value) {
+        final var shift = shiftOf(value.length);
+        final var block = freeCounts[shift] > 0 ? freeBlocks[shift][--freeCounts[shift]] : newBlock(shift);
+        slabs.get(slabOf(block)).put(offsetOf(block), value);
+        return block;
+    }
+
+    /**
+     * Copies a value out of its block.
+     *
+     * @param block  the block of the value
+     * @param length the length of the value
+     * @return a copy of the value
+     */
+    byte[] read(long block, int length) {
+        final var result = new byte[length];
+        slabs.get(slabOf(block)).get(offsetOf(block), result);
+        return result;
+    }
+
+    /**
+     * Makes the block of a value available for other values.
+     *
+     * @param block  the block of the value
+     * @param length the length of the value
+     */
+    void free(long block, int length) {
+        addFree(shiftOf(length), block);
+    }
+
+    /**
+     * Releases all slabs.
+     */
+    void clear() {
+        slabs.clear();
+        Arrays.fill(freeBlocks, null);
+        Arrays.fill(freeCounts, 0);
+        slabPosition = SLAB_SIZE;
+    }
+
+    private long newBlock(int shift) {
+        final var size = 1 << shift;
+        if (slabPosition + size > SLAB_SIZE) {
+            // The rest of the current slab is split into smaller blocks, so it is not lost
+            while (SLAB_SIZE - slabPosition >= 1 << MIN_BLOCK_SHIFT) {
+                final var restShift = 31 - Integer.numberOfLeadingZeros(SLAB_SIZE - slabPosition);
+                addFree(restShift, blockOf(slabs.size() - 1, slabPosition));
+                slabPosition += 1 << restShift;
+            }
+            slabs.add(ByteBuffer.allocateDirect(SLAB_SIZE));
+            slabPosition = 0;
+        }
+        final var block = blockOf(slabs.size() - 1, slabPosition);
+        slabPosition += size;
+        return block;
+    }
+
+    private void addFree(int shift, long block) {
+        if (freeBlocks[shift] == null) {
+            freeBlocks[shift] = new long[16];
+        } else if (freeCounts[shift] == freeBlocks[shift].length) {
+            freeBlocks[shift] = Arrays.copyOf(freeBlocks[shift], freeCounts[shift] * 2);
+        }
+        freeBlocks[shift][freeCounts[shift]++] = block;
+    }
+
+    private static int shiftOf(int length) {
+        return Math.max(MIN_BLOCK_SHIFT, 32 - Integer.numberOfLeadingZeros(length - 1));
+    }
+
+    private static long blockOf(int slab, int offset) {
+        return ((long) slab << 32) | offset;
+    }
+
+    private static int slabOf(long block) {
+        return (int) (block >>> 32);
+    }
+
+    private static int offsetOf(long block) {
+        return (int) block;
+    }
+}
@@ -70,9 +70,15 @@ public class StoreUtil {
         return result;
     }
 
+    // Makes the RocksDB settings of a persistent store known to the config setter that Kafka Streams creates for it
+    private static void registerRocksDbSettings(StateStoreDefinition store) {
+        if (store.persistent() && store.rocksDb() != null) KsmlRocksDBConfigSetter.register(store.name(), store.rocksDb());
+    }
+
     private static KeyValueBytesStoreSupplier getKeyValueStoreSupplier(KeyValueStateStoreDefinition store) {
+        registerRocksDbSettings(store);
         if (!store.persistent()) {
-            return Stores.inMemoryKeyValueStore(store.name());
+            return getInMemoryKeyValueStoreSupplier(store);
         }
         if (store.versioned()) {
             return Stores.persistentVersionedKeyValueStore(store.name(), store.historyRetention(), store.segmentInterval());
@@ -83,6 +89,12 @@ public class StoreUtil {
         return Stores.persistentKeyValueStore(store.name());
     }
 
+    private static KeyValueBytesStoreSupplier getInMemoryKeyValueStoreSupplier(KeyValueStateStoreDefinition store) {
+        return store.bounded()
+                ? new BoundedKeyValueStoreSupplier(store.name(), store.maxEntries(), store.timeToLive(), store.offHeap())
+                : Stores.inMemoryKeyValueStore(store.name());
+    }
+
     @SuppressWarnings("java:S1452") // wildcard is unavoidable: KV/Session/Window store builders have unrelated type parameters
     public static StoreBuilder<?> getStoreBuilder(StateStoreDefinition store) {
         if (store instanceof KeyValueStateStoreDefinition kvStore) {
@@ -96,26 +108,27 @@ public class StoreUtil {
     }
 
     private static StoreBuilder<?> getKeyValueStateStoreBuilder(KeyValueStateStoreDefinition store) {
+        registerRocksDbSettings(store);
         final var keyType = new StreamDataType(store.keyType(), true);
-        final var valueType = new StreamDataType(store.valueType(), false);
+        final var valueSerde = new StreamDataType(store.valueType(), false).internalSerde(store.objectCacheSize());
         StoreBuilder<?> storeBuilder;
         if (store.persistent()) {
             if (store.versioned()) {
                 final var supplier = Stores.persistentVersionedKeyValueStore(store.name(), store.historyRetention(), store.segmentInterval());
-                storeBuilder = Stores.versionedKeyValueStoreBuilder(supplier, keyType.serde(), valueType.serde());
+                storeBuilder = Stores.versionedKeyValueStoreBuilder(supplier, keyType.serde(), valueSerde);
             } else {
                 final var supplier = store.timestamped()
                         ? Stores.persistentTimestampedKeyValueStore(store.name())
                         : Stores.persistentKeyValueStore(store.name());
                 storeBuilder = store.timestamped()
-                        ? Stores.timestampedKeyValueStoreBuilder(supplier, keyType.serde(), valueType.serde())
-                        : Stores.keyValueStoreBuilder(supplier, keyType.serde(), valueType.serde());
+                        ? Stores.timestampedKeyValueStoreBuilder(supplier, keyType.serde(), valueSerde)
+                        : Stores.keyValueStoreBuilder(supplier, keyType.serde(), valueSerde);
             }
         } else {
-            final var supplier = Stores.inMemoryKeyValueStore(store.name());
+            final var supplier = getInMemoryKeyValueStoreSupplier(store);
             storeBuilder = store.timestamped()
-                    ? Stores.timestampedKeyValueStoreBuilder(supplier, keyType.serde(), valueType.serde())
-                    : Stores.keyValueStoreBuilder(supplier, keyType.serde(), valueType.serde());
+                    ? Stores.timestampedKeyValueStoreBuilder(supplier, keyType.serde(), valueSerde)
+                    : Stores.keyValueStoreBuilder(supplier, keyType.serde(), valueSerde);
         }
         storeBuilder = store.caching() ? storeBuilder.withCachingEnabled() : storeBuilder.withCachingDisabled();
         storeBuilder = store.logging() ? storeBuilder.withLoggingEnabled(new HashMap<>()) : storeBuilder.withLoggingDisabled();
@@ -123,6 +136,7 @@ public class StoreUtil {
     }
 
     private static SessionBytesStoreSupplier getSessionStoreSupplier(SessionStateStoreDefinition store) {
+        registerRocksDbSettings(store);
         return store.persistent()
                 ? Stores.persistentSessionStore(store.name(), store.retention())
                 : Stores.inMemorySessionStore(store.name(), store.retention());
@@ -130,15 +144,16 @@ public class StoreUtil {
 
     private static StoreBuilder<?> getSessionStateStoreBuilder(SessionStateStoreDefinition store) {
         final var keyType = new StreamDataType(store.keyType(), true);
-        final var valueType = new StreamDataType(store.valueType(), false);
+        final var valueSerde = new StreamDataType(store.valueType(), false).internalSerde(store.objectCacheSize());
         final var supplier = getSessionStoreSupplier(store);
-        var storeBuilder = Stores.sessionStoreBuilder(supplier, keyType.serde(), valueType.serde());
+        var storeBuilder = Stores.sessionStoreBuilder(supplier, keyType.serde(), valueSerde);
         storeBuilder = store.caching() ? storeBuilder.withCachingEnabled() : storeBuilder.withCachingDisabled();
         storeBuilder = store.logging() ? storeBuilder.withLoggingEnabled(new HashMap<>()) : storeBuilder.withLoggingDisabled();
         return storeBuilder;
     }
 
     private static WindowBytesStoreSupplier getWindowStoreSupplier(WindowStateStoreDefinition store) {
+        registerRocksDbSettings(store);
         if (!store.persistent()) {
             return Stores.inMemoryWindowStore(store.name(), store.retention(), store.windowSize(), store.retainDuplicates());
         }
@@ -150,9 +165,9 @@ public class StoreUtil {
 
     private static StoreBuilder<?> getWindowStateStoreBuilder(WindowStateStoreDefinition store) {
         final var keyType = new StreamDataType(store.keyType(), true);
-        final var valueType = new StreamDataType(store.valueType(), false);
+        final var valueSerde = new StreamDataType(store.valueType(), false).internalSerde(store.objectCacheSize());
         final var supplier = getWindowStoreSupplier(store);
-        var storeBuilder = Stores.windowStoreBuilder(supplier, keyType.serde(), valueType.serde());
+        var storeBuilder = Stores.windowStoreBuilder(supplier, keyType.serde(), valueSerde);
         storeBuilder = store.caching() ? storeBuilder.withCachingEnabled() : storeBuilder.withCachingDisabled();
         storeBuilder = store.logging() ? storeBuilder.withLoggingEnabled(new HashMap<>()) : storeBuilder.withLoggingDisabled();
         return storeBuilder;
@@ -164,24 +179,52 @@ public class StoreUtil {
 
     public static <V> MaterializedStore<V, KeyValueStore<Bytes, byte[]>> materialize(KeyValueStateStoreDefinition store) {
         Materialized<Object, V, KeyValueStore<Bytes, byte[]>> mat = Materialized.as(getKeyValueStoreSupplier(store));
-        return materialize(mat, store);
+        return materialize(mat, store, true);
+    }
+
+    /**
+     * Materialize the store of a table that is read from a topic. The store always uses the notation of the
+     * topic, since Kafka Streams may restore it from the topic itself.
+     * @param store a {@link KeyValueStateStoreDefinition}.
+     * @return the materialized store, with the serdes to read the topic.
+     */
+    public static <V> MaterializedStore<V, KeyValueStore<Bytes, byte[]>> materializeSource(KeyValueStateStoreDefinition store) {
+        Materialized<Object, V, KeyValueStore<Bytes, byte[]>> mat = Materialized.as(getKeyValueStoreSupplier(store));
+        return materialize(mat, store, false);
+    }
+
+    /**
+     * Materialize the store of a global table that is read from a topic, and remove every key that is written to
+     * the store from the near-cache of the global table.
+     * @param store a {@link KeyValueStateStoreDefinition}.
+     * @param nearCache the near-cache of the global table.
+     * @return the materialized store, with the serdes to read the topic.
+     */
+    public static <V> MaterializedStore<V, KeyValueStore<Bytes, byte[]>> materializeSource(KeyValueStateStoreDefinition store, GlobalTableNearCache nearCache) {
+        if (store.persistent() && store.versioned())
+            throw new TopologyException("Versioned state store " + store.name() + " can not be used with a near-cache");
+        Materialized<Object, V, KeyValueStore<Bytes, byte[]>> mat = Materialized.as(new NearCacheInvalidatingStoreSupplier(getKeyValueStoreSupplier(store), nearCache));
+        return materialize(mat, store, false);
     }
 
     public static <V> MaterializedStore<V, SessionStore<Bytes, byte[]>> materialize(SessionStateStoreDefinition store) {
         Materialized<Object, V, SessionStore<Bytes, byte[]>> mat = Materialized.as(getSessionStoreSupplier(store));
         if (store.retention() != null) mat = mat.withRetention(store.retention());
-        return materialize(mat, store);
+        return materialize(mat, store, true);
     }
 
     public static <V> MaterializedStore<V, WindowStore<Bytes, byte[]>> materialize(WindowStateStoreDefinition store) {
         Materialized<Object, V, WindowStore<Bytes, byte[]>> mat = Materialized.as(getWindowStoreSupplier(store));
         if (store.retention() != null) mat = mat.withRetention(store.retention());
-        return materialize(mat, store);
+        return materialize(mat, store, true);
     }
 
-    private static <V, S extends StateStore> MaterializedStore<V, S> materialize(Materialized<Object, V, S> mat, StateStoreDefinition store) {
+    private static <V, S extends StateStore> MaterializedStore<V, S> materialize(Materialized<Object, V, S> mat, StateStoreDefinition store, boolean internal) {
         final var keySerde = new StreamDataType(store.keyType(), true).serde();
-        @SuppressWarnings("unchecked") final var valueSerde = (Serde<V>) new StreamDataType(store.valueType(), false).serde();
+        final var valueType = new StreamDataType(store.valueType(), false);
+        @SuppressWarnings("unchecked") final var valueSerde = (Serde<V>) (internal
+                ? valueType.internalSerde(store.objectCacheSize())
+                : valueType.serdeWithObjectCache(store.objectCacheSize()));
         mat = mat.withKeySerde(keySerde).withValueSerde(valueSerde);
         mat = store.caching() ? mat.withCachingEnabled() : mat.withCachingDisabled();
         mat = store.logging() ? mat.withLoggingEnabled(new HashMap<>()) : mat.withLoggingDisabled();
@@ -24,14 +24,22 @@ package io.axual.ksml.stream;
 import io.axual.ksml.generator.StreamDataType;
 import io.axual.ksml.generator.TopologyBuildContext;
 import io.axual.ksml.operation.StreamOperation;
+import io.axual.ksml.store.GlobalTableNearCache;
 import org.apache.kafka.streams.kstream.GlobalKTable;
 
 public class GlobalKTableWrapper extends BaseStreamWrapper {
     public final GlobalKTable<Object, Object> globalTable;
+    // Decoded values for joins, or null when joins read every value from the store
+    public final GlobalTableNearCache nearCache;
 
     public GlobalKTableWrapper(GlobalKTable<Object, Object> globalTable, StreamDataType keyType, StreamDataType valueType) {
+        this(globalTable, keyType, valueType, null);
+    }
+
+    public GlobalKTableWrapper(GlobalKTable<Object, Object> globalTable, StreamDataType keyType, StreamDataType valueType, GlobalTableNearCache nearCache) {
         super("GlobalTable", keyType, valueType);
         this.globalTable = globalTable;
+        this.nearCache = nearCache;
     }
 
     @Override
@@ -27,10 +27,17 @@ import org.apache.kafka.streams.kstream.KStream;
 
 public class KStreamWrapper extends BaseStreamWrapper {
     public final KStream<Object, Object> stream;
+    // Whether the key may have changed since the stream was last partitioned, so its records may be in the wrong partition
+    public final boolean keyChanged;
 
     public KStreamWrapper(KStream<Object, Object> stream, StreamDataType keyType, StreamDataType valueType) {
+        this(stream, keyType, valueType, false);
+    }
+
+    public KStreamWrapper(KStream<Object, Object> stream, StreamDataType keyType, StreamDataType valueType, boolean keyChanged) {
         super("Stream", keyType, valueType);
         this.stream = stream;
+        this.keyChanged = keyChanged;
     }
 
     @Override
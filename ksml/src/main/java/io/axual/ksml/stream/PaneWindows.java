@@ -0,0 +1,100 @@
+package io.axual.ksml.stream;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import org.apache.kafka.streams.kstream.TimeWindows;
+
+import java.time.Duration;
+
+/**
+ * Describes hopping time windows that are aggregated in panes. Every window consists of consecutive panes of
+ * {@code gcd(size, advance)} milliseconds, so every record updates exactly one pane and a window result is the
+ * combination of the panes it consists of.
+ *
+ * @param size    the size of the hopping windows in milliseconds
+ * @param advance the advance of the hopping windows in milliseconds
+ * @param grace   the grace period of the hopping windows in milliseconds
+ */
+public record PaneWindows(long size, long advance, long grace) {
+    /**
+     * Creates the pane description of hopping time windows.
+     *
+     * @param windows the hopping time windows
+     * @return the pane description
+     */
+    public static PaneWindows of(TimeWindows windows) {
+        return new PaneWindows(windows.size(), windows.advanceMs, windows.gracePeriodMs());
+    }
+
+    /**
+     * Returns the size of every pane in milliseconds.
+     */
+    public long paneSize() {
+        long a = size;
+        long b = advance;
+        while (b != 0) {
+            final var rest = a % b;
+            a = b;
+            b = rest;
+        }
+        return a;
+    }
+
+    /**
+     * Returns the tumbling windows in which records are aggregated. The panes accept records for as long as the last
+     * window that contains them accepts records.
+     */
+    public TimeWindows paneWindows() {
+        final var paneSize = paneSize();
+        return TimeWindows.ofSizeAndGrace(Duration.ofMillis(paneSize), Duration.ofMillis(size - paneSize + grace));
+    }
+
+    /**
+     * Returns the start of the last window that is closed at the given stream time, which may be negative when no
+     * window is closed yet.
+     *
+     * @param streamTime the stream time
+     * @return the start of the last closed window
+     */
+    public long lastClosedWindowStart(long streamTime) {
+        return Math.floorDiv(streamTime - grace - size, advance) * advance;
+    }
+
+    /**
+     * Returns the start of the first window that contains the given pane.
+     *
+     * @param paneStart the start of the pane
+     * @return the start of the first window that contains the pane
+     */
+    public long firstWindowStart(long paneStart) {
+        return Math.max(0, Math.floorDiv(paneStart - size, advance) * advance + advance);
+    }
+
+    /**
+     * Returns the start of the last window that contains the given pane.
+     *
+     * @param paneStart the start of the pane
+     * @return the start of the last window that contains the pane
+     */
+    public long lastWindowStart(long paneStart) {
+        return Math.floorDiv(paneStart, advance) * advance;
+    }
+}
@@ -28,10 +28,17 @@ import org.apache.kafka.streams.kstream.TimeWindowedKStream;
 
 public class TimeWindowedKStreamWrapper extends BaseStreamWrapper {
     public final TimeWindowedKStream<Object, Object> timeWindowedKStream;
+    // Set when the stream is windowed in panes, which aggregations combine into the hopping windows
+    public final PaneWindows paneWindows;
 
     public TimeWindowedKStreamWrapper(TimeWindowedKStream<Object, Object> timeWindowedKStream, StreamDataType key, StreamDataType value) {
+        this(timeWindowedKStream, key, value, null);
+    }
+
+    public TimeWindowedKStreamWrapper(TimeWindowedKStream<Object, Object> timeWindowedKStream, StreamDataType key, StreamDataType value, PaneWindows paneWindows) {
         super("TimeWindowedStream", key, value);
         this.timeWindowedKStream = timeWindowedKStream;
+        this.paneWindows = paneWindows;
     }
 
     @Override
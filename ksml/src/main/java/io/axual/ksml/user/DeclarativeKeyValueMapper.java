@@ -0,0 +1,66 @@
+package io.axual.ksml.user;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.mapper.DataObjectConverter;
+import io.axual.ksml.data.object.DataMap;
+import io.axual.ksml.data.object.DataNull;
+import io.axual.ksml.data.object.DataObject;
+import io.axual.ksml.data.object.DataStruct;
+import io.axual.ksml.data.util.ConvertUtil;
+import io.axual.ksml.type.UserType;
+import org.apache.kafka.streams.kstream.KeyValueMapper;
+
+import static io.axual.ksml.type.UserType.DEFAULT_NOTATION;
+
+/**
+ * Selects the key of a record in a join from a value field, without calling a Python function. Nested fields are
+ * separated by dots in the field path. The field value is converted to the key type of the joined table, and a
+ * missing field selects no key.
+ */
+public class DeclarativeKeyValueMapper implements KeyValueMapper<Object, Object, Object> {
+    private static final String FIELD_SEPARATOR = "\\.";
+    private final String[] fieldPath;
+    private final UserType keyType;
+    private ConvertUtil.Conversion conversion;
+
+    public DeclarativeKeyValueMapper(String field, UserType keyType) {
+        this.fieldPath = field.split(FIELD_SEPARATOR);
+        this.keyType = keyType;
+    }
+
+    @Override
+    public Object apply(Object key, Object value) {
+        var result = value;
+        for (final var name : fieldPath) {
+            result = switch (result) {
+                case DataStruct struct when !struct.isNull() -> struct.get(name);
+                case DataMap map when !map.isNull() -> map.get(name);
+                case null, default -> null;
+            };
+            if (result == null) return null;
+        }
+        if (!(result instanceof DataObject dataObject) || dataObject == DataNull.INSTANCE) return null;
+        // The conversion is prepared on the first call and reused for all subsequent keys
+        if (conversion == null) conversion = new DataObjectConverter().compile(DEFAULT_NOTATION, keyType);
+        return conversion.convert(dataObject);
+    }
+}
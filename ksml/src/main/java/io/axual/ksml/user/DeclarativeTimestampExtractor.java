@@ -0,0 +1,150 @@
+package io.axual.ksml.user;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.object.DataDouble;
+import io.axual.ksml.data.object.DataFloat;
+import io.axual.ksml.data.object.DataMap;
+import io.axual.ksml.data.object.DataPrimitive;
+import io.axual.ksml.data.object.DataString;
+import io.axual.ksml.data.object.DataStruct;
+import io.axual.ksml.definition.TimestampSourceDefinition;
+import io.axual.ksml.dsl.KSMLDSL;
+import io.axual.ksml.exception.TopologyException;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.streams.processor.TimestampExtractor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalQueries;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extracts the event time of a record from a value field or a header, as described by a
+ * {@link TimestampSourceDefinition}, without calling a Python function.
+ * <p>
+ * Numbers are read as epoch timestamps in the configured unit. Text is parsed with the configured
+ * date-time pattern, or as an ISO-8601 date-time or epoch number when no pattern is set. Date-times
+ * without a zone are taken to be UTC. When the field or header is missing or can not be read, the
+ * timestamp of the record itself is used.
+ */
+@Slf4j
+public class DeclarativeTimestampExtractor implements TimestampExtractor {
+    private final String[] fieldPath;
+    private final String header;
+    private final DateTimeFormatter formatter;
+    private final TimeUnit unit;
+
+    public DeclarativeTimestampExtractor(TimestampSourceDefinition source) {
+        this.fieldPath = source.fieldPath();
+        this.header = source.header();
+        try {
+            this.formatter = source.format() != null ? DateTimeFormatter.ofPattern(source.format()) : DateTimeFormatter.ISO_DATE_TIME;
+        } catch (IllegalArgumentException e) {
+            throw new TopologyException("Invalid timestamp format '" + source.format() + "': " + e.getMessage());
+        }
+        this.unit = unitOf(source.unit());
+    }
+
+    private static TimeUnit unitOf(String unit) {
+        if (unit == null) return TimeUnit.MILLISECONDS;
+        return switch (unit) {
+            case KSMLDSL.TimestampExtractors.UNIT_SECONDS -> TimeUnit.SECONDS;
+            case KSMLDSL.TimestampExtractors.UNIT_MILLISECONDS -> TimeUnit.MILLISECONDS;
+            case KSMLDSL.TimestampExtractors.UNIT_MICROSECONDS -> TimeUnit.MICROSECONDS;
+            case KSMLDSL.TimestampExtractors.UNIT_NANOSECONDS -> TimeUnit.NANOSECONDS;
+            default -> throw new TopologyException("Unknown timestamp unit: " + unit);
+        };
+    }
+
+    @Override
+    public long extract(ConsumerRecord<Object, Object> rec, long previousTimestamp) {
+        try {
+            final var result = header != null ? fromHeader(rec) : fromValue(rec.value());
+            if (result != null) return result;
+        } catch (RuntimeException e) {
+            log.debug("Could not read timestamp from record on topic {}: {}", rec.topic(), e.getMessage());
+        }
+        return rec.timestamp();
+    }
+
+    private Long fromHeader(ConsumerRecord<Object, Object> rec) {
+        final var value = rec.headers().lastHeader(header);
+        if (value == null || value.value() == null) return null;
+        return fromText(new String(value.value(), StandardCharsets.UTF_8));
+    }
+
+    private Long fromValue(Object recordValue) {
+        var value = recordValue;
+        for (final var field : fieldPath) {
+            value = switch (value) {
+                case DataStruct struct when !struct.isNull() -> struct.get(field);
+                case DataMap map when !map.isNull() -> map.get(field);
+                case null, default -> null;
+            };
+            if (value == null) return null;
+        }
+        return switch (value) {
+            case DataString string when string.value() != null -> fromText(string.value());
+            case DataDouble number when number.value() != null -> fromFraction(number.value());
+            case DataFloat number when number.value() != null -> fromFraction(number.value());
+            case DataPrimitive<?> primitive when primitive.value() instanceof Number number -> unit.toMillis(number.longValue());
+            default -> null;
+        };
+    }
+
+    private Long fromText(String text) {
+        final var trimmed = text.strip();
+        if (trimmed.isEmpty()) return null;
+        if (formatter == DateTimeFormatter.ISO_DATE_TIME && isNumber(trimmed)) {
+            return trimmed.indexOf('.') < 0 ? unit.toMillis(Long.parseLong(trimmed)) : fromFraction(Double.parseDouble(trimmed));
+        }
+        return toEpochMillis(formatter.parse(trimmed));
+    }
+
+    private long fromFraction(double value) {
+        return Math.round(value * ((double) unit.toNanos(1) / TimeUnit.MILLISECONDS.toNanos(1)));
+    }
+
+    private static boolean isNumber(String text) {
+        for (int index = 0; index < text.length(); index++) {
+            final var c = text.charAt(index);
+            if (!Character.isDigit(c) && c != '.' && !(index == 0 && c == '-')) return false;
+        }
+        return true;
+    }
+
+    private static long toEpochMillis(TemporalAccessor parsed) {
+        if (parsed.isSupported(ChronoField.INSTANT_SECONDS)) {
+            return Instant.from(parsed).toEpochMilli();
+        }
+        final var date = LocalDate.from(parsed);
+        final var time = parsed.query(TemporalQueries.localTime());
+        final var dateTime = time != null ? date.atTime(time) : date.atStartOfDay();
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
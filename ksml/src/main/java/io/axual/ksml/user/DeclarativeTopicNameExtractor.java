@@ -0,0 +1,104 @@
+package io.axual.ksml.user;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import com.codahale.metrics.Counter;
+import io.axual.ksml.data.mapper.DataObjectFlattener;
+import io.axual.ksml.data.mapper.NativeDataObjectMapper;
+import io.axual.ksml.data.object.DataMap;
+import io.axual.ksml.data.object.DataObject;
+import io.axual.ksml.data.object.DataPrimitive;
+import io.axual.ksml.data.object.DataStruct;
+import io.axual.ksml.definition.TopicRouteDefinition;
+import io.axual.ksml.exception.ExecutionException;
+import io.axual.ksml.metric.MetricName;
+import io.axual.ksml.metric.MetricTags;
+import io.axual.ksml.metric.Metrics;
+import org.apache.kafka.streams.processor.RecordContext;
+import org.apache.kafka.streams.processor.TopicNameExtractor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Picks the destination topic of a record by looking up the value of a single field in a routing table, as described
+ * by a {@link TopicRouteDefinition}, without calling a Python function.
+ * <p>
+ * Field values of any primitive type are looked up by their textual form. Records whose field is missing or has an
+ * unlisted value go to the default topic, or fail when no default topic is set. The number of records sent to every
+ * destination is counted in a metric tagged with the topic name.
+ */
+public class DeclarativeTopicNameExtractor implements TopicNameExtractor<Object, Object> {
+    private static final String ROUTE_METRIC = "topic-route-count";
+    private static final NativeDataObjectMapper NATIVE_MAPPER = new DataObjectFlattener();
+    private final String[] fieldPath;
+    private final String field;
+    private final Map<String, Route> routes = new HashMap<>();
+    private final Route defaultRoute;
+
+    // A destination topic with its counter, so routing a record only takes a single lookup
+    private record Route(String topic, Counter counter) {
+    }
+
+    public DeclarativeTopicNameExtractor(TopicRouteDefinition route, MetricTags tags) {
+        this.fieldPath = route.fieldPath();
+        this.field = route.field();
+        // Topics are interned, so all records routed to the same topic share a single name instance
+        final var byTopic = new HashMap<String, Route>();
+        route.topics().forEach((fieldValue, topic) -> routes.put(fieldValue, byTopic.computeIfAbsent(topic.intern(), t -> new Route(t, counter(tags, t)))));
+        this.defaultRoute = route.defaultTopic() != null
+                ? byTopic.computeIfAbsent(route.defaultTopic().intern(), t -> new Route(t, counter(tags, t)))
+                : null;
+    }
+
+    private static Counter counter(MetricTags tags, String topic) {
+        final var metricName = new MetricName(ROUTE_METRIC, tags.append("topic", topic));
+        // Operations in all tasks share the counters of their destinations
+        synchronized (DeclarativeTopicNameExtractor.class) {
+            final var existing = Metrics.registry().getCounter(metricName);
+            return existing != null ? existing : Metrics.registry().registerCounter(metricName);
+        }
+    }
+
+    @Override
+    public String extract(Object key, Object value, RecordContext recordContext) {
+        final var fieldValue = fieldValueOf(value instanceof DataObject dataObject ? dataObject : NATIVE_MAPPER.toDataObject(value));
+        var route = fieldValue != null ? routes.get(fieldValue) : null;
+        if (route == null) route = defaultRoute;
+        if (route == null)
+            throw new ExecutionException("No topic for value '" + fieldValue + "' of field '" + field + "', and no default topic set");
+        route.counter().inc();
+        return route.topic();
+    }
+
+    private String fieldValueOf(DataObject recordValue) {
+        var value = recordValue;
+        for (final var name : fieldPath) {
+            value = switch (value) {
+                case DataStruct struct when !struct.isNull() -> struct.get(name);
+                case DataMap map when !map.isNull() -> map.get(name);
+                case null, default -> null;
+            };
+            if (value == null) return null;
+        }
+        return value instanceof DataPrimitive<?> primitive && primitive.value() != null ? primitive.value().toString() : null;
+    }
+}
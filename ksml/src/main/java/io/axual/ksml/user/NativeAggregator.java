@@ -0,0 +1,110 @@
+package io.axual.ksml.user;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.aggregate.NativeAggregation;
+import io.axual.ksml.data.mapper.DataObjectFlattener;
+import io.axual.ksml.data.mapper.NativeDataObjectMapper;
+import io.axual.ksml.data.object.DataMap;
+import io.axual.ksml.data.object.DataObject;
+import io.axual.ksml.data.object.DataPrimitive;
+import io.axual.ksml.data.object.DataStruct;
+import io.axual.ksml.data.type.DataType;
+import io.axual.ksml.data.type.MapType;
+import io.axual.ksml.data.type.StructType;
+import io.axual.ksml.definition.BuiltinAggregationDefinition;
+import org.apache.kafka.streams.kstream.Aggregator;
+import org.apache.kafka.streams.kstream.Initializer;
+import org.apache.kafka.streams.kstream.Merger;
+
+/**
+ * Aggregates records with a built-in {@link NativeAggregation}, as described by a
+ * {@link BuiltinAggregationDefinition}, without calling Python functions. The aggregator also acts as the
+ * initializer of the aggregation, and provides its session merger.
+ * <p>
+ * Records whose aggregated field is missing or {@code null} leave the aggregate unchanged.
+ */
+public class NativeAggregator implements Initializer<Object>, Aggregator<Object, Object, Object> {
+    private static final NativeDataObjectMapper NATIVE_MAPPER = new DataObjectFlattener();
+    private final NativeAggregation aggregation;
+    private final String[] fieldPath;
+
+    public NativeAggregator(BuiltinAggregationDefinition definition, DataType valueType) {
+        this.fieldPath = definition.fieldPath();
+        this.aggregation = NativeAggregation.of(definition, fieldTypeOf(valueType, fieldPath));
+    }
+
+    /**
+     * Returns the type of the aggregates.
+     *
+     * @return the aggregate type
+     */
+    public DataType resultType() {
+        return aggregation.resultType();
+    }
+
+    @Override
+    public Object apply() {
+        return aggregation.initial();
+    }
+
+    @Override
+    public Object apply(Object key, Object value, Object aggregate) {
+        final var dataAggregate = aggregate != null ? NATIVE_MAPPER.toDataObject(aggregate) : aggregation.initial();
+        final var fieldValue = fieldValueOf(NATIVE_MAPPER.toDataObject(value));
+        return fieldValue != null ? aggregation.add(dataAggregate, fieldValue) : dataAggregate;
+    }
+
+    /**
+     * Returns a merger that combines the aggregates of two session windows.
+     *
+     * @return the session merger
+     */
+    public Merger<Object, Object> merger() {
+        return (_, aggregate1, aggregate2) -> aggregation.merge(NATIVE_MAPPER.toDataObject(aggregate1), NATIVE_MAPPER.toDataObject(aggregate2));
+    }
+
+    // Returns the type of the aggregated field, or UNKNOWN when the value type does not declare it
+    private static DataType fieldTypeOf(DataType valueType, String[] fieldPath) {
+        var type = valueType;
+        for (final var field : fieldPath) {
+            type = switch (type) {
+                case StructType struct -> struct.fieldType(field, DataType.UNKNOWN, DataType.UNKNOWN);
+                case MapType map -> map.valueType();
+                case null, default -> DataType.UNKNOWN;
+            };
+        }
+        return type;
+    }
+
+    private DataObject fieldValueOf(DataObject recordValue) {
+        var value = recordValue;
+        for (final var field : fieldPath) {
+            value = switch (value) {
+                case DataStruct struct when !struct.isNull() -> struct.get(field);
+                case DataMap map when !map.isNull() -> map.get(field);
+                case null, default -> null;
+            };
+            if (value == null) return null;
+        }
+        return value instanceof DataPrimitive<?> primitive && primitive.value() == null ? null : value;
+    }
+}
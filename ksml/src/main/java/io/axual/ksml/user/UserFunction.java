@@ -20,12 +20,15 @@ package io.axual.ksml.user;
  * =========================LICENSE_END==================================
  */
 
+import com.codahale.metrics.Timer;
 import io.axual.ksml.data.exception.DataException;
+import io.axual.ksml.data.mapper.DataObjectConverter;
 import io.axual.ksml.data.object.DataList;
 import io.axual.ksml.data.object.DataNull;
 import io.axual.ksml.data.object.DataObject;
 import io.axual.ksml.data.object.DataTuple;
 import io.axual.ksml.data.type.DataType;
+import io.axual.ksml.data.util.ConvertUtil;
 import io.axual.ksml.definition.ParameterDefinition;
 import io.axual.ksml.exception.ExecutionException;
 import io.axual.ksml.exception.TopologyException;
@@ -47,6 +50,8 @@ public class UserFunction {
     public final int fixedParameterCount;
     public final UserType resultType;
     public final String[] storeNames;
+    private ConvertUtil.Conversion resultConversion;
+    private Timer conversionTimer;
 
     public UserFunction(String namespace, String name, ParameterDefinition[] parameters, UserType resultType, List<String> storeNames) {
         this(namespace, name, parameters, resultType, storeNames != null ? storeNames.toArray(TEMPLATE) : TEMPLATE);
@@ -81,6 +86,21 @@ public class UserFunction {
                 + storeSuffix;
     }
 
+    // Set by the invoker of this function, to report the time spent converting results to the result type
+    public void conversionTimer(Timer timer) {
+        this.conversionTimer = timer;
+    }
+
+    // Convert a result to the declared result type. The conversion is prepared on the first call and reused
+    // for all subsequent results.
+    protected DataObject convertResult(DataObjectConverter converter, String sourceNotation, DataObject result) {
+        if (resultConversion == null) resultConversion = converter.compile(sourceNotation, resultType);
+        final var conversion = resultConversion;
+        return conversionTimer != null
+                ? conversionTimer.timeSupplier(() -> conversion.convert(result))
+                : conversion.convert(result);
+    }
+
     // Count the number of fixed parameters. Throw an error if the ordering is illegal (ie. fixed parameters should
     // always come before optional parameters in the params list)
     private int getFixedParameterCount(ParameterDefinition[] parameters) {
@@ -99,6 +119,25 @@ public class UserFunction {
         return fixedParamCount;
     }
 
+    protected void checkParameters(DataObject[] parameters) {
+        // Validate that the defined parameter list matches the amount of passed in parameters
+        if (this.fixedParameterCount > parameters.length) {
+            throw new TopologyException("Function %s.%s - parameter list does not match function spec: minimally expected %d, got %d".formatted(namespace, name, this.parameters.length, parameters.length));
+        }
+        if (this.parameters.length < parameters.length) {
+            throw new TopologyException("Function %s.%s - parameter list does not match function spec: maximally expected %d, got %d".formatted(namespace, name, this.parameters.length, parameters.length));
+        }
+        // Validate the parameter types
+        for (int index = 0; index < parameters.length; index++) {
+            final var declaredParameter = this.parameters[index];
+            final var actualParameter = parameters[index];
+            final var assignable = declaredParameter.type().isAssignableFrom(actualParameter);
+            if (assignable.isNotAssignable()) {
+                throw new TopologyException("Function %s.%s expects parameter #%d (\"%s\") to be %s but %s was passed in: %s".formatted(namespace, name, index + 1, declaredParameter.name(), declaredParameter.type(), actualParameter.type(), assignable));
+            }
+        }
+    }
+
     protected void checkType(DataType expected, DataObject value) {
         if (value instanceof DataNull) return;
         if (expected != null && value != null) {
@@ -24,7 +24,9 @@ package io.axual.ksml.user;
 import io.axual.ksml.data.mapper.DataObjectFlattener;
 import io.axual.ksml.data.mapper.NativeDataObjectMapper;
 import io.axual.ksml.data.mapper.RecordContextDataObjectMapper;
+import io.axual.ksml.data.object.DataObject;
 import io.axual.ksml.data.object.DataString;
+import io.axual.ksml.data.object.DataStruct;
 import io.axual.ksml.data.type.DataType;
 import io.axual.ksml.dsl.KSMLDSL;
 import io.axual.ksml.exception.ExecutionException;
@@ -34,23 +36,84 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.streams.processor.RecordContext;
 import org.apache.kafka.streams.processor.TopicNameExtractor;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
 @Slf4j
 public class UserTopicNameExtractor extends Invoker implements TopicNameExtractor<Object, Object> {
     public static final DataType EXPECTED_RESULT_TYPE = DataString.DATATYPE;
     private static final NativeDataObjectMapper NATIVE_MAPPER = new DataObjectFlattener();
     private static final RecordContextDataObjectMapper RECORD_CONTEXT_MAPPER = new RecordContextDataObjectMapper();
+    private static final int MAX_CACHED_TOPICS = 1024;
+    // The key and value fields the function reads, null when it may read the whole key or value
+    private final Set<String> keyFields;
+    private final Set<String> valueFields;
+    // Topic names of recently seen key and value fields, or null when results are not cached
+    private final Map<CacheKey, String> cache;
+
+    private record CacheKey(DataObject key, DataObject value) {
+    }
 
     public UserTopicNameExtractor(UserFunction function, MetricTags tags) {
+        this(function, tags, null, null, false);
+    }
+
+    /**
+     * Creates a topic name extractor that caches the results of a pure function. Results are cached on the key and
+     * value fields the function reads, so records that only differ in other fields share a cache entry. When the
+     * value fields are not known, the function is called for every record.
+     *
+     * @param function    the topic name extractor function
+     * @param tags        the metric tags
+     * @param keyFields   the key fields the function reads, or null when it may read the whole key
+     * @param valueFields the value fields the function reads, or null when it may read the whole value
+     * @param pure        whether the result of the function only depends on the key and value
+     */
+    public UserTopicNameExtractor(UserFunction function, MetricTags tags, Set<String> keyFields, Set<String> valueFields, boolean pure) {
         super(function, tags, KSMLDSL.Functions.TYPE_TOPICNAMEEXTRACTOR);
         verifyParameterCount(3);
         verifyResultType(EXPECTED_RESULT_TYPE);
+        this.keyFields = keyFields;
+        this.valueFields = valueFields;
+        // Caching on whole values would miss for nearly every record, while keeping those records in memory
+        this.cache = pure && valueFields != null ? new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, String> eldest) {
+                return size() > MAX_CACHED_TOPICS;
+            }
+        } : null;
     }
 
     @Override
     public String extract(Object key, Object value, RecordContext recordContext) {
-        final var result = timeExecutionOf(() -> function.call(NATIVE_MAPPER.toDataObject(key), NATIVE_MAPPER.toDataObject(value), RECORD_CONTEXT_MAPPER.toDataObject(recordContext)));
+        final var dataKey = NATIVE_MAPPER.toDataObject(key);
+        final var dataValue = NATIVE_MAPPER.toDataObject(value);
+        if (cache == null) return extract(dataKey, dataValue, recordContext);
+
+        // Pure functions do not look at the record context, so their result can be reused for equal fields read
+        final var cacheKey = new CacheKey(projectionOf(dataKey, keyFields), projectionOf(dataValue, valueFields));
+        synchronized (cache) {
+            final var cached = cache.get(cacheKey);
+            if (cached != null) return cached;
+        }
+        final var result = extract(dataKey, dataValue, recordContext);
+        synchronized (cache) {
+            cache.put(cacheKey, result);
+        }
+        return result;
+    }
+
+    // Only structs are projected, since the fields are read by name. Other objects, such as strings, are kept whole.
+    private static DataObject projectionOf(DataObject object, Set<String> fields) {
+        return fields != null && object instanceof DataStruct struct ? struct.project(fields) : object;
+    }
+
+    private String extract(DataObject key, DataObject value, RecordContext recordContext) {
+        final var result = timeExecutionOf(() -> function.call(key, value, RECORD_CONTEXT_MAPPER.toDataObject(recordContext)));
         if (result instanceof DataString dataString) {
-            return dataString.value();
+            // Interned, so all records routed to the same topic share a single name instance
+            return dataString.value() != null ? dataString.value().intern() : null;
         }
         throw new ExecutionException("Expected string result from function: " + function.name);
     }
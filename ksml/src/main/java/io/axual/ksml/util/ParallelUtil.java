@@ -0,0 +1,66 @@
+package io.axual.ksml.util;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.exception.ExecutionException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+
+public class ParallelUtil {
+    private ParallelUtil() {
+    }
+
+    /**
+     * Runs a task for every entry of a map on a pool of platform threads, with at most one thread per available
+     * processor. The results are returned in the iteration order of the map, so they can be processed in a
+     * deterministic order afterwards. If tasks fail, the exception of the first failed entry is thrown.
+     *
+     * @param input      the entries to run the task for
+     * @param task       the task, which is called with the key and value of an entry
+     * @param threadName the name prefix of the worker threads
+     * @return the results of the task by key, in the iteration order of the input
+     */
+    public static <K, V, R> Map<K, R> mapInParallel(Map<K, V> input, BiFunction<K, V, R> task, String threadName) {
+        final var result = new LinkedHashMap<K, R>();
+        if (input.isEmpty()) return result;
+        final var threads = Math.min(input.size(), Runtime.getRuntime().availableProcessors());
+        try (final var executor = Executors.newFixedThreadPool(threads, Thread.ofPlatform().name(threadName, 0).factory())) {
+            final var futures = new ArrayList<Map.Entry<K, Future<R>>>(input.size());
+            input.forEach((key, value) -> futures.add(Map.entry(key, executor.submit(() -> task.apply(key, value)))));
+            for (final var future : futures) {
+                result.put(future.getKey(), future.getValue().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExecutionException("Interrupted while waiting for " + threadName + " tasks", e);
+        } catch (java.util.concurrent.ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw new ExecutionException("Error in " + threadName + " task", e.getCause());
+        }
+        return result;
+    }
+}
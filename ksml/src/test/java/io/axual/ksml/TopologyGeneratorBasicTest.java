@@ -84,8 +84,29 @@ class TopologyGeneratorBasicTest {
         assertThat(cleanDescription(description.toString())).isEqualTo(reference);
     }
 
+    @Test
+    @EnabledIf(value = "isRunningOnGraalVM", disabledReason = "This test needs GraalVM to work")
+    @DisplayName("routeOnce builds the same topology as without it when a branch condition uses a state store")
+    void routeOnceFallsBackForConditionsWithStores() throws Exception {
+        final var uri = ClassLoader.getSystemResource("pipelines/test-branching-route-once-stores.yaml").toURI();
+        final var yaml = Files.readString(Paths.get(uri));
+
+        final var routedOnce = describe(yaml);
+        final var split = describe(yaml.replace("routeOnce: true", "routeOnce: false"));
+
+        assertThat(routedOnce).isEqualTo(split);
+    }
+
+    private String describe(String yaml) throws Exception {
+        final var definition = YAMLObjectMapper.INSTANCE.readValue(yaml, JsonNode.class);
+        final var definitions = ImmutableMap.of("definition",
+                new TopologyDefinitionParser("test").parse(ParseNode.fromRoot(definition, "test")));
+        final var topology = new TopologyGenerator("some.app.id").create(new StreamsBuilder(), definitions);
+        return cleanDescription(topology.describe().toString());
+    }
+
     /**
-     * Evaluates the condition for the test above.
+     * Evaluates the condition for the tests above.
      */
     static boolean isRunningOnGraalVM() {
         return Version.getCurrent().isRelease();
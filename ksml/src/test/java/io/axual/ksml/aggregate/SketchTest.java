@@ -0,0 +1,100 @@
+package io.axual.ksml.aggregate;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.exception.DataException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class SketchTest {
+    @Test
+    @DisplayName("HyperLogLog estimates distinct values within a few percent and survives serialization")
+    void hyperLogLogEstimatesDistinctValues() {
+        final var sketch = new HyperLogLog(12);
+        for (int round = 0; round < 3; round++) {
+            for (int index = 0; index < 10000; index++) sketch.add(SketchEncoding.hash("user-" + index));
+        }
+        assertThat(sketch.estimate()).isBetween(9000L, 11000L);
+
+        final var copy = HyperLogLog.fromBytes(sketch.toBytes());
+        assertThat(copy.estimate()).isEqualTo(sketch.estimate());
+    }
+
+    @Test
+    @DisplayName("HyperLogLog sketches merge to the union of their values")
+    void hyperLogLogMerges() {
+        final var first = new HyperLogLog(12);
+        final var second = new HyperLogLog(12);
+        for (int index = 0; index < 100; index++) first.add(SketchEncoding.hash("item-" + index));
+        for (int index = 50; index < 150; index++) second.add(SketchEncoding.hash("item-" + index));
+        first.merge(second);
+        assertThat(first.estimate()).isBetween(140L, 160L);
+        // Small sketches are written sparse
+        assertThat(second.toBytes()).hasSizeLessThan(1 << 11);
+    }
+
+    @Test
+    @DisplayName("t-digests estimate quantiles and merge")
+    void tDigestEstimatesQuantiles() {
+        final var first = new TDigest(TDigest.DEFAULT_COMPRESSION);
+        final var second = new TDigest(TDigest.DEFAULT_COMPRESSION);
+        assertThat(first.quantile(0.5)).isNull();
+        for (int index = 1; index <= 5000; index++) first.add(index);
+        for (int index = 5001; index <= 10000; index++) second.add(index);
+        first.merge(second);
+
+        final var copy = TDigest.fromBytes(first.toBytes());
+        assertThat(copy.count()).isEqualTo(10000);
+        assertThat(copy.quantile(0.5)).isCloseTo(5000.0, within(100.0));
+        assertThat(copy.quantile(0.99)).isCloseTo(9900.0, within(50.0));
+        assertThat(copy.quantile(0.0)).isEqualTo(1.0);
+        assertThat(copy.quantile(1.0)).isEqualTo(10000.0);
+    }
+
+    @Test
+    @DisplayName("top-k sketches report the most frequent values, most frequent first")
+    void topKReportsFrequentValues() {
+        final var first = new TopKSketch(TopKSketch.DEFAULT_WIDTH, 2);
+        final var second = new TopKSketch(TopKSketch.DEFAULT_WIDTH, 2);
+        for (int index = 0; index < 30; index++) first.add("a");
+        for (int index = 0; index < 20; index++) second.add("b");
+        for (int index = 0; index < 100; index++) first.add("noise-" + index);
+        for (int index = 0; index < 15; index++) second.add("a");
+        first.merge(second);
+
+        final var top = TopKSketch.fromBytes(first.toBytes()).top();
+        assertThat(top).extracting(TopKSketch.Entry::item).containsExactly("a", "b");
+        assertThat(top.getFirst().count()).isGreaterThanOrEqualTo(45);
+    }
+
+    @Test
+    @DisplayName("invalid settings and corrupt sketches are rejected")
+    void rejectsInvalidInput() {
+        assertThatThrownBy(() -> HyperLogLog.checkPrecision(20)).isInstanceOf(DataException.class);
+        assertThatThrownBy(() -> TDigest.checkCompression(1)).isInstanceOf(DataException.class);
+        assertThatThrownBy(() -> TopKSketch.checkPositive("k", 0)).isInstanceOf(DataException.class);
+        assertThatThrownBy(() -> TDigest.fromBytes(new byte[]{1, 2})).isInstanceOf(DataException.class);
+    }
+}
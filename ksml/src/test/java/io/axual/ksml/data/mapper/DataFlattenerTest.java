@@ -22,6 +22,7 @@ package io.axual.ksml.data.mapper;
 
 import io.axual.ksml.data.object.DataString;
 import io.axual.ksml.data.object.DataStruct;
+import io.axual.ksml.data.type.WindowedType;
 import org.apache.kafka.streams.kstream.Windowed;
 import org.apache.kafka.streams.kstream.internals.TimeWindow;
 import org.junit.jupiter.api.Test;
@@ -43,4 +44,27 @@ class DataFlattenerTest {
         assertThat(struct.get("key")).as("Converted struct should contain key field of type data struct").isInstanceOf(DataStruct.class);
         assertThat(((DataStruct) struct.get("key")).get("key").toString()).as("Converted struct does not contain correct key").isEqualTo("value");
     }
+
+    @Test
+    void testWindowedSchemaAndTimesAreReused() {
+        final var flattener = new DataObjectFlattener();
+        final var window = new TimeWindow(60000, 120000);
+        final var first = (DataStruct) flattener.toDataObject(new Windowed<>("a", window));
+        final var second = (DataStruct) flattener.toDataObject(new Windowed<>("b", window));
+
+        assertThat(second.type().schema()).as("Windowed schema should be cached per key type").isSameAs(first.type().schema());
+        assertThat(second.get("startTime")).as("Time strings should be cached per window boundary").isSameAs(first.get("startTime"));
+        assertThat(first.get("startTime")).isEqualTo(DataString.from("1970-01-01T00:01:00Z"));
+        assertThat(first.get("endTime")).isEqualTo(DataString.from("1970-01-01T00:02:00Z"));
+    }
+
+    @Test
+    void testUnflattenWindowedStruct() {
+        final var flattener = new DataObjectFlattener();
+        final var flattened = flattener.toDataObject(new Windowed<>("a", new TimeWindow(0, 1000)));
+
+        final var result = flattener.unflatten(new WindowedType(DataString.DATATYPE), flattened);
+
+        assertThat(result).isEqualTo(new Windowed<>("a", new TimeWindow(0, 1000)));
+    }
 }
@@ -31,10 +31,25 @@ import io.axual.ksml.data.object.DataShort;
 import io.axual.ksml.data.object.DataString;
 import io.axual.ksml.data.object.DataStruct;
 import io.axual.ksml.data.type.DataType;
+import io.axual.ksml.data.type.RecordMetadata;
+import io.axual.ksml.definition.FunctionDefinition;
+import io.axual.ksml.definition.MetadataTransformerDefinition;
+import io.axual.ksml.definition.ParameterDefinition;
+import io.axual.ksml.definition.PythonSource;
+import io.axual.ksml.dsl.KSMLDSL;
+import io.axual.ksml.metric.MetricTags;
+import io.axual.ksml.python.PythonContext;
+import io.axual.ksml.python.PythonContextConfig;
+import io.axual.ksml.python.PythonFunction;
+import io.axual.ksml.user.UserMetadataTransformer;
 import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import java.util.Map;
+
 import static io.axual.ksml.dsl.HeaderSchema.HEADER_SCHEMA;
 import static io.axual.ksml.dsl.HeaderSchema.HEADER_SCHEMA_KEY_FIELD;
 import static io.axual.ksml.dsl.HeaderSchema.HEADER_SCHEMA_VALUE_FIELD;
@@ -182,4 +197,101 @@ class HeaderDataObjectMapperTest {
         assertThatThrownBy(() -> mapper.fromDataObject(headers))
                 .isInstanceOf(IllegalArgumentException.class);
     }
+
+    @Test
+    @DisplayName("fromDataObject: unchanged header views return the original headers")
+    void fromDataObject_unchangedHeaderList_returnsOriginal() {
+        final var headers = new RecordHeaders();
+        headers.add("trace", "abc".getBytes());
+        headers.add("binary", new byte[]{0, 1, 2});
+        final var list = (HeaderList) mapper.toDataObject(headers);
+
+        // Replacing a header by an equal value keeps the original headers
+        final var same = list.withReplacements(Map.of(0, singleHeader(new DataString("trace"), new DataString("abc")).get(0)));
+
+        assertThat(same).isSameAs(list);
+        assertThat(mapper.fromDataObject(same)).isSameAs(headers);
+    }
+
+    @Test
+    @DisplayName("fromDataObject: only replaced headers are converted, others are kept as the original header")
+    void fromDataObject_replacedHeader_keepsOtherHeaders() {
+        final var headers = new RecordHeaders();
+        headers.add("trace", "abc".getBytes());
+        headers.add("binary", new byte[]{0, 1, 2});
+        final var list = (HeaderList) mapper.toDataObject(headers);
+
+        final var changed = list.withReplacements(Map.of(0, singleHeader(new DataString("trace"), new DataString("xyz")).get(0)));
+        final var result = mapper.fromDataObject(changed).toArray();
+
+        assertThat(result).hasSize(2);
+        assertThat(result[0].value()).isEqualTo("xyz".getBytes());
+        assertThat(result[1]).isSameAs(headers.toArray()[1]);
+    }
+
+    @Test
+    @DisplayName("toDataObject: header views equal lists with the same headers")
+    void toDataObject_headerListEqualsDataList() {
+        final var headers = new RecordHeaders();
+        headers.add("trace", "abc".getBytes());
+        final var expected = singleHeader(new DataString("trace"), new DataString("abc"));
+
+        final var result = mapper.toDataObject(headers);
+
+        assertThat(result).isEqualTo(expected);
+        assertThat(expected).isEqualTo(result);
+        assertThat(result).hasSameHashCodeAs(expected);
+    }
+
+    @Nested
+    @DisplayName("through a Python metadata transformer")
+    class ThroughPythonFunction {
+        @BeforeAll
+        static void warmupGraalVM() {
+            // The first Python context creation in a JVM can fail with a libgraal cold-start error, see PythonFunctionTest
+            try {
+                new PythonContext(PythonContextConfig.builder().build());
+            } catch (Exception _) {
+                // Warmup only
+            }
+        }
+
+        private final PythonContext context = new PythonContext(PythonContextConfig.builder().build());
+
+        private UserMetadataTransformer transformer(String... code) {
+            final var definition = new MetadataTransformerDefinition(FunctionDefinition.as(KSMLDSL.Functions.TYPE_GENERIC, "transformer", new ParameterDefinition[0], PythonSource.of(null, code, null), null, null));
+            return new UserMetadataTransformer(PythonFunction.forFunction(context, "test", "transformer", definition), new MetricTags());
+        }
+
+        private static RecordHeaders headers() {
+            final var headers = new RecordHeaders();
+            headers.add("trace", "abc".getBytes());
+            headers.add("binary", new byte[]{0, 1, 2});
+            return headers;
+        }
+
+        @Test
+        @DisplayName("a transformer that leaves the headers untouched returns the original headers")
+        void untouchedHeaders_returnsOriginal() {
+            final var headers = headers();
+
+            final var result = transformer("metadata[\"timestamp\"] = 1234").apply(null, "key", "value", new RecordMetadata(0L, headers));
+
+            assertThat(result.timestamp()).isEqualTo(1234L);
+            assertThat(result.headers()).isSameAs(headers);
+        }
+
+        @Test
+        @DisplayName("a transformer that replaces one header keeps the other headers as the original header")
+        void replacedHeader_keepsOtherHeaders() {
+            final var headers = headers();
+
+            final var result = transformer("metadata[\"headers\"][0][\"value\"] = \"xyz\"").apply(null, "key", "value", new RecordMetadata(0L, headers)).headers().toArray();
+
+            assertThat(result).hasSize(2);
+            assertThat(result[0].key()).isEqualTo("trace");
+            assertThat(result[0].value()).isEqualTo("xyz".getBytes());
+            assertThat(result[1]).isSameAs(headers.toArray()[1]);
+        }
+    }
 }
@@ -26,13 +26,21 @@ import io.axual.ksml.data.mapper.DataTypeFlattener;
 import io.axual.ksml.data.notation.NotationContext;
 import io.axual.ksml.data.notation.binary.BinaryNotation;
 import io.axual.ksml.data.notation.json.JsonNotation;
+import io.axual.ksml.definition.BuiltinAggregationDefinition;
 import io.axual.ksml.definition.GlobalTableDefinition;
+import io.axual.ksml.definition.KeyValueStateStoreDefinition;
+import io.axual.ksml.definition.RocksDbDefinition;
+import io.axual.ksml.definition.StreamDefinition;
 import io.axual.ksml.definition.TableDefinition;
+import io.axual.ksml.definition.TimestampExtractorDefinition;
+import io.axual.ksml.definition.TimestampSourceDefinition;
+import io.axual.ksml.definition.TopicRouteDefinition;
 import io.axual.ksml.exception.ParseException;
 import io.axual.ksml.execution.ExecutionContext;
 import io.axual.ksml.generator.TopologyResources;
 import io.axual.ksml.generator.YAMLObjectMapper;
 import io.axual.ksml.parser.ParseNode;
+import io.axual.ksml.store.StoreType;
 import io.axual.ksml.type.UserType;
 import org.apache.kafka.streams.AutoOffsetReset;
 import org.junit.jupiter.api.BeforeEach;
@@ -42,6 +50,8 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.NullAndEmptySource;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -161,4 +171,124 @@ class DefinitionParsersTest {
         assertThat(globalTable).isInstanceOf(GlobalTableDefinition.class);
         assertThat(((GlobalTableDefinition) globalTable).topic()).isEqualTo("my_global_table");
     }
+
+    // --- Timestamp extractors ----------------------------------------------------------------------
+
+    @Test
+    @DisplayName("a declarative timestamp extractor is parsed without code")
+    void parsesDeclarativeTimestampExtractor() throws Exception {
+        final var stream = new StreamDefinitionParser(resources, false).parser()
+                .parse(nodeOf("topic: orders\ntimestampExtractor:\n  field: meta.created\n  unit: seconds"));
+        assertThat(stream).isInstanceOf(StreamDefinition.class);
+        assertThat(stream.tsExtractor()).isInstanceOf(TimestampExtractorDefinition.class);
+        final var tsExtractor = (TimestampExtractorDefinition) stream.tsExtractor();
+        assertThat(tsExtractor.source()).isEqualTo(new TimestampSourceDefinition("meta.created", null, null, "seconds"));
+        assertThat(tsExtractor.name()).isNotNull();
+        assertThat(tsExtractor.code()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("a timestamp extractor with code has no declarative source")
+    void parsesPythonTimestampExtractor() throws Exception {
+        final var stream = new StreamDefinitionParser(resources, false).parser()
+                .parse(nodeOf("topic: orders\ntimestampExtractor:\n  expression: 123"));
+        assertThat(((TimestampExtractorDefinition) stream.tsExtractor()).source()).isNull();
+    }
+
+    @Test
+    @DisplayName("a timestamp extractor can not combine code with a field or header")
+    void rejectsMixedTimestampExtractor() {
+        final var parser = new StreamDefinitionParser(resources, false).parser();
+        assertThatThrownBy(() -> parser.parse(nodeOf("topic: orders\ntimestampExtractor:\n  field: created\n  expression: 123")))
+                .hasMessageContaining("both code and a field or header");
+        assertThatThrownBy(() -> parser.parse(nodeOf("topic: orders\ntimestampExtractor:\n  field: created\n  header: created")))
+                .hasMessageContaining("both a field and a header");
+        assertThatThrownBy(() -> parser.parse(nodeOf("topic: orders\ntimestampExtractor:\n  field: created\n  unit: days")))
+                .isInstanceOf(ParseException.class);
+    }
+
+    @Test
+    @DisplayName("a declarative topic name extractor is parsed without code")
+    void parsesDeclarativeTopicNameExtractor() throws Exception {
+        final var extractor = new TopicNameExtractorDefinitionParser(false).parser()
+                .parse(nodeOf("field: meta.region\ntopics:\n  EU: orders-eu\n  US: orders-us\ndefaultTopic: orders-other"));
+        assertThat(extractor.route()).isEqualTo(new TopicRouteDefinition("meta.region", Map.of("EU", "orders-eu", "US", "orders-us"), "orders-other"));
+        assertThat(extractor.name()).isNotNull();
+        assertThat(extractor.code()).isEmpty();
+
+        final var pure = new TopicNameExtractorDefinitionParser(false).parser()
+                .parse(nodeOf("expression: value['region']\npure: true"));
+        assertThat(pure.route()).isNull();
+        assertThat(pure.pure()).isTrue();
+    }
+
+    @Test
+    @DisplayName("a topic name extractor can not combine code with a field, or a field without topics")
+    void rejectsMixedTopicNameExtractor() {
+        final var parser = new TopicNameExtractorDefinitionParser(false).parser();
+        assertThatThrownBy(() -> parser.parse(nodeOf("field: region\ntopics:\n  EU: orders-eu\nexpression: 'x'")))
+                .hasMessageContaining("both code and a field");
+        assertThatThrownBy(() -> parser.parse(nodeOf("field: region")))
+                .hasMessageContaining("requires topics or a default topic");
+        assertThatThrownBy(() -> parser.parse(nodeOf("defaultTopic: orders-other")))
+                .hasMessageContaining("requires a field");
+    }
+
+    @Test
+    @DisplayName("a built-in aggregator is parsed with its settings and without code")
+    void parsesBuiltinAggregator() throws Exception {
+        final var aggregator = new AggregatorDefinitionParser(false).parser()
+                .parse(nodeOf("builtin: quantiles\nfield: latency\nquantiles: [0.5, 0.99]"));
+        assertThat(aggregator.builtin()).isEqualTo(new BuiltinAggregationDefinition("quantiles", "latency", List.of(0.5, 0.99), null, null, null));
+        assertThat(aggregator.name()).isNotNull();
+        assertThat(aggregator.code()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("a built-in aggregator can not have code, settings without a builtin, or a histogram without boundaries")
+    void rejectsInvalidBuiltinAggregator() {
+        final var parser = new AggregatorDefinitionParser(false).parser();
+        assertThatThrownBy(() -> parser.parse(nodeOf("builtin: sum\nexpression: aggregatedValue + value")))
+                .hasMessageContaining("both code and a builtin aggregation");
+        assertThatThrownBy(() -> parser.parse(nodeOf("field: latency\nexpression: aggregatedValue + value")))
+                .hasMessageContaining("require a builtin aggregation");
+        assertThatThrownBy(() -> parser.parse(nodeOf("builtin: histogram")))
+                .hasMessageContaining("requires boundaries");
+    }
+
+    // --- State stores ------------------------------------------------------------------------------
+
+    @Test
+    @DisplayName("RocksDB settings are parsed into a state store definition")
+    void parsesRocksDbSettings() throws Exception {
+        final var store = new StateStoreDefinitionParser(StoreType.KEYVALUE_STORE, false).parse(nodeOf(
+                "type: keyValue\nname: joinStore\npersistent: true\nrocksdb:\n  blockCacheSize: 67108864\n  sharedBlockCache: joins\n  bloomFilter: true\n  compression: lz4\n  writeBufferSize: 16777216\n  maxWriteBuffers: 4\n  compactionStyle: universal\n  statistics: true"));
+        assertThat(store).isInstanceOf(KeyValueStateStoreDefinition.class);
+        assertThat(store.rocksDb()).isEqualTo(new RocksDbDefinition(67108864L, "joins", true, "lz4", 16777216L, 4, "universal", true));
+        assertThat(((KeyValueStateStoreDefinition) store).with("renamed").rocksDb()).isEqualTo(store.rocksDb());
+    }
+
+    @Test
+    @DisplayName("invalid RocksDB settings are rejected")
+    void rejectsInvalidRocksDbSettings() {
+        final var parser = new StateStoreDefinitionParser(StoreType.KEYVALUE_STORE, false);
+        assertThatThrownBy(() -> parser.parse(nodeOf("type: keyValue\nname: store\nrocksdb:\n  compression: brotli")))
+                .isInstanceOf(ParseException.class);
+        assertThatThrownBy(() -> parser.parse(nodeOf("type: keyValue\nname: store\nrocksdb:\n  writeBufferSize: 0")))
+                .hasMessageContaining("write buffer size must be positive");
+    }
+
+    @Test
+    @DisplayName("bounds of in-memory keyValue stores are parsed, but not allowed for persistent stores")
+    void parsesKeyValueStoreBounds() throws Exception {
+        final var parser = new StateStoreDefinitionParser(StoreType.KEYVALUE_STORE, false);
+        final var store = (KeyValueStateStoreDefinition) parser.parse(nodeOf("type: keyValue\nname: seenIds\nmaxEntries: 1000\ntimeToLive: 1h\noffHeap: true"));
+        assertThat(store.maxEntries()).isEqualTo(1000);
+        assertThat(store.timeToLive()).isEqualTo(Duration.ofHours(1));
+        assertThat(store.offHeap()).isTrue();
+        assertThat(store.bounded()).isTrue();
+
+        assertThatThrownBy(() -> parser.parse(nodeOf("type: keyValue\nname: seenIds\npersistent: true\nmaxEntries: 1000")))
+                .hasMessageContaining("A persistent keyValue store can not have");
+    }
 }
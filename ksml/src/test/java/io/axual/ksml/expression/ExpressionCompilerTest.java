@@ -0,0 +1,152 @@
+package io.axual.ksml.expression;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.object.DataInteger;
+import io.axual.ksml.data.object.DataNull;
+import io.axual.ksml.data.object.DataObject;
+import io.axual.ksml.data.object.DataString;
+import io.axual.ksml.data.object.DataStruct;
+import io.axual.ksml.data.value.Tuple;
+import io.axual.ksml.exception.ExecutionException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExpressionCompilerTest {
+    private static final List<String> PARAMETERS = List.of("key", "value");
+
+    private static DataStruct order() {
+        final var result = new DataStruct();
+        result.put("id", new DataString("o-1"));
+        result.put("amount", new DataInteger(150));
+        result.put("currency", new DataString("EUR"));
+        result.put("note", DataNull.INSTANCE);
+        return result;
+    }
+
+    private static Object evaluate(String source, DataObject... arguments) {
+        return ExpressionOperators.resolve(ExpressionCompiler.compile(source, PARAMETERS).evaluate(arguments));
+    }
+
+    @Test
+    @DisplayName("Field access, comparisons and boolean logic follow Python semantics")
+    void evaluatesPredicates() {
+        final var key = new DataString("k");
+        assertThat(evaluate("value['amount'] > 100 and value[\"currency\"] == 'EUR'", key, order())).isEqualTo(true);
+        assertThat(evaluate("100 < value['amount'] <= 150", key, order())).isEqualTo(true);
+        assertThat(evaluate("value['note'] is None", key, order())).isEqualTo(true);
+        assertThat(evaluate("'amount' in value and 'missing' not in value", key, order())).isEqualTo(true);
+        assertThat(evaluate("not key", key, order())).isEqualTo(false);
+        // and/or return one of their operands, not a boolean
+        assertThat(evaluate("value['note'] or 'none'", key, order())).isEqualTo("none");
+    }
+
+    @Test
+    @DisplayName("Arithmetic follows Python semantics for integers, floats and strings")
+    void evaluatesArithmetic() {
+        assertThat(evaluate("7 // 2")).isEqualTo(3L);
+        assertThat(evaluate("-7 // 2")).isEqualTo(-4L);
+        assertThat(evaluate("-7 % 3")).isEqualTo(2L);
+        assertThat(evaluate("(2 * 5 - 3) % 4")).isEqualTo(3L);
+        assertThat(evaluate("-value['amount'] % 7", new DataString("k"), order())).isEqualTo(4L);
+        assertThat(evaluate("7 / 2")).isEqualTo(3.5);
+        assertThat(evaluate("2 ** 10")).isEqualTo(1024L);
+        assertThat(evaluate("-2 ** 2")).isEqualTo(-4L);
+        assertThat(evaluate("key + '-' + value['id']", new DataString("k"), order())).isEqualTo("k-o-1");
+        assertThat(evaluate("'ab' * 2")).isEqualTo("abab");
+        assertThat(evaluate("value['amount'] * 2 if value['currency'] == 'USD' else value['amount']", new DataString("k"), order())).isEqualTo(150L);
+    }
+
+    @Test
+    @DisplayName("Dict, list and tuple literals build native collections")
+    void evaluatesLiterals() {
+        final var result = ExpressionCompiler.compile("""
+                {
+                  "id": value["id"],  # the order id
+                  "total": value["amount"] * 2,
+                }""", PARAMETERS).evaluate(new DataObject[]{new DataString("k"), order()});
+        assertThat(result).isInstanceOf(Map.class);
+        assertThat(((Map<?, ?>) result).keySet()).containsExactly("id", "total");
+        assertThat(((Map<?, ?>) result).get("total")).isEqualTo(300L);
+
+        assertThat(evaluate("key, value['amount']", new DataString("k"), order())).isInstanceOf(Tuple.class);
+        assertThat(evaluate("[1, 2.5, None]")).isEqualTo(Arrays.asList(1L, 2.5, null));
+        assertThat(evaluate("(1,)")).isInstanceOf(Tuple.class);
+    }
+
+    @Test
+    @DisplayName("Runtime errors carry the message Python would give")
+    void reportsPythonErrors() {
+        final var key = new DataString("k");
+        assertThatThrownBy(() -> evaluate("value['missing']", key, order()))
+                .isInstanceOf(ExecutionException.class)
+                .hasMessageContaining("KeyError: 'missing'");
+        assertThatThrownBy(() -> evaluate("1 // 0"))
+                .isInstanceOf(ExecutionException.class)
+                .hasMessageContaining("ZeroDivisionError");
+        assertThatThrownBy(() -> evaluate("key + 1", key, order()))
+                .isInstanceOf(ExecutionException.class)
+                .hasMessageContaining("TypeError");
+    }
+
+    @Test
+    @DisplayName("Optional parameters that are not passed in are None")
+    void missingOptionalParametersAreNone() {
+        assertThat(evaluate("value is None", new DataString("k"))).isEqualTo(true);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "str(value)",
+            "value.get('id')",
+            "f'{key}'",
+            "unknown_name",
+            "lambda x: x",
+            "[x for x in value]",
+            "key[1:]",
+            "'%s' % key",
+            "value['id'] % key",
+            "'a' + key % 1",
+            "'ab' * 2 % key",
+            "key & 1",
+            "{1, 2}",
+            "{key: 1}",
+            "0x10",
+            "b'bytes'",
+            "'''triple'''",
+            "key\nvalue",
+            "key is value",
+    })
+    @DisplayName("Expressions outside the supported subset are rejected, so they can run in Python")
+    void rejectsUnsupportedExpressions(String source) {
+        assertThatThrownBy(() -> ExpressionCompiler.compile(source, PARAMETERS))
+                .isInstanceOf(ExpressionCompiler.UnsupportedExpressionException.class);
+    }
+}
@@ -0,0 +1,69 @@
+package io.axual.ksml.expression;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FieldReferenceScannerTest {
+    @Test
+    @DisplayName("Fields read by subscript, get and membership tests are collected")
+    void collectsFieldReads() {
+        final var code = """
+                # value['commented'] is not read
+                if value is None or value.get("color") != 'blue':
+                  return False
+                total = value['amount'] * 2 + value.get('fee', 0)
+                value = {'note': "value"}
+                return 'currency' in value and 'rate' not in value and key.value == 1
+                """;
+        assertThat(FieldReferenceScanner.scan("value", code)).containsExactly("amount", "color", "currency", "fee", "rate");
+        assertThat(FieldReferenceScanner.scan("value", null)).isEmpty();
+        assertThat(FieldReferenceScanner.scan("value", "key + 1")).isEmpty();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "value",
+            "str(value)",
+            "value[key]",
+            "value['a' 'b']",
+            "value[f'{key}']",
+            "value.keys()",
+            "if value: return 1",
+            "not value",
+            "for k in value: pass",
+            "key in value",
+            "store.put(key, value)",
+            "f'{value}'",
+            "locals()['value']",
+            "value += {'a': 1}",
+            "value['a'], value",
+    })
+    @DisplayName("Any other use of the parameter means the complete value may be needed")
+    void rejectsOtherUses(String code) {
+        assertThat(FieldReferenceScanner.scan("value", code)).isNull();
+    }
+}
@@ -0,0 +1,170 @@
+package io.axual.ksml.expression;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.mapper.NativeDataObjectMapper;
+import io.axual.ksml.data.object.DataBoolean;
+import io.axual.ksml.data.object.DataInteger;
+import io.axual.ksml.data.object.DataLong;
+import io.axual.ksml.data.object.DataNull;
+import io.axual.ksml.data.object.DataObject;
+import io.axual.ksml.data.object.DataString;
+import io.axual.ksml.data.object.DataStruct;
+import io.axual.ksml.data.type.DataType;
+import io.axual.ksml.data.type.StructType;
+import io.axual.ksml.data.type.TupleType;
+import io.axual.ksml.data.value.Tuple;
+import io.axual.ksml.definition.FunctionDefinition;
+import io.axual.ksml.definition.ParameterDefinition;
+import io.axual.ksml.definition.PythonSource;
+import io.axual.ksml.dsl.KSMLDSL;
+import io.axual.ksml.python.PythonContext;
+import io.axual.ksml.python.PythonContextConfig;
+import io.axual.ksml.python.PythonFunction;
+import io.axual.ksml.type.UserType;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the same expressions through the Python interpreter and the native expression engine, and
+ * checks that both return the same data.
+ */
+class NativeExpressionParityTest {
+    @BeforeAll
+    static void warmupGraalVM() {
+        // The very first Python context creation in a JVM can fail with a libgraal cold-start
+        // error, so build one throwaway context before the field initializer below runs.
+        try {
+            new PythonContext(PythonContextConfig.builder().build());
+        } catch (Exception _) {
+            // Warmup only — the real assertions happen in the @Test methods.
+        }
+    }
+
+    private static final NativeDataObjectMapper NATIVE_MAPPER = new NativeDataObjectMapper();
+    private static final ParameterDefinition[] PARAMETERS = new ParameterDefinition[]{
+            new ParameterDefinition("key", DataString.DATATYPE),
+            new ParameterDefinition("value", new StructType())};
+
+    final PythonContext context = new PythonContext(PythonContextConfig.builder().build());
+
+    private static DataStruct order(int amount, String currency) {
+        final var result = new DataStruct();
+        result.put("id", new DataString("o-" + amount));
+        result.put("amount", new DataInteger(amount));
+        result.put("currency", new DataString(currency));
+        result.put("note", DataNull.INSTANCE);
+        return result;
+    }
+
+    private static Stream<Arguments> expressions() {
+        final var tuple = new TupleType(DataString.DATATYPE, DataLong.DATATYPE);
+        return Stream.of(
+                Arguments.of("value['amount'] > 100 and value['currency'] == 'EUR'", DataBoolean.DATATYPE),
+                Arguments.of("key is not None and 'note' in value", DataBoolean.DATATYPE),
+                Arguments.of("not (value['note'] is None) or 90 <= value['amount'] < 200", DataBoolean.DATATYPE),
+                Arguments.of("value['currency'] in ['EUR', 'USD']", DataBoolean.DATATYPE),
+                Arguments.of("value['amount'] * 2 - 1", DataLong.DATATYPE),
+                Arguments.of("value['amount'] // 7 + -value['amount'] % 7 + 2 ** 3", DataLong.DATATYPE),
+                Arguments.of("-value['amount'] // 4", DataLong.DATATYPE),
+                Arguments.of("key + '-' + value['id']", DataString.DATATYPE),
+                Arguments.of("'big' if value['amount'] > 100 else 'small'", DataString.DATATYPE),
+                Arguments.of("value['note'] or value['currency'] * 2", DataString.DATATYPE),
+                Arguments.of("{'id': value['id'], 'total': value['amount'] * 3, 'eur': value['currency'] == 'EUR'}", new StructType()),
+                Arguments.of("{'key': key, 'order': value, 'tags': [key, value['currency']]}", new StructType()),
+                Arguments.of("value", new StructType()),
+                Arguments.of("(key, value['amount'])", tuple));
+    }
+
+    @ParameterizedTest
+    @MethodSource("expressions")
+    @DisplayName("Native expressions return the same results as Python")
+    void nativeMatchesPython(String expression, DataType resultDataType) {
+        final var definition = FunctionDefinition.as(KSMLDSL.Functions.TYPE_GENERIC, "parity", PARAMETERS, PythonSource.of(null, null, expression), new UserType(UserType.DEFAULT_NOTATION, resultDataType), null);
+        final var python = PythonFunction.forFunction(context, "test", "parity", definition);
+        final var nativeFunction = NativeExpressionFunction.forFunction("test", "parity", definition, context.converter());
+        assertThat(nativeFunction).as("native function for %s", expression).isNotNull();
+
+        for (final var value : List.of(order(150, "EUR"), order(42, "USD"), order(100, "GBP"))) {
+            final var key = new DataString("k");
+            final var expected = python.call(key, value);
+            final var actual = nativeFunction.call(key, value);
+            assertThat(normalize(actual)).as("result of %s", expression).isEqualTo(normalize(expected));
+            if (!(expected instanceof DataStruct)) {
+                assertThat(actual.type()).as("type of %s", expression).isEqualTo(expected.type());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Functions with code, stores or unsupported expressions are left to Python")
+    void fallsBackToPython() {
+        final var resultType = new UserType(UserType.DEFAULT_NOTATION, DataString.DATATYPE);
+        final var withCode = FunctionDefinition.as(KSMLDSL.Functions.TYPE_GENERIC, "f", PARAMETERS, PythonSource.of(null, "x = 1", "key"), resultType, null);
+        final var withStore = FunctionDefinition.as(KSMLDSL.Functions.TYPE_GENERIC, "f", PARAMETERS, PythonSource.of(null, null, "key"), resultType, List.of("store"));
+        final var withCall = FunctionDefinition.as(KSMLDSL.Functions.TYPE_GENERIC, "f", PARAMETERS, PythonSource.of(null, null, "str(value)"), resultType, null);
+        final var commentsOnly = FunctionDefinition.as(KSMLDSL.Functions.TYPE_GENERIC, "f", PARAMETERS, PythonSource.of("# nothing", "", "key"), resultType, null);
+
+        assertThat(NativeExpressionFunction.forFunction("test", "f", withCode, context.converter())).isNull();
+        assertThat(NativeExpressionFunction.forFunction("test", "f", withStore, context.converter())).isNull();
+        assertThat(NativeExpressionFunction.forFunction("test", "f", withCall, context.converter())).isNull();
+        assertThat(NativeExpressionFunction.forFunction("test", "f", commentsOnly, context.converter())).isNotNull();
+    }
+
+    // Compare numbers by value, since both engines may pick a different width for the same number
+    private static Object normalize(DataObject value) {
+        return normalizeNative(NATIVE_MAPPER.fromDataObject(value));
+    }
+
+    private static Object normalizeNative(Object value) {
+        return switch (value) {
+            case Number number -> number.doubleValue();
+            case Map<?, ?> map -> {
+                final var result = new LinkedHashMap<Object, Object>();
+                map.forEach((k, v) -> result.put(k, normalizeNative(v)));
+                yield result;
+            }
+            case List<?> list -> {
+                final var result = new ArrayList<>();
+                list.forEach(element -> result.add(normalizeNative(element)));
+                yield result;
+            }
+            case Tuple<?> tuple -> {
+                final var result = new ArrayList<>();
+                tuple.elements().forEach(element -> result.add(normalizeNative(element)));
+                yield result;
+            }
+            case null, default -> value;
+        };
+    }
+}
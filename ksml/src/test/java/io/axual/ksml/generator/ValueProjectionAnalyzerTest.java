@@ -0,0 +1,139 @@
+package io.axual.ksml.generator;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.definition.BranchDefinition;
+import io.axual.ksml.definition.ForEachActionDefinition;
+import io.axual.ksml.definition.FunctionDefinition;
+import io.axual.ksml.definition.PipelineDefinition;
+import io.axual.ksml.definition.PredicateDefinition;
+import io.axual.ksml.definition.PythonSource;
+import io.axual.ksml.definition.StreamDefinition;
+import io.axual.ksml.definition.TimestampExtractorDefinition;
+import io.axual.ksml.definition.TimestampSourceDefinition;
+import io.axual.ksml.definition.TopologyResource;
+import io.axual.ksml.definition.ValueTransformerDefinition;
+import io.axual.ksml.metric.MetricTags;
+import io.axual.ksml.operation.BranchOperation;
+import io.axual.ksml.operation.FilterOperation;
+import io.axual.ksml.operation.ForEachOperation;
+import io.axual.ksml.operation.MergeOperation;
+import io.axual.ksml.operation.OperationConfig;
+import io.axual.ksml.operation.StoreOperationConfig;
+import io.axual.ksml.operation.StreamOperation;
+import io.axual.ksml.operation.ToOperation;
+import io.axual.ksml.operation.TransformValueOperation;
+import io.axual.ksml.type.UserType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ValueProjectionAnalyzerTest {
+    private static final MetricTags TAGS = new MetricTags();
+    private static final StreamDefinition INPUT = new StreamDefinition("input", UserType.UNKNOWN, UserType.UNKNOWN, null, null, null);
+    private static final StreamDefinition OTHER = new StreamDefinition("other", UserType.UNKNOWN, UserType.UNKNOWN, null, null, null);
+
+    private static FunctionDefinition function(String code, String expression) {
+        return FunctionDefinition.as("generic", "fn", List.of(), PythonSource.of(null, code, expression), UserType.UNKNOWN, List.of());
+    }
+
+    private static FilterOperation filter(String expression) {
+        return new FilterOperation(new StoreOperationConfig("filter", TAGS, null),
+                new PredicateDefinition(function(null, expression)));
+    }
+
+    private static TransformValueOperation transformValue(String expression) {
+        return new TransformValueOperation(new StoreOperationConfig("mapValues", TAGS, null), new ValueTransformerDefinition(function(null, expression)));
+    }
+
+    private static ForEachOperation forEach(String code) {
+        return new ForEachOperation(new OperationConfig("forEach", TAGS), new ForEachActionDefinition(function(code, null)));
+    }
+
+    private static ToOperation to() {
+        return new ToOperation(new OperationConfig("to", TAGS), OTHER, null);
+    }
+
+    private static PipelineDefinition pipeline(StreamDefinition source, List<StreamOperation> chain, StreamOperation sink) {
+        return new PipelineDefinition("pipeline", source != null ? new TopologyResource<>(source.topic(), source, TAGS) : null, chain, sink);
+    }
+
+    private static TopologyDefinition definition(PipelineDefinition... pipelines) {
+        final var result = new TopologyDefinition("test", "test", "1", null);
+        for (int index = 0; index < pipelines.length; index++) result.register("pipeline" + index, pipelines[index]);
+        return result;
+    }
+
+    @Test
+    @DisplayName("Fields read until the value is replaced are projected")
+    void projectsFieldsReadBeforeReplacement() {
+        final var result = ValueProjectionAnalyzer.analyze(definition(pipeline(INPUT,
+                List.of(filter("value['color'] == 'blue'"), transformValue("{'id': value['id']}"), filter("value is not None")),
+                to())));
+        assertThat(result).containsOnlyKeys("input");
+        assertThat(result.get("input")).containsExactly("color", "id");
+    }
+
+    @Test
+    @DisplayName("Fields of all pipelines and branches reading from a stream are combined")
+    void combinesPipelinesAndBranches() {
+        final var branch = new BranchOperation(new OperationConfig("branch", TAGS), List.of(
+                new BranchDefinition(new PredicateDefinition(function(null, "value.get('type') == 'A'")), pipeline(null, List.of(), forEach("log.info('{}', value['a'])"))),
+                new BranchDefinition(null, pipeline(null, List.of(transformValue("value['b']")), to()))));
+        final var result = ValueProjectionAnalyzer.analyze(definition(
+                pipeline(INPUT, List.of(), branch),
+                pipeline(INPUT, List.of(), forEach("print(value['c'])"))));
+        assertThat(result.get("input")).containsExactly("a", "b", "c", "type");
+    }
+
+    @Test
+    @DisplayName("Streams whose values may be used as a whole are not projected")
+    void skipsCompleteValueUse() {
+        // The original value reaches a sink
+        assertThat(ValueProjectionAnalyzer.analyze(definition(pipeline(INPUT, List.of(filter("value['a'] > 1")), to())))).isEmpty();
+        // A function uses the value as a whole
+        assertThat(ValueProjectionAnalyzer.analyze(definition(pipeline(INPUT, List.of(transformValue("str(value)")), to())))).isEmpty();
+        // Another pipeline reading the same stream is not projectable
+        assertThat(ValueProjectionAnalyzer.analyze(definition(
+                pipeline(INPUT, List.of(), forEach("print(value['a'])")),
+                pipeline(INPUT, List.of(), to())))).isEmpty();
+        // The stream is merged into another pipeline
+        assertThat(ValueProjectionAnalyzer.analyze(definition(
+                pipeline(INPUT, List.of(), forEach("print(value['a'])")),
+                pipeline(OTHER, List.of(new MergeOperation(new OperationConfig("merge", TAGS), INPUT)), to())))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Declarative timestamp extractors add their field, Python timestamp extractors prevent projection")
+    void handlesTimestampExtractors() {
+        final var declarative = new TimestampExtractorDefinition(function(null, null), new TimestampSourceDefinition("meta.created", null, null, null));
+        final var declarativeStream = new StreamDefinition("input", UserType.UNKNOWN, UserType.UNKNOWN, null, declarative, null);
+        assertThat(ValueProjectionAnalyzer.analyze(definition(pipeline(declarativeStream, List.of(), forEach("print(value['a'])")))).get("input"))
+                .containsExactly("a", "meta");
+
+        final var python = new TimestampExtractorDefinition(function(null, "value['created']"));
+        final var pythonStream = new StreamDefinition("input", UserType.UNKNOWN, UserType.UNKNOWN, null, python, null);
+        assertThat(ValueProjectionAnalyzer.analyze(definition(pipeline(pythonStream, List.of(), forEach("print(value['a'])"))))).isEmpty();
+    }
+}
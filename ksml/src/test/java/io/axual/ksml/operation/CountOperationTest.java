@@ -25,13 +25,18 @@ import io.axual.ksml.definition.WindowStateStoreDefinition;
 import io.axual.ksml.stream.KGroupedStreamWrapper;
 import io.axual.ksml.stream.KGroupedTableWrapper;
 import io.axual.ksml.stream.KTableWrapper;
+import io.axual.ksml.stream.PaneWindows;
 import io.axual.ksml.stream.SessionWindowedKStreamWrapper;
 import io.axual.ksml.stream.TimeWindowedKStreamWrapper;
 import org.apache.kafka.streams.kstream.KGroupedStream;
 import org.apache.kafka.streams.kstream.KGroupedTable;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.KTable;
+import org.apache.kafka.streams.kstream.Materialized;
 import org.apache.kafka.streams.kstream.Named;
 import org.apache.kafka.streams.kstream.SessionWindowedKStream;
 import org.apache.kafka.streams.kstream.TimeWindowedKStream;
+import org.apache.kafka.streams.processor.api.ProcessorSupplier;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -49,8 +54,10 @@ import static io.axual.ksml.operation.OperationTestSupport.value;
 import static io.axual.ksml.operation.OperationTestSupport.windowStore;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 class CountOperationTest extends OperationTestBase {
 
@@ -149,4 +156,27 @@ class CountOperationTest extends OperationTestBase {
         verify(context).materialize(materialized.capture());
         assertThat(materialized.getValue().name()).isEqualTo("store");
     }
+
+    @Test
+    @DisplayName("count on a stream windowed in panes counts panes and combines them into the hopping windows")
+    @SuppressWarnings("unchecked")
+    void applyToPaneWindowedCountsPanes() {
+        final TimeWindowedKStream<Object, Object> windowed = mock(TimeWindowedKStream.class);
+        final KTable<Object, Long> panes = mock(KTable.class);
+        final KStream<Object, Long> paneUpdates = mock(KStream.class);
+        final KStream<Object, Object> windows = mock(KStream.class);
+        when(windowed.count(any(Named.class), any(Materialized.class))).thenReturn(panes);
+        when(panes.toStream()).thenReturn(paneUpdates);
+        when(paneUpdates.process(any(ProcessorSupplier.class), any(Named.class), eq("count-panes"))).thenReturn(windows);
+        when(windows.toTable(any(Named.class), any(Materialized.class))).thenReturn(mock(KTable.class));
+        final var input = new TimeWindowedKStreamWrapper(windowed, key(), value(), new PaneWindows(60000, 20000, 0));
+        final var context = mockContext();
+
+        assertThat(operation().apply(input, context)).isInstanceOf(KTableWrapper.class);
+        final var materialized = ArgumentCaptor.forClass(WindowStateStoreDefinition.class);
+        verify(context).materialize(materialized.capture());
+        assertThat(materialized.getValue().name()).isEqualTo("count-panes");
+        assertThat(materialized.getValue().windowSize().toMillis()).isEqualTo(20000);
+        verify(windows).toTable(any(Named.class), any(Materialized.class));
+    }
 }
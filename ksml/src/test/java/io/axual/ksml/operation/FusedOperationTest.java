@@ -0,0 +1,113 @@
+package io.axual.ksml.operation;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.operation.processor.FusedFixedKeyProcessor;
+import io.axual.ksml.operation.processor.FusedProcessor;
+import io.axual.ksml.stream.KStreamWrapper;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.Named;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorSupplier;
+import org.apache.kafka.streams.processor.api.ProcessorSupplier;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+
+import static io.axual.ksml.operation.OperationTestSupport.forEachAction;
+import static io.axual.ksml.operation.OperationTestSupport.key;
+import static io.axual.ksml.operation.OperationTestSupport.keyValueStore;
+import static io.axual.ksml.operation.OperationTestSupport.keyValueTransformer;
+import static io.axual.ksml.operation.OperationTestSupport.mockContext;
+import static io.axual.ksml.operation.OperationTestSupport.operationConfig;
+import static io.axual.ksml.operation.OperationTestSupport.predicate;
+import static io.axual.ksml.operation.OperationTestSupport.storeConfig;
+import static io.axual.ksml.operation.OperationTestSupport.value;
+import static io.axual.ksml.operation.OperationTestSupport.valueTransformer;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class FusedOperationTest extends OperationTestBase {
+
+    @Test
+    @DisplayName("Runs of consecutive fusible operations are replaced by a single fused operation")
+    void fuseGroupsConsecutiveRuns() {
+        final var filter = new FilterOperation(storeConfig("filter"), predicate());
+        final var peek = new PeekOperation(operationConfig("peek"), forEachAction());
+        final var materialized = new TransformValueOperation(storeConfig("mapValues", keyValueStore("store")), valueTransformer());
+        final var filterNot = new FilterNotOperation(storeConfig("filterNot"), predicate());
+        final var mapValues = new TransformValueOperation(storeConfig("mapValues"), valueTransformer());
+
+        final var result = FusedOperation.fuse(List.of(filter, peek, materialized, filterNot, mapValues));
+
+        // The operation with a store breaks the chain and keeps its own processor
+        assertThat(result).hasSize(3);
+        assertThat(result.get(0)).isInstanceOf(FusedOperation.class);
+        assertThat(((FusedOperation) result.get(0)).operations()).containsExactly(filter, peek);
+        assertThat(((FusedOperation) result.get(0)).name()).isEqualTo(filter.name);
+        assertThat(result.get(1)).isSameAs(materialized);
+        assertThat(((FusedOperation) result.get(2)).operations()).containsExactly(filterNot, mapValues);
+    }
+
+    @Test
+    @DisplayName("A single fusible operation is left as it is")
+    void fuseLeavesSingleOperations() {
+        final var filter = new FilterOperation(storeConfig("filter"), predicate());
+        assertThat(FusedOperation.fuse(List.of(filter))).containsExactly(filter);
+    }
+
+    @Test
+    @DisplayName("Fused operations that keep the key are wired as one processValues call")
+    @SuppressWarnings("unchecked")
+    void applyToStreamWiresFixedKeyProcessor() {
+        final KStream<Object, Object> stream = mock(KStream.class);
+        final var input = new KStreamWrapper(stream, key(), value());
+        final var fused = new FusedOperation(List.of(
+                new FilterOperation(storeConfig("filter"), predicate()),
+                new TransformValueOperation(storeConfig("mapValues"), valueTransformer())));
+
+        assertThat(fused.apply(input, mockContext())).isInstanceOf(KStreamWrapper.class);
+
+        final var captor = ArgumentCaptor.<FixedKeyProcessorSupplier<Object, Object, Object>>captor();
+        verify(stream).processValues(captor.capture(), any(Named.class), any(String[].class));
+        assertThat(captor.getValue().get()).isInstanceOf(FusedFixedKeyProcessor.class);
+    }
+
+    @Test
+    @DisplayName("Fused operations that change the key are wired as one process call")
+    @SuppressWarnings("unchecked")
+    void applyToStreamWiresKeyChangingProcessor() {
+        final KStream<Object, Object> stream = mock(KStream.class);
+        final var input = new KStreamWrapper(stream, key(), value());
+        final var fused = new FusedOperation(List.of(
+                new PeekOperation(operationConfig("peek"), forEachAction()),
+                new TransformKeyValueOperation(operationConfig("map"), keyValueTransformer())));
+
+        assertThat(fused.apply(input, mockContext())).isInstanceOf(KStreamWrapper.class);
+
+        final var captor = ArgumentCaptor.<ProcessorSupplier<Object, Object, Object, Object>>captor();
+        verify(stream).process(captor.capture(), any(Named.class), any(String[].class));
+        assertThat(captor.getValue().get()).isInstanceOf(FusedProcessor.class);
+    }
+}
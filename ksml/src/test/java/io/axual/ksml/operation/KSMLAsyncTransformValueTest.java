@@ -0,0 +1,81 @@
+package io.axual.ksml.operation;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.testutil.KSMLDriver;
+import io.axual.ksml.testutil.KSMLTopic;
+import io.axual.ksml.testutil.KSMLTopologyTest;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.junit.jupiter.api.DisplayName;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.axual.ksml.operation.SensorData.SensorType.HUMIDITY;
+import static io.axual.ksml.operation.SensorData.SensorType.TEMPERATURE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Test for asyncTransformValue. Transformed records are forwarded by a wall clock punctuator, so the test advances
+ * the wall clock until all records are forwarded.
+ */
+public class KSMLAsyncTransformValueTest {
+
+    @KSMLTopic(topic = "input_topic", valueSerde = KSMLTopic.SerdeType.AVRO)
+    TestInputTopic<String, GenericRecord> inputTopic;
+
+    @KSMLTopic(topic = "output_topic")
+    TestOutputTopic<String, String> outputTopic;
+
+    @KSMLDriver
+    TopologyTestDriver testDriver;
+
+    List<GenericRecord> inputs = List.of(
+            SensorData.builder().city("AMS").type(HUMIDITY).unit("%").value("80").build().toRecord(),
+            SensorData.builder().city("AMS").type(TEMPERATURE).unit("C").value("25").build().toRecord(),
+            SensorData.builder().city("UTR").type(HUMIDITY).unit("%").value("75").build().toRecord(),
+            SensorData.builder().city("UTR").type(TEMPERATURE).unit("C").value("27").build().toRecord()
+    );
+
+    @KSMLTopologyTest(topologies = "pipelines/test-asynctransformvalue.yaml", schemaDirectory = "schemas")
+    @DisplayName("Values transformed outside the stream thread are forwarded in order")
+    void testAsyncTransformValue() {
+        inputs.forEach(rec -> inputTopic.pipeInput(rec.get("city").toString(), rec));
+
+        final var keyValues = new ArrayList<KeyValue<String, String>>();
+        await().atMost(Duration.ofSeconds(10)).until(() -> {
+            testDriver.advanceWallClockTime(Duration.ofMillis(10));
+            keyValues.addAll(outputTopic.readKeyValuesToList());
+            return keyValues.size() == inputs.size();
+        });
+        assertThat(keyValues).containsExactly(
+                new KeyValue<>("AMS", "HUMIDITY 80"),
+                new KeyValue<>("AMS", "TEMPERATURE 25"),
+                new KeyValue<>("UTR", "HUMIDITY 75"),
+                new KeyValue<>("UTR", "TEMPERATURE 27"));
+    }
+}
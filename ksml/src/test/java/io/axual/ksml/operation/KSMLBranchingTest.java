@@ -71,4 +71,19 @@ public class KSMLBranchingTest {
         assertThat(blueRecords.size()).as("3 blue records should be routed to outputBlue").isEqualTo(3);
         assertThat(redRecords.size()).as("red 2 records should be routed to ouputRed").isEqualTo(2);
     }
+
+    @KSMLTest(topology = "pipelines/test-branching-route-once.yaml", schemaDirectory = "schemas")
+    void testBranchingRouteOnce() {
+        // the same routing as above, with all branch conditions evaluated in a single call per record
+        for (final var color : List.of("blue", "red", "blue", "green", "blue", "red", "green")) {
+            inputTopic.pipeInput("key", SensorData.builder().color(color).build().toRecord());
+        }
+
+        final var blueRecords = outputBlue.readValuesToList();
+        final var redRecords = outputRed.readValuesToList();
+
+        assertThat(blueRecords).as("3 blue records should be routed to outputBlue").hasSize(3);
+        assertThat(redRecords).as("2 red records should be routed to outputRed").hasSize(2);
+        assertThat(redRecords).allSatisfy(rec -> assertThat(rec.get("color")).hasToString("red"));
+    }
 }
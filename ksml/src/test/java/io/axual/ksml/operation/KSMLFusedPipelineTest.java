@@ -0,0 +1,77 @@
+package io.axual.ksml.operation;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.testutil.KSMLTest;
+import io.axual.ksml.testutil.KSMLTestExtension;
+import io.axual.ksml.testutil.KSMLTopic;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+@ExtendWith(KSMLTestExtension.class)
+@SuppressWarnings("java:S2187")
+class KSMLFusedPipelineTest {
+
+    @KSMLTopic(topic = "input_topic", valueSerde = KSMLTopic.SerdeType.AVRO)
+    TestInputTopic<String, GenericRecord> inputTopic;
+
+    @KSMLTopic(topic = "output_topic")
+    TestOutputTopic<String, String> outputTopic;
+
+    @KSMLTest(topology = "pipelines/test-fused-pipeline.yaml", schemaDirectory = "schemas")
+    @DisplayName("Fused stateless operations give the same results as separate operations")
+    void testFusedPipeline() {
+        inputTopic.pipeInput("k1", SensorData.builder().name("sensor1").color("blue").city("Amsterdam").build().toRecord());
+        inputTopic.pipeInput("k2", SensorData.builder().name("sensor2").color("red").city("Amsterdam").build().toRecord());
+        inputTopic.pipeInput("k3", SensorData.builder().name("sensor3").color("blue").city("Utrecht").build().toRecord());
+        inputTopic.pipeInput("k4", SensorData.builder().name("sensor4").color("blue").city("Rotterdam").build().toRecord());
+
+        // only blue sensors outside Utrecht pass, rekeyed by city with the new key used in the last step
+        List<KeyValue<String, String>> keyValues = outputTopic.readKeyValuesToList();
+        assertThat(keyValues).containsExactly(
+                new KeyValue<>("Amsterdam", "Amsterdam:sensor1"),
+                new KeyValue<>("Rotterdam", "Rotterdam:sensor4"));
+    }
+
+    @KSMLTest(topology = "pipelines/test-fused-python-pipeline.yaml", schemaDirectory = "schemas")
+    @DisplayName("Fused operations that all run in Python give the same results as separate operations")
+    void testFusedPythonPipeline() {
+        inputTopic.pipeInput("k1", SensorData.builder().name("sensor1").color("blue").city("Amsterdam").build().toRecord());
+        inputTopic.pipeInput("k2", SensorData.builder().name("sensor2").color("red").city("Amsterdam").build().toRecord());
+        inputTopic.pipeInput("k3", SensorData.builder().name("sensor3").color("blue").city("Utrecht").build().toRecord());
+        inputTopic.pipeInput("k4", SensorData.builder().name("sensor4").color("blue").city("Rotterdam").build().toRecord());
+
+        List<KeyValue<String, String>> keyValues = outputTopic.readKeyValuesToList();
+        assertThat(keyValues).containsExactly(
+                new KeyValue<>("Amsterdam", "Amsterdam:sensor1"),
+                new KeyValue<>("Rotterdam", "Rotterdam:sensor4"));
+    }
+}
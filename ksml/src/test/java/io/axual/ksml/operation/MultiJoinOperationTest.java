@@ -0,0 +1,99 @@
+package io.axual.ksml.operation;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.definition.GlobalTableDefinition;
+import io.axual.ksml.definition.MultiJoinLookupDefinition;
+import io.axual.ksml.exception.TopologyException;
+import io.axual.ksml.stream.GlobalKTableWrapper;
+import io.axual.ksml.stream.KStreamWrapper;
+import org.apache.kafka.streams.kstream.GlobalKTable;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.Named;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorSupplier;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static io.axual.ksml.operation.OperationTestSupport.globalTableDefinition;
+import static io.axual.ksml.operation.OperationTestSupport.tableDefinition;
+import static io.axual.ksml.operation.OperationTestSupport.key;
+import static io.axual.ksml.operation.OperationTestSupport.kStream;
+import static io.axual.ksml.operation.OperationTestSupport.keyValueMapper;
+import static io.axual.ksml.operation.OperationTestSupport.mockContext;
+import static io.axual.ksml.operation.OperationTestSupport.operationConfig;
+import static io.axual.ksml.operation.OperationTestSupport.value;
+import static io.axual.ksml.operation.OperationTestSupport.valueJoiner;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MultiJoinOperationTest extends OperationTestBase {
+
+    @Test
+    @DisplayName("multiJoin with global tables delegates to KStream.processValues and returns a stream")
+    @SuppressWarnings("unchecked")
+    void applyToStreamProcessesValues() {
+        final KStream<Object, Object> stream = mock(KStream.class);
+        final GlobalKTable<Object, Object> globalTable = mock(GlobalKTable.class);
+        when(globalTable.queryableStoreName()).thenReturn("customers");
+        final var context = mockContext();
+        when(context.getStreamWrapper(any(GlobalTableDefinition.class))).thenReturn(new GlobalKTableWrapper(globalTable, key(), value()));
+        final var input = new KStreamWrapper(stream, key(), value());
+        final var operation = new MultiJoinOperation(operationConfig("multiJoin"),
+                List.of(new MultiJoinLookupDefinition("customer", globalTableDefinition(), keyValueMapper(), false)),
+                valueJoiner());
+
+        assertThat(operation.apply(input, context)).isInstanceOf(KStreamWrapper.class);
+        verify(stream).processValues(any(FixedKeyProcessorSupplier.class), any(Named.class), any(String[].class));
+    }
+
+    @Test
+    @DisplayName("multiJoin rejects lookups in tables without a state store")
+    void applyRejectsTablesWithoutStore() {
+        final var input = kStream();
+        final var operation = new MultiJoinOperation(operationConfig("multiJoin"),
+                List.of(new MultiJoinLookupDefinition("customer", globalTableDefinition(), null, true)),
+                null);
+
+        assertThatThrownBy(() -> operation.apply(input, mockContext()))
+                .isInstanceOf(TopologyException.class)
+                .hasMessageContaining("without state store");
+    }
+
+    @Test
+    @DisplayName("multiJoin rejects table lookups after the stream key was changed")
+    @SuppressWarnings("unchecked")
+    void applyRejectsTablesAfterKeyChange() {
+        final var input = new KStreamWrapper(mock(KStream.class), key(), value(), true);
+        final var operation = new MultiJoinOperation(operationConfig("multiJoin"),
+                List.of(new MultiJoinLookupDefinition("customer", tableDefinition(), null, false)),
+                null);
+
+        assertThatThrownBy(() -> operation.apply(input, mockContext()))
+                .isInstanceOf(TopologyException.class)
+                .hasMessageContaining("repartition");
+    }
+}
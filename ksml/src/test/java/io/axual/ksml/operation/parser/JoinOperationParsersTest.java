@@ -46,6 +46,7 @@ import java.util.stream.Stream;
 import static io.axual.ksml.operation.parser.OperationParserTestSupport.nodeOf;
 import static io.axual.ksml.operation.parser.OperationParserTestSupport.registerNotations;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
 
 class JoinOperationParsersTest {
@@ -99,6 +100,15 @@ class JoinOperationParsersTest {
               resultType: string
             """;
 
+    private static final String GLOBAL_TABLE_KEY_FIELD_JOIN = """
+            name: joinOp
+            globalTable: theGlobalTable
+            keyField: order.productId
+            valueJoiner:
+              expression: value1
+              resultType: string
+            """;
+
     static Stream<Arguments> joinCases() {
         final Function<TopologyResources, OperationParser<BaseOperation>> inner = JoinOperationParser::new;
         final Function<TopologyResources, OperationParser<BaseOperation>> left = LeftJoinOperationParser::new;
@@ -107,9 +117,11 @@ class JoinOperationParsersTest {
                 arguments("inner stream", inner, STREAM_JOIN, JoinWithStreamOperation.class),
                 arguments("inner table", inner, TABLE_JOIN, JoinWithTableOperation.class),
                 arguments("inner global table", inner, GLOBAL_TABLE_JOIN, JoinWithGlobalTableOperation.class),
+                arguments("inner global table by key field", inner, GLOBAL_TABLE_KEY_FIELD_JOIN, JoinWithGlobalTableOperation.class),
                 arguments("left stream", left, STREAM_JOIN, LeftJoinWithStreamOperation.class),
                 arguments("left table", left, TABLE_JOIN, LeftJoinWithTableOperation.class),
                 arguments("left global table", left, GLOBAL_TABLE_JOIN, LeftJoinWithGlobalTableOperation.class),
+                arguments("left global table by key field", left, GLOBAL_TABLE_KEY_FIELD_JOIN, LeftJoinWithGlobalTableOperation.class),
                 arguments("outer stream", outer, STREAM_JOIN, OuterJoinWithStreamOperation.class),
                 arguments("outer table", outer, TABLE_JOIN, OuterJoinWithTableOperation.class));
     }
@@ -125,6 +137,18 @@ class JoinOperationParsersTest {
         assertThat(operation).isInstanceOf(expectedType);
     }
 
+    @Test
+    @DisplayName("a globalTable join requires either a mapper or a keyField")
+    void globalTableJoinRequiresOneKeySelector() {
+        final var both = GLOBAL_TABLE_JOIN + "keyField: productId\n";
+        final var neither = GLOBAL_TABLE_KEY_FIELD_JOIN.replace("keyField: order.productId\n", "");
+        final var parser = new JoinOperationParser(resources);
+        assertThatThrownBy(() -> parser.parse(nodeOf(both)))
+                .hasMessageContaining("requires either a mapper or a keyField");
+        assertThatThrownBy(() -> parser.parse(nodeOf(neither)))
+                .hasMessageContaining("requires either a mapper or a keyField");
+    }
+
     @Test
     @DisplayName("inner, left and outer join parsers return null for a null node")
     void joinParsersReturnNullForNullNode() {
@@ -0,0 +1,247 @@
+package io.axual.ksml.operation.processor;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.object.DataString;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.kstream.ValueMapperWithKey;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.Punctuator;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncTransformValueProcessorTest {
+    private static final String STORE_NAME = "lookup-in-flight";
+    private static final Serde<Object> STRING_SERDE = Serdes.serdeFrom(
+            (Serializer<Object>) (_, data) -> ((DataString) data).value().getBytes(StandardCharsets.UTF_8),
+            (Deserializer<Object>) (_, bytes) -> new DataString(new String(bytes, StandardCharsets.UTF_8)));
+
+    @Mock
+    private ProcessorContext<Object, Object> context;
+    @Mock
+    private KeyValueStore<Long, byte[]> pendingStore;
+    private final List<String> forwarded = new ArrayList<>();
+    // Transformations are queued here and run by the tests, so tests decide when a transformation finishes
+    private final List<Runnable> transformations = new ArrayList<>();
+    private AsyncTransformValueProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        when(context.getStateStore(STORE_NAME)).thenReturn(pendingStore);
+        lenient().doAnswer(invocation -> {
+            final Record<?, ?> rec = invocation.getArgument(0);
+            forwarded.add(((DataString) rec.value()).value());
+            return null;
+        }).when(context).forward(any(Record.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (processor != null) processor.close();
+    }
+
+    private static KeyValueIterator<Long, byte[]> iteratorOf(List<KeyValue<Long, byte[]>> entries) {
+        final Iterator<KeyValue<Long, byte[]>> iterator = entries.iterator();
+        return new KeyValueIterator<>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public KeyValue<Long, byte[]> next() {
+                return iterator.next();
+            }
+
+            @Override
+            public Long peekNextKey() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void close() {
+                // Nothing to close
+            }
+        };
+    }
+
+    private static ValueMapperWithKey<Object, Object, Object> toUpperCase() {
+        return (_, value) -> new DataString(((DataString) value).value().toUpperCase());
+    }
+
+    private Punctuator init(ValueMapperWithKey<Object, Object, Object> mapper, int maxInFlight, AsyncTransformValueProcessor.Ordering ordering, List<KeyValue<Long, byte[]>> pending) {
+        when(pendingStore.all()).thenReturn(iteratorOf(pending));
+        processor = new AsyncTransformValueProcessor("lookup", STORE_NAME, mapper, maxInFlight, ordering, STRING_SERDE, STRING_SERDE, transformations::add);
+        processor.init(context);
+        final var punctuator = ArgumentCaptor.forClass(Punctuator.class);
+        verify(context).schedule(any(Duration.class), eq(PunctuationType.WALL_CLOCK_TIME), punctuator.capture());
+        return punctuator.getValue();
+    }
+
+    private Punctuator init(ValueMapperWithKey<Object, Object, Object> mapper, int maxInFlight, AsyncTransformValueProcessor.Ordering ordering) {
+        return init(mapper, maxInFlight, ordering, List.of());
+    }
+
+    private void process(String key, String value) {
+        processor.process(new Record<>(new DataString(key), new DataString(value), 0L));
+    }
+
+    // Runs the queued transformation with the given index
+    private void transform(int index) {
+        transformations.remove(index).run();
+    }
+
+    @Test
+    @DisplayName("with partition ordering, records are forwarded in the order in which they were received")
+    void forwardsInPartitionOrder() {
+        final var punctuator = init(toUpperCase(), 4, AsyncTransformValueProcessor.Ordering.PARTITION);
+
+        process("a", "slow-a");
+        process("b", "fast-b");
+        transform(1);
+        punctuator.punctuate(0L);
+        assertThat(forwarded).isEmpty();
+
+        transform(0);
+        punctuator.punctuate(0L);
+        assertThat(forwarded).containsExactly("SLOW-A", "FAST-B");
+    }
+
+    @Test
+    @DisplayName("with key ordering, records of other keys overtake slow records")
+    void forwardsInKeyOrder() {
+        final var punctuator = init(toUpperCase(), 4, AsyncTransformValueProcessor.Ordering.KEY);
+
+        process("a", "slow-a1");
+        process("a", "fast-a2");
+        process("b", "fast-b");
+        // The second record of key a is only transformed after the first, so only a1 and b are queued
+        assertThat(transformations).hasSize(2);
+        transform(1);
+        punctuator.punctuate(0L);
+        assertThat(forwarded).containsExactly("FAST-B");
+
+        transform(0);
+        transform(0);
+        punctuator.punctuate(0L);
+        assertThat(forwarded).containsExactly("FAST-B", "SLOW-A1", "FAST-A2");
+    }
+
+    @Test
+    @DisplayName("with the maximum number of records in flight, the stream thread waits for the oldest record")
+    void boundsRecordsInFlight() throws InterruptedException {
+        init(toUpperCase(), 2, AsyncTransformValueProcessor.Ordering.PARTITION);
+
+        process("key", "value-0");
+        process("key", "value-1");
+        final var worker = new Thread(transformations.removeFirst());
+        worker.start();
+        process("key", "value-2");
+        worker.join();
+
+        assertThat(forwarded).containsExactly("VALUE-0");
+        assertThat(transformations).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("records stay in the pending store until they are forwarded")
+    void keepsRecordsPendingUntilForwarded() {
+        final var punctuator = init(toUpperCase(), 4, AsyncTransformValueProcessor.Ordering.PARTITION);
+
+        process("a", "value");
+        verify(pendingStore).put(eq(0L), any(byte[].class));
+        punctuator.punctuate(0L);
+        verify(pendingStore, never()).delete(anyLong());
+
+        transform(0);
+        punctuator.punctuate(0L);
+        assertThat(forwarded).containsExactly("VALUE");
+        verify(pendingStore).delete(0L);
+    }
+
+    @Test
+    @DisplayName("pending records are transformed and forwarded again after a restart")
+    void forwardsPendingRecordsAfterRestart() {
+        init(toUpperCase(), 4, AsyncTransformValueProcessor.Ordering.PARTITION);
+        process("a", "value");
+        final var pending = ArgumentCaptor.forClass(byte[].class);
+        verify(pendingStore).put(eq(0L), pending.capture());
+        processor.close();
+        transformations.clear();
+
+        final var restarted = new AsyncTransformValueProcessor("lookup", STORE_NAME, toUpperCase(), 4, AsyncTransformValueProcessor.Ordering.PARTITION, STRING_SERDE, STRING_SERDE, transformations::add);
+        when(pendingStore.all()).thenReturn(iteratorOf(List.of(KeyValue.pair(0L, pending.getValue()))));
+        restarted.init(context);
+        processor = restarted;
+        transform(0);
+        restarted.process(new Record<>(new DataString("b"), new DataString("next"), 0L));
+
+        assertThat(forwarded).containsExactly("VALUE");
+        // New records continue after the sequence numbers of the pending records
+        verify(pendingStore).put(eq(1L), any(byte[].class));
+    }
+
+    @Test
+    @DisplayName("errors of the transformation are raised on the stream thread")
+    void raisesErrorsOnStreamThread() {
+        final var punctuator = init((_, _) -> {
+            throw new IllegalArgumentException("Lookup failed");
+        }, 4, AsyncTransformValueProcessor.Ordering.PARTITION);
+
+        process("a", "value");
+        transform(0);
+
+        assertThatThrownBy(() -> punctuator.punctuate(0L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Lookup failed");
+    }
+}
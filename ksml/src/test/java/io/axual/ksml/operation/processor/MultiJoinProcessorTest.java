@@ -0,0 +1,149 @@
+package io.axual.ksml.operation.processor;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.object.DataNull;
+import io.axual.ksml.data.object.DataString;
+import io.axual.ksml.data.object.DataStruct;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+import org.apache.kafka.streams.state.TimestampedKeyValueStore;
+import org.apache.kafka.streams.state.ValueAndTimestamp;
+import org.apache.kafka.streams.state.VersionedKeyValueStore;
+import org.apache.kafka.streams.state.VersionedRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static io.axual.ksml.operation.processor.PeekProcessorTest.fixedKeyRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MultiJoinProcessorTest {
+    private static final DataString KEY = new DataString("order-1");
+
+    @Mock
+    private FixedKeyProcessorContext<Object, Object> context;
+    @Mock
+    private TimestampedKeyValueStore<Object, Object> customers;
+    @Mock
+    private TimestampedKeyValueStore<Object, Object> products;
+    @Mock
+    private VersionedKeyValueStore<Object, Object> prices;
+
+    @BeforeEach
+    void setUp() {
+        when(context.getStateStore("customers")).thenReturn(customers);
+        when(context.getStateStore("products")).thenReturn(products);
+        lenient().when(customers.get(KEY)).thenReturn(ValueAndTimestamp.make(new DataString("Alice"), 0L));
+        lenient().when(products.get(new DataString("p-1"))).thenReturn(ValueAndTimestamp.make(new DataString("Book"), 0L));
+    }
+
+    private static DataStruct order(String product) {
+        final var result = new DataStruct();
+        result.put("product", new DataString(product));
+        return result;
+    }
+
+    private static MultiJoinProcessor.Lookup[] lookups(boolean leftProducts) {
+        return new MultiJoinProcessor.Lookup[]{
+                new MultiJoinProcessor.Lookup("customers", "customer", null, false),
+                new MultiJoinProcessor.Lookup("products", "productInfo", (key, value) -> ((DataStruct) value).get("product"), leftProducts)};
+    }
+
+    private DataStruct forwardedValue() {
+        final ArgumentCaptor<FixedKeyRecord<Object, Object>> captor = ArgumentCaptor.captor();
+        verify(context).forward(captor.capture());
+        return (DataStruct) captor.getValue().value();
+    }
+
+    @Test
+    @DisplayName("looked up values are added to a copy of the record value")
+    void addsLookedUpValues() {
+        final var processor = new MultiJoinProcessor("multiJoin", lookups(false), null);
+        processor.init(context);
+        final var order = order("p-1");
+
+        processor.process(fixedKeyRecord(KEY, order));
+
+        final var result = forwardedValue();
+        assertThat(result.get("product")).isEqualTo(new DataString("p-1"));
+        assertThat(result.get("customer")).isEqualTo(new DataString("Alice"));
+        assertThat(result.get("productInfo")).isEqualTo(new DataString("Book"));
+        assertThat(order.containsKey("customer")).isFalse();
+    }
+
+    @Test
+    @DisplayName("records without a value in an inner lookup are dropped, left lookups add null")
+    void handlesMissingValues() {
+        final var inner = new MultiJoinProcessor("multiJoin", lookups(false), null);
+        inner.init(context);
+        inner.process(fixedKeyRecord(KEY, order("p-2")));
+        verify(context, never()).forward(any(FixedKeyRecord.class));
+
+        final var left = new MultiJoinProcessor("multiJoin", lookups(true), null);
+        left.init(context);
+        left.process(fixedKeyRecord(KEY, order("p-2")));
+        assertThat(forwardedValue().get("productInfo")).isEqualTo(DataNull.INSTANCE);
+    }
+
+    @Test
+    @DisplayName("a value joiner is called once with the record value and all looked up values")
+    void callsJoinerOnce() {
+        final var processor = new MultiJoinProcessor("multiJoin", lookups(false), (key, value, lookedUp) -> {
+            final var values = (DataStruct) lookedUp;
+            final var result = new DataStruct();
+            result.put("summary", new DataString(values.getAsString("customer").value() + " bought " + values.getAsString("productInfo").value()));
+            return result;
+        });
+        processor.init(context);
+
+        processor.process(fixedKeyRecord(KEY, order("p-1")));
+
+        assertThat(forwardedValue().get("summary")).isEqualTo(new DataString("Alice bought Book"));
+    }
+
+    @Test
+    @DisplayName("versioned tables are read as of the record timestamp")
+    void readsVersionedTablesAsOfRecordTimestamp() {
+        when(context.getStateStore("prices")).thenReturn(prices);
+        when(prices.get(new DataString("p-1"), 42L)).thenReturn(new VersionedRecord<>(new DataString("9.99"), 40L));
+        final var withPrices = new MultiJoinProcessor.Lookup[]{
+                lookups(false)[0],
+                lookups(false)[1],
+                new MultiJoinProcessor.Lookup("prices", "price", (key, value) -> ((DataStruct) value).get("product"), false)};
+        final var processor = new MultiJoinProcessor("multiJoin", withPrices, null);
+        processor.init(context);
+
+        processor.process(fixedKeyRecord(KEY, order("p-1")).withTimestamp(42L));
+
+        assertThat(forwardedValue().get("price")).isEqualTo(new DataString("9.99"));
+    }
+}
@@ -0,0 +1,218 @@
+package io.axual.ksml.operation.processor;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.object.DataLong;
+import io.axual.ksml.data.object.DataString;
+import io.axual.ksml.stream.PaneWindows;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.kstream.Merger;
+import org.apache.kafka.streams.kstream.Windowed;
+import org.apache.kafka.streams.kstream.internals.TimeWindow;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.TimestampedWindowStore;
+import org.apache.kafka.streams.state.ValueAndTimestamp;
+import org.apache.kafka.streams.state.WindowStoreIterator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PaneWindowProcessorTest {
+    private static final DataString KEY = new DataString("sensor-1");
+    private static final DataString OTHER_KEY = new DataString("sensor-2");
+    // Windows of 30 seconds that advance by 10 seconds, so every window consists of three panes
+    private static final PaneWindows WINDOWS = new PaneWindows(30000, 10000, 0);
+    private static final Merger<Object, Object> SUM = (_, count1, count2) -> new DataLong(((DataLong) count1).value() + ((DataLong) count2).value());
+
+    @Mock
+    private ProcessorContext<Windowed<Object>, Object> context;
+    @Mock
+    private TimestampedWindowStore<Object, Object> panes;
+    @Mock
+    private KeyValueStore<String, Long> progress;
+    private PaneWindowProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        when(context.getStateStore("panes")).thenReturn(panes);
+        when(context.getStateStore("progress")).thenReturn(progress);
+        processor = new PaneWindowProcessor("count", "panes", "progress", WINDOWS, SUM);
+        processor.init(context);
+    }
+
+    private static KeyValue<Long, ValueAndTimestamp<Object>> pane(long start, long count) {
+        return KeyValue.pair(start, ValueAndTimestamp.make(new DataLong(count), start + 5000));
+    }
+
+    // The panes of all keys, of which the processor only reads the keys
+    private static KeyValueIterator<Windowed<Object>, ValueAndTimestamp<Object>> panesOf(Object... keys) {
+        final var entries = new ArrayList<KeyValue<Windowed<Object>, ValueAndTimestamp<Object>>>();
+        for (final var key : keys) {
+            entries.add(KeyValue.pair(new Windowed<>(key, new TimeWindow(0, 10000)), ValueAndTimestamp.make(new DataLong(1L), 5000)));
+        }
+        return iteratorOf(entries);
+    }
+
+    private static Record<Windowed<Object>, Object> paneUpdate(long start) {
+        return new Record<>(new Windowed<>(KEY, new TimeWindow(start, start + 10000)), new DataLong(1L), start);
+    }
+
+    private static KeyValueIterator<Windowed<Object>, ValueAndTimestamp<Object>> iteratorOf(List<KeyValue<Windowed<Object>, ValueAndTimestamp<Object>>> entries) {
+        final Iterator<KeyValue<Windowed<Object>, ValueAndTimestamp<Object>>> iterator = entries.iterator();
+        return new KeyValueIterator<>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public KeyValue<Windowed<Object>, ValueAndTimestamp<Object>> next() {
+                return iterator.next();
+            }
+
+            @Override
+            public Windowed<Object> peekNextKey() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void close() {
+                // Nothing to close
+            }
+        };
+    }
+
+    @SafeVarargs
+    private static WindowStoreIterator<ValueAndTimestamp<Object>> panesOfKey(KeyValue<Long, ValueAndTimestamp<Object>>... entries) {
+        final Iterator<KeyValue<Long, ValueAndTimestamp<Object>>> iterator = List.of(entries).iterator();
+        return new WindowStoreIterator<>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public KeyValue<Long, ValueAndTimestamp<Object>> next() {
+                return iterator.next();
+            }
+
+            @Override
+            public Long peekNextKey() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void close() {
+                // Nothing to close
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("closed windows are emitted once, combining their panes in time order")
+    void closedWindowsCombinePanes() {
+        when(context.currentStreamTimeMs()).thenReturn(40000L);
+        when(progress.get("nextWindowStart")).thenReturn(0L);
+        when(panes.fetchAll(Instant.ofEpochMilli(0), Instant.ofEpochMilli(30000))).thenReturn(panesOf(KEY, KEY));
+        when(panes.fetch(KEY, Instant.ofEpochMilli(0), Instant.ofEpochMilli(30000)))
+                .thenReturn(panesOfKey(pane(0, 1), pane(10000, 2), pane(20000, 3), pane(30000, 4)));
+
+        processor.process(paneUpdate(30000));
+
+        final ArgumentCaptor<Record<Windowed<Object>, Object>> captor = ArgumentCaptor.captor();
+        verify(context, times(2)).forward(captor.capture());
+        final var first = captor.getAllValues().get(0);
+        assertThat(first.key().window().start()).isZero();
+        assertThat(first.key().window().end()).isEqualTo(30000);
+        assertThat(first.value()).isEqualTo(new DataLong(6L));
+        assertThat(first.timestamp()).isEqualTo(25000);
+        final var second = captor.getAllValues().get(1);
+        assertThat(second.key().key()).isEqualTo(KEY);
+        assertThat(second.key().window().start()).isEqualTo(10000);
+        assertThat(second.value()).isEqualTo(new DataLong(9L));
+        verify(progress).put("nextWindowStart", 20000L);
+    }
+
+    @Test
+    @DisplayName("the panes of every key are read and emitted one key at a time")
+    void panesAreReadPerKey() {
+        when(context.currentStreamTimeMs()).thenReturn(30000L);
+        when(progress.get("nextWindowStart")).thenReturn(0L);
+        when(panes.fetchAll(Instant.ofEpochMilli(0), Instant.ofEpochMilli(20000))).thenReturn(panesOf(KEY, OTHER_KEY, KEY));
+        when(panes.fetch(KEY, Instant.ofEpochMilli(0), Instant.ofEpochMilli(20000))).thenReturn(panesOfKey(pane(0, 1), pane(20000, 2)));
+        when(panes.fetch(OTHER_KEY, Instant.ofEpochMilli(0), Instant.ofEpochMilli(20000))).thenReturn(panesOfKey(pane(10000, 5)));
+
+        processor.process(paneUpdate(20000));
+
+        final ArgumentCaptor<Record<Windowed<Object>, Object>> captor = ArgumentCaptor.captor();
+        final var order = inOrder(panes, context);
+        order.verify(panes).fetch(KEY, Instant.ofEpochMilli(0), Instant.ofEpochMilli(20000));
+        order.verify(context).forward(captor.capture());
+        order.verify(panes).fetch(OTHER_KEY, Instant.ofEpochMilli(0), Instant.ofEpochMilli(20000));
+        order.verify(context).forward(captor.capture());
+        assertThat(captor.getAllValues()).extracting(rec -> rec.key().key()).containsExactly(KEY, OTHER_KEY);
+        assertThat(captor.getAllValues()).extracting(Record::value).containsExactly(new DataLong(3L), new DataLong(5L));
+    }
+
+    @Test
+    @DisplayName("without progress, windows that are already closed are not emitted")
+    void noProgressStartsAtOpenWindows() {
+        when(context.currentStreamTimeMs()).thenReturn(40000L);
+
+        processor.process(paneUpdate(30000));
+
+        verify(panes, never()).fetchAll(any(Instant.class), any(Instant.class));
+        verify(context, never()).forward(any());
+        verify(progress).put("nextWindowStart", 20000L);
+    }
+
+    @Test
+    @DisplayName("panes are tumbling windows of the greatest common divisor of size and advance")
+    void paneWindowsFollowSizeAndAdvance() {
+        final var windows = new PaneWindows(60000, 25000, 1000);
+        assertThat(windows.paneSize()).isEqualTo(5000);
+        assertThat(windows.paneWindows().size()).isEqualTo(5000);
+        assertThat(windows.paneWindows().gracePeriodMs()).isEqualTo(56000);
+        assertThat(windows.firstWindowStart(65000)).isEqualTo(25000);
+        assertThat(windows.lastWindowStart(65000)).isEqualTo(50000);
+    }
+}
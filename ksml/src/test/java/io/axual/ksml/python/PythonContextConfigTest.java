@@ -51,6 +51,9 @@ class PythonContextConfigTest {
             softly.assertThat(cfg.inheritEnvironmentVariables())
                     .as("inheritEnvironmentVariables should default to false")
                     .isFalse();
+            softly.assertThat(cfg.disableNativeExpressions())
+                    .as("disableNativeExpressions should default to false")
+                    .isFalse();
         });
     }
 
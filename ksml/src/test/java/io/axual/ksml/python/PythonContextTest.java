@@ -327,6 +327,29 @@ class PythonContextTest {
         }
     }
 
+    @Test
+    @DisplayName("Registering the same code again returns the registered function without evaluating the code")
+    void registeringSameCodeEvaluatesOnce() {
+        try (var pythonContext = new PythonContext(PythonContextConfig.builder().build())) {
+            final var pyCode = """
+                    import polyglot
+                    
+                    evaluations = globals().get('evaluations', 0) + 1
+                    
+                    @polyglot.export_value
+                    def count_evaluations():
+                      return evaluations
+                    """;
+
+            final var first = pythonContext.registerFunction(pyCode, "count_evaluations");
+            final var second = pythonContext.registerFunction(pyCode, "count_evaluations");
+
+            assertThat(second).isSameAs(first);
+            assertThat(second.execute().asInt()).isEqualTo(1);
+            assertThat(pythonContext.registerFunction(pyCode + "\n", "count_evaluations").execute().asInt()).isEqualTo(2);
+        }
+    }
+
     @Test
     @DisplayName("Python module import should work with configured pythonModulePath")
     void testPythonModuleImport() throws Exception {
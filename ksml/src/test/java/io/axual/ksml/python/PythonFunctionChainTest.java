@@ -0,0 +1,189 @@
+package io.axual.ksml.python;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.object.DataBoolean;
+import io.axual.ksml.data.object.DataInteger;
+import io.axual.ksml.data.object.DataString;
+import io.axual.ksml.definition.FunctionDefinition;
+import io.axual.ksml.definition.ParameterDefinition;
+import io.axual.ksml.definition.PythonSource;
+import io.axual.ksml.dsl.KSMLDSL;
+import io.axual.ksml.metric.MetricName;
+import io.axual.ksml.metric.MetricTags;
+import io.axual.ksml.metric.Metrics;
+import io.axual.ksml.python.PythonFunctionChain.StepType;
+import io.axual.ksml.type.UserTupleType;
+import io.axual.ksml.type.UserType;
+import io.axual.ksml.user.UserForeachAction;
+import io.axual.ksml.user.UserFunction;
+import io.axual.ksml.user.UserKeyValueTransformer;
+import io.axual.ksml.user.UserPredicate;
+import io.axual.ksml.user.UserValueTransformer;
+import org.apache.kafka.streams.KeyValue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PythonFunctionChainTest {
+    @BeforeAll
+    static void warmupGraalVM() {
+        // The very first Python context creation in a JVM can fail with a libgraal cold-start
+        // error, so build one throwaway context before the field initializer below runs.
+        try {
+            new PythonContext(PythonContextConfig.builder().build());
+        } catch (Exception _) {
+            // Warmup only — the real assertions happen in the @Test methods.
+        }
+    }
+
+    final PythonContext context = new PythonContext(PythonContextConfig.builder().build());
+    final ParameterDefinition[] params = new ParameterDefinition[]{
+            new ParameterDefinition("key", DataString.DATATYPE),
+            new ParameterDefinition("value", DataInteger.DATATYPE)};
+    final UserType stringType = new UserType(UserType.DEFAULT_NOTATION, DataString.DATATYPE);
+    final UserType integerType = new UserType(UserType.DEFAULT_NOTATION, DataInteger.DATATYPE);
+    final UserType booleanType = new UserType(UserType.DEFAULT_NOTATION, DataBoolean.DATATYPE);
+
+    private FunctionDefinition definition(String type, String name, String code, String expression, UserType resultType) {
+        return FunctionDefinition.as(type, name, params, PythonSource.of(null, code, expression), resultType, List.of());
+    }
+
+    private static long executions(MetricTags tags, String functionType, String functionName) {
+        return Metrics.registry().getTimer(new MetricName("execution-time", tags.append("function-type", functionType).append("function-name", functionName))).getCount();
+    }
+
+    @Test
+    @DisplayName("All steps run in one call and every step records its own execution time")
+    void appliesStepsInOneCall() {
+        final var tags = new MetricTags().append("test", "chain-apply");
+        final var positiveDef = definition(KSMLDSL.Functions.TYPE_PREDICATE, "positive", "positive = value > 0", "positive", booleanType);
+        final var positive = PythonFunction.forFunction(context, "test", "positive", positiveDef);
+        final var printDef = definition(KSMLDSL.Functions.TYPE_FOREACHACTION, "print", "print(key)", null, null);
+        final var print = PythonFunction.forFunction(context, "test", "print", printDef);
+        final var doubleDef = definition(KSMLDSL.Functions.TYPE_VALUETRANSFORMER, "double", null, "value * 2", integerType);
+        final var doubler = PythonFunction.forFunction(context, "test", "double", doubleDef);
+        final var rekeyDef = definition(KSMLDSL.Functions.TYPE_KEYVALUETRANSFORMER, "rekey", null, "(key + '-' + str(value), value)", new UserType(new UserTupleType(stringType, integerType)));
+        final var rekey = PythonFunction.forFunction(context, "test", "rekey", rekeyDef);
+
+        final var chain = new PythonFunctionChain(context, "test", List.of(
+                PythonFunctionChain.stepOf(StepType.FILTER, positiveDef, positive, new UserPredicate(positive, tags)),
+                PythonFunctionChain.stepOf(StepType.PEEK, printDef, print, new UserForeachAction(print, tags)),
+                PythonFunctionChain.stepOf(StepType.TRANSFORM_VALUE, doubleDef, doubler, new UserValueTransformer(doubler, tags)),
+                PythonFunctionChain.stepOf(StepType.TRANSFORM_KEY_VALUE, rekeyDef, rekey, new UserKeyValueTransformer(rekey, tags))),
+                stringType, integerType);
+
+        final var result = chain.apply(null, new DataString("a"), new DataInteger(5));
+
+        assertThat(result).isEqualTo(new KeyValue<>(new DataString("a-10"), new DataInteger(10)));
+        assertThat(executions(tags, KSMLDSL.Functions.TYPE_PREDICATE, "positive")).isEqualTo(1);
+        assertThat(executions(tags, KSMLDSL.Functions.TYPE_FOREACHACTION, "print")).isEqualTo(1);
+        assertThat(executions(tags, KSMLDSL.Functions.TYPE_VALUETRANSFORMER, "double")).isEqualTo(1);
+        assertThat(executions(tags, KSMLDSL.Functions.TYPE_KEYTRANSFORMER, "rekey")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("A filter step drops the record without calling the steps after it")
+    void filterStopsTheChain() {
+        final var tags = new MetricTags().append("test", "chain-filter");
+        final var negativeDef = definition(KSMLDSL.Functions.TYPE_PREDICATE, "negative", null, "value < 0", booleanType);
+        final var negative = PythonFunction.forFunction(context, "test", "negative", negativeDef);
+        final var doubleDef = definition(KSMLDSL.Functions.TYPE_VALUETRANSFORMER, "double", null, "value * 2", integerType);
+        final var doubler = PythonFunction.forFunction(context, "test", "double", doubleDef);
+
+        final var chain = new PythonFunctionChain(context, "test", List.of(
+                PythonFunctionChain.stepOf(StepType.FILTER_NOT, negativeDef, negative, new UserPredicate(negative, tags)),
+                PythonFunctionChain.stepOf(StepType.TRANSFORM_VALUE, doubleDef, doubler, new UserValueTransformer(doubler, tags))),
+                stringType, integerType);
+
+        assertThat(chain.apply(null, new DataString("a"), new DataInteger(-1))).isNull();
+        assertThat(executions(tags, KSMLDSL.Functions.TYPE_PREDICATE, "negative")).isEqualTo(1);
+        assertThat(executions(tags, KSMLDSL.Functions.TYPE_VALUETRANSFORMER, "double")).isZero();
+
+        // A record that passes keeps its original key, since no step replaces it
+        final var key = new DataString("b");
+        assertThat(chain.apply(null, key, new DataInteger(2)).key).isSameAs(key);
+    }
+
+    @Test
+    @DisplayName("An error names the function of the step that failed")
+    void errorNamesFailingStep() {
+        final var tags = new MetricTags().append("test", "chain-error");
+        final var doubleDef = definition(KSMLDSL.Functions.TYPE_VALUETRANSFORMER, "double", null, "value * 2", integerType);
+        final var doubler = PythonFunction.forFunction(context, "test", "double", doubleDef);
+        final var divideDef = definition(KSMLDSL.Functions.TYPE_VALUETRANSFORMER, "divide", null, "value // 0", integerType);
+        final var divide = PythonFunction.forFunction(context, "test", "divide", divideDef);
+
+        final var chain = new PythonFunctionChain(context, "test", List.of(
+                PythonFunctionChain.stepOf(StepType.TRANSFORM_VALUE, doubleDef, doubler, new UserValueTransformer(doubler, tags)),
+                PythonFunctionChain.stepOf(StepType.TRANSFORM_VALUE, divideDef, divide, new UserValueTransformer(divide, tags))),
+                stringType, integerType);
+
+        assertThatThrownBy(() -> chain.apply(null, new DataString("a"), new DataInteger(1)))
+                .hasMessageContaining("test.divide");
+    }
+
+    @Test
+    @DisplayName("Results of intermediate steps are converted and checked before the next step receives them")
+    void intermediateResultsAreChecked() {
+        final var tags = new MetricTags().append("test", "chain-check");
+        final var rekeyDef = definition(KSMLDSL.Functions.TYPE_KEYVALUETRANSFORMER, "rekey", null, "(key + '-', value + 1)", new UserType(new UserTupleType(stringType, integerType)));
+        final var rekey = PythonFunction.forFunction(context, "test", "rekey", rekeyDef);
+        final var textDef = definition(KSMLDSL.Functions.TYPE_VALUETRANSFORMER, "text", null, "str(value)", integerType);
+        final var text = PythonFunction.forFunction(context, "test", "text", textDef);
+        final var doubleDef = definition(KSMLDSL.Functions.TYPE_VALUETRANSFORMER, "double", null, "value * 2", integerType);
+        final var doubler = PythonFunction.forFunction(context, "test", "double", doubleDef);
+
+        final var converted = new PythonFunctionChain(context, "test", List.of(
+                PythonFunctionChain.stepOf(StepType.TRANSFORM_KEY_VALUE, rekeyDef, rekey, new UserKeyValueTransformer(rekey, tags)),
+                PythonFunctionChain.stepOf(StepType.TRANSFORM_VALUE, doubleDef, doubler, new UserValueTransformer(doubler, tags))),
+                stringType, integerType);
+        assertThat(converted.apply(null, new DataString("a"), new DataInteger(1))).isEqualTo(new KeyValue<>(new DataString("a-"), new DataInteger(4)));
+
+        // Without fusing, the string result would fail the check before the next step is called
+        final var checked = new PythonFunctionChain(context, "test", List.of(
+                PythonFunctionChain.stepOf(StepType.TRANSFORM_VALUE, textDef, text, new UserValueTransformer(text, tags)),
+                PythonFunctionChain.stepOf(StepType.TRANSFORM_VALUE, doubleDef, doubler, new UserValueTransformer(doubler, tags))),
+                stringType, integerType);
+        assertThatThrownBy(() -> checked.apply(null, new DataString("a"), new DataInteger(1)));
+        assertThat(executions(tags, KSMLDSL.Functions.TYPE_VALUETRANSFORMER, "text")).isZero();
+        assertThat(executions(tags, KSMLDSL.Functions.TYPE_VALUETRANSFORMER, "double")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Functions with global code and functions that do not run in Python are not chained")
+    void onlyPythonFunctionsWithoutGlobalCodeAreChained() {
+        final var tags = new MetricTags().append("test", "chain-step");
+        final var withGlobals = FunctionDefinition.as(KSMLDSL.Functions.TYPE_PREDICATE, "limited", params,
+                PythonSource.of("limit = 10", null, "value < limit"), booleanType, List.of());
+        final var limited = PythonFunction.forFunction(context, "test", "limited", withGlobals);
+
+        assertThat(PythonFunctionChain.stepOf(StepType.FILTER, withGlobals, limited, new UserPredicate(limited, tags))).isNull();
+        final var nativeDef = definition(KSMLDSL.Functions.TYPE_PREDICATE, "native", null, "value < 10", booleanType);
+        final var nativeFunction = new UserFunction("test", "native", params, booleanType, List.of());
+        assertThat(PythonFunctionChain.stepOf(StepType.FILTER, nativeDef, nativeFunction, new UserPredicate(nativeFunction, tags))).isNull();
+    }
+}
@@ -20,6 +20,7 @@ package io.axual.ksml.python;
  * =========================LICENSE_END==================================
  */
 
+import io.axual.ksml.data.object.DataBoolean;
 import io.axual.ksml.data.object.DataInteger;
 import io.axual.ksml.data.object.DataNull;
 import io.axual.ksml.data.object.DataString;
@@ -27,13 +28,17 @@ import io.axual.ksml.definition.FunctionDefinition;
 import io.axual.ksml.definition.ParameterDefinition;
 import io.axual.ksml.definition.PythonSource;
 import io.axual.ksml.dsl.KSMLDSL;
+import io.axual.ksml.exception.ExecutionException;
 import io.axual.ksml.type.UserType;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 
+import java.util.Arrays;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class PythonFunctionTest {
     @BeforeAll
@@ -140,4 +145,38 @@ class PythonFunctionTest {
         assertThat(((DataString) resultNullKeyValue).value()).isEqualTo(expectedResultNullKeyValue);
 
     }
+
+    @ParameterizedTest
+    @CsvSource({"1, 2, 0", "5, 1, 1", "-3, -4, 2"})
+    void testRouterReturnsFirstMatchingCondition(Integer i1, Integer i2, Integer branch) {
+        final var booleanType = new UserType(UserType.DEFAULT_NOTATION, DataBoolean.DATATYPE);
+        final var lower = FunctionDefinition.as(KSMLDSL.Functions.TYPE_PREDICATE, "lower", params, PythonSource.of(null, null, "one < two"), booleanType, null);
+        final var positive = FunctionDefinition.as(KSMLDSL.Functions.TYPE_PREDICATE, "positive", params, PythonSource.of(null, new String[]{"result = one > 0"}, new String[]{"result"}), booleanType, null);
+        // The last condition is absent, so it matches everything that the others do not
+        final var router = PythonFunction.forRouter(context, "test", "router", params, Arrays.asList(lower, positive, null));
+
+        final var result = router.call(new DataInteger(i1), new DataInteger(i2));
+        assertThat(result).isEqualTo(new DataInteger(branch));
+    }
+
+    @Test
+    void testRouterRejectsNonBooleanConditionResults() {
+        final var booleanType = new UserType(UserType.DEFAULT_NOTATION, DataBoolean.DATATYPE);
+        final var sum = FunctionDefinition.as(KSMLDSL.Functions.TYPE_PREDICATE, "sum", params, PythonSource.of(null, null, "one + two"), booleanType, null);
+        final var router = PythonFunction.forRouter(context, "test", "nonBooleanRouter", params, Arrays.asList(sum, null));
+
+        assertThatThrownBy(() -> router.call(new DataInteger(1), new DataInteger(2)))
+                .hasMessageContaining("Expected a boolean back from the predicate function");
+    }
+
+    @Test
+    void testRouterRejectsConditionsWithGlobalCode() {
+        final var booleanType = new UserType(UserType.DEFAULT_NOTATION, DataBoolean.DATATYPE);
+        final var limited = FunctionDefinition.as(KSMLDSL.Functions.TYPE_PREDICATE, "limited", params, PythonSource.of("limit = 3", null, "one < limit"), booleanType, null);
+
+        assertThat(PythonFunction.hasGlobalCode(limited)).isTrue();
+        assertThatThrownBy(() -> PythonFunction.forRouter(context, "test", "globalRouter", params, Arrays.asList(limited, null)))
+                .isInstanceOf(ExecutionException.class)
+                .hasMessageContaining("can not have global code");
+    }
 }
@@ -0,0 +1,257 @@
+package io.axual.ksml.store;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.metric.MetricName;
+import io.axual.ksml.metric.MetricTags;
+import io.axual.ksml.metric.Metrics;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.common.utils.Time;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.Topology;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.processor.StateRestoreCallback;
+import org.apache.kafka.streams.processor.StateStoreContext;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueBytesStoreSupplier;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.Stores;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BoundedKeyValueStoreTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    private Time clock() {
+        final var time = mock(Time.class);
+        when(time.milliseconds()).thenAnswer(_ -> now.get());
+        return time;
+    }
+
+    private static Bytes key(String key) {
+        return Bytes.wrap(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] value(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long evictions(String storeName, String reason) {
+        final var counter = Metrics.registry().getCounter(new MetricName(BoundedKeyValueStore.EVICTION_METRIC,
+                new MetricTags().append("store-name", storeName).append("reason", reason)));
+        return counter != null ? counter.getCount() : 0;
+    }
+
+    @Test
+    @DisplayName("the least recently used entry is evicted when the store is full")
+    void evictsLeastRecentlyUsed() {
+        final var store = new BoundedKeyValueStore("lru-store", 2, Duration.ZERO, false, clock());
+        store.put(key("a"), value("1"));
+        store.put(key("b"), value("2"));
+        store.get(key("a"));
+        store.put(key("c"), value("3"));
+
+        assertThat(store.get(key("a"))).isEqualTo(value("1"));
+        assertThat(store.get(key("b"))).isNull();
+        assertThat(store.get(key("c"))).isEqualTo(value("3"));
+        assertThat(store.approximateNumEntries()).isEqualTo(2);
+        assertThat(evictions("lru-store", BoundedKeyValueStore.REASON_SIZE)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("entries expire after their time to live and are removed on later writes")
+    void expiresEntries() {
+        final var store = new BoundedKeyValueStore("ttl-store", 0, Duration.ofMinutes(1), false, clock());
+        store.put(key("a"), value("1"));
+        now.addAndGet(30_000);
+        store.put(key("b"), value("2"));
+        // Writing a key again starts a new time to live
+        store.put(key("a"), value("3"));
+
+        now.addAndGet(45_000);
+        assertThat(store.get(key("a"))).isEqualTo(value("3"));
+        assertThat(store.get(key("b"))).isEqualTo(value("2"));
+
+        now.addAndGet(30_000);
+        assertThat(store.get(key("a"))).isNull();
+        store.put(key("c"), value("4"));
+        assertThat(store.approximateNumEntries()).isEqualTo(1);
+        assertThat(evictions("ttl-store", BoundedKeyValueStore.REASON_EXPIRED)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("expiring entries does not change which entry is least recently used")
+    void expiryKeepsLeastRecentlyUsedOrder() {
+        final var store = new BoundedKeyValueStore("lru-ttl-store", 2, Duration.ofMinutes(1), false, clock());
+        store.put(key("a"), value("1"));
+        now.addAndGet(10_000);
+        // Writing again schedules a second expiry, the first one is checked and skipped later
+        store.put(key("a"), value("2"));
+        now.addAndGet(10_000);
+        store.put(key("b"), value("3"));
+        now.addAndGet(10_000);
+        store.get(key("b"));
+
+        now.addAndGet(31_000);
+        store.put(key("c"), value("4"));
+
+        assertThat(store.get(key("a"))).isNull();
+        assertThat(store.get(key("b"))).isEqualTo(value("3"));
+        assertThat(store.get(key("c"))).isEqualTo(value("4"));
+        assertThat(evictions("lru-ttl-store", BoundedKeyValueStore.REASON_EXPIRED)).isZero();
+        assertThat(evictions("lru-ttl-store", BoundedKeyValueStore.REASON_SIZE)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("off-heap values reuse the blocks of removed values and large values stay on the heap")
+    void offHeapBlocksAreReused() {
+        final var arena = new OffHeapArena();
+        final var first = arena.allocate(value("first value"));
+        arena.free(first, "first value".length());
+        final var second = arena.allocate(value("second"));
+        assertThat(second).isEqualTo(first);
+        assertThat(arena.read(second, "second".length())).isEqualTo(value("second"));
+
+        final var store = new BoundedKeyValueStore("large-off-heap-store", 0, Duration.ZERO, true, clock());
+        final var large = new byte[OffHeapArena.SLAB_SIZE + 1];
+        large[OffHeapArena.SLAB_SIZE] = 7;
+        store.put(key("large"), large);
+        store.put(key("small"), value("1"));
+        store.put(key("small"), value("22"));
+        assertThat(store.get(key("large"))).isEqualTo(large);
+        assertThat(store.get(key("small"))).isEqualTo(value("22"));
+    }
+
+    @Test
+    @DisplayName("off-heap values are returned as copies and iterated in key order")
+    void iteratesOffHeapValues() {
+        final var store = new BoundedKeyValueStore("off-heap-store", 0, Duration.ZERO, true, clock());
+        store.putAll(List.of(KeyValue.pair(key("order-2"), value("b")), KeyValue.pair(key("order-1"), value("a")), KeyValue.pair(key("user-1"), value("c"))));
+        assertThat(store.putIfAbsent(key("order-1"), value("x"))).isEqualTo(value("a"));
+
+        final var keys = new ArrayList<String>();
+        try (final var iterator = store.prefixScan("order-", new StringSerializer())) {
+            iterator.forEachRemaining(entry -> keys.add(new String(entry.key.get(), StandardCharsets.UTF_8)));
+        }
+        assertThat(keys).containsExactly("order-1", "order-2");
+
+        try (final var iterator = store.reverseRange(key("order-2"), null)) {
+            assertThat(iterator.peekNextKey()).isEqualTo(key("user-1"));
+            assertThat(iterator.next().value).isEqualTo(value("c"));
+            assertThat(iterator.next().value).isEqualTo(value("b"));
+            assertThat(iterator.hasNext()).isFalse();
+        }
+        assertThat(store.delete(key("order-2"))).isEqualTo(value("b"));
+        assertThat(store.get(key("order-2"))).isNull();
+    }
+
+    // Writes every record of the input topic to the store
+    private static class StoreWriter implements Processor<String, String, Void, Void> {
+        private KeyValueStore<String, String> store;
+
+        @Override
+        public void init(ProcessorContext<Void, Void> context) {
+            store = context.getStateStore("seen-ids");
+        }
+
+        @Override
+        public void process(Record<String, String> rec) {
+            store.put(rec.key(), rec.value());
+        }
+    }
+
+    @Test
+    @DisplayName("evicted and expired keys are deleted from the changelog and stay gone after a restore")
+    void evictedAndExpiredKeysStayGoneAfterRestore() {
+        final var clock = clock();
+        final var supplier = new KeyValueBytesStoreSupplier() {
+            @Override
+            public String name() {
+                return "seen-ids";
+            }
+
+            @Override
+            public KeyValueStore<Bytes, byte[]> get() {
+                return new BoundedKeyValueStore("seen-ids", 2, Duration.ofMinutes(1), false, clock);
+            }
+
+            @Override
+            public String metricsScope() {
+                return "in-memory-bounded";
+            }
+        };
+        final var topology = new Topology();
+        topology.addSource("source", new StringDeserializer(), new StringDeserializer(), "ids");
+        topology.addProcessor("writer", StoreWriter::new, "source");
+        topology.addStateStore(Stores.keyValueStoreBuilder(supplier, Serdes.String(), Serdes.String()).withCachingDisabled().withLoggingEnabled(new HashMap<>()), "writer");
+        final var properties = new Properties();
+        properties.put(StreamsConfig.APPLICATION_ID_CONFIG, "bounded-store-test");
+
+        final var changelog = new ArrayList<KeyValue<String, String>>();
+        try (final var driver = new TopologyTestDriver(topology, properties)) {
+            final var input = driver.createInputTopic("ids", new StringSerializer(), new StringSerializer());
+            input.pipeInput("a", "1");
+            input.pipeInput("b", "2");
+            // Evicts a, since the store holds at most two entries
+            input.pipeInput("c", "3");
+            now.addAndGet(61_000);
+            // Expires b and c
+            input.pipeInput("d", "4");
+            changelog.addAll(driver.createOutputTopic("bounded-store-test-seen-ids-changelog", new StringDeserializer(), new StringDeserializer()).readKeyValuesToList());
+        }
+        assertThat(changelog).contains(KeyValue.pair("a", null), KeyValue.pair("b", null), KeyValue.pair("c", null));
+
+        final var restored = new BoundedKeyValueStore("restored-seen-ids", 2, Duration.ofMinutes(1), false, clock);
+        final var context = mock(StateStoreContext.class);
+        restored.init(context, restored);
+        final var callback = ArgumentCaptor.forClass(StateRestoreCallback.class);
+        verify(context).register(same(restored), callback.capture());
+        changelog.forEach(entry -> callback.getValue().restore(entry.key.getBytes(StandardCharsets.UTF_8), entry.value != null ? value(entry.value) : null));
+
+        assertThat(restored.get(key("a"))).isNull();
+        assertThat(restored.get(key("b"))).isNull();
+        assertThat(restored.get(key("c"))).isNull();
+        assertThat(restored.get(key("d"))).isEqualTo(value("4"));
+        assertThat(restored.approximateNumEntries()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,127 @@
+package io.axual.ksml.store;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.metric.MetricName;
+import io.axual.ksml.metric.MetricTags;
+import io.axual.ksml.metric.Metrics;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.common.utils.Time;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.TimestampedBytesStore;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+class GlobalTableNearCacheTest {
+    private static final Serializer<Object> KEY_SERIALIZER = (_, key) -> key.toString().getBytes(StandardCharsets.UTF_8);
+    private static final Map<String, String> PRODUCTS = Map.of("p1", "Coffee", "p2", "Tea");
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final UnaryOperator<Object> loader = key -> {
+        loads.incrementAndGet();
+        return PRODUCTS.get(key.toString());
+    };
+
+    private static GlobalTableNearCache cache(String storeName) {
+        return new GlobalTableNearCache(storeName, "products", 100, KEY_SERIALIZER);
+    }
+
+    private static Bytes key(String key) {
+        return Bytes.wrap(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long count(String metric, String storeName) {
+        final var counter = Metrics.registry().getCounter(new MetricName(metric, new MetricTags().append("store-name", storeName)));
+        return counter != null ? counter.getCount() : 0;
+    }
+
+    @Test
+    @DisplayName("values and unknown keys are loaded once and then served from the cache")
+    void cachesLoadedValues() {
+        final var cache = cache("cached-products");
+
+        assertThat(cache.get("p1", loader)).isEqualTo("Coffee");
+        assertThat(cache.get("p1", loader)).isEqualTo("Coffee");
+        assertThat(cache.get("unknown", loader)).isNull();
+        assertThat(cache.get("unknown", loader)).isNull();
+
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(count(GlobalTableNearCache.HITS_METRIC, "cached-products")).isEqualTo(2);
+        assertThat(count(GlobalTableNearCache.MISSES_METRIC, "cached-products")).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("keys that are written to the global store are loaded again")
+    void invalidatesWrittenKeys() {
+        final var cache = cache("written-products");
+        final var store = NearCacheInvalidatingKeyValueStore.wrap(new BoundedKeyValueStore("written-products", 0, Duration.ZERO, false, Time.SYSTEM), cache);
+        cache.get("p1", loader);
+        cache.get("p2", loader);
+
+        store.put(key("p1"), new byte[]{1});
+        cache.get("p1", loader);
+        cache.get("p2", loader);
+        assertThat(loads.get()).isEqualTo(3);
+
+        store.delete(key("p2"));
+        cache.get("p2", loader);
+        assertThat(loads.get()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("a value that was loaded while its key was updated is not cached")
+    void skipsValuesLoadedDuringUpdates() {
+        final var cache = cache("updated-products");
+        final UnaryOperator<Object> updatingLoader = key -> {
+            final var result = loader.apply(key);
+            cache.invalidate(key(key.toString()));
+            return result;
+        };
+
+        assertThat(cache.get("p1", updatingLoader)).isEqualTo("Coffee");
+        cache.get("p1", loader);
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("wrapped stores keep the timestamped format of the store they wrap")
+    @SuppressWarnings("unchecked")
+    void keepsTimestampedFormat() {
+        final var cache = cache("wrapped-products");
+        final KeyValueStore<Bytes, byte[]> timestamped = mock(KeyValueStore.class, withSettings().extraInterfaces(TimestampedBytesStore.class));
+        final KeyValueStore<Bytes, byte[]> plain = mock(KeyValueStore.class);
+
+        assertThat(NearCacheInvalidatingKeyValueStore.wrap(timestamped, cache)).isInstanceOf(TimestampedBytesStore.class);
+        assertThat(NearCacheInvalidatingKeyValueStore.wrap(plain, cache)).isNotInstanceOf(TimestampedBytesStore.class);
+    }
+}
@@ -0,0 +1,91 @@
+package io.axual.ksml.store;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.definition.RocksDbDefinition;
+import io.axual.ksml.metric.MetricName;
+import io.axual.ksml.metric.MetricTags;
+import io.axual.ksml.metric.Metrics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.CompactionStyle;
+import org.rocksdb.CompressionType;
+import org.rocksdb.Options;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KsmlRocksDBConfigSetterTest {
+
+    private static Options defaultOptions() {
+        final var options = new Options();
+        options.setTableFormatConfig(new BlockBasedTableConfig());
+        return options;
+    }
+
+    @Test
+    @DisplayName("settings are found for the segments of a store, but not for other stores")
+    void settingsAreFoundBySegmentName() {
+        final var settings = new RocksDbDefinition(1024L, null, true, "zstd", null, null, null, false);
+        KsmlRocksDBConfigSetter.register("dedup.store", settings);
+
+        assertThat(KsmlRocksDBConfigSetter.settingsOf("dedup.store")).isEqualTo(settings);
+        assertThat(KsmlRocksDBConfigSetter.settingsOf("dedup.store.1700000000000")).isEqualTo(settings);
+        assertThat(KsmlRocksDBConfigSetter.settingsOf("dedup")).isNull();
+        assertThat(KsmlRocksDBConfigSetter.settingsOf("other.1700000000000")).isNull();
+    }
+
+    @Test
+    @DisplayName("settings are applied to the options of a store and statistics are exported while it is open")
+    void settingsAreAppliedAndStatisticsExported() {
+        KsmlRocksDBConfigSetter.register("joinStore", new RocksDbDefinition(4096L, "joins", false, "lz4", 1024L * 1024, 5, "universal", true));
+        final var metricName = new MetricName("rocksdb-bytes-written", new MetricTags().append("store-name", "joinStore"));
+        final var setter = new KsmlRocksDBConfigSetter();
+
+        try (final var options = defaultOptions()) {
+            setter.setConfig("joinStore.1700000000000", options, Map.of());
+            assertThat(options.compressionType()).isEqualTo(CompressionType.LZ4_COMPRESSION);
+            assertThat(options.writeBufferSize()).isEqualTo(1024L * 1024);
+            assertThat(options.maxWriteBufferNumber()).isEqualTo(5);
+            assertThat(options.compactionStyle()).isEqualTo(CompactionStyle.UNIVERSAL);
+            assertThat(options.statistics()).isNotNull();
+            assertThat(Metrics.registry().getGauge(metricName)).isNotNull();
+
+            setter.close("joinStore.1700000000000", options);
+            assertThat(Metrics.registry().getGauge(metricName)).isNull();
+        }
+    }
+
+    @Test
+    @DisplayName("stores without settings keep their options")
+    void storesWithoutSettingsAreUntouched() {
+        try (final var options = defaultOptions()) {
+            final var compression = options.compressionType();
+            final var setter = new KsmlRocksDBConfigSetter();
+            setter.setConfig("unconfigured", options, Map.of());
+            assertThat(options.compressionType()).isEqualTo(compression);
+            assertThat(options.statistics()).isNull();
+            setter.close("unconfigured", options);
+        }
+    }
+}
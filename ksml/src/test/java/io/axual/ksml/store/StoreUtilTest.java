@@ -21,6 +21,7 @@ package io.axual.ksml.store;
  */
 
 import io.axual.ksml.data.notation.Notation;
+import io.axual.ksml.data.serde.CompactBinarySerde;
 import io.axual.ksml.definition.KeyValueStateStoreDefinition;
 import io.axual.ksml.definition.SessionStateStoreDefinition;
 import io.axual.ksml.definition.StateStoreDefinition;
@@ -142,6 +143,22 @@ class StoreUtilTest {
         assertThat(StoreUtil.materialize(windowStore(true, false, false, Duration.ofSeconds(60), Duration.ofSeconds(10))).materialized()).isNotNull();
     }
 
+    @Test
+    @DisplayName("with the compact internal format, only values of operation stores are written in compact form")
+    void compactInternalFormatAppliesToOperationStoreValues() {
+        final var store = keyValueStore(false, false, false, false, false);
+        ExecutionContext.INSTANCE.compactInternalFormat(true);
+        try {
+            final var materialized = StoreUtil.materialize(store);
+            assertThat(materialized.valueSerde()).isInstanceOf(CompactBinarySerde.class);
+            assertThat(materialized.keySerde()).isNotInstanceOf(CompactBinarySerde.class);
+            assertThat(StoreUtil.materializeSource(store).valueSerde()).isNotInstanceOf(CompactBinarySerde.class);
+        } finally {
+            ExecutionContext.INSTANCE.compactInternalFormat(false);
+        }
+        assertThat(StoreUtil.materialize(store).valueSerde()).isNotInstanceOf(CompactBinarySerde.class);
+    }
+
     // --- validatedWindowStore --------------------------------------------------------------------
 
     private static JoinWindows joinWindows() {
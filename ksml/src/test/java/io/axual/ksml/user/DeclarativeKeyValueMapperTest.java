@@ -0,0 +1,59 @@
+package io.axual.ksml.user;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.object.DataNull;
+import io.axual.ksml.data.object.DataObject;
+import io.axual.ksml.data.object.DataString;
+import io.axual.ksml.data.object.DataStruct;
+import io.axual.ksml.type.UserType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeclarativeKeyValueMapperTest {
+
+    private static DataStruct order(DataObject productId) {
+        final var line = new DataStruct();
+        if (productId != null) line.put("productId", productId);
+        final var result = new DataStruct();
+        result.put("id", new DataString("o-1"));
+        result.put("line", line);
+        return result;
+    }
+
+    @Test
+    @DisplayName("the key is read from a nested value field")
+    void selectsNestedField() {
+        final var mapper = new DeclarativeKeyValueMapper("line.productId", UserType.UNKNOWN);
+        assertThat(mapper.apply(new DataString("o-1"), order(new DataString("p1")))).isEqualTo(new DataString("p1"));
+    }
+
+    @Test
+    @DisplayName("missing and null fields select no key")
+    void selectsNoKeyForMissingFields() {
+        final var mapper = new DeclarativeKeyValueMapper("line.productId", UserType.UNKNOWN);
+        assertThat(mapper.apply(null, order(null))).isNull();
+        assertThat(mapper.apply(null, order(DataNull.INSTANCE))).isNull();
+        assertThat(mapper.apply(null, new DataString("not a struct"))).isNull();
+    }
+}
@@ -0,0 +1,110 @@
+package io.axual.ksml.user;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.object.DataDouble;
+import io.axual.ksml.data.object.DataLong;
+import io.axual.ksml.data.object.DataObject;
+import io.axual.ksml.data.object.DataString;
+import io.axual.ksml.data.object.DataStruct;
+import io.axual.ksml.definition.TimestampSourceDefinition;
+import io.axual.ksml.exception.TopologyException;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DeclarativeTimestampExtractorTest {
+    private static final long RECORD_TIMESTAMP = 42L;
+
+    private static ConsumerRecord<Object, Object> consumerRecord(Object value, String header, String headerValue) {
+        final var headers = new RecordHeaders();
+        if (header != null) headers.add(header, headerValue.getBytes(StandardCharsets.UTF_8));
+        return new ConsumerRecord<>("topic", 0, 0L, RECORD_TIMESTAMP, TimestampType.CREATE_TIME, 0, 0, "key", value, headers, Optional.empty());
+    }
+
+    private static DataStruct order(String field, DataObject time) {
+        final var meta = new DataStruct();
+        meta.put(field, time);
+        final var result = new DataStruct();
+        result.put("id", new DataString("o-1"));
+        result.put("meta", meta);
+        return result;
+    }
+
+    private static long extract(TimestampSourceDefinition source, ConsumerRecord<Object, Object> rec) {
+        return new DeclarativeTimestampExtractor(source).extract(rec, 0L);
+    }
+
+    @Test
+    @DisplayName("numeric fields are read as epoch timestamps in the configured unit")
+    void readsEpochFields() {
+        final var millis = new TimestampSourceDefinition("meta.created", null, null, null);
+        final var seconds = new TimestampSourceDefinition("meta.created", null, null, "seconds");
+        assertThat(extract(millis, consumerRecord(order("created", new DataLong(1_700_000_000_123L)), null, null))).isEqualTo(1_700_000_000_123L);
+        assertThat(extract(seconds, consumerRecord(order("created", new DataLong(1_700_000_000L)), null, null))).isEqualTo(1_700_000_000_000L);
+        assertThat(extract(seconds, consumerRecord(order("created", new DataDouble(1_700_000_000.5)), null, null))).isEqualTo(1_700_000_000_500L);
+    }
+
+    @Test
+    @DisplayName("text fields are parsed as ISO-8601, epoch numbers or with the configured pattern")
+    void readsTextFields() {
+        final var iso = new TimestampSourceDefinition("meta.created", null, null, null);
+        final var pattern = new TimestampSourceDefinition("meta.created", null, "dd-MM-yyyy HH:mm", null);
+        assertThat(extract(iso, consumerRecord(order("created", new DataString("2023-11-14T22:13:20.123Z")), null, null))).isEqualTo(1_700_000_000_123L);
+        assertThat(extract(iso, consumerRecord(order("created", new DataString("2023-11-14T23:13:20+01:00")), null, null))).isEqualTo(1_700_000_000_000L);
+        assertThat(extract(iso, consumerRecord(order("created", new DataString("1700000000123")), null, null))).isEqualTo(1_700_000_000_123L);
+        // Date-times without a zone are read as UTC
+        assertThat(extract(pattern, consumerRecord(order("created", new DataString("14-11-2023 22:13")), null, null))).isEqualTo(1_699_999_980_000L);
+    }
+
+    @Test
+    @DisplayName("headers are read as text")
+    void readsHeaders() {
+        final var source = new TimestampSourceDefinition(null, "event-time", null, "seconds");
+        assertThat(extract(source, consumerRecord(null, "event-time", "1700000000"))).isEqualTo(1_700_000_000_000L);
+    }
+
+    @Test
+    @DisplayName("the record timestamp is used when the field or header is missing or invalid")
+    void fallsBackToRecordTimestamp() {
+        final var field = new TimestampSourceDefinition("meta.created", null, null, null);
+        final var header = new TimestampSourceDefinition(null, "event-time", null, null);
+        assertThat(extract(field, consumerRecord(order("other", new DataLong(1L)), null, null))).isEqualTo(RECORD_TIMESTAMP);
+        assertThat(extract(field, consumerRecord(new DataString("not a struct"), null, null))).isEqualTo(RECORD_TIMESTAMP);
+        assertThat(extract(field, consumerRecord(order("created", new DataString("yesterday")), null, null))).isEqualTo(RECORD_TIMESTAMP);
+        assertThat(extract(header, consumerRecord(null, null, null))).isEqualTo(RECORD_TIMESTAMP);
+    }
+
+    @Test
+    @DisplayName("an invalid pattern is rejected when the extractor is created")
+    void rejectsInvalidPattern() {
+        final var source = new TimestampSourceDefinition("created", null, "yyyy-MM-dd'", null);
+        assertThatThrownBy(() -> new DeclarativeTimestampExtractor(source)).isInstanceOf(TopologyException.class);
+    }
+}
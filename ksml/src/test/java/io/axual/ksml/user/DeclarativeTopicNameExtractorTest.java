@@ -0,0 +1,87 @@
+package io.axual.ksml.user;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.object.DataInteger;
+import io.axual.ksml.data.object.DataObject;
+import io.axual.ksml.data.object.DataString;
+import io.axual.ksml.data.object.DataStruct;
+import io.axual.ksml.definition.TopicRouteDefinition;
+import io.axual.ksml.exception.ExecutionException;
+import io.axual.ksml.metric.MetricName;
+import io.axual.ksml.metric.Metrics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static io.axual.ksml.user.UserTestSupport.tags;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DeclarativeTopicNameExtractorTest {
+    private static final Map<String, String> TOPICS = Map.of("EU", "orders-eu", "US", "orders-us", "1", "orders-one");
+
+    private static DataStruct order(String field, DataObject region) {
+        final var meta = new DataStruct();
+        if (region != null) meta.put(field, region);
+        final var result = new DataStruct();
+        result.put("id", new DataString("o-1"));
+        result.put("meta", meta);
+        return result;
+    }
+
+    @Test
+    @DisplayName("the topic is looked up by the textual value of a nested field")
+    void routesOnNestedField() {
+        final var extractor = new DeclarativeTopicNameExtractor(new TopicRouteDefinition("meta.region", TOPICS, null), tags());
+        assertThat(extractor.extract("key", order("region", new DataString("EU")), null)).isEqualTo("orders-eu");
+        assertThat(extractor.extract("key", order("region", new DataString("US")), null)).isEqualTo("orders-us");
+        assertThat(extractor.extract("key", order("region", new DataInteger(1)), null)).isEqualTo("orders-one");
+    }
+
+    @Test
+    @DisplayName("missing and unlisted values go to the default topic, or fail without one")
+    void usesDefaultTopic() {
+        final var withDefault = new DeclarativeTopicNameExtractor(new TopicRouteDefinition("meta.region", TOPICS, "orders-other"), tags());
+        assertThat(withDefault.extract("key", order("region", new DataString("APAC")), null)).isEqualTo("orders-other");
+        assertThat(withDefault.extract("key", order("region", null), null)).isEqualTo("orders-other");
+
+        final var withoutDefault = new DeclarativeTopicNameExtractor(new TopicRouteDefinition("meta.region", TOPICS, null), tags());
+        final var unlisted = order("region", new DataString("APAC"));
+        assertThatThrownBy(() -> withoutDefault.extract("key", unlisted, null))
+                .isInstanceOf(ExecutionException.class)
+                .hasMessageContaining("meta.region");
+    }
+
+    @Test
+    @DisplayName("every destination has its own routing counter")
+    void countsRoutedRecords() {
+        final var routeTags = tags().append("operation-name", "count-test");
+        final var extractor = new DeclarativeTopicNameExtractor(new TopicRouteDefinition("meta.region", TOPICS, null), routeTags);
+        extractor.extract("key", order("region", new DataString("EU")), null);
+        extractor.extract("key", order("region", new DataString("EU")), null);
+
+        final var counter = Metrics.registry().getCounter(new MetricName("topic-route-count", routeTags.append("topic", "orders-eu")));
+        assertThat(counter.getCount()).isEqualTo(2);
+        assertThat(Metrics.registry().getCounter(new MetricName("topic-route-count", routeTags.append("topic", "orders-us"))).getCount()).isZero();
+    }
+}
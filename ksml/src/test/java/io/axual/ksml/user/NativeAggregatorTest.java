@@ -0,0 +1,183 @@
+package io.axual.ksml.user;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import io.axual.ksml.data.object.DataDouble;
+import io.axual.ksml.data.object.DataInteger;
+import io.axual.ksml.data.object.DataList;
+import io.axual.ksml.data.object.DataLong;
+import io.axual.ksml.data.object.DataMap;
+import io.axual.ksml.data.object.DataObject;
+import io.axual.ksml.data.object.DataString;
+import io.axual.ksml.data.object.DataStruct;
+import io.axual.ksml.data.schema.DataSchema;
+import io.axual.ksml.data.schema.StructSchema;
+import io.axual.ksml.data.type.DataType;
+import io.axual.ksml.data.type.StructType;
+import io.axual.ksml.definition.BuiltinAggregationDefinition;
+import io.axual.ksml.exception.TopologyException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class NativeAggregatorTest {
+    private static BuiltinAggregationDefinition builtin(String function) {
+        return new BuiltinAggregationDefinition(function, "reading.value", null, null, null, null);
+    }
+
+    private static DataStruct reading(DataObject value) {
+        final var reading = new DataStruct();
+        if (value != null) reading.put("value", value);
+        final var result = new DataStruct();
+        result.put("sensor", new DataString("sensor-1"));
+        result.put("reading", reading);
+        return result;
+    }
+
+    private static DataStruct aggregate(NativeAggregator aggregator, DataObject... values) {
+        Object result = aggregator.apply();
+        for (final var value : values) result = aggregator.apply("key", reading(value), result);
+        return (DataStruct) result;
+    }
+
+    @Test
+    @DisplayName("sum, min and max aggregate a nested numeric field and skip missing values")
+    void aggregatesNumbers() {
+        final DataObject[] values = {new DataInteger(3), null, new DataDouble(1.5), new DataLong(7L)};
+        final var sum = new NativeAggregator(builtin("sum"), DataType.UNKNOWN);
+        final var min = new NativeAggregator(builtin("min"), DataType.UNKNOWN);
+        final var max = new NativeAggregator(builtin("max"), DataType.UNKNOWN);
+
+        Object sumResult = sum.apply();
+        Object minResult = min.apply();
+        Object maxResult = max.apply();
+        for (final var value : values) {
+            sumResult = sum.apply("key", reading(value), sumResult);
+            minResult = min.apply("key", reading(value), minResult);
+            maxResult = max.apply("key", reading(value), maxResult);
+        }
+        assertThat(sumResult).isEqualTo(new DataDouble(11.5));
+        assertThat(minResult).isEqualTo(new DataDouble(1.5));
+        assertThat(maxResult).isEqualTo(new DataDouble(7.0));
+    }
+
+    @Test
+    @DisplayName("sum, min and max of an integral field are exact longs")
+    void aggregatesIntegralNumbersAsLongs() {
+        final var readingSchema = new StructSchema("io.axual.test", "Reading", "A reading", List.of(
+                new StructSchema.Field("value", DataSchema.LONG_SCHEMA, "The value")));
+        final var valueType = new StructType(new StructSchema("io.axual.test", "Measurement", "A measurement", List.of(
+                new StructSchema.Field("reading", readingSchema, "The reading"))));
+        final var sum = new NativeAggregator(builtin("sum"), valueType);
+        final var min = new NativeAggregator(builtin("min"), valueType);
+        assertThat(sum.resultType()).isEqualTo(DataLong.DATATYPE);
+
+        Object sumResult = sum.apply();
+        Object minResult = min.apply();
+        for (final var value : new long[]{9007199254740993L, 2L}) {
+            sumResult = sum.apply("key", reading(new DataLong(value)), sumResult);
+            minResult = min.apply("key", reading(new DataLong(value)), minResult);
+        }
+        assertThat(sumResult).isEqualTo(new DataLong(9007199254740995L));
+        assertThat(minResult).isEqualTo(new DataLong(2L));
+    }
+
+    @Test
+    @DisplayName("averages keep their count and sum, so sessions merge exactly")
+    void averagesMerge() {
+        final var avg = new NativeAggregator(builtin("avg"), DataType.UNKNOWN);
+        final var first = aggregate(avg, new DataInteger(2), new DataInteger(4));
+        final var second = aggregate(avg, new DataInteger(9));
+        assertThat(first.get("avg")).isEqualTo(new DataDouble(3.0));
+
+        final var merged = (DataStruct) avg.merger().apply("key", first, second);
+        assertThat(merged.get("count")).isEqualTo(new DataLong(3L));
+        assertThat(merged.get("avg")).isEqualTo(new DataDouble(5.0));
+    }
+
+    @Test
+    @DisplayName("first and last keep the first and the latest value")
+    void selectsFirstAndLast() {
+        final var first = new NativeAggregator(builtin("first"), DataType.UNKNOWN);
+        final var last = new NativeAggregator(builtin("last"), DataType.UNKNOWN);
+        Object firstResult = first.apply();
+        Object lastResult = last.apply();
+        for (final var value : List.of("a", "b", "c")) {
+            firstResult = first.apply("key", reading(new DataString(value)), firstResult);
+            lastResult = last.apply("key", reading(new DataString(value)), lastResult);
+        }
+        assertThat(firstResult).isEqualTo(new DataString("a"));
+        assertThat(lastResult).isEqualTo(new DataString("c"));
+    }
+
+    @Test
+    @DisplayName("countDistinct estimates the number of distinct values")
+    void countsDistinctValues() {
+        final var aggregator = new NativeAggregator(builtin("countDistinct"), DataType.UNKNOWN);
+        Object result = aggregator.apply();
+        for (int round = 0; round < 2; round++) {
+            for (int index = 0; index < 5000; index++)
+                result = aggregator.apply("key", reading(new DataString("user-" + index)), result);
+        }
+        final var count = (DataLong) ((DataStruct) result).get("count");
+        assertThat(count.value()).isBetween(4500L, 5500L);
+    }
+
+    @Test
+    @DisplayName("quantiles, topK and histograms summarize the aggregated values")
+    void summarizesValues() {
+        final var quantiles = new NativeAggregator(new BuiltinAggregationDefinition("quantiles", "reading.value", List.of(0.5), null, null, null), DataType.UNKNOWN);
+        final var topK = new NativeAggregator(new BuiltinAggregationDefinition("topK", "reading.value", null, 1, null, null), DataType.UNKNOWN);
+        final var histogram = new NativeAggregator(new BuiltinAggregationDefinition("histogram", "reading.value", null, null, List.of(10.0, 1.0), null), DataType.UNKNOWN);
+
+        final var values = new DataObject[100];
+        for (int index = 0; index < values.length; index++) values[index] = new DataInteger(index % 20);
+        final var median = (DataMap) aggregate(quantiles, values).get("quantiles");
+        assertThat(((DataDouble) median.get("0.5")).value()).isCloseTo(9.5, within(1.0));
+
+        final var top = (DataList) aggregate(topK, new DataString("x"), new DataString("y"), new DataString("y")).get("top");
+        assertThat(top.size()).isEqualTo(1);
+        assertThat(((DataStruct) top.get(0)).get("item")).isEqualTo(new DataString("y"));
+
+        final var buckets = aggregate(histogram, new DataInteger(0), new DataInteger(1), new DataInteger(5), new DataInteger(50));
+        assertThat(buckets.get("counts")).isEqualTo(longs(2, 1, 1));
+    }
+
+    @Test
+    @DisplayName("invalid settings are reported when the topology is built")
+    void rejectsInvalidSettings() {
+        final var definition = new BuiltinAggregationDefinition("quantiles", null, List.of(1.5), null, null, null);
+        assertThatThrownBy(() -> new NativeAggregator(definition, DataType.UNKNOWN))
+                .isInstanceOf(TopologyException.class)
+                .hasMessageContaining("Quantiles must be between 0 and 1");
+    }
+
+    private static DataList longs(long... values) {
+        final var result = new DataList(DataLong.DATATYPE);
+        for (final var value : values) result.add(new DataLong(value));
+        return result;
+    }
+}
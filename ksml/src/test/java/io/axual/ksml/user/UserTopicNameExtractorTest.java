@@ -21,15 +21,23 @@ package io.axual.ksml.user;
  */
 
 import io.axual.ksml.data.object.DataInteger;
+import io.axual.ksml.data.object.DataObject;
 import io.axual.ksml.data.object.DataString;
+import io.axual.ksml.data.object.DataStruct;
 import io.axual.ksml.exception.ExecutionException;
+import io.axual.ksml.store.StateStores;
 import io.axual.ksml.type.UserType;
 import org.apache.kafka.common.header.internals.RecordHeaders;
 import org.apache.kafka.streams.processor.RecordContext;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static io.axual.ksml.user.UserTestSupport.functionReturning;
+import static io.axual.ksml.user.UserTestSupport.params;
 import static io.axual.ksml.user.UserTestSupport.tags;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -63,4 +71,39 @@ class UserTopicNameExtractorTest {
                 .isInstanceOf(ExecutionException.class)
                 .hasMessageContaining("string");
     }
+
+    private static UserFunction routeOnType(AtomicInteger calls) {
+        return new UserFunction("ns", "fn", params(3), STRING, (String[]) null) {
+            @Override
+            public DataObject call(StateStores stores, DataObject... parameters) {
+                calls.incrementAndGet();
+                return new DataString("topic-" + ((DataStruct) parameters[1]).get("type"));
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("a pure function is called once for every distinct value of the fields it reads")
+    void pureFunctionResultsAreReusedForEqualFieldsRead() {
+        final var calls = new AtomicInteger();
+        final var extractor = new UserTopicNameExtractor(routeOnType(calls), tags(), Set.of(), Set.of("type"), true);
+        final var context = recordContext();
+
+        assertThat(extractor.extract("key1", Map.of("type", "a", "reading", 1), context)).isEqualTo("topic-a");
+        assertThat(extractor.extract("key2", Map.of("type", "a", "reading", 2), context)).isEqualTo("topic-a");
+        assertThat(extractor.extract("key3", Map.of("type", "b", "reading", 3), context)).isEqualTo("topic-b");
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("a pure function that may read the whole value is called for every record")
+    void pureFunctionResultsAreNotCachedWithoutFieldsRead() {
+        final var calls = new AtomicInteger();
+        final var extractor = new UserTopicNameExtractor(routeOnType(calls), tags(), Set.of(), null, true);
+        final var context = recordContext();
+
+        extractor.extract("key", Map.of("type", "a"), context);
+        extractor.extract("key", Map.of("type", "a"), context);
+        assertThat(calls).hasValue(2);
+    }
 }
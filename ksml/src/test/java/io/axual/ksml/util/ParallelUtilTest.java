@@ -0,0 +1,58 @@
+package io.axual.ksml.util;
+
+/*-
+ * ========================LICENSE_START=================================
+ * KSML
+ * %%
+ * Copyright (C) 2021 - 2026 Axual B.V.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParallelUtilTest {
+    @Test
+    @DisplayName("results are returned in the iteration order of the input")
+    void resultsKeepInputOrder() {
+        final var input = new LinkedHashMap<String, Integer>();
+        for (int index = 20; index > 0; index--) input.put("ns" + index, index);
+
+        final var result = ParallelUtil.mapInParallel(input, (name, value) -> name + "=" + value * 2, "test-");
+
+        assertThat(result.keySet()).containsExactlyElementsOf(input.keySet());
+        assertThat(result).containsEntry("ns3", "ns3=6");
+    }
+
+    @Test
+    @DisplayName("the exception of a failed task is rethrown")
+    void failuresAreRethrown() {
+        final var input = new LinkedHashMap<String, Integer>();
+        input.put("ok", 1);
+        input.put("failing", 2);
+
+        assertThatThrownBy(() -> ParallelUtil.mapInParallel(input, (name, value) -> {
+            if (value == 2) throw new IllegalStateException("Can not parse " + name);
+            return value;
+        }, "test-"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Can not parse failing");
+    }
+}